@@ -145,7 +145,9 @@ public class GroupingLongCollectorBenchmark {
             Version.CURRENT,
             keyInputs.getFirst(),
             DataTypes.LONG,
-            Version.CURRENT
+            Version.CURRENT,
+            null,
+            Long.MAX_VALUE
         );
     }
 
@@ -114,7 +114,9 @@ public class GroupingStringCollectorBenchmark {
             Version.CURRENT,
             keyInputs.get(0),
             DataTypes.STRING,
-            Version.CURRENT
+            Version.CURRENT,
+            null,
+            Long.MAX_VALUE
         );
     }
 
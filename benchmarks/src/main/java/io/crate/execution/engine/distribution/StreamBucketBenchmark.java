@@ -0,0 +1,120 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.engine.distribution;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.crate.Streamer;
+import io.crate.data.Row;
+import io.crate.data.RowN;
+import io.crate.data.breaker.RamAccounting;
+import io.crate.types.DataTypes;
+
+/**
+ * Compares the row and the columnar {@link StreamBucket} format for rows as they are shuffled by a distributed
+ * GROUP BY: (group key, partial count, partial sum, timestamp)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class StreamBucketBenchmark {
+
+    private static final int NUM_ROWS = 10_000;
+
+    private final Streamer<?>[] streamers = new Streamer[] {
+        DataTypes.STRING.streamer(),
+        DataTypes.LONG.streamer(),
+        DataTypes.LONG.streamer(),
+        DataTypes.TIMESTAMPZ.streamer()
+    };
+
+    @Param({"false", "true"})
+    public boolean columnar;
+
+    private List<Row> rows;
+    private BytesReference serialized;
+
+    @Setup
+    public void prepareData() throws IOException {
+        Random random = new Random(42);
+        rows = new ArrayList<>(NUM_ROWS);
+        long timestamp = 1_700_000_000_000L;
+        for (int i = 0; i < NUM_ROWS; i++) {
+            timestamp += random.nextInt(1000);
+            rows.add(new RowN(
+                "group-" + random.nextInt(100),
+                (long) random.nextInt(50),
+                random.nextLong(1_000_000),
+                timestamp
+            ));
+        }
+        serialized = serialize(build());
+    }
+
+    private StreamBucket build() {
+        StreamBucket.Builder builder = new StreamBucket.Builder(streamers, RamAccounting.NO_ACCOUNTING, columnar);
+        for (Row row : rows) {
+            builder.add(row);
+        }
+        return builder.build();
+    }
+
+    private static BytesReference serialize(StreamBucket bucket) throws IOException {
+        BytesStreamOutput out = new BytesStreamOutput();
+        bucket.writeTo(out);
+        return out.bytes();
+    }
+
+    @Benchmark
+    public BytesReference measureBuildAndSerialize() throws IOException {
+        return serialize(build());
+    }
+
+    @Benchmark
+    public void measureDeserializeAndIterate(Blackhole blackhole) throws IOException {
+        StreamInput in = serialized.streamInput();
+        StreamBucket bucket = new StreamBucket(in, streamers);
+        for (Row row : bucket) {
+            for (int i = 0; i < streamers.length; i++) {
+                blackhole.consume(row.get(i));
+            }
+        }
+    }
+}
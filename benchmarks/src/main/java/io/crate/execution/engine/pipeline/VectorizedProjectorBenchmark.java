@@ -0,0 +1,147 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.pipeline;
+
+import static io.crate.data.SentinelRow.SENTINEL;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import org.elasticsearch.common.settings.Settings;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.crate.data.BatchIterator;
+import io.crate.data.InMemoryBatchIterator;
+import io.crate.data.Projector;
+import io.crate.data.Row;
+import io.crate.data.RowN;
+import io.crate.execution.engine.collect.CollectExpression;
+import io.crate.expression.InputFactory;
+import io.crate.expression.RowFilter;
+import io.crate.expression.operator.GtOperator;
+import io.crate.expression.scalar.arithmetic.ArithmeticFunctions;
+import io.crate.expression.symbol.Function;
+import io.crate.expression.symbol.InputColumn;
+import io.crate.expression.symbol.Literal;
+import io.crate.expression.symbol.Symbol;
+import io.crate.expression.vector.VectorExpressions;
+import io.crate.metadata.CoordinatorTxnCtx;
+import io.crate.metadata.FunctionImplementation;
+import io.crate.metadata.Functions;
+import io.crate.metadata.NodeContext;
+import io.crate.metadata.SearchPath;
+import io.crate.metadata.TransactionContext;
+import io.crate.metadata.settings.session.SessionSettingRegistry;
+import io.crate.role.Role;
+import io.crate.types.DataTypes;
+
+/**
+ * Compares the row wise evaluation of {@code WHERE d > 0.5} and {@code SELECT x * 2 + 1}
+ * with the vectorized evaluation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Measurement(iterations = 5)
+@Fork(value = 2)
+@Warmup(iterations = 2)
+public class VectorizedProjectorBenchmark {
+
+    private final TransactionContext txnCtx = CoordinatorTxnCtx.systemTransactionContext();
+    private List<Row> rows;
+    private Projector rowEval;
+    private Projector vectorizedEval;
+    private Projector rowFilter;
+    private Projector vectorizedFilter;
+
+    @Setup
+    public void setup() {
+        Functions functions = Functions.load(Settings.EMPTY, new SessionSettingRegistry(Set.of()));
+        NodeContext nodeCtx = new NodeContext(functions, () -> List.of(Role.CRATE_USER), nodeContext -> null);
+        InputColumn x = new InputColumn(0, DataTypes.LONG);
+        InputColumn d = new InputColumn(1, DataTypes.DOUBLE);
+        Function multiply = function(functions, ArithmeticFunctions.Names.MULTIPLY, List.of(x, Literal.of(2L)));
+        List<Symbol> outputs = List.of(
+            function(functions, ArithmeticFunctions.Names.ADD, List.of(multiply, Literal.of(1L))));
+        Function query = function(functions, GtOperator.NAME, List.of(d, Literal.of(0.5)));
+
+        InputFactory inputFactory = new InputFactory(nodeCtx);
+        InputFactory.Context<CollectExpression<Row, ?>> ctx = inputFactory.ctxForInputColumns(txnCtx, outputs);
+        rowEval = new InputRowProjector(ctx.topLevelInputs(), ctx.expressions());
+        vectorizedEval = new VectorizedEvalProjector(
+            outputs, VectorExpressions.compile(outputs, txnCtx), ctx.topLevelInputs(), ctx.expressions());
+        Predicate<Row> filter = RowFilter.create(txnCtx, inputFactory, query);
+        rowFilter = new FilterProjector(filter);
+        vectorizedFilter = new VectorizedFilterProjector(VectorExpressions.compile(query, txnCtx), filter);
+
+        int size = 2_000_000;
+        rows = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            rows.add(new RowN((long) i, (i % 100) / 100.0));
+        }
+    }
+
+    private static Function function(Functions functions, String name, List<Symbol> arguments) {
+        FunctionImplementation impl = functions.get(null, name, arguments, SearchPath.pathWithPGCatalogAndDoc());
+        return new Function(impl.signature(), arguments, impl.boundSignature().returnType());
+    }
+
+    private void consume(Projector projector, Blackhole blackhole) {
+        BatchIterator<Row> it = projector.apply(InMemoryBatchIterator.of(rows, SENTINEL, true));
+        while (it.moveNext()) {
+            blackhole.consume(it.currentElement().get(0));
+        }
+    }
+
+    @Benchmark
+    public void measure_row_eval(Blackhole blackhole) {
+        consume(rowEval, blackhole);
+    }
+
+    @Benchmark
+    public void measure_vectorized_eval(Blackhole blackhole) {
+        consume(vectorizedEval, blackhole);
+    }
+
+    @Benchmark
+    public void measure_row_filter(Blackhole blackhole) {
+        consume(rowFilter, blackhole);
+    }
+
+    @Benchmark
+    public void measure_vectorized_filter(Blackhole blackhole) {
+        consume(vectorizedFilter, blackhole);
+    }
+}
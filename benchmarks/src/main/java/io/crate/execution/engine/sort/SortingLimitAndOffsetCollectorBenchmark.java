@@ -60,7 +60,7 @@ public class SortingLimitAndOffsetCollectorBenchmark {
 
     private List<RowN> rows;
     private Collector<Row, ?, Bucket> boundedSortingCollector;
-    private Collector<Row, ?, Bucket> unboundedSortingCollector;
+    private Collector<Row, ?, Iterable<Row>> unboundedSortingCollector;
 
     @Setup
     public void setUp() {
@@ -0,0 +1,58 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.operation.language;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Value;
+
+import io.crate.data.Input;
+import io.crate.types.DataType;
+
+/**
+ * A function defined by a UDF script together with the polyglot {@link Context}
+ * the script was evaluated in.
+ *
+ * <p>
+ * A context must not be used by multiple threads at the same time and is
+ * never shared between statements, see {@link PolyglotScalar}.
+ * </p>
+ */
+final class PolyglotFunction implements AutoCloseable {
+
+    private final Context context;
+    private final Value function;
+
+    PolyglotFunction(Context context, Value function) {
+        this.context = context;
+        this.function = function;
+    }
+
+    Object execute(Input<Object>[] args, DataType<?> returnType) {
+        Object[] values = PolyglotValues.toPolyglotValues(args);
+        return PolyglotValues.toCrateObject(function.execute(values), returnType);
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
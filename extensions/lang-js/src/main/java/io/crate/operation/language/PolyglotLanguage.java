@@ -32,7 +32,6 @@ import org.graalvm.polyglot.Engine;
 import org.graalvm.polyglot.HostAccess;
 import org.graalvm.polyglot.PolyglotException;
 import org.graalvm.polyglot.Source;
-import org.graalvm.polyglot.Value;
 import org.jetbrains.annotations.Nullable;
 
 import io.crate.expression.udf.UDFLanguage;
@@ -77,7 +76,7 @@ public final class PolyglotLanguage implements UDFLanguage {
     @Nullable
     public String validate(UserDefinedFunctionMetadata meta) {
         try {
-            getFunctionValue(graalLanguageId, meta.name(), meta.definition());
+            createFunction(graalLanguageId, meta.name(), meta.definition()).close();
             return null;
         } catch (IllegalArgumentException | IOException | PolyglotException t) {
             return String.format(Locale.ENGLISH, "Invalid %s in function '%s.%s(%s)' AS '%s': %s",
@@ -96,21 +95,29 @@ public final class PolyglotLanguage implements UDFLanguage {
         return verboseLanguage;
     }
 
-    static Value getFunctionValue(String graalLanguageId,
-                                  String functionName,
-                                  String script) throws IOException {
+    /**
+     * Evaluates the script in a new context. The caller must close the returned function.
+     */
+    static PolyglotFunction createFunction(String graalLanguageId,
+                                           String functionName,
+                                           String script) throws IOException {
         var context = Context.newBuilder(graalLanguageId)
             .engine(ENGINE)
             .allowHostAccess(HOST_ACCESS)
             .build();
-        var source = Source.newBuilder(graalLanguageId, script, functionName).build();
-        context.eval(source);
-        var polyglotFunctionValue = context.getBindings(graalLanguageId).getMember(functionName);
-        if (polyglotFunctionValue == null) {
-            throw new IllegalArgumentException(
-                "The name of the function signature '" + functionName + "' doesn't match " +
-                "the function name in the function definition.");
+        try {
+            var source = Source.newBuilder(graalLanguageId, script, functionName).build();
+            context.eval(source);
+            var polyglotFunctionValue = context.getBindings(graalLanguageId).getMember(functionName);
+            if (polyglotFunctionValue == null) {
+                throw new IllegalArgumentException(
+                    "The name of the function signature '" + functionName + "' doesn't match " +
+                    "the function name in the function definition.");
+            }
+            return new PolyglotFunction(context, polyglotFunctionValue);
+        } catch (Throwable t) {
+            context.close();
+            throw t;
         }
-        return polyglotFunctionValue;
     }
 }
@@ -24,9 +24,11 @@ package io.crate.operation.language;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.graalvm.polyglot.PolyglotException;
-import org.graalvm.polyglot.Value;
+import org.jetbrains.annotations.Nullable;
 
 import io.crate.data.Input;
 import io.crate.expression.symbol.Symbol;
@@ -37,8 +39,21 @@ import io.crate.metadata.functions.BoundSignature;
 import io.crate.metadata.functions.Signature;
 import io.crate.role.Roles;
 
+/**
+ * Evaluates a UDF script. Contexts are never shared between statements: the script is evaluated
+ * into a context once per statement, which is closed when the statement finished, see
+ * {@link TransactionContext#closeOnFinish(java.io.Closeable)}. The compiled instance owns its context,
+ * the uncompiled {@link #evaluate(TransactionContext, NodeContext, Input[])} uses one context per statement
+ * and function. If the transaction context isn't bound to a statement, a context is used per call.
+ * All contexts are created from the shared engine, which caches the parsed sources.
+ */
 public final class PolyglotScalar extends Scalar<Object, Object> {
 
+    private record StatementFunction(TransactionContext txnCtx, String language, String name, String script) {
+    }
+
+    private static final Map<StatementFunction, PolyglotFunction> FUNCTIONS_BY_STATEMENT = new ConcurrentHashMap<>();
+
     private final String script;
     private final String graalLanguageId;
 
@@ -53,34 +68,31 @@ public final class PolyglotScalar extends Scalar<Object, Object> {
 
     @Override
     public Scalar<Object, Object> compile(List<Symbol> arguments, String currentUser, Roles roles) {
-        try {
-            String functionName = signature.getName().name();
-            return new CompiledFunction(
-                graalLanguageId,
-                signature,
-                boundSignature,
-                PolyglotLanguage.getFunctionValue(graalLanguageId, functionName, script));
-        } catch (PolyglotException | IOException e) {
-            // this should not happen if the script was validated upfront
-            throw new io.crate.exceptions.ScriptException(
-                "compile error",
-                e,
-                graalLanguageId
-            );
-        }
+        return new CompiledFunction(signature, boundSignature, graalLanguageId, script);
     }
 
     @Override
     @SafeVarargs
     public final Object evaluate(TransactionContext txnCtx, NodeContext nodeCtx, Input<Object> ... args) {
+        String functionName = signature.getName().name();
+        var key = new StatementFunction(txnCtx, graalLanguageId, functionName, script);
         try {
-            String functionName = signature.getName().name();
-            var function = PolyglotLanguage.getFunctionValue(graalLanguageId, functionName, script);
-            Object[] values = PolyglotValues.toPolyglotValues(args);
-            return PolyglotValues.toCrateObject(
-                function.execute(values),
-                boundSignature.returnType()
-            );
+            PolyglotFunction function = FUNCTIONS_BY_STATEMENT.get(key);
+            if (function == null) {
+                PolyglotFunction created = PolyglotLanguage.createFunction(graalLanguageId, functionName, script);
+                boolean boundToStatement = txnCtx.closeOnFinish(() -> {
+                    FUNCTIONS_BY_STATEMENT.remove(key, created);
+                    created.close();
+                });
+                if (!boundToStatement) {
+                    try (created) {
+                        return execute(created, args, boundSignature);
+                    }
+                }
+                PolyglotFunction existing = FUNCTIONS_BY_STATEMENT.putIfAbsent(key, created);
+                function = existing == null ? created : existing;
+            }
+            return execute(function, args, boundSignature);
         } catch (PolyglotException | IOException e) {
             throw new io.crate.exceptions.ScriptException(
                 e.getLocalizedMessage(),
@@ -90,27 +102,55 @@ public final class PolyglotScalar extends Scalar<Object, Object> {
         }
     }
 
+    private static Object execute(PolyglotFunction function, Input<Object>[] args, BoundSignature boundSignature) {
+        // A context must not be entered by multiple threads at the same time
+        synchronized (function) {
+            return function.execute(args, boundSignature.returnType());
+        }
+    }
+
+    /**
+     * Owns the context of a statement. The context is created on the first evaluation and
+     * closed once the statement finished.
+     */
     private static class CompiledFunction extends Scalar<Object, Object> {
 
         private final String language;
-        private final Value function;
+        private final String script;
+
+        @Nullable
+        private volatile PolyglotFunction function;
 
-        private CompiledFunction(String language,
-                                 Signature signature,
+        private CompiledFunction(Signature signature,
                                  BoundSignature boundSignature,
-                                 Value function) {
+                                 String language,
+                                 String script) {
             super(signature, boundSignature);
             this.language = language;
-            this.function = function;
+            this.script = script;
         }
 
         @Override
         @SafeVarargs
         public final Object evaluate(TransactionContext txnCtx, NodeContext nodeCtx, Input<Object> ... args) {
-            Object[] values = PolyglotValues.toPolyglotValues(args);
             try {
-                return PolyglotValues.toCrateObject(function.execute(values), boundSignature.returnType());
-            } catch (PolyglotException e) {
+                PolyglotFunction current = function;
+                if (current == null) {
+                    synchronized (this) {
+                        current = function;
+                        if (current == null) {
+                            current = PolyglotLanguage.createFunction(language, signature.getName().name(), script);
+                            if (!txnCtx.closeOnFinish(current)) {
+                                try (PolyglotFunction perCall = current) {
+                                    return execute(perCall, args, boundSignature);
+                                }
+                            }
+                            function = current;
+                        }
+                    }
+                }
+                return execute(current, args, boundSignature);
+            } catch (PolyglotException | IOException e) {
                 throw new io.crate.exceptions.ScriptException(
                     e.getLocalizedMessage(),
                     e,
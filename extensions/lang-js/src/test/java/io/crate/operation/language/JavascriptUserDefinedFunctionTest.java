@@ -25,6 +25,8 @@ import static io.crate.testing.Asserts.isLiteral;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import java.io.Closeable;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -41,13 +43,18 @@ import org.locationtech.spatial4j.context.jts.JtsSpatialContext;
 import org.locationtech.spatial4j.shape.impl.PointImpl;
 
 import io.crate.analyze.FunctionArgumentDefinition;
+import io.crate.common.io.IOUtils;
+import io.crate.data.Input;
 import io.crate.expression.scalar.ScalarTestCase;
 import io.crate.expression.symbol.Literal;
 import io.crate.expression.udf.UserDefinedFunctionMetadata;
 import io.crate.expression.udf.UserDefinedFunctionService;
 import io.crate.metadata.FunctionName;
 import io.crate.metadata.FunctionProvider;
+import io.crate.metadata.Scalar;
 import io.crate.metadata.Schemas;
+import io.crate.metadata.TransactionContext;
+import io.crate.metadata.settings.SessionSettings;
 import io.crate.types.DataType;
 import io.crate.types.DataTypes;
 
@@ -95,6 +102,60 @@ public class JavascriptUserDefinedFunctionTest extends ScalarTestCase {
         functionImplementations.clear();
     }
 
+    @Test
+    public void test_global_state_is_not_shared_between_statements() throws Exception {
+        registerUserDefinedFunction(
+            "f",
+            DataTypes.LONG,
+            List.of(DataTypes.LONG),
+            "var calls = 0; function f(a) { calls = calls + 1; return a + calls; }");
+        assertEvaluate("f(x)", 2L, Literal.of(1));
+        assertEvaluate("f(x)", 2L, Literal.of(1));
+        assertEvaluate("f(1)", 2L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void test_context_is_reused_within_a_statement_and_closed_once_it_finished() throws Exception {
+        registerUserDefinedFunction(
+            "f",
+            DataTypes.LONG,
+            List.of(DataTypes.LONG),
+            "var calls = 0; function f(a) { calls = calls + 1; return a + calls; }");
+        List<Closeable> resources = new ArrayList<>();
+        TransactionContext statementTxnCtx = new TransactionContext() {
+
+            @Override
+            public Instant currentInstant() {
+                return txnCtx.currentInstant();
+            }
+
+            @Override
+            public SessionSettings sessionSettings() {
+                return txnCtx.sessionSettings();
+            }
+
+            @Override
+            public boolean closeOnFinish(Closeable resource) {
+                resources.add(resource);
+                return true;
+            }
+        };
+        var f = (Scalar<Object, Object>) getFunction("f", List.of(DataTypes.LONG));
+        Input<Object> one = (Input<Object>) (Input<?>) Literal.of(1L);
+
+        assertThat(f.evaluate(statementTxnCtx, sqlExpressions.nodeCtx, one)).isEqualTo(2L);
+        assertThat(f.evaluate(statementTxnCtx, sqlExpressions.nodeCtx, one)).isEqualTo(3L);
+        var compiled = f.compile(List.of(Literal.of(1L)), "crate", sqlExpressions.nodeCtx.roles());
+        assertThat(compiled.evaluate(statementTxnCtx, sqlExpressions.nodeCtx, one)).isEqualTo(2L);
+        assertThat(compiled.evaluate(statementTxnCtx, sqlExpressions.nodeCtx, one)).isEqualTo(3L);
+        assertThat(resources).hasSize(2);
+
+        IOUtils.close(resources);
+        resources.clear();
+        assertThat(f.evaluate(statementTxnCtx, sqlExpressions.nodeCtx, one)).isEqualTo(2L);
+    }
+
     @Test
     public void testObjectReturnType() throws Exception {
         registerUserDefinedFunction(
@@ -307,6 +307,8 @@ SCHEMA: 'SCHEMA';
 
 RETURN: 'RETURN';
 SUMMARY: 'SUMMARY';
+STDIN: 'STDIN';
+STDOUT: 'STDOUT';
 
 METADATA: 'METADATA';
 
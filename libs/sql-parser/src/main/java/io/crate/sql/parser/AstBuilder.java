@@ -799,7 +799,7 @@ class AstBuilder extends SqlBaseParserBaseVisitor<Node> {
         return new CopyFrom(
             (Table<?>) visit(context.tableWithPartition()),
             context.ident() == null ? emptyList() : identsToStrings(context.ident()),
-            visit(context.path),
+            context.STDIN() == null ? visit(context.path) : null,
             extractGenericProperties(context.withProperties()),
             returnSummary);
     }
@@ -812,7 +812,7 @@ class AstBuilder extends SqlBaseParserBaseVisitor<Node> {
             context.columns() == null ? emptyList() : visitCollection(context.columns().primaryExpression(), Expression.class),
             visitIfPresent(context.where(), Expression.class),
             context.DIRECTORY() != null,
-            visit(context.path),
+            context.STDOUT() == null ? visit(context.path) : null,
             extractGenericProperties(context.withProperties()));
     }
 
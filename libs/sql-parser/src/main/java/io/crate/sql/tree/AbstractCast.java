@@ -64,11 +64,12 @@ public abstract class AbstractCast extends Expression {
         }
         AbstractCast cast = (AbstractCast) o;
         return Objects.equals(expression, cast.expression) &&
-               Objects.equals(type, cast.type);
+               Objects.equals(type, cast.type) &&
+               isIntegerOnly == cast.isIntegerOnly;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(expression, type);
+        return Objects.hash(expression, type, isIntegerOnly);
     }
 }
@@ -1370,6 +1370,11 @@ public class TestStatementBuilder {
         printStatement("copy foo partition (a=?) to DIRECTORY '/folder' with (some_param=4)");
 
         printStatement("copy foo where a = 'x' to DIRECTORY '/folder'");
+
+        printStatement("copy foo from stdin");
+        printStatement("copy foo (a,b) from stdin with (format='csv')");
+        printStatement("copy foo to stdout");
+        printStatement("copy foo (a) where a = 'x' to stdout with (format='json_array')");
     }
 
     @Test
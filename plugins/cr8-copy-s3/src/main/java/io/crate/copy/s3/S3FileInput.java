@@ -22,6 +22,7 @@
 package io.crate.copy.s3;
 
 import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.GetObjectRequest;
 import com.amazonaws.services.s3.model.ObjectListing;
 import com.amazonaws.services.s3.model.S3Object;
 import com.amazonaws.services.s3.model.S3ObjectSummary;
@@ -128,16 +129,43 @@ public class S3FileInput implements FileInput {
     @Override
     public InputStream getStream(URI uri) throws IOException {
         S3URI s3URI = S3URI.toS3URI(uri);
-        if (client == null) {
-            client = clientBuilder.client(s3URI, protocolSetting);
+        S3Object object = client(s3URI).getObject(s3URI.bucket(), s3URI.key());
+        if (object != null) {
+            return object.getObjectContent();
+        }
+        throw new IOException("Failed to load S3 URI: " + uri.toString());
+    }
+
+    /**
+     * Requests only the bytes starting at {@code position} using a range request.
+     */
+    @Override
+    public InputStream getStream(URI uri, long position) throws IOException {
+        if (position == 0) {
+            return getStream(uri);
         }
-        S3Object object = client.getObject(s3URI.bucket(), s3URI.key());
+        S3URI s3URI = S3URI.toS3URI(uri);
+        GetObjectRequest request = new GetObjectRequest(s3URI.bucket(), s3URI.key()).withRange(position);
+        S3Object object = client(s3URI).getObject(request);
         if (object != null) {
             return object.getObjectContent();
         }
         throw new IOException("Failed to load S3 URI: " + uri.toString());
     }
 
+    @Override
+    public long size(URI uri) throws IOException {
+        S3URI s3URI = S3URI.toS3URI(uri);
+        return client(s3URI).getObjectMetadata(s3URI.bucket(), s3URI.key()).getContentLength();
+    }
+
+    private AmazonS3 client(S3URI s3URI) throws IOException {
+        if (client == null) {
+            client = clientBuilder.client(s3URI, protocolSetting);
+        }
+        return client;
+    }
+
     @Override
     public boolean sharedStorageDefault() {
         return true;
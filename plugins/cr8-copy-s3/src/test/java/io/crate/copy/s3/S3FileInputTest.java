@@ -22,7 +22,9 @@
 package io.crate.copy.s3;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.net.URI;
@@ -34,8 +36,13 @@ import org.elasticsearch.test.ESTestCase;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import org.mockito.ArgumentCaptor;
+
 import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.GetObjectRequest;
 import com.amazonaws.services.s3.model.ObjectListing;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.S3Object;
 import com.amazonaws.services.s3.model.S3ObjectSummary;
 
 import io.crate.copy.s3.common.S3ClientHelper;
@@ -132,4 +139,27 @@ public class S3FileInputTest extends ESTestCase {
             "s3://minio:minio@/myBucket/myKey/"
         ));
     }
+
+    @Test
+    public void test_parts_of_a_file_are_read_with_range_requests() throws Exception {
+        URI uri = new URI("s3://fakeBucket/prefix/large.json");
+        S3URI s3URI = S3URI.toS3URI(uri);
+        S3ClientHelper clientBuilder = mock(S3ClientHelper.class);
+        AmazonS3 client = mock(AmazonS3.class);
+        when(clientBuilder.client(s3URI, PROTOCOL)).thenReturn(client);
+        ObjectMetadata metadata = new ObjectMetadata();
+        metadata.setContentLength(1024L);
+        when(client.getObjectMetadata(BUCKET_NAME, "prefix/large.json")).thenReturn(metadata);
+        when(client.getObject(any(GetObjectRequest.class))).thenReturn(new S3Object());
+
+        S3FileInput fileInput = new S3FileInput(clientBuilder, uri, PROTOCOL);
+        assertThat(fileInput.size(uri)).isEqualTo(1024L);
+        fileInput.getStream(uri, 512L);
+
+        ArgumentCaptor<GetObjectRequest> request = ArgumentCaptor.forClass(GetObjectRequest.class);
+        verify(client).getObject(request.capture());
+        assertThat(request.getValue().getBucketName()).isEqualTo(BUCKET_NAME);
+        assertThat(request.getValue().getKey()).isEqualTo("prefix/large.json");
+        assertThat(request.getValue().getRange()).containsExactly(512L, Long.MAX_VALUE - 1);
+    }
 }
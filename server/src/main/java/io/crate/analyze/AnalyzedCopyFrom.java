@@ -24,6 +24,8 @@ package io.crate.analyze;
 import java.util.List;
 import java.util.function.Consumer;
 
+import org.jetbrains.annotations.Nullable;
+
 import io.crate.expression.symbol.Symbol;
 import io.crate.metadata.doc.DocTableInfo;
 import io.crate.sql.tree.GenericProperties;
@@ -36,13 +38,14 @@ public class AnalyzedCopyFrom implements AnalyzedStatement {
     private final List<String> targetColumns;
     private final Table<Symbol> table;
     private final GenericProperties<Symbol> properties;
+    @Nullable
     private final Symbol uri;
 
     AnalyzedCopyFrom(DocTableInfo tableInfo,
                      List<String> targetColumns,
                      Table<Symbol> table,
                      GenericProperties<Symbol> properties,
-                     Symbol uri) {
+                     @Nullable Symbol uri) {
         this.tableInfo = tableInfo;
         this.targetColumns = targetColumns;
         this.table = table;
@@ -66,17 +69,27 @@ public class AnalyzedCopyFrom implements AnalyzedStatement {
         return table;
     }
 
+    /**
+     * @return the uri or null if the statement is a COPY FROM STDIN.
+     */
+    @Nullable
     public Symbol uri() {
         return uri;
     }
 
+    public boolean isFromStdin() {
+        return uri == null;
+    }
+
     @Override
     public void visitSymbols(Consumer<? super Symbol> consumer) {
         for (var partitionProperty : table.partitionProperties()) {
             partitionProperty.expressions().forEach(consumer);
         }
         properties.forValues(consumer);
-        consumer.accept(uri);
+        if (uri != null) {
+            consumer.accept(uri);
+        }
     }
 
     @Override
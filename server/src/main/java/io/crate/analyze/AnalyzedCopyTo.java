@@ -35,6 +35,7 @@ public class AnalyzedCopyTo implements AnalyzedStatement {
 
     private final TableInfo tableInfo;
     private final Table<Symbol> table;
+    @Nullable
     private final Symbol uri;
     private final GenericProperties<Symbol> properties;
     private final List<Symbol> columns;
@@ -43,7 +44,7 @@ public class AnalyzedCopyTo implements AnalyzedStatement {
 
     AnalyzedCopyTo(TableInfo tableInfo,
                    Table<Symbol> table,
-                   Symbol uri,
+                   @Nullable Symbol uri,
                    GenericProperties<Symbol> properties,
                    List<Symbol> columns,
                    @Nullable Symbol whereClause) {
@@ -63,10 +64,18 @@ public class AnalyzedCopyTo implements AnalyzedStatement {
         return table;
     }
 
+    /**
+     * @return the uri or null if the statement is a COPY TO STDOUT.
+     */
+    @Nullable
     public Symbol uri() {
         return uri;
     }
 
+    public boolean isToStdout() {
+        return uri == null;
+    }
+
     public GenericProperties<Symbol> properties() {
         return properties;
     }
@@ -95,7 +104,9 @@ public class AnalyzedCopyTo implements AnalyzedStatement {
         if (whereClause != null) {
             consumer.accept(whereClause);
         }
-        consumer.accept(uri);
+        if (uri != null) {
+            consumer.accept(uri);
+        }
         properties.forValues(consumer);
     }
 
@@ -39,6 +39,7 @@ public class BoundCopyFrom {
     private final String partitionIdent;
     private final List<String> targetColumns;
     private final Settings settings;
+    @Nullable
     private final Symbol uri;
     private final FileUriCollectPhase.InputFormat inputFormat;
     private final Predicate<DiscoveryNode> nodeFilters;
@@ -47,7 +48,7 @@ public class BoundCopyFrom {
                          @Nullable String partitionIdent,
                          List<String> targetColumns,
                          Settings settings,
-                         Symbol uri,
+                         @Nullable Symbol uri,
                          FileUriCollectPhase.InputFormat inputFormat,
                          Predicate<DiscoveryNode> nodeFilters) {
         this.tableInfo = tableInfo;
@@ -80,6 +81,10 @@ public class BoundCopyFrom {
         return inputFormat;
     }
 
+    /**
+     * @return the uri or null for COPY FROM STDIN.
+     */
+    @Nullable
     public Symbol uri() {
         return uri;
     }
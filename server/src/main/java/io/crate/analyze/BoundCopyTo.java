@@ -37,6 +37,7 @@ public class BoundCopyTo {
     private final List<Symbol> outputs;
     private final DocTableInfo table;
     private final WhereClause whereClause;
+    @Nullable
     private final Symbol uri;
     private final boolean columnsDefined;
     @Nullable
@@ -56,7 +57,7 @@ public class BoundCopyTo {
     public BoundCopyTo(List<Symbol> outputs,
                        DocTableInfo table,
                        WhereClause whereClause,
-                       Symbol uri,
+                       @Nullable Symbol uri,
                        @Nullable WriterProjection.CompressionType compressionType,
                        @Nullable WriterProjection.OutputFormat outputFormat,
                        @Nullable List<String> outputNames,
@@ -87,6 +88,10 @@ public class BoundCopyTo {
         return whereClause;
     }
 
+    /**
+     * @return the uri or null for COPY TO STDOUT.
+     */
+    @Nullable
     public Symbol uri() {
         return uri;
     }
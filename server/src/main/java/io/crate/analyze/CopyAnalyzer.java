@@ -21,6 +21,8 @@
 
 package io.crate.analyze;
 
+import java.util.List;
+
 import io.crate.analyze.expressions.ExpressionAnalysisContext;
 import io.crate.analyze.expressions.ExpressionAnalyzer;
 import io.crate.analyze.relations.DocTableRelation;
@@ -28,7 +30,9 @@ import io.crate.analyze.relations.FieldProvider;
 import io.crate.analyze.relations.NameFieldProvider;
 import io.crate.analyze.relations.TableRelation;
 import io.crate.common.collections.Lists;
+import io.crate.execution.engine.collect.files.StdStreams;
 import io.crate.expression.eval.EvaluatingNormalizer;
+import io.crate.expression.symbol.Literal;
 import io.crate.expression.symbol.Symbol;
 import io.crate.metadata.CoordinatorTxnCtx;
 import io.crate.metadata.NodeContext;
@@ -80,7 +84,15 @@ class CopyAnalyzer {
         Table<Symbol> table = node.table().map(t -> exprAnalyzerWithFieldsAsString.convert(t, exprCtx));
         GenericProperties<Symbol> properties = node.properties().map(t -> exprAnalyzerWithoutFields.convert(t,
                                                                                                             exprCtx));
-        Symbol uri = exprAnalyzerWithoutFields.convert(node.path(), exprCtx);
+        Symbol uri = null;
+        if (node.isFromStdin()) {
+            if (node.isReturnSummary()) {
+                throw new UnsupportedOperationException("RETURN SUMMARY is not supported for COPY FROM STDIN");
+            }
+        } else {
+            uri = normalizer.normalize(exprAnalyzerWithoutFields.convert(node.path(), exprCtx), txnCtx);
+            ensureNotReserved(uri);
+        }
 
         if (node.isReturnSummary()) {
             return new AnalyzedCopyFromReturnSummary(
@@ -88,21 +100,21 @@ class CopyAnalyzer {
                 node.columns(),
                 table,
                 properties,
-                normalizer.normalize(uri, txnCtx));
+                uri);
         } else {
             return new AnalyzedCopyFrom(
                 tableInfo,
                 node.columns(),
                 table,
                 properties,
-                normalizer.normalize(uri, txnCtx));
+                uri);
         }
     }
 
     AnalyzedCopyTo analyzeCopyTo(CopyTo<Expression> node,
                                  ParamTypeHints paramTypeHints,
                                  CoordinatorTxnCtx txnCtx) {
-        if (!node.directoryUri()) {
+        if (!node.isToStdout() && !node.directoryUri()) {
             throw new UnsupportedOperationException("Using COPY TO without specifying a DIRECTORY is not supported");
         }
 
@@ -136,7 +148,12 @@ class CopyAnalyzer {
             FieldProvider.TO_LITERAL_VALIDATE_NAME,
             null);
 
-        var uri = expressionAnalyzer.convert(node.targetUri(), exprCtx);
+        Symbol uri = node.isToStdout()
+            ? null
+            : normalizer.normalize(expressionAnalyzer.convert(node.targetUri(), exprCtx), txnCtx);
+        if (uri != null) {
+            ensureNotReserved(uri);
+        }
         var table = node.table().map(x -> exprAnalyzerWithFieldsAsString.convert(x, exprCtx));
         var properties = node.properties().map(x -> expressionAnalyzer.convert(x, exprCtx));
         var columns = Lists.map(
@@ -148,9 +165,27 @@ class CopyAnalyzer {
         return new AnalyzedCopyTo(
             tableInfo,
             table,
-            normalizer.normalize(uri, txnCtx),
+            uri,
             properties,
             columns,
             whereClause);
     }
+
+    /**
+     * Uris given as parameter placeholders are validated once they are bound, see {@link StdStreams#ensureNotReserved(String)}
+     */
+    private static void ensureNotReserved(Symbol uri) {
+        if (uri instanceof Literal<?> literal) {
+            Object value = literal.value();
+            if (value instanceof String str) {
+                StdStreams.ensureNotReserved(str);
+            } else if (value instanceof List<?> values) {
+                for (Object item : values) {
+                    if (item instanceof String str) {
+                        StdStreams.ensureNotReserved(str);
+                    }
+                }
+            }
+        }
+    }
 }
@@ -97,6 +97,7 @@ import io.crate.sql.tree.QualifiedName;
 import io.crate.types.ArrayType;
 import io.crate.types.DataType;
 import io.crate.types.DataTypes;
+import io.crate.types.FloatVectorType;
 import io.crate.types.GeoShapeType;
 import io.crate.types.ObjectType;
 import io.crate.types.StorageSupport;
@@ -249,6 +250,10 @@ public class TableElementsAnalyzer implements FieldProvider<Reference> {
                 defaultExpression = bindParameter.apply(defaultExpression);
             }
 
+            if (type instanceof FloatVectorType vectorType && FloatVectorType.INDEX_METHOD.equalsIgnoreCase(indexMethod)) {
+                type = applyVectorIndexOptions(vectorType, indexProperties.map(toValue));
+            }
+
             if (!indexSources.isEmpty() || indexType == IndexType.FULLTEXT || indexProperties.contains("analyzer")) {
                 List<Reference> sources = new ArrayList<>(indexSources.size());
                 for (Symbol indexSource : indexSources) {
@@ -341,6 +346,20 @@ public class TableElementsAnalyzer implements FieldProvider<Reference> {
             return ref;
         }
 
+        private FloatVectorType applyVectorIndexOptions(FloatVectorType vectorType, GenericProperties<Object> properties) {
+            for (String property : properties.keys()) {
+                if (!FloatVectorType.SIMILARITY.equals(property) && !FloatVectorType.QUANTIZATION.equals(property)) {
+                    throw new IllegalArgumentException(
+                        "Invalid index option `" + property + "` for column `" + name.sqlFqn() + "` using " + FloatVectorType.INDEX_METHOD);
+                }
+            }
+            return FloatVectorType.of(
+                vectorType.characterMaximumLength(),
+                DataTypes.STRING.sanitizeValue(properties.get(FloatVectorType.SIMILARITY)),
+                DataTypes.STRING.sanitizeValue(properties.get(FloatVectorType.QUANTIZATION))
+            );
+        }
+
         public void visitSymbols(Consumer<? super Symbol> consumer) {
             if (defaultExpression != null) {
                 consumer.accept(defaultExpression);
@@ -613,6 +632,16 @@ public class TableElementsAnalyzer implements FieldProvider<Reference> {
                 builder.indexMethod = indexConstraint.indexMethod();
                 builder.indexProperties = indexConstraint.properties().map(toSymbol);
                 builder.indexType = IndexType.of(builder.indexMethod);
+                if (FloatVectorType.INDEX_METHOD.equalsIgnoreCase(builder.indexMethod)
+                    && builder.type.id() != FloatVectorType.ID) {
+                    throw new IllegalArgumentException(String.format(
+                        Locale.ENGLISH,
+                        "INDEX USING %s can only be used on columns of type \"%s\": `%s`",
+                        FloatVectorType.INDEX_METHOD,
+                        FloatVectorType.NAME,
+                        columnName.sqlFqn()
+                    ));
+                }
                 if (builder.indexType == IndexType.FULLTEXT && !DataTypes.STRING.equals(ArrayType.unnest(builder.type))) {
                     throw new IllegalArgumentException(String.format(
                         Locale.ENGLISH,
@@ -27,6 +27,7 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
@@ -77,6 +78,7 @@ import io.crate.sql.tree.Table;
 import io.crate.sql.tree.TableElement;
 import io.crate.types.ArrayType;
 import io.crate.types.DataTypes;
+import io.crate.types.FloatVectorType;
 import io.crate.types.ObjectType;
 import io.crate.types.StorageSupport;
 
@@ -225,6 +227,18 @@ public class TableInfoToAST {
                     properties.put("tree_levels", Literal.fromObject(geoReference.treeLevels()));
                 }
                 constraints.add(new IndexColumnConstraint<>(geoReference.geoTree(), new GenericProperties<>(properties)));
+            } else if (ref.valueType() instanceof FloatVectorType vectorType && vectorType.hasIndexOptions()) {
+                Map<String, Expression> properties = new HashMap<>();
+                if (vectorType.similarity() != FloatVectorType.SIMILARITY_FUNC) {
+                    properties.put(
+                        FloatVectorType.SIMILARITY,
+                        new StringLiteral(vectorType.similarity().name().toLowerCase(Locale.ENGLISH))
+                    );
+                }
+                if (vectorType.quantized()) {
+                    properties.put(FloatVectorType.QUANTIZATION, new StringLiteral(FloatVectorType.QUANTIZATION_INT8));
+                }
+                constraints.add(new IndexColumnConstraint<>(FloatVectorType.INDEX_METHOD, new GenericProperties<>(properties)));
             }
 
             StorageSupport<?> storageSupport = ref.valueType().storageSupportSafe();
@@ -50,6 +50,7 @@ import io.crate.metadata.doc.DocTableInfo;
 import io.crate.metadata.settings.NumberOfReplicas;
 import io.crate.metadata.settings.Validators;
 import io.crate.sql.tree.ColumnPolicy;
+import io.crate.statistics.ColumnGroupStats;
 import io.crate.types.DataTypes;
 
 /**
@@ -83,7 +84,8 @@ public class TableParameters {
      * These are typically schema/mapping related.
      **/
     public static final List<Setting<?>> TABLE_ONLY_SETTINGS = List.of(
-        COLUMN_POLICY
+        COLUMN_POLICY,
+        ColumnGroupStats.COLUMN_GROUPS_SETTING
     );
 
     /**
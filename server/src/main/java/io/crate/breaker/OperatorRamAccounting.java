@@ -0,0 +1,67 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.breaker;
+
+import io.crate.data.breaker.RamAccounting;
+
+/**
+ * A {@link RamAccounting} of a single operator which accounts its bytes in a {@link RamAccounting} shared with other
+ * operators, e.g. the one of a phase.
+ * <p>
+ * {@link #release()} only releases the bytes added by this operator, so that an operator can release the memory of
+ * rows it spilled to disk without releasing the memory of the other operators.
+ * <p>
+ * Not thread safe.
+ */
+public final class OperatorRamAccounting implements RamAccounting {
+
+    private final RamAccounting delegate;
+    private long bytes = 0;
+
+    public OperatorRamAccounting(RamAccounting delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void addBytes(long bytes) {
+        delegate.addBytes(bytes);
+        this.bytes += bytes;
+    }
+
+    @Override
+    public long totalBytes() {
+        return bytes;
+    }
+
+    @Override
+    public void release() {
+        if (bytes != 0) {
+            delegate.addBytes(-bytes);
+            bytes = 0;
+        }
+    }
+
+    @Override
+    public void close() {
+        release();
+    }
+}
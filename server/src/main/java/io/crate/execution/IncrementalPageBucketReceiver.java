@@ -23,6 +23,7 @@ package io.crate.execution;
 
 import io.crate.Streamer;
 import io.crate.common.exceptions.Exceptions;
+import io.crate.common.io.IOUtils;
 import io.crate.data.BatchIterator;
 import io.crate.data.Bucket;
 import io.crate.data.CollectingBatchIterator;
@@ -33,6 +34,8 @@ import io.crate.execution.jobs.PageResultListener;
 import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
 
 import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -65,7 +68,12 @@ public class IncrementalPageBucketReceiver<T> implements PageBucketReceiver {
         this.streamers = streamers;
         this.remainingUpstreams = new AtomicInteger(upstreamsCount);
         lazyBatchIterator = CollectingBatchIterator.newInstance(
-            () -> {},
+            () -> {
+                // e.g. a GroupingCollector which spilled to disk
+                if (collector instanceof Closeable closeable) {
+                    IOUtils.closeWhileHandlingException(closeable);
+                }
+            },
             t -> {},
             () -> processingFuture,
             true);
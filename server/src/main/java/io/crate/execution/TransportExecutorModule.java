@@ -34,6 +34,7 @@ import io.crate.execution.ddl.tables.TransportOpenTableAction;
 import io.crate.execution.ddl.tables.TransportRenameTableAction;
 import io.crate.execution.ddl.views.TransportCreateViewAction;
 import io.crate.execution.ddl.views.TransportDropViewAction;
+import io.crate.execution.engine.join.TransportRuntimeFilterAction;
 import io.crate.execution.jobs.JobSetup;
 import io.crate.expression.udf.TransportCreateUserDefinedFunctionAction;
 import io.crate.expression.udf.TransportDropUserDefinedFunctionAction;
@@ -65,6 +66,7 @@ public class TransportExecutorModule extends AbstractModule {
         bind(TransportAddColumnAction.class).asEagerSingleton();
         bind(TransportDropColumnAction.class).asEagerSingleton();
         bind(TransportAnalyzeAction.class).asEagerSingleton();
+        bind(TransportRuntimeFilterAction.class).asEagerSingleton();
 
         bind(TransportCreatePublicationAction.class).asEagerSingleton();
         bind(TransportDropPublicationAction.class).asEagerSingleton();
@@ -60,7 +60,9 @@ public class FloatVectorIndexer implements ValueIndexer<float[]> {
         this.fieldType.setVectorAttributes(
             ref.valueType().characterMaximumLength(),
             VectorEncoding.FLOAT32,
-            FloatVectorType.SIMILARITY_FUNC
+            ref.valueType() instanceof FloatVectorType vectorType
+                ? vectorType.similarity()
+                : FloatVectorType.SIMILARITY_FUNC
         );
         this.ref = ref;
         this.name = ref.storageIdent();
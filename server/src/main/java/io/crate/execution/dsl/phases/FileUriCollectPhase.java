@@ -81,7 +81,8 @@ public class FileUriCollectPhase extends AbstractProjectionsPhase implements Col
 
     public enum InputFormat {
         JSON,
-        CSV
+        CSV,
+        PARQUET
     }
 
     public Symbol targetUri() {
@@ -44,7 +44,10 @@ public class HashJoinPhase extends JoinPhase {
     private final List<Symbol> rightJoinConditionInputs;
 
     private final List<DataType<?>> leftOutputTypes;
+    private final List<DataType<?>> rightOutputTypes;
     private final long estimatedRowSizeForLeft;
+    @Nullable
+    private final RuntimeFilterTarget runtimeFilterTarget;
 
     public HashJoinPhase(UUID jobId,
                          int executionNodeId,
@@ -59,8 +62,51 @@ public class HashJoinPhase extends JoinPhase {
                          List<Symbol> leftJoinConditionInputs,
                          List<Symbol> rightJoinConditionInputs,
                          List<DataType<?>> leftOutputTypes,
+                         List<DataType<?>> rightOutputTypes,
                          long estimatedRowSizeForLeft,
                          JoinType joinType) {
+        this(
+            jobId,
+            executionNodeId,
+            name,
+            projections,
+            leftMergePhase,
+            rightMergePhase,
+            numLeftOutputs,
+            numRightOutputs,
+            executionNodes,
+            joinCondition,
+            leftJoinConditionInputs,
+            rightJoinConditionInputs,
+            leftOutputTypes,
+            rightOutputTypes,
+            estimatedRowSizeForLeft,
+            joinType,
+            null
+        );
+    }
+
+    /**
+     * @param runtimeFilterTarget the collect phase of the right side which receives a runtime filter
+     *                            of the join keys of the left side, or null if there is none.
+     */
+    public HashJoinPhase(UUID jobId,
+                         int executionNodeId,
+                         String name,
+                         List<Projection> projections,
+                         @Nullable MergePhase leftMergePhase,
+                         @Nullable MergePhase rightMergePhase,
+                         int numLeftOutputs,
+                         int numRightOutputs,
+                         Collection<String> executionNodes,
+                         @Nullable Symbol joinCondition,
+                         List<Symbol> leftJoinConditionInputs,
+                         List<Symbol> rightJoinConditionInputs,
+                         List<DataType<?>> leftOutputTypes,
+                         List<DataType<?>> rightOutputTypes,
+                         long estimatedRowSizeForLeft,
+                         JoinType joinType,
+                         @Nullable RuntimeFilterTarget runtimeFilterTarget) {
         super(
             jobId,
             executionNodeId,
@@ -77,7 +123,9 @@ public class HashJoinPhase extends JoinPhase {
         this.leftJoinConditionInputs = leftJoinConditionInputs;
         this.rightJoinConditionInputs = rightJoinConditionInputs;
         this.leftOutputTypes = leftOutputTypes;
+        this.rightOutputTypes = rightOutputTypes;
         this.estimatedRowSizeForLeft = estimatedRowSizeForLeft;
+        this.runtimeFilterTarget = runtimeFilterTarget;
     }
 
     public HashJoinPhase(StreamInput in) throws IOException {
@@ -92,6 +140,14 @@ public class HashJoinPhase extends JoinPhase {
             // Version before 5.6.0 used to send numberOfRowsForLeft
             in.readZLong();
         }
+        if (in.getVersion().onOrAfter(Version.V_5_10_0)) {
+            rightOutputTypes = DataTypes.listFromStream(in);
+            runtimeFilterTarget = in.readOptionalWriteable(RuntimeFilterTarget::new);
+        } else {
+            // Spilling to disk is not supported without the right types
+            rightOutputTypes = List.of();
+            runtimeFilterTarget = null;
+        }
     }
 
     @Override
@@ -108,6 +164,10 @@ public class HashJoinPhase extends JoinPhase {
             // sending neutral value, indicating that this stat is unavailable.
             out.writeZLong(-1);
         }
+        if (out.getVersion().onOrAfter(Version.V_5_10_0)) {
+            DataTypes.toStream(rightOutputTypes, out);
+            out.writeOptionalWriteable(runtimeFilterTarget);
+        }
     }
 
     @Override
@@ -132,7 +192,20 @@ public class HashJoinPhase extends JoinPhase {
         return leftOutputTypes;
     }
 
+    /**
+     * @return the types of the right outputs or an empty list if the phase was created by a node on a version
+     *         which didn't provide them.
+     */
+    public List<DataType<?>> rightOutputTypes() {
+        return rightOutputTypes;
+    }
+
     public long estimatedRowSizeForLeft() {
         return estimatedRowSizeForLeft;
     }
+
+    @Nullable
+    public RuntimeFilterTarget runtimeFilterTarget() {
+        return runtimeFilterTarget;
+    }
 }
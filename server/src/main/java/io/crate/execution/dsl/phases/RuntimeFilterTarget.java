@@ -0,0 +1,58 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.dsl.phases;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+
+/**
+ * The collect phase of the probe side of a {@link HashJoinPhase} which receives
+ * the runtime filters built from the build side of the join.
+ *
+ * @param collectPhaseId id of the {@link RoutedCollectPhase} of the probe side.
+ * @param nodeIds nodes executing the collect phase.
+ * @param keyPositions positions of the join keys in the rows of the collect phase,
+ *                     in the same order as the right join condition inputs.
+ */
+public record RuntimeFilterTarget(int collectPhaseId,
+                                  List<String> nodeIds,
+                                  List<Integer> keyPositions) implements Writeable {
+
+    public RuntimeFilterTarget(StreamInput in) throws IOException {
+        this(in.readVInt(), in.readStringList(), in.readList(StreamInput::readVInt));
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeVInt(collectPhaseId);
+        out.writeStringCollection(nodeIds);
+        out.writeVInt(keyPositions.size());
+        for (int keyPosition : keyPositions) {
+            out.writeVInt(keyPosition);
+        }
+    }
+}
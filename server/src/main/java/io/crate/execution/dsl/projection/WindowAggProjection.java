@@ -45,11 +45,24 @@ public class WindowAggProjection extends Projection {
     private final List<Symbol> standaloneWithInputs;
     private final ArrayList<Symbol> outputs;
     private final List<WindowFunction> windowFunctions;
+    private final boolean sourceSorted;
 
     public WindowAggProjection(WindowDefinition windowDefinition,
                                List<WindowFunction> windowFunctions,
                                List<Symbol> standaloneWithInputs) {
+        this(windowDefinition, windowFunctions, standaloneWithInputs, false);
+    }
+
+    /**
+     * @param sourceSorted true if the rows of the source are already sorted by the PARTITION BY and ORDER BY
+     *                     expressions of the window definition.
+     */
+    public WindowAggProjection(WindowDefinition windowDefinition,
+                               List<WindowFunction> windowFunctions,
+                               List<Symbol> standaloneWithInputs,
+                               boolean sourceSorted) {
         this.windowFunctions = windowFunctions;
+        this.sourceSorted = sourceSorted;
         assert windowFunctions.stream().noneMatch(Symbol.IS_COLUMN)
             : "Cannot operate on Reference or Field: " + windowFunctions;
         assert standaloneWithInputs.stream().noneMatch(Symbol.IS_COLUMN)
@@ -83,6 +96,11 @@ public class WindowAggProjection extends Projection {
                 windowFunctions.add(function);
             }
         }
+        if (version.onOrAfter(Version.V_5_10_0)) {
+            sourceSorted = in.readBoolean();
+        } else {
+            sourceSorted = false;
+        }
         outputs = new ArrayList<>(standaloneWithInputs);
         outputs.addAll(windowFunctions);
     }
@@ -99,6 +117,10 @@ public class WindowAggProjection extends Projection {
         return standaloneWithInputs;
     }
 
+    public boolean sourceSorted() {
+        return sourceSorted;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -108,13 +130,14 @@ public class WindowAggProjection extends Projection {
             return false;
         }
         WindowAggProjection that = (WindowAggProjection) o;
-        return Objects.equals(windowDefinition, that.windowDefinition) &&
+        return sourceSorted == that.sourceSorted &&
+               Objects.equals(windowDefinition, that.windowDefinition) &&
                Objects.equals(windowFunctions, that.windowFunctions);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(super.hashCode(), windowDefinition, windowFunctions);
+        return Objects.hash(super.hashCode(), windowDefinition, windowFunctions, sourceSorted);
     }
 
     @Override
@@ -158,6 +181,9 @@ public class WindowAggProjection extends Projection {
                 Symbols.toStream(windowFunction.arguments(), out);
             }
         }
+        if (version.onOrAfter(Version.V_5_10_0)) {
+            out.writeBoolean(sourceSorted);
+        }
     }
 
     @Override
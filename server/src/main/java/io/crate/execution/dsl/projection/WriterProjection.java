@@ -34,8 +34,10 @@ import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.settings.Settings;
 import org.jetbrains.annotations.Nullable;
 
+import io.crate.execution.engine.collect.files.StdStreams;
 import io.crate.expression.eval.EvaluatingNormalizer;
 import io.crate.expression.symbol.InputColumn;
+import io.crate.expression.symbol.Literal;
 import io.crate.expression.symbol.Symbol;
 import io.crate.expression.symbol.Symbols;
 import io.crate.metadata.ColumnIdent;
@@ -66,7 +68,8 @@ public class WriterProjection extends Projection {
 
     public enum OutputFormat {
         JSON_OBJECT,
-        JSON_ARRAY
+        JSON_ARRAY,
+        PARQUET
     }
 
     private final CompressionType compressionType;
@@ -120,7 +123,18 @@ public class WriterProjection extends Projection {
 
     @Override
     public RowGranularity requiredGranularity() {
-        return RowGranularity.SHARD;
+        // COPY TO STDOUT writes all rows into the single client connection on the handler
+        return isToStdout() ? RowGranularity.CLUSTER : RowGranularity.SHARD;
+    }
+
+    /**
+     * @return true if the rows are written to the client connection of a {@code COPY ... TO STDOUT}
+     *         instead of a file per shard.
+     */
+    public boolean isToStdout() {
+        return uri instanceof Literal<?> literal
+            && literal.value() instanceof String str
+            && str.startsWith(StdStreams.STDOUT_SCHEME + ":");
     }
 
     public Symbol uri() {
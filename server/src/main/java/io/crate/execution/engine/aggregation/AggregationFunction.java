@@ -110,6 +110,17 @@ public abstract class AggregationFunction<TPartial, TFinal> implements FunctionI
         return false;
     }
 
+    /**
+     * Indicates if the partial states of this aggregation are immutable: {@link #iterate} and {@link #reduce} never
+     * modify the states passed to them and the state created by {@link #newState} is a neutral element for
+     * {@link #reduce}.
+     * This allows to compute the aggregation over arbitrary ranges of rows by reducing pre-aggregated states of
+     * sub ranges, which is used to compute sliding window frames of functions which aren't removable cumulative.
+     */
+    public boolean isStateImmutable() {
+        return false;
+    }
+
     public TPartial removeFromAggregatedState(RamAccounting ramAccounting,
                                               TPartial previousAggState,
                                               Input<?>[] stateToRemove) {
@@ -0,0 +1,383 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.engine.aggregation;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.apache.lucene.util.RamUsageEstimator;
+
+import com.carrotsearch.hppc.BitMixer;
+
+import io.crate.data.breaker.RamAccounting;
+import io.crate.types.BooleanType;
+import io.crate.types.ByteType;
+import io.crate.types.DataType;
+import io.crate.types.DoubleType;
+import io.crate.types.FloatType;
+import io.crate.types.IntegerType;
+import io.crate.types.LongType;
+import io.crate.types.ShortType;
+import io.crate.types.TimestampType;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+/**
+ * A map for group keys which consist of multiple fixed-width columns (numbers, booleans and timestamps).
+ * <p>
+ * Instead of holding every key as a {@code List<Object>} within a {@link java.util.HashMap} entry, the key columns
+ * are encoded into fixed-size slots:
+ *
+ * <pre>
+ *  | null bits | column 0 | column 1 | ... |
+ * </pre>
+ *
+ * The slots are stored back to back within pages. An open addressing hash table (linear probing) maps the key hashes to the slot numbers. The aggregation states of
+ * a group are stored at the same position as the slot in a states array.
+ * <p>
+ * The pages and the arrays of the hash table are accounted in the given {@link RamAccounting}. {@link #clear()} keeps
+ * them to re-use them for the next groups, see {@link #retainedBytes()}.
+ * <p>
+ * Keys returned by {@link #entrySet()} are decoded into new lists.
+ * Memory must be reserved via {@link #ensureCapacityForNewEntry()} before adding a new group, which throws a
+ * {@link org.elasticsearch.common.breaker.CircuitBreakingException} without modifying the map if there is not enough
+ * memory.
+ * <p>
+ * Not thread safe.
+ */
+final class FlatGroupByMap extends AbstractMap<List<Object>, Object[]> {
+
+    private static final int PAGE_SIZE_IN_BYTES = 32 * 1024;
+    private static final int INITIAL_CAPACITY = 64;
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private final int[] typeIds;
+    private final int[] offsets;
+    private final int slotSize;
+    private final int slotsPerPage;
+    private final RamAccounting ramAccounting;
+    private final ByteBuf probe;
+    private final List<ByteBuf> pages = new ArrayList<>();
+
+    /**
+     * Holds slot + 1, 0 marks an empty bucket
+     */
+    private int[] table = new int[0];
+    private int mask = -1;
+    private int[] hashes = new int[0];
+    private Object[][] states = new Object[0][];
+    private int size = 0;
+
+    static boolean supports(List<? extends DataType<?>> keyTypes) {
+        if (keyTypes.size() < 2) {
+            return false;
+        }
+        for (DataType<?> keyType : keyTypes) {
+            if (width(keyType.id()) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int width(int typeId) {
+        return switch (typeId) {
+            case BooleanType.ID, ByteType.ID -> 1;
+            case ShortType.ID -> 2;
+            case IntegerType.ID, FloatType.ID -> 4;
+            case LongType.ID, DoubleType.ID, TimestampType.ID_WITH_TZ, TimestampType.ID_WITHOUT_TZ -> 8;
+            default -> -1;
+        };
+    }
+
+    FlatGroupByMap(List<? extends DataType<?>> keyTypes, RamAccounting ramAccounting) {
+        assert supports(keyTypes) : "FlatGroupByMap doesn't support the key types " + keyTypes;
+        this.ramAccounting = ramAccounting;
+        this.typeIds = new int[keyTypes.size()];
+        this.offsets = new int[keyTypes.size()];
+        int offset = (keyTypes.size() + 7) / 8;
+        for (int i = 0; i < keyTypes.size(); i++) {
+            typeIds[i] = keyTypes.get(i).id();
+            offsets[i] = offset;
+            offset += width(typeIds[i]);
+        }
+        this.slotSize = offset;
+        this.slotsPerPage = PAGE_SIZE_IN_BYTES / slotSize;
+        this.probe = Unpooled.buffer(slotSize, slotSize);
+    }
+
+    /**
+     * Reserves the memory required to add a new group, without modifying the map.
+     */
+    public void ensureCapacityForNewEntry() {
+        if (size == pages.size() * slotsPerPage) {
+            ramAccounting.addBytes(pageSizeInBytes());
+            pages.add(Unpooled.buffer(pageSizeInBytes(), pageSizeInBytes()));
+        }
+        if (size == states.length) {
+            int newCapacity = Math.max(INITIAL_CAPACITY, states.length * 2);
+            ramAccounting.addBytes(
+                (long) (newCapacity - states.length) * (Integer.BYTES + RamUsageEstimator.NUM_BYTES_OBJECT_REF));
+            hashes = Arrays.copyOf(hashes, newCapacity);
+            states = Arrays.copyOf(states, newCapacity);
+        }
+        if (size + 1 > table.length * LOAD_FACTOR) {
+            int newLength = Math.max(INITIAL_CAPACITY * 2, table.length * 2);
+            ramAccounting.addBytes((long) (newLength - table.length) * Integer.BYTES);
+            rehash(newLength);
+        }
+    }
+
+    private int pageSizeInBytes() {
+        return slotsPerPage * slotSize;
+    }
+
+    /**
+     * @return the bytes of the pages and the hash table which are kept by {@link #clear()}
+     */
+    long retainedBytes() {
+        return (long) pages.size() * pageSizeInBytes()
+            + (long) states.length * (Integer.BYTES + RamUsageEstimator.NUM_BYTES_OBJECT_REF)
+            + (long) table.length * Integer.BYTES;
+    }
+
+    private void rehash(int newLength) {
+        table = new int[newLength];
+        mask = newLength - 1;
+        for (int slot = 0; slot < size; slot++) {
+            int idx = hashes[slot] & mask;
+            while (table[idx] != 0) {
+                idx = (idx + 1) & mask;
+            }
+            table[idx] = slot + 1;
+        }
+    }
+
+    @Override
+    public Object[] get(Object key) {
+        if (size == 0) {
+            return null;
+        }
+        int hash = encode((List<?>) key);
+        int slot = find(hash);
+        return slot < 0 ? null : states[slot];
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public Object[] put(List<Object> key, Object[] value) {
+        int hash = encode(key);
+        int slot = size == 0 ? -1 : find(hash);
+        if (slot >= 0) {
+            Object[] previous = states[slot];
+            states[slot] = value;
+            return previous;
+        }
+        ensureCapacityForNewEntry();
+        slot = size;
+        ByteBuf page = pages.get(slot / slotsPerPage);
+        page.setBytes((slot % slotsPerPage) * slotSize, probe, 0, slotSize);
+        hashes[slot] = hash;
+        states[slot] = value;
+        int idx = hash & mask;
+        while (table[idx] != 0) {
+            idx = (idx + 1) & mask;
+        }
+        table[idx] = slot + 1;
+        size++;
+        return null;
+    }
+
+    /**
+     * @return the slot of the key currently encoded in {@link #probe} or -1 if there is none.
+     */
+    private int find(int hash) {
+        int idx = hash & mask;
+        int entry;
+        while ((entry = table[idx]) != 0) {
+            int slot = entry - 1;
+            if (hashes[slot] == hash && probeEquals(slot)) {
+                return slot;
+            }
+            idx = (idx + 1) & mask;
+        }
+        return -1;
+    }
+
+    private boolean probeEquals(int slot) {
+        ByteBuf page = pages.get(slot / slotsPerPage);
+        int start = (slot % slotsPerPage) * slotSize;
+        int i = 0;
+        for (; i + Long.BYTES <= slotSize; i += Long.BYTES) {
+            if (probe.getLong(i) != page.getLong(start + i)) {
+                return false;
+            }
+        }
+        for (; i < slotSize; i++) {
+            if (probe.getByte(i) != page.getByte(start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Encodes the key into {@link #probe}
+     *
+     * @return the hash of the key
+     */
+    private int encode(List<?> key) {
+        assert key.size() == typeIds.length : "key must have a value for each key column";
+        probe.setZero(0, slotSize);
+        long hash = 0;
+        for (int i = 0; i < typeIds.length; i++) {
+            Object value = key.get(i);
+            long bits;
+            if (value == null) {
+                probe.setByte(i / 8, probe.getByte(i / 8) | (1 << (i % 8)));
+                bits = -1L;
+            } else {
+                int offset = offsets[i];
+                switch (typeIds[i]) {
+                    case BooleanType.ID -> {
+                        bits = (Boolean) value ? 1 : 0;
+                        probe.setByte(offset, (int) bits);
+                    }
+                    case ByteType.ID -> {
+                        bits = (Byte) value;
+                        probe.setByte(offset, (int) bits);
+                    }
+                    case ShortType.ID -> {
+                        bits = (Short) value;
+                        probe.setShort(offset, (int) bits);
+                    }
+                    case IntegerType.ID -> {
+                        bits = (Integer) value;
+                        probe.setInt(offset, (int) bits);
+                    }
+                    case FloatType.ID -> {
+                        bits = Float.floatToIntBits((Float) value);
+                        probe.setInt(offset, (int) bits);
+                    }
+                    case DoubleType.ID -> {
+                        bits = Double.doubleToLongBits((Double) value);
+                        probe.setLong(offset, bits);
+                    }
+                    default -> {
+                        bits = (Long) value;
+                        probe.setLong(offset, bits);
+                    }
+                }
+            }
+            hash = 31 * hash + bits;
+        }
+        return BitMixer.mix32((int) (hash ^ (hash >>> 32)));
+    }
+
+    private List<Object> decode(int slot) {
+        ByteBuf page = pages.get(slot / slotsPerPage);
+        int start = (slot % slotsPerPage) * slotSize;
+        List<Object> key = new ArrayList<>(typeIds.length);
+        for (int i = 0; i < typeIds.length; i++) {
+            if ((page.getByte(start + i / 8) & (1 << (i % 8))) != 0) {
+                key.add(null);
+                continue;
+            }
+            int offset = start + offsets[i];
+            key.add(switch (typeIds[i]) {
+                case BooleanType.ID -> page.getByte(offset) == 1;
+                case ByteType.ID -> page.getByte(offset);
+                case ShortType.ID -> page.getShort(offset);
+                case IntegerType.ID -> page.getInt(offset);
+                case FloatType.ID -> Float.intBitsToFloat(page.getInt(offset));
+                case DoubleType.ID -> Double.longBitsToDouble(page.getLong(offset));
+                default -> page.getLong(offset);
+            });
+        }
+        return key;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes all groups. The allocated pages and the hash table are kept and re-used, their memory remains accounted.
+     */
+    @Override
+    public void clear() {
+        Arrays.fill(table, 0);
+        Arrays.fill(states, 0, size, null);
+        size = 0;
+    }
+
+    @Override
+    public Set<Entry<List<Object>, Object[]>> entrySet() {
+        return new AbstractSet<>() {
+
+            @Override
+            public Iterator<Entry<List<Object>, Object[]>> iterator() {
+                return new Iterator<>() {
+
+                    private int slot = 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        return slot < size;
+                    }
+
+                    @Override
+                    public Entry<List<Object>, Object[]> next() {
+                        if (slot >= size) {
+                            throw new NoSuchElementException("FlatGroupByMap has no more entries");
+                        }
+                        Entry<List<Object>, Object[]> entry = new SimpleImmutableEntry<>(decode(slot), states[slot]);
+                        slot++;
+                        return entry;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+}
@@ -51,6 +51,10 @@ public final class GroupByMaps {
     public static <K, V> BiConsumer<Map<K, V>, K> accountForNewEntry(RamAccounting ramAccounting,
                                                                      List<? extends DataType> types) {
         return (map, k) -> {
+            if (map instanceof FlatGroupByMap flatMap) {
+                flatMap.ensureCapacityForNewEntry();
+                return;
+            }
             assert k instanceof List : "keys must be a list if there are multiple key types";
             long size = 0;
             for (int i = 0; i < types.size(); i++) {
@@ -81,4 +85,18 @@ public final class GroupByMaps {
                 return HashMap::new;
         }
     }
+
+    /**
+     * Returns a supplier for maps keyed by a {@code List} with one value per key type.
+     * Uses a {@link FlatGroupByMap} if all key types are fixed-width, otherwise a {@link HashMap}.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static <V> Supplier<Map<List<Object>, V>> mapForTypes(List<? extends DataType> types,
+                                                                 RamAccounting ramAccounting) {
+        List<DataType<?>> keyTypes = (List<DataType<?>>) types;
+        if (FlatGroupByMap.supports(keyTypes)) {
+            return () -> (Map) new FlatGroupByMap(keyTypes, ramAccounting);
+        }
+        return HashMap::new;
+    }
 }
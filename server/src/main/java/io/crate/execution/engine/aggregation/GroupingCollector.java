@@ -21,22 +21,34 @@
 
 package io.crate.execution.engine.aggregation;
 
+import io.crate.Streamer;
+import io.crate.breaker.OperatorRamAccounting;
+import io.crate.common.collections.Iterables;
+import io.crate.common.exceptions.Exceptions;
+import io.crate.common.io.IOUtils;
 import io.crate.data.Input;
 import io.crate.data.Row;
 import io.crate.data.RowN;
 import io.crate.data.breaker.RamAccounting;
 import io.crate.execution.engine.collect.CollectExpression;
+import io.crate.execution.engine.spill.SpillFile;
+import io.crate.execution.engine.spill.SpillService;
 import io.crate.expression.InputCondition;
 import io.crate.expression.symbol.AggregateMode;
 import io.crate.memory.MemoryManager;
 import io.crate.types.DataType;
 import org.elasticsearch.Version;
+import org.elasticsearch.common.breaker.CircuitBreakingException;
+import org.jetbrains.annotations.Nullable;
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.Iterator;
 import java.util.function.BiConsumer;
@@ -48,10 +60,28 @@ import java.util.stream.Collector;
 /**
  * Collector implementation which uses {@link AggregateMode}s and {@code keyInputs}
  * to group rows by key and aggregate the grouped values.
+ * <p>
+ * If a {@link SpillService} is given and the groups exceed the memory budget (or the circuit breaker would trip),
+ * the partial states of all groups are written to disk, partitioned by the hash of their key, and the in-memory
+ * groups are released. Once all rows are consumed, the partitions are reduced one by one. A partition whose groups
+ * exceed the memory budget as well is partitioned again using a different hash seed. See {@link SpilledGroups}.
+ * <p>
+ * Only the memory accounted by this collector is released when spilling, the given {@link RamAccounting} may be
+ * shared with other operations. The map of the collect run is re-used for all partitions, so that the capacity it
+ * allocated is only accounted once.
+ * <p>
+ * An instance must only be used for a single collect run if spilling is enabled. {@link #close()} deletes the
+ * spilled groups.
  *
  * @param <K> type of the key
  */
-public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, Iterable<Row>> {
+public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, Iterable<Row>>, Closeable {
+
+    /**
+     * Maximum number of times a spilled partition is partitioned again. Limits the recursion if the keys of a
+     * partition can't be told apart by their hash.
+     */
+    private static final int MAX_SPILL_DEPTH = 4;
 
     private final CollectExpression<Row, ?>[] expressions;
     private final AggregationFunction[] aggregations;
@@ -68,6 +98,20 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
     private final BiConsumer<Map<K, Object[]>, Row> accumulator;
     private final Supplier<Map<K, Object[]>> supplier;
     private final Version minNodeVersion;
+    private final Function<Object[], K> cellsToKey;
+    @Nullable
+    private final SpillService spillService;
+    private final long memoryBudgetBytes;
+    private final DataType[] spillTypes;
+
+    @Nullable
+    private SpilledGroups spilledGroups;
+    /**
+     * The map of the collect run, re-used to reduce the spilled partitions one by one
+     */
+    @Nullable
+    private Map<K, Object[]> reduceMap;
+    private final List<SpilledGroups> repartitionedGroups = new ArrayList<>();
 
     static GroupingCollector<Object> singleKey(CollectExpression<Row, ?>[] expressions,
                                                AggregateMode mode,
@@ -79,22 +123,29 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
                                                Version minNodeVersion,
                                                Input<?> keyInput,
                                                DataType keyType,
-                                               Version indexVersionCreated) {
+                                               Version indexVersionCreated,
+                                               @Nullable SpillService spillService,
+                                               long memoryBudgetBytes) {
+        RamAccounting ownRamAccounting = new OperatorRamAccounting(ramAccounting);
         return new GroupingCollector<>(
             expressions,
             aggregations,
             mode,
             inputs,
             filters,
-            ramAccounting,
+            ownRamAccounting,
             memoryManager,
             minNodeVersion,
             (key, cells) -> cells[0] = key,
             1,
-            GroupByMaps.accountForNewEntry(ramAccounting, keyType),
+            GroupByMaps.accountForNewEntry(ownRamAccounting, keyType),
             row -> keyInput.value(),
             indexVersionCreated,
-            GroupByMaps.mapForType(keyType)
+            GroupByMaps.mapForType(keyType),
+            cells -> cells[0],
+            List.of(keyType),
+            spillService,
+            memoryBudgetBytes
         );
     }
 
@@ -108,22 +159,29 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
                                                     Version minNodeVersion,
                                                     List<Input<?>> keyInputs,
                                                     List<? extends DataType> keyTypes,
-                                                    Version indexVersionCreated) {
+                                                    Version indexVersionCreated,
+                                                    @Nullable SpillService spillService,
+                                                    long memoryBudgetBytes) {
+        RamAccounting ownRamAccounting = new OperatorRamAccounting(ramAccountingContext);
         return new GroupingCollector<>(
             expressions,
             aggregations,
             mode,
             inputs,
             filters,
-            ramAccountingContext,
+            ownRamAccounting,
             memoryManager,
             minNodeVersion,
             GroupingCollector::applyKeysToCells,
             keyInputs.size(),
-            GroupByMaps.accountForNewEntry(ramAccountingContext, keyTypes),
+            GroupByMaps.accountForNewEntry(ownRamAccounting, keyTypes),
             row -> evalKeyInputs(keyInputs),
             indexVersionCreated,
-            HashMap::new
+            GroupByMaps.mapForTypes(keyTypes, ownRamAccounting),
+            cells -> new ArrayList<>(Arrays.asList(cells).subList(0, keyInputs.size())),
+            keyTypes,
+            spillService,
+            memoryBudgetBytes
         );
     }
 
@@ -154,7 +212,11 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
                               BiConsumer<Map<K, Object[]>, K> accountForNewEntry,
                               Function<Row, K> keyExtractor,
                               Version indexVersionCreated,
-                              Supplier<Map<K, Object[]>> supplier) {
+                              Supplier<Map<K, Object[]>> supplier,
+                              Function<Object[], K> cellsToKey,
+                              List<? extends DataType> keyTypes,
+                              @Nullable SpillService spillService,
+                              long memoryBudgetBytes) {
         this.expressions = expressions;
         this.aggregations = aggregations;
         this.mode = mode;
@@ -170,6 +232,16 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
         this.accumulator = mode == AggregateMode.PARTIAL_FINAL ? this::reduce : this::iter;
         this.supplier = supplier;
         this.minNodeVersion = minNodeVersion;
+        this.cellsToKey = cellsToKey;
+        this.spillService = spillService;
+        this.memoryBudgetBytes = memoryBudgetBytes;
+        this.spillTypes = new DataType[numKeyColumns + aggregations.length];
+        for (int i = 0; i < numKeyColumns; i++) {
+            spillTypes[i] = keyTypes.get(i);
+        }
+        for (int i = 0; i < aggregations.length; i++) {
+            spillTypes[numKeyColumns + i] = aggregations[i].partialType();
+        }
     }
 
     @Override
@@ -191,7 +263,7 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
 
     @Override
     public Function<Map<K, Object[]>, Iterable<Row>> finisher() {
-        return this::mapToRows;
+        return this::finish;
     }
 
     @Override
@@ -219,10 +291,180 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
     }
 
     private void addWithAccounting(Map<K, Object[]> statesByKey, K key, Object[] states) {
-        accountForNewEntry.accept(statesByKey, key);
+        if (spillService == null || spillService.isEnabled() == false || statesByKey.isEmpty()) {
+            accountForNewEntry.accept(statesByKey, key);
+        } else if (ramAccounting.totalBytes() >= memoryBudgetBytes) {
+            spill(statesByKey);
+            accountForNewEntry.accept(statesByKey, key);
+        } else {
+            try {
+                accountForNewEntry.accept(statesByKey, key);
+            } catch (CircuitBreakingException e) {
+                spill(statesByKey);
+                accountForNewEntry.accept(statesByKey, key);
+            }
+        }
         statesByKey.put(key, states);
     }
 
+    /**
+     * Writes the key and partial states of all groups to disk and releases the memory accounted for them.
+     */
+    private void spill(Map<K, Object[]> statesByKey) {
+        assert spillService != null : "spillService must be available to spill";
+        try {
+            if (spilledGroups == null) {
+                spilledGroups = SpilledGroups.create(spillService, spillStreamers(), 0);
+            }
+            for (Map.Entry<K, Object[]> entry : statesByKey.entrySet()) {
+                Object[] cells = new Object[numKeyColumns + aggregations.length];
+                applyKeyToCells.accept(entry.getKey(), cells);
+                System.arraycopy(entry.getValue(), 0, cells, numKeyColumns, aggregations.length);
+                spilledGroups.add(Objects.hashCode(entry.getKey()), cells);
+            }
+        } catch (IOException e) {
+            Exceptions.rethrowUnchecked(e);
+        }
+        clearAndRelease(statesByKey);
+    }
+
+    /**
+     * Removes all groups of the map and releases the memory accounted for them, except for the capacity the map
+     * keeps to re-use it.
+     */
+    private void clearAndRelease(Map<K, Object[]> statesByKey) {
+        statesByKey.clear();
+        ramAccounting.release();
+        if (statesByKey instanceof FlatGroupByMap flatMap) {
+            ramAccounting.addBytes(flatMap.retainedBytes());
+        }
+    }
+
+    private Streamer<?>[] spillStreamers() {
+        Streamer<?>[] streamers = new Streamer[spillTypes.length];
+        for (int i = 0; i < spillTypes.length; i++) {
+            streamers[i] = spillTypes[i].streamer();
+        }
+        return streamers;
+    }
+
+    private Iterable<Row> finish(Map<K, Object[]> statesByKey) {
+        if (spilledGroups == null) {
+            return mapToRows(statesByKey);
+        }
+        SpilledGroups groups = spilledGroups;
+        if (statesByKey.isEmpty() == false) {
+            spill(statesByKey);
+        }
+        try {
+            groups.finishWriting();
+        } catch (IOException e) {
+            Exceptions.rethrowUnchecked(e);
+        }
+        reduceMap = statesByKey;
+        return reducePartitions(groups, 0);
+    }
+
+    private Iterable<Row> reducePartitions(SpilledGroups groups, int depth) {
+        List<Iterable<Row>> partitions = new ArrayList<>(SpilledGroups.NUM_PARTITIONS);
+        for (int i = 0; i < SpilledGroups.NUM_PARTITIONS; i++) {
+            SpillFile partition = groups.partition(i);
+            partitions.add(() -> reducePartition(partition, depth).iterator());
+        }
+        return Iterables.concat(partitions);
+    }
+
+    /**
+     * Loads the groups of a spilled partition into memory, reducing the partial states of equal keys.
+     * The map of the previously loaded partition is cleared and re-used.
+     * <p>
+     * If the groups of the partition exceed the memory budget, the partition is split into sub-partitions using a
+     * different hash seed, which are reduced one by one.
+     */
+    private Iterable<Row> reducePartition(SpillFile partition, int depth) {
+        Map<K, Object[]> statesByKey = reduceMap;
+        assert statesByKey != null : "reduceMap must be set before reducing partitions";
+        clearAndRelease(statesByKey);
+        boolean canSplit = depth < MAX_SPILL_DEPTH && partition.numRows() > 1;
+        if (loadPartition(partition, statesByKey, canSplit)) {
+            return mapToRows(statesByKey);
+        }
+        clearAndRelease(statesByKey);
+        return reducePartitions(repartition(partition, depth + 1), depth + 1);
+    }
+
+    /**
+     * Adds the reduced groups of the partition to {@code statesByKey}.
+     *
+     * @return false if {@code canSplit} is true and the groups exceed the memory budget.
+     */
+    private boolean loadPartition(SpillFile partition, Map<K, Object[]> statesByKey, boolean canSplit) {
+        try {
+            for (Object[] cells : partition.rows()) {
+                K key = cellsToKey.apply(cells);
+                Object[] states = statesByKey.get(key);
+                if (states == null) {
+                    states = Arrays.copyOfRange(cells, numKeyColumns, cells.length);
+                    accountForNewEntry.accept(statesByKey, key);
+                    for (int i = 0; i < states.length; i++) {
+                        ramAccounting.addBytes(spillTypes[numKeyColumns + i].valueBytes(states[i]));
+                    }
+                    statesByKey.put(key, states);
+                } else {
+                    for (int i = 0; i < aggregations.length; i++) {
+                        //noinspection unchecked
+                        states[i] = aggregations[i].reduce(ramAccounting, states[i], cells[numKeyColumns + i]);
+                    }
+                }
+                // Splitting fewer groups than partitions would mostly create empty partitions
+                if (canSplit
+                    && statesByKey.size() >= SpilledGroups.NUM_PARTITIONS
+                    && ramAccounting.totalBytes() >= memoryBudgetBytes) {
+                    return false;
+                }
+            }
+        } catch (CircuitBreakingException e) {
+            if (canSplit) {
+                return false;
+            }
+            throw e;
+        }
+        return true;
+    }
+
+    /**
+     * Distributes the groups of a partition to new partitions, using the depth as hash seed, and deletes the
+     * partition.
+     */
+    private SpilledGroups repartition(SpillFile partition, int depth) {
+        assert spillService != null : "spillService must be available to spill";
+        SpilledGroups groups = null;
+        try {
+            groups = SpilledGroups.create(spillService, spillStreamers(), depth);
+            repartitionedGroups.add(groups);
+            for (Object[] cells : partition.rows()) {
+                groups.add(Objects.hashCode(cellsToKey.apply(cells)), cells);
+            }
+            groups.finishWriting();
+            partition.close();
+        } catch (IOException e) {
+            Exceptions.rethrowUnchecked(e);
+        }
+        return groups;
+    }
+
+    /**
+     * Deletes the groups spilled to disk
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            IOUtils.close(repartitionedGroups);
+        } finally {
+            IOUtils.close(spilledGroups);
+        }
+    }
+
     private void iter(Map<K, Object[]> statesByKey, Row row) {
         for (CollectExpression<Row, ?> expression : expressions) {
             expression.setNextRow(row);
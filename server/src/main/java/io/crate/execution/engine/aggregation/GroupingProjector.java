@@ -27,12 +27,16 @@ import io.crate.data.Input;
 import io.crate.data.Projector;
 import io.crate.data.Row;
 import io.crate.data.breaker.RamAccounting;
+import io.crate.common.exceptions.Exceptions;
 import io.crate.execution.engine.collect.CollectExpression;
+import io.crate.execution.engine.spill.SpillService;
 import io.crate.expression.symbol.AggregateMode;
 import io.crate.expression.symbol.Symbol;
 import io.crate.memory.MemoryManager;
 import org.elasticsearch.Version;
+import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.stream.Collector;
 
@@ -40,7 +44,7 @@ import static io.crate.expression.symbol.Symbols.typeView;
 
 public class GroupingProjector implements Projector {
 
-    private final Collector<Row, ?, Iterable<Row>> collector;
+    private final GroupingCollector<?> collector;
 
 
     public GroupingProjector(List<? extends Symbol> keys,
@@ -51,7 +55,9 @@ public class GroupingProjector implements Projector {
                              RamAccounting ramAccounting,
                              MemoryManager memoryManager,
                              Version minNodeVersion,
-                             Version indexVersionCreated) {
+                             Version indexVersionCreated,
+                             @Nullable SpillService spillService,
+                             long memoryBudgetBytes) {
         assert keys.size() == keyInputs.size() : "number of key types must match with number of key inputs";
 
         AggregationFunction[] functions = new AggregationFunction[aggregations.length];
@@ -76,11 +82,12 @@ public class GroupingProjector implements Projector {
                 minNodeVersion,
                 keyInputs.get(0),
                 key.valueType(),
-                indexVersionCreated
+                indexVersionCreated,
+                spillService,
+                memoryBudgetBytes
             );
         } else {
-            //noinspection unchecked
-            collector = (GroupingCollector<Object>) (GroupingCollector) GroupingCollector.manyKeys(
+            collector = GroupingCollector.manyKeys(
                 collectExpressions,
                 mode,
                 functions,
@@ -91,14 +98,31 @@ public class GroupingProjector implements Projector {
                 minNodeVersion,
                 keyInputs,
                 typeView(keys),
-                indexVersionCreated
+                indexVersionCreated,
+                spillService,
+                memoryBudgetBytes
             );
         }
     }
 
     @Override
     public BatchIterator<Row> apply(BatchIterator<Row> batchIterator) {
-        return CollectingBatchIterator.newInstance(batchIterator, collector);
+        return CollectingBatchIterator.newInstance(
+            () -> {
+                try {
+                    batchIterator.close();
+                } finally {
+                    try {
+                        collector.close();
+                    } catch (IOException e) {
+                        Exceptions.rethrowUnchecked(e);
+                    }
+                }
+            },
+            batchIterator::kill,
+            () -> batchIterator.collect(collector),
+            batchIterator.hasLazyResultSet()
+        );
     }
 
     public Collector<Row, ?, Iterable<Row>> getCollector() {
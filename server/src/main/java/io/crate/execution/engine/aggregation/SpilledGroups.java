@@ -0,0 +1,89 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.engine.aggregation;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+import com.carrotsearch.hppc.BitMixer;
+
+import io.crate.Streamer;
+import io.crate.common.io.IOUtils;
+import io.crate.execution.engine.spill.SpillFile;
+import io.crate.execution.engine.spill.SpillService;
+
+/**
+ * Groups of a {@link GroupingCollector} which have been spilled to disk.
+ * <p>
+ * Each row consists of the key columns followed by the partial aggregation states. Rows are assigned to a partition
+ * based on the hash of the key, so all states of a group always end up in the same partition and each partition can
+ * be reduced independently of the others. Partitions created with a different seed distribute the keys differently,
+ * which allows to split a partition which is too large to be reduced in memory.
+ */
+final class SpilledGroups implements Closeable {
+
+    /**
+     * Must be a power of two
+     */
+    static final int NUM_PARTITIONS = 32;
+
+    private final SpillFile[] partitions;
+    private final int seed;
+
+    static SpilledGroups create(SpillService spillService, Streamer<?>[] streamers, int seed) throws IOException {
+        SpillFile[] partitions = new SpillFile[NUM_PARTITIONS];
+        try {
+            for (int i = 0; i < NUM_PARTITIONS; i++) {
+                partitions[i] = spillService.newSpillFile("group-by-" + i + "-", streamers);
+            }
+        } catch (IOException e) {
+            IOUtils.closeWhileHandlingException(partitions);
+            throw e;
+        }
+        return new SpilledGroups(partitions, seed);
+    }
+
+    private SpilledGroups(SpillFile[] partitions, int seed) {
+        this.partitions = partitions;
+        this.seed = seed;
+    }
+
+    void add(int keyHash, Object[] cells) throws IOException {
+        partitions[BitMixer.mix32(keyHash ^ (seed * 0x9E3779B9)) & (NUM_PARTITIONS - 1)].write(cells);
+    }
+
+    void finishWriting() throws IOException {
+        for (SpillFile partition : partitions) {
+            partition.finishWriting();
+        }
+    }
+
+    SpillFile partition(int partition) {
+        return partitions[partition];
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOUtils.close(partitions);
+    }
+}
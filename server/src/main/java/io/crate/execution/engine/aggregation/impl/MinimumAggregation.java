@@ -339,6 +339,11 @@ public abstract class MinimumAggregation extends AggregationFunction<Object, Obj
         return state;
     }
 
+    @Override
+    public boolean isStateImmutable() {
+        return true;
+    }
+
     @Override
     public Object iterate(RamAccounting ramAccounting,
                           MemoryManager memoryManager,
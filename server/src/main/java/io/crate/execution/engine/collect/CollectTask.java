@@ -31,6 +31,7 @@ import java.util.function.Function;
 import org.apache.lucene.search.IndexSearcher;
 import org.elasticsearch.Version;
 import org.elasticsearch.threadpool.ThreadPool;
+import org.jetbrains.annotations.Nullable;
 
 import com.carrotsearch.hppc.IntObjectHashMap;
 
@@ -45,6 +46,7 @@ import io.crate.data.breaker.BlockBasedRamAccounting;
 import io.crate.data.breaker.RamAccounting;
 import io.crate.execution.dsl.phases.CollectPhase;
 import io.crate.execution.dsl.phases.RoutedCollectPhase;
+import io.crate.execution.engine.join.RuntimeFilter;
 import io.crate.execution.jobs.SharedShardContexts;
 import io.crate.execution.jobs.Task;
 import io.crate.memory.MemoryManager;
@@ -78,6 +80,14 @@ public class CollectTask implements Task {
 
     private long totalBytes = -1;
 
+    private final Object runtimeFilterLock = new Object();
+    @GuardedBy("runtimeFilterLock")
+    private RuntimeFilter partialRuntimeFilter;
+    @GuardedBy("runtimeFilterLock")
+    private int numReceivedRuntimeFilters = 0;
+    @Nullable
+    private volatile RuntimeFilter runtimeFilter;
+
     public CollectTask(CollectPhase collectPhase,
                        TransactionContext txnCtx,
                        MapSideDataCollectOperation collectOperation,
@@ -288,4 +298,27 @@ public class CollectTask implements Task {
     public Version minNodeVersion() {
         return minNodeVersion;
     }
+
+    /**
+     * Adds the runtime filter of one node executing the hash join this task
+     * is the probe side of. The filter becomes available via {@link #runtimeFilter()}
+     * once the filters of all {@code numPartials} nodes have been added.
+     */
+    public void addRuntimeFilter(RuntimeFilter filter, int numPartials) {
+        synchronized (runtimeFilterLock) {
+            partialRuntimeFilter = partialRuntimeFilter == null ? filter : partialRuntimeFilter.union(filter);
+            numReceivedRuntimeFilters++;
+            if (numReceivedRuntimeFilters == numPartials) {
+                runtimeFilter = partialRuntimeFilter;
+            }
+        }
+    }
+
+    /**
+     * @return the filter for the collected rows, or null if none is available (yet).
+     */
+    @Nullable
+    public RuntimeFilter runtimeFilter() {
+        return runtimeFilter;
+    }
 }
@@ -26,6 +26,7 @@ import static io.crate.execution.engine.collect.LuceneShardCollectorProvider.for
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
@@ -43,6 +44,7 @@ import org.apache.lucene.search.ScoreMode;
 import org.apache.lucene.search.Scorer;
 import org.apache.lucene.search.Weight;
 import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.RamUsageEstimator;
 import org.elasticsearch.Version;
 import org.elasticsearch.index.IndexService;
 import org.elasticsearch.index.shard.IndexShard;
@@ -68,6 +70,7 @@ import io.crate.expression.InputFactory;
 import io.crate.expression.reference.doc.lucene.CollectorContext;
 import io.crate.expression.reference.doc.lucene.LuceneCollectorExpression;
 import io.crate.expression.reference.doc.lucene.LuceneReferenceResolver;
+import io.crate.expression.reference.doc.lucene.SegmentCodes;
 import io.crate.expression.reference.doc.lucene.StoredRowLookup;
 import io.crate.expression.symbol.AggregateMode;
 import io.crate.expression.symbol.InputColumn;
@@ -225,6 +228,32 @@ final class DocValuesGroupByOptimizedIterator {
                                               Version minNodeVersion,
                                               Query query,
                                               CollectorContext collectorContext) {
+            BiConsumer<Map<List<Object>, Object[]>, List<Object>> accountForNewKeyEntry = GroupByMaps.accountForNewEntry(
+                ramAccounting,
+                Lists.map(keyColumnRefs, Reference::valueType)
+            );
+            if (keyExpressions.size() < Long.SIZE && keyExpressions.stream().allMatch(x -> x instanceof SegmentCodes)) {
+                for (int i = 0; i < keyExpressions.size(); i++) {
+                    keyExpressions.get(i).startCollect(collectorContext);
+                }
+                return newIterator(
+                    killed -> applyAggregatesGroupedBySegmentCodes(
+                        aggregators,
+                        indexSearcher,
+                        keyExpressions,
+                        accountForNewKeyEntry,
+                        ramAccounting,
+                        memoryManager,
+                        minNodeVersion,
+                        query,
+                        killed
+                    ),
+                    keyExpressions.size(),
+                    GroupByIterator::applyKeysToCells,
+                    aggregators,
+                    ramAccounting
+                );
+            }
             return GroupByIterator.getIterator(
                 aggregators,
                 indexSearcher,
@@ -232,10 +261,7 @@ final class DocValuesGroupByOptimizedIterator {
                 ramAccounting,
                 memoryManager,
                 minNodeVersion,
-                GroupByMaps.accountForNewEntry(
-                    ramAccounting,
-                    Lists.map(keyColumnRefs, Reference::valueType)
-                ),
+                accountForNewKeyEntry,
                 (expressions) -> {
                     ArrayList<Object> key = new ArrayList<>(keyColumnRefs.size());
                     for (int i = 0; i < expressions.size(); i++) {
@@ -243,16 +269,18 @@ final class DocValuesGroupByOptimizedIterator {
                     }
                     return key;
                 },
-                (List<Object> keys, Object[] cells) -> {
-                    for (int i = 0; i < keys.size(); i++) {
-                        cells[i] = keys.get(i);
-                    }
-                },
+                GroupByIterator::applyKeysToCells,
                 query,
                 collectorContext
             );
         }
 
+        private static void applyKeysToCells(List<Object> keys, Object[] cells) {
+            for (int i = 0; i < keys.size(); i++) {
+                cells[i] = keys.get(i);
+            }
+        }
+
         @SuppressWarnings("rawtypes")
         @VisibleForTesting
         static <K> BatchIterator<Row> getIterator(List<DocValueAggregator> aggregators,
@@ -269,7 +297,38 @@ final class DocValuesGroupByOptimizedIterator {
             for (int i = 0; i < keyExpressions.size(); i++) {
                 keyExpressions.get(i).startCollect(collectorContext);
             }
+            return newIterator(
+                killed -> applyAggregatesGroupedByKey(
+                    aggregators,
+                    indexSearcher,
+                    keyExpressions,
+                    accountForNewKeyEntry,
+                    keyExtractor,
+                    ramAccounting,
+                    memoryManager,
+                    minNodeVersion,
+                    query,
+                    killed
+                ),
+                keyExpressions.size(),
+                applyKeyToCells,
+                aggregators,
+                ramAccounting
+            );
+        }
+
+        @FunctionalInterface
+        private interface Grouping<K> {
+
+            Map<K, Object[]> apply(AtomicReference<Throwable> killed) throws IOException;
+        }
 
+        @SuppressWarnings("rawtypes")
+        private static <K> BatchIterator<Row> newIterator(Grouping<K> grouping,
+                                                          int numberOfKeys,
+                                                          BiConsumer<K, Object[]> applyKeyToCells,
+                                                          List<DocValueAggregator> aggregators,
+                                                          RamAccounting ramAccounting) {
             AtomicReference<Throwable> killed = new AtomicReference<>();
             return CollectingBatchIterator.newInstance(
                 () -> killed.set(BatchIterator.CLOSED),
@@ -278,19 +337,8 @@ final class DocValuesGroupByOptimizedIterator {
                     try {
                         return CompletableFuture.completedFuture(
                             getRows(
-                                applyAggregatesGroupedByKey(
-                                    aggregators,
-                                    indexSearcher,
-                                    keyExpressions,
-                                    accountForNewKeyEntry,
-                                    keyExtractor,
-                                    ramAccounting,
-                                    memoryManager,
-                                    minNodeVersion,
-                                    query,
-                                    killed
-                                ),
-                                keyExpressions.size(),
+                                grouping.apply(killed),
+                                numberOfKeys,
                                 applyKeyToCells,
                                 aggregators,
                                 ramAccounting
@@ -399,6 +447,98 @@ final class DocValuesGroupByOptimizedIterator {
             return statesByKey;
         }
 
+        /**
+         * Variant of {@link #applyAggregatesGroupedByKey} for keys with {@link SegmentCodes}.
+         * The keys of a document are looked up by their codes in a table per segment,
+         * so that the values of a key are only read once per segment.
+         */
+        @SuppressWarnings("rawtypes")
+        private static Map<List<Object>, Object[]> applyAggregatesGroupedBySegmentCodes(
+            List<DocValueAggregator> aggregators,
+            IndexSearcher indexSearcher,
+            List<? extends LuceneCollectorExpression<?>> keyExpressions,
+            BiConsumer<Map<List<Object>, Object[]>, List<Object>> accountForNewKeyEntry,
+            RamAccounting ramAccounting,
+            MemoryManager memoryManager,
+            Version minNodeVersion,
+            Query query,
+            AtomicReference<Throwable> killed
+        ) throws IOException {
+
+            HashMap<List<Object>, Object[]> statesByKey = new HashMap<>();
+            Weight weight = indexSearcher.createWeight(
+                indexSearcher.rewrite(query),
+                ScoreMode.COMPLETE_NO_SCORES,
+                1f
+            );
+            int numKeys = keyExpressions.size();
+            List<SegmentCodes<?>> keyCodes = Lists.map(keyExpressions, x -> (SegmentCodes<?>) x);
+            SegmentKeys segmentKeys = new SegmentKeys(numKeys, ramAccounting);
+            long[] codes = new long[numKeys + 1];
+            List<LeafReaderContext> leaves = indexSearcher.getTopReaderContext().leaves();
+            for (var leaf : leaves) {
+                raiseIfClosedOrKilled(killed);
+                Scorer scorer = weight.scorer(leaf);
+                if (scorer == null) {
+                    continue;
+                }
+                for (int i = 0; i < numKeys; i++) {
+                    keyExpressions.get(i).setNextReader(new ReaderContext(leaf));
+                }
+                for (int i = 0; i < aggregators.size(); i++) {
+                    aggregators.get(i).loadDocValues(leaf);
+                }
+                segmentKeys.clear();
+
+                DocIdSetIterator docs = scorer.iterator();
+                Bits liveDocs = leaf.reader().getLiveDocs();
+                for (int doc = docs.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = docs.nextDoc()) {
+                    raiseIfClosedOrKilled(killed);
+                    if (docDeleted(liveDocs, doc)) {
+                        continue;
+                    }
+
+                    // The last slot holds a bit per key which has no value
+                    long nullKeys = 0;
+                    for (int i = 0; i < numKeys; i++) {
+                        keyExpressions.get(i).setNextDocId(doc);
+                        SegmentCodes<?> keyCode = keyCodes.get(i);
+                        if (keyCode.hasValue()) {
+                            codes[i] = keyCode.code();
+                        } else {
+                            codes[i] = 0;
+                            nullKeys |= 1L << i;
+                        }
+                    }
+                    codes[numKeys] = nullKeys;
+
+                    int slot = segmentKeys.find(codes);
+                    Object[] states = segmentKeys.states(slot);
+                    if (states == null) {
+                        ArrayList<Object> key = new ArrayList<>(numKeys);
+                        for (int i = 0; i < numKeys; i++) {
+                            key.add((nullKeys & (1L << i)) == 0 ? keyCodes.get(i).decode(codes[i]) : null);
+                        }
+                        states = statesByKey.get(key);
+                        if (states == null) {
+                            states = new Object[aggregators.size()];
+                            for (int i = 0; i < aggregators.size(); i++) {
+                                states[i] = aggregators.get(i).initialState(ramAccounting, memoryManager, minNodeVersion);
+                            }
+                            accountForNewKeyEntry.accept(statesByKey, key);
+                            statesByKey.put(key, states);
+                        }
+                        segmentKeys.insert(slot, codes, states);
+                    }
+                    for (int i = 0; i < aggregators.size(); i++) {
+                        //noinspection unchecked
+                        aggregators.get(i).apply(ramAccounting, doc, states[i]);
+                    }
+                }
+            }
+            return statesByKey;
+        }
+
         private static boolean docDeleted(@Nullable Bits liveDocs, int doc) {
             return liveDocs != null && !liveDocs.get(doc);
         }
@@ -411,6 +551,116 @@ final class DocValuesGroupByOptimizedIterator {
         }
     }
 
+    /**
+     * Open addressing hash table mapping the codes of the keys of a segment to
+     * the states of the group. A key is stored as its {@link SegmentCodes} and
+     * a bitmask of the keys without value, so looking up a key doesn't allocate.
+     */
+    @VisibleForTesting
+    static final class SegmentKeys {
+
+        private static final int INITIAL_CAPACITY = 64;
+
+        private final int width;
+        private final RamAccounting ramAccounting;
+        private long[] keys;
+        private Object[][] states;
+        private int mask;
+        private int size = 0;
+
+        SegmentKeys(int numKeys, RamAccounting ramAccounting) {
+            this.width = numKeys + 1;
+            this.ramAccounting = ramAccounting;
+            allocate(INITIAL_CAPACITY);
+        }
+
+        private void allocate(int capacity) {
+            ramAccounting.addBytes(
+                RamUsageEstimator.alignObjectSize((long) Long.BYTES * capacity * width)
+                + RamUsageEstimator.alignObjectSize((long) RamUsageEstimator.NUM_BYTES_OBJECT_REF * capacity)
+            );
+            keys = new long[capacity * width];
+            states = new Object[capacity][];
+            mask = capacity - 1;
+        }
+
+        void clear() {
+            if (size > 0) {
+                Arrays.fill(states, null);
+                size = 0;
+            }
+        }
+
+        int size() {
+            return size;
+        }
+
+        /**
+         * @return the slot of the key, or the free slot where it can be inserted
+         */
+        int find(long[] key) {
+            int slot = hash(key) & mask;
+            while (states[slot] != null && !equalsAt(slot, key)) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        /**
+         * @return the states in the slot or null if the slot is free
+         */
+        @Nullable
+        Object[] states(int slot) {
+            return states[slot];
+        }
+
+        /**
+         * Inserts a key in the free slot returned by {@link #find(long[])}
+         */
+        void insert(int slot, long[] key, Object[] keyStates) {
+            assert states[slot] == null : "slot must be free";
+            System.arraycopy(key, 0, keys, slot * width, width);
+            states[slot] = keyStates;
+            size++;
+            if (size > (states.length >> 1)) {
+                grow();
+            }
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            Object[][] oldStates = states;
+            allocate(oldStates.length << 1);
+            long[] key = new long[width];
+            for (int i = 0; i < oldStates.length; i++) {
+                if (oldStates[i] != null) {
+                    System.arraycopy(oldKeys, i * width, key, 0, width);
+                    int slot = find(key);
+                    System.arraycopy(key, 0, keys, slot * width, width);
+                    states[slot] = oldStates[i];
+                }
+            }
+        }
+
+        private boolean equalsAt(int slot, long[] key) {
+            return Arrays.equals(keys, slot * width, slot * width + width, key, 0, width);
+        }
+
+        private static int hash(long[] key) {
+            long h = 0;
+            for (long value : key) {
+                h = 31 * h + value;
+            }
+            // finalizer of MurmurHash3 to spread codes which differ only in the high bits
+            h ^= h >>> 33;
+            h *= 0xff51afd7ed558ccdL;
+            h ^= h >>> 33;
+            h *= 0xc4ceb9fe1a85ec53L;
+            h ^= h >>> 33;
+            return (int) h;
+        }
+    }
+
     @Nullable
     private static Reference getKeyRef(List<Symbol> toCollect, Symbol key) {
         if (key instanceof InputColumn inputCol) {
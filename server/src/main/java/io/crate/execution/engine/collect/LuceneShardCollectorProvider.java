@@ -26,6 +26,7 @@ import java.util.function.Supplier;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.apache.lucene.search.IndexSearcher;
 import org.elasticsearch.Version;
 import org.elasticsearch.client.ElasticsearchClient;
 import org.elasticsearch.cluster.service.ClusterService;
@@ -49,6 +50,7 @@ import io.crate.execution.engine.collect.collectors.OptimizeQueryForSearchAfter;
 import io.crate.execution.engine.collect.collectors.OrderedDocCollector;
 import io.crate.execution.engine.export.FileOutputFactory;
 import io.crate.execution.engine.sort.LuceneSort;
+import io.crate.execution.jobs.InstrumentedIndexSearcher;
 import io.crate.execution.jobs.NodeLimits;
 import io.crate.execution.jobs.SharedShardContext;
 import io.crate.expression.InputFactory;
@@ -74,6 +76,7 @@ public class LuceneShardCollectorProvider extends ShardCollectorProvider {
     private final DocInputFactory docInputFactory;
     private final BigArrays bigArrays;
     private final RelationName relationName;
+    private final ShardAggregationCache aggregationCache;
 
     private final LuceneReferenceResolver referenceResolver;
 
@@ -87,6 +90,7 @@ public class LuceneShardCollectorProvider extends ShardCollectorProvider {
                                         ElasticsearchClient elasticsearchClient,
                                         IndexShard indexShard,
                                         BigArrays bigArrays,
+                                        ShardAggregationCache aggregationCache,
                                         Map<String, FileOutputFactory> fileOutputFactoryMap) {
         super(
             clusterService,
@@ -112,6 +116,40 @@ public class LuceneShardCollectorProvider extends ShardCollectorProvider {
         );
         this.docInputFactory = new DocInputFactory(nodeCtx, referenceResolver);
         this.bigArrays = bigArrays;
+        this.aggregationCache = aggregationCache;
+    }
+
+    @Override
+    protected BatchIterator<Row> getCachedIterator(RoutedCollectPhase collectPhase,
+                                                   boolean requiresScroll,
+                                                   CollectTask collectTask,
+                                                   Supplier<BatchIterator<Row>> createIterator) {
+        if (requiresScroll
+                || indexShard.isClosed()
+                || !aggregationCache.isCacheable(collectPhase, nodeCtx.functions())) {
+            return createIterator.get();
+        }
+        ShardId shardId = indexShard.shardId();
+        SharedShardContext sharedShardContext = collectTask.sharedShardContexts().getOrCreateContext(shardId);
+        // Holds the searcher until the iterator acquired it too, to ensure
+        // both use the same reader. Released right away on a cache hit.
+        var searcher = sharedShardContext.acquireSearcher("aggregation-cache: " + formatSource(collectPhase));
+        try {
+            IndexSearcher indexSearcher = searcher.item();
+            if (indexSearcher instanceof InstrumentedIndexSearcher) {
+                // Profiling requires the query to run
+                return createIterator.get();
+            }
+            return aggregationCache.getOrCompute(
+                shardId,
+                collectPhase,
+                indexSearcher.getIndexReader(),
+                collectTask.getRamAccounting(),
+                createIterator
+            );
+        } finally {
+            searcher.close();
+        }
     }
 
     @Override
@@ -149,7 +187,8 @@ public class LuceneShardCollectorProvider extends ShardCollectorProvider {
             Symbols.hasColumn(collectPhase.toCollect(), SysColumns.SCORE),
             new CollectorContext(sharedShardContext.readerId(), () -> StoredRowLookup.create(shardCreatedVersion, table, indexShard.shardId().getIndexName())),
             docCtx.topLevelInputs(),
-            docCtx.expressions()
+            docCtx.expressions(),
+            collectTask::runtimeFilter
         );
     }
 
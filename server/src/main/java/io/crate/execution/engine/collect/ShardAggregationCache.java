@@ -0,0 +1,371 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.collect;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.store.AlreadyClosedException;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.CircuitBreakingException;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.index.shard.IndexEventListener;
+import org.elasticsearch.index.shard.IndexShard;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.indices.breaker.BreakerSettings;
+import org.elasticsearch.indices.breaker.CircuitBreakerService;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.VisibleForTesting;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+
+import io.crate.Streamer;
+import io.crate.data.BatchIterator;
+import io.crate.data.ForwardingBatchIterator;
+import io.crate.data.InMemoryBatchIterator;
+import io.crate.data.Row;
+import io.crate.data.SentinelRow;
+import io.crate.data.breaker.RamAccounting;
+import io.crate.execution.dsl.phases.RoutedCollectPhase;
+import io.crate.execution.dsl.projection.AggregationProjection;
+import io.crate.execution.dsl.projection.GroupProjection;
+import io.crate.execution.dsl.projection.Projection;
+import io.crate.execution.dsl.projection.Projections;
+import io.crate.execution.engine.distribution.StreamBucket;
+import io.crate.expression.symbol.Function;
+import io.crate.expression.symbol.Symbol;
+import io.crate.expression.symbol.Symbols;
+import io.crate.metadata.Functions;
+
+/**
+ * Keeps the shard level results of aggregations, so that repeated
+ * aggregations, e.g. of dashboards, only aggregate the shards which changed
+ * since the last execution. This works well with tables partitioned by time,
+ * where only the shards of the most recent partitions are written to.
+ *
+ * <p>
+ * An entry is only valid for the Lucene reader it was computed from: A
+ * refresh which makes inserts, updates or deletes visible opens a new reader
+ * and invalidates the entries of the shard. Entries are removed as soon as
+ * their reader or their shard is closed. Only collect phases whose shard
+ * projection is a single {@link GroupProjection} or
+ * {@link AggregationProjection} and which only use deterministic built-in
+ * functions are cached.
+ * </p>
+ *
+ * <p>
+ * Rows are kept in serialized form, as merging partial aggregation states
+ * mutates them. The cache is bounded by {@link #CACHE_SIZE_SETTING} and the
+ * entries are accounted in the {@value #BREAKER_NAME} circuit breaker, a
+ * child of the parent breaker limited to the size of the cache. Results are
+ * not cached if the breaker would trip.
+ * </p>
+ */
+@Singleton
+public class ShardAggregationCache implements IndexEventListener {
+
+    public static final Setting<ByteSizeValue> CACHE_SIZE_SETTING = Setting.memorySizeSetting(
+        "aggregation_cache.size", "1%", Property.NodeScope, Property.Dynamic, Property.Exposed);
+
+    public static final String BREAKER_NAME = "aggregation_cache";
+
+    private record Key(ShardId shardId, List<Symbol> toCollect, Symbol where, Projection projection) {
+    }
+
+    private record Entry(IndexReader.CacheKey readerKey, StreamBucket rows, long sizeInBytes) {
+    }
+
+    private final CircuitBreakerService breakerService;
+    private final Cache<Key, Entry> entries;
+    private final Map<IndexReader.CacheKey, Boolean> readersWithEntries = new ConcurrentHashMap<>();
+    private final LongAdder sizeInBytes = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private volatile long maxSizeInBytes;
+
+    @Inject
+    public ShardAggregationCache(Settings settings,
+                                 ClusterSettings clusterSettings,
+                                 CircuitBreakerService breakerService) {
+        this.breakerService = breakerService;
+        this.maxSizeInBytes = CACHE_SIZE_SETTING.get(settings).getBytes();
+        breakerService.registerBreaker(new BreakerSettings(BREAKER_NAME, maxSizeInBytes, CircuitBreaker.Type.MEMORY));
+        this.entries = Caffeine.newBuilder()
+            .executor(Runnable::run)
+            .maximumWeight(maxSizeInBytes)
+            .weigher((Key key, Entry entry) -> (int) Math.min(entry.sizeInBytes, Integer.MAX_VALUE))
+            .removalListener((Key key, Entry entry, RemovalCause cause) -> {
+                sizeInBytes.add(-entry.sizeInBytes);
+                breaker().addWithoutBreaking(-entry.sizeInBytes);
+            })
+            .build();
+        clusterSettings.addSettingsUpdateConsumer(CACHE_SIZE_SETTING, this::setMaxSize);
+    }
+
+    private void setMaxSize(ByteSizeValue maxSize) {
+        this.maxSizeInBytes = maxSize.getBytes();
+        // Replaces the breaker, the used bytes are taken over
+        breakerService.registerBreaker(new BreakerSettings(BREAKER_NAME, maxSizeInBytes, CircuitBreaker.Type.MEMORY));
+        entries.policy().eviction().ifPresent(eviction -> eviction.setMaximum(maxSizeInBytes));
+    }
+
+    private CircuitBreaker breaker() {
+        return breakerService.getBreaker(BREAKER_NAME);
+    }
+
+    @Override
+    public void beforeIndexShardClosed(ShardId shardId, @Nullable IndexShard indexShard, Settings indexSettings) {
+        entries.asMap().keySet().removeIf(key -> key.shardId.equals(shardId));
+    }
+
+    private void onReaderClosed(IndexReader.CacheKey readerKey) {
+        readersWithEntries.remove(readerKey);
+        entries.asMap().values().removeIf(entry -> entry.readerKey == readerKey);
+    }
+
+    /**
+     * @return true if the shard level results of the phase can be cached.
+     */
+    public boolean isCacheable(RoutedCollectPhase phase, Functions functions) {
+        if (maxSizeInBytes <= 0) {
+            return false;
+        }
+        Collection<? extends Projection> shardProjections = Projections.shardProjections(phase.projections());
+        if (shardProjections.size() != 1) {
+            return false;
+        }
+        Projection projection = shardProjections.iterator().next();
+        if (!(projection instanceof GroupProjection || projection instanceof AggregationProjection)) {
+            return false;
+        }
+        if (!isCacheable(phase.where(), functions)) {
+            return false;
+        }
+        for (Symbol symbol : phase.toCollect()) {
+            if (!isCacheable(symbol, functions)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isCacheable(Symbol symbol, Functions functions) {
+        return symbol.isDeterministic()
+            && !symbol.any(s -> s instanceof Function fn && functions.isUserDefined(fn.signature().getName()));
+    }
+
+    /**
+     * Returns the cached results of the phase if the reader of the shard didn't
+     * change since they were computed. Otherwise the results are computed and
+     * cached once they have been consumed completely.
+     *
+     * @param phase a phase for which {@link #isCacheable(RoutedCollectPhase, Functions)} is true.
+     * @param reader the reader used by the iterator created by {@code createIterator}.
+     * @param ramAccounting accounts for the rows kept while the iterator is consumed.
+     */
+    public BatchIterator<Row> getOrCompute(ShardId shardId,
+                                           RoutedCollectPhase phase,
+                                           IndexReader reader,
+                                           RamAccounting ramAccounting,
+                                           Supplier<BatchIterator<Row>> createIterator) {
+        IndexReader.CacheHelper cacheHelper = reader.getReaderCacheHelper();
+        if (cacheHelper == null) {
+            return createIterator.get();
+        }
+        IndexReader.CacheKey readerKey = cacheHelper.getKey();
+        Projection projection = Projections.shardProjections(phase.projections()).iterator().next();
+        // Resolves the lazily computed outputs before the projection is used
+        // in a key, as they are part of its equals and hashCode
+        Streamer<?>[] streamers = Symbols.streamerArray(projection.outputs());
+        Key key = new Key(shardId, phase.toCollect(), phase.where(), projection);
+        Entry entry = entries.getIfPresent(key);
+        if (entry != null) {
+            if (entry.readerKey == readerKey) {
+                hits.increment();
+                return InMemoryBatchIterator.of(entry.rows, SentinelRow.SENTINEL, false);
+            }
+            entries.asMap().remove(key, entry);
+        }
+        misses.increment();
+        var builder = new StreamBucket.Builder(streamers, new SizeTrackingRamAccounting(ramAccounting));
+        return new CapturingBatchIterator(createIterator.get(), builder, rows -> put(key, cacheHelper, rows));
+    }
+
+    private void put(Key key, IndexReader.CacheHelper cacheHelper, StreamBucket.Builder rows) {
+        IndexReader.CacheKey readerKey = cacheHelper.getKey();
+        if (readersWithEntries.putIfAbsent(readerKey, Boolean.TRUE) == null) {
+            try {
+                cacheHelper.addClosedListener(this::onReaderClosed);
+            } catch (AlreadyClosedException e) {
+                // The reader was closed while the results were consumed
+                readersWithEntries.remove(readerKey);
+                return;
+            }
+        }
+        long bytes = rows.ramBytesUsed();
+        try {
+            breaker().addEstimateBytesAndMaybeBreak(bytes, BREAKER_NAME);
+        } catch (CircuitBreakingException e) {
+            // Caching is best effort, the results were already handed out
+            return;
+        }
+        sizeInBytes.add(bytes);
+        // Released by the removal listener once the entry is evicted, replaced or invalidated
+        Entry entry = new Entry(readerKey, rows.build(), bytes);
+        entries.put(key, entry);
+        if (!readersWithEntries.containsKey(readerKey)) {
+            // The reader was closed concurrently
+            entries.asMap().remove(key, entry);
+        }
+    }
+
+    /**
+     * @return the bytes used by the cached results, they are also accounted in the {@value #BREAKER_NAME} circuit breaker.
+     */
+    public long sizeInBytes() {
+        return sizeInBytes.sum();
+    }
+
+    public long maxSizeInBytes() {
+        return maxSizeInBytes;
+    }
+
+    /**
+     * @return the number of cached shard results.
+     */
+    public long size() {
+        return entries.estimatedSize();
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    @VisibleForTesting
+    void cleanUp() {
+        entries.cleanUp();
+    }
+
+    /**
+     * Serializes the rows of the delegate while they are consumed and hands
+     * them over once the delegate is exhausted. Gives up if the rows exceed
+     * the size of the cache.
+     */
+    private final class CapturingBatchIterator extends ForwardingBatchIterator<Row> {
+
+        private final BatchIterator<Row> delegate;
+        private final Consumer<StreamBucket.Builder> onCompleted;
+
+        @Nullable
+        private StreamBucket.Builder rows;
+
+        CapturingBatchIterator(BatchIterator<Row> delegate,
+                               StreamBucket.Builder rows,
+                               Consumer<StreamBucket.Builder> onCompleted) {
+            this.delegate = delegate;
+            this.rows = rows;
+            this.onCompleted = onCompleted;
+        }
+
+        @Override
+        protected BatchIterator<Row> delegate() {
+            return delegate;
+        }
+
+        @Override
+        public void moveToStart() {
+            rows = null;
+            delegate.moveToStart();
+        }
+
+        @Override
+        public boolean moveNext() {
+            if (delegate.moveNext()) {
+                if (rows != null) {
+                    rows.add(delegate.currentElement());
+                    if (rows.ramBytesUsed() > maxSizeInBytes) {
+                        rows = null;
+                    }
+                }
+                return true;
+            }
+            if (rows != null && delegate.allLoaded()) {
+                StreamBucket.Builder completed = rows;
+                rows = null;
+                onCompleted.accept(completed);
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Accounts the rows of an entry to the operation which computes it and
+     * tracks their size, as entries are limited by the size of the cache.
+     */
+    private static final class SizeTrackingRamAccounting implements RamAccounting {
+
+        private final RamAccounting delegate;
+        private long bytes = 0;
+
+        SizeTrackingRamAccounting(RamAccounting delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void addBytes(long bytes) {
+            delegate.addBytes(bytes);
+            this.bytes += bytes;
+        }
+
+        @Override
+        public long totalBytes() {
+            return bytes;
+        }
+
+        @Override
+        public void release() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -23,6 +23,7 @@ package io.crate.execution.engine.collect;
 
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 import org.elasticsearch.client.ElasticsearchClient;
 import org.elasticsearch.cluster.service.ClusterService;
@@ -93,7 +94,9 @@ public abstract class ShardCollectorProvider {
             t -> null,
             indexShard.indexSettings().getIndexVersionCreated(),
             indexShard.shardId(),
-            fileOutputFactoryMap
+            fileOutputFactoryMap,
+            null,
+            null
         );
         this.batchIteratorFactory = new BatchIteratorFactory();
     }
@@ -108,6 +111,17 @@ public abstract class ShardCollectorProvider {
             assert collectPhase.maxRowGranularity() == RowGranularity.DOC :
                 "granularity must be DOC";
 
+            return getCachedIterator(
+                collectPhase,
+                requiresScroll,
+                collectTask,
+                () -> createIterator(collectPhase, requiresScroll, collectTask)
+            );
+        }
+
+        private BatchIterator<Row> createIterator(RoutedCollectPhase collectPhase,
+                                                  boolean requiresScroll,
+                                                  CollectTask collectTask) {
             boolean isOpenIndex = !indexShard.isClosed();
             if (isOpenIndex) {
                 BatchIterator<Row> fusedIterator = getProjectionFusedIterator(collectPhase, collectTask);
@@ -153,6 +167,17 @@ public abstract class ShardCollectorProvider {
     }
 
 
+    /**
+     * Hook to serve the results of the shard projections from a cache.
+     * By default the results are always computed using {@code createIterator}.
+     */
+    protected BatchIterator<Row> getCachedIterator(RoutedCollectPhase collectPhase,
+                                                   boolean requiresScroll,
+                                                   CollectTask collectTask,
+                                                   Supplier<BatchIterator<Row>> createIterator) {
+        return createIterator.get();
+    }
+
     /**
      * @return A BatchIterator which already applies the transformation described in the shardProjections of the collectPhase.
      *         This can be used to return a specialized BatchIterator for certain projections. If this returns null
@@ -26,6 +26,8 @@ import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.CompletionStage;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.index.LeafReaderContext;
@@ -51,6 +53,8 @@ import io.crate.expression.reference.doc.lucene.LuceneCollectorExpression;
 /**
  * BatchIterator implementation which exposes the data stored in a lucene index.
  * It supports filtering the data using a lucene {@link Query} or via {@code minScore}.
+ * Rows can additionally be filtered by a predicate which may only become available
+ * while iterating, e.g. a runtime filter of a hash join.
  * <p>
  * Row data depends on {@code inputs} and {@code expressions}. The data is unordered.
  */
@@ -65,6 +69,10 @@ public class LuceneBatchIterator implements BatchIterator<Row> {
     private final InputRow row;
     private Weight weight;
     private final Float minScore;
+    @Nullable
+    private final Supplier<? extends Predicate<Row>> rowFilterSupplier;
+    @Nullable
+    private Predicate<Row> rowFilter;
 
     private Iterator<LeafReaderContext> leavesIt;
     private LeafReaderContext currentLeaf;
@@ -79,6 +87,21 @@ public class LuceneBatchIterator implements BatchIterator<Row> {
                                CollectorContext collectorContext,
                                List<? extends Input<?>> inputs,
                                Collection<? extends LuceneCollectorExpression<?>> expressions) {
+        this(indexSearcher, query, minScore, doScores, collectorContext, inputs, expressions, null);
+    }
+
+    /**
+     * @param rowFilterSupplier supplies a filter for the rows, or null as long as none is available.
+     *                          Rows are only filtered once it is available.
+     */
+    public LuceneBatchIterator(IndexSearcher indexSearcher,
+                               Query query,
+                               @Nullable Float minScore,
+                               boolean doScores,
+                               CollectorContext collectorContext,
+                               List<? extends Input<?>> inputs,
+                               Collection<? extends LuceneCollectorExpression<?>> expressions,
+                               @Nullable Supplier<? extends Predicate<Row>> rowFilterSupplier) {
         this.indexSearcher = indexSearcher;
         this.query = query;
         this.doScores = doScores || minScore != null;
@@ -86,6 +109,7 @@ public class LuceneBatchIterator implements BatchIterator<Row> {
         this.collectorContext = collectorContext;
         this.row = new InputRow(inputs);
         this.expressions = expressions.toArray(new LuceneCollectorExpression[0]);
+        this.rowFilterSupplier = rowFilterSupplier;
         leaves = indexSearcher.getTopReaderContext().leaves();
         leavesIt = leaves.iterator();
     }
@@ -129,6 +153,9 @@ public class LuceneBatchIterator implements BatchIterator<Row> {
                     continue;
                 }
                 onDoc(doc);
+                if (filteredOut()) {
+                    continue;
+                }
                 return true;
             }
             currentDocIdSetIt = null;
@@ -137,6 +164,15 @@ public class LuceneBatchIterator implements BatchIterator<Row> {
         return false;
     }
 
+    private boolean filteredOut() {
+        if (rowFilter == null) {
+            if (rowFilterSupplier == null || (rowFilter = rowFilterSupplier.get()) == null) {
+                return false;
+            }
+        }
+        return rowFilter.test(row) == false;
+    }
+
     private boolean belowMinScore(Scorer currentScorer) throws IOException {
         return minScore != null && currentScorer.score() < minScore;
     }
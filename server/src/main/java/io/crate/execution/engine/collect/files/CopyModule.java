@@ -45,6 +45,8 @@ public class CopyModule extends AbstractModule {
         fileInputFactoryMapBinder.addBinding(LocalFsFileInputFactory.NAME).to(LocalFsFileInputFactory.class).asEagerSingleton();
         fileOutputFactoryMapBinder.addBinding(LocalFsFileOutputFactory.NAME).to(LocalFsFileOutputFactory.class).asEagerSingleton();
 
+        bind(StdStreams.class).asEagerSingleton();
+
         for (var copyPlugin : copyPlugins) {
             for (var e : copyPlugin.getFileInputFactories().entrySet()) {
                 fileInputFactoryMapBinder.addBinding(e.getKey()).toInstance(e.getValue());
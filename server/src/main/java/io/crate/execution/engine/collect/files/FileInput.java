@@ -38,6 +38,24 @@ public interface FileInput extends AutoCloseable {
 
     InputStream getStream(URI uri) throws IOException;
 
+    /**
+     * Returns a stream which starts at the given byte position of the file.
+     * Used together with {@link #size(URI)} to read large files in parts.
+     */
+    default InputStream getStream(URI uri, long position) throws IOException {
+        InputStream stream = getStream(uri);
+        stream.skipNBytes(position);
+        return stream;
+    }
+
+    /**
+     * @return the size of the file in bytes or -1 if it is unknown.
+     *         Files of unknown size are always read as a whole.
+     */
+    default long size(URI uri) throws IOException {
+        return -1;
+    }
+
     boolean isGlobbed();
 
     URI uri();
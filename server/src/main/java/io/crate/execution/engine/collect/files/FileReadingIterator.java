@@ -23,6 +23,7 @@ package io.crate.execution.engine.collect.files;
 
 import static io.crate.common.exceptions.Exceptions.rethrowUnchecked;
 
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
@@ -32,15 +33,16 @@ import java.net.SocketTimeoutException;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
-import java.util.function.Predicate;
 import java.util.zip.GZIPInputStream;
 
 import org.apache.logging.log4j.LogManager;
@@ -54,6 +56,8 @@ import org.jetbrains.annotations.VisibleForTesting;
 import io.crate.common.exceptions.Exceptions;
 import io.crate.common.unit.TimeValue;
 import io.crate.data.BatchIterator;
+import io.crate.data.breaker.RamAccounting;
+import io.crate.execution.dsl.phases.FileUriCollectPhase.InputFormat;
 
 /**
  * BatchIterator to read lines from one or more {@link URI}s.
@@ -77,6 +81,13 @@ import io.crate.data.BatchIterator;
  * {@link #currentElement()} can be used in a "off-position", before the first {@link #moveNext()} call
  * to gain early access to the cursor.
  * </p>
+ *
+ * <p>
+ * Uncompressed files larger than the split size are read in parts of split size bytes, aligned on line boundaries.
+ * The parts are distributed across all readers, which allows to import a single large file concurrently on
+ * multiple nodes and multiple threads per node. The line numbers of parts not starting at the beginning of a file
+ * are relative to the start of the part.
+ * </p>
  */
 public class FileReadingIterator implements BatchIterator<FileReadingIterator.LineCursor> {
 
@@ -84,21 +95,32 @@ public class FileReadingIterator implements BatchIterator<FileReadingIterator.Li
     @VisibleForTesting
     static final int MAX_SOCKET_TIMEOUT_RETRIES = 5;
 
-    private static final Predicate<URI> MATCH_ALL_PREDICATE = (URI input) -> true;
 
     private final Map<String, FileInputFactory> fileInputFactories;
     private final Boolean shared;
     private final int numReaders;
     private final int readerNumber;
+    private final int numLocalReaders;
+    private final int localReaderNumber;
+    private final long splitSize;
+    private final boolean readHeaderOfSplits;
     private final boolean compressed;
+    private final InputFormat inputFormat;
+    private final List<String> targetColumns;
     private final List<FileInput> fileInputs;
+    private final RamAccounting ramAccounting;
 
     private volatile Throwable killed;
 
     private Iterator<FileInput> fileInputsIterator = null;
     private FileInput currentInput = null;
-    private Iterator<URI> currentInputUriIterator = null;
+    private Iterator<FilePart> currentPartIterator = null;
+    private FilePart currentPart = null;
     private BufferedReader currentReader = null;
+    private ParquetRowReader currentRowReader = null;
+    private boolean emittedLine = false;
+    @Nullable
+    private String pendingHeader = null;
 
     @VisibleForTesting
     long watermark;
@@ -111,15 +133,25 @@ public class FileReadingIterator implements BatchIterator<FileReadingIterator.Li
         private URI uri;
         private long lineNumber;
         private String line;
+        private LinkedHashMap<String, Object> row;
         private IOException failure;
 
         public LineCursor() {
         }
 
         public LineCursor(URI uri, long lineNumber, @Nullable String line, @Nullable IOException failure) {
+            this(uri, lineNumber, line, null, failure);
+        }
+
+        public LineCursor(URI uri,
+                          long lineNumber,
+                          @Nullable String line,
+                          @Nullable LinkedHashMap<String, Object> row,
+                          @Nullable IOException failure) {
             this.uri = uri;
             this.lineNumber = lineNumber;
             this.line = line;
+            this.row = row;
             this.failure = failure;
         }
 
@@ -136,24 +168,44 @@ public class FileReadingIterator implements BatchIterator<FileReadingIterator.Li
             return line;
         }
 
+        /**
+         * The decoded values of a row of a binary file format like Parquet, null for text formats.
+         */
+        @Nullable
+        public LinkedHashMap<String, Object> row() {
+            return row;
+        }
+
         @Nullable
         public IOException failure() {
             return failure;
         }
 
+        void set(URI uri,
+                 long lineNumber,
+                 @Nullable String line,
+                 @Nullable LinkedHashMap<String, Object> row,
+                 @Nullable IOException failure) {
+            this.uri = uri;
+            this.lineNumber = lineNumber;
+            this.line = line;
+            this.row = row;
+            this.failure = failure;
+        }
+
         @VisibleForTesting
         public LineCursor copy() {
-            return new LineCursor(uri, lineNumber, line, failure);
+            return new LineCursor(uri, lineNumber, line, row, failure);
         }
 
         @Override
         public String toString() {
-            return "LineCursor{" + uri + ":" + lineNumber + ":line=" + line + ", failure=" + failure + "}";
+            return "LineCursor{" + uri + ":" + lineNumber + ":line=" + line + ", row=" + row + ", failure=" + failure + "}";
         }
 
         @Override
         public int hashCode() {
-            return Objects.hash(uri, lineNumber, line, failure);
+            return Objects.hash(uri, lineNumber, line, row, failure);
         }
 
         @Override
@@ -171,10 +223,21 @@ public class FileReadingIterator implements BatchIterator<FileReadingIterator.Li
             return Objects.equals(uri, other.uri)
                 && lineNumber == other.lineNumber
                 && Objects.equals(line, other.line)
+                && Objects.equals(row, other.row)
                 && Objects.equals(failure, other.failure);
         }
     }
 
+    /**
+     * A byte range {@code [start, end)} of a file, end is -1 if the whole file is read.
+     */
+    private record FilePart(URI uri, long start, long end) {
+
+        boolean isSplit() {
+            return end != -1;
+        }
+    }
+
     public FileReadingIterator(Collection<URI> fileUris,
                                String compression,
                                Map<String, FileInputFactory> fileInputFactories,
@@ -183,12 +246,97 @@ public class FileReadingIterator implements BatchIterator<FileReadingIterator.Li
                                int readerNumber,
                                Settings withClauseOptions,
                                ScheduledExecutorService scheduler) {
+        this(fileUris,
+             compression,
+             fileInputFactories,
+             shared,
+             numReaders,
+             readerNumber,
+             1,
+             0,
+             0L,
+             false,
+             InputFormat.JSON,
+             List.of(),
+             withClauseOptions,
+             scheduler);
+    }
+
+    /**
+     * @param numReaders number of nodes reading the URIs
+     * @param readerNumber number of the local node among the nodes reading the URIs
+     * @param numLocalReaders number of FileReadingIterators reading the URIs concurrently on the local node
+     * @param localReaderNumber number of this iterator among the local FileReadingIterators
+     * @param splitSize files larger than this are read in parts, 0 disables splitting
+     * @param readHeaderOfSplits if true, the first line of a file is emitted before the lines of a part if the
+     *                           part isn't at the beginning of the file and no other line was emitted yet.
+     *                           Required for CSV files with header.
+     * @param inputFormat PARQUET to read all files as Parquet files, otherwise only files with .parquet extension.
+     * @param targetColumns the columns to read from Parquet files, all columns if empty.
+     */
+    public FileReadingIterator(Collection<URI> fileUris,
+                               String compression,
+                               Map<String, FileInputFactory> fileInputFactories,
+                               Boolean shared,
+                               int numReaders,
+                               int readerNumber,
+                               int numLocalReaders,
+                               int localReaderNumber,
+                               long splitSize,
+                               boolean readHeaderOfSplits,
+                               InputFormat inputFormat,
+                               List<String> targetColumns,
+                               Settings withClauseOptions,
+                               ScheduledExecutorService scheduler) {
+        this(fileUris,
+             compression,
+             fileInputFactories,
+             shared,
+             numReaders,
+             readerNumber,
+             numLocalReaders,
+             localReaderNumber,
+             splitSize,
+             readHeaderOfSplits,
+             inputFormat,
+             targetColumns,
+             withClauseOptions,
+             scheduler,
+             RamAccounting.NO_ACCOUNTING);
+    }
+
+    /**
+     * @param ramAccounting accounts the decoded row groups of Parquet files.
+     *                      Must not be shared with iterators consumed by other threads.
+     */
+    public FileReadingIterator(Collection<URI> fileUris,
+                               String compression,
+                               Map<String, FileInputFactory> fileInputFactories,
+                               Boolean shared,
+                               int numReaders,
+                               int readerNumber,
+                               int numLocalReaders,
+                               int localReaderNumber,
+                               long splitSize,
+                               boolean readHeaderOfSplits,
+                               InputFormat inputFormat,
+                               List<String> targetColumns,
+                               Settings withClauseOptions,
+                               ScheduledExecutorService scheduler,
+                               RamAccounting ramAccounting) {
+        this.ramAccounting = ramAccounting;
         this.compressed = compression != null && compression.equalsIgnoreCase("gzip");
         this.fileInputFactories = fileInputFactories;
         this.cursor = new LineCursor();
         this.shared = shared;
         this.numReaders = numReaders;
         this.readerNumber = readerNumber;
+        this.numLocalReaders = numLocalReaders;
+        this.localReaderNumber = localReaderNumber;
+        this.splitSize = compressed ? 0L : splitSize;
+        this.readHeaderOfSplits = readHeaderOfSplits;
+        this.inputFormat = inputFormat;
+        this.targetColumns = targetColumns;
         this.scheduler = scheduler;
         this.backOffPolicy = BackoffPolicy.exponentialBackoff(TimeValue.ZERO, MAX_SOCKET_TIMEOUT_RETRIES).iterator();
 
@@ -214,6 +362,7 @@ public class FileReadingIterator implements BatchIterator<FileReadingIterator.Li
         raiseIfKilled();
         reset();
         watermark = 0;
+        emittedLine = false;
         fileInputsIterator = fileInputs.iterator();
     }
 
@@ -221,7 +370,14 @@ public class FileReadingIterator implements BatchIterator<FileReadingIterator.Li
     public boolean moveNext() {
         raiseIfKilled();
         try {
-            if (currentReader != null) {
+            if (pendingHeader != null) {
+                cursor.line = pendingHeader;
+                cursor.row = null;
+                cursor.failure = null;
+                pendingHeader = null;
+                emittedLine = true;
+                return true;
+            } else if (currentReader != null) {
                 String line;
                 try {
                     line = getLine(currentReader);
@@ -236,10 +392,24 @@ public class FileReadingIterator implements BatchIterator<FileReadingIterator.Li
                     return moveNext();
                 }
                 cursor.line = line;
+                cursor.row = null;
+                cursor.failure = null;
+                emittedLine = true;
+                return true;
+            } else if (currentRowReader != null) {
+                LinkedHashMap<String, Object> row = currentRowReader.next();
+                if (row == null) {
+                    closeReader();
+                    return moveNext();
+                }
+                cursor.lineNumber++;
+                cursor.line = null;
+                cursor.row = row;
                 cursor.failure = null;
+                emittedLine = true;
                 return true;
-            } else if (currentInputUriIterator != null && currentInputUriIterator.hasNext()) {
-                advanceToNextUri(currentInput);
+            } else if (currentPartIterator != null && currentPartIterator.hasNext()) {
+                advanceToNextPart(currentInput);
                 return moveNext();
             } else if (fileInputsIterator != null && fileInputsIterator.hasNext()) {
                 advanceToNextFileInput();
@@ -249,6 +419,7 @@ public class FileReadingIterator implements BatchIterator<FileReadingIterator.Li
                 return false;
             }
         } catch (IOException e) {
+            cursor.row = null;
             cursor.failure = e;
             closeReader();
             // If IOError happens on file opening, let consumers collect the error
@@ -260,41 +431,107 @@ public class FileReadingIterator implements BatchIterator<FileReadingIterator.Li
         }
     }
 
-    private void advanceToNextUri(FileInput fileInput) throws IOException {
+    private void advanceToNextPart(FileInput fileInput) throws IOException {
         watermark = 0;
-        createReader(fileInput, currentInputUriIterator.next());
+        currentPart = currentPartIterator.next();
+        createReader(fileInput, currentPart);
     }
 
     private void advanceToNextFileInput() throws IOException {
         currentInput = fileInputsIterator.next();
-        List<URI> uris = currentInput.expandUri().stream().filter(this::shouldBeReadByCurrentNode).toList();
-        if (uris.size() > 0) {
-            currentInputUriIterator = uris.iterator();
-            advanceToNextUri(currentInput);
-        } else if (currentInput.isGlobbed()) {
+        List<URI> uris = currentInput.expandUri();
+        List<FilePart> parts = new ArrayList<>();
+        for (URI uri : uris) {
+            addPartsToReadByCurrentReader(uri, parts);
+        }
+        if (parts.size() > 0) {
+            currentPartIterator = parts.iterator();
+            advanceToNextPart(currentInput);
+        } else if (currentInput.isGlobbed() && localReaderNumber == 0 && (uris.isEmpty() || numLocalReaders == 1)) {
             URI uri = currentInput.uri();
             cursor.uri = uri;
             throw new IOException("Cannot find any URI matching: " + uri.toString());
         }
     }
 
-    private boolean shouldBeReadByCurrentNode(URI uri) {
+    private void addPartsToReadByCurrentReader(URI uri, List<FilePart> parts) {
         boolean sharedStorage = Objects.requireNonNullElse(shared, currentInput.sharedStorageDefault());
-        if (sharedStorage) {
-            return moduloPredicateImpl(uri, this.readerNumber, this.numReaders);
-        } else {
-            return MATCH_ALL_PREDICATE.test(uri);
+        int hash = uri.hashCode();
+        long uriHash = hash == Integer.MIN_VALUE ? 0 : Math.abs(hash); // Math.abs(Integer.MIN_VALUE) == Integer.MIN_VALUE
+        long size = splitSize > 0 && !isParquet(uri) ? sizeOrUnknown(uri) : -1;
+        if (size > splitSize) {
+            long numParts = (size + splitSize - 1) / splitSize;
+            for (long i = 0; i < numParts; i++) {
+                // Assign consecutive parts of a file to different readers
+                if (isReadByCurrentReader(uriHash + i, sharedStorage)) {
+                    parts.add(new FilePart(uri, i * splitSize, Math.min(size, (i + 1) * splitSize)));
+                }
+            }
+        } else if (isReadByCurrentReader(uriHash, sharedStorage)) {
+            parts.add(new FilePart(uri, 0, -1));
         }
     }
 
-    private void createReader(FileInput fileInput, URI uri) throws IOException {
+    /**
+     * A file or part is first assigned to a node and then to one of the local readers of that node.
+     * The number of local readers depends on the processors of a node and must not affect the assignment to nodes.
+     */
+    private boolean isReadByCurrentReader(long hash, boolean sharedStorage) {
+        int nodes = sharedStorage ? numReaders : 1;
+        int node = sharedStorage ? readerNumber : 0;
+        return hash % nodes == node && (hash / nodes) % numLocalReaders == localReaderNumber;
+    }
+
+    private long sizeOrUnknown(URI uri) {
+        try {
+            return currentInput.size(uri);
+        } catch (IOException e) {
+            // Read as whole, failures to read the file are reported when opening it
+            return -1;
+        }
+    }
+
+    private boolean isParquet(URI uri) {
+        if (inputFormat == InputFormat.PARQUET) {
+            return true;
+        }
+        String path = uri.getPath();
+        return path != null && path.endsWith(".parquet");
+    }
+
+    private void createReader(FileInput fileInput, FilePart part) throws IOException {
+        URI uri = part.uri();
         cursor.uri = uri;
         cursor.lineNumber = 0;
-        InputStream stream = fileInput.getStream(uri);
+        if (isParquet(uri)) {
+            // Parquet files are compressed internally and their rows are exposed as decoded values
+            currentRowReader = new ParquetRowReader(fileInput, uri, targetColumns, ramAccounting);
+            return;
+        }
+        InputStream stream;
+        if (part.isSplit()) {
+            if (part.start() > 0 && readHeaderOfSplits && !emittedLine) {
+                try (BufferedReader headerReader = createBufferedReader(fileInput.getStream(uri))) {
+                    pendingHeader = headerReader.readLine();
+                }
+            }
+            long position = part.start() == 0 ? 0 : part.start() - 1;
+            stream = new LineAlignedInputStream(
+                new BufferedInputStream(fileInput.getStream(uri, position)),
+                part.start(),
+                part.end()
+            );
+        } else {
+            stream = fileInput.getStream(uri);
+        }
         currentReader = createBufferedReader(stream);
     }
 
     private void closeReader() {
+        if (currentRowReader != null) {
+            currentRowReader.close();
+            currentRowReader = null;
+        }
         if (currentReader != null) {
             try {
                 currentReader.close();
@@ -324,7 +561,7 @@ public class FileReadingIterator implements BatchIterator<FileReadingIterator.Li
             if (backOffPolicy.hasNext()) {
                 watermark = watermark == 0 ? cursor.lineNumber + 1 : watermark;
                 closeReader();
-                createReader(currentInput, cursor.uri);
+                createReader(currentInput, currentPart);
             } else {
                 URI uri = currentInput.uri();
                 LOGGER.error("Timeout during COPY FROM '" + uri.toString() +
@@ -351,7 +588,9 @@ public class FileReadingIterator implements BatchIterator<FileReadingIterator.Li
 
     private void reset() {
         fileInputsIterator = null;
-        currentInputUriIterator = null;
+        currentPartIterator = null;
+        currentPart = null;
+        pendingHeader = null;
         if (currentInput != null) {
             currentInput.close();
         }
@@ -425,15 +664,6 @@ public class FileReadingIterator implements BatchIterator<FileReadingIterator.Li
         return reader;
     }
 
-    @VisibleForTesting
-    public static boolean moduloPredicateImpl(URI input, int readerNumber, int numReaders) {
-        int hash = input.hashCode();
-        if (hash == Integer.MIN_VALUE) {
-            hash = 0; // Math.abs(Integer.MIN_VALUE) == Integer.MIN_VALUE
-        }
-        return Math.abs(hash) % numReaders == readerNumber;
-    }
-
     private void raiseIfKilled() {
         if (killed != null) {
             Exceptions.rethrowUnchecked(killed);
@@ -0,0 +1,143 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.collect.files;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Limits a stream to the lines starting within the byte range {@code [start, end)} of a file.
+ *
+ * <p>
+ * The underlying stream must be positioned at {@code start - 1} (or at 0 if start is 0).
+ * Bytes up to and including the first newline are skipped, unless the range starts at the beginning of the file,
+ * and the line which crosses {@code end} is read until its newline.
+ * This way adjacent ranges of a file return every line exactly once.
+ * </p>
+ */
+final class LineAlignedInputStream extends FilterInputStream {
+
+    private static final int SKIP_BUFFER_SIZE = 8192;
+
+    private final long end;
+
+    /**
+     * Position of the next byte returned by the stream
+     */
+    private long position;
+    private boolean skippedPartialLine;
+    private boolean atLineStart;
+    private boolean eof = false;
+
+    LineAlignedInputStream(InputStream in, long start, long end) {
+        super(in);
+        assert start >= 0 && start <= end : "start must be positive and not after end";
+        this.end = end;
+        this.position = start == 0 ? 0 : start - 1;
+        this.skippedPartialLine = start == 0;
+        this.atLineStart = start == 0;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] b = new byte[1];
+        int read = read(b, 0, 1);
+        return read == -1 ? -1 : b[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!skippedPartialLine) {
+            skipPartialLine();
+        }
+        if (eof || (atLineStart && position >= end)) {
+            eof = true;
+            return -1;
+        }
+        int read = in.read(b, off, len);
+        if (read == -1) {
+            eof = true;
+            return -1;
+        }
+        // Stop after the first newline which ends at or beyond `end`
+        int firstCandidate = (int) Math.max(0, Math.min(read, end - 1 - position));
+        for (int i = firstCandidate; i < read; i++) {
+            if (b[off + i] == '\n') {
+                position += i + 1;
+                atLineStart = true;
+                eof = true;
+                return i + 1;
+            }
+        }
+        position += read;
+        atLineStart = b[off + read - 1] == '\n';
+        return read;
+    }
+
+    private void skipPartialLine() throws IOException {
+        int b;
+        while ((b = in.read()) != -1) {
+            position++;
+            if (b == '\n') {
+                skippedPartialLine = true;
+                atLineStart = true;
+                return;
+            }
+        }
+        skippedPartialLine = true;
+        eof = true;
+    }
+
+    /**
+     * Skips by reading and discarding the bytes, the underlying stream can't skip without losing track of the lines.
+     */
+    @Override
+    public long skip(long n) throws IOException {
+        if (n <= 0) {
+            return 0;
+        }
+        byte[] discard = new byte[(int) Math.min(SKIP_BUFFER_SIZE, n)];
+        long remaining = n;
+        while (remaining > 0) {
+            int read = read(discard, 0, (int) Math.min(discard.length, remaining));
+            if (read == -1) {
+                break;
+            }
+            remaining -= read;
+        }
+        return n - remaining;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return 0;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.collect.files;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import org.elasticsearch.common.xcontent.DeprecationHandler;
+import org.elasticsearch.common.xcontent.NamedXContentRegistry;
+import org.elasticsearch.common.xcontent.XContentParser;
+import org.elasticsearch.common.xcontent.json.JsonXContent;
+import org.jetbrains.annotations.Nullable;
+
+import io.crate.data.breaker.RamAccounting;
+import io.crate.execution.engine.parquet.ParquetReader;
+
+/**
+ * Reads the rows of a Parquet file as maps from column name to value, so they
+ * can be processed like the parsed lines of a JSON file without serializing them.
+ */
+final class ParquetRowReader {
+
+    private final ParquetReader reader;
+    private final List<String> columnNames;
+
+    /**
+     * @param columns the columns to read, all columns if empty.
+     * @param ramAccounting accounts the decoded row group, released by {@link #close()}.
+     * @throws IOException if the file input doesn't support random access, which
+     *                     is required to read the footer and the column chunks.
+     */
+    ParquetRowReader(FileInput fileInput, URI uri, List<String> columns, RamAccounting ramAccounting) throws IOException {
+        this.reader = new ParquetReader(source(fileInput, uri), columns.isEmpty() ? null : columns, ramAccounting);
+        this.columnNames = reader.columnNames();
+    }
+
+    private static ParquetReader.Source source(FileInput fileInput, URI uri) throws IOException {
+        long size = fileInput.size(uri);
+        if (size < 0) {
+            throw new IOException(
+                "Cannot read parquet file '" + uri + "', the file size is unknown and random access is not supported");
+        }
+        return new ParquetReader.Source() {
+
+            @Override
+            public long size() {
+                return size;
+            }
+
+            @Override
+            public byte[] read(long position, int length) throws IOException {
+                try (InputStream stream = fileInput.getStream(uri, position)) {
+                    byte[] result = stream.readNBytes(length);
+                    if (result.length != length) {
+                        throw new IOException("Unexpected end of parquet file " + uri);
+                    }
+                    return result;
+                }
+            }
+        };
+    }
+
+    /**
+     * @return the values of the next row by column name, null if all rows were read.
+     */
+    @Nullable
+    LinkedHashMap<String, Object> next() throws IOException {
+        if (!reader.next()) {
+            return null;
+        }
+        LinkedHashMap<String, Object> row = LinkedHashMap.newLinkedHashMap(columnNames.size());
+        for (int i = 0; i < columnNames.size(); i++) {
+            Object value = reader.get(i);
+            row.put(columnNames.get(i), value instanceof byte[] json ? parseJson(json) : value);
+        }
+        return row;
+    }
+
+    void close() {
+        reader.close();
+    }
+
+    @Nullable
+    private static Object parseJson(byte[] json) throws IOException {
+        try (XContentParser parser = JsonXContent.JSON_XCONTENT.createParser(
+                NamedXContentRegistry.EMPTY, DeprecationHandler.THROW_UNSUPPORTED_OPERATION, json)) {
+            return switch (parser.nextToken()) {
+                case START_OBJECT -> parser.mapOrdered();
+                case START_ARRAY -> parser.list();
+                case VALUE_NULL -> null;
+                default -> parser.objectText();
+            };
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.collect.files;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import org.apache.lucene.util.RamUsageEstimator;
+import org.jetbrains.annotations.NotNull;
+
+import io.crate.data.BatchIterator;
+import io.crate.data.breaker.RamAccounting;
+import io.crate.execution.engine.collect.files.FileReadingIterator.LineCursor;
+
+/**
+ * BatchIterator which reads up to {@code batchSize} lines of the source within {@link #loadNextBatch()}.
+ *
+ * <p>
+ * Moves the IO of reading the lines into {@link #loadNextBatch()}, which allows to read multiple sources
+ * concurrently using {@link io.crate.data.CompositeBatchIterator#asyncComposite}.
+ * The memory of the buffered lines is accounted in the given {@link RamAccounting} until the next batch is loaded.
+ * </p>
+ */
+public final class PrefetchingLineIterator implements BatchIterator<LineCursor> {
+
+    private static final long LINE_CURSOR_SIZE = RamUsageEstimator.shallowSizeOfInstance(LineCursor.class);
+
+    private final BatchIterator<LineCursor> source;
+    private final int batchSize;
+    private final List<LineCursor> buffer;
+    private final RamAccounting ramAccounting;
+    private final LineCursor cursor = new LineCursor();
+
+    private int position = 0;
+    private boolean sourceExhausted = false;
+    private long bufferedBytes = 0;
+
+    public PrefetchingLineIterator(BatchIterator<LineCursor> source, int batchSize, RamAccounting ramAccounting) {
+        this.source = source;
+        this.batchSize = batchSize;
+        this.buffer = new ArrayList<>(batchSize);
+        this.ramAccounting = ramAccounting;
+    }
+
+    @Override
+    public LineCursor currentElement() {
+        return cursor;
+    }
+
+    @Override
+    public void moveToStart() {
+        source.moveToStart();
+        clearBuffer();
+        position = 0;
+        sourceExhausted = false;
+    }
+
+    @Override
+    public boolean moveNext() {
+        if (position < buffer.size()) {
+            LineCursor next = buffer.get(position);
+            cursor.set(next.uri(), next.lineNumber(), next.line(), next.row(), next.failure());
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void close() {
+        clearBuffer();
+        source.close();
+    }
+
+    @Override
+    public CompletionStage<?> loadNextBatch() throws Exception {
+        if (sourceExhausted) {
+            throw new IllegalStateException("BatchIterator already fully loaded");
+        }
+        clearBuffer();
+        position = 0;
+        while (buffer.size() < batchSize) {
+            if (source.moveNext()) {
+                LineCursor line = source.currentElement().copy();
+                long bytes = ramBytesUsed(line);
+                ramAccounting.addBytes(bytes);
+                bufferedBytes += bytes;
+                buffer.add(line);
+            } else if (source.allLoaded()) {
+                sourceExhausted = true;
+                break;
+            } else {
+                return source.loadNextBatch();
+            }
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    private void clearBuffer() {
+        buffer.clear();
+        if (bufferedBytes != 0) {
+            ramAccounting.addBytes(-bufferedBytes);
+            bufferedBytes = 0;
+        }
+    }
+
+    private static long ramBytesUsed(LineCursor line) {
+        long bytes = LINE_CURSOR_SIZE;
+        if (line.line() != null) {
+            bytes += RamUsageEstimator.sizeOf(line.line());
+        }
+        if (line.row() != null) {
+            bytes += RamUsageEstimator.sizeOfMap(line.row());
+        }
+        return bytes;
+    }
+
+    @Override
+    public boolean allLoaded() {
+        return sourceExhausted;
+    }
+
+    @Override
+    public void kill(@NotNull Throwable throwable) {
+        source.kill(throwable);
+    }
+
+    @Override
+    public boolean hasLazyResultSet() {
+        return true;
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.collect.files;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.zip.GZIPOutputStream;
+
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.inject.Singleton;
+import org.jetbrains.annotations.VisibleForTesting;
+
+import io.crate.common.concurrent.Killable;
+import io.crate.exceptions.JobKilledException;
+import io.crate.execution.dsl.projection.WriterProjection;
+import io.crate.execution.engine.export.FileOutput;
+import io.crate.execution.jobs.TasksService;
+import io.crate.execution.jobs.kill.KillAllListener;
+
+/**
+ * Holds the client streams of running {@code COPY ... FROM STDIN} and {@code COPY ... TO STDOUT} statements
+ * by job id.
+ *
+ * <p>
+ * The streams are registered on the handler node before the job is launched and are referenced
+ * within the job via {@link #stdinUri(UUID)} or {@link #stdoutUri(UUID)}.
+ * Killing a job releases writers blocked on the client connection if the stream is {@link Killable}.
+ * </p>
+ */
+@Singleton
+public class StdStreams implements KillAllListener {
+
+    public static final String STDIN_SCHEME = "stdin";
+    public static final String STDOUT_SCHEME = "stdout";
+
+    private final Map<UUID, StdinIterator> stdins = new ConcurrentHashMap<>();
+    private final Map<UUID, OutputStream> stdouts = new ConcurrentHashMap<>();
+
+    @Inject
+    public StdStreams(TasksService tasksService) {
+        tasksService.addListener(this);
+    }
+
+    @VisibleForTesting
+    public StdStreams() {
+    }
+
+    public static String stdinUri(UUID jobId) {
+        return STDIN_SCHEME + ":///" + jobId;
+    }
+
+    public static String stdoutUri(UUID jobId) {
+        return STDOUT_SCHEME + ":///" + jobId;
+    }
+
+    /**
+     * Fails if a user supplied uri uses one of the schemes which are reserved for the client streams.
+     * These uris are only created by the planner for {@code COPY ... FROM STDIN} and {@code COPY ... TO STDOUT}.
+     */
+    public static void ensureNotReserved(String uri) {
+        String lowerCaseUri = uri.toLowerCase(Locale.ENGLISH);
+        if (lowerCaseUri.startsWith(STDIN_SCHEME + ":") || lowerCaseUri.startsWith(STDOUT_SCHEME + ":")) {
+            throw new IllegalArgumentException(String.format(
+                Locale.ENGLISH,
+                "Invalid uri '%s'. The %s and %s schemes are reserved, use COPY FROM STDIN or COPY TO STDOUT instead",
+                uri,
+                STDIN_SCHEME,
+                STDOUT_SCHEME
+            ));
+        }
+    }
+
+    public void registerStdin(UUID jobId, StdinIterator stdin) {
+        stdins.put(jobId, stdin);
+    }
+
+    public void registerStdout(UUID jobId, OutputStream stdout) {
+        stdouts.put(jobId, stdout);
+    }
+
+    public void remove(UUID jobId) {
+        stdins.remove(jobId);
+        stdouts.remove(jobId);
+    }
+
+    /**
+     * @param jobId the job reading from the uri. Streams can only be used by the job they were registered for.
+     */
+    public StdinIterator stdin(UUID jobId, URI uri) {
+        StdinIterator stdin = jobId.equals(jobIdFromUri(uri)) ? stdins.get(jobId) : null;
+        if (stdin == null) {
+            throw new IllegalStateException("No client connection available to read data from for " + uri);
+        }
+        return stdin;
+    }
+
+    /**
+     * @param jobId the job writing to the uri. Streams can only be used by the job they were registered for.
+     */
+    public FileOutput stdout(UUID jobId, URI uri) {
+        OutputStream stdout = jobId.equals(jobIdFromUri(uri)) ? stdouts.get(jobId) : null;
+        if (stdout == null) {
+            throw new IllegalStateException("No client connection available to write data to for " + uri);
+        }
+        return new FileOutput() {
+
+            @Override
+            public OutputStream acquireOutputStream(Executor executor,
+                                                    WriterProjection.CompressionType compressionType) throws IOException {
+                return compressionType == null ? stdout : new GZIPOutputStream(stdout);
+            }
+        };
+    }
+
+    @Override
+    public void killAllJobs() {
+        for (OutputStream stdout : stdouts.values()) {
+            kill(stdout);
+        }
+    }
+
+    @Override
+    public void killJob(UUID jobId) {
+        OutputStream stdout = stdouts.get(jobId);
+        if (stdout != null) {
+            kill(stdout);
+        }
+    }
+
+    private static void kill(OutputStream stdout) {
+        if (stdout instanceof Killable killable) {
+            killable.kill(JobKilledException.of(null));
+        }
+    }
+
+    private static UUID jobIdFromUri(URI uri) {
+        try {
+            return UUID.fromString(uri.getPath().substring(1));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid " + uri.getScheme() + " uri: " + uri, e);
+        }
+    }
+}
@@ -0,0 +1,279 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.collect.files;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import io.crate.common.exceptions.Exceptions;
+import io.crate.data.BatchIterator;
+import io.crate.execution.engine.collect.files.FileReadingIterator.LineCursor;
+
+/**
+ * BatchIterator over the lines a client sends via {@code COPY ... FROM STDIN}.
+ *
+ * <p>
+ * The data is pushed by the network layer using {@link #onData(byte[])}, {@link #onDone()} and
+ * {@link #onFail(String)}. The iterator never blocks: If no complete line is available {@link #moveNext()}
+ * returns false and {@link #loadNextBatch()} completes once more data arrived.
+ * </p>
+ *
+ * <p>
+ * Flow control: If more than {@link #PAUSE_READING_BYTES} are buffered, reading from the client is paused
+ * and only resumed once the buffer drained below {@link #RESUME_READING_BYTES}.
+ * </p>
+ */
+public final class StdinIterator implements BatchIterator<LineCursor> {
+
+    static final int PAUSE_READING_BYTES = 4 * 1024 * 1024;
+    static final int RESUME_READING_BYTES = 1024 * 1024;
+
+    private static final URI STDIN_URI = URI.create(StdStreams.STDIN_SCHEME + ":///");
+    private static final String END_OF_DATA_MARKER = "\\.";
+
+    private final Consumer<Boolean> setAutoRead;
+    private final LineCursor cursor = new LineCursor();
+    private final ArrayDeque<byte[]> chunks = new ArrayDeque<>();
+
+    private int chunkPos = 0;
+    private long bufferedBytes = 0;
+    private byte[] lineBuffer = new byte[256];
+    private int lineLength = 0;
+    private long lineNumber = 0;
+
+    private boolean done = false;
+    private boolean paused = false;
+    private boolean dataAdded = false;
+    @Nullable
+    private Throwable failure;
+    @Nullable
+    private CompletableFuture<Void> pendingLoad;
+
+    /**
+     * @param setAutoRead used to pause (false) or resume (true) reading data from the client.
+     */
+    public StdinIterator(Consumer<Boolean> setAutoRead) {
+        this.setAutoRead = setAutoRead;
+    }
+
+    public void onData(byte[] data) {
+        boolean pause;
+        CompletableFuture<Void> toComplete;
+        synchronized (this) {
+            if (done || failure != null) {
+                return;
+            }
+            chunks.add(data);
+            bufferedBytes += data.length;
+            dataAdded = true;
+            pause = !paused && bufferedBytes > PAUSE_READING_BYTES;
+            if (pause) {
+                paused = true;
+            }
+            toComplete = pendingLoad;
+            pendingLoad = null;
+        }
+        if (pause) {
+            setAutoRead.accept(false);
+        }
+        if (toComplete != null) {
+            toComplete.complete(null);
+        }
+    }
+
+    public void onDone() {
+        CompletableFuture<Void> toComplete;
+        synchronized (this) {
+            done = true;
+            toComplete = pendingLoad;
+            pendingLoad = null;
+        }
+        if (toComplete != null) {
+            toComplete.complete(null);
+        }
+    }
+
+    public void onFail(String message) {
+        fail(new IllegalStateException("COPY from stdin failed: " + message));
+    }
+
+    private void fail(Throwable t) {
+        CompletableFuture<Void> toComplete;
+        boolean resume;
+        synchronized (this) {
+            if (failure == null) {
+                failure = t;
+            }
+            chunks.clear();
+            bufferedBytes = 0;
+            resume = paused;
+            paused = false;
+            toComplete = pendingLoad;
+            pendingLoad = null;
+        }
+        // Keep reading, the protocol handler drops any further data of the client
+        if (resume) {
+            setAutoRead.accept(true);
+        }
+        if (toComplete != null) {
+            toComplete.completeExceptionally(t);
+        }
+    }
+
+    @Override
+    public LineCursor currentElement() {
+        return cursor;
+    }
+
+    @Override
+    public void moveToStart() {
+        throw new UnsupportedOperationException("Cannot move to the start of data received via STDIN");
+    }
+
+    @Override
+    public boolean moveNext() {
+        boolean resume = false;
+        try {
+            synchronized (this) {
+                raiseIfFailed();
+                dataAdded = false;
+                while (true) {
+                    // readLine() consumes all chunks if there is no newline,
+                    // once done, the remaining bytes are the last line without a trailing newline.
+                    if (!readLine() && !(done && lineLength > 0)) {
+                        return false;
+                    }
+                    lineNumber++;
+                    String line = currentLine();
+                    if (line.isEmpty() || line.equals(END_OF_DATA_MARKER)) {
+                        continue;
+                    }
+                    cursor.set(STDIN_URI, lineNumber, line, null);
+                    return true;
+                }
+            }
+        } finally {
+            synchronized (this) {
+                if (paused && bufferedBytes < RESUME_READING_BYTES) {
+                    paused = false;
+                    resume = true;
+                }
+            }
+            if (resume) {
+                setAutoRead.accept(true);
+            }
+        }
+    }
+
+    /**
+     * Moves bytes from the received chunks into the line buffer until a newline is found.
+     *
+     * @return true if a complete line is in the line buffer.
+     */
+    private boolean readLine() {
+        byte[] chunk;
+        while ((chunk = chunks.peek()) != null) {
+            int start = chunkPos;
+            int end = start;
+            while (end < chunk.length && chunk[end] != '\n') {
+                end++;
+            }
+            appendToLine(chunk, start, end - start);
+            boolean foundNewline = end < chunk.length;
+            chunkPos = foundNewline ? end + 1 : end;
+            bufferedBytes -= chunkPos - start;
+            if (chunkPos == chunk.length) {
+                chunks.poll();
+                chunkPos = 0;
+            }
+            if (foundNewline) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void appendToLine(byte[] bytes, int offset, int length) {
+        if (lineLength + length > lineBuffer.length) {
+            lineBuffer = Arrays.copyOf(lineBuffer, Math.max(lineBuffer.length * 2, lineLength + length));
+        }
+        System.arraycopy(bytes, offset, lineBuffer, lineLength, length);
+        lineLength += length;
+    }
+
+    private String currentLine() {
+        int length = lineLength;
+        if (length > 0 && lineBuffer[length - 1] == '\r') {
+            length--;
+        }
+        lineLength = 0;
+        return new String(lineBuffer, 0, length, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() {
+        fail(BatchIterator.CLOSED);
+    }
+
+    @Override
+    public synchronized CompletableFuture<?> loadNextBatch() throws Exception {
+        raiseIfFailed();
+        if (allLoaded()) {
+            throw new IllegalStateException("All batches already loaded");
+        }
+        if (done || dataAdded) {
+            return CompletableFuture.completedFuture(null);
+        }
+        if (pendingLoad == null) {
+            pendingLoad = new CompletableFuture<>();
+        }
+        return pendingLoad;
+    }
+
+    @Override
+    public synchronized boolean allLoaded() {
+        return done && chunks.isEmpty() && lineLength == 0;
+    }
+
+    @Override
+    public void kill(@NotNull Throwable throwable) {
+        fail(throwable);
+    }
+
+    @Override
+    public boolean hasLazyResultSet() {
+        return true;
+    }
+
+    private void raiseIfFailed() {
+        if (failure != null) {
+            Exceptions.rethrowUnchecked(failure);
+        }
+    }
+}
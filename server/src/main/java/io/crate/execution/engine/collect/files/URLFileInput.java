@@ -23,6 +23,7 @@ package io.crate.execution.engine.collect.files;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.HttpURLConnection;
 import java.net.URI;
 import java.net.URL;
 import java.util.Collections;
@@ -59,6 +60,48 @@ class URLFileInput implements FileInput {
         return url.openStream();
     }
 
+    /**
+     * Uses a HTTP range request if the server supports it, otherwise the skipped bytes are read and discarded.
+     */
+    @Override
+    public InputStream getStream(URI uri, long position) throws IOException {
+        if (position == 0 || !isHttp(uri)) {
+            return FileInput.super.getStream(uri, position);
+        }
+        HttpURLConnection connection = (HttpURLConnection) uri.toURL().openConnection();
+        connection.setRequestProperty("Range", "bytes=" + position + "-");
+        InputStream stream = connection.getInputStream();
+        if (connection.getResponseCode() != HttpURLConnection.HTTP_PARTIAL) {
+            stream.skipNBytes(position);
+        }
+        return stream;
+    }
+
+    /**
+     * Returns the content length of HTTP resources which support range requests, -1 otherwise.
+     */
+    @Override
+    public long size(URI uri) throws IOException {
+        if (!isHttp(uri)) {
+            return -1;
+        }
+        HttpURLConnection connection = (HttpURLConnection) uri.toURL().openConnection();
+        try {
+            connection.setRequestMethod("HEAD");
+            if (connection.getResponseCode() != HttpURLConnection.HTTP_OK
+                || !"bytes".equalsIgnoreCase(connection.getHeaderField("Accept-Ranges"))) {
+                return -1;
+            }
+            return connection.getContentLengthLong();
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private static boolean isHttp(URI uri) {
+        return "http".equals(uri.getScheme()) || "https".equals(uri.getScheme());
+    }
+
     @Override
     public boolean sharedStorageDefault() {
         return true;
@@ -21,19 +21,27 @@
 
 package io.crate.execution.engine.collect.sources;
 
+import static io.crate.execution.support.ThreadPools.numIdleThreads;
 import static java.util.Objects.requireNonNull;
 
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
 
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.util.concurrent.EsExecutors;
 import org.elasticsearch.threadpool.ThreadPool;
 
 import io.crate.analyze.AnalyzedCopyFrom;
@@ -41,18 +49,25 @@ import io.crate.analyze.CopyFromParserProperties;
 import io.crate.analyze.SymbolEvaluator;
 import org.jetbrains.annotations.VisibleForTesting;
 import io.crate.data.BatchIterator;
+import io.crate.data.CompositeBatchIterator;
 import io.crate.data.Row;
 import io.crate.data.SkippingBatchIterator;
+import io.crate.data.breaker.RamAccounting;
 import io.crate.exceptions.UnauthorizedException;
 import io.crate.execution.dsl.phases.CollectPhase;
 import io.crate.execution.dsl.phases.FileUriCollectPhase;
+import io.crate.execution.dsl.phases.FileUriCollectPhase.InputFormat;
 import io.crate.execution.engine.collect.CollectTask;
 import io.crate.execution.engine.collect.files.FileInputFactory;
 import io.crate.execution.engine.collect.files.FileReadingIterator;
+import io.crate.execution.engine.collect.files.FileReadingIterator.LineCursor;
 import io.crate.execution.engine.collect.files.LineCollectorExpression;
 import io.crate.execution.engine.collect.files.LineProcessor;
+import io.crate.execution.engine.collect.files.PrefetchingLineIterator;
+import io.crate.execution.engine.collect.files.StdStreams;
 import io.crate.expression.InputFactory;
 import io.crate.expression.reference.file.FileLineReferenceResolver;
+import io.crate.expression.reference.file.SourceLineNumberExpression;
 import io.crate.expression.symbol.Symbol;
 import io.crate.metadata.NodeContext;
 import io.crate.metadata.TransactionContext;
@@ -64,25 +79,55 @@ import io.crate.types.DataTypes;
 @Singleton
 public class FileCollectSource implements CollectSource {
 
+    /**
+     * Uncompressed files larger than this are read in parts of this size by multiple threads and nodes.
+     */
+    @VisibleForTesting
+    static final long SPLIT_SIZE = new ByteSizeValue(64, ByteSizeUnit.MB).getBytes();
+
+    private static final int PREFETCH_SIZE = 1000;
+
+    /**
+     * Number of threads of a node reading the files of a COPY FROM concurrently. 1 reads the files sequentially.
+     */
+    public static final Setting<Integer> CONCURRENT_READERS_SETTING = new Setting<>(
+        "copy_from.concurrent_readers",
+        s -> Integer.toString(EsExecutors.numberOfProcessors(s)),
+        s -> Setting.parseInt(s, 1, "copy_from.concurrent_readers"),
+        DataTypes.INTEGER,
+        Property.NodeScope,
+        Property.Dynamic,
+        Property.Exposed
+    );
+
     private final ClusterService clusterService;
     private final Map<String, FileInputFactory> fileInputFactoryMap;
     private final InputFactory inputFactory;
     private final NodeContext nodeCtx;
     private final ThreadPool threadPool;
     private final Roles roles;
+    private final StdStreams stdStreams;
+    private volatile int concurrentReaders;
 
     @Inject
     public FileCollectSource(NodeContext nodeCtx,
                              ClusterService clusterService,
                              Map<String, FileInputFactory> fileInputFactoryMap,
                              ThreadPool threadPool,
-                             Roles roles) {
+                             Roles roles,
+                             StdStreams stdStreams) {
         this.fileInputFactoryMap = fileInputFactoryMap;
+        this.stdStreams = stdStreams;
         this.nodeCtx = nodeCtx;
         this.inputFactory = new InputFactory(nodeCtx);
         this.clusterService = clusterService;
         this.threadPool = threadPool;
         this.roles = roles;
+        this.concurrentReaders = CONCURRENT_READERS_SETTING.get(clusterService.getSettings());
+        clusterService.getClusterSettings().addSettingsUpdateConsumer(
+            CONCURRENT_READERS_SETTING,
+            value -> concurrentReaders = value
+        );
     }
 
     @Override
@@ -91,9 +136,7 @@ public class FileCollectSource implements CollectSource {
                                                              CollectTask collectTask,
                                                              boolean supportMoveToStart) {
         FileUriCollectPhase fileUriCollectPhase = (FileUriCollectPhase) collectPhase;
-        InputFactory.Context<LineCollectorExpression<?>> ctx =
-            inputFactory.ctxForRefs(txnCtx, FileLineReferenceResolver::getImplementation);
-        ctx.add(collectPhase.toCollect());
+        InputFactory.Context<LineCollectorExpression<?>> ctx = createInputContext(txnCtx, collectPhase);
 
         Role user = requireNonNull(roles.findUser(txnCtx.sessionSettings().userName()), "User who invoked a statement must exist");
         List<URI> fileUris = targetUriToStringList(txnCtx, nodeCtx, fileUriCollectPhase.targetUri()).stream()
@@ -105,21 +148,43 @@ public class FileCollectSource implements CollectSource {
                 return uri;
             })
             .toList();
-        FileReadingIterator fileReadingIterator = new FileReadingIterator(
-            fileUris,
-            fileUriCollectPhase.compression(),
-            fileInputFactoryMap,
-            fileUriCollectPhase.sharedStorage(),
-            fileUriCollectPhase.nodeIds().size(),
-            getReaderNumber(fileUriCollectPhase.nodeIds(), clusterService.state().nodes().getLocalNodeId()),
-            fileUriCollectPhase.withClauseOptions(),
-            threadPool.scheduler()
-        );
         CopyFromParserProperties parserProperties = fileUriCollectPhase.parserProperties();
+        boolean fromStdin = fileUris.size() == 1 && StdStreams.STDIN_SCHEME.equals(fileUris.get(0).getScheme());
+        int numLocalReaders = concurrentReaders;
+        if (!fromStdin
+            && numLocalReaders > 1
+            && fileUriCollectPhase.compression() == null
+            && parserProperties.skipNumLines() == 0
+            && ctx.expressions().stream().noneMatch(SourceLineNumberExpression.class::isInstance)) {
+            return CompletableFuture.completedFuture(
+                parallelLineProcessors(txnCtx, fileUriCollectPhase, collectTask, fileUris, numLocalReaders));
+        }
+        BatchIterator<LineCursor> lines;
+        if (fromStdin) {
+            lines = stdStreams.stdin(collectPhase.jobId(), fileUris.get(0));
+        } else {
+            lines = new FileReadingIterator(
+                fileUris,
+                fileUriCollectPhase.compression(),
+                fileInputFactoryMap,
+                fileUriCollectPhase.sharedStorage(),
+                fileUriCollectPhase.nodeIds().size(),
+                getReaderNumber(fileUriCollectPhase.nodeIds(), clusterService.state().nodes().getLocalNodeId()),
+                1,
+                0,
+                0L,
+                false,
+                fileUriCollectPhase.inputFormat(),
+                fileUriCollectPhase.targetColumns(),
+                fileUriCollectPhase.withClauseOptions(),
+                threadPool.scheduler(),
+                collectTask.getRamAccounting()
+            );
+        }
         LineProcessor lineProcessor = new LineProcessor(
             parserProperties.skipNumLines() > 0
-                ? new SkippingBatchIterator<>(fileReadingIterator, (int) parserProperties.skipNumLines())
-                : fileReadingIterator,
+                ? new SkippingBatchIterator<>(lines, (int) parserProperties.skipNumLines())
+                : lines,
             ctx.topLevelInputs(),
             ctx.expressions(),
             fileUriCollectPhase.inputFormat(),
@@ -129,6 +194,71 @@ public class FileCollectSource implements CollectSource {
         return CompletableFuture.completedFuture(lineProcessor);
     }
 
+    private InputFactory.Context<LineCollectorExpression<?>> createInputContext(TransactionContext txnCtx,
+                                                                               CollectPhase collectPhase) {
+        InputFactory.Context<LineCollectorExpression<?>> ctx =
+            inputFactory.ctxForRefs(txnCtx, FileLineReferenceResolver::getImplementation);
+        ctx.add(collectPhase.toCollect());
+        return ctx;
+    }
+
+    /**
+     * Reads the files with {@code numLocalReaders} iterators, each reading a distinct subset of the files or of the
+     * parts of files larger than {@link #SPLIT_SIZE}. The lines are read concurrently within
+     * {@link BatchIterator#loadNextBatch()} of the returned iterator. The lines and Parquet row groups buffered per
+     * reader are accounted in the RamAccounting of the collect task.
+     */
+    private BatchIterator<Row> parallelLineProcessors(TransactionContext txnCtx,
+                                                      FileUriCollectPhase collectPhase,
+                                                      CollectTask collectTask,
+                                                      List<URI> fileUris,
+                                                      int numLocalReaders) {
+        CopyFromParserProperties parserProperties = collectPhase.parserProperties();
+        int numReaders = collectPhase.nodeIds().size();
+        int readerNumber = getReaderNumber(collectPhase.nodeIds(), clusterService.state().nodes().getLocalNodeId());
+        // Parts which don't start at the beginning of a file lack the CSV header
+        boolean readHeaderOfSplits = parserProperties.fileHeader()
+            && (collectPhase.inputFormat() == InputFormat.CSV
+                || fileUris.stream().allMatch(uri -> uri.toString().endsWith(".csv")));
+        List<BatchIterator<Row>> iterators = new ArrayList<>(numLocalReaders);
+        for (int i = 0; i < numLocalReaders; i++) {
+            InputFactory.Context<LineCollectorExpression<?>> ctx = createInputContext(txnCtx, collectPhase);
+            // Each reader runs in its own thread and needs its own RamAccounting
+            RamAccounting ramAccounting = collectTask.getRamAccounting();
+            FileReadingIterator lines = new FileReadingIterator(
+                fileUris,
+                null,
+                fileInputFactoryMap,
+                collectPhase.sharedStorage(),
+                numReaders,
+                readerNumber,
+                numLocalReaders,
+                i,
+                SPLIT_SIZE,
+                readHeaderOfSplits,
+                collectPhase.inputFormat(),
+                collectPhase.targetColumns(),
+                collectPhase.withClauseOptions(),
+                threadPool.scheduler(),
+                ramAccounting
+            );
+            iterators.add(new LineProcessor(
+                new PrefetchingLineIterator(lines, PREFETCH_SIZE, ramAccounting),
+                ctx.topLevelInputs(),
+                ctx.expressions(),
+                collectPhase.inputFormat(),
+                parserProperties,
+                collectPhase.targetColumns()
+            ));
+        }
+        ThreadPoolExecutor executor = (ThreadPoolExecutor) threadPool.executor(ThreadPool.Names.SEARCH);
+        return CompositeBatchIterator.asyncComposite(
+            executor,
+            numIdleThreads(executor, numLocalReaders),
+            iterators
+        );
+    }
+
     @VisibleForTesting
     public static int getReaderNumber(Collection<String> nodeIds, String localNodeId) {
         String[] readers = nodeIds.toArray(new String[0]);
@@ -25,6 +25,7 @@ import io.crate.blob.v2.BlobIndicesService;
 import io.crate.blob.v2.BlobShard;
 import io.crate.execution.engine.collect.BlobShardCollectorProvider;
 import io.crate.execution.engine.collect.LuceneShardCollectorProvider;
+import io.crate.execution.engine.collect.ShardAggregationCache;
 import io.crate.execution.engine.collect.ShardCollectorProvider;
 import io.crate.execution.engine.export.FileOutputFactory;
 import io.crate.execution.jobs.NodeLimits;
@@ -61,6 +62,7 @@ public class ShardCollectorProviderFactory {
     private final BigArrays bigArrays;
     private final Settings settings;
     private final CircuitBreakerService circuitBreakerService;
+    private final ShardAggregationCache aggregationCache;
     private final Map<String, FileOutputFactory> fileOutputFactoryMap;
 
     @Inject
@@ -74,6 +76,7 @@ public class ShardCollectorProviderFactory {
                                          LuceneQueryBuilder luceneQueryBuilder,
                                          NodeLimits nodeJobsCounter,
                                          PageCacheRecycler pageCacheRecycler,
+                                         ShardAggregationCache aggregationCache,
                                          Map<String, FileOutputFactory> fileOutputFactoryMap) {
         this.settings = settings;
         this.circuitBreakerService = circuitBreakerService;
@@ -85,6 +88,7 @@ public class ShardCollectorProviderFactory {
         this.luceneQueryBuilder = luceneQueryBuilder;
         this.nodeJobsCounter = nodeJobsCounter;
         this.bigArrays = new BigArrays(pageCacheRecycler, circuitBreakerService, HierarchyCircuitBreakerService.QUERY, true);
+        this.aggregationCache = aggregationCache;
         this.fileOutputFactoryMap = fileOutputFactoryMap;
     }
 
@@ -114,6 +118,7 @@ public class ShardCollectorProviderFactory {
                 elasticsearchClient,
                 indexShard,
                 bigArrays,
+                aggregationCache,
                 fileOutputFactoryMap);
         }
     }
@@ -27,7 +27,10 @@ import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.message.Message;
 
 import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 import java.util.function.Function;
 
 public final class FilteredLogSink<T> implements LogSink<T> {
@@ -52,10 +55,14 @@ public final class FilteredLogSink<T> implements LogSink<T> {
         this.delegate = delegate;
     }
 
+    private boolean recordToMemory(T item) {
+        Boolean recordToMemory = memoryFilter.value(item);
+        return recordToMemory != null && recordToMemory;
+    }
+
     @Override
     public void add(T item) {
-        Boolean recordToMemory = memoryFilter.value(item);
-        if (recordToMemory != null && recordToMemory) {
+        if (recordToMemory(item)) {
             delegate.add(item);
         }
         Boolean recordToPersistentLog = persistFilter.value(item);
@@ -64,9 +71,18 @@ public final class FilteredLogSink<T> implements LogSink<T> {
         }
     }
 
+    /**
+     * Adds already recorded entries of a previous sink. They are only filtered again but not logged persistently.
+     */
     @Override
     public void addAll(Iterable<T> iterable) {
-        iterable.forEach(this::add);
+        List<T> items = new ArrayList<>();
+        for (T item : iterable) {
+            if (recordToMemory(item)) {
+                items.add(item);
+            }
+        }
+        delegate.addAll(items);
     }
 
     @Override
@@ -22,6 +22,7 @@
 package io.crate.execution.engine.collect.stats;
 
 import java.util.Queue;
+import java.util.UUID;
 import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
@@ -40,8 +41,10 @@ import org.elasticsearch.common.settings.ClusterSettings;
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Setting.Property;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.EsExecutors;
 import org.elasticsearch.indices.breaker.CircuitBreakerService;
 import org.elasticsearch.indices.breaker.HierarchyCircuitBreakerService;
+import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.VisibleForTesting;
 
 import io.crate.analyze.ParamTypeHints;
@@ -116,12 +119,23 @@ public class JobsLogService extends AbstractLifecycleComponent implements Provid
     public static final Setting<TimeValue> STATS_OPERATIONS_LOG_EXPIRATION_SETTING = Setting.timeSetting(
         "stats.operations_log_expiration", TimeValue.timeValueSeconds(0L), Property.NodeScope, Property.Dynamic, Property.Exposed);
 
+    public static final Setting<Boolean> STATS_LOG_RING_BUFFER_SETTING = Setting.boolSetting(
+        "stats.log_ring_buffer", false, Property.NodeScope, Property.Dynamic, Property.Exposed);
+
+    public static final Setting<Integer> STATS_LOG_SAMPLING_RATE_SETTING = Setting.intSetting(
+        "stats.log_sampling_rate", 1, 1, Property.NodeScope, Property.Dynamic, Property.Exposed);
+
+    public static final Setting<TimeValue> STATS_LOG_SAMPLING_THRESHOLD_SETTING = Setting.timeSetting(
+        "stats.log_sampling_threshold", TimeValue.timeValueSeconds(1L), TimeValue.ZERO,
+        Property.NodeScope, Property.Dynamic, Property.Exposed);
+
     private final ScheduledExecutorService scheduler;
     private final CircuitBreakerService breakerService;
     private final InputFactory inputFactory;
     private final StaticTableReferenceResolver<JobContextLog> refResolver;
     private final ExpressionAnalyzer expressionAnalyzer;
     private final CoordinatorTxnCtx systemTransactionCtx;
+    private final int numStripes;
 
     private JobsLogs jobsLogs;
 
@@ -133,6 +147,9 @@ public class JobsLogService extends AbstractLifecycleComponent implements Provid
     volatile TimeValue jobsLogExpiration;
     volatile int operationsLogSize;
     volatile TimeValue operationsLogExpiration;
+    volatile boolean useRingBuffer;
+    volatile int samplingRate;
+    volatile TimeValue samplingThreshold;
 
     public JobsLogService(Settings settings,
                           ClusterService clusterService,
@@ -154,6 +171,7 @@ public class JobsLogService extends AbstractLifecycleComponent implements Provid
             Operation.READ
         );
         FILTER_VALIDATOR.validate = this::asSymbol;
+        numStripes = 2 * EsExecutors.numberOfProcessors(settings);
 
         isEnabled = STATS_ENABLED_SETTING.get(settings);
         jobsLogs = new JobsLogs(this::isEnabled);
@@ -161,6 +179,9 @@ public class JobsLogService extends AbstractLifecycleComponent implements Provid
             STATS_JOBS_LOG_FILTER.get(settings), STATS_JOBS_LOG_FILTER.getKey());
         persistFilter = createFilter(
             STATS_JOBS_LOG_PERSIST_FILTER.get(settings), STATS_JOBS_LOG_PERSIST_FILTER.getKey());
+        useRingBuffer = STATS_LOG_RING_BUFFER_SETTING.get(settings);
+        samplingRate = STATS_LOG_SAMPLING_RATE_SETTING.get(settings);
+        samplingThreshold = STATS_LOG_SAMPLING_THRESHOLD_SETTING.get(settings);
 
         setJobsLogSink(
             STATS_JOBS_LOG_SIZE_SETTING.get(settings),
@@ -185,6 +206,35 @@ public class JobsLogService extends AbstractLifecycleComponent implements Provid
             this::setJobsLogSink);
         clusterSettings.addSettingsUpdateConsumer(
             STATS_OPERATIONS_LOG_SIZE_SETTING, STATS_OPERATIONS_LOG_EXPIRATION_SETTING, this::setOperationsLogSink);
+        clusterSettings.addSettingsUpdateConsumer(STATS_LOG_RING_BUFFER_SETTING, ringBuffer -> {
+            useRingBuffer = ringBuffer;
+            updateSinks();
+        });
+        clusterSettings.addSettingsUpdateConsumer(
+            STATS_LOG_SAMPLING_RATE_SETTING,
+            STATS_LOG_SAMPLING_THRESHOLD_SETTING,
+            (rate, threshold) -> {
+                samplingRate = rate;
+                samplingThreshold = threshold;
+                updateSinks();
+            });
+    }
+
+    private void updateSinks() {
+        setJobsLogSink(jobsLogSize, jobsLogExpiration);
+        setOperationsLogSink(operationsLogSize, operationsLogExpiration);
+    }
+
+    /**
+     * Failed entries and entries which took at least {@code threshold} are always sampled. Of the remaining
+     * entries, the ones of 1 in {@code rate} jobs are sampled. The decision is based on the job id, so that the
+     * operations of a sampled job are sampled on all nodes.
+     */
+    @VisibleForTesting
+    static boolean isSampled(UUID jobId, long durationMillis, @Nullable String errorMessage, int rate, TimeValue threshold) {
+        return errorMessage != null
+            || durationMillis >= threshold.millis()
+            || Math.floorMod(jobId.hashCode(), rate) == 0;
     }
 
     private Symbol asSymbol(String expression) {
@@ -221,6 +271,14 @@ public class JobsLogService extends AbstractLifecycleComponent implements Provid
     void updateJobSink(int size, TimeValue expiration) {
         LogSink<JobContextLog> sink = createSink(
             size, expiration, JobContextLog::ramBytesUsed, HierarchyCircuitBreakerService.JOBS_LOG);
+        int rate = samplingRate;
+        TimeValue threshold = samplingThreshold;
+        if (rate > 1 && !sink.equals(NoopLogSink.instance())) {
+            sink = new SamplingLogSink<>(
+                log -> isSampled(log.id(), log.ended() - log.started(), log.errorMessage(), rate, threshold),
+                sink
+            );
+        }
         LogSink<JobContextLog> newSink = sink.equals(NoopLogSink.instance()) ? sink : new FilteredLogSink<>(
             memoryFilter,
             persistFilter,
@@ -256,6 +314,8 @@ public class JobsLogService extends AbstractLifecycleComponent implements Provid
         final Runnable onClose;
         if (size == 0 && expirationMillis == 0) {
             return NoopLogSink.instance();
+        } else if (expirationMillis == 0 && useRingBuffer) {
+            return new RingBufferLogSink<>(size, numStripes, breakerService.getBreaker(breaker), getElementSize);
         } else if (expirationMillis > 0) {
             q = new ConcurrentLinkedDeque<>();
             long delay = 0L;
@@ -297,6 +357,14 @@ public class JobsLogService extends AbstractLifecycleComponent implements Provid
             expiration,
             OperationContextLog::ramBytesUsed,
             HierarchyCircuitBreakerService.OPERATIONS_LOG);
+        int rate = samplingRate;
+        TimeValue threshold = samplingThreshold;
+        if (rate > 1 && !newSink.equals(NoopLogSink.instance())) {
+            newSink = new SamplingLogSink<>(
+                log -> isSampled(log.jobId(), log.ended() - log.started(), log.errorMessage(), rate, threshold),
+                newSink
+            );
+        }
         jobsLogs.updateOperationsLog(newSink);
     }
 
@@ -0,0 +1,183 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.collect.stats;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+
+import com.carrotsearch.hppc.BitMixer;
+
+/**
+ * A size bounded {@link LogSink} which doesn't use locks.
+ *
+ * <p>
+ * The entries are kept in several ring buffers (stripes). A thread adds its entries to the stripe selected by its
+ * thread id, so threads adding entries concurrently rarely touch the same memory. If a stripe is full, its oldest
+ * entry is overwritten. Because entries are evicted per stripe, the sink can contain fewer than {@code size}
+ * entries if only a few threads add entries.
+ * </p>
+ *
+ * <p>
+ * The memory used by the entries is accounted to the circuit breaker in chunks. If the limit of the breaker is
+ * exceeded all entries are removed, like it is done by the {@link RamAccountingQueue}.
+ * </p>
+ */
+public final class RingBufferLogSink<T> implements LogSink<T> {
+
+    private static final Logger LOGGER = LogManager.getLogger(RingBufferLogSink.class);
+
+    private static final long ACCOUNTING_CHUNK_BYTES = 32 * 1024;
+
+    private static final class Stripe<T> {
+
+        private final AtomicReferenceArray<T> entries;
+        private final AtomicLong nextIndex = new AtomicLong(0);
+        private final AtomicLong unaccountedBytes = new AtomicLong(0);
+
+        private Stripe(int capacity) {
+            this.entries = new AtomicReferenceArray<>(capacity);
+        }
+    }
+
+    private final Stripe<T>[] stripes;
+    private final CircuitBreaker breaker;
+    private final ToLongFunction<T> getElementSize;
+    private final LongAdder accountedBytes = new LongAdder();
+    private final AtomicBoolean exceeded = new AtomicBoolean(false);
+
+    @SuppressWarnings("unchecked")
+    public RingBufferLogSink(int size, int numStripes, CircuitBreaker breaker, ToLongFunction<T> getElementSize) {
+        assert size > 0 : "size must be greater than 0";
+        this.breaker = breaker;
+        this.getElementSize = getElementSize;
+        int stripeCount = Math.max(1, Math.min(numStripes, size));
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe<>(size / stripeCount + (i < size % stripeCount ? 1 : 0));
+        }
+    }
+
+    private int currentStripe() {
+        // don't trust the thread id to have equiprobable low bits
+        int slot = (int) BitMixer.mix64(Thread.currentThread().threadId());
+        return (slot & 0x7FFFFFFF) % stripes.length;
+    }
+
+    @Override
+    public void add(T item) {
+        add(stripes[currentStripe()], item);
+    }
+
+    private void add(Stripe<T> stripe, T item) {
+        AtomicReferenceArray<T> entries = stripe.entries;
+        int idx = (int) (stripe.nextIndex.getAndIncrement() % entries.length());
+        T evicted = entries.getAndSet(idx, item);
+        long bytes = getElementSize.applyAsLong(item);
+        if (evicted != null) {
+            bytes -= getElementSize.applyAsLong(evicted);
+        }
+        account(stripe, bytes);
+    }
+
+    private void account(Stripe<T> stripe, long bytes) {
+        long unaccounted = stripe.unaccountedBytes.addAndGet(bytes);
+        if (unaccounted < ACCOUNTING_CHUNK_BYTES && unaccounted > -ACCOUNTING_CHUNK_BYTES) {
+            return;
+        }
+        stripe.unaccountedBytes.addAndGet(-unaccounted);
+        breaker.addWithoutBreaking(unaccounted);
+        accountedBytes.add(unaccounted);
+        if (unaccounted > 0 && breaker.getUsed() >= breaker.getLimit() && exceeded.compareAndSet(false, true)) {
+            if (LOGGER.isWarnEnabled()) {
+                LOGGER.warn("Memory limit for breaker [{}] was exceeded. Log entries are cleared.", breaker.getName());
+            }
+            clear();
+            exceeded.set(false);
+        }
+    }
+
+    private void clear() {
+        for (Stripe<T> stripe : stripes) {
+            AtomicReferenceArray<T> entries = stripe.entries;
+            for (int i = 0; i < entries.length(); i++) {
+                T evicted = entries.getAndSet(i, null);
+                if (evicted != null) {
+                    account(stripe, -getElementSize.applyAsLong(evicted));
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the entries round-robin to all stripes, so that none of them is lost if the sink is large enough.
+     */
+    @Override
+    public void addAll(Iterable<T> iterable) {
+        int stripe = 0;
+        for (T item : iterable) {
+            add(stripes[stripe], item);
+            stripe = (stripe + 1) % stripes.length;
+        }
+    }
+
+    /**
+     * @return an iterator over a snapshot of the entries, the entries of each stripe ordered from oldest to newest.
+     */
+    @Override
+    public Iterator<T> iterator() {
+        List<T> snapshot = new ArrayList<>();
+        for (Stripe<T> stripe : stripes) {
+            AtomicReferenceArray<T> entries = stripe.entries;
+            int length = entries.length();
+            int start = (int) (stripe.nextIndex.get() % length);
+            for (int i = 0; i < length; i++) {
+                T entry = entries.get((start + i) % length);
+                if (entry != null) {
+                    snapshot.add(entry);
+                }
+            }
+        }
+        return snapshot.iterator();
+    }
+
+    @Override
+    public void close() {
+        for (Stripe<T> stripe : stripes) {
+            AtomicReferenceArray<T> entries = stripe.entries;
+            for (int i = 0; i < entries.length(); i++) {
+                entries.set(i, null);
+            }
+            stripe.unaccountedBytes.set(0);
+        }
+        breaker.addWithoutBreaking(-accountedBytes.sumThenReset());
+    }
+}
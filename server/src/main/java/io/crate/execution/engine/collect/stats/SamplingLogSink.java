@@ -0,0 +1,62 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.collect.stats;
+
+import java.util.Iterator;
+import java.util.function.Predicate;
+
+/**
+ * Forwards only the entries matching the {@code sampled} predicate to the delegate.
+ * Entries added via {@link #addAll(Iterable)} are already recorded entries of a previous sink and are not sampled.
+ */
+public final class SamplingLogSink<T> implements LogSink<T> {
+
+    private final Predicate<T> sampled;
+    final LogSink<T> delegate;
+
+    SamplingLogSink(Predicate<T> sampled, LogSink<T> delegate) {
+        this.sampled = sampled;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void add(T item) {
+        if (sampled.test(item)) {
+            delegate.add(item);
+        }
+    }
+
+    @Override
+    public void addAll(Iterable<T> iterable) {
+        delegate.addAll(iterable);
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return delegate.iterator();
+    }
+}
@@ -35,8 +35,15 @@ public class BroadcastingBucketBuilder implements MultiBucketBuilder {
     private final StreamBucket.Builder bucketBuilder;
 
     public BroadcastingBucketBuilder(Streamer<?>[] streamers, int numBuckets, RamAccounting ramAccounting) {
+        this(streamers, numBuckets, ramAccounting, false);
+    }
+
+    public BroadcastingBucketBuilder(Streamer<?>[] streamers,
+                                     int numBuckets,
+                                     RamAccounting ramAccounting,
+                                     boolean columnar) {
         this.numBuckets = numBuckets;
-        this.bucketBuilder = new StreamBucket.Builder(streamers, ramAccounting);
+        this.bucketBuilder = new StreamBucket.Builder(streamers, ramAccounting, columnar);
     }
 
     @Override
@@ -0,0 +1,193 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.engine.distribution;
+
+import java.io.IOException;
+
+import org.apache.lucene.store.ByteArrayDataInput;
+import org.apache.lucene.store.ByteBuffersDataOutput;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.compress.LZ4;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+
+import io.crate.Streamer;
+import io.crate.types.IntegerType;
+import io.crate.types.LongType;
+import io.crate.types.TimestampType;
+
+/**
+ * Columnar encoding of the rows of a {@link StreamBucket}.
+ * <p>
+ * The values of each column are written into a separate block, one block after another:
+ *
+ * <pre>
+ *  column:
+ *      byte    encoding    (STREAMER, DELTA_LONG, DELTA_INT)
+ *      byte    codec       (RAW, LZ4)
+ *      vInt    length of the encoded values
+ *      vInt    length of the stored bytes
+ *      byte[]  stored bytes
+ * </pre>
+ *
+ * Integer, long and timestamp values are delta encoded (zig-zag vLong of the difference to the previous value),
+ * other values are written using their {@link Streamer}. Each block is LZ4 compressed if that makes it smaller.
+ * Storing values of the same column next to each other makes repeated values (e.g. group keys) and similar values
+ * compress well.
+ */
+final class ColumnarBucketFormat {
+
+    private static final byte STREAMER = 0;
+    private static final byte DELTA_LONG = 1;
+    private static final byte DELTA_INT = 2;
+
+    private static final byte RAW = 0;
+    private static final byte LZ4_BLOCK = 1;
+
+    /**
+     * Blocks smaller than this are not worth compressing
+     */
+    private static final int MIN_COMPRESS_LENGTH = 64;
+
+    private ColumnarBucketFormat() {
+    }
+
+    static final class ColumnWriter {
+
+        private final Streamer<Object> streamer;
+        private final byte encoding;
+        private BytesStreamOutput out;
+        private long prev = 0;
+
+        @SuppressWarnings("unchecked")
+        ColumnWriter(Streamer<?> streamer, int expectedSize) {
+            this.streamer = (Streamer<Object>) streamer;
+            if (streamer instanceof LongType || streamer instanceof TimestampType) {
+                encoding = DELTA_LONG;
+            } else if (streamer instanceof IntegerType) {
+                encoding = DELTA_INT;
+            } else {
+                encoding = STREAMER;
+            }
+            out = new BytesStreamOutput(expectedSize);
+        }
+
+        void add(Object value) throws IOException {
+            if (encoding == STREAMER) {
+                streamer.writeValueTo(out, value);
+                return;
+            }
+            if (value == null) {
+                out.writeBoolean(false);
+            } else {
+                long longValue = ((Number) value).longValue();
+                out.writeBoolean(true);
+                out.writeZLong(longValue - prev);
+                prev = longValue;
+            }
+        }
+
+        int size() {
+            return out.size();
+        }
+
+        /**
+         * Writes the column block to {@code target} and resets the writer
+         */
+        void writeBlock(StreamOutput target, LZ4.FastCompressionHashTable hashTable) throws IOException {
+            BytesRef values = out.bytes().toBytesRef();
+            target.writeByte(encoding);
+            if (values.length >= MIN_COMPRESS_LENGTH) {
+                ByteBuffersDataOutput compressed = new ByteBuffersDataOutput();
+                LZ4.compress(values.bytes, values.offset, values.length, compressed, hashTable);
+                if (compressed.size() < values.length) {
+                    target.writeByte(LZ4_BLOCK);
+                    target.writeVInt(values.length);
+                    target.writeVInt((int) compressed.size());
+                    target.writeBytes(compressed.toArrayCopy());
+                    reset();
+                    return;
+                }
+            }
+            target.writeByte(RAW);
+            target.writeVInt(values.length);
+            target.writeVInt(values.length);
+            target.writeBytes(values.bytes, values.offset, values.length);
+            reset();
+        }
+
+        private void reset() {
+            // next bucket is probably going to have the same size
+            out = new BytesStreamOutput(out.size());
+            prev = 0;
+        }
+    }
+
+    static final class ColumnReader {
+
+        private final Streamer<?> streamer;
+        private final byte encoding;
+        private final StreamInput in;
+        private long prev = 0;
+
+        ColumnReader(StreamInput blocks, Streamer<?> streamer) throws IOException {
+            this.streamer = streamer;
+            this.encoding = blocks.readByte();
+            byte codec = blocks.readByte();
+            int length = blocks.readVInt();
+            int storedLength = blocks.readVInt();
+            byte[] stored = new byte[storedLength];
+            blocks.readBytes(stored, 0, storedLength);
+            if (codec == LZ4_BLOCK) {
+                byte[] values = new byte[length];
+                LZ4.decompress(new ByteArrayDataInput(stored), length, values, 0);
+                in = StreamInput.wrap(values);
+            } else {
+                in = StreamInput.wrap(stored);
+            }
+        }
+
+        Object read() throws IOException {
+            if (encoding == STREAMER) {
+                return streamer.readValueFrom(in);
+            }
+            if (in.readBoolean() == false) {
+                return null;
+            }
+            long value = prev + in.readZLong();
+            prev = value;
+            return encoding == DELTA_INT ? (Object) (int) value : (Object) value;
+        }
+    }
+
+    static ColumnReader[] readers(BytesReference bytes, Streamer<?>[] streamers) throws IOException {
+        StreamInput blocks = bytes.streamInput();
+        ColumnReader[] readers = new ColumnReader[streamers.length];
+        for (int i = 0; i < streamers.length; i++) {
+            readers[i] = new ColumnReader(blocks, streamers[i]);
+        }
+        return readers;
+    }
+}
@@ -29,6 +29,8 @@ import java.util.concurrent.Executor;
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
 import org.elasticsearch.node.Node;
 import org.elasticsearch.threadpool.ThreadPool;
 
@@ -47,9 +49,21 @@ public class DistributingConsumerFactory {
 
     private static final String RESPONSE_EXECUTOR_NAME = ThreadPool.Names.SEARCH;
 
+    /**
+     * If enabled, buckets with enough rows are sent in the compressed {@link ColumnarBucketFormat}
+     */
+    public static final Setting<Boolean> COLUMNAR_BUCKETS_SETTING = Setting.boolSetting(
+        "distribution.columnar_buckets",
+        true,
+        Property.NodeScope,
+        Property.Dynamic,
+        Property.Exposed
+    );
+
     private final ClusterService clusterService;
     private final Executor responseExecutor;
     private final ActionExecutor<NodeRequest<DistributedResultRequest>, DistributedResultResponse> distributedResultAction;
+    private volatile boolean columnarBuckets;
 
     @Inject
     public DistributingConsumerFactory(ClusterService clusterService,
@@ -58,6 +72,11 @@ public class DistributingConsumerFactory {
         this.clusterService = clusterService;
         this.responseExecutor = threadPool.executor(RESPONSE_EXECUTOR_NAME);
         this.distributedResultAction = req -> node.client().execute(DistributedResultAction.INSTANCE, req);
+        this.columnarBuckets = COLUMNAR_BUCKETS_SETTING.get(clusterService.getSettings());
+        clusterService.getClusterSettings().addSettingsUpdateConsumer(
+            COLUMNAR_BUCKETS_SETTING,
+            value -> columnarBuckets = value
+        );
     }
 
     public RowConsumer create(NodeOperation nodeOperation,
@@ -73,6 +92,7 @@ public class DistributingConsumerFactory {
         byte phaseInputId = nodeOperation.downstreamExecutionPhaseInputId();
         int bucketIdx = getBucketIdx(nodeOperation.executionPhase().nodeIds(), phaseInputId);
 
+        boolean columnar = columnarBuckets;
         MultiBucketBuilder multiBucketBuilder;
         switch (distributionInfo.distributionType()) {
             case MODULO:
@@ -80,14 +100,16 @@ public class DistributingConsumerFactory {
                     multiBucketBuilder = new BroadcastingBucketBuilder(
                         streamers,
                         nodeOperation.downstreamNodes().size(),
-                        ramAccounting
+                        ramAccounting,
+                        columnar
                     );
                 } else {
                     multiBucketBuilder = new ModuloBucketBuilder(
                         streamers,
                         nodeOperation.downstreamNodes().size(),
                         distributionInfo.distributeByColumn(),
-                        ramAccounting
+                        ramAccounting,
+                        columnar
                     );
                 }
                 break;
@@ -95,7 +117,8 @@ public class DistributingConsumerFactory {
                 multiBucketBuilder = new BroadcastingBucketBuilder(
                     streamers,
                     nodeOperation.downstreamNodes().size(),
-                    ramAccounting
+                    ramAccounting,
+                    columnar
                 );
                 break;
             default:
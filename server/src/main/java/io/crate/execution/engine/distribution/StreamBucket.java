@@ -29,6 +29,8 @@ import java.util.Collections;
 import java.util.Iterator;
 
 import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.compress.LZ4;
+import org.elasticsearch.Version;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.io.stream.StreamInput;
@@ -36,22 +38,37 @@ import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.VisibleForTesting;
 
 import io.crate.Streamer;
 import io.crate.data.Bucket;
 import io.crate.data.Row;
 import io.crate.data.RowN;
 import io.crate.data.breaker.RamAccounting;
+import io.crate.execution.engine.distribution.ColumnarBucketFormat.ColumnReader;
+import io.crate.execution.engine.distribution.ColumnarBucketFormat.ColumnWriter;
 
 public class StreamBucket implements Bucket, Writeable {
 
     private Streamer<?>[] streamers;
     private int size = -1;
     private BytesReference bytes;
+    private boolean columnar = false;
 
     public static class Builder implements Accountable {
 
         private static final int INITIAL_PAGE_SIZE = 1024;
+
+        /**
+         * Buckets with fewer rows use the row format, the columnar format doesn't pay off for them
+         */
+        static final int COLUMNAR_MIN_ROWS = 128;
+
+        /**
+         * Upper bound of the memory of a {@link LZ4.FastCompressionHashTable}
+         */
+        private static final int LZ4_HASH_TABLE_BYTES = 1 << 14;
+
         private final RamAccounting ramAccounting;
         private final Streamer<?>[] streamers;
 
@@ -59,10 +76,26 @@ public class StreamBucket implements Bucket, Writeable {
         private BytesStreamOutput out;
         private int prevOutSize = 0;
 
+        private final boolean columnar;
+        @Nullable
+        private ColumnWriter[] columns;
+        @Nullable
+        private LZ4.FastCompressionHashTable hashTable;
+
         public Builder(Streamer<?>[] streamers, RamAccounting ramAccounting) {
+            this(streamers, ramAccounting, false);
+        }
+
+        /**
+         * @param columnar if true, the rows of buckets with at least {@link #COLUMNAR_MIN_ROWS} rows are encoded
+         *                 column by column using the {@link ColumnarBucketFormat}.
+         *                 This is more compact for buckets which are sent to other nodes.
+         */
+        public Builder(Streamer<?>[] streamers, RamAccounting ramAccounting, boolean columnar) {
             this.ramAccounting = requireNonNull(ramAccounting, "RamAccounting must not be null");
             assert validStreamers(streamers) : "streamers must not be null and they shouldn't be of undefinedType";
             this.streamers = streamers;
+            this.columnar = columnar;
             out = new BytesStreamOutput(INITIAL_PAGE_SIZE);
         }
 
@@ -70,6 +103,10 @@ public class StreamBucket implements Bucket, Writeable {
             assert streamers.length == row.numColumns() : "number of streamer must match row size";
 
             size++;
+            if (columns != null) {
+                addColumnar(row);
+                return;
+            }
             for (int i = 0; i < row.numColumns(); i++) {
                 try {
                     //noinspection unchecked
@@ -80,17 +117,82 @@ public class StreamBucket implements Bucket, Writeable {
             }
             ramAccounting.addBytes(out.size() - prevOutSize);
             prevOutSize = out.size();
+            if (columnar && size >= COLUMNAR_MIN_ROWS) {
+                switchToColumnar();
+            }
+        }
+
+        /**
+         * Re-encodes the rows added so far column by column, the following rows are added to the columns directly.
+         */
+        private void switchToColumnar() {
+            if (hashTable == null) {
+                ramAccounting.addBytes(LZ4_HASH_TABLE_BYTES);
+                hashTable = new LZ4.FastCompressionHashTable();
+            }
+            ColumnWriter[] writers = new ColumnWriter[streamers.length];
+            for (int i = 0; i < streamers.length; i++) {
+                writers[i] = new ColumnWriter(streamers[i], out.size() / Math.max(1, streamers.length));
+            }
+            int outSize = 0;
+            try {
+                var rows = new RowIterator(out.bytes().streamInput(), streamers, size);
+                while (rows.hasNext()) {
+                    Row row = rows.next();
+                    for (int i = 0; i < writers.length; i++) {
+                        writers[i].add(row.get(i));
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            for (ColumnWriter writer : writers) {
+                outSize += writer.size();
+            }
+            columns = writers;
+            out = null;
+            ramAccounting.addBytes(outSize - prevOutSize);
+            prevOutSize = outSize;
+        }
+
+        private void addColumnar(Row row) {
+            int outSize = 0;
+            for (int i = 0; i < columns.length; i++) {
+                ColumnWriter column = columns[i];
+                try {
+                    column.add(row.get(i));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                outSize += column.size();
+            }
+            ramAccounting.addBytes(outSize - prevOutSize);
+            prevOutSize = outSize;
         }
 
         public StreamBucket build() {
             StreamBucket sb = new StreamBucket(streamers);
             sb.size = size;
-            sb.bytes = out.bytes();
+            if (columns == null) {
+                sb.bytes = out.bytes();
+            } else {
+                BytesStreamOutput blocks = new BytesStreamOutput(prevOutSize);
+                try {
+                    for (ColumnWriter column : columns) {
+                        column.writeBlock(blocks, hashTable);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                sb.bytes = blocks.bytes();
+                sb.columnar = true;
+            }
             return sb;
         }
 
         public void reset() {
             out = new BytesStreamOutput(size); // next bucket is probably going to have the same size
+            columns = null;
             size = 0;
         }
 
@@ -114,6 +216,11 @@ public class StreamBucket implements Bucket, Writeable {
         return size;
     }
 
+    @VisibleForTesting
+    boolean isColumnar() {
+        return columnar;
+    }
+
     public void streamers(Streamer<?>[] streamers) {
         assert validStreamers(streamers) : "streamers must not be null and they shouldn't be of undefinedType";
         this.streamers = streamers;
@@ -171,6 +278,40 @@ public class StreamBucket implements Bucket, Writeable {
         }
     }
 
+    private static class ColumnarRowIterator implements Iterator<Row> {
+
+        private final ColumnReader[] columns;
+        private final int size;
+        private final Object[] current;
+        private final RowN row;
+        private int pos = 0;
+
+        private ColumnarRowIterator(ColumnReader[] columns, int size) {
+            this.columns = columns;
+            this.size = size;
+            current = new Object[columns.length];
+            row = new RowN(current);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return pos < size;
+        }
+
+        @Override
+        public Row next() {
+            for (int c = 0; c < columns.length; c++) {
+                try {
+                    current[c] = columns[c].read();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            pos++;
+            return row;
+        }
+    }
+
     @Override
     @NotNull
     public Iterator<Row> iterator() {
@@ -179,6 +320,9 @@ public class StreamBucket implements Bucket, Writeable {
         }
         assert streamers != null : "streamers must not be null";
         try {
+            if (columnar) {
+                return new ColumnarRowIterator(ColumnarBucketFormat.readers(bytes, streamers), size);
+            }
             return new RowIterator(bytes.streamInput(), streamers, size);
         } catch (IOException e) {
             throw new UncheckedIOException(e);
@@ -201,6 +345,9 @@ public class StreamBucket implements Bucket, Writeable {
     public StreamBucket(StreamInput in) throws IOException {
         size = in.readVInt();
         if (size > 0) {
+            if (in.getVersion().onOrAfter(Version.V_5_10_0)) {
+                columnar = in.readBoolean();
+            }
             bytes = in.readBytesReference();
         }
     }
@@ -217,7 +364,26 @@ public class StreamBucket implements Bucket, Writeable {
         assert size > -1 : "size must be > -1";
         out.writeVInt(size);
         if (size > 0) {
-            out.writeBytesReference(bytes);
+            if (out.getVersion().onOrAfter(Version.V_5_10_0)) {
+                out.writeBoolean(columnar);
+                out.writeBytesReference(bytes);
+            } else if (columnar) {
+                out.writeBytesReference(toRowFormat());
+            } else {
+                out.writeBytesReference(bytes);
+            }
+        }
+    }
+
+    /**
+     * Re-encodes the rows of a columnar bucket row by row for nodes which don't support the columnar format.
+     */
+    private BytesReference toRowFormat() {
+        assert streamers != null : "streamers must be set to convert a columnar bucket";
+        Builder builder = new Builder(streamers, RamAccounting.NO_ACCOUNTING);
+        for (Row row : this) {
+            builder.add(row);
         }
+        return builder.out.bytes();
     }
 }
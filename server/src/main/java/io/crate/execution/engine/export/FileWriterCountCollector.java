@@ -49,11 +49,15 @@ import com.fasterxml.jackson.core.JsonGenerator;
 import io.crate.data.Input;
 import io.crate.data.Row;
 import io.crate.data.Row1;
+import io.crate.data.breaker.RamAccounting;
 import io.crate.exceptions.SQLParseException;
 import io.crate.exceptions.UnhandledServerException;
 import io.crate.exceptions.UnsupportedFeatureException;
 import io.crate.execution.dsl.projection.WriterProjection;
 import io.crate.execution.engine.collect.CollectExpression;
+import io.crate.execution.engine.parquet.ParquetFormat;
+import io.crate.execution.engine.parquet.ParquetWriter;
+import io.crate.types.DataType;
 
 /**
  * Collector implementation which writes the rows to the configured {@link FileOutput}
@@ -71,7 +75,10 @@ public class FileWriterCountCollector implements Collector<Row, long[], Iterable
     private final WriterProjection.CompressionType compressionType;
     @Nullable
     private final List<String> outputNames;
+    @Nullable
+    private final List<DataType<?>> inputTypes;
     private final WriterProjection.OutputFormat outputFormat;
+    private final RamAccounting ramAccounting;
 
     private final RowWriter rowWriter;
 
@@ -79,14 +86,18 @@ public class FileWriterCountCollector implements Collector<Row, long[], Iterable
                              String uriStr,
                              @Nullable WriterProjection.CompressionType compressionType,
                              @Nullable List<Input<?>> inputs,
+                             @Nullable List<DataType<?>> inputTypes,
                              Iterable<CollectExpression<Row, ?>> collectExpressions,
                              @Nullable List<String> outputNames,
                              WriterProjection.OutputFormat outputFormat,
                              Map<String, FileOutputFactory> fileOutputFactories,
-                             Settings withClauseOptions) {
+                             Settings withClauseOptions,
+                             RamAccounting ramAccounting) {
         this.executor = executor;
+        this.ramAccounting = ramAccounting;
         this.collectExpressions = collectExpressions;
         this.inputs = inputs;
+        this.inputTypes = inputTypes;
         this.compressionType = compressionType;
         this.outputNames = outputNames;
         this.outputFormat = outputFormat;
@@ -107,7 +118,19 @@ public class FileWriterCountCollector implements Collector<Row, long[], Iterable
 
     private RowWriter initWriter() {
         try {
-            if (outputFormat.equals(WriterProjection.OutputFormat.JSON_ARRAY)) {
+            if (outputFormat.equals(WriterProjection.OutputFormat.PARQUET)) {
+                // Parquet compresses the column chunks itself
+                return new ParquetRowWriter(
+                    fileOutput,
+                    fileOutput.acquireOutputStream(executor, null),
+                    collectExpressions,
+                    inputs,
+                    outputNames,
+                    inputTypes,
+                    compressionType == WriterProjection.CompressionType.GZIP ? ParquetFormat.GZIP : ParquetFormat.UNCOMPRESSED,
+                    ramAccounting
+                );
+            } else if (outputFormat.equals(WriterProjection.OutputFormat.JSON_ARRAY)) {
                 return new ColumnRowWriter(fileOutput, fileOutput.acquireOutputStream(executor, compressionType), collectExpressions, inputs);
             } else if (outputNames != null && outputFormat.equals(WriterProjection.OutputFormat.JSON_OBJECT)) {
                 return new ColumnRowObjectWriter(fileOutput, fileOutput.acquireOutputStream(executor, compressionType), collectExpressions, inputs, outputNames);
@@ -258,6 +281,46 @@ public class FileWriterCountCollector implements Collector<Row, long[], Iterable
         }
     }
 
+    static class ParquetRowWriter implements RowWriter {
+
+        private final FileOutput fileOutput;
+        private final Iterable<CollectExpression<Row, ?>> collectExpressions;
+        private final List<Input<?>> inputs;
+        private final ParquetWriter writer;
+
+        ParquetRowWriter(FileOutput fileOutput,
+                         OutputStream outputStream,
+                         Iterable<CollectExpression<Row, ?>> collectExpressions,
+                         List<Input<?>> inputs,
+                         List<String> outputNames,
+                         List<DataType<?>> inputTypes,
+                         int codec,
+                         RamAccounting ramAccounting) throws IOException {
+            this.fileOutput = fileOutput;
+            this.collectExpressions = collectExpressions;
+            this.inputs = inputs;
+            this.writer = new ParquetWriter(outputStream, outputNames, inputTypes, codec, ramAccounting);
+        }
+
+        @Override
+        public void write(Row row) {
+            for (CollectExpression<Row, ?> collectExpression : collectExpressions) {
+                collectExpression.setNextRow(row);
+            }
+            try {
+                writer.write(inputs);
+            } catch (IOException e) {
+                throw new UnhandledServerException("Failed to write row to output", e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.close();
+            fileOutput.close();
+        }
+    }
+
     static class ColumnRowObjectWriter extends ColumnRowWriter {
 
         private final List<String> outputNames;
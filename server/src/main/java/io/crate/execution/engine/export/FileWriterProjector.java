@@ -33,8 +33,10 @@ import io.crate.data.CollectingBatchIterator;
 import io.crate.data.Input;
 import io.crate.data.Projector;
 import io.crate.data.Row;
+import io.crate.data.breaker.RamAccounting;
 import io.crate.execution.dsl.projection.WriterProjection;
 import io.crate.execution.engine.collect.CollectExpression;
+import io.crate.types.DataType;
 
 public class FileWriterProjector implements Projector {
 
@@ -42,12 +44,15 @@ public class FileWriterProjector implements Projector {
     private final Iterable<CollectExpression<Row, ?>> collectExpressions;
     private final List<Input<?>> inputs;
     @Nullable
+    private final List<DataType<?>> inputTypes;
+    @Nullable
     private final List<String> outputNames;
     private final WriterProjection.OutputFormat outputFormat;
     private final WriterProjection.CompressionType compressionType;
     private final Executor executor;
     private final Map<String, FileOutputFactory> fileOutputFactoryMap;
     private final Settings withClauseOptions;
+    private final RamAccounting ramAccounting;
 
     /**
      * @param inputs a list of {@link Input}.
@@ -56,25 +61,31 @@ public class FileWriterProjector implements Projector {
      *               That raw source is then written to the output
      *               <p/>
      *               If inputs is not null the inputs are consumed to write a JSON array to the output.
+     * @param inputTypes the types of the inputs, required for the PARQUET output format.
+     * @param ramAccounting accounts the rows buffered by the PARQUET output format.
      */
     public FileWriterProjector(Executor executor,
                                String uri,
                                @Nullable WriterProjection.CompressionType compressionType,
                                @Nullable List<Input<?>> inputs,
+                               @Nullable List<DataType<?>> inputTypes,
                                Iterable<CollectExpression<Row, ?>> collectExpressions,
                                @Nullable List<String> outputNames,
                                WriterProjection.OutputFormat outputFormat,
                                Map<String, FileOutputFactory> fileOutputFactoryMap,
-                               Settings withClauseOptions) {
+                               Settings withClauseOptions,
+                               RamAccounting ramAccounting) {
         this.collectExpressions = collectExpressions;
         this.executor = executor;
         this.inputs = inputs;
+        this.inputTypes = inputTypes;
         this.outputNames = outputNames;
         this.outputFormat = outputFormat;
         this.compressionType = compressionType;
         this.uri = uri;
         this.fileOutputFactoryMap = fileOutputFactoryMap;
         this.withClauseOptions = withClauseOptions;
+        this.ramAccounting = ramAccounting;
     }
 
     @Override
@@ -86,11 +97,13 @@ public class FileWriterProjector implements Projector {
                 uri,
                 compressionType,
                 inputs,
+                inputTypes,
                 collectExpressions,
                 outputNames,
                 outputFormat,
                 fileOutputFactoryMap,
-                withClauseOptions
+                withClauseOptions,
+                ramAccounting
             )
         );
     }
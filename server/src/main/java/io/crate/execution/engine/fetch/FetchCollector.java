@@ -73,9 +73,14 @@ class FetchCollector {
 
     }
 
-    private void setNextDocId(ReaderContext readerContext, int doc) throws IOException {
+    private void setNextReader(ReaderContext readerContext) throws IOException {
         for (LuceneCollectorExpression<?> e : collectorExpressions) {
             e.setNextReader(readerContext);
+        }
+    }
+
+    private void setNextDocId(int doc) throws IOException {
+        for (LuceneCollectorExpression<?> e : collectorExpressions) {
             e.setNextDocId(doc);
         }
     }
@@ -87,6 +92,8 @@ class FetchCollector {
             var searcher = borrowed.item();
             List<LeafReaderContext> leaves = searcher.getTopReaderContext().leaves();
             var readerContexts = new IntObjectHashMap<ReaderContext>(leaves.size());
+            int currentReaderIndex = -1;
+            int lastDoc = -1;
             for (var cursor : docIds) {
                 int docId = cursor.value;
                 int readerIndex = readerIndex(docId, leaves);
@@ -105,7 +112,14 @@ class FetchCollector {
                         }
                         readerContexts.put(readerIndex, readerContext);
                     }
-                    setNextDocId(readerContext, docId - subReaderContext.docBase);
+                    int doc = docId - subReaderContext.docBase;
+                    // Doc values can only be iterated forward, the reader must be reset if the docIds aren't sorted
+                    if (readerIndex != currentReaderIndex || doc <= lastDoc) {
+                        setNextReader(readerContext);
+                        currentReaderIndex = readerIndex;
+                    }
+                    lastDoc = doc;
+                    setNextDocId(doc);
                 } catch (IOException e) {
                     throw new UncheckedIOException(e);
                 }
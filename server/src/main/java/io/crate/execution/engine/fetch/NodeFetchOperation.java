@@ -34,6 +34,7 @@ import java.util.function.Supplier;
 import org.elasticsearch.common.breaker.CircuitBreaker;
 import org.elasticsearch.index.IndexService;
 import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.VisibleForTesting;
 
 import com.carrotsearch.hppc.IntArrayList;
 import com.carrotsearch.hppc.IntObjectHashMap;
@@ -53,8 +54,18 @@ import io.crate.execution.support.ThreadPools;
 import io.crate.expression.reference.doc.lucene.LuceneCollectorExpression;
 import io.crate.expression.reference.doc.lucene.LuceneReferenceResolver;
 import io.crate.expression.symbol.Symbols;
+import io.crate.metadata.DocReferences;
 import io.crate.metadata.Reference;
 import io.crate.metadata.RelationName;
+import io.crate.types.BooleanType;
+import io.crate.types.ByteType;
+import io.crate.types.DoubleType;
+import io.crate.types.FloatType;
+import io.crate.types.IntegerType;
+import io.crate.types.LongType;
+import io.crate.types.ShortType;
+import io.crate.types.StringType;
+import io.crate.types.TimestampType;
 
 public class NodeFetchOperation {
 
@@ -87,7 +98,7 @@ public class NodeFetchOperation {
             );
             ArrayList<LuceneCollectorExpression<?>> exprs = new ArrayList<>(refs.size());
             for (Reference reference : refs) {
-                exprs.add(resolver.getImplementation(reference));
+                exprs.add(resolver.getImplementation(preferDocValues(reference)));
             }
             return new FetchCollector(
                 exprs,
@@ -100,6 +111,34 @@ public class NodeFetchOperation {
         }
     }
 
+    /**
+     * The references to fetch are source lookups ({@code _doc['x']}).
+     * Columns with lossless doc values are read from the doc values instead. This avoids reading and parsing the
+     * stored source, which is only loaded for the remaining columns, if there are any.
+     * The {@link FetchCollector} reads the documents ordered by doc id, so the doc values are iterated forward only.
+     */
+    @VisibleForTesting
+    static Reference preferDocValues(Reference reference) {
+        Reference ref = DocReferences.docRefToRegularRef(reference);
+        if (ref == reference || !ref.hasDocValues()) {
+            return reference;
+        }
+        return switch (ref.valueType().id()) {
+            case BooleanType.ID,
+                 ByteType.ID,
+                 ShortType.ID,
+                 IntegerType.ID,
+                 LongType.ID,
+                 TimestampType.ID_WITH_TZ,
+                 TimestampType.ID_WITHOUT_TZ,
+                 FloatType.ID,
+                 DoubleType.ID,
+                 StringType.ID -> ref;
+            // e.g. geo points lose precision, arrays lose their order and duplicates
+            default -> reference;
+        };
+    }
+
     public NodeFetchOperation(ThreadPoolExecutor executor,
                               int numProcessors,
                               JobsLogs jobsLogs,
@@ -21,22 +21,37 @@
 
 package io.crate.execution.engine.join;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.ListIterator;
 import java.util.concurrent.CompletionStage;
 import java.util.function.LongToIntFunction;
 import java.util.function.Predicate;
 import java.util.function.ToIntFunction;
 
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
 import com.carrotsearch.hppc.IntArrayList;
 
+import io.crate.common.CheckedSupplier;
+import io.crate.common.collections.Iterables;
+import io.crate.common.exceptions.Exceptions;
+import io.crate.common.io.IOUtils;
 import io.crate.data.BatchIterator;
+import io.crate.data.InMemoryBatchIterator;
 import io.crate.data.Paging;
 import io.crate.data.Row;
+import io.crate.data.RowN;
+import io.crate.data.SentinelRow;
 import io.crate.data.UnsafeArrayRow;
 import io.crate.data.breaker.RowAccounting;
 import io.crate.data.join.CombinedRow;
 import io.crate.data.join.JoinBatchIterator;
+import io.crate.execution.engine.spill.SpillFile;
+import io.crate.sql.tree.JoinType;
 import io.netty.util.collection.IntObjectHashMap;
 
 /**
@@ -80,12 +95,30 @@ import io.netty.util.collection.IntObjectHashMap;
  *     Repeat until both sides are all loaded and processed.
  * </pre>
  * <p>
+ * If a {@link HashJoinPartitions} supplier is given, the left side is not processed block by block once it turns out
+ * that it doesn't fit into a single block. Instead, a hybrid hash join is done:
+ * <pre>
+ *     - The first block is joined with the right side as usual. While iterating the right side,
+ *       all right rows are additionally written into hash partitions on disk.
+ *     - The remaining left rows are written into hash partitions on disk.
+ *     - Each pair of left/right partitions is joined, using the block based algorithm from above.
+ * </pre>
+ * This requires only one additional sequential pass over both inputs, instead of one pass
+ * over the right side for each block of the left side.
+ * <p>
  * The caller of the constructor needs to pass two functions {@link #hashBuilderForLeft} and {@link #hashBuilderForRight}.
  * Those functions are called on each row of the left and right side respectively and they return the hash value of
  * the relevant columns of the row.
  * <p>
  * This information is not available for the {@link HashJoinBatchIterator}, so it's the responsibility of the
  * caller to provide those two functions that operate on the left and right rows accordingly and return the hash values.
+ * <p>
+ * If a {@link RuntimeFilter.Builder} is given, it is fed with the rows of the first block. The filter is published
+ * when switching to the right side, if the first block contains the whole left side.
+ * <p>
+ * Semi and anti joins only emit left rows, each at most once. Left rows which found a match are removed from the
+ * buffer: For semi joins after they have been emitted, for anti joins instead of emitting them. Anti joins emit the
+ * rows remaining in the buffer once the right side is exhausted, like the non-matching rows of left outer joins.
  */
 public class HashJoinBatchIterator extends JoinBatchIterator<Row, Row, Row> {
 
@@ -100,7 +133,8 @@ public class HashJoinBatchIterator extends JoinBatchIterator<Row, Row, Row> {
     private final ToIntFunction<Row> hashBuilderForRight;
     private final LongToIntFunction calculateBlockSize;
     private final IntObjectHashMap<Values> buffer;
-    private final boolean emitNullValues;
+    private final JoinType joinType;
+    private final boolean emitNonMatchingLeftRows;
 
     private final UnsafeArrayRow unsafeArrayRow = new UnsafeArrayRow();
 
@@ -110,12 +144,24 @@ public class HashJoinBatchIterator extends JoinBatchIterator<Row, Row, Row> {
     private boolean leftBatchHasItems = false;
     private int numberOfLeftBatchesForBlock;
     private int numberOfLeftBatchesLoadedForBlock;
-    private Iterator<Object[]> leftMatchingRowsIterator;
+    private ListIterator<Object[]> leftMatchingRowsIterator;
     private IntArrayList nonMatchingKeys;
     private int nonMatchingKeysIdx = 0;
     private Iterator<Object[]> nonMatchValuesIterator;
     private Values leftMatchingRows;
 
+    @Nullable
+    private final CheckedSupplier<HashJoinPartitions, IOException> partitionsSupplier;
+    @Nullable
+    private HashJoinPartitions partitions;
+    private boolean spillingLeft = false;
+    private int partitionIdx = -1;
+    @Nullable
+    private BatchIterator<Row> partitionJoin;
+    @Nullable
+    private final RuntimeFilter.Builder runtimeFilter;
+    private volatile Throwable killed;
+
     public HashJoinBatchIterator(BatchIterator<Row> left,
                                  BatchIterator<Row> right,
                                  RowAccounting<Object[]> leftRowAccounting,
@@ -125,6 +171,64 @@ public class HashJoinBatchIterator extends JoinBatchIterator<Row, Row, Row> {
                                  ToIntFunction<Row> hashBuilderForRight,
                                  LongToIntFunction calculateBlockSize,
                                  boolean emitNullValues) {
+        this(
+            left,
+            right,
+            leftRowAccounting,
+            combiner,
+            joinCondition,
+            hashBuilderForLeft,
+            hashBuilderForRight,
+            calculateBlockSize,
+            emitNullValues,
+            null
+        );
+    }
+
+    /**
+     * @param partitionsSupplier if not null, the left and right side are spilled to disk
+     *                           once the left side doesn't fit into a single block.
+     */
+    public HashJoinBatchIterator(BatchIterator<Row> left,
+                                 BatchIterator<Row> right,
+                                 RowAccounting<Object[]> leftRowAccounting,
+                                 CombinedRow combiner,
+                                 Predicate<Row> joinCondition,
+                                 ToIntFunction<Row> hashBuilderForLeft,
+                                 ToIntFunction<Row> hashBuilderForRight,
+                                 LongToIntFunction calculateBlockSize,
+                                 boolean emitNullValues,
+                                 @Nullable CheckedSupplier<HashJoinPartitions, IOException> partitionsSupplier) {
+        this(
+            left,
+            right,
+            leftRowAccounting,
+            combiner,
+            joinCondition,
+            hashBuilderForLeft,
+            hashBuilderForRight,
+            calculateBlockSize,
+            emitNullValues ? JoinType.LEFT : JoinType.INNER,
+            partitionsSupplier,
+            null
+        );
+    }
+
+    /**
+     * @param joinType one of INNER, LEFT, SEMI or ANTI.
+     * @param runtimeFilter if not null, builds a runtime filter of the join keys of the left side.
+     */
+    public HashJoinBatchIterator(BatchIterator<Row> left,
+                                 BatchIterator<Row> right,
+                                 RowAccounting<Object[]> leftRowAccounting,
+                                 CombinedRow combiner,
+                                 Predicate<Row> joinCondition,
+                                 ToIntFunction<Row> hashBuilderForLeft,
+                                 ToIntFunction<Row> hashBuilderForRight,
+                                 LongToIntFunction calculateBlockSize,
+                                 JoinType joinType,
+                                 @Nullable CheckedSupplier<HashJoinPartitions, IOException> partitionsSupplier,
+                                 @Nullable RuntimeFilter.Builder runtimeFilter) {
         super(left, right, combiner);
         this.leftRowAccounting = leftRowAccounting;
         this.joinCondition = joinCondition;
@@ -136,7 +240,10 @@ public class HashJoinBatchIterator extends JoinBatchIterator<Row, Row, Row> {
         resetBuffer();
         numberOfLeftBatchesLoadedForBlock = 0;
         this.activeIt = left;
-        this.emitNullValues = emitNullValues;
+        this.joinType = joinType;
+        this.emitNonMatchingLeftRows = joinType == JoinType.LEFT || joinType == JoinType.ANTI;
+        this.partitionsSupplier = partitionsSupplier;
+        this.runtimeFilter = runtimeFilter;
     }
 
     @Override
@@ -146,6 +253,8 @@ public class HashJoinBatchIterator extends JoinBatchIterator<Row, Row, Row> {
 
     @Override
     public void moveToStart() {
+        raiseIfKilled();
+        closePartitions();
         left.moveToStart();
         right.moveToStart();
         activeIt = left;
@@ -167,13 +276,16 @@ public class HashJoinBatchIterator extends JoinBatchIterator<Row, Row, Row> {
 
     @Override
     public boolean moveNext() {
+        if (spillingLeft || partitionIdx >= 0) {
+            return moveNextInPartitions();
+        }
         while (buildBufferAndMatchRight() == false) {
             if (right.allLoaded() && leftBatchHasItems == false && left.allLoaded()) {
                 // both sides are fully loaded
-                if (emitNullValues) {
+                if (emitNonMatchingLeftRows) {
                     extractNonMatchingKeys();
-                    if (hasMoreNonMatchingKeys()) {
-                        return emitNullValuesPairs();
+                    if (emitNonMatchingLeftRow()) {
+                        return true;
                     }
                 }
                 // we are fully done
@@ -183,12 +295,22 @@ public class HashJoinBatchIterator extends JoinBatchIterator<Row, Row, Row> {
                 return false;
             } else if (right.allLoaded()) {
                 // one batch completed
-                if (emitNullValues) {
+                if (emitNonMatchingLeftRows) {
                     extractNonMatchingKeys();
-                    if (hasMoreNonMatchingKeys()) {
-                        return emitNullValuesPairs();
+                    if (emitNonMatchingLeftRow()) {
+                        return true;
                     }
                 }
+                if (partitions != null) {
+                    // The first block has been joined with the whole right side, which is now also spilled to disk.
+                    // The remaining left rows are spilled as well and joined partition by partition.
+                    resetBuffer();
+                    nonMatchingKeys = null;
+                    nonMatchingKeysIdx = 0;
+                    activeIt = left;
+                    spillingLeft = true;
+                    return moveNextInPartitions();
+                }
                 // get ready for the next batch
                 right.moveToStart();
                 activeIt = left;
@@ -204,36 +326,41 @@ public class HashJoinBatchIterator extends JoinBatchIterator<Row, Row, Row> {
         return true;
     }
 
-    private boolean hasMoreNonMatchingKeys() {
-        return nonMatchingKeysIdx < nonMatchingKeys.size();
-    }
-
     private void extractNonMatchingKeys() {
         if (nonMatchingKeys == null) {
             nonMatchingKeys = new IntArrayList();
             for (var values : buffer.entries()) {
-                if (values.value().matched == false) {
+                Values value = values.value();
+                if (value.matched == false && value.numRemoved < value.items.size()) {
                     nonMatchingKeys.add(values.key());
                 }
             }
         }
     }
 
-    private boolean emitNullValuesPairs() {
-        if (nonMatchValuesIterator == null) {
-            var key = nonMatchingKeys.get(nonMatchingKeysIdx);
-            nonMatchValuesIterator = buffer.get(key).items.iterator();
-        }
-
-        combiner.setLeft(unsafeArrayRow.cells(nonMatchValuesIterator.next()));
-        combiner.nullRight();
-
-        if (nonMatchValuesIterator.hasNext() == false) {
+    /**
+     * Emits the next left row of the non-matching keys paired with nulls for the right side.
+     * @return false if all rows have been emitted
+     */
+    private boolean emitNonMatchingLeftRow() {
+        while (nonMatchingKeysIdx < nonMatchingKeys.size()) {
+            if (nonMatchValuesIterator == null) {
+                var key = nonMatchingKeys.get(nonMatchingKeysIdx);
+                nonMatchValuesIterator = buffer.get(key).items.iterator();
+            }
+            while (nonMatchValuesIterator.hasNext()) {
+                Object[] row = nonMatchValuesIterator.next();
+                // Rows of anti joins which found a match have been removed
+                if (row != null) {
+                    combiner.setLeft(unsafeArrayRow.cells(row));
+                    combiner.nullRight();
+                    return true;
+                }
+            }
             nonMatchingKeysIdx++;
             nonMatchValuesIterator = null;
         }
-
-        return true;
+        return false;
     }
 
     private void resetBuffer() {
@@ -260,6 +387,9 @@ public class HashJoinBatchIterator extends JoinBatchIterator<Row, Row, Row> {
                 numItems++;
                 int hash = hashBuilderForLeft.applyAsInt(unsafeArrayRow.cells(leftRow));
                 addToBuffer(leftRow, hash);
+                if (runtimeFilter != null && runtimeFilter.isDone() == false) {
+                    runtimeFilter.add(unsafeArrayRow);
+                }
                 if (numberOfRowsInBuffer == blockSize) {
                     break;
                 }
@@ -272,37 +402,51 @@ public class HashJoinBatchIterator extends JoinBatchIterator<Row, Row, Row> {
             }
 
             if (mustSwitchToRight()) {
+                if (runtimeFilter != null && runtimeFilter.isDone() == false) {
+                    if (left.allLoaded() && leftBatchHasItems == false) {
+                        runtimeFilter.finish();
+                    } else {
+                        // A filter of only a part of the left side would drop matching right rows
+                        runtimeFilter.discard();
+                    }
+                }
+                if (partitionsSupplier != null && partitions == null && left.allLoaded() == false) {
+                    // The left side doesn't fit into a single block, spill instead of re-scanning the right side per block
+                    try {
+                        partitions = partitionsSupplier.get();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
                 activeIt = right;
             }
         }
 
         // In case of multiple matches on the left side (duplicate values or hash collisions)
         if (leftMatchingRowsIterator != null && findMatchingRows()) {
-            if (emitNullValues) {
-                // We found matching rows, therefore we mark the values to emit
-                // non-matching values later with null value pairs
-                if (leftMatchingRows.matched == false) {
-                    leftMatchingRows.matched = true;
-                }
-            }
             return true;
         }
 
         leftMatchingRowsIterator = null;
         while (right.moveNext()) {
             int rightHash = hashBuilderForRight.applyAsInt(right.currentElement());
+            if (partitions != null) {
+                try {
+                    partitions.addRight(rightHash, right.currentElement().materialize());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
             leftMatchingRows = buffer.get(rightHash);
             if (leftMatchingRows != null) {
-                leftMatchingRowsIterator = leftMatchingRows.items.iterator();
+                if (joinType == JoinType.SEMI && leftMatchingRows.numRemoved == leftMatchingRows.items.size()) {
+                    // All rows have been emitted already, avoid iterating them again on the next probe
+                    buffer.remove(rightHash);
+                    continue;
+                }
+                leftMatchingRowsIterator = leftMatchingRows.items.listIterator();
                 combiner.setRight(right.currentElement());
                 if (findMatchingRows()) {
-                    if (emitNullValues) {
-                        // We found matching rows, therefore we mark the values to emit
-                        // non-matching values later with null value pairs
-                        if (leftMatchingRows.matched == false) {
-                            leftMatchingRows.matched = true;
-                        }
-                    }
                     return true;
                 }
             }
@@ -312,6 +456,90 @@ public class HashJoinBatchIterator extends JoinBatchIterator<Row, Row, Row> {
         return false;
     }
 
+    private boolean moveNextInPartitions() {
+        raiseIfKilled();
+        assert partitions != null : "partitions must be available if the join continues on the spilled partitions";
+        if (spillingLeft) {
+            try {
+                while (left.moveNext()) {
+                    Object[] leftRow = left.currentElement().materialize();
+                    partitions.addLeft(hashBuilderForLeft.applyAsInt(unsafeArrayRow.cells(leftRow)), leftRow);
+                }
+                if (left.allLoaded() == false) {
+                    return false;
+                }
+                partitions.finishWriting();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            spillingLeft = false;
+            partitionIdx = 0;
+        }
+        while (partitionIdx < partitions.numPartitions()) {
+            if (partitionJoin == null) {
+                partitionJoin = new HashJoinBatchIterator(
+                    spilledRows(partitions.left(partitionIdx)),
+                    spilledRows(partitions.right(partitionIdx)),
+                    leftRowAccounting,
+                    (CombinedRow) combiner,
+                    joinCondition,
+                    hashBuilderForLeft,
+                    hashBuilderForRight,
+                    calculateBlockSize,
+                    joinType,
+                    null,
+                    null
+                );
+            }
+            if (partitionJoin.moveNext()) {
+                return true;
+            }
+            partitionJoin.close();
+            partitionJoin = null;
+            try {
+                partitions.closePartition(partitionIdx);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            partitionIdx++;
+        }
+        return false;
+    }
+
+    private static BatchIterator<Row> spilledRows(SpillFile spillFile) {
+        return InMemoryBatchIterator.of(Iterables.transform(spillFile.rows(), RowN::new), SentinelRow.SENTINEL, true);
+    }
+
+    private void closePartitions() {
+        if (partitionJoin != null) {
+            partitionJoin.close();
+            partitionJoin = null;
+        }
+        IOUtils.closeWhileHandlingException(partitions);
+        partitions = null;
+        spillingLeft = false;
+        partitionIdx = -1;
+    }
+
+    private void raiseIfKilled() {
+        if (killed != null) {
+            Exceptions.rethrowUnchecked(killed);
+        }
+    }
+
+    @Override
+    public void close() {
+        killed = BatchIterator.CLOSED;
+        closePartitions();
+        super.close();
+    }
+
+    @Override
+    public void kill(@NotNull Throwable throwable) {
+        killed = throwable;
+        super.kill(throwable);
+    }
+
     private void addToBuffer(Object[] currentRow, int hash) {
         Values existingRows = buffer.get(hash);
         if (existingRows == null) {
@@ -324,15 +552,39 @@ public class HashJoinBatchIterator extends JoinBatchIterator<Row, Row, Row> {
 
     private boolean findMatchingRows() {
         while (leftMatchingRowsIterator.hasNext()) {
-            leftRow.cells(leftMatchingRowsIterator.next());
+            Object[] cells = leftMatchingRowsIterator.next();
+            if (cells == null) {
+                continue;
+            }
+            leftRow.cells(cells);
             combiner.setLeft(leftRow);
             if (joinCondition.test(combiner.currentElement())) {
-                return true;
+                switch (joinType) {
+                    case LEFT:
+                        // mark the values to emit non-matching values later with null value pairs
+                        leftMatchingRows.matched = true;
+                        return true;
+                    case SEMI:
+                        // emit the left row only once
+                        removeCurrentLeftMatchingRow();
+                        return true;
+                    case ANTI:
+                        removeCurrentLeftMatchingRow();
+                        break;
+                    default:
+                        return true;
+                }
             }
         }
         return false;
     }
 
+    private void removeCurrentLeftMatchingRow() {
+        // Set to null instead of removing it, to keep the removal O(1) for many duplicate values
+        leftMatchingRowsIterator.set(null);
+        leftMatchingRows.numRemoved++;
+    }
+
     private boolean mustSwitchToRight() {
         return left.allLoaded()
                || numberOfRowsInBuffer == blockSize
@@ -350,6 +602,7 @@ public class HashJoinBatchIterator extends JoinBatchIterator<Row, Row, Row> {
 
         ArrayList<Object[]> items = new ArrayList<>();
         boolean matched = false;
+        int numRemoved = 0;
 
     }
 }
@@ -21,13 +21,16 @@
 
 package io.crate.execution.engine.join;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Predicate;
 import java.util.function.ToIntFunction;
 
 import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.jetbrains.annotations.Nullable;
 
+import io.crate.common.CheckedSupplier;
 import io.crate.concurrent.CompletionListenable;
 import io.crate.data.BatchIterator;
 import io.crate.data.CapturingRowConsumer;
@@ -40,6 +43,7 @@ import io.crate.execution.engine.collect.CollectExpression;
 import io.crate.expression.InputFactory;
 import io.crate.expression.symbol.Symbol;
 import io.crate.metadata.TransactionContext;
+import io.crate.sql.tree.JoinType;
 
 public class HashJoinOperation implements CompletionListenable {
 
@@ -58,7 +62,44 @@ public class HashJoinOperation implements CompletionListenable {
                              InputFactory inputFactory,
                              CircuitBreaker circuitBreaker,
                              long estimatedRowSizeForLeft,
-                             boolean emitNullValues) {
+                             boolean emitNullValues,
+                             @Nullable CheckedSupplier<HashJoinPartitions, IOException> partitionsSupplier) {
+        this(
+            numLeftCols,
+            numRightCols,
+            nlResultConsumer,
+            joinPredicate,
+            joinLeftInputs,
+            joinRightInputs,
+            rowAccounting,
+            txnCtx,
+            inputFactory,
+            circuitBreaker,
+            estimatedRowSizeForLeft,
+            emitNullValues ? JoinType.LEFT : JoinType.INNER,
+            partitionsSupplier,
+            null
+        );
+    }
+
+    /**
+     * @param joinType one of INNER, LEFT, SEMI or ANTI.
+     * @param runtimeFilter if not null, builds a runtime filter of the join keys of the left side.
+     */
+    public HashJoinOperation(int numLeftCols,
+                             int numRightCols,
+                             RowConsumer nlResultConsumer,
+                             Predicate<Row> joinPredicate,
+                             List<Symbol> joinLeftInputs,
+                             List<Symbol> joinRightInputs,
+                             RowAccounting<Object[]> rowAccounting,
+                             TransactionContext txnCtx,
+                             InputFactory inputFactory,
+                             CircuitBreaker circuitBreaker,
+                             long estimatedRowSizeForLeft,
+                             JoinType joinType,
+                             @Nullable CheckedSupplier<HashJoinPartitions, IOException> partitionsSupplier,
+                             @Nullable RuntimeFilter.Builder runtimeFilter) {
 
         this.resultConsumer = nlResultConsumer;
         this.leftConsumer = new CapturingRowConsumer(nlResultConsumer.requiresScroll(), nlResultConsumer.completionFuture());
@@ -82,7 +123,9 @@ public class HashJoinOperation implements CompletionListenable {
                                 circuitBreaker,
                                 estimatedRowSizeForLeft
                             ),
-                            emitNullValues
+                            joinType,
+                            partitionsSupplier,
+                            runtimeFilter
                         );
                         nlResultConsumer.accept(joinIterator, null);
                     } catch (Exception e) {
@@ -135,7 +178,9 @@ public class HashJoinOperation implements CompletionListenable {
                                                              ToIntFunction<Row> hashBuilderForRight,
                                                              RowAccounting<Object[]> rowAccounting,
                                                              RamBlockSizeCalculator blockSizeCalculator,
-                                                             boolean emitNullValues) {
+                                                             JoinType joinType,
+                                                             @Nullable CheckedSupplier<HashJoinPartitions, IOException> partitionsSupplier,
+                                                             @Nullable RuntimeFilter.Builder runtimeFilter) {
         CombinedRow combiner = new CombinedRow(leftNumCols, rightNumCols);
         return new HashJoinBatchIterator(
             left,
@@ -146,6 +191,8 @@ public class HashJoinOperation implements CompletionListenable {
             hashBuilderForLeft,
             hashBuilderForRight,
             blockSizeCalculator,
-            emitNullValues);
+            joinType,
+            partitionsSupplier,
+            runtimeFilter);
     }
 }
@@ -0,0 +1,122 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.engine.join;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+import com.carrotsearch.hppc.BitMixer;
+
+import io.crate.Streamer;
+import io.crate.common.io.IOUtils;
+import io.crate.execution.engine.spill.SpillFile;
+import io.crate.execution.engine.spill.SpillService;
+
+/**
+ * Hash partitions of the left and right side of a {@link HashJoinBatchIterator} which are spilled to disk.
+ * <p>
+ * Rows are assigned to a partition based on the hash of their join condition inputs. Rows of both sides with equal
+ * join keys therefore always end up in the same partition number and each pair of partitions can be joined
+ * independently of the other partitions.
+ */
+public final class HashJoinPartitions implements Closeable {
+
+    /**
+     * Must be a power of two
+     */
+    static final int NUM_PARTITIONS = 32;
+
+    private final SpillFile[] leftPartitions;
+    private final SpillFile[] rightPartitions;
+
+    public static HashJoinPartitions create(SpillService spillService,
+                                            Streamer<?>[] leftStreamers,
+                                            Streamer<?>[] rightStreamers) throws IOException {
+        SpillFile[] leftPartitions = new SpillFile[NUM_PARTITIONS];
+        SpillFile[] rightPartitions = new SpillFile[NUM_PARTITIONS];
+        try {
+            for (int i = 0; i < NUM_PARTITIONS; i++) {
+                leftPartitions[i] = spillService.newSpillFile("hash-join-left-" + i + "-", leftStreamers);
+                rightPartitions[i] = spillService.newSpillFile("hash-join-right-" + i + "-", rightStreamers);
+            }
+        } catch (IOException e) {
+            IOUtils.closeWhileHandlingException(leftPartitions);
+            IOUtils.closeWhileHandlingException(rightPartitions);
+            throw e;
+        }
+        return new HashJoinPartitions(leftPartitions, rightPartitions);
+    }
+
+    private HashJoinPartitions(SpillFile[] leftPartitions, SpillFile[] rightPartitions) {
+        this.leftPartitions = leftPartitions;
+        this.rightPartitions = rightPartitions;
+    }
+
+    static int partition(int hash) {
+        // Mix the hash, the lower bits are also used to address the buckets of the in-memory hash map
+        return BitMixer.mix32(hash) & (NUM_PARTITIONS - 1);
+    }
+
+    public void addLeft(int hash, Object[] row) throws IOException {
+        leftPartitions[partition(hash)].write(row);
+    }
+
+    public void addRight(int hash, Object[] row) throws IOException {
+        rightPartitions[partition(hash)].write(row);
+    }
+
+    public void finishWriting() throws IOException {
+        for (int i = 0; i < NUM_PARTITIONS; i++) {
+            leftPartitions[i].finishWriting();
+            rightPartitions[i].finishWriting();
+        }
+    }
+
+    public int numPartitions() {
+        return NUM_PARTITIONS;
+    }
+
+    public SpillFile left(int partition) {
+        return leftPartitions[partition];
+    }
+
+    public SpillFile right(int partition) {
+        return rightPartitions[partition];
+    }
+
+    /**
+     * Deletes the files of a partition once it has been joined.
+     */
+    public void closePartition(int partition) throws IOException {
+        IOUtils.close(leftPartitions[partition], rightPartitions[partition]);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            IOUtils.close(leftPartitions);
+        } finally {
+            IOUtils.close(rightPartitions);
+        }
+    }
+}
@@ -0,0 +1,293 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.engine.join;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+import org.jetbrains.annotations.VisibleForTesting;
+
+import com.carrotsearch.hppc.BitMixer;
+import com.carrotsearch.hppc.IntHashSet;
+import com.carrotsearch.hppc.cursors.IntCursor;
+
+import io.crate.data.Input;
+import io.crate.data.Row;
+import io.crate.execution.engine.collect.CollectExpression;
+
+/**
+ * A filter on the join keys of the build side (left) of a hash join, used to skip
+ * rows of the probe side (right) which cannot have a join partner while they are collected.
+ *
+ * <p>
+ * It consists of a bloom filter over the hash of all join keys and the min/max
+ * value of each integral join key. The filter has no false negatives: Every row
+ * which matches a row of the build side passes it. Rows with a null join key are
+ * rejected, as the equality join condition never matches them.
+ * </p>
+ *
+ * <p>
+ * A distributed hash join only has a part of the build side on each node, so the
+ * filters of all nodes must be combined via {@link #union(RuntimeFilter)} before
+ * they can be applied.
+ * </p>
+ */
+public final class RuntimeFilter implements Predicate<Row>, Writeable {
+
+    /**
+     * Upper limit of the bloom filter size, 1MB.
+     * Filters of larger build sides wouldn't be selective enough to be worth shipping.
+     */
+    @VisibleForTesting
+    static final int MAX_NUM_BITS = 1 << 23;
+
+    private static final int BITS_PER_KEY = 10;
+    private static final int NUM_HASHES = 3;
+
+    private final int[] keyPositions;
+    private final long[] bits;
+    private final long[] mins;
+    private final long[] maxs;
+
+    private RuntimeFilter(int[] keyPositions, long[] bits, long[] mins, long[] maxs) {
+        assert Integer.bitCount(bits.length) == 1 : "Number of words of the bloom filter must be a power of two";
+        this.keyPositions = keyPositions;
+        this.bits = bits;
+        this.mins = mins;
+        this.maxs = maxs;
+    }
+
+    public RuntimeFilter(StreamInput in) throws IOException {
+        this(in.readVIntArray(), in.readLongArray(), in.readLongArray(), in.readLongArray());
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeVIntArray(keyPositions);
+        out.writeLongArray(bits);
+        out.writeLongArray(mins);
+        out.writeLongArray(maxs);
+    }
+
+    /**
+     * @param row a row of the probe side, containing the join keys at the positions
+     *            given by the {@link Builder}.
+     * @return false if the row cannot match any row of the build side.
+     */
+    @Override
+    public boolean test(Row row) {
+        int hash = 0;
+        for (int i = 0; i < keyPositions.length; i++) {
+            Object value = row.get(keyPositions[i]);
+            if (value == null) {
+                return false;
+            }
+            if (isIntegral(value)) {
+                long longValue = ((Number) value).longValue();
+                if (longValue < mins[i] || longValue > maxs[i]) {
+                    return false;
+                }
+            }
+            hash = 31 * hash + hash(value);
+        }
+        return mightContain(hash);
+    }
+
+    /**
+     * Combines the filters of two parts of the build side. If the bloom filters differ in size,
+     * the larger one is folded to the size of the smaller one.
+     */
+    public RuntimeFilter union(RuntimeFilter other) {
+        assert keyPositions.length == other.keyPositions.length : "Filters must be on the same keys";
+        long[] small = bits.length <= other.bits.length ? bits : other.bits;
+        long[] large = small == bits ? other.bits : bits;
+        long[] newBits = small.clone();
+        for (int i = 0; i < large.length; i++) {
+            newBits[i & (newBits.length - 1)] |= large[i];
+        }
+        long[] newMins = new long[mins.length];
+        long[] newMaxs = new long[maxs.length];
+        for (int i = 0; i < mins.length; i++) {
+            newMins[i] = Math.min(mins[i], other.mins[i]);
+            newMaxs[i] = Math.max(maxs[i], other.maxs[i]);
+        }
+        return new RuntimeFilter(keyPositions, newBits, newMins, newMaxs);
+    }
+
+    @VisibleForTesting
+    int numBits() {
+        return bits.length * Long.SIZE;
+    }
+
+    private boolean mightContain(int hash) {
+        long mixed = BitMixer.mix64(hash);
+        int hash1 = (int) mixed;
+        int hash2 = (int) (mixed >>> 32) | 1;
+        int mask = bits.length * Long.SIZE - 1;
+        for (int i = 0; i < NUM_HASHES; i++) {
+            int bit = (hash1 + i * hash2) & mask;
+            if ((bits[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void set(long[] bits, int hash) {
+        long mixed = BitMixer.mix64(hash);
+        int hash1 = (int) mixed;
+        int hash2 = (int) (mixed >>> 32) | 1;
+        int mask = bits.length * Long.SIZE - 1;
+        for (int i = 0; i < NUM_HASHES; i++) {
+            int bit = (hash1 + i * hash2) & mask;
+            bits[bit >>> 6] |= 1L << bit;
+        }
+    }
+
+    private static boolean isIntegral(Object value) {
+        return value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte;
+    }
+
+    /**
+     * Hash of a join key which doesn't depend on the concrete number class of a value,
+     * so that the build and probe side agree on it regardless of how the value was read.
+     */
+    private static int hash(Object value) {
+        if (isIntegral(value)) {
+            return Long.hashCode(((Number) value).longValue());
+        }
+        if (value instanceof Float || value instanceof Double) {
+            return Double.hashCode(((Number) value).doubleValue());
+        }
+        return value.hashCode();
+    }
+
+    /**
+     * Builds a {@link RuntimeFilter} from the rows of the build side of a hash join.
+     */
+    public static final class Builder {
+
+        private final List<? extends Input<?>> keys;
+        private final List<? extends CollectExpression<Row, ?>> expressions;
+        private final int[] probeKeyPositions;
+        private final int numPartials;
+        private final Consumer<RuntimeFilter> publisher;
+        private final IntHashSet hashes = new IntHashSet();
+        private final long[] mins;
+        private final long[] maxs;
+        private boolean done = false;
+
+        /**
+         * @param keys the join keys of the build side, evaluated using {@code expressions}.
+         * @param probeKeyPositions the positions of the join keys in the rows of the probe side.
+         * @param numPartials the number of builders whose filters are combined, used
+         *                    to size the bloom filter for the whole build side.
+         * @param publisher receives the filter once all rows have been added.
+         */
+        public Builder(List<? extends Input<?>> keys,
+                       List<? extends CollectExpression<Row, ?>> expressions,
+                       int[] probeKeyPositions,
+                       int numPartials,
+                       Consumer<RuntimeFilter> publisher) {
+            assert keys.size() == probeKeyPositions.length : "Build and probe side must have the same number of keys";
+            this.keys = keys;
+            this.expressions = expressions;
+            this.probeKeyPositions = probeKeyPositions;
+            this.numPartials = numPartials;
+            this.publisher = publisher;
+            this.mins = new long[keys.size()];
+            this.maxs = new long[keys.size()];
+            Arrays.fill(mins, Long.MAX_VALUE);
+            Arrays.fill(maxs, Long.MIN_VALUE);
+        }
+
+        public boolean isDone() {
+            return done;
+        }
+
+        public void add(Row row) {
+            if (done) {
+                return;
+            }
+            for (int i = 0; i < expressions.size(); i++) {
+                expressions.get(i).setNextRow(row);
+            }
+            int hash = 0;
+            for (int i = 0; i < keys.size(); i++) {
+                Object value = keys.get(i).value();
+                if (value == null) {
+                    // Can't match any row of the probe side
+                    return;
+                }
+                if (isIntegral(value)) {
+                    long longValue = ((Number) value).longValue();
+                    mins[i] = Math.min(mins[i], longValue);
+                    maxs[i] = Math.max(maxs[i], longValue);
+                } else {
+                    mins[i] = Long.MIN_VALUE;
+                    maxs[i] = Long.MAX_VALUE;
+                }
+                hash = 31 * hash + hash(value);
+            }
+            hashes.add(hash);
+            if ((long) hashes.size() * BITS_PER_KEY * numPartials > MAX_NUM_BITS) {
+                discard();
+            }
+        }
+
+        /**
+         * Builds the filter from the added rows and passes it to the publisher.
+         * Must only be called if all rows of the build side have been added.
+         */
+        public void finish() {
+            if (done) {
+                return;
+            }
+            done = true;
+            long numBits = Math.max(Long.SIZE, (long) hashes.size() * BITS_PER_KEY * numPartials);
+            // Next power of two of the required number of words, for masking instead of modulo
+            int numWords = Math.max(1, Integer.highestOneBit((int) ((numBits - 1) / Long.SIZE)) << 1);
+            long[] bits = new long[numWords];
+            for (IntCursor cursor : hashes) {
+                set(bits, cursor.value);
+            }
+            hashes.release();
+            publisher.accept(new RuntimeFilter(probeKeyPositions, bits, mins, maxs));
+        }
+
+        /**
+         * Stops building the filter, e.g. because the build side doesn't fit into memory
+         * and a filter of a part of the build side would reject matching rows.
+         */
+        public void discard() {
+            done = true;
+            hashes.release();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.engine.join;
+
+import java.io.IOException;
+import java.util.UUID;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.transport.TransportRequest;
+
+public class RuntimeFilterRequest extends TransportRequest {
+
+    private final UUID jobId;
+    private final int collectPhaseId;
+    private final int numPartials;
+    private final RuntimeFilter filter;
+
+    public RuntimeFilterRequest(UUID jobId, int collectPhaseId, int numPartials, RuntimeFilter filter) {
+        this.jobId = jobId;
+        this.collectPhaseId = collectPhaseId;
+        this.numPartials = numPartials;
+        this.filter = filter;
+    }
+
+    public RuntimeFilterRequest(StreamInput in) throws IOException {
+        super(in);
+        jobId = new UUID(in.readLong(), in.readLong());
+        collectPhaseId = in.readVInt();
+        numPartials = in.readVInt();
+        filter = new RuntimeFilter(in);
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        super.writeTo(out);
+        out.writeLong(jobId.getMostSignificantBits());
+        out.writeLong(jobId.getLeastSignificantBits());
+        out.writeVInt(collectPhaseId);
+        out.writeVInt(numPartials);
+        filter.writeTo(out);
+    }
+
+    public UUID jobId() {
+        return jobId;
+    }
+
+    public int collectPhaseId() {
+        return collectPhaseId;
+    }
+
+    /**
+     * @return the number of nodes executing the hash join, each sending the filter of its part of the build side.
+     */
+    public int numPartials() {
+        return numPartials;
+    }
+
+    public RuntimeFilter filter() {
+        return filter;
+    }
+}
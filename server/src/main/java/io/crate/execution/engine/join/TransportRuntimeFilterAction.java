@@ -0,0 +1,103 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.engine.join;
+
+import static java.util.concurrent.CompletableFuture.completedFuture;
+
+import java.util.UUID;
+
+import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.cluster.node.DiscoveryNodes;
+import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.transport.EmptyTransportResponseHandler;
+import org.elasticsearch.transport.TransportResponse;
+import org.elasticsearch.transport.TransportService;
+
+import io.crate.execution.dsl.phases.RuntimeFilterTarget;
+import io.crate.execution.engine.collect.CollectTask;
+import io.crate.execution.jobs.RootTask;
+import io.crate.execution.jobs.Task;
+import io.crate.execution.jobs.TasksService;
+import io.crate.execution.support.NodeActionRequestHandler;
+
+/**
+ * Sends the {@link RuntimeFilter} of the build side of a hash join to the nodes
+ * collecting the probe side, where it is applied to the running {@link CollectTask}.
+ *
+ * <p>
+ * Runtime filters are an optimization only: Filters for collect tasks which are
+ * already finished or not known on a node are dropped, and failures are ignored.
+ * </p>
+ */
+@Singleton
+public final class TransportRuntimeFilterAction {
+
+    private static final String NAME = "internal:crate:sql/join/runtime_filter";
+
+    private final TransportService transportService;
+    private final ClusterService clusterService;
+
+    @Inject
+    public TransportRuntimeFilterAction(TransportService transportService,
+                                        ClusterService clusterService,
+                                        TasksService tasksService) {
+        this.transportService = transportService;
+        this.clusterService = clusterService;
+
+        transportService.registerRequestHandler(
+            NAME,
+            ThreadPool.Names.SAME, // cheap operation
+            RuntimeFilterRequest::new,
+            // Explicit generic is required for eclipse JDT, otherwise it won't compile
+            new NodeActionRequestHandler<RuntimeFilterRequest, TransportResponse>(
+                req -> {
+                    RootTask rootTask = tasksService.getTaskOrNull(req.jobId());
+                    if (rootTask != null) {
+                        Task task = rootTask.getTaskOrNull(req.collectPhaseId());
+                        if (task instanceof CollectTask collectTask) {
+                            collectTask.addRuntimeFilter(req.filter(), req.numPartials());
+                        }
+                    }
+                    return completedFuture(TransportResponse.Empty.INSTANCE);
+                }
+            )
+        );
+    }
+
+    /**
+     * @param numPartials number of nodes executing the hash join, each publishing a filter.
+     */
+    public void publish(UUID jobId, RuntimeFilterTarget target, int numPartials, RuntimeFilter filter) {
+        DiscoveryNodes nodes = clusterService.state().nodes();
+        RuntimeFilterRequest request = new RuntimeFilterRequest(jobId, target.collectPhaseId(), numPartials, filter);
+        for (String nodeId : target.nodeIds()) {
+            DiscoveryNode node = nodes.get(nodeId);
+            if (node != null) {
+                transportService.sendRequest(node, NAME, request, EmptyTransportResponseHandler.INSTANCE_SAME);
+            }
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.parquet;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Constants of the <a href="https://parquet.apache.org/docs/file-format/">Parquet file format</a>
+ * as defined in parquet.thrift and the codecs supported by {@link ParquetReader} and {@link ParquetWriter}.
+ */
+public final class ParquetFormat {
+
+    static final byte[] MAGIC = {'P', 'A', 'R', '1'};
+
+    // Physical types
+    static final int BOOLEAN = 0;
+    static final int INT32 = 1;
+    static final int INT64 = 2;
+    static final int INT96 = 3;
+    static final int FLOAT = 4;
+    static final int DOUBLE = 5;
+    static final int BYTE_ARRAY = 6;
+    static final int FIXED_LEN_BYTE_ARRAY = 7;
+
+    // Field repetition types
+    static final int REQUIRED = 0;
+    static final int OPTIONAL = 1;
+    static final int REPEATED = 2;
+
+    // Converted types
+    static final int CONVERTED_UTF8 = 0;
+    static final int CONVERTED_ENUM = 4;
+    static final int CONVERTED_DECIMAL = 5;
+    static final int CONVERTED_DATE = 6;
+    static final int CONVERTED_TIMESTAMP_MILLIS = 9;
+    static final int CONVERTED_TIMESTAMP_MICROS = 10;
+    static final int CONVERTED_INT_8 = 15;
+    static final int CONVERTED_INT_16 = 16;
+    static final int CONVERTED_INT_32 = 17;
+    static final int CONVERTED_INT_64 = 18;
+    static final int CONVERTED_JSON = 19;
+
+    // Fields of the LogicalType union
+    static final int LOGICAL_STRING = 1;
+    static final int LOGICAL_ENUM = 4;
+    static final int LOGICAL_DECIMAL = 5;
+    static final int LOGICAL_DATE = 6;
+    static final int LOGICAL_TIMESTAMP = 8;
+    static final int LOGICAL_INTEGER = 10;
+    static final int LOGICAL_JSON = 12;
+    static final int LOGICAL_UUID = 14;
+
+    // Fields of the TimeUnit union
+    static final int TIME_UNIT_MILLIS = 1;
+    static final int TIME_UNIT_MICROS = 2;
+    static final int TIME_UNIT_NANOS = 3;
+
+    // Encodings
+    static final int PLAIN = 0;
+    static final int PLAIN_DICTIONARY = 2;
+    static final int RLE = 3;
+    static final int RLE_DICTIONARY = 8;
+
+    // Page types
+    static final int DATA_PAGE = 0;
+    static final int DICTIONARY_PAGE = 2;
+    static final int DATA_PAGE_V2 = 3;
+
+    // Compression codecs
+    public static final int UNCOMPRESSED = 0;
+    public static final int SNAPPY = 1;
+    public static final int GZIP = 2;
+
+    private ParquetFormat() {
+    }
+
+    static byte[] decompress(int codec, byte[] data, int offset, int length, int uncompressedSize) throws IOException {
+        if (uncompressedSize < 0 || length < 0 || length > data.length - offset) {
+            throw new IOException("Invalid parquet page: compressed size " + length + ", uncompressed size "
+                + uncompressedSize + ", available bytes " + (data.length - offset));
+        }
+        return switch (codec) {
+            case UNCOMPRESSED -> {
+                byte[] result = new byte[length];
+                System.arraycopy(data, offset, result, 0, length);
+                yield result;
+            }
+            case SNAPPY -> SnappyDecompressor.decompress(data, offset, length, uncompressedSize);
+            case GZIP -> {
+                try (var in = new GZIPInputStream(new ByteArrayInputStream(data, offset, length))) {
+                    yield in.readNBytes(uncompressedSize);
+                }
+            }
+            default -> throw new IOException("Unsupported parquet compression codec: " + codecName(codec));
+        };
+    }
+
+    static byte[] compress(int codec, byte[] data, int length) throws IOException {
+        return switch (codec) {
+            case UNCOMPRESSED -> length == data.length ? data : Arrays.copyOf(data, length);
+            case GZIP -> {
+                ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(32, length / 2));
+                try (var gzip = new GZIPOutputStream(out)) {
+                    gzip.write(data, 0, length);
+                }
+                yield out.toByteArray();
+            }
+            default -> throw new IOException("Unsupported parquet compression codec: " + codecName(codec));
+        };
+    }
+
+    private static String codecName(int codec) {
+        return switch (codec) {
+            case UNCOMPRESSED -> "UNCOMPRESSED";
+            case SNAPPY -> "SNAPPY";
+            case GZIP -> "GZIP";
+            case 3 -> "LZO";
+            case 4 -> "BROTLI";
+            case 5 -> "LZ4";
+            case 6 -> "ZSTD";
+            case 7 -> "LZ4_RAW";
+            default -> Integer.toString(codec);
+        };
+    }
+}
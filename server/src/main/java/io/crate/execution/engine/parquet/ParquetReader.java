@@ -0,0 +1,598 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.parquet;
+
+import static io.crate.execution.engine.parquet.ParquetFormat.BOOLEAN;
+import static io.crate.execution.engine.parquet.ParquetFormat.BYTE_ARRAY;
+import static io.crate.execution.engine.parquet.ParquetFormat.CONVERTED_DATE;
+import static io.crate.execution.engine.parquet.ParquetFormat.CONVERTED_DECIMAL;
+import static io.crate.execution.engine.parquet.ParquetFormat.CONVERTED_ENUM;
+import static io.crate.execution.engine.parquet.ParquetFormat.CONVERTED_JSON;
+import static io.crate.execution.engine.parquet.ParquetFormat.CONVERTED_TIMESTAMP_MICROS;
+import static io.crate.execution.engine.parquet.ParquetFormat.CONVERTED_TIMESTAMP_MILLIS;
+import static io.crate.execution.engine.parquet.ParquetFormat.CONVERTED_UTF8;
+import static io.crate.execution.engine.parquet.ParquetFormat.DATA_PAGE;
+import static io.crate.execution.engine.parquet.ParquetFormat.DATA_PAGE_V2;
+import static io.crate.execution.engine.parquet.ParquetFormat.DICTIONARY_PAGE;
+import static io.crate.execution.engine.parquet.ParquetFormat.DOUBLE;
+import static io.crate.execution.engine.parquet.ParquetFormat.FIXED_LEN_BYTE_ARRAY;
+import static io.crate.execution.engine.parquet.ParquetFormat.FLOAT;
+import static io.crate.execution.engine.parquet.ParquetFormat.INT32;
+import static io.crate.execution.engine.parquet.ParquetFormat.INT64;
+import static io.crate.execution.engine.parquet.ParquetFormat.INT96;
+import static io.crate.execution.engine.parquet.ParquetFormat.LOGICAL_DATE;
+import static io.crate.execution.engine.parquet.ParquetFormat.LOGICAL_DECIMAL;
+import static io.crate.execution.engine.parquet.ParquetFormat.LOGICAL_ENUM;
+import static io.crate.execution.engine.parquet.ParquetFormat.LOGICAL_JSON;
+import static io.crate.execution.engine.parquet.ParquetFormat.LOGICAL_STRING;
+import static io.crate.execution.engine.parquet.ParquetFormat.LOGICAL_TIMESTAMP;
+import static io.crate.execution.engine.parquet.ParquetFormat.LOGICAL_UUID;
+import static io.crate.execution.engine.parquet.ParquetFormat.MAGIC;
+import static io.crate.execution.engine.parquet.ParquetFormat.OPTIONAL;
+import static io.crate.execution.engine.parquet.ParquetFormat.PLAIN;
+import static io.crate.execution.engine.parquet.ParquetFormat.PLAIN_DICTIONARY;
+import static io.crate.execution.engine.parquet.ParquetFormat.REPEATED;
+import static io.crate.execution.engine.parquet.ParquetFormat.REQUIRED;
+import static io.crate.execution.engine.parquet.ParquetFormat.RLE;
+import static io.crate.execution.engine.parquet.ParquetFormat.RLE_DICTIONARY;
+import static io.crate.execution.engine.parquet.ParquetFormat.TIME_UNIT_MICROS;
+import static io.crate.execution.engine.parquet.ParquetFormat.TIME_UNIT_MILLIS;
+import static io.crate.execution.engine.parquet.ParquetFormat.TIME_UNIT_NANOS;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.apache.lucene.util.RamUsageEstimator;
+import org.jetbrains.annotations.Nullable;
+
+import io.crate.data.breaker.RamAccounting;
+import io.crate.execution.engine.parquet.ThriftCompact.Struct;
+
+/**
+ * Reads the rows of a Parquet file column-wise, one row group at a time.
+ *
+ * <p>
+ * Only the requested columns are read and decoded. Supported are flat schemas of primitive columns with
+ * PLAIN or dictionary encoded values in v1 or v2 data pages, compressed with SNAPPY or GZIP or uncompressed.
+ * </p>
+ *
+ * <p>
+ * Values are converted to the types used in CrateDB documents: strings, numbers, booleans, timestamps and dates
+ * as epoch milliseconds and decimals as {@link BigDecimal}. Values of JSON columns are returned as the raw UTF-8
+ * encoded JSON {@code byte[]}, other binary values as base64 encoded string.
+ * </p>
+ *
+ * <p>
+ * The decoded values of the current row group are accounted on the given {@link RamAccounting} until the next
+ * row group is loaded or the reader is closed.
+ * </p>
+ */
+public final class ParquetReader implements Closeable {
+
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+    private static final long JULIAN_EPOCH_DAY = 2_440_588L;
+
+    /**
+     * Random access to the bytes of a Parquet file.
+     */
+    public interface Source {
+
+        long size() throws IOException;
+
+        byte[] read(long position, int length) throws IOException;
+    }
+
+    private enum Kind {
+        BOOLEAN,
+        INT,
+        LONG,
+        FLOAT,
+        DOUBLE,
+        STRING,
+        JSON,
+        BINARY,
+        UUID,
+        DECIMAL,
+        DATE,
+        TIMESTAMP_MILLIS,
+        TIMESTAMP_MICROS,
+        TIMESTAMP_NANOS
+    }
+
+    private record Column(String name, int physicalType, int typeLength, boolean optional, Kind kind, int scale) {
+    }
+
+    private final Source source;
+    private final List<Column> columns;
+    private final List<Object> rowGroups;
+    private final RamAccounting ramAccounting;
+
+    private long accountedBytes = 0;
+    private int rowGroupIdx = -1;
+    private int numRowsInGroup = 0;
+    private int row = -1;
+    private Object[][] values;
+
+    /**
+     * @param columnNames the columns to read, null to read all columns.
+     */
+    public ParquetReader(Source source, @Nullable Collection<String> columnNames) throws IOException {
+        this(source, columnNames, RamAccounting.NO_ACCOUNTING);
+    }
+
+    /**
+     * @param columnNames the columns to read, null to read all columns.
+     * @param ramAccounting accounts the decoded values of the current row group.
+     */
+    public ParquetReader(Source source,
+                         @Nullable Collection<String> columnNames,
+                         RamAccounting ramAccounting) throws IOException {
+        this.source = source;
+        this.ramAccounting = ramAccounting;
+        long size = source.size();
+        if (size < 12) {
+            throw new IOException("Invalid parquet file: file is too small");
+        }
+        byte[] tail = source.read(size - 8, 8);
+        if (!Arrays.equals(tail, 4, 8, MAGIC, 0, 4)) {
+            throw new IOException("Invalid parquet file: magic number is missing");
+        }
+        int footerLength = ByteBuffer.wrap(tail, 0, 4).order(ByteOrder.LITTLE_ENDIAN).getInt();
+        if (footerLength <= 0 || footerLength > size - 12) {
+            throw new IOException("Invalid parquet file: invalid footer length " + footerLength);
+        }
+        Struct fileMetadata = new ThriftCompact.Reader(source.read(size - 8 - footerLength, footerLength), 0).readStruct();
+        this.columns = readSchema(fileMetadata.getList(2), columnNames);
+        this.rowGroups = fileMetadata.getList(4);
+    }
+
+    public List<String> columnNames() {
+        List<String> names = new ArrayList<>(columns.size());
+        for (Column column : columns) {
+            names.add(column.name);
+        }
+        return names;
+    }
+
+    /**
+     * Moves to the next row.
+     *
+     * @return false if there are no more rows.
+     */
+    public boolean next() throws IOException {
+        while (row + 1 >= numRowsInGroup) {
+            if (rowGroupIdx + 1 >= rowGroups.size()) {
+                close();
+                return false;
+            }
+            rowGroupIdx++;
+            loadRowGroup((Struct) rowGroups.get(rowGroupIdx));
+        }
+        row++;
+        return true;
+    }
+
+    /**
+     * @return the value of the column of the current row.
+     */
+    @Nullable
+    public Object get(int column) {
+        return values[column][row];
+    }
+
+    /**
+     * Releases the values of the current row group.
+     */
+    @Override
+    public void close() {
+        values = null;
+        numRowsInGroup = 0;
+        row = -1;
+        ramAccounting.addBytes(-accountedBytes);
+        accountedBytes = 0;
+    }
+
+    private static List<Column> readSchema(List<Object> schema, @Nullable Collection<String> columnNames) throws IOException {
+        if (schema.isEmpty()) {
+            throw new IOException("Invalid parquet file: schema is missing");
+        }
+        Struct root = (Struct) schema.get(0);
+        int numChildren = root.getInt(5, 0);
+        List<Column> columns = new ArrayList<>(numChildren);
+        int idx = 1;
+        for (int i = 0; i < numChildren; i++) {
+            Struct element = (Struct) schema.get(idx);
+            String name = element.getString(4);
+            boolean requested = columnNames == null || columnNames.contains(name);
+            if (element.getInt(5, 0) > 0 || element.getInt(3, REQUIRED) == REPEATED) {
+                if (requested) {
+                    throw new IOException(
+                        "Column \"" + name + "\" of the parquet file has a nested or repeated type, which is not supported");
+                }
+                idx = skipSchemaElement(schema, idx);
+            } else {
+                if (requested) {
+                    columns.add(toColumn(name, element));
+                }
+                idx++;
+            }
+        }
+        return columns;
+    }
+
+    private static int skipSchemaElement(List<Object> schema, int idx) {
+        int numChildren = ((Struct) schema.get(idx)).getInt(5, 0);
+        idx++;
+        for (int i = 0; i < numChildren; i++) {
+            idx = skipSchemaElement(schema, idx);
+        }
+        return idx;
+    }
+
+    private static Column toColumn(String name, Struct element) throws IOException {
+        int physicalType = element.getInt(1, -1);
+        int convertedType = element.getInt(6, -1);
+        int scale = element.getInt(7, 0);
+        Struct logicalType = element.getStruct(10);
+        int logical = logicalType == null ? -1 : logicalType.unionField();
+        boolean decimal = convertedType == CONVERTED_DECIMAL || logical == LOGICAL_DECIMAL;
+        if (logical == LOGICAL_DECIMAL) {
+            scale = logicalType.getStruct(LOGICAL_DECIMAL).getInt(1, scale);
+        }
+        Kind kind = switch (physicalType) {
+            case BOOLEAN -> Kind.BOOLEAN;
+            case INT32 -> {
+                if (decimal) {
+                    yield Kind.DECIMAL;
+                }
+                yield convertedType == CONVERTED_DATE || logical == LOGICAL_DATE ? Kind.DATE : Kind.INT;
+            }
+            case INT64 -> {
+                if (decimal) {
+                    yield Kind.DECIMAL;
+                }
+                if (logical == LOGICAL_TIMESTAMP) {
+                    Struct unit = logicalType.getStruct(LOGICAL_TIMESTAMP).getStruct(2);
+                    int timeUnit = unit == null ? TIME_UNIT_MILLIS : unit.unionField();
+                    yield timeUnit == TIME_UNIT_MICROS ? Kind.TIMESTAMP_MICROS
+                        : timeUnit == TIME_UNIT_NANOS ? Kind.TIMESTAMP_NANOS
+                        : Kind.TIMESTAMP_MILLIS;
+                }
+                yield convertedType == CONVERTED_TIMESTAMP_MILLIS ? Kind.TIMESTAMP_MILLIS
+                    : convertedType == CONVERTED_TIMESTAMP_MICROS ? Kind.TIMESTAMP_MICROS
+                    : Kind.LONG;
+            }
+            // INT96 values are decoded to epoch milliseconds
+            case INT96 -> Kind.TIMESTAMP_MILLIS;
+            case FLOAT -> Kind.FLOAT;
+            case DOUBLE -> Kind.DOUBLE;
+            case BYTE_ARRAY, FIXED_LEN_BYTE_ARRAY -> {
+                if (decimal) {
+                    yield Kind.DECIMAL;
+                }
+                if (convertedType == CONVERTED_UTF8 || convertedType == CONVERTED_ENUM
+                    || logical == LOGICAL_STRING || logical == LOGICAL_ENUM) {
+                    yield Kind.STRING;
+                }
+                if (convertedType == CONVERTED_JSON || logical == LOGICAL_JSON) {
+                    yield Kind.JSON;
+                }
+                yield logical == LOGICAL_UUID ? Kind.UUID : Kind.BINARY;
+            }
+            default -> throw new IOException("Column \"" + name + "\" has an invalid physical type: " + physicalType);
+        };
+        return new Column(
+            name,
+            physicalType,
+            element.getInt(2, 0),
+            element.getInt(3, REQUIRED) == OPTIONAL,
+            kind,
+            scale
+        );
+    }
+
+    private void loadRowGroup(Struct rowGroup) throws IOException {
+        close();
+        int numRows = Math.toIntExact(rowGroup.getLong(3, 0));
+        Map<String, Struct> columnChunks = new HashMap<>();
+        for (Object chunk : rowGroup.getList(1)) {
+            Struct columnChunk = (Struct) chunk;
+            if (columnChunk.getString(1) != null) {
+                throw new IOException("Parquet files with column chunks in external files are not supported");
+            }
+            Struct metadata = columnChunk.getStruct(3);
+            if (metadata != null) {
+                List<Object> path = metadata.getList(3);
+                if (path.size() == 1) {
+                    columnChunks.put(new String((byte[]) path.get(0), StandardCharsets.UTF_8), metadata);
+                }
+            }
+        }
+        // Account the decoded row group up front: the uncompressed pages of the read columns are a lower bound
+        // for the decoded values, each column also holds an array with a reference per row.
+        long arrayBytes = RamUsageEstimator.NUM_BYTES_ARRAY_HEADER + (long) numRows * RamUsageEstimator.NUM_BYTES_OBJECT_REF;
+        long bytes = RamUsageEstimator.NUM_BYTES_ARRAY_HEADER
+            + columns.size() * (RamUsageEstimator.NUM_BYTES_OBJECT_REF + arrayBytes);
+        for (Column column : columns) {
+            Struct metadata = columnChunks.get(column.name);
+            if (metadata != null) {
+                bytes += metadata.getLong(6, 0);
+            }
+        }
+        ramAccounting.addBytes(bytes);
+        accountedBytes = bytes;
+        numRowsInGroup = numRows;
+        values = new Object[columns.size()][];
+        for (int i = 0; i < columns.size(); i++) {
+            Column column = columns.get(i);
+            Struct metadata = columnChunks.get(column.name);
+            values[i] = metadata == null ? new Object[numRowsInGroup] : readColumnChunk(column, metadata);
+        }
+    }
+
+    private Object[] readColumnChunk(Column column, Struct metadata) throws IOException {
+        int codec = metadata.getInt(4, 0);
+        long dataPageOffset = metadata.getLong(9, 0);
+        long dictionaryPageOffset = metadata.getLong(11, 0);
+        long start = dictionaryPageOffset > 0 && dictionaryPageOffset < dataPageOffset
+            ? dictionaryPageOffset
+            : dataPageOffset;
+        byte[] chunk = source.read(start, Math.toIntExact(metadata.getLong(7, 0)));
+
+        Object[] result = new Object[numRowsInGroup];
+        Object[] dictionary = null;
+        int numValues = 0;
+        int position = 0;
+        try {
+            while (numValues < numRowsInGroup && position < chunk.length) {
+                ThriftCompact.Reader headerReader = new ThriftCompact.Reader(chunk, position);
+                Struct header = headerReader.readStruct();
+                position = headerReader.position();
+                int uncompressedSize = header.getInt(2, 0);
+                int compressedSize = header.getInt(3, 0);
+                switch (header.getInt(1, -1)) {
+                    case DICTIONARY_PAGE -> {
+                        int size = header.getStruct(7).getInt(1, 0);
+                        byte[] page = ParquetFormat.decompress(codec, chunk, position, compressedSize, uncompressedSize);
+                        PlainDecoder decoder = new PlainDecoder(page, 0, column);
+                        dictionary = new Object[size];
+                        for (int i = 0; i < size; i++) {
+                            dictionary[i] = convert(column, decoder.next());
+                        }
+                    }
+                    case DATA_PAGE -> {
+                        Struct pageHeader = header.getStruct(5);
+                        byte[] page = ParquetFormat.decompress(codec, chunk, position, compressedSize, uncompressedSize);
+                        int offset = 0;
+                        RleBitPackedHybrid.Decoder definitionLevels = null;
+                        if (column.optional) {
+                            int length = readIntLE(page, offset);
+                            definitionLevels = new RleBitPackedHybrid.Decoder(page, offset + 4, offset + 4 + length, 1);
+                            offset += 4 + length;
+                        }
+                        numValues = decodeValues(
+                            column,
+                            page,
+                            offset,
+                            page.length,
+                            pageHeader.getInt(1, 0),
+                            pageHeader.getInt(2, PLAIN),
+                            definitionLevels,
+                            dictionary,
+                            result,
+                            numValues
+                        );
+                    }
+                    case DATA_PAGE_V2 -> {
+                        Struct pageHeader = header.getStruct(8);
+                        int definitionLevelsLength = pageHeader.getInt(5, 0);
+                        int repetitionLevelsLength = pageHeader.getInt(6, 0);
+                        int levelsStart = position + repetitionLevelsLength;
+                        int valuesStart = levelsStart + definitionLevelsLength;
+                        int valuesLength = compressedSize - repetitionLevelsLength - definitionLevelsLength;
+                        RleBitPackedHybrid.Decoder definitionLevels = column.optional
+                            ? new RleBitPackedHybrid.Decoder(chunk, levelsStart, valuesStart, 1)
+                            : null;
+                        byte[] page = chunk;
+                        int offset = valuesStart;
+                        int end = valuesStart + valuesLength;
+                        // Levels are never compressed in v2 data pages
+                        if (pageHeader.getBoolean(7, true)) {
+                            page = ParquetFormat.decompress(
+                                codec,
+                                chunk,
+                                valuesStart,
+                                valuesLength,
+                                uncompressedSize - repetitionLevelsLength - definitionLevelsLength
+                            );
+                            offset = 0;
+                            end = page.length;
+                        }
+                        numValues = decodeValues(
+                            column,
+                            page,
+                            offset,
+                            end,
+                            pageHeader.getInt(1, 0),
+                            pageHeader.getInt(4, PLAIN),
+                            definitionLevels,
+                            dictionary,
+                            result,
+                            numValues
+                        );
+                    }
+                    default -> {
+                        // Index pages are not needed
+                    }
+                }
+                position += compressedSize;
+            }
+        } catch (IndexOutOfBoundsException | java.nio.BufferUnderflowException e) {
+            throw new IOException("Invalid parquet file: corrupt data of column \"" + column.name + "\"", e);
+        }
+        return result;
+    }
+
+    private static int decodeValues(Column column,
+                                    byte[] page,
+                                    int offset,
+                                    int end,
+                                    int count,
+                                    int encoding,
+                                    @Nullable RleBitPackedHybrid.Decoder definitionLevels,
+                                    @Nullable Object[] dictionary,
+                                    Object[] result,
+                                    int resultIdx) throws IOException {
+        if (resultIdx + count > result.length) {
+            throw new IOException("Invalid parquet file: column \"" + column.name + "\" has more values than rows");
+        }
+        switch (encoding) {
+            case PLAIN -> {
+                PlainDecoder decoder = new PlainDecoder(page, offset, column);
+                for (int i = 0; i < count; i++) {
+                    if (definitionLevels == null || definitionLevels.next() == 1) {
+                        result[resultIdx] = convert(column, decoder.next());
+                    }
+                    resultIdx++;
+                }
+            }
+            case PLAIN_DICTIONARY, RLE_DICTIONARY -> {
+                if (dictionary == null) {
+                    throw new IOException("Invalid parquet file: dictionary page of column \"" + column.name + "\" is missing");
+                }
+                var indices = new RleBitPackedHybrid.Decoder(page, offset + 1, end, page[offset] & 0xFF);
+                for (int i = 0; i < count; i++) {
+                    if (definitionLevels == null || definitionLevels.next() == 1) {
+                        int idx = indices.next();
+                        if (idx >= dictionary.length) {
+                            throw new IOException("Invalid parquet file: dictionary index out of range");
+                        }
+                        result[resultIdx] = dictionary[idx];
+                    }
+                    resultIdx++;
+                }
+            }
+            case RLE -> {
+                if (column.physicalType != BOOLEAN) {
+                    throw new IOException("Unsupported parquet encoding RLE for column \"" + column.name + "\"");
+                }
+                int length = readIntLE(page, offset);
+                var bits = new RleBitPackedHybrid.Decoder(page, offset + 4, offset + 4 + length, 1);
+                for (int i = 0; i < count; i++) {
+                    if (definitionLevels == null || definitionLevels.next() == 1) {
+                        result[resultIdx] = bits.next() == 1;
+                    }
+                    resultIdx++;
+                }
+            }
+            default -> throw new IOException(
+                "Unsupported parquet encoding " + encoding + " for column \"" + column.name + "\"");
+        }
+        return resultIdx;
+    }
+
+    private static Object convert(Column column, Object value) {
+        return switch (column.kind) {
+            case DATE -> (Integer) value * MILLIS_PER_DAY;
+            case TIMESTAMP_MICROS -> Math.floorDiv((Long) value, 1000L);
+            case TIMESTAMP_NANOS -> Math.floorDiv((Long) value, 1_000_000L);
+            case DECIMAL -> switch (value) {
+                case Integer i -> BigDecimal.valueOf(i, column.scale);
+                case Long l -> BigDecimal.valueOf(l, column.scale);
+                default -> new BigDecimal(new BigInteger((byte[]) value), column.scale);
+            };
+            case STRING -> new String((byte[]) value, StandardCharsets.UTF_8);
+            case UUID -> {
+                ByteBuffer buffer = ByteBuffer.wrap((byte[]) value);
+                yield new UUID(buffer.getLong(), buffer.getLong()).toString();
+            }
+            case BINARY -> Base64.getEncoder().encodeToString((byte[]) value);
+            default -> value;
+        };
+    }
+
+    private static int readIntLE(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xFF)
+            | (bytes[offset + 1] & 0xFF) << 8
+            | (bytes[offset + 2] & 0xFF) << 16
+            | (bytes[offset + 3] & 0xFF) << 24;
+    }
+
+    /**
+     * Decodes PLAIN encoded values
+     */
+    private static final class PlainDecoder {
+
+        private final ByteBuffer buffer;
+        private final Column column;
+        private int bitIdx = 0;
+
+        PlainDecoder(byte[] page, int offset, Column column) {
+            this.buffer = ByteBuffer.wrap(page).order(ByteOrder.LITTLE_ENDIAN);
+            this.buffer.position(offset);
+            this.column = column;
+        }
+
+        Object next() {
+            return switch (column.physicalType) {
+                case BOOLEAN -> {
+                    int b = buffer.get(buffer.position() + (bitIdx >>> 3));
+                    boolean value = ((b >>> (bitIdx & 7)) & 1) == 1;
+                    bitIdx++;
+                    yield value;
+                }
+                case INT32 -> buffer.getInt();
+                case INT64 -> buffer.getLong();
+                case INT96 -> {
+                    long nanosOfDay = buffer.getLong();
+                    long julianDay = buffer.getInt();
+                    yield (julianDay - JULIAN_EPOCH_DAY) * MILLIS_PER_DAY + nanosOfDay / 1_000_000L;
+                }
+                case FLOAT -> buffer.getFloat();
+                case DOUBLE -> buffer.getDouble();
+                case BYTE_ARRAY -> {
+                    byte[] bytes = new byte[buffer.getInt()];
+                    buffer.get(bytes);
+                    yield bytes;
+                }
+                default -> {
+                    byte[] bytes = new byte[column.typeLength];
+                    buffer.get(bytes);
+                    yield bytes;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,537 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.parquet;
+
+import static io.crate.execution.engine.parquet.ParquetFormat.BOOLEAN;
+import static io.crate.execution.engine.parquet.ParquetFormat.BYTE_ARRAY;
+import static io.crate.execution.engine.parquet.ParquetFormat.CONVERTED_DATE;
+import static io.crate.execution.engine.parquet.ParquetFormat.CONVERTED_INT_16;
+import static io.crate.execution.engine.parquet.ParquetFormat.CONVERTED_INT_32;
+import static io.crate.execution.engine.parquet.ParquetFormat.CONVERTED_INT_64;
+import static io.crate.execution.engine.parquet.ParquetFormat.CONVERTED_INT_8;
+import static io.crate.execution.engine.parquet.ParquetFormat.CONVERTED_JSON;
+import static io.crate.execution.engine.parquet.ParquetFormat.CONVERTED_TIMESTAMP_MILLIS;
+import static io.crate.execution.engine.parquet.ParquetFormat.CONVERTED_UTF8;
+import static io.crate.execution.engine.parquet.ParquetFormat.DATA_PAGE;
+import static io.crate.execution.engine.parquet.ParquetFormat.DOUBLE;
+import static io.crate.execution.engine.parquet.ParquetFormat.FLOAT;
+import static io.crate.execution.engine.parquet.ParquetFormat.INT32;
+import static io.crate.execution.engine.parquet.ParquetFormat.INT64;
+import static io.crate.execution.engine.parquet.ParquetFormat.LOGICAL_DATE;
+import static io.crate.execution.engine.parquet.ParquetFormat.LOGICAL_INTEGER;
+import static io.crate.execution.engine.parquet.ParquetFormat.LOGICAL_JSON;
+import static io.crate.execution.engine.parquet.ParquetFormat.LOGICAL_STRING;
+import static io.crate.execution.engine.parquet.ParquetFormat.LOGICAL_TIMESTAMP;
+import static io.crate.execution.engine.parquet.ParquetFormat.MAGIC;
+import static io.crate.execution.engine.parquet.ParquetFormat.OPTIONAL;
+import static io.crate.execution.engine.parquet.ParquetFormat.PLAIN;
+import static io.crate.execution.engine.parquet.ParquetFormat.RLE;
+import static io.crate.execution.engine.parquet.ParquetFormat.TIME_UNIT_MILLIS;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.json.JsonXContent;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.VisibleForTesting;
+
+import io.crate.data.Input;
+import io.crate.data.breaker.RamAccounting;
+import io.crate.types.BooleanType;
+import io.crate.types.ByteType;
+import io.crate.types.CharacterType;
+import io.crate.types.DataType;
+import io.crate.types.DateType;
+import io.crate.types.DoubleType;
+import io.crate.types.FloatType;
+import io.crate.types.IntegerType;
+import io.crate.types.IpType;
+import io.crate.types.LongType;
+import io.crate.types.ShortType;
+import io.crate.types.StringType;
+import io.crate.types.TimestampType;
+
+/**
+ * Writes rows as Parquet file.
+ *
+ * <p>
+ * All columns are written as optional, flat columns with PLAIN encoded values, one data page per column and
+ * row group. Row groups are flushed once the buffered values exceed {@link #ROW_GROUP_SIZE_BYTES}.
+ * The buffered values are accounted on the given {@link RamAccounting} until their row group is flushed.
+ * The column chunk metadata contains min/max statistics, allowing readers to skip row groups.
+ * </p>
+ *
+ * <p>
+ * Numeric, boolean, text, timestamp and date columns are mapped to the corresponding Parquet types.
+ * Values of all other types are written as JSON.
+ * </p>
+ */
+public final class ParquetWriter implements Closeable {
+
+    static final int ROW_GROUP_SIZE_BYTES = 32 * 1024 * 1024;
+
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    private record ColumnChunk(long offset,
+                               long uncompressedSize,
+                               long compressedSize,
+                               int numValues,
+                               int nullCount,
+                               @Nullable byte[] min,
+                               @Nullable byte[] max) {
+    }
+
+    private record RowGroup(List<ColumnChunk> columns, long totalByteSize, int numRows) {
+    }
+
+    private final OutputStream out;
+    private final int codec;
+    private final long rowGroupSizeBytes;
+    private final List<ColumnWriter> columns;
+    private final List<RowGroup> rowGroups = new ArrayList<>();
+    private final RamAccounting ramAccounting;
+
+    private long position = 0;
+    private long accountedBytes = 0;
+    private int numRows = 0;
+    private long totalRows = 0;
+
+    public ParquetWriter(OutputStream out, List<String> names, List<DataType<?>> types, int codec) throws IOException {
+        this(out, names, types, codec, RamAccounting.NO_ACCOUNTING);
+    }
+
+    public ParquetWriter(OutputStream out,
+                         List<String> names,
+                         List<DataType<?>> types,
+                         int codec,
+                         RamAccounting ramAccounting) throws IOException {
+        this(out, names, types, codec, ramAccounting, ROW_GROUP_SIZE_BYTES);
+    }
+
+    @VisibleForTesting
+    ParquetWriter(OutputStream out,
+                  List<String> names,
+                  List<DataType<?>> types,
+                  int codec,
+                  long rowGroupSizeBytes) throws IOException {
+        this(out, names, types, codec, RamAccounting.NO_ACCOUNTING, rowGroupSizeBytes);
+    }
+
+    @VisibleForTesting
+    ParquetWriter(OutputStream out,
+                  List<String> names,
+                  List<DataType<?>> types,
+                  int codec,
+                  RamAccounting ramAccounting,
+                  long rowGroupSizeBytes) throws IOException {
+        assert names.size() == types.size() : "There must be a type for each column name";
+        this.out = out;
+        this.codec = codec;
+        this.ramAccounting = ramAccounting;
+        this.rowGroupSizeBytes = rowGroupSizeBytes;
+        this.columns = new ArrayList<>(names.size());
+        for (int i = 0; i < names.size(); i++) {
+            columns.add(new ColumnWriter(names.get(i), types.get(i)));
+        }
+        write(MAGIC);
+    }
+
+    public void write(List<? extends Input<?>> inputs) throws IOException {
+        long bufferedBytes = 0;
+        for (int i = 0; i < columns.size(); i++) {
+            ColumnWriter column = columns.get(i);
+            column.add(inputs.get(i).value());
+            bufferedBytes += column.bufferedBytes();
+        }
+        numRows++;
+        ramAccounting.addBytes(bufferedBytes - accountedBytes);
+        accountedBytes = bufferedBytes;
+        if (bufferedBytes >= rowGroupSizeBytes) {
+            flushRowGroup();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flushRowGroup();
+            byte[] footer = footer();
+            write(footer);
+            write(new byte[] {
+                (byte) footer.length,
+                (byte) (footer.length >>> 8),
+                (byte) (footer.length >>> 16),
+                (byte) (footer.length >>> 24)
+            });
+            write(MAGIC);
+        } finally {
+            releaseBufferedBytes();
+            out.close();
+        }
+    }
+
+    private void write(byte[] bytes) throws IOException {
+        out.write(bytes);
+        position += bytes.length;
+    }
+
+    private void flushRowGroup() throws IOException {
+        if (numRows == 0) {
+            return;
+        }
+        List<ColumnChunk> chunks = new ArrayList<>(columns.size());
+        long totalByteSize = 0;
+        for (ColumnWriter column : columns) {
+            byte[] page = column.encodePage();
+            byte[] compressed = ParquetFormat.compress(codec, page, page.length);
+
+            ThriftCompact.Writer header = new ThriftCompact.Writer();
+            header.structBegin();
+            header.fieldI32(1, DATA_PAGE);
+            header.fieldI32(2, page.length);
+            header.fieldI32(3, compressed.length);
+            header.fieldStructBegin(5);
+            header.fieldI32(1, numRows);
+            header.fieldI32(2, PLAIN);
+            header.fieldI32(3, RLE);
+            header.fieldI32(4, RLE);
+            header.structEnd();
+            header.structEnd();
+            byte[] headerBytes = header.toByteArray();
+
+            long offset = position;
+            write(headerBytes);
+            write(compressed);
+            long uncompressedSize = headerBytes.length + page.length;
+            totalByteSize += uncompressedSize;
+            chunks.add(new ColumnChunk(
+                offset,
+                uncompressedSize,
+                headerBytes.length + compressed.length,
+                numRows,
+                column.nullCount,
+                column.min == null ? null : column.encodeStatistic(column.min),
+                column.max == null ? null : column.encodeStatistic(column.max)
+            ));
+            column.reset();
+        }
+        rowGroups.add(new RowGroup(chunks, totalByteSize, numRows));
+        totalRows += numRows;
+        numRows = 0;
+        releaseBufferedBytes();
+    }
+
+    private void releaseBufferedBytes() {
+        ramAccounting.addBytes(-accountedBytes);
+        accountedBytes = 0;
+    }
+
+    private byte[] footer() {
+        ThriftCompact.Writer writer = new ThriftCompact.Writer();
+        writer.structBegin();
+        writer.fieldI32(1, 1);
+
+        writer.fieldListBegin(2, ThriftCompact.TYPE_STRUCT, columns.size() + 1);
+        writer.structBegin();
+        writer.fieldString(4, "schema");
+        writer.fieldI32(5, columns.size());
+        writer.structEnd();
+        for (ColumnWriter column : columns) {
+            column.writeSchemaElement(writer);
+        }
+
+        writer.fieldI64(3, totalRows);
+
+        writer.fieldListBegin(4, ThriftCompact.TYPE_STRUCT, rowGroups.size());
+        for (RowGroup rowGroup : rowGroups) {
+            writer.structBegin();
+            writer.fieldListBegin(1, ThriftCompact.TYPE_STRUCT, columns.size());
+            for (int i = 0; i < columns.size(); i++) {
+                ColumnWriter column = columns.get(i);
+                ColumnChunk chunk = rowGroup.columns.get(i);
+                writer.structBegin();
+                writer.fieldI64(2, chunk.offset);
+                writer.fieldStructBegin(3);
+                writer.fieldI32(1, column.physicalType);
+                writer.fieldListBegin(2, ThriftCompact.TYPE_I32, 2);
+                writer.listI32(PLAIN);
+                writer.listI32(RLE);
+                writer.fieldListBegin(3, ThriftCompact.TYPE_BINARY, 1);
+                writer.listString(column.name);
+                writer.fieldI32(4, codec);
+                writer.fieldI64(5, chunk.numValues);
+                writer.fieldI64(6, chunk.uncompressedSize);
+                writer.fieldI64(7, chunk.compressedSize);
+                writer.fieldI64(9, chunk.offset);
+                writer.fieldStructBegin(12);
+                writer.fieldI64(3, chunk.nullCount);
+                if (chunk.max != null) {
+                    writer.fieldBinary(5, chunk.max);
+                }
+                if (chunk.min != null) {
+                    writer.fieldBinary(6, chunk.min);
+                }
+                writer.structEnd();
+                writer.structEnd();
+                writer.structEnd();
+            }
+            writer.fieldI64(2, rowGroup.totalByteSize);
+            writer.fieldI64(3, rowGroup.numRows);
+            writer.structEnd();
+        }
+        writer.fieldString(6, "CrateDB");
+        writer.structEnd();
+        return writer.toByteArray();
+    }
+
+    private static final class ColumnWriter {
+
+        private final String name;
+        private final DataType<?> type;
+        private final int physicalType;
+        private final ByteArrayOutputStream values = new ByteArrayOutputStream();
+
+        private boolean[] defined = new boolean[64];
+        private boolean[] booleans;
+        private int numValues = 0;
+        private int numBooleans = 0;
+        private int nullCount = 0;
+        @Nullable
+        private Object min;
+        @Nullable
+        private Object max;
+
+        ColumnWriter(String name, DataType<?> type) {
+            this.name = name;
+            this.type = type;
+            this.physicalType = switch (type.id()) {
+                case BooleanType.ID -> BOOLEAN;
+                case ByteType.ID, ShortType.ID, IntegerType.ID, DateType.ID -> INT32;
+                case LongType.ID, TimestampType.ID_WITH_TZ, TimestampType.ID_WITHOUT_TZ -> INT64;
+                case FloatType.ID -> FLOAT;
+                case DoubleType.ID -> DOUBLE;
+                default -> BYTE_ARRAY;
+            };
+            this.booleans = physicalType == BOOLEAN ? new boolean[64] : null;
+        }
+
+        private boolean isText() {
+            int id = type.id();
+            return id == StringType.ID || id == CharacterType.ID || id == IpType.ID;
+        }
+
+        long bufferedBytes() {
+            return values.size() + numBooleans / 8 + numValues / 8;
+        }
+
+        void add(@Nullable Object value) throws IOException {
+            if (numValues == defined.length) {
+                defined = Arrays.copyOf(defined, numValues * 2);
+            }
+            if (value == null) {
+                defined[numValues++] = false;
+                nullCount++;
+                return;
+            }
+            defined[numValues++] = true;
+            Object statValue;
+            switch (physicalType) {
+                case BOOLEAN -> {
+                    if (numBooleans == booleans.length) {
+                        booleans = Arrays.copyOf(booleans, numBooleans * 2);
+                    }
+                    boolean b = (Boolean) value;
+                    booleans[numBooleans++] = b;
+                    statValue = b;
+                }
+                case INT32 -> {
+                    int i = type.id() == DateType.ID
+                        ? Math.toIntExact(Math.floorDiv(((Number) value).longValue(), MILLIS_PER_DAY))
+                        : ((Number) value).intValue();
+                    writeIntLE(values, i);
+                    statValue = i;
+                }
+                case INT64 -> {
+                    long l = ((Number) value).longValue();
+                    writeLongLE(values, l);
+                    statValue = l;
+                }
+                case FLOAT -> {
+                    float f = ((Number) value).floatValue();
+                    writeIntLE(values, Float.floatToIntBits(f));
+                    statValue = Float.isNaN(f) ? null : f;
+                }
+                case DOUBLE -> {
+                    double d = ((Number) value).doubleValue();
+                    writeLongLE(values, Double.doubleToLongBits(d));
+                    statValue = Double.isNaN(d) ? null : d;
+                }
+                default -> {
+                    byte[] bytes;
+                    if (isText()) {
+                        bytes = value.toString().getBytes(StandardCharsets.UTF_8);
+                        statValue = bytes;
+                    } else {
+                        XContentBuilder builder = JsonXContent.builder();
+                        builder.value(value);
+                        builder.close();
+                        bytes = ((ByteArrayOutputStream) builder.getOutputStream()).toByteArray();
+                        // Ordering JSON values is not meaningful
+                        statValue = null;
+                    }
+                    writeIntLE(values, bytes.length);
+                    values.write(bytes);
+                }
+            }
+            if (statValue != null) {
+                if (min == null || compare(statValue, min) < 0) {
+                    min = statValue;
+                }
+                if (max == null || compare(statValue, max) > 0) {
+                    max = statValue;
+                }
+            }
+        }
+
+        private static int compare(Object a, Object b) {
+            return switch (a) {
+                case Boolean x -> Boolean.compare(x, (Boolean) b);
+                case Integer x -> Integer.compare(x, (Integer) b);
+                case Long x -> Long.compare(x, (Long) b);
+                case Float x -> Float.compare(x, (Float) b);
+                case Double x -> Double.compare(x, (Double) b);
+                default -> Arrays.compareUnsigned((byte[]) a, (byte[]) b);
+            };
+        }
+
+        byte[] encodeStatistic(Object value) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(8);
+            switch (value) {
+                case Boolean b -> out.write(b ? 1 : 0);
+                case Integer i -> writeIntLE(out, i);
+                case Long l -> writeLongLE(out, l);
+                case Float f -> writeIntLE(out, Float.floatToIntBits(f));
+                case Double d -> writeLongLE(out, Double.doubleToLongBits(d));
+                default -> {
+                    return (byte[]) value;
+                }
+            }
+            return out.toByteArray();
+        }
+
+        byte[] encodePage() throws IOException {
+            ByteArrayOutputStream levels = new ByteArrayOutputStream();
+            RleBitPackedHybrid.encodeBits(levels, defined, numValues);
+            ByteArrayOutputStream page = new ByteArrayOutputStream(4 + levels.size() + values.size() + numBooleans / 8 + 1);
+            writeIntLE(page, levels.size());
+            levels.writeTo(page);
+            if (physicalType == BOOLEAN) {
+                byte[] bits = new byte[(numBooleans + 7) / 8];
+                for (int i = 0; i < numBooleans; i++) {
+                    if (booleans[i]) {
+                        bits[i >>> 3] |= (byte) (1 << (i & 7));
+                    }
+                }
+                page.write(bits, 0, bits.length);
+            } else {
+                values.writeTo(page);
+            }
+            return page.toByteArray();
+        }
+
+        void reset() {
+            values.reset();
+            numValues = 0;
+            numBooleans = 0;
+            nullCount = 0;
+            min = null;
+            max = null;
+        }
+
+        void writeSchemaElement(ThriftCompact.Writer writer) {
+            writer.structBegin();
+            writer.fieldI32(1, physicalType);
+            writer.fieldI32(3, OPTIONAL);
+            writer.fieldString(4, name);
+            switch (type.id()) {
+                case ByteType.ID -> writeInteger(writer, CONVERTED_INT_8, 8);
+                case ShortType.ID -> writeInteger(writer, CONVERTED_INT_16, 16);
+                case IntegerType.ID -> writeInteger(writer, CONVERTED_INT_32, 32);
+                case LongType.ID -> writeInteger(writer, CONVERTED_INT_64, 64);
+                case DateType.ID -> {
+                    writer.fieldI32(6, CONVERTED_DATE);
+                    writer.fieldUnion(10, LOGICAL_DATE);
+                }
+                case TimestampType.ID_WITH_TZ, TimestampType.ID_WITHOUT_TZ -> {
+                    writer.fieldI32(6, CONVERTED_TIMESTAMP_MILLIS);
+                    writer.fieldStructBegin(10);
+                    writer.fieldStructBegin(LOGICAL_TIMESTAMP);
+                    writer.fieldBoolean(1, type.id() == TimestampType.ID_WITH_TZ);
+                    writer.fieldUnion(2, TIME_UNIT_MILLIS);
+                    writer.structEnd();
+                    writer.structEnd();
+                }
+                default -> {
+                    if (physicalType == BYTE_ARRAY) {
+                        if (isText()) {
+                            writer.fieldI32(6, CONVERTED_UTF8);
+                            writer.fieldUnion(10, LOGICAL_STRING);
+                        } else {
+                            writer.fieldI32(6, CONVERTED_JSON);
+                            writer.fieldUnion(10, LOGICAL_JSON);
+                        }
+                    }
+                }
+            }
+            writer.structEnd();
+        }
+
+        private static void writeInteger(ThriftCompact.Writer writer, int convertedType, int bitWidth) {
+            writer.fieldI32(6, convertedType);
+            writer.fieldStructBegin(10);
+            writer.fieldStructBegin(LOGICAL_INTEGER);
+            writer.fieldByte(1, (byte) bitWidth);
+            writer.fieldBoolean(2, true);
+            writer.structEnd();
+            writer.structEnd();
+        }
+    }
+
+    private static void writeIntLE(ByteArrayOutputStream out, int value) {
+        out.write(value);
+        out.write(value >>> 8);
+        out.write(value >>> 16);
+        out.write(value >>> 24);
+    }
+
+    private static void writeLongLE(ByteArrayOutputStream out, long value) {
+        writeIntLE(out, (int) value);
+        writeIntLE(out, (int) (value >>> 32));
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.parquet;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+/**
+ * The RLE / bit-packing hybrid encoding used by Parquet for definition levels, dictionary indices and booleans.
+ */
+final class RleBitPackedHybrid {
+
+    private RleBitPackedHybrid() {
+    }
+
+    static final class Decoder {
+
+        private final byte[] buffer;
+        private final int end;
+        private final int bitWidth;
+        private final int valueMask;
+
+        private int position;
+        private int remaining = 0;
+        private boolean rle;
+        private int rleValue;
+        private long bitPosition;
+
+        Decoder(byte[] buffer, int offset, int end, int bitWidth) {
+            assert bitWidth >= 0 && bitWidth <= 32 : "bitWidth must be between 0 and 32";
+            this.buffer = buffer;
+            this.position = offset;
+            this.end = end;
+            this.bitWidth = bitWidth;
+            this.valueMask = bitWidth == 32 ? -1 : (1 << bitWidth) - 1;
+        }
+
+        int next() throws IOException {
+            if (remaining == 0) {
+                readRunHeader();
+            }
+            remaining--;
+            if (rle) {
+                return rleValue;
+            }
+            int byteIdx = (int) (bitPosition >>> 3);
+            int shift = (int) (bitPosition & 7);
+            long bits = 0;
+            for (int i = 0; i < 5 && byteIdx + i < end; i++) {
+                bits |= (buffer[byteIdx + i] & 0xFFL) << (8 * i);
+            }
+            bitPosition += bitWidth;
+            return (int) (bits >>> shift) & valueMask;
+        }
+
+        private void readRunHeader() throws IOException {
+            if (position >= end) {
+                throw new IOException("Invalid parquet data: RLE/bit-packed data exhausted");
+            }
+            int header = 0;
+            int shift = 0;
+            int b;
+            do {
+                b = buffer[position++] & 0xFF;
+                header |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            if ((header & 1) == 1) {
+                int numGroups = header >>> 1;
+                rle = false;
+                remaining = numGroups * 8;
+                bitPosition = (long) position * 8;
+                position += numGroups * bitWidth;
+            } else {
+                rle = true;
+                remaining = header >>> 1;
+                int numBytes = (bitWidth + 7) / 8;
+                int value = 0;
+                for (int i = 0; i < numBytes; i++) {
+                    value |= (buffer[position++] & 0xFF) << (8 * i);
+                }
+                rleValue = value;
+            }
+            if (remaining == 0) {
+                readRunHeader();
+            }
+        }
+    }
+
+    /**
+     * Encodes levels of bit width 1 as RLE runs.
+     */
+    static void encodeBits(ByteArrayOutputStream out, boolean[] bits, int count) {
+        int i = 0;
+        while (i < count) {
+            boolean value = bits[i];
+            int runEnd = i + 1;
+            while (runEnd < count && bits[runEnd] == value) {
+                runEnd++;
+            }
+            int header = (runEnd - i) << 1;
+            while ((header & ~0x7F) != 0) {
+                out.write((header & 0x7F) | 0x80);
+                header >>>= 7;
+            }
+            out.write(header);
+            out.write(value ? 1 : 0);
+            i = runEnd;
+        }
+    }
+}
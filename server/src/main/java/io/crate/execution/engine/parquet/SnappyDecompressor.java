@@ -0,0 +1,125 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.parquet;
+
+import java.io.IOException;
+
+/**
+ * Decompressor for the raw (unframed) <a href="https://github.com/google/snappy/blob/main/format_description.txt">
+ * Snappy format</a>, which is the default compression of most Parquet writers.
+ */
+final class SnappyDecompressor {
+
+    /**
+     * Upper bound of the ratio between the uncompressed and compressed size.
+     * The densest element is a 3 byte copy which produces 64 bytes.
+     */
+    private static final int MAX_EXPANSION = 22;
+
+    private SnappyDecompressor() {
+    }
+
+    /**
+     * @param expectedLength the uncompressed size stored in the page header
+     * @throws IOException if the data is malformed or the decoded length doesn't match {@code expectedLength}
+     */
+    static byte[] decompress(byte[] in, int offset, int length, int expectedLength) throws IOException {
+        int pos = offset;
+        int end = offset + length;
+        int uncompressedLength = 0;
+        int shift = 0;
+        int b;
+        do {
+            if (pos >= end || shift > 28) {
+                throw new IOException("Invalid snappy data: malformed length");
+            }
+            b = in[pos++] & 0xFF;
+            uncompressedLength |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+
+        if (uncompressedLength < 0
+            || uncompressedLength != expectedLength
+            || uncompressedLength > (long) (end - pos) * MAX_EXPANSION) {
+            throw new IOException("Invalid snappy data: uncompressed length " + uncompressedLength
+                + " doesn't match the expected length " + expectedLength + " of " + (end - pos) + " compressed bytes");
+        }
+        int outPos = 0;
+        byte[] out;
+        try {
+            out = new byte[uncompressedLength];
+            while (pos < end) {
+                int tag = in[pos++] & 0xFF;
+                int len;
+                int copyOffset;
+                switch (tag & 0x03) {
+                    case 0 -> {
+                        len = tag >>> 2;
+                        if (len >= 60) {
+                            int numBytes = len - 59;
+                            len = 0;
+                            for (int i = 0; i < numBytes; i++) {
+                                len |= (in[pos++] & 0xFF) << (8 * i);
+                            }
+                        }
+                        len++;
+                        System.arraycopy(in, pos, out, outPos, len);
+                        pos += len;
+                        outPos += len;
+                        continue;
+                    }
+                    case 1 -> {
+                        len = ((tag >>> 2) & 0x07) + 4;
+                        copyOffset = ((tag >>> 5) << 8) | (in[pos++] & 0xFF);
+                    }
+                    case 2 -> {
+                        len = (tag >>> 2) + 1;
+                        copyOffset = (in[pos] & 0xFF) | (in[pos + 1] & 0xFF) << 8;
+                        pos += 2;
+                    }
+                    default -> {
+                        len = (tag >>> 2) + 1;
+                        copyOffset = (in[pos] & 0xFF)
+                            | (in[pos + 1] & 0xFF) << 8
+                            | (in[pos + 2] & 0xFF) << 16
+                            | (in[pos + 3] & 0xFF) << 24;
+                        pos += 4;
+                    }
+                }
+                if (copyOffset <= 0 || copyOffset > outPos) {
+                    throw new IOException("Invalid snappy data: copy offset out of range");
+                }
+                // Copies may overlap with the bytes they produce, so copy byte by byte
+                int from = outPos - copyOffset;
+                for (int i = 0; i < len; i++) {
+                    out[outPos++] = out[from + i];
+                }
+            }
+        } catch (IndexOutOfBoundsException e) {
+            throw new IOException("Invalid snappy data", e);
+        }
+        if (outPos != uncompressedLength) {
+            throw new IOException("Invalid snappy data: expected " + uncompressedLength + " bytes but got " + outPos);
+        }
+        return out;
+    }
+}
@@ -0,0 +1,349 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.parquet;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Minimal implementation of the Thrift compact protocol used to encode the Parquet metadata.
+ *
+ * <p>
+ * {@link Reader} decodes structs generically into {@link Struct} instances, which are accessed by field id.
+ * {@link Writer} encodes structs field by field.
+ * </p>
+ */
+final class ThriftCompact {
+
+    private static final int TYPE_STOP = 0;
+    private static final int TYPE_BOOLEAN_TRUE = 1;
+    private static final int TYPE_BOOLEAN_FALSE = 2;
+    static final int TYPE_BYTE = 3;
+    private static final int TYPE_I16 = 4;
+    static final int TYPE_I32 = 5;
+    static final int TYPE_I64 = 6;
+    private static final int TYPE_DOUBLE = 7;
+    static final int TYPE_BINARY = 8;
+    private static final int TYPE_LIST = 9;
+    private static final int TYPE_SET = 10;
+    private static final int TYPE_MAP = 11;
+    static final int TYPE_STRUCT = 12;
+
+    private ThriftCompact() {
+    }
+
+    /**
+     * A decoded struct. Integers are exposed as Long, binaries as byte[], lists as List and structs as Struct.
+     */
+    static final class Struct {
+
+        private final Map<Integer, Object> fields = new HashMap<>();
+
+        boolean has(int id) {
+            return fields.containsKey(id);
+        }
+
+        long getLong(int id, long defaultValue) {
+            Object value = fields.get(id);
+            return value == null ? defaultValue : (Long) value;
+        }
+
+        int getInt(int id, int defaultValue) {
+            return (int) getLong(id, defaultValue);
+        }
+
+        boolean getBoolean(int id, boolean defaultValue) {
+            Object value = fields.get(id);
+            return value == null ? defaultValue : (Boolean) value;
+        }
+
+        @Nullable
+        byte[] getBinary(int id) {
+            return (byte[]) fields.get(id);
+        }
+
+        @Nullable
+        String getString(int id) {
+            byte[] bytes = getBinary(id);
+            return bytes == null ? null : new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        @Nullable
+        Struct getStruct(int id) {
+            return (Struct) fields.get(id);
+        }
+
+        @SuppressWarnings("unchecked")
+        List<Object> getList(int id) {
+            Object value = fields.get(id);
+            return value == null ? List.of() : (List<Object>) value;
+        }
+
+        /**
+         * @return the id of the field set in a union or -1 if none is set.
+         */
+        int unionField() {
+            for (Integer id : fields.keySet()) {
+                return id;
+            }
+            return -1;
+        }
+    }
+
+    static final class Reader {
+
+        private final byte[] buffer;
+        private int position;
+
+        Reader(byte[] buffer, int position) {
+            this.buffer = buffer;
+            this.position = position;
+        }
+
+        int position() {
+            return position;
+        }
+
+        Struct readStruct() throws IOException {
+            try {
+                return readStructUnchecked();
+            } catch (IndexOutOfBoundsException | ClassCastException e) {
+                throw new IOException("Invalid parquet metadata", e);
+            }
+        }
+
+        private Struct readStructUnchecked() throws IOException {
+            Struct struct = new Struct();
+            int lastFieldId = 0;
+            while (true) {
+                int header = buffer[position++] & 0xFF;
+                int type = header & 0x0F;
+                if (type == TYPE_STOP) {
+                    return struct;
+                }
+                int delta = header >>> 4;
+                int fieldId = delta == 0 ? (int) zigzag(readVarLong()) : lastFieldId + delta;
+                lastFieldId = fieldId;
+                Object value = switch (type) {
+                    case TYPE_BOOLEAN_TRUE -> true;
+                    case TYPE_BOOLEAN_FALSE -> false;
+                    default -> readValue(type);
+                };
+                struct.fields.put(fieldId, value);
+            }
+        }
+
+        private Object readValue(int type) throws IOException {
+            return switch (type) {
+                case TYPE_BOOLEAN_TRUE, TYPE_BOOLEAN_FALSE -> buffer[position++] == TYPE_BOOLEAN_TRUE;
+                case TYPE_BYTE -> (long) buffer[position++];
+                case TYPE_I16, TYPE_I32, TYPE_I64 -> zigzag(readVarLong());
+                case TYPE_DOUBLE -> {
+                    long bits = 0;
+                    for (int i = 0; i < 8; i++) {
+                        bits |= (buffer[position++] & 0xFFL) << (8 * i);
+                    }
+                    yield Double.longBitsToDouble(bits);
+                }
+                case TYPE_BINARY -> {
+                    long length = readVarLong();
+                    ensureRemaining(length, "binary length");
+                    byte[] bytes = new byte[(int) length];
+                    System.arraycopy(buffer, position, bytes, 0, bytes.length);
+                    position += bytes.length;
+                    yield bytes;
+                }
+                case TYPE_LIST, TYPE_SET -> {
+                    int header = buffer[position++] & 0xFF;
+                    long size = header >>> 4;
+                    if (size == 15) {
+                        size = readVarLong();
+                    }
+                    // Each element takes at least one byte
+                    ensureRemaining(size, "list size");
+                    int elementType = header & 0x0F;
+                    List<Object> list = new ArrayList<>((int) size);
+                    for (int i = 0; i < size; i++) {
+                        list.add(readValue(elementType));
+                    }
+                    yield list;
+                }
+                case TYPE_MAP -> {
+                    long size = readVarLong();
+                    ensureRemaining(size, "map size");
+                    Map<Object, Object> map = new HashMap<>();
+                    if (size > 0) {
+                        int types = buffer[position++] & 0xFF;
+                        for (int i = 0; i < size; i++) {
+                            map.put(readValue(types >>> 4), readValue(types & 0x0F));
+                        }
+                    }
+                    yield map;
+                }
+                case TYPE_STRUCT -> readStructUnchecked();
+                default -> throw new IOException("Invalid parquet metadata: unknown thrift type " + type);
+            };
+        }
+
+        private void ensureRemaining(long length, String what) throws IOException {
+            if (length < 0 || length > buffer.length - position) {
+                throw new IOException("Invalid parquet metadata: " + what + " " + length + " exceeds the remaining "
+                    + (buffer.length - position) + " bytes");
+            }
+        }
+
+        private long readVarLong() {
+            long result = 0;
+            int shift = 0;
+            int b;
+            do {
+                b = buffer[position++] & 0xFF;
+                result |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return result;
+        }
+
+        private static long zigzag(long n) {
+            return (n >>> 1) ^ -(n & 1);
+        }
+    }
+
+    static final class Writer {
+
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        private final ArrayDeque<Integer> lastFieldIds = new ArrayDeque<>();
+        private int lastFieldId = 0;
+
+        byte[] toByteArray() {
+            assert lastFieldIds.isEmpty() : "All structs must be ended";
+            return out.toByteArray();
+        }
+
+        void structBegin() {
+            lastFieldIds.push(lastFieldId);
+            lastFieldId = 0;
+        }
+
+        void structEnd() {
+            out.write(TYPE_STOP);
+            lastFieldId = lastFieldIds.pop();
+        }
+
+        void fieldStructBegin(int id) {
+            fieldHeader(id, TYPE_STRUCT);
+            structBegin();
+        }
+
+        /**
+         * Writes a union field which holds an empty struct, e.g. the StringType of a LogicalType.
+         */
+        void fieldUnion(int id, int unionFieldId) {
+            fieldStructBegin(id);
+            fieldStructBegin(unionFieldId);
+            structEnd();
+            structEnd();
+        }
+
+        void fieldBoolean(int id, boolean value) {
+            fieldHeader(id, value ? TYPE_BOOLEAN_TRUE : TYPE_BOOLEAN_FALSE);
+        }
+
+        void fieldByte(int id, byte value) {
+            fieldHeader(id, TYPE_BYTE);
+            out.write(value);
+        }
+
+        void fieldI32(int id, int value) {
+            fieldHeader(id, TYPE_I32);
+            writeVarLong(zigzag(value));
+        }
+
+        void fieldI64(int id, long value) {
+            fieldHeader(id, TYPE_I64);
+            writeVarLong(zigzag(value));
+        }
+
+        void fieldBinary(int id, byte[] value) {
+            fieldHeader(id, TYPE_BINARY);
+            writeBinary(value);
+        }
+
+        void fieldString(int id, String value) {
+            fieldBinary(id, value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        void fieldListBegin(int id, int elementType, int size) {
+            fieldHeader(id, TYPE_LIST);
+            if (size < 15) {
+                out.write(size << 4 | elementType);
+            } else {
+                out.write(0xF0 | elementType);
+                writeVarLong(size);
+            }
+        }
+
+        void listI32(int value) {
+            writeVarLong(zigzag(value));
+        }
+
+        void listString(String value) {
+            writeBinary(value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        private void fieldHeader(int id, int type) {
+            int delta = id - lastFieldId;
+            if (delta > 0 && delta <= 15) {
+                out.write(delta << 4 | type);
+            } else {
+                out.write(type);
+                writeVarLong(zigzag(id));
+            }
+            lastFieldId = id;
+        }
+
+        private void writeBinary(byte[] value) {
+            writeVarLong(value.length);
+            out.write(value, 0, value.length);
+        }
+
+        private void writeVarLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                out.write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            out.write((int) value);
+        }
+
+        private static long zigzag(long n) {
+            return (n << 1) ^ (n >> 63);
+        }
+    }
+}
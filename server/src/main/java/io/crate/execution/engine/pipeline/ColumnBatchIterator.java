@@ -0,0 +1,126 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.pipeline;
+
+import java.util.concurrent.CompletionStage;
+
+import org.jetbrains.annotations.NotNull;
+
+import io.crate.data.BatchIterator;
+import io.crate.data.MappedForwardingBatchIterator;
+import io.crate.data.Row;
+import io.crate.expression.vector.ColumnBatch;
+
+/**
+ * Reads the rows of the source into a {@link ColumnBatch} and emits the rows
+ * computed from the batch, so that expressions can be evaluated for up to
+ * {@link ColumnBatch#SIZE} rows at once.
+ *
+ * <p>
+ * A batch is filled with the rows the source can provide without loading, so the
+ * source is never loaded ahead of the consumer.
+ * </p>
+ */
+abstract class ColumnBatchIterator extends MappedForwardingBatchIterator<Row, Row> {
+
+    private final BatchIterator<Row> source;
+    protected final ColumnBatch batch = new ColumnBatch();
+    private boolean sourceExhausted = false;
+
+    ColumnBatchIterator(BatchIterator<Row> source) {
+        this.source = source;
+    }
+
+    /**
+     * Called after a new batch has been read from the source.
+     */
+    protected abstract void onBatch();
+
+    /**
+     * @return true if the iterator moved to the next row of the current batch
+     */
+    protected abstract boolean moveNextInBatch();
+
+    @Override
+    protected BatchIterator<Row> delegate() {
+        return source;
+    }
+
+    @Override
+    public boolean moveNext() {
+        while (!moveNextInBatch()) {
+            if (sourceExhausted || !readBatch()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean readBatch() {
+        batch.clear();
+        while (!batch.isFull()) {
+            if (!source.moveNext()) {
+                sourceExhausted = true;
+                break;
+            }
+            batch.add(source.currentElement());
+        }
+        if (batch.size() == 0) {
+            return false;
+        }
+        onBatch();
+        return true;
+    }
+
+    @Override
+    public void moveToStart() {
+        batch.clear();
+        sourceExhausted = false;
+        source.moveToStart();
+    }
+
+    @Override
+    public void close() {
+        discardBatch();
+        super.close();
+    }
+
+    @Override
+    public void kill(@NotNull Throwable throwable) {
+        discardBatch();
+        super.kill(throwable);
+    }
+
+    /**
+     * Drops the buffered rows, so that moveNext surfaces the failure of the closed or killed source.
+     */
+    private void discardBatch() {
+        batch.clear();
+        sourceExhausted = false;
+    }
+
+    @Override
+    public CompletionStage<?> loadNextBatch() throws Exception {
+        sourceExhausted = false;
+        return source.loadNextBatch();
+    }
+}
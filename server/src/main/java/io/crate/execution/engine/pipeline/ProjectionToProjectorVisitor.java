@@ -43,6 +43,7 @@ import org.elasticsearch.Version;
 import org.elasticsearch.client.ElasticsearchClient;
 import org.elasticsearch.cluster.ClusterState;
 import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.breaker.CircuitBreaker;
 import org.elasticsearch.common.lucene.uid.Versions;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.util.concurrent.EsExecutors;
@@ -54,6 +55,7 @@ import org.elasticsearch.threadpool.ThreadPool;
 import org.jetbrains.annotations.Nullable;
 
 import io.crate.analyze.SymbolEvaluator;
+import io.crate.breaker.OperatorRamAccounting;
 import io.crate.breaker.TypedCellsAccounting;
 import io.crate.common.collections.Iterables;
 import io.crate.common.collections.Lists;
@@ -98,6 +100,7 @@ import io.crate.execution.engine.aggregation.AggregationPipe;
 import io.crate.execution.engine.aggregation.GroupingProjector;
 import io.crate.execution.engine.collect.CollectExpression;
 import io.crate.execution.engine.collect.NestableCollectExpression;
+import io.crate.execution.engine.collect.files.StdStreams;
 import io.crate.execution.engine.export.FileOutputFactory;
 import io.crate.execution.engine.export.FileWriterProjector;
 import io.crate.execution.engine.fetch.FetchNodeAction;
@@ -110,9 +113,11 @@ import io.crate.execution.engine.indexing.ShardDMLExecutor;
 import io.crate.execution.engine.indexing.ShardingUpsertExecutor;
 import io.crate.execution.engine.indexing.UpsertResultContext;
 import io.crate.execution.engine.sort.OrderingByPosition;
+import io.crate.execution.engine.sort.SortedRuns;
 import io.crate.execution.engine.sort.SortingLimitAndOffsetProjector;
 import io.crate.execution.engine.sort.SortingProjector;
 import io.crate.execution.engine.sort.UnboundedSortingLimitAndOffsetCollector;
+import io.crate.execution.engine.spill.SpillService;
 import io.crate.execution.engine.window.WindowProjector;
 import io.crate.execution.jobs.NodeLimits;
 import io.crate.execution.support.ThreadPools;
@@ -124,7 +129,10 @@ import io.crate.expression.reference.StaticTableReferenceResolver;
 import io.crate.expression.reference.sys.SysRowUpdater;
 import io.crate.expression.reference.sys.check.node.SysNodeCheck;
 import io.crate.expression.symbol.Symbol;
+import io.crate.expression.symbol.SymbolType;
 import io.crate.expression.symbol.Symbols;
+import io.crate.expression.vector.VectorExpression;
+import io.crate.expression.vector.VectorExpressions;
 import io.crate.memory.MemoryManager;
 import io.crate.metadata.ColumnIdent;
 import io.crate.metadata.IndexName;
@@ -138,6 +146,7 @@ import io.crate.metadata.doc.DocTableInfo;
 import io.crate.metadata.settings.NumberOfReplicas;
 import io.crate.metadata.sys.SysNodeChecksTableInfo;
 import io.crate.planner.operators.SubQueryResults;
+import io.crate.types.BooleanType;
 import io.crate.types.DataType;
 import io.crate.types.DataTypes;
 
@@ -174,6 +183,10 @@ public class ProjectionToProjectorVisitor
     private final ShardId shardId;
     private final int numProcessors;
     private final Map<String, FileOutputFactory> fileOutputFactoryMap;
+    @Nullable
+    private final StdStreams stdStreams;
+    @Nullable
+    private final SpillService spillService;
 
     public ProjectionToProjectorVisitor(ClusterService clusterService,
                                         NodeLimits nodeJobsCounter,
@@ -188,7 +201,9 @@ public class ProjectionToProjectorVisitor
                                         Function<RelationName, StaticTableDefinition<?>> staticTableDefinitionGetter,
                                         Version indexVersionCreated,
                                         @Nullable ShardId shardId,
-                                        Map<String, FileOutputFactory> fileOutputFactoryMap) {
+                                        Map<String, FileOutputFactory> fileOutputFactoryMap,
+                                        @Nullable StdStreams stdStreams,
+                                        @Nullable SpillService spillService) {
         this.clusterService = clusterService;
         this.nodeJobsCounter = nodeJobsCounter;
         this.circuitBreakerService = circuitBreakerService;
@@ -204,6 +219,8 @@ public class ProjectionToProjectorVisitor
         this.shardId = shardId;
         this.numProcessors = EsExecutors.numberOfProcessors(settings);
         this.fileOutputFactoryMap = fileOutputFactoryMap;
+        this.stdStreams = stdStreams;
+        this.spillService = spillService;
     }
 
     public ProjectionToProjectorVisitor(ClusterService clusterService,
@@ -217,6 +234,33 @@ public class ProjectionToProjectorVisitor
                                         EvaluatingNormalizer normalizer,
                                         Function<RelationName, SysRowUpdater<?>> sysUpdaterGetter,
                                         Function<RelationName, StaticTableDefinition<?>> staticTableDefinitionGetter) {
+        this(clusterService,
+            nodeJobsCounter,
+            circuitBreakerService,
+            nodeCtx,
+            threadPool,
+            settings,
+            elasticsearchClient,
+            inputFactory,
+            normalizer,
+            sysUpdaterGetter,
+            staticTableDefinitionGetter,
+            null
+        );
+    }
+
+    public ProjectionToProjectorVisitor(ClusterService clusterService,
+                                        NodeLimits nodeJobsCounter,
+                                        CircuitBreakerService circuitBreakerService,
+                                        NodeContext nodeCtx,
+                                        ThreadPool threadPool,
+                                        Settings settings,
+                                        ElasticsearchClient elasticsearchClient,
+                                        InputFactory inputFactory,
+                                        EvaluatingNormalizer normalizer,
+                                        Function<RelationName, SysRowUpdater<?>> sysUpdaterGetter,
+                                        Function<RelationName, StaticTableDefinition<?>> staticTableDefinitionGetter,
+                                        @Nullable SpillService spillService) {
         this(clusterService,
             nodeJobsCounter,
             circuitBreakerService,
@@ -230,7 +274,9 @@ public class ProjectionToProjectorVisitor
             staticTableDefinitionGetter,
             Version.CURRENT,
             null,
-            null
+            null,
+            null,
+            spillService
         );
     }
 
@@ -268,14 +314,23 @@ public class ProjectionToProjectorVisitor
         }
 
         int rowMemoryOverhead = 32; // priority queues implementation are backed by an arrayList
+        // Spilling a sorted run releases its rows, which must not release the memory of other projectors
         TypedCellsAccounting rowAccounting = new TypedCellsAccounting(
             rowTypes,
-            context.ramAccounting,
+            new OperatorRamAccounting(context.ramAccounting),
             rowMemoryOverhead
         );
+        CircuitBreaker breaker = circuitBreakerService.getBreaker(HierarchyCircuitBreakerService.QUERY);
+        Supplier<SortedRuns> sortedRuns = () -> new SortedRuns(
+            rowAccounting,
+            spillService,
+            rowTypes,
+            SpillService.memoryBudgetBytes(breaker)
+        );
         if (projection.limit() > NO_LIMIT) {
             return new SortingLimitAndOffsetProjector(
                 rowAccounting,
+                sortedRuns,
                 inputs,
                 ctx.expressions(),
                 numOutputs,
@@ -286,7 +341,7 @@ public class ProjectionToProjectorVisitor
             );
         }
         return new SortingProjector(
-            rowAccounting,
+            sortedRuns,
             inputs,
             ctx.expressions(),
             numOutputs,
@@ -319,7 +374,14 @@ public class ProjectionToProjectorVisitor
 
     @Override
     public Projector visitEvalProjection(EvalProjection projection, Context context) {
-        InputFactory.Context<CollectExpression<Row, ?>> ctx = inputFactory.ctxForInputColumns(context.txnCtx, projection.outputs());
+        List<Symbol> outputs = projection.outputs();
+        InputFactory.Context<CollectExpression<Row, ?>> ctx = inputFactory.ctxForInputColumns(context.txnCtx, outputs);
+        if (Symbols.any(outputs, s -> s.symbolType() == SymbolType.FUNCTION)) {
+            List<VectorExpression> expressions = VectorExpressions.compile(outputs, context.txnCtx);
+            if (expressions != null) {
+                return new VectorizedEvalProjector(outputs, expressions, ctx.topLevelInputs(), ctx.expressions());
+            }
+        }
         return new InputRowProjector(ctx.topLevelInputs(), ctx.expressions());
     }
 
@@ -340,7 +402,9 @@ public class ProjectionToProjectorVisitor
             context.ramAccounting,
             context.memoryManager,
             clusterService.state().nodes().getMinNodeVersion(),
-            indexVersionCreated
+            indexVersionCreated,
+            spillService,
+            SpillService.memoryBudgetBytes(circuitBreakerService.getBreaker(HierarchyCircuitBreakerService.QUERY))
         );
     }
 
@@ -378,36 +442,49 @@ public class ProjectionToProjectorVisitor
         String uri = DataTypes.STRING.sanitizeValue(
             SymbolEvaluator.evaluate(context.txnCtx, nodeCtx, projection.uri(), Row.EMPTY, SubQueryResults.EMPTY));
         assert uri != null : "URI must not be null";
-        assert shardId != null : "ShardId must be set to use WriterProjection";
-        IndexParts indexParts = IndexName.decode(shardId.getIndexName());
-        String fileName = String.format(
-            Locale.ENGLISH,
-            "%s_%s_%s.json",
-            indexParts.table(),
-            shardId.id(),
-            indexParts.partitionIdent()
-        );
+        Map<String, FileOutputFactory> fileOutputFactories = fileOutputFactoryMap;
+        if (projection.isToStdout()) {
+            if (stdStreams == null) {
+                throw new UnsupportedOperationException("COPY TO STDOUT can only be executed on the handler node");
+            }
+            UUID jobId = context.jobId;
+            fileOutputFactories = Map.of(StdStreams.STDOUT_SCHEME, (u, options) -> stdStreams.stdout(jobId, u));
+        } else {
+            assert shardId != null : "ShardId must be set to use WriterProjection";
+            IndexParts indexParts = IndexName.decode(shardId.getIndexName());
+            boolean parquet = projection.outputFormat() == WriterProjection.OutputFormat.PARQUET;
+            String fileName = String.format(
+                Locale.ENGLISH,
+                "%s_%s_%s.%s",
+                indexParts.table(),
+                shardId.id(),
+                indexParts.partitionIdent(),
+                parquet ? "parquet" : "json"
+            );
 
-        StringBuilder sb = new StringBuilder(uri);
-        if (!uri.endsWith("/")) {
-            sb.append("/");
-        }
-        sb.append(fileName);
-        if (projection.compressionType() == WriterProjection.CompressionType.GZIP) {
-            sb.append(".gz");
+            StringBuilder sb = new StringBuilder(uri);
+            if (!uri.endsWith("/")) {
+                sb.append("/");
+            }
+            sb.append(fileName);
+            if (projection.compressionType() == WriterProjection.CompressionType.GZIP && !parquet) {
+                sb.append(".gz");
+            }
+            uri = sb.toString();
         }
-        uri = sb.toString();
 
         return new FileWriterProjector(
             threadPool.generic(),
             uri,
             projection.compressionType(),
             inputs,
+            Symbols.typeView(projection.inputs()),
             ctx.expressions(),
             projection.outputNames(),
             projection.outputFormat(),
-            fileOutputFactoryMap,
-            projection.withClauseOptions()
+            fileOutputFactories,
+            projection.withClauseOptions(),
+            new OperatorRamAccounting(context.ramAccounting)
         );
     }
 
@@ -535,7 +612,14 @@ public class ProjectionToProjectorVisitor
 
     @Override
     public Projector visitFilterProjection(FilterProjection projection, Context context) {
-        Predicate<Row> rowFilter = RowFilter.create(context.txnCtx, inputFactory, projection.query());
+        Symbol query = projection.query();
+        Predicate<Row> rowFilter = RowFilter.create(context.txnCtx, inputFactory, query);
+        if (query.symbolType() == SymbolType.FUNCTION && query.valueType().id() == BooleanType.ID) {
+            VectorExpression filter = VectorExpressions.compile(query, context.txnCtx);
+            if (filter != null) {
+                return new VectorizedFilterProjector(filter, rowFilter);
+            }
+        }
         return new FilterProjector(rowFilter);
     }
 
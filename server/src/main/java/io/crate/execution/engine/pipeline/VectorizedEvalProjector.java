@@ -0,0 +1,152 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.pipeline;
+
+import java.util.List;
+
+import io.crate.data.BatchIterator;
+import io.crate.data.Input;
+import io.crate.data.Projector;
+import io.crate.data.Row;
+import io.crate.execution.engine.collect.CollectExpression;
+import io.crate.expression.symbol.InputColumn;
+import io.crate.expression.symbol.Symbol;
+import io.crate.expression.vector.ColumnVector;
+import io.crate.expression.vector.VectorExpression;
+
+/**
+ * Vectorized variant of {@link InputRowProjector}, used if all outputs can be
+ * compiled to {@link VectorExpression}s.
+ *
+ * <p>
+ * If evaluating a batch fails, the rows of the batch are evaluated one by one with the
+ * row-wise inputs when they are read. A failure therefore surfaces with the row causing it,
+ * and not at all if that row is never read, e.g. because of a LIMIT.
+ * </p>
+ */
+class VectorizedEvalProjector implements Projector {
+
+    private final int[] inputIndexes;
+    private final List<VectorExpression> expressions;
+    private final List<Input<?>> rowInputs;
+    private final Iterable<CollectExpression<Row, ?>> rowExpressions;
+
+    /**
+     * @param outputs the symbols the expressions were compiled from
+     * @param rowInputs the row-wise inputs of the outputs
+     * @param rowExpressions the collect expressions of the row-wise inputs
+     */
+    VectorizedEvalProjector(List<Symbol> outputs,
+                            List<VectorExpression> expressions,
+                            List<Input<?>> rowInputs,
+                            Iterable<CollectExpression<Row, ?>> rowExpressions) {
+        assert outputs.size() == expressions.size() : "Must have an expression per output";
+        assert outputs.size() == rowInputs.size() : "Must have a row-wise input per output";
+        this.expressions = expressions;
+        this.rowInputs = rowInputs;
+        this.rowExpressions = rowExpressions;
+        this.inputIndexes = new int[outputs.size()];
+        for (int i = 0; i < inputIndexes.length; i++) {
+            // Input columns are passed through without conversion
+            inputIndexes[i] = outputs.get(i) instanceof InputColumn inputColumn ? inputColumn.index() : -1;
+        }
+    }
+
+    @Override
+    public BatchIterator<Row> apply(BatchIterator<Row> batchIterator) {
+        return new ColumnBatchIterator(batchIterator) {
+
+            private final ColumnVector[] results = new ColumnVector[inputIndexes.length];
+            private int position = -1;
+            private boolean rowWise = false;
+
+            private final Row batchRow = new Row() {
+
+                @Override
+                public int numColumns() {
+                    return batch.numColumns();
+                }
+
+                @Override
+                public Object get(int index) {
+                    return batch.get(index, position);
+                }
+            };
+
+            private final Row row = new Row() {
+
+                @Override
+                public int numColumns() {
+                    return inputIndexes.length;
+                }
+
+                @Override
+                public Object get(int index) {
+                    if (rowWise) {
+                        return rowInputs.get(index).value();
+                    }
+                    int inputIndex = inputIndexes[index];
+                    return inputIndex == -1 ? results[index].get(position) : batch.get(inputIndex, position);
+                }
+            };
+
+            @Override
+            protected void onBatch() {
+                position = -1;
+                rowWise = false;
+                try {
+                    for (int i = 0; i < results.length; i++) {
+                        if (inputIndexes[i] == -1) {
+                            results[i] = expressions.get(i).evaluate(batch);
+                        }
+                    }
+                } catch (RuntimeException e) {
+                    rowWise = true;
+                }
+            }
+
+            @Override
+            protected boolean moveNextInBatch() {
+                if (position + 1 < batch.size()) {
+                    position++;
+                    if (rowWise) {
+                        for (CollectExpression<Row, ?> expression : rowExpressions) {
+                            expression.setNextRow(batchRow);
+                        }
+                    }
+                    return true;
+                }
+                return false;
+            }
+
+            @Override
+            public Row currentElement() {
+                return row;
+            }
+        };
+    }
+
+    @Override
+    public boolean providesIndependentScroll() {
+        return false;
+    }
+}
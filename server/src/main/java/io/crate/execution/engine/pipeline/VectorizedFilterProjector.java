@@ -0,0 +1,105 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.pipeline;
+
+import java.util.function.Predicate;
+
+import io.crate.data.BatchIterator;
+import io.crate.data.Projector;
+import io.crate.data.Row;
+import io.crate.expression.vector.BooleanVector;
+import io.crate.expression.vector.VectorExpression;
+
+/**
+ * Vectorized variant of {@link FilterProjector}, used if the filter can be
+ * compiled to a {@link VectorExpression}.
+ *
+ * <p>
+ * If evaluating a batch fails, the rows of the batch are filtered one by one with the
+ * row-wise filter. A failure therefore surfaces with the row causing it, and not at all
+ * if that row is never read, e.g. because of a LIMIT.
+ * </p>
+ */
+class VectorizedFilterProjector implements Projector {
+
+    private final VectorExpression filter;
+    private final Predicate<Row> rowFilter;
+
+    VectorizedFilterProjector(VectorExpression filter, Predicate<Row> rowFilter) {
+        this.filter = filter;
+        this.rowFilter = rowFilter;
+    }
+
+    @Override
+    public BatchIterator<Row> apply(BatchIterator<Row> batchIterator) {
+        return new ColumnBatchIterator(batchIterator) {
+
+            private BooleanVector matches;
+            private int position = -1;
+
+            private final Row row = new Row() {
+
+                @Override
+                public int numColumns() {
+                    return batch.numColumns();
+                }
+
+                @Override
+                public Object get(int index) {
+                    return batch.get(index, position);
+                }
+            };
+
+            @Override
+            protected void onBatch() {
+                position = -1;
+                try {
+                    matches = (BooleanVector) filter.evaluate(batch);
+                } catch (RuntimeException e) {
+                    matches = null;
+                }
+            }
+
+            @Override
+            protected boolean moveNextInBatch() {
+                int size = batch.size();
+                while (position + 1 < size) {
+                    position++;
+                    if (matches == null ? rowFilter.test(row) : matches.isTrue(position)) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+
+            @Override
+            public Row currentElement() {
+                return row;
+            }
+        };
+    }
+
+    @Override
+    public boolean providesIndependentScroll() {
+        return false;
+    }
+}
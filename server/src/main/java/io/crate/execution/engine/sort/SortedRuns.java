@@ -0,0 +1,191 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.engine.sort;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.elasticsearch.common.breaker.CircuitBreakingException;
+import org.jetbrains.annotations.Nullable;
+
+import io.crate.Streamer;
+import io.crate.common.io.IOUtils;
+import io.crate.data.breaker.RowAccounting;
+import io.crate.execution.engine.distribution.merge.KeyIterable;
+import io.crate.execution.engine.distribution.merge.PagingIterator;
+import io.crate.execution.engine.spill.SpillFile;
+import io.crate.execution.engine.spill.SpillService;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+
+/**
+ * Sorted runs of an external merge sort.
+ * <p>
+ * Sorting operations buffer rows on heap and account for them using {@link #tryAccountFor(Object[])}.
+ * Once the buffered rows exceed the memory budget of a run (or the circuit breaker would trip), the operation
+ * sorts them and writes them to disk using {@link #spill(Iterable)}, which also releases the accounted memory.
+ * <p>
+ * The final result is produced by {@link #merge(List, Comparator, int, int)} with a k-way merge of the spilled runs
+ * and the last in-memory run.
+ * <p>
+ * If no {@link SpillService} is given, all rows are kept on heap and a {@link CircuitBreakingException} is raised if
+ * they don't fit into memory.
+ */
+public final class SortedRuns implements Closeable {
+
+    private final RowAccounting<Object[]> rowAccounting;
+    @Nullable
+    private final SpillService spillService;
+    private final Streamer<?>[] streamers;
+    private final long runBudgetBytes;
+    private final List<SpillFile> spilledRuns = new ArrayList<>();
+
+    private long runBytes = 0;
+    private int numRowsInRun = 0;
+
+    /**
+     * Keeps all rows in memory
+     */
+    public SortedRuns(RowAccounting<Object[]> rowAccounting) {
+        this(rowAccounting, null, List.of(), Long.MAX_VALUE);
+    }
+
+    /**
+     * @param rowAccounting  accounting of the rows of this operation only, e.g. on top of an
+     *                       {@link io.crate.breaker.OperatorRamAccounting}, as spilling a run releases it
+     * @param rowTypes       types of the row cells, used to serialize spilled rows
+     * @param runBudgetBytes number of bytes after which the rows buffered in memory are spilled to disk,
+     *                       see {@link SpillService#memoryBudgetBytes}
+     */
+    public SortedRuns(RowAccounting<Object[]> rowAccounting,
+                      @Nullable SpillService spillService,
+                      List<? extends DataType<?>> rowTypes,
+                      long runBudgetBytes) {
+        this.rowAccounting = rowAccounting;
+        this.spillService = spillService;
+        this.streamers = DataTypes.getStreamers(rowTypes);
+        this.runBudgetBytes = runBudgetBytes;
+    }
+
+    /**
+     * Accounts for a row which is added to the current in-memory run.
+     *
+     * @return false if the row doesn't fit into the memory budget of the current run. The run must be spilled via
+     *         {@link #spill(Iterable)} before accounting for the row again.
+     * @throws CircuitBreakingException if the row doesn't fit into memory and there is nothing left to spill.
+     */
+    public boolean tryAccountFor(Object[] row) {
+        if (spillService == null || spillService.isEnabled() == false) {
+            rowAccounting.accountForAndMaybeBreak(row);
+            return true;
+        }
+        if (numRowsInRun > 0 && runBytes >= runBudgetBytes) {
+            return false;
+        }
+        try {
+            runBytes += rowAccounting.accountForAndMaybeBreak(row);
+        } catch (CircuitBreakingException e) {
+            if (numRowsInRun == 0) {
+                throw e;
+            }
+            return false;
+        }
+        numRowsInRun++;
+        return true;
+    }
+
+    /**
+     * Writes the rows of the current run to disk and releases the memory accounted for them.
+     *
+     * @param sortedRows the rows of the current run, in sort order
+     */
+    public void spill(Iterable<Object[]> sortedRows) throws IOException {
+        assert spillService != null : "spill() must only be called if tryAccountFor() returned false";
+        SpillFile spillFile = spillService.newSpillFile("sort-run-" + spilledRuns.size() + "-", streamers);
+        spilledRuns.add(spillFile);
+        for (Object[] row : sortedRows) {
+            spillFile.write(row);
+        }
+        spillFile.finishWriting();
+        rowAccounting.release();
+        runBytes = 0;
+        numRowsInRun = 0;
+    }
+
+    public boolean hasSpilled() {
+        return spilledRuns.isEmpty() == false;
+    }
+
+    /**
+     * Merges the spilled runs with the last in-memory run.
+     *
+     * @param lastRun rows of the last run that have not been spilled, in sort order
+     * @return an iterable over the merged rows with offset and limit applied. Can be iterated repeatedly.
+     */
+    public Iterable<Object[]> merge(List<Object[]> lastRun, Comparator<Object[]> comparator, int limit, int offset) {
+        List<KeyIterable<Integer, Object[]>> runs = new ArrayList<>(spilledRuns.size() + 1);
+        for (int i = 0; i < spilledRuns.size(); i++) {
+            runs.add(new KeyIterable<>(i, spilledRuns.get(i).rows()));
+        }
+        runs.add(new KeyIterable<>(spilledRuns.size(), lastRun));
+        return () -> {
+            PagingIterator<Integer, Object[]> mergeIterator = PagingIterator.createSorted(comparator, false);
+            mergeIterator.merge(runs);
+            mergeIterator.finish();
+            for (int i = 0; i < offset && mergeIterator.hasNext(); i++) {
+                mergeIterator.next();
+            }
+            return new Iterator<>() {
+
+                private int remaining = limit;
+
+                @Override
+                public boolean hasNext() {
+                    return remaining > 0 && mergeIterator.hasNext();
+                }
+
+                @Override
+                public Object[] next() {
+                    if (hasNext() == false) {
+                        throw new NoSuchElementException("No more rows");
+                    }
+                    remaining--;
+                    return mergeIterator.next();
+                }
+            };
+        };
+    }
+
+    /**
+     * Deletes the spilled runs
+     */
+    @Override
+    public void close() throws IOException {
+        IOUtils.close(spilledRuns);
+    }
+}
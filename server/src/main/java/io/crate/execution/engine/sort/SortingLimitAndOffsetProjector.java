@@ -21,12 +21,16 @@
 
 package io.crate.execution.engine.sort;
 
+import java.io.IOException;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.function.Supplier;
 import java.util.stream.Collector;
 
+import org.jetbrains.annotations.Nullable;
+
+import io.crate.common.exceptions.Exceptions;
 import io.crate.data.BatchIterator;
-import io.crate.data.Bucket;
 import io.crate.data.CollectingBatchIterator;
 import io.crate.data.InMemoryBatchIterator;
 import io.crate.data.Input;
@@ -38,11 +42,36 @@ import io.crate.execution.engine.collect.CollectExpression;
 
 public class SortingLimitAndOffsetProjector implements Projector {
 
-    private final Collector<Row, ?, Bucket> collector;
+    private final Collector<Row, ?, ? extends Iterable<Row>> collector;
     private final boolean hasNoResult;
+    @Nullable
+    private final SortedRuns sortedRuns;
+
+    public SortingLimitAndOffsetProjector(RowAccounting<Object[]> rowAccounting,
+                                          Collection<? extends Input<?>> inputs,
+                                          Iterable<? extends CollectExpression<Row, ?>> collectExpressions,
+                                          int numOutputs,
+                                          Comparator<Object[]> ordering,
+                                          int limit,
+                                          int offset,
+                                          int unboundedCollectorThreshold) {
+        this(
+            rowAccounting,
+            () -> new SortedRuns(rowAccounting),
+            inputs,
+            collectExpressions,
+            numOutputs,
+            ordering,
+            limit,
+            offset,
+            unboundedCollectorThreshold
+        );
+    }
 
     /**
      * @param rowAccounting               sorting is a pipeline breaker so account for the used memory
+     * @param sortedRunsSupplier          used by the unbounded collector to account for the used memory and to spill
+     *                                    sorted runs to disk if necessary
      * @param inputs                      contains output {@link Input}s and orderBy {@link Input}s
      * @param collectExpressions          gathered from outputs and orderBy inputs
      * @param numOutputs                  <code>inputs</code> contains this much output {@link Input}s starting form index 0
@@ -53,6 +82,7 @@ public class SortingLimitAndOffsetProjector implements Projector {
      *                                    be used, otherwise a bounded one is used.
      */
     public SortingLimitAndOffsetProjector(RowAccounting<Object[]> rowAccounting,
+                                          Supplier<SortedRuns> sortedRunsSupplier,
                                           Collection<? extends Input<?>> inputs,
                                           Iterable<? extends CollectExpression<Row, ?>> collectExpressions,
                                           int numOutputs,
@@ -65,6 +95,7 @@ public class SortingLimitAndOffsetProjector implements Projector {
             throw new IllegalArgumentException("Invalid OFFSET: value must be >= 0; got: " + offset);
         } else if (hasNoResult) {
             collector = null;
+            sortedRuns = null;
         } else if ((limit + offset) > unboundedCollectorThreshold) {
             /**
             * We'll use an unbounded queue with the initial capacity of {@link unboundedCollectorThreshold}
@@ -74,8 +105,9 @@ public class SortingLimitAndOffsetProjector implements Projector {
             * Otherwise, we'll use a bounded queue as we want to avoid the case where we pre-allocate a large queue that
             * will never be filled.
             */
+            sortedRuns = sortedRunsSupplier.get();
             collector = new UnboundedSortingLimitAndOffsetCollector(
-                rowAccounting,
+                sortedRuns,
                 inputs,
                 collectExpressions,
                 numOutputs,
@@ -85,6 +117,7 @@ public class SortingLimitAndOffsetProjector implements Projector {
                 offset
             );
         } else {
+            sortedRuns = null;
             collector = new BoundedSortingLimitAndOffsetCollector(
                 rowAccounting,
                 inputs,
@@ -103,7 +136,25 @@ public class SortingLimitAndOffsetProjector implements Projector {
             batchIterator.close();
             return InMemoryBatchIterator.empty(SentinelRow.SENTINEL);
         }
-        return CollectingBatchIterator.newInstance(batchIterator, collector);
+        if (sortedRuns == null) {
+            return CollectingBatchIterator.newInstance(batchIterator, collector);
+        }
+        return CollectingBatchIterator.newInstance(
+            () -> {
+                try {
+                    batchIterator.close();
+                } finally {
+                    try {
+                        sortedRuns.close();
+                    } catch (IOException e) {
+                        Exceptions.rethrowUnchecked(e);
+                    }
+                }
+            },
+            batchIterator::kill,
+            () -> batchIterator.collect(collector),
+            batchIterator.hasLazyResultSet()
+        );
     }
 
     @Override
@@ -21,8 +21,10 @@
 
 package io.crate.execution.engine.sort;
 
+import io.crate.common.collections.Iterables;
+import io.crate.common.exceptions.Exceptions;
 import io.crate.data.BatchIterator;
-import io.crate.data.Bucket;
+import io.crate.data.Buckets;
 import io.crate.data.CollectingBatchIterator;
 import io.crate.data.CollectionBucket;
 import io.crate.data.Input;
@@ -31,17 +33,21 @@ import io.crate.data.Row;
 import io.crate.data.breaker.RowAccounting;
 import io.crate.execution.engine.collect.CollectExpression;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
+import java.util.function.Supplier;
 import java.util.stream.Collector;
-import java.util.stream.Collectors;
 
 /**
  * Sort rows by ordering criteria and process given offset before emitting.
  * <p>
  * Compared to {@link SortingLimitAndOffsetProjector} this projector does not support limiting,
  * while the {@link SortingLimitAndOffsetProjector} does not work WITHOUT a limit.
+ * <p>
+ * If the rows exceed the memory budget, sorted runs are spilled to disk and merged at the end. See {@link SortedRuns}.
  */
 public class SortingProjector implements Projector {
 
@@ -51,17 +57,26 @@ public class SortingProjector implements Projector {
     private final Comparator<Object[]> comparator;
     private final int offset;
     private final int numOutputs;
-    private final RowAccounting<Object[]> rowAccounting;
+    private final Supplier<SortedRuns> sortedRunsSupplier;
+
+    public SortingProjector(RowAccounting<Object[]> rowAccounting,
+                            Collection<? extends Input<?>> inputs,
+                            Iterable<? extends CollectExpression<Row, ?>> collectExpressions,
+                            int numOutputs,
+                            Comparator<Object[]> comparator,
+                            int offset) {
+        this(() -> new SortedRuns(rowAccounting), inputs, collectExpressions, numOutputs, comparator, offset);
+    }
 
     /**
-     * @param rowAccounting               sorting is a pipeline breaker so account for the used memory
+     * @param sortedRunsSupplier sorting is a pipeline breaker so account for the used memory and spill if necessary
      * @param inputs             contains output {@link Input}s and orderBy {@link Input}s
      * @param collectExpressions gathered from outputs and orderBy inputs
      * @param numOutputs         <code>inputs</code> contains this much output {@link Input}s starting form index 0
      * @param comparator         ordering that is used to compare the rows
      * @param offset             the initial offset, this number of rows are skipped
      */
-    public SortingProjector(RowAccounting<Object[]> rowAccounting,
+    public SortingProjector(Supplier<SortedRuns> sortedRunsSupplier,
                             Collection<? extends Input<?>> inputs,
                             Iterable<? extends CollectExpression<Row, ?>> collectExpressions,
                             int numOutputs,
@@ -70,7 +85,7 @@ public class SortingProjector implements Projector {
         if (offset < 0) {
             throw new IllegalArgumentException("invalid offset " + offset);
         }
-        this.rowAccounting = rowAccounting;
+        this.sortedRunsSupplier = sortedRunsSupplier;
         this.numOutputs = numOutputs;
         this.inputs = inputs;
         this.collectExpressions = collectExpressions;
@@ -81,10 +96,27 @@ public class SortingProjector implements Projector {
 
     @Override
     public BatchIterator<Row> apply(BatchIterator<Row> batchIterator) {
-        Collector<Row, ?, Bucket> collector = Collectors.mapping(
-            this::getCells,
-            Collectors.collectingAndThen(Collectors.toList(), this::sortAndCreateBucket));
-        return CollectingBatchIterator.newInstance(batchIterator, collector);
+        SortedRuns sortedRuns = sortedRunsSupplier.get();
+        Collector<Row, List<Object[]>, Iterable<Row>> collector = Collector.of(
+            ArrayList::new,
+            (rows, row) -> addRow(sortedRuns, rows, getCells(row)),
+            (rows1, rows2) -> {
+                throw new UnsupportedOperationException("combine not supported");
+            },
+            rows -> sortAndCreateIterable(sortedRuns, rows)
+        );
+        return CollectingBatchIterator.newInstance(
+            () -> {
+                try {
+                    batchIterator.close();
+                } finally {
+                    closeRuns(sortedRuns);
+                }
+            },
+            batchIterator::kill,
+            () -> batchIterator.collect(collector),
+            batchIterator.hasLazyResultSet()
+        );
     }
 
     @Override
@@ -101,15 +133,44 @@ public class SortingProjector implements Projector {
         for (Input<?> input : inputs) {
             newRow[i++] = input.value();
         }
-        rowAccounting.accountForAndMaybeBreak(newRow);
         return newRow;
     }
 
-    private Bucket sortAndCreateBucket(List<Object[]> rows) {
+    private void addRow(SortedRuns sortedRuns, List<Object[]> rows, Object[] cells) {
+        if (sortedRuns.tryAccountFor(cells) == false) {
+            rows.sort(comparator);
+            try {
+                sortedRuns.spill(rows);
+            } catch (IOException e) {
+                Exceptions.rethrowUnchecked(e);
+            }
+            rows.clear();
+            if (sortedRuns.tryAccountFor(cells) == false) {
+                throw new IllegalStateException("Row must fit into an empty run");
+            }
+        }
+        rows.add(cells);
+    }
+
+    private Iterable<Row> sortAndCreateIterable(SortedRuns sortedRuns, List<Object[]> rows) {
         rows.sort(comparator);
+        if (sortedRuns.hasSpilled()) {
+            return Iterables.transform(
+                sortedRuns.merge(rows, comparator, Integer.MAX_VALUE, offset),
+                Buckets.arrayToSharedRow(numOutputs)
+            );
+        }
         if (offset == 0) {
             return new CollectionBucket(rows, numOutputs);
         }
         return new CollectionBucket(rows.subList(offset, rows.size()), numOutputs);
     }
+
+    private static void closeRuns(SortedRuns sortedRuns) {
+        try {
+            sortedRuns.close();
+        } catch (IOException e) {
+            Exceptions.rethrowUnchecked(e);
+        }
+    }
 }
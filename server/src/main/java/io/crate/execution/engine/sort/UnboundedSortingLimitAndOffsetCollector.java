@@ -21,14 +21,18 @@
 
 package io.crate.execution.engine.sort;
 
+import io.crate.common.collections.Iterables;
+import io.crate.common.exceptions.Exceptions;
 import io.crate.data.ArrayBucket;
-import io.crate.data.Bucket;
+import io.crate.data.Buckets;
 import io.crate.data.Input;
 import io.crate.data.Row;
 import io.crate.data.breaker.RowAccounting;
 import io.crate.execution.engine.collect.CollectExpression;
 import org.apache.lucene.util.ArrayUtil;
 
+import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
@@ -44,9 +48,12 @@ import java.util.stream.Collector;
 /**
  * Collector implementation which collects rows into an unbounded priorityQueue in order to sort the rows and apply a
  * limit + offset.
- * The final result is a sorted bucket with limit and offset applied.
+ * The final result is a sorted iterable with limit and offset applied.
+ * <p>
+ * If the queue exceeds the memory budget of {@link SortedRuns}, it is spilled to disk as a sorted run and the runs are
+ * merged at the end.
  */
-public class UnboundedSortingLimitAndOffsetCollector implements Collector<Row, PriorityQueue<Object[]>, Bucket> {
+public class UnboundedSortingLimitAndOffsetCollector implements Collector<Row, PriorityQueue<Object[]>, Iterable<Row>> {
 
     private final Collection<? extends Input<?>> inputs;
     private final Iterable<? extends CollectExpression<Row, ?>> expressions;
@@ -55,10 +62,21 @@ public class UnboundedSortingLimitAndOffsetCollector implements Collector<Row, P
     private final int initialCapacity;
     private final int offset;
     private final int maxNumberOfRowsInQueue;
-    private final RowAccounting<Object[]> rowAccounting;
+    private final SortedRuns sortedRuns;
+
+    public UnboundedSortingLimitAndOffsetCollector(RowAccounting<Object[]> rowAccounting,
+                                                   Collection<? extends Input<?>> inputs,
+                                                   Iterable<? extends CollectExpression<Row, ?>> expressions,
+                                                   int numOutputs,
+                                                   Comparator<Object[]> comparator,
+                                                   int initialCapacity,
+                                                   int limit,
+                                                   int offset) {
+        this(new SortedRuns(rowAccounting), inputs, expressions, numOutputs, comparator, initialCapacity, limit, offset);
+    }
 
     /**
-     * @param rowAccounting   sorting is a pipeline breaker so account for the used memory
+     * @param sortedRuns      sorting is a pipeline breaker so account for the used memory and spill if necessary
      * @param inputs          contains output {@link Input}s and orderBy {@link Input}s
      * @param expressions     expressions linked to the inputs
      * @param numOutputs      number of output columns
@@ -67,7 +85,7 @@ public class UnboundedSortingLimitAndOffsetCollector implements Collector<Row, P
      * @param limit           the max number of rows the result should contain
      * @param offset          the number of rows to skip (after sort)
      */
-    public UnboundedSortingLimitAndOffsetCollector(RowAccounting<Object[]> rowAccounting,
+    public UnboundedSortingLimitAndOffsetCollector(SortedRuns sortedRuns,
                                                    Collection<? extends Input<?>> inputs,
                                                    Iterable<? extends CollectExpression<Row, ?>> expressions,
                                                    int numOutputs,
@@ -84,7 +102,7 @@ public class UnboundedSortingLimitAndOffsetCollector implements Collector<Row, P
         if (offset < 0) {
             throw new IllegalArgumentException("Invalid OFFSET: value must be >= 0; got: " + offset);
         }
-        this.rowAccounting = rowAccounting;
+        this.sortedRuns = sortedRuns;
         this.inputs = inputs;
         this.expressions = expressions;
         this.numOutputs = numOutputs;
@@ -120,7 +138,7 @@ public class UnboundedSortingLimitAndOffsetCollector implements Collector<Row, P
     }
 
     @Override
-    public Function<PriorityQueue<Object[]>, Bucket> finisher() {
+    public Function<PriorityQueue<Object[]>, Iterable<Row>> finisher() {
         return this::pqToIterable;
     }
 
@@ -139,28 +157,56 @@ public class UnboundedSortingLimitAndOffsetCollector implements Collector<Row, P
             rowCells[i] = input.value();
             i++;
         }
-        rowAccounting.accountForAndMaybeBreak(rowCells);
         if (pq.size() == maxNumberOfRowsInQueue) {
             Object[] highestElementInOrder = pq.peek();
             if (highestElementInOrder == null || comparator.compare(rowCells, highestElementInOrder) < 0) {
+                accountFor(pq, rowCells);
                 pq.poll();
                 pq.add(rowCells);
             }
         } else {
+            accountFor(pq, rowCells);
             pq.add(rowCells);
         }
     }
 
-    private Bucket pqToIterable(PriorityQueue<Object[]> pq) {
-        if (offset > pq.size()) {
-            return new ArrayBucket(new Object[0][0], numOutputs);
+    private void accountFor(PriorityQueue<Object[]> pq, Object[] rowCells) {
+        if (sortedRuns.tryAccountFor(rowCells) == false) {
+            try {
+                sortedRuns.spill(Arrays.asList(pollSorted(pq, pq.size())));
+            } catch (IOException e) {
+                Exceptions.rethrowUnchecked(e);
+            }
+            if (sortedRuns.tryAccountFor(rowCells) == false) {
+                throw new IllegalStateException("Row must fit into an empty run");
+            }
         }
-        int resultSize = Math.max(Math.min(maxNumberOfRowsInQueue - offset, pq.size() - offset), 0);
+    }
 
-        Object[][] rows = new Object[resultSize][];
-        for (int i = resultSize - 1; i >= 0; i--) {
+    /**
+     * Polls the given number of rows from the queue, in sort order.
+     * The queue is in reversed order, so these are the rows ordered highest.
+     */
+    private static Object[][] pollSorted(PriorityQueue<Object[]> pq, int numRows) {
+        Object[][] rows = new Object[numRows][];
+        for (int i = numRows - 1; i >= 0; i--) {
             rows[i] = pq.poll();
         }
-        return new ArrayBucket(rows, numOutputs);
+        return rows;
+    }
+
+    private Iterable<Row> pqToIterable(PriorityQueue<Object[]> pq) {
+        if (sortedRuns.hasSpilled()) {
+            Object[][] lastRun = pollSorted(pq, pq.size());
+            return Iterables.transform(
+                sortedRuns.merge(Arrays.asList(lastRun), comparator, maxNumberOfRowsInQueue - offset, offset),
+                Buckets.arrayToSharedRow(numOutputs)
+            );
+        }
+        if (offset > pq.size()) {
+            return new ArrayBucket(new Object[0][0], numOutputs);
+        }
+        int resultSize = Math.max(Math.min(maxNumberOfRowsInQueue - offset, pq.size() - offset), 0);
+        return new ArrayBucket(pollSorted(pq, resultSize), numOutputs);
     }
 }
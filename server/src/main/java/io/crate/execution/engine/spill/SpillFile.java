@@ -0,0 +1,175 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.engine.spill;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.elasticsearch.common.io.stream.InputStreamStreamInput;
+import org.elasticsearch.common.io.stream.OutputStreamStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.jetbrains.annotations.Nullable;
+
+import io.crate.Streamer;
+import io.crate.common.io.IOUtils;
+
+/**
+ * A temporary file holding rows serialized with {@link Streamer}s.
+ * <p>
+ * Rows are appended using {@link #write(Object[])}. Once {@link #finishWriting()} was called
+ * the rows can be read back sequentially, as often as needed, via {@link #rows()}.
+ * <p>
+ * Not thread safe.
+ */
+public final class SpillFile implements Closeable {
+
+    private static final int BUFFER_SIZE = 32 * 1024;
+
+    private final Path path;
+    private final Streamer<Object>[] streamers;
+    private final List<StreamInput> openReaders = new ArrayList<>();
+
+    @Nullable
+    private StreamOutput out;
+    private long numRows = 0;
+
+    @SuppressWarnings("unchecked")
+    SpillFile(Path path, Streamer<?>[] streamers) throws IOException {
+        this.path = path;
+        this.streamers = (Streamer<Object>[]) streamers;
+        this.out = new OutputStreamStreamOutput(new BufferedOutputStream(Files.newOutputStream(path), BUFFER_SIZE));
+    }
+
+    public void write(Object[] row) throws IOException {
+        assert out != null : "Cannot write to a SpillFile after finishWriting() was called";
+        for (int i = 0; i < streamers.length; i++) {
+            // Not all streamers are null-safe (e.g. regproc), so nulls are encoded explicitly
+            Object value = row[i];
+            if (value == null) {
+                out.writeBoolean(false);
+            } else {
+                out.writeBoolean(true);
+                streamers[i].writeValueTo(out, value);
+            }
+        }
+        numRows++;
+    }
+
+    /**
+     * Flushes all written rows to disk. No more rows can be written afterwards.
+     */
+    public void finishWriting() throws IOException {
+        if (out != null) {
+            out.close();
+            out = null;
+        }
+    }
+
+    public long numRows() {
+        return numRows;
+    }
+
+    /**
+     * @return an iterable over the rows of the file. Each {@link Iterable#iterator()} call starts reading
+     *         at the beginning of the file. Every returned row is a new array.
+     */
+    public Iterable<Object[]> rows() {
+        assert out == null : "finishWriting() must be called before the rows can be read";
+        return RowReader::new;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            IOUtils.close(out);
+            IOUtils.close(openReaders);
+        } finally {
+            out = null;
+            openReaders.clear();
+            Files.deleteIfExists(path);
+        }
+    }
+
+    private class RowReader implements Iterator<Object[]> {
+
+        private final StreamInput in;
+        private long remaining;
+
+        RowReader() {
+            this.remaining = numRows;
+            try {
+                this.in = new InputStreamStreamInput(new BufferedInputStream(Files.newInputStream(path), BUFFER_SIZE));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            openReaders.add(in);
+            if (remaining == 0) {
+                closeReader();
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return remaining > 0;
+        }
+
+        @Override
+        public Object[] next() {
+            if (remaining <= 0) {
+                throw new NoSuchElementException("SpillFile has no more rows");
+            }
+            Object[] row = new Object[streamers.length];
+            try {
+                for (int i = 0; i < streamers.length; i++) {
+                    row[i] = in.readBoolean() ? streamers[i].readValueFrom(in) : null;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            remaining--;
+            if (remaining == 0) {
+                closeReader();
+            }
+            return row;
+        }
+
+        private void closeReader() {
+            openReaders.remove(in);
+            try {
+                in.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.engine.spill;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
+import org.elasticsearch.env.NodeEnvironment;
+import org.jetbrains.annotations.VisibleForTesting;
+
+import io.crate.Streamer;
+import io.crate.common.io.IOUtils;
+
+/**
+ * Provides temporary files under the node's data path which operations can use
+ * to spill intermediate rows to disk instead of holding them on heap.
+ * <p>
+ * Left-overs of a previous run (e.g. after a crash) are removed when the service is created.
+ */
+@Singleton
+public class SpillService {
+
+    private static final Logger LOGGER = LogManager.getLogger(SpillService.class);
+
+    private static final long MIN_MEMORY_BUDGET_BYTES = 1024 * 1024;
+
+    static final String SPILL_FOLDER = "spill";
+
+    public static final Setting<Boolean> SPILL_TO_DISK_SETTING = Setting.boolSetting(
+        "memory.spill_to_disk",
+        true,
+        Property.NodeScope,
+        Property.Dynamic,
+        Property.Exposed
+    );
+
+    private final Path spillPath;
+    private volatile boolean enabled;
+
+    @Inject
+    public SpillService(NodeEnvironment nodeEnvironment, ClusterSettings clusterSettings) {
+        this(nodeEnvironment.nodeDataPaths()[0].resolve(SPILL_FOLDER), clusterSettings.get(SPILL_TO_DISK_SETTING));
+        clusterSettings.addSettingsUpdateConsumer(SPILL_TO_DISK_SETTING, newValue -> enabled = newValue);
+    }
+
+    @VisibleForTesting
+    public SpillService(Path spillPath, boolean enabled) {
+        this.spillPath = spillPath;
+        this.enabled = enabled;
+        try {
+            IOUtils.rm(spillPath);
+            Files.createDirectories(spillPath);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Memory an operation may use before it starts spilling: half of the memory currently available in the
+     * circuit breaker.
+     */
+    public static long memoryBudgetBytes(CircuitBreaker circuitBreaker) {
+        long limit = circuitBreaker.getLimit();
+        if (limit == -1) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max((limit - circuitBreaker.getUsed()) / 2, MIN_MEMORY_BUDGET_BYTES);
+    }
+
+    /**
+     * @return true if operations are allowed to spill to disk once they would exceed their memory budget.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Creates a new spill file for rows whose columns can be serialized with the given streamers.
+     * The file is deleted once the returned {@link SpillFile} is closed.
+     */
+    public SpillFile newSpillFile(String label, Streamer<?>[] streamers) throws IOException {
+        Path path = Files.createTempFile(spillPath, label, ".spill");
+        LOGGER.trace("Created spill file={}", path);
+        return new SpillFile(path, streamers);
+    }
+}
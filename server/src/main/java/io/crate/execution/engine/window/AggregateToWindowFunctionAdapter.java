@@ -58,6 +58,9 @@ public class AggregateToWindowFunctionAdapter implements WindowFunction {
     private int seenFrameUpperBound = -1;
     private Object resultForCurrentFrame;
 
+    @Nullable
+    private SegmentTree segmentTree;
+
     AggregateToWindowFunctionAdapter(AggregationFunction aggregationFunction,
                                      ExpressionsInput<Row, Boolean> filter,
                                      Version indexVersionCreated,
@@ -102,7 +105,12 @@ public class AggregateToWindowFunctionAdapter implements WindowFunction {
                           Input<?> ... args) {
         assert ignoreNulls == null;
         if (idxInPartition == 0) {
+            segmentTree = null;
             recomputeFunction(frame, expressions, args);
+        } else if (segmentTree != null) {
+            if (frame.lowerBound() != seenFrameLowerBound || frame.upperBoundExclusive() != seenFrameUpperBound) {
+                queryFrame(frame);
+            }
         } else if (isLowerBoundIncreasing(frame, seenFrameLowerBound)) {
             if (aggregationFunction.isRemovableCumulative()) {
                 removeSeenRowsFromAccumulatedState(frame, expressions, args);
@@ -113,6 +121,10 @@ public class AggregateToWindowFunctionAdapter implements WindowFunction {
                 }
                 seenFrameLowerBound = frame.lowerBound();
                 seenFrameUpperBound = frame.upperBoundExclusive();
+            } else if (aggregationFunction.isStateImmutable()) {
+                // The frame is sliding, use a segment tree to avoid aggregating all rows of each frame
+                segmentTree = buildSegmentTree(frame, expressions, args);
+                queryFrame(frame);
             } else {
                 recomputeFunction(frame, expressions, args);
             }
@@ -122,6 +134,41 @@ public class AggregateToWindowFunctionAdapter implements WindowFunction {
         return resultForCurrentFrame;
     }
 
+    @SuppressWarnings("unchecked")
+    private SegmentTree buildSegmentTree(WindowFrameState frame,
+                                         List<? extends CollectExpression<Row, ?>> expressions,
+                                         Input<?> ... args) {
+        Object emptyState = aggregationFunction.newState(
+            ramAccounting,
+            indexVersionCreated,
+            minNodeVersion,
+            memoryManager
+        );
+        Object[] leaves = new Object[frame.partitionSize()];
+        var row = new ArrayRow();
+        for (int i = 0; i < leaves.length; i++) {
+            Object[] cells = frame.getRowInPartitionAtIndexOrNull(i);
+            assert cells != null : "No row at idx=" + i + " in current partition=" + frame;
+            row.cells(cells);
+            for (int j = 0, expressionsSize = expressions.size(); j < expressionsSize; j++) {
+                expressions.get(j).setNextRow(row);
+            }
+            leaves[i] = filter.value(row)
+                ? aggregationFunction.iterate(ramAccounting, memoryManager, emptyState, args)
+                : emptyState;
+        }
+        return new SegmentTree(aggregationFunction, emptyState, leaves, ramAccounting);
+    }
+
+    private void queryFrame(WindowFrameState frame) {
+        assert segmentTree != null : "segmentTree must be built before querying it";
+        Object state = segmentTree.query(frame.lowerBound(), frame.upperBoundExclusive());
+        //noinspection unchecked
+        resultForCurrentFrame = aggregationFunction.terminatePartial(ramAccounting, state);
+        seenFrameLowerBound = frame.lowerBound();
+        seenFrameUpperBound = frame.upperBoundExclusive();
+    }
+
     private void removeSeenRowsFromAccumulatedState(WindowFrameState frame,
                                                     List<? extends CollectExpression<Row, ?>> expressions,
                                                     Input<?> ... args) {
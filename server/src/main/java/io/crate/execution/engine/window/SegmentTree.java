@@ -0,0 +1,83 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.window;
+
+import org.apache.lucene.util.RamUsageEstimator;
+
+import io.crate.data.breaker.RamAccounting;
+import io.crate.execution.engine.aggregation.AggregationFunction;
+
+/**
+ * A segment tree over the partial aggregation states of the rows of a partition.
+ *
+ * <p>
+ * Each inner node holds the reduced state of its children, so the aggregation over any range of rows can be
+ * computed by reducing O(log n) states. This requires an aggregation with {@link AggregationFunction#isStateImmutable()
+ * immutable states}, as the states of the nodes are reused by all queries.
+ * </p>
+ */
+final class SegmentTree {
+
+    private final AggregationFunction<Object, ?> function;
+    private final Object emptyState;
+    private final Object[] nodes;
+    private final int numLeaves;
+
+    /**
+     * @param leaves the partial states of the single rows, {@code emptyState} for rows which aren't aggregated.
+     */
+    SegmentTree(AggregationFunction<Object, ?> function, Object emptyState, Object[] leaves, RamAccounting ramAccounting) {
+        this.function = function;
+        this.emptyState = emptyState;
+        this.numLeaves = leaves.length;
+        this.nodes = new Object[2 * numLeaves];
+        ramAccounting.addBytes(RamUsageEstimator.shallowSizeOf(nodes));
+        System.arraycopy(leaves, 0, nodes, numLeaves, numLeaves);
+        for (int i = numLeaves - 1; i > 0; i--) {
+            nodes[i] = reduce(nodes[2 * i], nodes[2 * i + 1]);
+        }
+    }
+
+    private Object reduce(Object state1, Object state2) {
+        // The reduced states only reference existing states, they don't allocate memory
+        return function.reduce(RamAccounting.NO_ACCOUNTING, state1, state2);
+    }
+
+    /**
+     * @return the reduced state of the rows from {@code from} to {@code toExclusive}.
+     */
+    Object query(int from, int toExclusive) {
+        assert from >= 0 && toExclusive <= numLeaves : "range must be within the leaves of the tree";
+        // left and right are kept apart to preserve the order of the rows
+        Object left = emptyState;
+        Object right = emptyState;
+        for (int l = from + numLeaves, r = toExclusive + numLeaves; l < r; l >>= 1, r >>= 1) {
+            if ((l & 1) == 1) {
+                left = reduce(left, nodes[l++]);
+            }
+            if ((r & 1) == 1) {
+                right = reduce(nodes[--r], right);
+            }
+        }
+        return reduce(left, right);
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.window;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import io.crate.collections.accountable.AccountableList;
+import io.crate.data.BatchIterator;
+import io.crate.data.Buckets;
+import io.crate.data.Row;
+import io.crate.data.breaker.RowAccounting;
+
+/**
+ * BatchIterator which computes window functions over a source that is already sorted by the PARTITION BY and
+ * ORDER BY expressions of the window definition.
+ *
+ * <p>
+ * Unlike {@link WindowFunctionBatchIterator#of} this is not a pipeline breaker. The rows of the source are
+ * materialized until the end of the current partition is reached. Then the window functions are computed over
+ * the partition and its rows are emitted before the next partition is consumed.
+ * The memory usage is bounded by the largest partition instead of the whole input.
+ * </p>
+ */
+final class StreamingWindowFunctionBatchIterator implements BatchIterator<Row> {
+
+    private final BatchIterator<Row> source;
+    private final LongConsumer allocateBytes;
+    private final RowAccounting<Row> rowAccounting;
+    private final int numWindowFunctions;
+    @Nullable
+    private final Comparator<Object[]> cmpPartitionBy;
+    private final Function<List<Object[]>, Iterable<Object[]>> computeWindowFunctions;
+    private final Function<Object[], Row> toRow = Buckets.arrayToSharedRow();
+
+    private final LongConsumer allocatePartitionBytes;
+    private long partitionBytes = 0;
+    private long computedRowsBytes = 0;
+    private List<Object[]> partition;
+    @Nullable
+    private Iterator<Object[]> computedRows;
+    private boolean sourceConsumed = false;
+    private Row current;
+
+    StreamingWindowFunctionBatchIterator(BatchIterator<Row> source,
+                                         LongConsumer allocateBytes,
+                                         RowAccounting<Row> rowAccounting,
+                                         int numWindowFunctions,
+                                         @Nullable Comparator<Object[]> cmpPartitionBy,
+                                         Function<List<Object[]>, Iterable<Object[]>> computeWindowFunctions) {
+        this.source = source;
+        this.allocateBytes = allocateBytes;
+        this.rowAccounting = rowAccounting;
+        this.numWindowFunctions = numWindowFunctions;
+        this.cmpPartitionBy = cmpPartitionBy;
+        this.computeWindowFunctions = computeWindowFunctions;
+        this.allocatePartitionBytes = bytes -> {
+            allocateBytes.accept(bytes);
+            partitionBytes += bytes;
+        };
+        this.partition = new AccountableList<>(allocatePartitionBytes);
+    }
+
+    @Override
+    public Row currentElement() {
+        return current;
+    }
+
+    @Override
+    public void moveToStart() {
+        releaseComputedRows();
+        allocateBytes.accept(-partitionBytes);
+        partitionBytes = 0;
+        partition = new AccountableList<>(allocatePartitionBytes);
+        computedRows = null;
+        sourceConsumed = false;
+        current = null;
+        source.moveToStart();
+    }
+
+    @Override
+    public boolean moveNext() {
+        while (true) {
+            if (computedRows != null) {
+                if (computedRows.hasNext()) {
+                    current = toRow.apply(computedRows.next());
+                    return true;
+                }
+                computedRows = null;
+                releaseComputedRows();
+            }
+            if (sourceConsumed) {
+                current = null;
+                return false;
+            }
+            if (source.moveNext()) {
+                Row row = source.currentElement();
+                Object[] cells = WindowFunctionBatchIterator.materializeWithSpare(row, numWindowFunctions);
+                if (isPartitionEnd(cells)) {
+                    computePartition();
+                }
+                partitionBytes += rowAccounting.accountForAndMaybeBreak(row);
+                partition.add(cells);
+            } else if (source.allLoaded()) {
+                sourceConsumed = true;
+                if (!partition.isEmpty()) {
+                    computePartition();
+                }
+            } else {
+                current = null;
+                return false;
+            }
+        }
+    }
+
+    private boolean isPartitionEnd(Object[] nextRow) {
+        if (partition.isEmpty() || cmpPartitionBy == null) {
+            return false;
+        }
+        return cmpPartitionBy.compare(partition.get(partition.size() - 1), nextRow) != 0;
+    }
+
+    private void computePartition() {
+        computedRows = computeWindowFunctions.apply(partition).iterator();
+        computedRowsBytes = partitionBytes;
+        partitionBytes = 0;
+        partition = new AccountableList<>(allocatePartitionBytes);
+    }
+
+    /**
+     * Releases the memory of a partition once all its rows have been emitted.
+     * The memory is released without releasing the reserved blocks, so it can be re-used for the next partition.
+     */
+    private void releaseComputedRows() {
+        allocateBytes.accept(-computedRowsBytes);
+        computedRowsBytes = 0;
+    }
+
+    @Override
+    public void close() {
+        source.close();
+    }
+
+    @Override
+    public CompletionStage<?> loadNextBatch() throws Exception {
+        return source.loadNextBatch();
+    }
+
+    @Override
+    public boolean allLoaded() {
+        return source.allLoaded();
+    }
+
+    @Override
+    public void kill(@NotNull Throwable throwable) {
+        source.kill(throwable);
+    }
+
+    @Override
+    public boolean hasLazyResultSet() {
+        return source.hasLazyResultSet();
+    }
+}
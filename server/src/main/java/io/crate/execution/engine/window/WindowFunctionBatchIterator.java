@@ -60,6 +60,7 @@ import io.crate.execution.engine.sort.Sort;
  *
  * Doing the ORDER BY within the BatchIterator (instead of demanding the source to be pre-sorted) allows us to operate
  * on a in-memory list with RandomAccess instead of using the BatchIterator interface for the source.
+ * If the source is already sorted, {@link #ofSorted} can be used to process one partition at a time instead.
  * </p>
  *
  * <pre>
@@ -123,7 +124,47 @@ public final class WindowFunctionBatchIterator {
         );
     }
 
-    private static Object[] materializeWithSpare(Row row, int numWindowFunctions) {
+    /**
+     * Creates a BatchIterator computing the window functions over a source which is already sorted by the
+     * PARTITION BY and ORDER BY expressions of the window definition.
+     * Only the rows of one partition are kept in memory at a time and the rows of a partition are emitted as soon as
+     * the end of the partition has been reached.
+     */
+    public static BatchIterator<Row> ofSorted(BatchIterator<Row> source,
+                                              LongConsumer allocateBytes,
+                                              RowAccounting<Row> rowAccounting,
+                                              ComputeFrameBoundary<Object[]> computeFrameStart,
+                                              ComputeFrameBoundary<Object[]> computeFrameEnd,
+                                              @Nullable Comparator<Object[]> cmpPartitionBy,
+                                              int numCellsInSourceRow,
+                                              List<WindowFunction> windowFunctions,
+                                              List<? extends CollectExpression<Row, ?>> argsExpressions,
+                                              Boolean[] ignoreNulls,
+                                              Input<?>[] ... args) {
+        assert windowFunctions.size() == args.length : "arguments must be defined for each window function";
+        assert args.length == ignoreNulls.length : "ignore-nulls option must be defined for each window function";
+        return new StreamingWindowFunctionBatchIterator(
+            source,
+            allocateBytes,
+            rowAccounting,
+            windowFunctions.size(),
+            cmpPartitionBy,
+            partitionRows -> computeWindowFunctions(
+                partitionRows,
+                allocateBytes,
+                computeFrameStart,
+                computeFrameEnd,
+                cmpPartitionBy,
+                numCellsInSourceRow,
+                windowFunctions,
+                argsExpressions,
+                ignoreNulls,
+                args
+            )
+        );
+    }
+
+    static Object[] materializeWithSpare(Row row, int numWindowFunctions) {
         Object[] cells = new Object[row.numColumns() + numWindowFunctions];
         for (int i = 0; i < row.numColumns(); i++) {
             cells[i] = row.get(i);
@@ -24,6 +24,7 @@ package io.crate.execution.jobs;
 import static io.crate.execution.dsl.projection.Projections.nodeProjections;
 import static io.crate.execution.dsl.projection.Projections.shardProjections;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.Collection;
@@ -39,6 +40,7 @@ import java.util.stream.Collector;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.elasticsearch.Version;
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.breaker.CircuitBreaker;
 import org.elasticsearch.common.inject.Inject;
@@ -69,6 +71,7 @@ import io.crate.Streamer;
 import io.crate.breaker.ConcurrentRamAccounting;
 import io.crate.breaker.TypedCellsAccounting;
 import io.crate.breaker.TypedRowAccounting;
+import io.crate.common.CheckedSupplier;
 import io.crate.data.Paging;
 import io.crate.data.Row;
 import io.crate.data.RowConsumer;
@@ -87,6 +90,7 @@ import io.crate.execution.dsl.phases.NestedLoopPhase;
 import io.crate.execution.dsl.phases.NodeOperation;
 import io.crate.execution.dsl.phases.PKLookupPhase;
 import io.crate.execution.dsl.phases.RoutedCollectPhase;
+import io.crate.execution.dsl.phases.RuntimeFilterTarget;
 import io.crate.execution.dsl.phases.UpstreamPhase;
 import io.crate.execution.dsl.projection.AggregationProjection;
 import io.crate.execution.dsl.projection.GroupProjection;
@@ -98,6 +102,7 @@ import io.crate.execution.engine.collect.CollectTask;
 import io.crate.execution.engine.collect.MapSideDataCollectOperation;
 import io.crate.execution.engine.collect.PKLookupOperation;
 import io.crate.execution.engine.collect.count.CountOperation;
+import io.crate.execution.engine.collect.files.StdStreams;
 import io.crate.execution.engine.collect.sources.ShardCollectSource;
 import io.crate.execution.engine.collect.sources.SystemCollectSource;
 import io.crate.execution.engine.distribution.DistributingConsumerFactory;
@@ -106,10 +111,14 @@ import io.crate.execution.engine.distribution.StreamBucket;
 import io.crate.execution.engine.distribution.merge.PagingIterator;
 import io.crate.execution.engine.fetch.FetchTask;
 import io.crate.execution.engine.join.HashJoinOperation;
+import io.crate.execution.engine.join.HashJoinPartitions;
 import io.crate.execution.engine.join.NestedLoopOperation;
+import io.crate.execution.engine.join.RuntimeFilter;
+import io.crate.execution.engine.join.TransportRuntimeFilterAction;
 import io.crate.execution.engine.pipeline.ProjectingRowConsumer;
 import io.crate.execution.engine.pipeline.ProjectionToProjectorVisitor;
 import io.crate.execution.engine.pipeline.ProjectorFactory;
+import io.crate.execution.engine.spill.SpillService;
 import io.crate.expression.InputFactory;
 import io.crate.expression.RowFilter;
 import io.crate.expression.eval.EvaluatingNormalizer;
@@ -122,7 +131,6 @@ import io.crate.metadata.TransactionContext;
 import io.crate.metadata.settings.SessionSettings;
 import io.crate.planner.distribution.DistributionType;
 import io.crate.planner.operators.PKAndVersion;
-import io.crate.sql.tree.JoinType;
 import io.crate.types.DataTypes;
 
 @Singleton
@@ -135,6 +143,8 @@ public class JobSetup {
     private final CircuitBreakerService circuitBreakerService;
     private final CountOperation countOperation;
     private final MemoryManagerFactory memoryManagerFactory;
+    private final SpillService spillService;
+    private final TransportRuntimeFilterAction runtimeFilterAction;
     private final DistributingConsumerFactory distributingConsumerFactory;
     private final InnerPreparer innerPreparer;
     private final InputFactory inputFactory;
@@ -158,7 +168,10 @@ public class JobSetup {
                     NodeContext nodeCtx,
                     SystemCollectSource systemCollectSource,
                     ShardCollectSource shardCollectSource,
-                    MemoryManagerFactory memoryManagerFactory) {
+                    MemoryManagerFactory memoryManagerFactory,
+                    SpillService spillService,
+                    StdStreams stdStreams,
+                    TransportRuntimeFilterAction runtimeFilterAction) {
         this.nodeName = Node.NODE_NAME_SETTING.get(settings);
         this.schemas = nodeCtx.schemas();
         this.collectOperation = collectOperation;
@@ -166,6 +179,8 @@ public class JobSetup {
         this.circuitBreakerService = circuitBreakerService;
         this.countOperation = countOperation;
         this.memoryManagerFactory = memoryManagerFactory;
+        this.spillService = spillService;
+        this.runtimeFilterAction = runtimeFilterAction;
         this.pkLookupOperation = new PKLookupOperation(indicesService, shardCollectSource);
         this.distributingConsumerFactory = distributingConsumerFactory;
         innerPreparer = new InnerPreparer();
@@ -183,7 +198,13 @@ public class JobSetup {
             inputFactory,
             normalizer,
             systemCollectSource::getRowUpdater,
-            systemCollectSource::tableDefinition
+            systemCollectSource::tableDefinition,
+            Version.CURRENT,
+            null,
+            // Writer projections only run on node level for COPY TO STDOUT
+            Map.of(),
+            stdStreams,
+            spillService
         );
     }
 
@@ -476,7 +497,9 @@ public class JobSetup {
             this.opCtx = new NodeOperationCtx(localNodeId, nodeOperations);
             this.distributingConsumerFactory = distributingConsumerFactory;
             this.sharedShardContexts = sharedShardContexts;
-            this.transactionContext = TransactionContext.of(sessionInfo);
+            JobTxnCtx txnCtx = new JobTxnCtx(sessionInfo);
+            taskBuilder.closeOnFinish(txnCtx);
+            this.transactionContext = txnCtx;
         }
 
         public UUID jobId() {
@@ -934,6 +957,25 @@ public class JobSetup {
                 projectorFactory
             );
             Predicate<Row> joinCondition = RowFilter.create(context.transactionContext, inputFactory, phase.joinCondition());
+            CheckedSupplier<HashJoinPartitions, IOException> partitionsSupplier = null;
+            if (spillService.isEnabled() && phase.rightOutputTypes().size() == phase.numRightOutputs()) {
+                Streamer<?>[] leftStreamers = DataTypes.getStreamers(phase.leftOutputTypes());
+                Streamer<?>[] rightStreamers = DataTypes.getStreamers(phase.rightOutputTypes());
+                partitionsSupplier = () -> HashJoinPartitions.create(spillService, leftStreamers, rightStreamers);
+            }
+            RuntimeFilter.Builder runtimeFilter = null;
+            RuntimeFilterTarget runtimeFilterTarget = phase.runtimeFilterTarget();
+            if (runtimeFilterTarget != null) {
+                var keysCtx = inputFactory.ctxForInputColumns(context.transactionContext, phase.leftJoinConditionInputs());
+                int numPartials = phase.nodeIds().size();
+                runtimeFilter = new RuntimeFilter.Builder(
+                    keysCtx.topLevelInputs(),
+                    keysCtx.expressions(),
+                    runtimeFilterTarget.keyPositions().stream().mapToInt(Integer::intValue).toArray(),
+                    numPartials,
+                    filter -> runtimeFilterAction.publish(phase.jobId(), runtimeFilterTarget, numPartials, filter)
+                );
+            }
             HashJoinOperation joinOperation = new HashJoinOperation(
                 phase.numLeftOutputs(),
                 phase.numRightOutputs(),
@@ -950,7 +992,9 @@ public class JobSetup {
                 inputFactory,
                 breaker(),
                 phase.estimatedRowSizeForLeft(),
-                phase.joinType() == JoinType.LEFT
+                phase.joinType(),
+                partitionsSupplier,
+                runtimeFilter
             );
             DistResultRXTask left = pageDownstreamContextForNestedLoop(
                 phase.phaseId(),
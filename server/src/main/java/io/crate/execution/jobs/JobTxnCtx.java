@@ -0,0 +1,76 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.jobs;
+
+import java.io.Closeable;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import io.crate.common.io.IOUtils;
+import io.crate.metadata.TransactionContext;
+import io.crate.metadata.settings.SessionSettings;
+
+/**
+ * The {@link TransactionContext} of a job on a node. Resources registered via
+ * {@link #closeOnFinish(Closeable)} are closed once the {@link RootTask} of the job finished.
+ */
+final class JobTxnCtx implements TransactionContext, Closeable {
+
+    private final TransactionContext delegate;
+    private final List<Closeable> resources = new ArrayList<>();
+    private boolean closed = false;
+
+    JobTxnCtx(SessionSettings sessionSettings) {
+        this.delegate = TransactionContext.of(sessionSettings);
+    }
+
+    @Override
+    public Instant currentInstant() {
+        return delegate.currentInstant();
+    }
+
+    @Override
+    public SessionSettings sessionSettings() {
+        return delegate.sessionSettings();
+    }
+
+    @Override
+    public synchronized boolean closeOnFinish(Closeable resource) {
+        if (closed) {
+            return false;
+        }
+        resources.add(resource);
+        return true;
+    }
+
+    @Override
+    public void close() {
+        List<Closeable> toClose;
+        synchronized (this) {
+            closed = true;
+            toClose = new ArrayList<>(resources);
+            resources.clear();
+        }
+        IOUtils.closeWhileHandlingException(toClose);
+    }
+}
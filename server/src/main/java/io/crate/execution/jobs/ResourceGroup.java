@@ -0,0 +1,235 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.jobs;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import org.elasticsearch.common.lease.Releasable;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.MemorySizeValue;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A group of users whose SELECT statements share a concurrency limit, a queue
+ * and a memory share on a node. See {@link ResourceGroups}.
+ *
+ * <p>
+ * The mutable state is only modified while holding the lock of the owning
+ * {@link ResourceGroups}. The getters can be used without lock, e.g. to
+ * expose the state via {@code sys.resource_groups}.
+ * </p>
+ */
+public final class ResourceGroup {
+
+    static final String USERS = "users";
+    static final String PRIORITY = "priority";
+    static final String MAX_CONCURRENCY = "max_concurrency";
+    static final String QUEUE_SIZE = "queue_size";
+    static final String MEMORY_SHARE = "memory_share";
+
+    private static final Set<String> PROPERTIES = Set.of(USERS, PRIORITY, MAX_CONCURRENCY, QUEUE_SIZE, MEMORY_SHARE);
+
+    /**
+     * @param maxConcurrency max number of concurrently running statements. 0 for no limit.
+     * @param queueSize max number of statements waiting for a slot. Further statements are rejected.
+     * @param memoryShare memory in bytes shared by the running statements of the group. 0 for no limit.
+     */
+    record Config(List<String> users, int priority, int maxConcurrency, int queueSize, long memoryShare) {
+
+        static final Config DEFAULT = new Config(List.of(), 0, 0, 100, 0L);
+
+        static Config of(String name, Settings settings) {
+            for (String key : settings.keySet()) {
+                if (!PROPERTIES.contains(key)) {
+                    throw new IllegalArgumentException(String.format(
+                        Locale.ENGLISH,
+                        "Invalid property `%s` for resource group `%s`, valid properties are: %s",
+                        key,
+                        name,
+                        PROPERTIES.stream().sorted().toList()
+                    ));
+                }
+            }
+            int maxConcurrency = settings.getAsInt(MAX_CONCURRENCY, DEFAULT.maxConcurrency);
+            int queueSize = settings.getAsInt(QUEUE_SIZE, DEFAULT.queueSize);
+            if (maxConcurrency < 0 || queueSize < 0) {
+                throw new IllegalArgumentException(
+                    "`" + MAX_CONCURRENCY + "` and `" + QUEUE_SIZE + "` of resource group `" + name + "` must be >= 0");
+            }
+            String memoryShare = settings.get(MEMORY_SHARE);
+            return new Config(
+                settings.getAsList(USERS, List.of()),
+                settings.getAsInt(PRIORITY, DEFAULT.priority),
+                maxConcurrency,
+                queueSize,
+                memoryShare == null
+                    ? DEFAULT.memoryShare
+                    : MemorySizeValue.parseBytesSizeValueOrHeapRatio(memoryShare, MEMORY_SHARE).getBytes()
+            );
+        }
+    }
+
+    record Waiter(long seqNo, CompletableFuture<Releasable> future) {
+    }
+
+    private final String name;
+    private final ArrayDeque<Waiter> queue = new ArrayDeque<>();
+
+    private volatile Config config;
+    private volatile boolean removed = false;
+    private volatile int running = 0;
+    private volatile int queued = 0;
+    private volatile long numAdmitted = 0;
+    private volatile long numQueued = 0;
+    private volatile long numRejected = 0;
+
+    ResourceGroup(String name, Config config) {
+        this.name = name;
+        this.config = config;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public List<String> users() {
+        return config.users;
+    }
+
+    public int priority() {
+        return config.priority;
+    }
+
+    public int maxConcurrency() {
+        return config.maxConcurrency;
+    }
+
+    public int queueSize() {
+        return config.queueSize;
+    }
+
+    public long memoryShare() {
+        return config.memoryShare;
+    }
+
+    /**
+     * @return the memory limit in bytes for the operations of a single
+     *         statement of the group, or 0 if the group has no memory share.
+     */
+    public long operationMemoryLimit() {
+        Config c = config;
+        if (c.memoryShare <= 0) {
+            return 0L;
+        }
+        return c.memoryShare / Math.max(1, c.maxConcurrency);
+    }
+
+    public int running() {
+        return running;
+    }
+
+    public int queued() {
+        return queued;
+    }
+
+    public long numAdmitted() {
+        return numAdmitted;
+    }
+
+    public long numQueued() {
+        return numQueued;
+    }
+
+    public long numRejected() {
+        return numRejected;
+    }
+
+    void config(Config config) {
+        this.config = config;
+        this.removed = false;
+    }
+
+    void markRemoved() {
+        this.removed = true;
+        this.config = Config.DEFAULT;
+    }
+
+    boolean removed() {
+        return removed;
+    }
+
+    boolean isIdle() {
+        return running == 0 && queue.isEmpty();
+    }
+
+    boolean hasFreeSlot() {
+        int maxConcurrency = config.maxConcurrency;
+        return maxConcurrency == 0 || running < maxConcurrency;
+    }
+
+    boolean isQueueFull() {
+        return queue.size() >= config.queueSize;
+    }
+
+    void onStart() {
+        running++;
+        numAdmitted++;
+    }
+
+    void onFinish() {
+        running--;
+    }
+
+    void enqueue(Waiter waiter) {
+        queue.add(waiter);
+        queued = queue.size();
+        numQueued++;
+    }
+
+    @Nullable
+    Waiter peek() {
+        return queue.peek();
+    }
+
+    Waiter dequeue() {
+        Waiter waiter = queue.remove();
+        queued = queue.size();
+        return waiter;
+    }
+
+    /**
+     * @return true if a waiter with the future was queued and has been removed.
+     */
+    boolean remove(CompletableFuture<Releasable> future) {
+        boolean removed = queue.removeIf(waiter -> waiter.future() == future);
+        queued = queue.size();
+        return removed;
+    }
+
+    void onReject() {
+        numRejected++;
+    }
+}
@@ -0,0 +1,333 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.jobs;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.elasticsearch.common.lease.Releasable;
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+
+import io.crate.role.Role;
+import io.crate.role.Roles;
+
+/**
+ * Admission control for SELECT statements on a coordinator node.
+ *
+ * <p>
+ * Users are assigned to resource groups via the {@code users} property of the
+ * groups, either by user name or by the name of a role granted to the user.
+ * Users without a group use the {@link #DEFAULT_GROUP}, which can be configured
+ * like any other group.
+ * </p>
+ *
+ * <p>
+ * A statement is admitted if its group and the node are below their
+ * concurrency limits. Otherwise it is queued, or rejected if the queue of the
+ * group is full. If a statement finishes, the queued statement of the group
+ * with the highest priority is admitted next, so that statements of latency
+ * sensitive groups overtake queued statements of other groups. Admitted
+ * statements are started using the executor, not on the thread which finished
+ * the previous statement.
+ * </p>
+ */
+public class ResourceGroups {
+
+    public static final String DEFAULT_GROUP = "default";
+
+    public static final Setting<Settings> RESOURCE_GROUPS_SETTING = Setting.groupSetting(
+        "workload.resource_groups.",
+        ResourceGroups::validate,
+        Property.NodeScope,
+        Property.Dynamic
+    );
+
+    public static final Setting<Integer> MAX_CONCURRENCY = Setting.intSetting(
+        "workload.max_concurrency", 0, 0, Property.NodeScope, Property.Dynamic, Property.Exposed);
+
+    private final Roles roles;
+    private final Executor executor;
+
+    // All fields below are guarded by `this`
+    private final Map<String, ResourceGroup> groups = new TreeMap<>();
+    private int maxConcurrency;
+    private int running = 0;
+    private long nextSeqNo = 0;
+
+    public ResourceGroups(Settings settings, ClusterSettings clusterSettings, Roles roles, Executor executor) {
+        this.roles = roles;
+        this.executor = executor;
+        this.maxConcurrency = MAX_CONCURRENCY.get(settings);
+        applyGroups(RESOURCE_GROUPS_SETTING.get(settings));
+        clusterSettings.addSettingsUpdateConsumer(RESOURCE_GROUPS_SETTING, this::applyGroups);
+        clusterSettings.addSettingsUpdateConsumer(MAX_CONCURRENCY, this::applyMaxConcurrency);
+    }
+
+    private static void validate(Settings settings) {
+        for (var entry : settings.getAsGroups().entrySet()) {
+            ResourceGroup.Config.of(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private void applyGroups(Settings settings) {
+        Map<String, Settings> groupSettings = settings.getAsGroups();
+        List<Admitted> toStart;
+        synchronized (this) {
+            for (var entry : groupSettings.entrySet()) {
+                String name = entry.getKey();
+                ResourceGroup.Config config = ResourceGroup.Config.of(name, entry.getValue());
+                ResourceGroup group = groups.get(name);
+                if (group == null) {
+                    groups.put(name, new ResourceGroup(name, config));
+                } else {
+                    group.config(config);
+                }
+            }
+            if (!groupSettings.containsKey(DEFAULT_GROUP)) {
+                ResourceGroup defaultGroup = groups.get(DEFAULT_GROUP);
+                if (defaultGroup == null) {
+                    groups.put(DEFAULT_GROUP, new ResourceGroup(DEFAULT_GROUP, ResourceGroup.Config.DEFAULT));
+                } else {
+                    defaultGroup.config(ResourceGroup.Config.DEFAULT);
+                }
+            }
+            // Statements of removed groups keep their slots, queued statements
+            // are admitted without group limit. The group disappears once idle.
+            var it = groups.values().iterator();
+            while (it.hasNext()) {
+                ResourceGroup group = it.next();
+                if (!group.name().equals(DEFAULT_GROUP) && !groupSettings.containsKey(group.name())) {
+                    if (group.isIdle()) {
+                        it.remove();
+                    } else {
+                        group.markRemoved();
+                    }
+                }
+            }
+            toStart = pollStartable();
+        }
+        run(toStart);
+    }
+
+    private void applyMaxConcurrency(int maxConcurrency) {
+        List<Admitted> toStart;
+        synchronized (this) {
+            this.maxConcurrency = maxConcurrency;
+            toStart = pollStartable();
+        }
+        run(toStart);
+    }
+
+    /**
+     * Resolve the group of a user: A group listing the user name takes
+     * precedence over groups listing a role granted to the user.
+     */
+    public ResourceGroup resolve(Role user) {
+        List<ResourceGroup> candidates = groups();
+        ResourceGroup defaultGroup = null;
+        ResourceGroup roleMatch = null;
+        Set<String> parentRoles = null;
+        for (ResourceGroup group : candidates) {
+            if (group.removed()) {
+                continue;
+            }
+            if (group.name().equals(DEFAULT_GROUP)) {
+                defaultGroup = group;
+            }
+            List<String> users = group.users();
+            if (users.isEmpty()) {
+                continue;
+            }
+            if (users.contains(user.name())) {
+                return group;
+            }
+            if (roleMatch == null && !user.grantedRoles().isEmpty()) {
+                if (parentRoles == null) {
+                    parentRoles = roles.findRole(user.name()) == null
+                        ? user.grantedRoleNames()
+                        : roles.findAllParents(user.name());
+                }
+                for (String role : users) {
+                    if (parentRoles.contains(role)) {
+                        roleMatch = group;
+                        break;
+                    }
+                }
+            }
+        }
+        if (roleMatch != null) {
+            return roleMatch;
+        }
+        assert defaultGroup != null : "default resource group must always exist";
+        return defaultGroup;
+    }
+
+    /**
+     * Admit a statement of the group.
+     *
+     * @return a future which is completed once the statement can run. The
+     *         statement must release the {@link Releasable} once it finished.
+     *         The future fails with an {@link EsRejectedExecutionException} if
+     *         the queue of the group is full.
+     */
+    public CompletableFuture<Releasable> admit(ResourceGroup group) {
+        CompletableFuture<Releasable> future = new CompletableFuture<>();
+        synchronized (this) {
+            if (group.peek() != null || !group.hasFreeSlot() || !hasFreeSlot()) {
+                if (group.isQueueFull()) {
+                    group.onReject();
+                    future.completeExceptionally(new EsRejectedExecutionException(
+                        "Too many statements queued in resource group `" + group.name() + "`",
+                        false
+                    ));
+                } else {
+                    group.enqueue(new ResourceGroup.Waiter(nextSeqNo++, future));
+                }
+                return future;
+            }
+        }
+        future.complete(start(group));
+        return future;
+    }
+
+    /**
+     * Cancels a statement which is waiting for admission, e.g. because it timed
+     * out or the session was closed. The statement is removed from the queue of
+     * its group and the future returned by {@link #admit(ResourceGroup)} fails
+     * with the given reason.
+     *
+     * @return false if the statement was already admitted.
+     */
+    public boolean cancel(CompletableFuture<Releasable> admission, Throwable reason) {
+        synchronized (this) {
+            for (ResourceGroup group : groups.values()) {
+                if (group.remove(admission)) {
+                    if (group.removed() && group.isIdle()) {
+                        groups.remove(group.name(), group);
+                    }
+                    break;
+                }
+            }
+        }
+        // Also covers statements which are dequeued but not started yet,
+        // they release their slot once the executor runs them.
+        return admission.completeExceptionally(reason);
+    }
+
+    public synchronized List<ResourceGroup> groups() {
+        return new ArrayList<>(groups.values());
+    }
+
+    private boolean hasFreeSlot() {
+        return maxConcurrency == 0 || running < maxConcurrency;
+    }
+
+    private Releasable start(ResourceGroup group) {
+        assert Thread.holdsLock(this) : "Must hold lock to start a statement";
+        running++;
+        group.onStart();
+        AtomicBoolean released = new AtomicBoolean(false);
+        return () -> {
+            if (released.compareAndSet(false, true)) {
+                release(group);
+            }
+        };
+    }
+
+    private void release(ResourceGroup group) {
+        List<Admitted> toStart;
+        synchronized (this) {
+            running--;
+            group.onFinish();
+            if (group.removed() && group.isIdle()) {
+                groups.remove(group.name(), group);
+            }
+            toStart = pollStartable();
+        }
+        run(toStart);
+    }
+
+    /**
+     * Dequeues the statements which can run now, highest group priority first
+     * and in arrival order for groups of the same priority.
+     *
+     * @return the admitted statements. They must be started without holding
+     *         the lock, as completing their futures triggers their execution.
+     */
+    private List<Admitted> pollStartable() {
+        List<Admitted> toStart = new ArrayList<>();
+        while (hasFreeSlot()) {
+            ResourceGroup next = null;
+            for (ResourceGroup group : groups.values()) {
+                ResourceGroup.Waiter waiter = group.peek();
+                if (waiter == null || !group.hasFreeSlot()) {
+                    continue;
+                }
+                if (next == null
+                    || group.priority() > next.priority()
+                    || (group.priority() == next.priority() && waiter.seqNo() < next.peek().seqNo())) {
+                    next = group;
+                }
+            }
+            if (next == null) {
+                break;
+            }
+            CompletableFuture<Releasable> future = next.dequeue().future();
+            Releasable permit = start(next);
+            toStart.add(new Admitted(future, permit));
+        }
+        return toStart;
+    }
+
+    private void run(List<Admitted> toStart) {
+        for (Admitted admitted : toStart) {
+            try {
+                executor.execute(admitted);
+            } catch (RejectedExecutionException e) {
+                admitted.future.completeExceptionally(e);
+                admitted.permit.close();
+            }
+        }
+    }
+
+    private record Admitted(CompletableFuture<Releasable> future, Releasable permit) implements Runnable {
+
+        @Override
+        public void run() {
+            if (!future.complete(permit)) {
+                // Cancelled while waiting for the executor
+                permit.close();
+            }
+        }
+    }
+}
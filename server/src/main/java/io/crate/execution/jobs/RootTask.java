@@ -21,6 +21,7 @@
 
 package io.crate.execution.jobs;
 
+import java.io.Closeable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -39,6 +40,7 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.VisibleForTesting;
 
+import io.crate.common.io.IOUtils;
 import io.crate.concurrent.CompletionListenable;
 import io.crate.exceptions.JobKilledException;
 import io.crate.exceptions.SQLExceptions;
@@ -78,6 +80,7 @@ public class RootTask implements CompletionListenable<Void> {
         private final String coordinatorNode;
         private final JobsLogs jobsLogs;
         private final List<Task> tasks = new ArrayList<>();
+        private final List<Closeable> resources = new ArrayList<>();
         private final String user;
         private final Collection<String> participatingNodes;
 
@@ -108,6 +111,13 @@ public class RootTask implements CompletionListenable<Void> {
             tasks.add(task);
         }
 
+        /**
+         * Registers a resource of the job which is closed once the root task finished.
+         */
+        public void closeOnFinish(Closeable resource) {
+            resources.add(resource);
+        }
+
         boolean isEmpty() {
             return tasks.isEmpty();
         }
@@ -129,6 +139,7 @@ public class RootTask implements CompletionListenable<Void> {
                 participatingNodes,
                 jobsLogs,
                 tasks,
+                resources,
                 profilingContext
             );
         }
@@ -141,6 +152,7 @@ public class RootTask implements CompletionListenable<Void> {
                      Collection<String> participatingNodes,
                      JobsLogs jobsLogs,
                      List<Task> orderedTasks,
+                     List<Closeable> resources,
                      @Nullable ProfilingContext profilingContext) throws Exception {
         this.logger = logger;
         this.user = user;
@@ -165,6 +177,9 @@ public class RootTask implements CompletionListenable<Void> {
             jobsLogs.operationStarted(task.id(), jobId, task.name(), task::bytesUsed);
             task.completionFuture().whenComplete(new TaskFinishedListener(task.id()));
         }
+        if (!resources.isEmpty()) {
+            finishedFuture.whenComplete((result, err) -> IOUtils.closeWhileHandlingException(resources));
+        }
     }
 
     public UUID jobId() {
@@ -27,6 +27,7 @@ import java.util.List;
 
 import org.apache.lucene.search.BooleanClause;
 import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.KnnFloatVectorQuery;
 import org.apache.lucene.search.Query;
 
 import io.crate.data.Input;
@@ -135,8 +136,33 @@ public class AndOperator extends Operator<Boolean> {
     @Override
     public Query toQuery(Function function, Context context) {
         BooleanQuery.Builder query = new BooleanQuery.Builder();
+        BooleanQuery.Builder knnFilter = new BooleanQuery.Builder();
+        KnnFloatVectorQuery knnQuery = null;
+        int numKnnQueries = 0;
         for (Symbol symbol : function.arguments()) {
-            query.add(symbol.accept(context.visitor(), context), BooleanClause.Occur.MUST);
+            Query argQuery = symbol.accept(context.visitor(), context);
+            query.add(argQuery, BooleanClause.Occur.MUST);
+            if (argQuery instanceof KnnFloatVectorQuery knn) {
+                knnQuery = knn;
+                numKnnQueries++;
+            } else {
+                knnFilter.add(argQuery, BooleanClause.Occur.FILTER);
+            }
+        }
+        if (knnQuery != null && numKnnQueries == 1) {
+            // Apply the sibling predicates as pre-filter of the kNN search, so that
+            // the k nearest neighbours are searched among the matching rows only
+            // instead of filtering the global k nearest neighbours afterwards.
+            Query filter = knnQuery.getFilter();
+            if (filter != null) {
+                knnFilter.add(filter, BooleanClause.Occur.FILTER);
+            }
+            return new KnnFloatVectorQuery(
+                knnQuery.getField(),
+                knnQuery.getTargetCopy(),
+                knnQuery.getK(),
+                knnFilter.build()
+            );
         }
         return query.build();
     }
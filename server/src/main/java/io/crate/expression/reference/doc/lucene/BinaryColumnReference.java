@@ -31,7 +31,7 @@ import org.apache.lucene.util.BytesRef;
 import io.crate.exceptions.ArrayViaDocValuesUnsupportedException;
 import io.crate.execution.engine.fetch.ReaderContext;
 
-public abstract class BinaryColumnReference<T> extends LuceneCollectorExpression<T> {
+public abstract class BinaryColumnReference<T> extends LuceneCollectorExpression<T> implements SegmentCodes<T> {
 
     private final String columnName;
     private SortedSetDocValues values;
@@ -46,18 +46,33 @@ public abstract class BinaryColumnReference<T> extends LuceneCollectorExpression
     @Override
     public final T value() throws ArrayViaDocValuesUnsupportedException {
         try {
-            if (values.advanceExact(docId) == false) {
-                return null;
-            }
-            if (values.docValueCount() > 1) {
-                throw new ArrayViaDocValuesUnsupportedException(columnName);
-            }
-            return convert(values.lookupOrd(values.nextOrd()));
+            return hasValue() ? decode(code()) : null;
         } catch (IOException e) {
             throw new UncheckedIOException(e);
         }
     }
 
+    @Override
+    public final boolean hasValue() throws IOException {
+        if (values.advanceExact(docId) == false) {
+            return false;
+        }
+        if (values.docValueCount() > 1) {
+            throw new ArrayViaDocValuesUnsupportedException(columnName);
+        }
+        return true;
+    }
+
+    @Override
+    public final long code() throws IOException {
+        return values.nextOrd();
+    }
+
+    @Override
+    public final T decode(long code) throws IOException {
+        return convert(values.lookupOrd(code));
+    }
+
     @Override
     public final void setNextDocId(int docId) {
         this.docId = docId;
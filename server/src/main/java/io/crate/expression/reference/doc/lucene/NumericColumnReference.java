@@ -30,7 +30,7 @@ import org.apache.lucene.index.SortedNumericDocValues;
 import io.crate.exceptions.ArrayViaDocValuesUnsupportedException;
 import io.crate.execution.engine.fetch.ReaderContext;
 
-public abstract class NumericColumnReference<T> extends LuceneCollectorExpression<T> {
+public abstract class NumericColumnReference<T> extends LuceneCollectorExpression<T> implements SegmentCodes<T> {
 
     private final String luceneField;
 
@@ -46,18 +46,33 @@ public abstract class NumericColumnReference<T> extends LuceneCollectorExpressio
     @Override
     public T value() {
         try {
-            if (docValues.advanceExact(docId) == false) {
-                return null;
-            }
-            if (docValues.docValueCount() > 1) {
-                throw new ArrayViaDocValuesUnsupportedException(luceneField);
-            }
-            return convert(docValues.nextValue());
+            return hasValue() ? convert(docValues.nextValue()) : null;
         } catch (IOException e) {
             throw new UncheckedIOException(e);
         }
     }
 
+    @Override
+    public boolean hasValue() throws IOException {
+        if (docValues.advanceExact(docId) == false) {
+            return false;
+        }
+        if (docValues.docValueCount() > 1) {
+            throw new ArrayViaDocValuesUnsupportedException(luceneField);
+        }
+        return true;
+    }
+
+    @Override
+    public long code() throws IOException {
+        return docValues.nextValue();
+    }
+
+    @Override
+    public T decode(long code) {
+        return convert(code);
+    }
+
     @Override
     public void setNextDocId(int doc) {
         this.docId = doc;
@@ -0,0 +1,52 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.expression.reference.doc.lucene;
+
+import java.io.IOException;
+
+/**
+ * A column whose values are encoded as a {@code long} within a segment: The
+ * ordinal for values stored in {@link org.apache.lucene.index.SortedSetDocValues}
+ * or the stored value for {@link org.apache.lucene.index.SortedNumericDocValues}.
+ *
+ * <p>
+ * Equal codes within a segment represent equal values. This allows to compare
+ * values of the current segment without converting them.
+ * </p>
+ */
+public interface SegmentCodes<T> {
+
+    /**
+     * @return true if the current document has a value. Only then {@link #code()} can be used.
+     */
+    boolean hasValue() throws IOException;
+
+    /**
+     * @return the code of the value of the current document
+     */
+    long code() throws IOException;
+
+    /**
+     * @return the value for a code of the current segment
+     */
+    T decode(long code) throws IOException;
+}
@@ -22,14 +22,17 @@
 package io.crate.expression.reference.file;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
 import org.apache.lucene.util.UnicodeUtil;
 import org.elasticsearch.ElasticsearchParseException;
+import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.compress.NotXContentException;
 import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.common.xcontent.json.JsonXContent;
 import org.jetbrains.annotations.Nullable;
 
 import io.crate.execution.engine.collect.files.FileReadingIterator.LineCursor;
@@ -56,6 +59,13 @@ public class LineContext {
             int len = UnicodeUtil.UTF8toUTF16(rawSource, 0, rawSource.length, chars);
             return new String(chars, 0, len);
         }
+        if (parsedSource != null) {
+            try {
+                return Strings.toString(JsonXContent.builder().map(parsedSource));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
         return null;
     }
 
@@ -88,6 +98,14 @@ public class LineContext {
         this.parsedSource = null;
     }
 
+    /**
+     * Sets the values of a row which was read from a binary format and doesn't need to be parsed.
+     */
+    public void parsedSource(LinkedHashMap<String, Object> values) {
+        this.rawSource = null;
+        this.parsedSource = values;
+    }
+
     String currentUri() {
         return cursor.uri().toString();
     }
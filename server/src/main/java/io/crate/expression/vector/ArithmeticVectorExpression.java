@@ -0,0 +1,143 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.expression.vector;
+
+import org.jetbrains.annotations.Nullable;
+
+import io.crate.expression.scalar.arithmetic.ArithmeticFunctions;
+import io.crate.types.DataType;
+import io.crate.types.DoubleType;
+import io.crate.types.FloatType;
+import io.crate.types.IntegerType;
+import io.crate.types.LongType;
+
+/**
+ * Vectorized version of the {@code integer}, {@code bigint}, {@code real} and
+ * {@code double precision} variants of {@link ArithmeticFunctions}.
+ *
+ * <p>
+ * The results match the row wise evaluation: Overflows of integral types raise an
+ * error, {@code integer} values are checked against the integer range and
+ * {@code real} values are rounded to float after each operation.
+ * </p>
+ */
+final class ArithmeticVectorExpression implements VectorExpression {
+
+    private enum Operation {
+        ADD,
+        SUBTRACT,
+        MULTIPLY,
+        DIVIDE,
+        MODULUS
+    }
+
+    private final Operation operation;
+    private final VectorExpression left;
+    private final VectorExpression right;
+    private final ColumnVector result;
+    private final boolean isInteger;
+    private final boolean isFloat;
+
+    private ArithmeticVectorExpression(Operation operation,
+                                       DataType<?> type,
+                                       VectorExpression left,
+                                       VectorExpression right) {
+        this.operation = operation;
+        this.left = left;
+        this.right = right;
+        this.result = ColumnVector.create(type);
+        this.isInteger = type.id() == IntegerType.ID;
+        this.isFloat = type.id() == FloatType.ID;
+    }
+
+    @Nullable
+    static VectorExpression of(String name, DataType<?> type, VectorExpression left, VectorExpression right) {
+        Operation operation = switch (name) {
+            case ArithmeticFunctions.Names.ADD -> Operation.ADD;
+            case ArithmeticFunctions.Names.SUBTRACT -> Operation.SUBTRACT;
+            case ArithmeticFunctions.Names.MULTIPLY -> Operation.MULTIPLY;
+            case ArithmeticFunctions.Names.DIVIDE -> Operation.DIVIDE;
+            case ArithmeticFunctions.Names.MODULUS, ArithmeticFunctions.Names.MOD -> Operation.MODULUS;
+            default -> null;
+        };
+        if (operation == null) {
+            return null;
+        }
+        return switch (type.id()) {
+            case IntegerType.ID, LongType.ID, FloatType.ID, DoubleType.ID ->
+                new ArithmeticVectorExpression(operation, type, left, right);
+            default -> null;
+        };
+    }
+
+    @Override
+    public ColumnVector evaluate(ColumnBatch batch) {
+        ColumnVector leftValues = left.evaluate(batch);
+        ColumnVector rightValues = right.evaluate(batch);
+        int size = batch.size();
+        result.reset(size);
+        result.setNulls(leftValues, rightValues);
+        if (result instanceof LongVector longResult) {
+            evaluate(((LongVector) leftValues).values, ((LongVector) rightValues).values, longResult.values, size);
+        } else {
+            evaluate(((DoubleVector) leftValues).values, ((DoubleVector) rightValues).values, ((DoubleVector) result).values, size);
+        }
+        return result;
+    }
+
+    private void evaluate(long[] a, long[] b, long[] out, int size) {
+        // Null positions are skipped, their garbage values could raise errors like a division by zero
+        boolean hasNulls = result.hasNulls();
+        for (int i = 0; i < size; i++) {
+            if (hasNulls && result.isNull(i)) {
+                continue;
+            }
+            long x = a[i];
+            long y = b[i];
+            out[i] = switch (operation) {
+                // The sum, difference and product of two integers can't overflow a long
+                case ADD -> isInteger ? Math.toIntExact(x + y) : Math.addExact(x, y);
+                case SUBTRACT -> isInteger ? Math.toIntExact(x - y) : Math.subtractExact(x, y);
+                case MULTIPLY -> isInteger ? Math.toIntExact(x * y) : Math.multiplyExact(x, y);
+                // Integer.MIN_VALUE / -1 wraps around like the integer division
+                case DIVIDE -> isInteger ? (int) (x / y) : x / y;
+                case MODULUS -> x % y;
+            };
+        }
+    }
+
+    private void evaluate(double[] a, double[] b, double[] out, int size) {
+        for (int i = 0; i < size; i++) {
+            double x = a[i];
+            double y = b[i];
+            double value = switch (operation) {
+                case ADD -> x + y;
+                case SUBTRACT -> x - y;
+                case MULTIPLY -> x * y;
+                case DIVIDE -> x / y;
+                case MODULUS -> x % y;
+            };
+            // Rounding the exact double result of two floats gives the same result as the float operation
+            out[i] = isFloat ? (float) value : value;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.expression.vector;
+
+import io.crate.exceptions.ConversionException;
+import io.crate.expression.scalar.cast.CastMode;
+import io.crate.metadata.settings.SessionSettings;
+import io.crate.types.DataType;
+import io.crate.types.DoubleType;
+import io.crate.types.LongType;
+
+/**
+ * Vectorized version of the cast functions. Casts from integral or floating point
+ * types to {@code bigint} or {@code double precision} are done on the primitive
+ * values, other casts use the cast of the target type for each value.
+ */
+final class CastVectorExpression implements VectorExpression {
+
+    private final CastMode mode;
+    private final DataType<?> targetType;
+    private final VectorExpression source;
+    private final SessionSettings sessionSettings;
+    private final ColumnVector result;
+
+    CastVectorExpression(CastMode mode,
+                         DataType<?> targetType,
+                         VectorExpression source,
+                         SessionSettings sessionSettings) {
+        this.mode = mode;
+        this.targetType = targetType;
+        this.source = source;
+        this.sessionSettings = sessionSettings;
+        this.result = ColumnVector.create(targetType);
+    }
+
+    @Override
+    public ColumnVector evaluate(ColumnBatch batch) {
+        ColumnVector values = source.evaluate(batch);
+        int size = batch.size();
+        result.reset(size);
+        if (values instanceof LongVector longValues && targetType.id() == LongType.ID) {
+            result.setNulls(values);
+            System.arraycopy(longValues.values, 0, ((LongVector) result).values, 0, size);
+        } else if (values instanceof LongVector longValues && targetType.id() == DoubleType.ID) {
+            result.setNulls(values);
+            double[] out = ((DoubleVector) result).values;
+            for (int i = 0; i < size; i++) {
+                out[i] = longValues.values[i];
+            }
+        } else if (values instanceof DoubleVector doubleValues && targetType.id() == DoubleType.ID) {
+            result.setNulls(values);
+            System.arraycopy(doubleValues.values, 0, ((DoubleVector) result).values, 0, size);
+        } else {
+            for (int i = 0; i < size; i++) {
+                result.set(i, cast(values.get(i)));
+            }
+        }
+        return result;
+    }
+
+    private Object cast(Object value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return switch (mode) {
+                case IMPLICIT -> targetType.implicitCast(value);
+                case EXPLICIT -> targetType.explicitCast(value, sessionSettings);
+                case TRY -> {
+                    try {
+                        yield targetType.explicitCast(value, sessionSettings);
+                    } catch (ClassCastException | IllegalArgumentException e) {
+                        yield null;
+                    }
+                }
+            };
+        } catch (ConversionException e) {
+            throw e;
+        } catch (ClassCastException | IllegalArgumentException e) {
+            throw new ConversionException(value, targetType);
+        }
+    }
+}
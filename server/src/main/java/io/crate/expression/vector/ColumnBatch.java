@@ -0,0 +1,111 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.expression.vector;
+
+import java.util.Arrays;
+
+import io.crate.data.Row;
+import io.crate.types.DataType;
+
+/**
+ * Buffers the cells of up to {@link #SIZE} rows column by column, so that
+ * {@link VectorExpression}s can evaluate a function for all rows at once.
+ *
+ * <p>
+ * The cells are kept as they are. They are converted to a typed {@link ColumnVector}
+ * once an expression requests the column. The batch is re-used, which avoids
+ * allocations per row.
+ * </p>
+ */
+public final class ColumnBatch {
+
+    public static final int SIZE = 1024;
+
+    private Object[][] columns = new Object[0][];
+    private ColumnVector[] vectors = new ColumnVector[0];
+    private boolean[] loaded = new boolean[0];
+    private int numColumns = 0;
+    private int size = 0;
+
+    public void add(Row row) {
+        assert size < SIZE : "Batch is full";
+        numColumns = row.numColumns();
+        if (columns.length < numColumns) {
+            int oldLength = columns.length;
+            columns = Arrays.copyOf(columns, numColumns);
+            for (int i = oldLength; i < numColumns; i++) {
+                columns[i] = new Object[SIZE];
+            }
+            vectors = Arrays.copyOf(vectors, numColumns);
+            loaded = Arrays.copyOf(loaded, numColumns);
+        }
+        for (int i = 0; i < numColumns; i++) {
+            columns[i][size] = row.get(i);
+        }
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int numColumns() {
+        return numColumns;
+    }
+
+    public boolean isFull() {
+        return size == SIZE;
+    }
+
+    public void clear() {
+        size = 0;
+        Arrays.fill(loaded, false);
+    }
+
+    /**
+     * @return the cell of a row as it was added
+     */
+    public Object get(int column, int position) {
+        return columns[column][position];
+    }
+
+    /**
+     * @return the values of a column as vector of the given type
+     */
+    public ColumnVector vector(int column, DataType<?> type) {
+        ColumnVector vector = vectors[column];
+        if (vector == null || !vector.type().equals(type)) {
+            vector = ColumnVector.create(type);
+            vectors[column] = vector;
+            loaded[column] = false;
+        }
+        if (!loaded[column]) {
+            Object[] values = columns[column];
+            vector.reset(size);
+            for (int i = 0; i < size; i++) {
+                vector.set(i, values[i]);
+            }
+            loaded[column] = true;
+        }
+        return vector;
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.expression.vector;
+
+import java.util.Arrays;
+
+import org.jetbrains.annotations.Nullable;
+
+import io.crate.types.BooleanType;
+import io.crate.types.ByteType;
+import io.crate.types.DataType;
+import io.crate.types.DoubleType;
+import io.crate.types.FloatType;
+import io.crate.types.IntegerType;
+import io.crate.types.LongType;
+import io.crate.types.ShortType;
+import io.crate.types.TimestampType;
+
+/**
+ * The values of a column for the rows of a {@link ColumnBatch}.
+ *
+ * <p>
+ * Integral and floating point values are stored in primitive arrays, null values
+ * are tracked in a bitmap. The value of a null position is undefined.
+ * A vector is re-used for all batches and holds up to {@link ColumnBatch#SIZE} values.
+ * </p>
+ */
+public abstract sealed class ColumnVector permits LongVector, DoubleVector, BooleanVector, ObjectVector {
+
+    protected final DataType<?> type;
+    private final long[] nulls = new long[ColumnBatch.SIZE / Long.SIZE];
+    private boolean hasNulls = false;
+    private int size = 0;
+
+    ColumnVector(DataType<?> type) {
+        this.type = type;
+    }
+
+    /**
+     * @return a vector using the most compact representation for values of the type
+     */
+    public static ColumnVector create(DataType<?> type) {
+        return switch (type.id()) {
+            case ByteType.ID,
+                 ShortType.ID,
+                 IntegerType.ID,
+                 LongType.ID,
+                 TimestampType.ID_WITH_TZ,
+                 TimestampType.ID_WITHOUT_TZ -> new LongVector(type);
+            case FloatType.ID, DoubleType.ID -> new DoubleVector(type);
+            case BooleanType.ID -> new BooleanVector(type);
+            default -> new ObjectVector(type);
+        };
+    }
+
+    public DataType<?> type() {
+        return type;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Clears all null flags and sets the number of values.
+     */
+    public void reset(int size) {
+        assert size <= ColumnBatch.SIZE : "size must not exceed the batch size";
+        if (hasNulls) {
+            Arrays.fill(nulls, 0L);
+            hasNulls = false;
+        }
+        this.size = size;
+    }
+
+    public boolean hasNulls() {
+        return hasNulls;
+    }
+
+    public boolean isNull(int position) {
+        return hasNulls && (nulls[position >>> 6] & (1L << position)) != 0;
+    }
+
+    public void setNull(int position) {
+        nulls[position >>> 6] |= 1L << position;
+        hasNulls = true;
+    }
+
+    /**
+     * Marks the positions which are null in any of the vectors as null.
+     */
+    void setNulls(ColumnVector first, ColumnVector second) {
+        if (!first.hasNulls && !second.hasNulls) {
+            return;
+        }
+        for (int i = 0; i < nulls.length; i++) {
+            nulls[i] = first.nulls[i] | second.nulls[i];
+        }
+        hasNulls = true;
+    }
+
+    /**
+     * Marks the positions which are null in the vector as null.
+     */
+    void setNulls(ColumnVector other) {
+        if (!other.hasNulls) {
+            return;
+        }
+        System.arraycopy(other.nulls, 0, nulls, 0, nulls.length);
+        hasNulls = true;
+    }
+
+    /**
+     * @return the value at the position, boxed to the java type of {@link #type()}
+     */
+    @Nullable
+    public final Object get(int position) {
+        return isNull(position) ? null : getNonNull(position);
+    }
+
+    public final void set(int position, @Nullable Object value) {
+        if (value == null) {
+            setNull(position);
+        } else {
+            setNonNull(position, value);
+        }
+    }
+
+    protected abstract Object getNonNull(int position);
+
+    protected abstract void setNonNull(int position, Object value);
+}
@@ -0,0 +1,128 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.expression.vector;
+
+import org.jetbrains.annotations.Nullable;
+
+import io.crate.expression.operator.EqOperator;
+import io.crate.expression.operator.GtOperator;
+import io.crate.expression.operator.GteOperator;
+import io.crate.expression.operator.LtOperator;
+import io.crate.expression.operator.LteOperator;
+import io.crate.types.BooleanType;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+
+/**
+ * Vectorized version of {@link EqOperator} and the comparison operators for numeric,
+ * timestamp and text values, see {@link VectorExpressions} for the supported types. Uses the same comparison as the data types, so that
+ * {@code NaN} and {@code -0.0} are handled the same way as in the row wise evaluation.
+ */
+final class CompareVectorExpression implements VectorExpression {
+
+    private enum Operation {
+        EQ,
+        LT,
+        LTE,
+        GT,
+        GTE
+    }
+
+    private final Operation operation;
+    private final VectorExpression left;
+    private final VectorExpression right;
+    private final BooleanVector result = new BooleanVector(DataTypes.BOOLEAN);
+
+    private CompareVectorExpression(Operation operation, VectorExpression left, VectorExpression right) {
+        this.operation = operation;
+        this.left = left;
+        this.right = right;
+    }
+
+    @Nullable
+    static VectorExpression of(String name, DataType<?> argType, VectorExpression left, VectorExpression right) {
+        Operation operation = switch (name) {
+            case EqOperator.NAME -> Operation.EQ;
+            case LtOperator.NAME -> Operation.LT;
+            case LteOperator.NAME -> Operation.LTE;
+            case GtOperator.NAME -> Operation.GT;
+            case GteOperator.NAME -> Operation.GTE;
+            default -> null;
+        };
+        if (operation == null) {
+            return null;
+        }
+        if (argType.id() == BooleanType.ID) {
+            return null;
+        }
+        return new CompareVectorExpression(operation, left, right);
+    }
+
+    @Override
+    public ColumnVector evaluate(ColumnBatch batch) {
+        ColumnVector leftValues = left.evaluate(batch);
+        ColumnVector rightValues = right.evaluate(batch);
+        int size = batch.size();
+        result.reset(size);
+        result.setNulls(leftValues, rightValues);
+        boolean[] out = result.values;
+        boolean hasNulls = result.hasNulls();
+        switch (leftValues) {
+            case LongVector longValues -> {
+                long[] a = longValues.values;
+                long[] b = ((LongVector) rightValues).values;
+                for (int i = 0; i < size; i++) {
+                    out[i] = matches(Long.compare(a[i], b[i]));
+                }
+            }
+            case DoubleVector doubleValues -> {
+                double[] a = doubleValues.values;
+                double[] b = ((DoubleVector) rightValues).values;
+                for (int i = 0; i < size; i++) {
+                    out[i] = matches(Double.compare(a[i], b[i]));
+                }
+            }
+            case ObjectVector objectValues -> {
+                Object[] a = objectValues.values;
+                Object[] b = ((ObjectVector) rightValues).values;
+                for (int i = 0; i < size; i++) {
+                    if (hasNulls && result.isNull(i)) {
+                        continue;
+                    }
+                    out[i] = matches(((String) a[i]).compareTo((String) b[i]));
+                }
+            }
+            default -> throw new IllegalStateException("Unsupported vector for comparison: " + leftValues.type());
+        }
+        return result;
+    }
+
+    private boolean matches(int cmp) {
+        return switch (operation) {
+            case EQ -> cmp == 0;
+            case LT -> cmp < 0;
+            case LTE -> cmp <= 0;
+            case GT -> cmp > 0;
+            case GTE -> cmp >= 0;
+        };
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.expression.vector;
+
+import io.crate.types.DataType;
+import io.crate.types.FloatType;
+
+/**
+ * Vector for {@code real} and {@code double precision} values.
+ * {@code real} values are stored widened to double, which is lossless.
+ */
+public final class DoubleVector extends ColumnVector {
+
+    final double[] values = new double[ColumnBatch.SIZE];
+
+    DoubleVector(DataType<?> type) {
+        super(type);
+    }
+
+    public double getDouble(int position) {
+        return values[position];
+    }
+
+    @Override
+    protected Object getNonNull(int position) {
+        double value = values[position];
+        return type.id() == FloatType.ID ? (float) value : value;
+    }
+
+    @Override
+    protected void setNonNull(int position, Object value) {
+        values[position] = ((Number) value).doubleValue();
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.expression.vector;
+
+import java.util.List;
+
+import org.jetbrains.annotations.Nullable;
+
+import io.crate.expression.operator.AndOperator;
+import io.crate.expression.operator.OrOperator;
+import io.crate.expression.predicate.NotPredicate;
+import io.crate.types.DataTypes;
+
+/**
+ * Vectorized version of {@link AndOperator}, {@link OrOperator} and {@link NotPredicate}
+ * using three valued logic.
+ */
+final class LogicalVectorExpression implements VectorExpression {
+
+    private enum Operation {
+        AND,
+        OR,
+        NOT
+    }
+
+    private final Operation operation;
+    private final List<VectorExpression> args;
+    private final BooleanVector result = new BooleanVector(DataTypes.BOOLEAN);
+
+    private LogicalVectorExpression(Operation operation, List<VectorExpression> args) {
+        this.operation = operation;
+        this.args = args;
+    }
+
+    @Nullable
+    static VectorExpression of(String name, List<VectorExpression> args) {
+        return switch (name) {
+            case AndOperator.NAME -> new LogicalVectorExpression(Operation.AND, args);
+            case OrOperator.NAME -> new LogicalVectorExpression(Operation.OR, args);
+            case NotPredicate.NAME -> new LogicalVectorExpression(Operation.NOT, args);
+            default -> null;
+        };
+    }
+
+    @Override
+    public ColumnVector evaluate(ColumnBatch batch) {
+        int size = batch.size();
+        BooleanVector first = (BooleanVector) args.get(0).evaluate(batch);
+        result.reset(size);
+        boolean[] out = result.values;
+        if (operation == Operation.NOT) {
+            result.setNulls(first);
+            for (int i = 0; i < size; i++) {
+                out[i] = !first.values[i];
+            }
+            return result;
+        }
+        BooleanVector second = (BooleanVector) args.get(1).evaluate(batch);
+        boolean isAnd = operation == Operation.AND;
+        for (int i = 0; i < size; i++) {
+            boolean leftNull = first.isNull(i);
+            boolean rightNull = second.isNull(i);
+            boolean left = first.values[i];
+            boolean right = second.values[i];
+            if (isAnd) {
+                // false AND null -> false
+                if ((!leftNull && !left) || (!rightNull && !right)) {
+                    out[i] = false;
+                } else if (leftNull || rightNull) {
+                    result.setNull(i);
+                } else {
+                    out[i] = true;
+                }
+            } else {
+                // true OR null -> true
+                if ((!leftNull && left) || (!rightNull && right)) {
+                    out[i] = true;
+                } else if (leftNull || rightNull) {
+                    result.setNull(i);
+                } else {
+                    out[i] = false;
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.expression.vector;
+
+import io.crate.types.ByteType;
+import io.crate.types.DataType;
+import io.crate.types.IntegerType;
+import io.crate.types.ShortType;
+
+/**
+ * Vector for {@code byte}, {@code short}, {@code integer}, {@code bigint} and timestamp values.
+ */
+public final class LongVector extends ColumnVector {
+
+    final long[] values = new long[ColumnBatch.SIZE];
+
+    LongVector(DataType<?> type) {
+        super(type);
+    }
+
+    public long getLong(int position) {
+        return values[position];
+    }
+
+    @Override
+    protected Object getNonNull(int position) {
+        long value = values[position];
+        return switch (type.id()) {
+            case ByteType.ID -> (byte) value;
+            case ShortType.ID -> (short) value;
+            case IntegerType.ID -> (int) value;
+            default -> value;
+        };
+    }
+
+    @Override
+    protected void setNonNull(int position, Object value) {
+        values[position] = ((Number) value).longValue();
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.expression.vector;
+
+import java.util.List;
+import java.util.Locale;
+
+import org.jetbrains.annotations.Nullable;
+
+import io.crate.expression.scalar.ConcatFunction;
+import io.crate.types.DataTypes;
+
+/**
+ * Vectorized version of {@code lower}, {@code upper}, {@code char_length},
+ * {@code length} and the concatenation of two {@code text} values.
+ */
+final class StringVectorExpression implements VectorExpression {
+
+    private enum Operation {
+        LOWER,
+        UPPER,
+        LENGTH,
+        CONCAT,
+        CONCAT_OPERATOR
+    }
+
+    private final Operation operation;
+    private final List<VectorExpression> args;
+    private final ColumnVector result;
+
+    private StringVectorExpression(Operation operation, List<VectorExpression> args) {
+        this.operation = operation;
+        this.args = args;
+        this.result = ColumnVector.create(operation == Operation.LENGTH ? DataTypes.INTEGER : DataTypes.STRING);
+    }
+
+    /**
+     * @param args the arguments, which must all be of type {@code text}
+     */
+    @Nullable
+    static VectorExpression of(String name, List<VectorExpression> args) {
+        Operation operation = switch (name) {
+            case "lower" -> Operation.LOWER;
+            case "upper" -> Operation.UPPER;
+            case "char_length", "length" -> Operation.LENGTH;
+            case ConcatFunction.NAME -> Operation.CONCAT;
+            case ConcatFunction.OPERATOR_NAME -> Operation.CONCAT_OPERATOR;
+            default -> null;
+        };
+        if (operation == null) {
+            return null;
+        }
+        int numArgs = operation == Operation.CONCAT || operation == Operation.CONCAT_OPERATOR ? 2 : 1;
+        if (args.size() != numArgs) {
+            return null;
+        }
+        return new StringVectorExpression(operation, args);
+    }
+
+    @Override
+    public ColumnVector evaluate(ColumnBatch batch) {
+        ObjectVector first = (ObjectVector) args.get(0).evaluate(batch);
+        int size = batch.size();
+        result.reset(size);
+        switch (operation) {
+            case LOWER, UPPER -> {
+                result.setNulls(first);
+                Object[] out = ((ObjectVector) result).values;
+                for (int i = 0; i < size; i++) {
+                    if (!first.isNull(i)) {
+                        String value = (String) first.values[i];
+                        out[i] = operation == Operation.LOWER
+                            ? value.toLowerCase(Locale.ENGLISH)
+                            : value.toUpperCase(Locale.ENGLISH);
+                    }
+                }
+            }
+            case LENGTH -> {
+                result.setNulls(first);
+                long[] out = ((LongVector) result).values;
+                for (int i = 0; i < size; i++) {
+                    if (!first.isNull(i)) {
+                        out[i] = ((String) first.values[i]).length();
+                    }
+                }
+            }
+            case CONCAT, CONCAT_OPERATOR -> {
+                ObjectVector second = (ObjectVector) args.get(1).evaluate(batch);
+                Object[] out = ((ObjectVector) result).values;
+                for (int i = 0; i < size; i++) {
+                    String left = (String) first.get(i);
+                    String right = (String) second.get(i);
+                    if (left == null || right == null) {
+                        if (operation == Operation.CONCAT_OPERATOR) {
+                            result.setNull(i);
+                        } else {
+                            out[i] = left == null ? (right == null ? "" : right) : left;
+                        }
+                    } else {
+                        out[i] = left + right;
+                    }
+                }
+            }
+            default -> throw new AssertionError("Unexpected operation: " + operation);
+        }
+        return result;
+    }
+}
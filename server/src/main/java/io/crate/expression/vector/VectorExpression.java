@@ -0,0 +1,37 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.expression.vector;
+
+/**
+ * An expression which is evaluated for all rows of a {@link ColumnBatch} at once,
+ * instead of once per row like {@link io.crate.data.Input}.
+ *
+ * See {@link VectorExpressions} for the supported expressions.
+ */
+public interface VectorExpression {
+
+    /**
+     * @return the result for each row of the batch. The vector is re-used by the
+     *         expression and only valid until the next call.
+     */
+    ColumnVector evaluate(ColumnBatch batch);
+}
@@ -0,0 +1,239 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.expression.vector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jetbrains.annotations.Nullable;
+
+import io.crate.expression.operator.AndOperator;
+import io.crate.expression.operator.EqOperator;
+import io.crate.expression.operator.GtOperator;
+import io.crate.expression.operator.GteOperator;
+import io.crate.expression.operator.LtOperator;
+import io.crate.expression.operator.LteOperator;
+import io.crate.expression.operator.OrOperator;
+import io.crate.expression.predicate.NotPredicate;
+import io.crate.expression.scalar.ConcatFunction;
+import io.crate.expression.scalar.arithmetic.ArithmeticFunctions;
+import io.crate.expression.scalar.cast.CastMode;
+import io.crate.expression.symbol.Function;
+import io.crate.expression.symbol.InputColumn;
+import io.crate.expression.symbol.Literal;
+import io.crate.expression.symbol.Symbol;
+import io.crate.metadata.TransactionContext;
+import io.crate.types.BooleanType;
+import io.crate.types.ByteType;
+import io.crate.types.DataType;
+import io.crate.types.DoubleType;
+import io.crate.types.FloatType;
+import io.crate.types.IntegerType;
+import io.crate.types.LongType;
+import io.crate.types.ShortType;
+import io.crate.types.StringType;
+import io.crate.types.TimestampType;
+
+/**
+ * Compiles symbols operating on {@link InputColumn}s to {@link VectorExpression}s.
+ *
+ * <p>
+ * Supported are literals, input columns and the following built-in functions on
+ * numeric, timestamp, boolean and text values:
+ * </p>
+ * <ul>
+ *     <li>Arithmetic: {@code +, -, *, /, %} on {@code integer, bigint, real, double precision}</li>
+ *     <li>Comparison: {@code =, <, <=, >, >=}</li>
+ *     <li>Logical: {@code AND, OR, NOT}</li>
+ *     <li>Casts</li>
+ *     <li>Strings: {@code lower, upper, char_length, length, concat, ||}</li>
+ * </ul>
+ */
+public final class VectorExpressions {
+
+    private VectorExpressions() {
+    }
+
+    /**
+     * @return the compiled symbols or null if any of the symbols isn't supported
+     */
+    @Nullable
+    public static List<VectorExpression> compile(List<? extends Symbol> symbols, TransactionContext txnCtx) {
+        List<VectorExpression> expressions = new ArrayList<>(symbols.size());
+        for (Symbol symbol : symbols) {
+            VectorExpression expression = compile(symbol, txnCtx);
+            if (expression == null) {
+                return null;
+            }
+            expressions.add(expression);
+        }
+        return expressions;
+    }
+
+    /**
+     * @return the compiled symbol or null if the symbol or any of its arguments isn't supported
+     */
+    @Nullable
+    public static VectorExpression compile(Symbol symbol, TransactionContext txnCtx) {
+        return switch (symbol) {
+            case InputColumn inputColumn -> new InputColumnExpression(inputColumn.index(), inputColumn.valueType());
+            case Literal<?> literal -> new LiteralExpression(literal.valueType(), literal.value());
+            case Function function -> compileFunction(function, txnCtx);
+            default -> null;
+        };
+    }
+
+    @Nullable
+    private static VectorExpression compileFunction(Function function, TransactionContext txnCtx) {
+        if (function.signature().getName().schema() != null || function.filter() != null) {
+            // user defined functions may shadow the names of built-in functions
+            return null;
+        }
+        List<Symbol> arguments = function.arguments();
+        DataType<?> returnType = function.valueType();
+        CastMode castMode = function.castMode();
+        if (castMode != null) {
+            Symbol source = arguments.getFirst();
+            if (!isSupported(source.valueType()) || !isSupported(returnType)) {
+                return null;
+            }
+            VectorExpression sourceExpression = compile(source, txnCtx);
+            return sourceExpression == null
+                ? null
+                : new CastVectorExpression(castMode, returnType, sourceExpression, txnCtx.sessionSettings());
+        }
+        List<VectorExpression> args = new ArrayList<>(arguments.size());
+        for (Symbol argument : arguments) {
+            if (!isSupported(argument.valueType())) {
+                return null;
+            }
+            VectorExpression arg = compile(argument, txnCtx);
+            if (arg == null) {
+                return null;
+            }
+            args.add(arg);
+        }
+        String name = function.name();
+        return switch (name) {
+            case ArithmeticFunctions.Names.ADD,
+                 ArithmeticFunctions.Names.SUBTRACT,
+                 ArithmeticFunctions.Names.MULTIPLY,
+                 ArithmeticFunctions.Names.DIVIDE,
+                 ArithmeticFunctions.Names.MODULUS,
+                 ArithmeticFunctions.Names.MOD -> hasTypes(arguments, returnType, 2)
+                ? ArithmeticVectorExpression.of(name, returnType, args.get(0), args.get(1))
+                : null;
+            case EqOperator.NAME,
+                 LtOperator.NAME,
+                 LteOperator.NAME,
+                 GtOperator.NAME,
+                 GteOperator.NAME -> hasTypes(arguments, arguments.getFirst().valueType(), 2)
+                ? CompareVectorExpression.of(name, arguments.getFirst().valueType(), args.get(0), args.get(1))
+                : null;
+            case AndOperator.NAME, OrOperator.NAME -> hasTypeId(arguments, BooleanType.ID, 2)
+                ? LogicalVectorExpression.of(name, args)
+                : null;
+            case NotPredicate.NAME -> hasTypeId(arguments, BooleanType.ID, 1)
+                ? LogicalVectorExpression.of(name, args)
+                : null;
+            case "lower", "upper", "char_length", "length", ConcatFunction.NAME, ConcatFunction.OPERATOR_NAME ->
+                hasTypeId(arguments, StringType.ID, args.size())
+                    ? StringVectorExpression.of(name, args)
+                    : null;
+            default -> null;
+        };
+    }
+
+    /**
+     * Types with a vector representation which the functions can operate on
+     */
+    private static boolean isSupported(DataType<?> type) {
+        return switch (type.id()) {
+            case ByteType.ID,
+                 ShortType.ID,
+                 IntegerType.ID,
+                 LongType.ID,
+                 TimestampType.ID_WITH_TZ,
+                 TimestampType.ID_WITHOUT_TZ,
+                 FloatType.ID,
+                 DoubleType.ID,
+                 BooleanType.ID,
+                 StringType.ID -> true;
+            default -> false;
+        };
+    }
+
+    private static boolean hasTypes(List<Symbol> arguments, DataType<?> type, int numArgs) {
+        if (arguments.size() != numArgs) {
+            return false;
+        }
+        for (Symbol argument : arguments) {
+            if (!argument.valueType().equals(type)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean hasTypeId(List<Symbol> arguments, int typeId, int numArgs) {
+        if (arguments.size() != numArgs) {
+            return false;
+        }
+        for (Symbol argument : arguments) {
+            if (argument.valueType().id() != typeId) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private record InputColumnExpression(int index, DataType<?> type) implements VectorExpression {
+
+        @Override
+        public ColumnVector evaluate(ColumnBatch batch) {
+            return batch.vector(index, type);
+        }
+    }
+
+    private static final class LiteralExpression implements VectorExpression {
+
+        private final Object value;
+        private final ColumnVector vector;
+
+        private LiteralExpression(DataType<?> type, @Nullable Object value) {
+            this.value = value;
+            this.vector = ColumnVector.create(type);
+        }
+
+        @Override
+        public ColumnVector evaluate(ColumnBatch batch) {
+            int size = batch.size();
+            if (vector.size() != size) {
+                vector.reset(size);
+                for (int i = 0; i < size; i++) {
+                    vector.set(i, value);
+                }
+            }
+            return vector;
+        }
+    }
+}
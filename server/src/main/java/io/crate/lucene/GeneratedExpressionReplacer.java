@@ -0,0 +1,96 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.lucene;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.crate.expression.symbol.Function;
+import io.crate.expression.symbol.FunctionCopyVisitor;
+import io.crate.expression.symbol.Symbol;
+import io.crate.metadata.GeneratedReference;
+import io.crate.metadata.IndexType;
+import io.crate.metadata.RowGranularity;
+
+/**
+ * Replaces expressions of a query which match the generation expression of a
+ * generated column with the generated column.
+ *
+ * <pre>
+ *     generated column:    email_lower AS lower(email)
+ *
+ *     input:   lower(email) = 'foo'
+ *     output:  email_lower = 'foo'
+ * </pre>
+ *
+ * <p>
+ * The values of generated columns are computed on insert, so the query can use
+ * the index or doc values of the generated column instead of evaluating the
+ * expression for every document using a {@link GenericFunctionQuery}.
+ * </p>
+ */
+final class GeneratedExpressionReplacer extends FunctionCopyVisitor<Map<Symbol, GeneratedReference>> {
+
+    private static final GeneratedExpressionReplacer INSTANCE = new GeneratedExpressionReplacer();
+
+    private GeneratedExpressionReplacer() {
+    }
+
+    static Symbol replace(Symbol query, List<GeneratedReference> generatedColumns) {
+        if (generatedColumns.isEmpty()) {
+            return query;
+        }
+        Map<Symbol, GeneratedReference> columnByExpression = new HashMap<>();
+        for (GeneratedReference generatedColumn : generatedColumns) {
+            if (canReplace(generatedColumn)) {
+                columnByExpression.putIfAbsent(generatedColumn.generatedExpression(), generatedColumn);
+            }
+        }
+        if (columnByExpression.isEmpty()) {
+            return query;
+        }
+        return query.accept(INSTANCE, columnByExpression);
+    }
+
+    /**
+     * Partition columns aren't part of the documents and full text indexes
+     * don't support exact matches. Non-deterministic expressions may evaluate
+     * to a different value than the one stored.
+     */
+    private static boolean canReplace(GeneratedReference generatedColumn) {
+        IndexType indexType = generatedColumn.indexType();
+        return generatedColumn.granularity() == RowGranularity.DOC
+            && generatedColumn.isDeterministic()
+            && generatedColumn.generatedExpression() instanceof Function
+            && (indexType == IndexType.PLAIN || (indexType == IndexType.NONE && generatedColumn.hasDocValues()));
+    }
+
+    @Override
+    public Symbol visitFunction(Function function, Map<Symbol, GeneratedReference> columnByExpression) {
+        GeneratedReference generatedColumn = columnByExpression.get(function);
+        if (generatedColumn != null) {
+            return generatedColumn;
+        }
+        return processAndMaybeCopy(function, columnByExpression);
+    }
+}
@@ -121,8 +121,12 @@ public class LuceneQueryBuilder {
             table.partitionedByColumns(),
             query
         );
-        ctx.query = eliminateNullsIfPossible(
+        Symbol normalizedQuery = GeneratedExpressionReplacer.replace(
             inverseSourceLookup(normalizer.normalize(query, txnCtx)),
+            table.generatedColumns()
+        );
+        ctx.query = eliminateNullsIfPossible(
+            normalizedQuery,
             s -> normalizer.normalize(s, txnCtx)
         ).accept(VISITOR, ctx);
         if (LOGGER.isTraceEnabled()) {
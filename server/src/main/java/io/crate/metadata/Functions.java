@@ -121,6 +121,14 @@ public class Functions {
         udfFunctionImplementations = functions;
     }
 
+    /**
+     * @return true if the name refers to a user defined function. Its
+     *         implementation can be replaced without changing its signature.
+     */
+    public boolean isUserDefined(FunctionName name) {
+        return udfFunctionImplementations.containsKey(name);
+    }
+
     @Nullable
     public Signature findFunctionSignatureByOid(int oid) {
         for (var signature : signatures()) {
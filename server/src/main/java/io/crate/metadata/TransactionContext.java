@@ -23,6 +23,7 @@ package io.crate.metadata;
 
 import io.crate.metadata.settings.SessionSettings;
 
+import java.io.Closeable;
 import java.time.Instant;
 
 public interface TransactionContext {
@@ -35,6 +36,16 @@ public interface TransactionContext {
 
     SessionSettings sessionSettings();
 
+    /**
+     * Registers a resource which is closed once the statement finished on this node.
+     *
+     * @return false if the context isn't bound to the execution of a statement.
+     *         The caller must close the resource itself.
+     */
+    default boolean closeOnFinish(Closeable resource) {
+        return false;
+    }
+
     class StaticTransactionContext implements TransactionContext {
 
         private final SessionSettings sessionSettings;
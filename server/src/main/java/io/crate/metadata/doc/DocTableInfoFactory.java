@@ -729,7 +729,11 @@ public class DocTableInfoFactory {
             }
             case FloatVectorType.NAME -> {
                 Integer dimensions = (Integer) columnProperties.get("dimensions");
-                yield new FloatVectorType(dimensions);
+                yield FloatVectorType.of(
+                    dimensions,
+                    (String) columnProperties.get(FloatVectorType.SIMILARITY),
+                    (String) columnProperties.get(FloatVectorType.QUANTIZATION)
+                );
             }
             default -> Objects.requireNonNullElse(DataTypes.ofMappingName(typeName), DataTypes.NOT_SUPPORTED);
         };
@@ -28,6 +28,7 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.function.LongSupplier;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
@@ -55,6 +56,7 @@ public class CoordinatorSessionSettings extends SessionSettings {
     private String applicationName;
     private String dateStyle;
     private TimeValue statementTimeout;
+    private LongSupplier groupMemoryLimit = () -> 0L;
 
     public CoordinatorSessionSettings(Role authenticatedUser, String... searchPath) {
         this(authenticatedUser, authenticatedUser, Set.of(), searchPath);
@@ -178,6 +180,29 @@ public class CoordinatorSessionSettings extends SessionSettings {
         this.memoryLimit = memoryLimit;
     }
 
+    /**
+     * @param groupMemoryLimit supplies the operation memory limit of the resource group
+     *                         of the session user, 0 for no limit.
+     */
+    public void groupMemoryLimit(LongSupplier groupMemoryLimit) {
+        this.groupMemoryLimit = groupMemoryLimit;
+    }
+
+    /**
+     * memory.operation_limit, capped by the operation memory limit of the resource group
+     * of the session user. The cap can't be lifted by setting memory.operation_limit to 0.
+     **/
+    @Override
+    public int memoryLimitInBytes() {
+        long groupLimit = groupMemoryLimit.getAsLong();
+        if (groupLimit <= 0) {
+            return memoryLimit;
+        }
+        // memory.operation_limit is an int, larger group limits are capped to its maximum
+        int limit = (int) Math.min(Integer.MAX_VALUE, groupLimit);
+        return memoryLimit == 0 ? limit : Math.min(memoryLimit, limit);
+    }
+
     public Map<String, Object> toMap() {
         Map<String, Object> map = new TreeMap<>();
         map.put(SessionSettingRegistry.HASH_JOIN_KEY, hashJoinsEnabled);
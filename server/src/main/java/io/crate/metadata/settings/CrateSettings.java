@@ -37,6 +37,7 @@ import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Settings;
 
 import io.crate.common.collections.Lists;
+import io.crate.execution.jobs.ResourceGroups;
 import io.crate.types.DataTypes;
 
 public final class CrateSettings {
@@ -96,6 +97,7 @@ public final class CrateSettings {
     public static boolean isValidSetting(String name) {
         return isLoggingSetting(name) ||
                isArchivedSetting(name) ||
+               isResourceGroupSetting(name) ||
                EXPOSED_SETTING_NAMES.contains(name) ||
                EXPOSED_SETTING_NAMES.stream().noneMatch(s -> s.startsWith(name + ".")) == false;
     }
@@ -107,12 +109,20 @@ public final class CrateSettings {
         if (isArchivedSetting(prefix)) {
             return Collections.singletonList(prefix);
         }
+        if (isResourceGroupSetting(prefix)) {
+            // Resource groups have user defined names, match all settings of a group
+            return List.of(prefix, prefix + ".*");
+        }
         List<String> filteredList = new ArrayList<>();
         for (String key : EXPOSED_SETTING_NAMES) {
             if (key.startsWith(prefix)) {
                 filteredList.add(key);
             }
         }
+        String resourceGroupsKey = ResourceGroups.RESOURCE_GROUPS_SETTING.getKey();
+        if (resourceGroupsKey.startsWith(prefix + ".")) {
+            filteredList.add(resourceGroupsKey + "*");
+        }
         return filteredList;
     }
 
@@ -156,4 +166,8 @@ public final class CrateSettings {
     private static boolean isArchivedSetting(String name) {
         return name.startsWith(ARCHIVED_SETTINGS_PREFIX);
     }
+
+    private static boolean isResourceGroupSetting(String name) {
+        return (name + ".").startsWith(ResourceGroups.RESOURCE_GROUPS_SETTING.getKey());
+    }
 }
@@ -91,7 +91,7 @@ public class SessionSettings implements Writeable {
             out.writeBoolean(errorOnUnknownObjectKey);
         }
         if (version.onOrAfter(Version.V_5_5_0)) {
-            out.writeVInt(memoryLimit);
+            out.writeVInt(memoryLimitInBytes());
         }
     }
 
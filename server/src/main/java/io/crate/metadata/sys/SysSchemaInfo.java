@@ -71,7 +71,11 @@ public class SysSchemaInfo implements SchemaInfo {
                 SysUsersTableInfo.create(() -> clusterService.state().metadata().clusterUUID())),
             Map.entry(SysRolesTableInfo.IDENT.name(), SysRolesTableInfo.INSTANCE),
             Map.entry(SysPrivilegesTableInfo.IDENT.name(), SysPrivilegesTableInfo.INSTANCE),
-            Map.entry(SysSessionsTableInfo.IDENT.name(), SysSessionsTableInfo.create(localNode))
+            Map.entry(SysSessionsTableInfo.IDENT.name(), SysSessionsTableInfo.create(localNode)),
+            Map.entry(SysPlanCacheTableInfo.IDENT.name(), SysPlanCacheTableInfo.create(localNode)),
+            Map.entry(SysResourceGroupsTableInfo.IDENT.name(), SysResourceGroupsTableInfo.create(localNode)),
+            Map.entry(SysShardSamplesTableInfo.IDENT.name(), SysShardSamplesTableInfo.create(localNode)),
+            Map.entry(SysAggregationCacheTableInfo.IDENT.name(), SysAggregationCacheTableInfo.create(localNode))
         );
     }
 
@@ -0,0 +1,66 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.metadata.sys;
+
+import static io.crate.types.DataTypes.INTEGER;
+import static io.crate.types.DataTypes.LONG;
+import static io.crate.types.DataTypes.STRING;
+import static io.crate.types.DataTypes.TIMESTAMPZ;
+
+import java.util.function.Supplier;
+
+import org.elasticsearch.cluster.node.DiscoveryNode;
+
+import io.crate.metadata.IndexName;
+import io.crate.metadata.RelationName;
+import io.crate.metadata.Routing;
+import io.crate.metadata.SystemTable;
+import io.crate.statistics.ShardSampleCache.ShardSampleStats;
+
+public final class SysShardSamplesTableInfo {
+
+    public static final RelationName IDENT = new RelationName(SysSchemaInfo.NAME, "shard_samples");
+
+    private SysShardSamplesTableInfo() {}
+
+    public static SystemTable<ShardSampleStats> create(Supplier<DiscoveryNode> localNode) {
+        return SystemTable.<ShardSampleStats>builder(IDENT)
+            .add("table_schema", STRING, r -> IndexName.decode(r.shardId().getIndexName()).schema())
+            .add("table_name", STRING, r -> IndexName.decode(r.shardId().getIndexName()).table())
+            .add("partition_ident", STRING, r -> IndexName.decode(r.shardId().getIndexName()).partitionIdent())
+            .add("shard_id", INTEGER, r -> r.shardId().id())
+            .startObject("node")
+                .add("id", STRING, ignored -> localNode.get().getId())
+                .add("name", STRING, ignored -> localNode.get().getName())
+            .endObject()
+            .add("state", STRING, r -> r.state().name())
+            .add("num_docs", LONG, ShardSampleStats::numDocs)
+            .add("num_samples", INTEGER, ShardSampleStats::numSamples)
+            .add("modifications", LONG, ShardSampleStats::modifications)
+            .add("size", LONG, ShardSampleStats::sizeInBytes)
+            .add("last_sampled", TIMESTAMPZ, ShardSampleStats::sampledAt)
+            .add("sample_duration", LONG, ShardSampleStats::durationMs)
+            .add("num_reused", LONG, ShardSampleStats::numReused)
+            .withRouting((state, routingProvider, sessionSettings) -> Routing.forTableOnAllNodes(IDENT, state.nodes()))
+            .build();
+    }
+}
@@ -24,6 +24,7 @@ package io.crate.metadata.sys;
 import static java.util.concurrent.CompletableFuture.completedFuture;
 
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Supplier;
@@ -36,6 +37,7 @@ import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.repositories.RepositoriesService;
 
 import io.crate.session.Sessions;
+import io.crate.execution.engine.collect.ShardAggregationCache;
 import io.crate.execution.engine.collect.files.SummitsIterable;
 import io.crate.execution.engine.collect.stats.JobsLogs;
 import io.crate.expression.reference.StaticTableDefinition;
@@ -47,6 +49,7 @@ import io.crate.expression.reference.sys.shard.SysAllocations;
 import io.crate.expression.reference.sys.snapshot.SysSnapshots;
 import io.crate.metadata.RelationName;
 import io.crate.metadata.SystemTable;
+import io.crate.planner.Planner;
 import io.crate.role.Permission;
 import io.crate.role.Role;
 import io.crate.role.Roles;
@@ -54,6 +57,7 @@ import io.crate.role.Securable;
 import io.crate.role.metadata.SysPrivilegesTableInfo;
 import io.crate.role.metadata.SysRolesTableInfo;
 import io.crate.role.metadata.SysUsersTableInfo;
+import io.crate.statistics.ShardSampleCache;
 
 public class SysTableDefinitions {
 
@@ -70,7 +74,10 @@ public class SysTableDefinitions {
                                SysSnapshots sysSnapshots,
                                SysAllocations sysAllocations,
                                ShardSegments shardSegmentInfos,
-                               Sessions sessions) {
+                               Sessions sessions,
+                               Planner planner,
+                               ShardSampleCache shardSampleCache,
+                               ShardAggregationCache aggregationCache) {
         Supplier<DiscoveryNode> localNode = clusterService::localNode;
         var sysClusterTableInfo = (SystemTable<Void>) sysSchemaInfo.getTableInfo(SysClusterTableInfo.IDENT.name());
         assert sysClusterTableInfo != null : "sys.cluster table must exist in sys schema";
@@ -234,6 +241,34 @@ public class SysTableDefinitions {
                         .toList()),
                     SysSessionsTableInfo.create(clusterService::localNode).expressions(),
                     false)
+            ),
+            Map.entry(
+                SysPlanCacheTableInfo.IDENT,
+                new StaticTableDefinition<>(
+                    () -> completedFuture(List.of(planner.planCache())),
+                    SysPlanCacheTableInfo.create(localNode).expressions(),
+                    false)
+            ),
+            Map.entry(
+                SysResourceGroupsTableInfo.IDENT,
+                new StaticTableDefinition<>(
+                    () -> completedFuture(sessions.resourceGroups().groups()),
+                    SysResourceGroupsTableInfo.create(localNode).expressions(),
+                    false)
+            ),
+            Map.entry(
+                SysShardSamplesTableInfo.IDENT,
+                new StaticTableDefinition<>(
+                    () -> completedFuture(shardSampleCache.stats()),
+                    SysShardSamplesTableInfo.create(localNode).expressions(),
+                    false)
+            ),
+            Map.entry(
+                SysAggregationCacheTableInfo.IDENT,
+                new StaticTableDefinition<>(
+                    () -> completedFuture(List.of(aggregationCache)),
+                    SysAggregationCacheTableInfo.create(localNode).expressions(),
+                    false)
             )
         );
     }
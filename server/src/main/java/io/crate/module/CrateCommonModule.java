@@ -23,6 +23,7 @@ package io.crate.module;
 
 import org.elasticsearch.common.inject.AbstractModule;
 
+import io.crate.execution.engine.spill.SpillService;
 import io.crate.memory.MemoryManagerFactory;
 import io.crate.metadata.DanglingArtifactsService;
 import io.crate.metadata.FulltextAnalyzerResolver;
@@ -39,6 +40,7 @@ public class CrateCommonModule extends AbstractModule {
         bind(PostgresNetty.class).asEagerSingleton();
         bind(TableStatsService.class).asEagerSingleton();
         bind(MemoryManagerFactory.class).asEagerSingleton();
+        bind(SpillService.class).asEagerSingleton();
         bind(DanglingArtifactsService.class).asEagerSingleton();
         bind(PublisherRestoreService.class).asEagerSingleton();
         bind(ShardReplicationService.class).asEagerSingleton();
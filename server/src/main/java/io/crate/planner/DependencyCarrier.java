@@ -43,6 +43,7 @@ import io.crate.execution.ddl.views.TransportCreateViewAction;
 import io.crate.execution.ddl.views.TransportDropViewAction;
 import io.crate.execution.dsl.projection.builder.ProjectionBuilder;
 import io.crate.execution.engine.PhasesTaskFactory;
+import io.crate.execution.engine.collect.files.StdStreams;
 import io.crate.execution.jobs.NodeLimits;
 import io.crate.expression.udf.TransportCreateUserDefinedFunctionAction;
 import io.crate.expression.udf.TransportDropUserDefinedFunctionAction;
@@ -89,6 +90,7 @@ public class DependencyCarrier {
     private final TransportCreateSubscriptionAction createSubscriptionAction;
     private final LogicalReplicationService logicalReplicationService;
     private final ElasticsearchClient client;
+    private final StdStreams stdStreams;
     private CircuitBreakerService circuitBreakerService;
 
     @Inject
@@ -116,7 +118,8 @@ public class DependencyCarrier {
                              TransportDropPublicationAction dropPublicationAction,
                              TransportAlterPublicationAction alterPublicationAction,
                              TransportCreateSubscriptionAction createSubscriptionAction,
-                             LogicalReplicationService logicalReplicationService) {
+                             LogicalReplicationService logicalReplicationService,
+                             StdStreams stdStreams) {
         this.settings = settings;
         this.client = node.client();
         this.phasesTaskFactory = phasesTaskFactory;
@@ -144,6 +147,7 @@ public class DependencyCarrier {
         this.alterPublicationAction = alterPublicationAction;
         this.createSubscriptionAction = createSubscriptionAction;
         this.logicalReplicationService = logicalReplicationService;
+        this.stdStreams = stdStreams;
     }
 
     public Schemas schemas() {
@@ -261,4 +265,8 @@ public class DependencyCarrier {
     public CircuitBreaker circuitBreaker(String name) {
         return circuitBreakerService.getBreaker(name);
     }
+
+    public StdStreams stdStreams() {
+        return stdStreams;
+    }
 }
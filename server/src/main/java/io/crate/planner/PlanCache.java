@@ -0,0 +1,185 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.planner;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
+import org.jetbrains.annotations.Nullable;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.crate.analyze.AnalyzedInsertStatement;
+import io.crate.analyze.AnalyzedStatement;
+import io.crate.analyze.Relations;
+import io.crate.analyze.relations.AnalyzedRelation;
+import io.crate.expression.symbol.SelectSymbol;
+import io.crate.expression.symbol.Symbol;
+import io.crate.metadata.SearchPath;
+import io.crate.metadata.settings.CoordinatorSessionSettings;
+import io.crate.planner.optimizer.Rule;
+import io.crate.sql.tree.Statement;
+import io.crate.types.DataType;
+
+/**
+ * Caches the plans of SELECT and INSERT statements which are executed repeatedly, e.g. prepared statements
+ * with different parameters.
+ * <p>
+ * Plans are keyed by the parsed statement, the parameter types and the session settings which influence analysis
+ * and planning. A cached plan is only re-used if neither the cluster metadata nor the table statistics changed
+ * since it was created.
+ * <p>
+ * Statements with non-deterministic functions (e.g. {@code CURRENT_TIMESTAMP}, which may get normalized to a
+ * literal during planning) or sub-queries are not cached.
+ */
+public final class PlanCache {
+
+    public static final Setting<Integer> PLAN_CACHE_SIZE_SETTING = Setting.intSetting(
+        "plan_cache.size",
+        500,
+        0,
+        Property.NodeScope,
+        Property.Dynamic,
+        Property.Exposed
+    );
+
+    record Key(Statement statement,
+               List<DataType<?>> parameterTypes,
+               String userName,
+               SearchPath searchPath,
+               boolean hashJoinsEnabled,
+               boolean errorOnUnknownObjectKey,
+               Set<Class<? extends Rule<?>>> excludedOptimizerRules) {
+    }
+
+    private record Entry(Plan plan, long metadataVersion, long statsVersion) {
+    }
+
+    private final Cache<Key, Entry> cache;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private volatile int maxSize;
+
+    public PlanCache(ClusterSettings clusterSettings) {
+        this.maxSize = clusterSettings.get(PLAN_CACHE_SIZE_SETTING);
+        this.cache = Caffeine.newBuilder()
+            .executor(Runnable::run)
+            .maximumSize(maxSize)
+            .build();
+        clusterSettings.addSettingsUpdateConsumer(PLAN_CACHE_SIZE_SETTING, this::setMaxSize);
+    }
+
+    private void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+        cache.policy().eviction().ifPresent(eviction -> eviction.setMaximum(maxSize));
+    }
+
+    /**
+     * Returns the cached plan for the statement or creates a new plan using {@code planner} and caches it.
+     *
+     * @param statement the parsed statement, if null the plan is never cached.
+     */
+    public Plan getOrPlan(@Nullable Statement statement,
+                          List<DataType<?>> parameterTypes,
+                          AnalyzedStatement analyzedStatement,
+                          CoordinatorSessionSettings sessionSettings,
+                          long metadataVersion,
+                          long statsVersion,
+                          Supplier<Plan> planner) {
+        if (maxSize == 0 || statement == null || isCacheable(analyzedStatement) == false) {
+            return planner.get();
+        }
+        Key key = new Key(
+            statement,
+            parameterTypes,
+            sessionSettings.userName(),
+            sessionSettings.searchPath(),
+            sessionSettings.hashJoinsEnabled(),
+            sessionSettings.errorOnUnknownObjectKey(),
+            Set.copyOf(sessionSettings.excludedOptimizerRules())
+        );
+        Entry entry = cache.getIfPresent(key);
+        if (entry != null) {
+            if (entry.metadataVersion == metadataVersion && entry.statsVersion == statsVersion) {
+                hits.increment();
+                return entry.plan;
+            }
+            invalidations.increment();
+        }
+        misses.increment();
+        Plan plan = planner.get();
+        cache.put(key, new Entry(plan, metadataVersion, statsVersion));
+        return plan;
+    }
+
+    static boolean isCacheable(AnalyzedStatement statement) {
+        if (!(statement instanceof AnalyzedRelation || statement instanceof AnalyzedInsertStatement)) {
+            return false;
+        }
+        boolean[] cacheable = new boolean[] { true };
+        Relations.traverseDeepSymbols(statement, symbol -> {
+            if (cacheable[0] && symbol.any(PlanCache::preventsCaching)) {
+                cacheable[0] = false;
+            }
+        });
+        return cacheable[0];
+    }
+
+    private static boolean preventsCaching(Symbol symbol) {
+        return symbol instanceof SelectSymbol || symbol.isDeterministic() == false;
+    }
+
+    public void clear() {
+        cache.invalidateAll();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    public int maxSize() {
+        return maxSize;
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    /**
+     * Number of cached plans which were discarded because the metadata or table statistics changed
+     */
+    public long invalidations() {
+        return invalidations.sum();
+    }
+}
@@ -166,7 +166,9 @@ import io.crate.replication.logical.plan.DropSubscriptionPlan;
 import io.crate.role.RoleManager;
 import io.crate.session.Cursors;
 import io.crate.sql.tree.SetSessionAuthorizationStatement;
+import io.crate.sql.tree.Statement;
 import io.crate.statistics.TableStats;
+import io.crate.types.DataType;
 
 @Singleton
 public class Planner extends AnalyzedStatementVisitor<PlannerContext, Plan> {
@@ -182,6 +184,7 @@ public class Planner extends AnalyzedStatementVisitor<PlannerContext, Plan> {
     private final ForeignDataWrappers foreignDataWrappers;
     private final SessionSettingRegistry sessionSettingRegistry;
     private final NodeContext nodeCtx;
+    private final PlanCache planCache;
 
     private List<String> awarenessAttributes;
 
@@ -208,6 +211,7 @@ public class Planner extends AnalyzedStatementVisitor<PlannerContext, Plan> {
         this.roleManager = roleManager;
         this.foreignDataWrappers = foreignDataWrappers;
         this.sessionSettingRegistry = sessionSettingRegistry;
+        this.planCache = new PlanCache(clusterService.getClusterSettings());
         initAwarenessAttributes(settings);
     }
 
@@ -263,6 +267,31 @@ public class Planner extends AnalyzedStatementVisitor<PlannerContext, Plan> {
         return analyzedStatement.accept(this, plannerContext);
     }
 
+    /**
+     * Like {@link #plan(AnalyzedStatement, PlannerContext)} but re-uses the plan of a previous execution of the
+     * same statement if possible. See {@link PlanCache}
+     *
+     * @param statement the parsed statement used as cache key.
+     */
+    public Plan plan(@Nullable Statement statement,
+                     List<DataType<?>> parameterTypes,
+                     AnalyzedStatement analyzedStatement,
+                     PlannerContext plannerContext) {
+        return planCache.getOrPlan(
+            statement,
+            parameterTypes,
+            analyzedStatement,
+            plannerContext.transactionContext().sessionSettings(),
+            plannerContext.clusterState().metadata().version(),
+            tableStats.version(),
+            () -> plan(analyzedStatement, plannerContext)
+        );
+    }
+
+    public PlanCache planCache() {
+        return planCache;
+    }
+
     @Override
     protected Plan visitAnalyzedStatement(AnalyzedStatement analyzedStatement, PlannerContext context) {
         throw new UnsupportedOperationException(String.format(Locale.ENGLISH,
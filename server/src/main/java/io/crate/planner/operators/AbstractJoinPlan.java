@@ -86,9 +86,16 @@ public abstract class AbstractJoinPlan implements LogicalPlan {
         return lookupJoin;
     }
 
+    /**
+     * Semi and anti joins only output the rows of the left side
+     */
+    public boolean isSemiOrAntiJoin() {
+        return joinType == JoinType.SEMI || joinType == JoinType.ANTI;
+    }
+
     @Override
     public List<Symbol> outputs() {
-        if (joinType == JoinType.SEMI) {
+        if (isSemiOrAntiJoin()) {
             return lhs.outputs();
         } else {
             return Lists.concat(lhs.outputs(), rhs.outputs());
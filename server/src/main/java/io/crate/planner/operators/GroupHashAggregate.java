@@ -49,6 +49,7 @@ import io.crate.expression.symbol.Function;
 import io.crate.expression.symbol.ScopedSymbol;
 import io.crate.expression.symbol.Symbol;
 import io.crate.expression.symbol.Symbols;
+import io.crate.metadata.ColumnIdent;
 import io.crate.metadata.Reference;
 import io.crate.metadata.RowGranularity;
 import io.crate.metadata.doc.DocTableInfo;
@@ -58,6 +59,7 @@ import io.crate.planner.Merge;
 import io.crate.planner.PlannerContext;
 import io.crate.planner.distribution.DistributionInfo;
 import io.crate.planner.node.dql.GroupByConsumer;
+import io.crate.statistics.ColumnGroupStats;
 import io.crate.statistics.ColumnStats;
 import io.crate.statistics.Stats;
 
@@ -71,6 +73,11 @@ public class GroupHashAggregate extends ForwardingLogicalPlan {
 
     public static long approximateDistinctValues(Stats stats, List<Symbol> groupKeys) {
         long numSourceRows = stats.numDocs();
+        ColumnGroupStats groupStats = columnGroupStats(stats, groupKeys);
+        if (groupStats != null) {
+            double cardinalityRatio = groupStats.approxDistinct() / stats.numDocs();
+            return Math.min((long) (numSourceRows * cardinalityRatio), numSourceRows);
+        }
         long distinctValues = 1;
         int numKeysWithStats = 0;
         for (Symbol groupKey : groupKeys) {
@@ -107,6 +114,32 @@ public class GroupHashAggregate extends ForwardingLogicalPlan {
         }
     }
 
+    /**
+     * @return the stats of the column group matching the group keys, if there is any
+     */
+    @Nullable
+    private static ColumnGroupStats columnGroupStats(Stats stats, List<Symbol> groupKeys) {
+        if (groupKeys.size() < 2 || stats.columnGroupStats().isEmpty()) {
+            return null;
+        }
+        Set<ColumnIdent> columns = new HashSet<>();
+        for (Symbol groupKey : groupKeys) {
+            switch (groupKey) {
+                case Reference ref -> columns.add(ref.column());
+                case ScopedSymbol scopedSymbol -> columns.add(scopedSymbol.column());
+                default -> {
+                    return null;
+                }
+            }
+        }
+        for (ColumnGroupStats groupStats : stats.columnGroupStats()) {
+            if (groupStats.columns().size() == columns.size() && columns.containsAll(groupStats.columns())) {
+                return groupStats;
+            }
+        }
+        return null;
+    }
+
     public GroupHashAggregate(LogicalPlan source, List<Symbol> groupKeys, List<Function> aggregates) {
         super(source);
         this.aggregates = List.copyOf(new LinkedHashSet<>(aggregates));
@@ -33,21 +33,26 @@ import java.util.List;
 import java.util.SequencedCollection;
 import java.util.Set;
 
+import org.elasticsearch.Version;
 import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.VisibleForTesting;
 
 import io.crate.analyze.OrderBy;
+import io.crate.analyze.relations.DocTableRelation;
 import io.crate.analyze.relations.QuerySplitter;
 import io.crate.common.collections.Lists;
 import io.crate.data.Row;
 import io.crate.execution.dsl.phases.HashJoinPhase;
 import io.crate.execution.dsl.phases.MergePhase;
+import io.crate.execution.dsl.phases.RoutedCollectPhase;
+import io.crate.execution.dsl.phases.RuntimeFilterTarget;
 import io.crate.execution.dsl.projection.EvalProjection;
 import io.crate.execution.dsl.projection.builder.InputColumns;
 import io.crate.execution.dsl.projection.builder.ProjectionBuilder;
 import io.crate.expression.symbol.Symbol;
 import io.crate.expression.symbol.Symbols;
 import io.crate.metadata.RelationName;
+import io.crate.metadata.RowGranularity;
 import io.crate.planner.DependencyCarrier;
 import io.crate.planner.ExecutionPlan;
 import io.crate.planner.PlannerContext;
@@ -56,6 +61,7 @@ import io.crate.planner.distribution.DistributionInfo;
 import io.crate.planner.distribution.DistributionType;
 import io.crate.planner.node.dql.join.Join;
 import io.crate.sql.tree.JoinType;
+import io.crate.types.DataTypes;
 
 public class HashJoin extends AbstractJoinPlan {
 
@@ -99,6 +105,8 @@ public class HashJoin extends AbstractJoinPlan {
         ResultDescription leftResultDesc = leftExecutionPlan.resultDescription();
         ResultDescription rightResultDesc = rightExecutionPlan.resultDescription();
         Collection<String> joinExecutionNodes = leftResultDesc.nodeIds();
+        // Must be resolved before projections for the distribution are added to the right side
+        RuntimeFilterTarget runtimeFilterTarget = runtimeFilterTarget(plannerContext, rightExecutionPlan, rhsHashSymbols);
 
         List<Symbol> leftOutputs = lhs.outputs();
         List<Symbol> rightOutputs = rhs.outputs();
@@ -158,8 +166,10 @@ public class HashJoin extends AbstractJoinPlan {
             InputColumns.create(lhsHashSymbols, new InputColumns.SourceSymbols(leftOutputs)),
             InputColumns.create(rhsHashSymbols, new InputColumns.SourceSymbols(rightOutputs)),
             Symbols.typeView(leftOutputs),
+            Symbols.typeView(rightOutputs),
             lhStats.estimateSizeForColumns(leftOutputs),
-            joinType
+            joinType,
+            runtimeFilterTarget
         );
         return new Join(
             joinPhase,
@@ -229,13 +239,16 @@ public class HashJoin extends AbstractJoinPlan {
         Symbols.intersection(joinCondition, lhs.outputs(), usedFromLeft::add);
         Symbols.intersection(joinCondition, rhs.outputs(), usedFromRight::add);
         FetchRewrite lhsFetchRewrite = lhs.rewriteToFetch(usedFromLeft);
-        FetchRewrite rhsFetchRewrite = rhs.rewriteToFetch(usedFromRight);
+        // The right side of semi and anti joins is only used for the join condition
+        FetchRewrite rhsFetchRewrite = isSemiOrAntiJoin() ? null : rhs.rewriteToFetch(usedFromRight);
         if (lhsFetchRewrite == null && rhsFetchRewrite == null) {
             return null;
         }
         LinkedHashMap<Symbol, Symbol> allReplacedOutputs = new LinkedHashMap<>();
         NestedLoopJoin.setReplacedOutputs(lhs, lhsFetchRewrite, allReplacedOutputs);
-        NestedLoopJoin.setReplacedOutputs(rhs, rhsFetchRewrite, allReplacedOutputs);
+        if (!isSemiOrAntiJoin()) {
+            NestedLoopJoin.setReplacedOutputs(rhs, rhsFetchRewrite, allReplacedOutputs);
+        }
         return new FetchRewrite(
             allReplacedOutputs,
             new HashJoin(
@@ -268,6 +281,44 @@ public class HashJoin extends AbstractJoinPlan {
         );
     }
 
+    /**
+     * The right side can be filtered by the join keys of the left side while it is collected,
+     * if it is a plain collect from a table which outputs the join keys. Rows dropped by the
+     * filter can't have a join partner, and the right side is never the preserved side of a
+     * hash join, so this is correct for inner and left joins.
+     */
+    @Nullable
+    private RuntimeFilterTarget runtimeFilterTarget(PlannerContext plannerContext,
+                                                    ExecutionPlan rightExecutionPlan,
+                                                    List<Symbol> rhsHashSymbols) {
+        if (plannerContext.clusterState().nodes().getMinNodeVersion().before(Version.V_5_10_0)) {
+            return null;
+        }
+        if (!(rhs instanceof Collect collect)
+            || !(collect.relation() instanceof DocTableRelation)
+            || !(rightExecutionPlan instanceof io.crate.planner.node.dql.Collect collectPlan)
+            || !(collectPlan.collectPhase() instanceof RoutedCollectPhase collectPhase)
+            || collectPhase.maxRowGranularity() != RowGranularity.DOC
+            || !collectPhase.projections().isEmpty()
+            || collectPhase.nodeIds().isEmpty()
+            || collectPlan.resultDescription().hasRemainingLimitOrOffset()) {
+            return null;
+        }
+        List<Symbol> outputs = rhs.outputs();
+        if (collectPhase.toCollect().size() != outputs.size()) {
+            return null;
+        }
+        List<Integer> keyPositions = new ArrayList<>(rhsHashSymbols.size());
+        for (Symbol key : rhsHashSymbols) {
+            int position = outputs.indexOf(key);
+            if (position < 0 || !DataTypes.isPrimitive(key.valueType())) {
+                return null;
+            }
+            keyPositions.add(position);
+        }
+        return new RuntimeFilterTarget(collectPhase.phaseId(), List.copyOf(collectPhase.nodeIds()), keyPositions);
+    }
+
     private List<Symbol> setModuloDistribution(List<Symbol> joinSymbols,
                                                List<Symbol> planOutputs,
                                                ExecutionPlan executionPlan) {
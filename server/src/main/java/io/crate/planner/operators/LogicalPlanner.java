@@ -117,6 +117,7 @@ import io.crate.planner.optimizer.rule.OptimizeCollectWhereClauseAccess;
 import io.crate.planner.optimizer.rule.RemoveOrderBeneathInsert;
 import io.crate.planner.optimizer.rule.RemoveRedundantEval;
 import io.crate.planner.optimizer.rule.ReorderHashJoin;
+import io.crate.planner.optimizer.rule.ReorderJoins;
 import io.crate.planner.optimizer.rule.ReorderNestedLoopJoin;
 import io.crate.planner.optimizer.rule.RewriteFilterOnOuterJoinToInnerJoin;
 import io.crate.planner.optimizer.rule.RewriteGroupByKeysLimitToLimitDistinct;
@@ -170,6 +171,7 @@ public class LogicalPlanner {
         new RewriteGroupByKeysLimitToLimitDistinct(),
         new MoveConstantJoinConditionsBeneathJoin(),
         new EliminateCrossJoin(),
+        new ReorderJoins(),
         new EquiJoinToLookupJoin(),
         new RewriteLeftOuterJoinToHashJoin(),
         new RewriteRightOuterJoinToHashJoin(),
@@ -452,9 +454,10 @@ public class LogicalPlanner {
         public LogicalPlan visitQueriedSelectRelation(QueriedSelectRelation relation, List<Symbol> outputs) {
             SplitPoints splitPoints = SplitPointsBuilder.create(relation);
             SubQueries subQueries = subqueryPlanner.planSubQueries(relation);
+            SemiJoins semiJoins = SemiJoins.extract(relation, subQueries, planStats, clusterState, coordinatorTxnCtx);
             LogicalPlan source = JoinPlanBuilder.buildJoinTree(
                 relation.from(),
-                relation.where(),
+                semiJoins.where(),
                 relation.joinPairs(),
                 subQueries,
                 rel -> {
@@ -489,6 +492,7 @@ public class LogicalPlanner {
                     }
                 }
             );
+            source = semiJoins.apply(source, rel -> rel.accept(this, rel.outputs()));
             Symbol having = relation.having();
             if (having != null && having.any(Symbol.IS_CORRELATED_SUBQUERY)) {
                 throw new UnsupportedOperationException("Cannot use correlated subquery in HAVING clause");
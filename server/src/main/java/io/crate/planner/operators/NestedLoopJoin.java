@@ -268,13 +268,16 @@ public class NestedLoopJoin extends AbstractJoinPlan {
             Symbols.intersection(joinCondition, rhs.outputs(), usedFromRight::add);
         }
         FetchRewrite lhsFetchRewrite = lhs.rewriteToFetch(usedFromLeft);
-        FetchRewrite rhsFetchRewrite = rhs.rewriteToFetch(usedFromRight);
+        // The right side of semi and anti joins is only used for the join condition
+        FetchRewrite rhsFetchRewrite = isSemiOrAntiJoin() ? null : rhs.rewriteToFetch(usedFromRight);
         if (lhsFetchRewrite == null && rhsFetchRewrite == null) {
             return null;
         }
         LinkedHashMap<Symbol, Symbol> allReplacedOutputs = new LinkedHashMap<>();
         setReplacedOutputs(lhs, lhsFetchRewrite, allReplacedOutputs);
-        setReplacedOutputs(rhs, rhsFetchRewrite, allReplacedOutputs);
+        if (!isSemiOrAntiJoin()) {
+            setReplacedOutputs(rhs, rhsFetchRewrite, allReplacedOutputs);
+        }
         return new FetchRewrite(
             allReplacedOutputs,
             new NestedLoopJoin(
@@ -0,0 +1,340 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.planner.operators;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.elasticsearch.Version;
+import org.elasticsearch.cluster.ClusterState;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.VisibleForTesting;
+
+import io.crate.analyze.QueriedSelectRelation;
+import io.crate.analyze.relations.AliasedAnalyzedRelation;
+import io.crate.analyze.relations.AnalyzedRelation;
+import io.crate.expression.operator.AndOperator;
+import io.crate.expression.operator.EqOperator;
+import io.crate.expression.operator.ExistsOperator;
+import io.crate.expression.operator.any.AnyEqOperator;
+import io.crate.expression.predicate.NotPredicate;
+import io.crate.expression.symbol.Function;
+import io.crate.expression.symbol.OuterColumn;
+import io.crate.expression.symbol.SelectSymbol;
+import io.crate.expression.symbol.Symbol;
+import io.crate.metadata.CoordinatorTxnCtx;
+import io.crate.metadata.FunctionType;
+import io.crate.metadata.RelationName;
+import io.crate.planner.SubqueryPlanner.SubQueries;
+import io.crate.planner.optimizer.costs.PlanStats;
+import io.crate.sql.tree.JoinType;
+
+/**
+ * Rewrites sub-queries in the WHERE clause of a relation to semi and anti joins:
+ *
+ * <pre>
+ *     x IN (SELECT y FROM t2)                          ->  SEMI JOIN t2 ON x = y
+ *     EXISTS (SELECT 1 FROM t2 WHERE t2.y = t1.x)      ->  SEMI JOIN t2 ON t1.x = t2.y
+ *     NOT EXISTS (SELECT 1 FROM t2 WHERE t2.y = t1.x)  ->  ANTI JOIN t2 ON t1.x = t2.y
+ * </pre>
+ *
+ * <p>
+ * Uncorrelated sub-queries are otherwise evaluated up-front and bound as literal array,
+ * so they are only rewritten if they are estimated to return more than
+ * {@link #MIN_ROWS_FOR_IN_SUBQUERY} rows. Below that, a terms query using the index of
+ * {@code x} is cheaper than a join.
+ * </p>
+ *
+ * <p>
+ * Correlated EXISTS sub-queries are otherwise executed once per row of the outer relation
+ * via a {@link CorrelatedJoin}. They are rewritten if the correlation consists only of
+ * equality conditions in the WHERE clause of the sub-query.
+ * </p>
+ *
+ * <p>
+ * {@code NOT IN} is not rewritten, because it evaluates to NULL instead of TRUE if the
+ * sub-query returns NULL values.
+ * </p>
+ */
+final class SemiJoins {
+
+    @VisibleForTesting
+    static final long MIN_ROWS_FOR_IN_SUBQUERY = 10_000;
+
+    private static final String ALIAS_PREFIX = "_subquery_";
+
+    private record SemiJoin(AliasedAnalyzedRelation relation, JoinType joinType, Symbol joinCondition) {
+    }
+
+    private final Symbol where;
+    private final List<SemiJoin> semiJoins;
+
+    private SemiJoins(Symbol where, List<SemiJoin> semiJoins) {
+        this.where = where;
+        this.semiJoins = semiJoins;
+    }
+
+    /**
+     * Extracts the sub-queries of the WHERE clause of the relation which can be executed as semi or
+     * anti join. The sub-queries are removed from {@code subQueries}.
+     */
+    static SemiJoins extract(QueriedSelectRelation relation,
+                             SubQueries subQueries,
+                             PlanStats planStats,
+                             ClusterState clusterState,
+                             CoordinatorTxnCtx txnCtx) {
+        if (!txnCtx.sessionSettings().hashJoinsEnabled()
+            || clusterState.nodes().getMinNodeVersion().before(Version.V_5_10_0)
+            || !relation.where().any(s -> s instanceof SelectSymbol)) {
+            return new SemiJoins(relation.where(), List.of());
+        }
+        Set<RelationName> usedNames = new HashSet<>();
+        for (AnalyzedRelation rel : relation.from()) {
+            usedNames.add(rel.relationName());
+        }
+        List<Symbol> remainder = new ArrayList<>();
+        List<SemiJoin> semiJoins = new ArrayList<>();
+        for (Symbol part : AndOperator.split(relation.where())) {
+            SemiJoin semiJoin = null;
+            if (part instanceof Function fn) {
+                semiJoin = switch (fn.name()) {
+                    case ExistsOperator.NAME -> fromExists(relation, fn, JoinType.SEMI, usedNames, subQueries);
+                    case NotPredicate.NAME -> fn.arguments().getFirst() instanceof Function exists
+                            && exists.name().equals(ExistsOperator.NAME)
+                        ? fromExists(relation, exists, JoinType.ANTI, usedNames, subQueries)
+                        : null;
+                    default -> fn.name().equals(AnyEqOperator.NAME)
+                        ? fromAnyEq(relation, fn, usedNames, subQueries, planStats)
+                        : null;
+                };
+            }
+            if (semiJoin == null) {
+                remainder.add(part);
+            } else {
+                semiJoins.add(semiJoin);
+            }
+        }
+        if (semiJoins.isEmpty()) {
+            return new SemiJoins(relation.where(), List.of());
+        }
+        return new SemiJoins(AndOperator.join(remainder), semiJoins);
+    }
+
+    /**
+     * @return the WHERE clause without the parts which are applied as semi or anti join
+     */
+    Symbol where() {
+        return where;
+    }
+
+    /**
+     * Joins the source with the extracted sub-queries.
+     * The outputs of the result are the outputs of the source.
+     */
+    LogicalPlan apply(LogicalPlan source, java.util.function.Function<AnalyzedRelation, LogicalPlan> plan) {
+        for (SemiJoin semiJoin : semiJoins) {
+            source = new JoinPlan(
+                source,
+                plan.apply(semiJoin.relation),
+                semiJoin.joinType,
+                semiJoin.joinCondition,
+                false,
+                false,
+                false,
+                AbstractJoinPlan.LookUpJoin.NONE
+            );
+        }
+        return source;
+    }
+
+    /**
+     * {@code x = ANY(SELECT y FROM ...)} to {@code SEMI JOIN (SELECT y FROM ...) AS s ON x = s.y}
+     */
+    @Nullable
+    private static SemiJoin fromAnyEq(QueriedSelectRelation relation,
+                                      Function anyEq,
+                                      Set<RelationName> usedNames,
+                                      SubQueries subQueries,
+                                      PlanStats planStats) {
+        Symbol probe = anyEq.arguments().get(0);
+        if (!(anyEq.arguments().get(1) instanceof SelectSymbol subQuery)
+            || subQuery.isCorrelated()
+            || subQuery.getResultType() != SelectSymbol.ResultType.SINGLE_COLUMN_MULTIPLE_VALUES
+            || !probe.any(Symbol.IS_COLUMN)
+            || probe.any(s -> s instanceof SelectSymbol || s instanceof OuterColumn)
+            || !probe.valueType().equals(subQuery.innerType())
+            || numOccurrences(relation, subQuery) != 1) {
+            return null;
+        }
+        LogicalPlan subQueryPlan = null;
+        for (Map.Entry<LogicalPlan, SelectSymbol> entry : subQueries.uncorrelated().entrySet()) {
+            if (entry.getValue() == subQuery) {
+                subQueryPlan = entry.getKey();
+            }
+        }
+        if (subQueryPlan == null) {
+            return null;
+        }
+        long numRows = planStats.get(subQueryPlan).numDocs();
+        if (numRows < MIN_ROWS_FOR_IN_SUBQUERY) {
+            // Also covers unknown stats (-1)
+            return null;
+        }
+        subQueries.uncorrelated().remove(subQueryPlan);
+        AliasedAnalyzedRelation aliased = new AliasedAnalyzedRelation(subQuery.relation(), newAlias(usedNames));
+        return new SemiJoin(aliased, JoinType.SEMI, EqOperator.of(probe, aliased.outputs().getFirst()));
+    }
+
+    /**
+     * {@code EXISTS (SELECT ... FROM t2 WHERE t2.y = t1.x AND <uncorrelated>)} to
+     * {@code SEMI JOIN (SELECT t2.y FROM t2 WHERE <uncorrelated>) AS s ON t1.x = s.y}
+     */
+    @Nullable
+    private static SemiJoin fromExists(QueriedSelectRelation relation,
+                                       Function exists,
+                                       JoinType joinType,
+                                       Set<RelationName> usedNames,
+                                       SubQueries subQueries) {
+        if (!(exists.arguments().getFirst() instanceof SelectSymbol subQuery)
+            || !subQuery.isCorrelated()
+            || !(subQuery.relation() instanceof QueriedSelectRelation inner)
+            || !inner.groupBy().isEmpty()
+            || inner.having() != null
+            || inner.limit() != null
+            || inner.offset() != null
+            || numOccurrences(relation, subQuery) != 1) {
+            return null;
+        }
+        for (Symbol output : inner.outputs()) {
+            if (output.hasFunctionType(FunctionType.AGGREGATE)
+                || output.hasFunctionType(FunctionType.TABLE)
+                || output.hasFunctionType(FunctionType.WINDOW)) {
+                return null;
+            }
+        }
+        for (var joinPair : inner.joinPairs()) {
+            Symbol condition = joinPair.condition();
+            if (condition != null && condition.any(s -> s instanceof OuterColumn)) {
+                return null;
+            }
+        }
+        boolean[] hasNestedCorrelation = new boolean[] { false };
+        inner.visitSymbols(tree -> hasNestedCorrelation[0] |= tree.any(Symbol.IS_CORRELATED_SUBQUERY));
+        if (hasNestedCorrelation[0]) {
+            return null;
+        }
+
+        List<Symbol> outerKeys = new ArrayList<>();
+        List<Symbol> innerKeys = new ArrayList<>();
+        List<Symbol> remainder = new ArrayList<>();
+        for (Symbol part : AndOperator.split(inner.where())) {
+            if (!part.any(s -> s instanceof OuterColumn)) {
+                remainder.add(part);
+                continue;
+            }
+            if (!(part instanceof Function eq)
+                || !eq.name().equals(EqOperator.NAME)) {
+                return null;
+            }
+            Symbol lhs = eq.arguments().get(0);
+            Symbol rhs = eq.arguments().get(1);
+            OuterColumn outerColumn;
+            Symbol innerKey;
+            if (lhs instanceof OuterColumn column) {
+                outerColumn = column;
+                innerKey = rhs;
+            } else if (rhs instanceof OuterColumn column) {
+                outerColumn = column;
+                innerKey = lhs;
+            } else {
+                return null;
+            }
+            if (!relation.from().contains(outerColumn.relation())
+                || innerKey.any(s -> s instanceof OuterColumn)
+                || !innerKey.any(Symbol.IS_COLUMN)
+                || !innerKey.valueType().equals(outerColumn.valueType())) {
+                // The correlation must refer to a relation of this query, not of a parent query
+                return null;
+            }
+            for (Symbol key : innerKeys) {
+                if (!key.equals(innerKey) && key.toColumn().equals(innerKey.toColumn())) {
+                    // Outputs of the aliased relation must have unique names
+                    return null;
+                }
+            }
+            outerKeys.add(outerColumn.symbol());
+            innerKeys.add(innerKey);
+        }
+        if (outerKeys.isEmpty()) {
+            return null;
+        }
+        subQueries.correlated().remove(subQuery);
+        List<Symbol> outputs = new ArrayList<>();
+        for (Symbol key : innerKeys) {
+            if (!outputs.contains(key)) {
+                outputs.add(key);
+            }
+        }
+        QueriedSelectRelation decorrelated = new QueriedSelectRelation(
+            false,
+            inner.from(),
+            inner.joinPairs(),
+            outputs,
+            AndOperator.join(remainder),
+            List.of(),
+            null,
+            null,
+            null,
+            null
+        );
+        AliasedAnalyzedRelation aliased = new AliasedAnalyzedRelation(decorrelated, newAlias(usedNames));
+        List<Symbol> conditions = new ArrayList<>(outerKeys.size());
+        for (int i = 0; i < outerKeys.size(); i++) {
+            Symbol innerOutput = aliased.outputs().get(outputs.indexOf(innerKeys.get(i)));
+            conditions.add(EqOperator.of(outerKeys.get(i), innerOutput));
+        }
+        return new SemiJoin(aliased, joinType, AndOperator.join(conditions));
+    }
+
+    private static int numOccurrences(QueriedSelectRelation relation, SelectSymbol subQuery) {
+        int[] count = new int[] { 0 };
+        relation.visitSymbols(tree -> tree.visit(SelectSymbol.class, s -> {
+            if (s == subQuery) {
+                count[0]++;
+            }
+        }));
+        return count[0];
+    }
+
+    private static RelationName newAlias(Set<RelationName> usedNames) {
+        for (int i = 0; ; i++) {
+            RelationName alias = new RelationName(null, ALIAS_PREFIX + i);
+            if (usedNames.add(alias)) {
+                return alias;
+            }
+        }
+    }
+}
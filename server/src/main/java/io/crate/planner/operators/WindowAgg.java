@@ -53,7 +53,9 @@ import io.crate.planner.DependencyCarrier;
 import io.crate.planner.ExecutionPlan;
 import io.crate.planner.Merge;
 import io.crate.planner.PlannerContext;
+import io.crate.planner.PositionalOrderBy;
 import io.crate.planner.ResultDescription;
+import io.crate.planner.consumer.OrderByPositionVisitor;
 import io.crate.planner.distribution.DistributionInfo;
 import io.crate.planner.distribution.DistributionType;
 
@@ -155,13 +157,11 @@ public class WindowAgg extends ForwardingLogicalPlan {
         Function<Symbol, Symbol> toInputCols = binder.andThen(s -> InputColumns.create(s, sourceSymbols));
 
         List<WindowFunction> boundWindowFunctions = (List<WindowFunction>)(List<?>) Lists.map(windowFunctions, toInputCols);
-        List<Projection> projections = new ArrayList<>();
-        WindowAggProjection windowAggProjection = new WindowAggProjection(
-            windowDefinition.map(toInputCols),
-            boundWindowFunctions,
-            InputColumns.create(this.standalone, sourceSymbols)
-        );
-        projections.add(windowAggProjection);
+        // If the source provides sorted rows (Lucene sorted collect or ORDER BY of a sub-query) the window functions
+        // can be computed one partition at a time instead of sorting and holding all rows in memory.
+        OrderBy sourceOrder = source instanceof Collect || source instanceof Order
+            ? createOrderByInclPartitionBy(windowDefinition)
+            : null;
         ExecutionPlan sourcePlan = source.build(
             executor,
             plannerContext,
@@ -169,12 +169,22 @@ public class WindowAgg extends ForwardingLogicalPlan {
             projectionBuilder,
             LimitAndOffset.NO_LIMIT,
             LimitAndOffset.NO_OFFSET,
-            null,
+            sourceOrder,
             pageSizeHint,
             params,
             subQueryResults
         );
         ResultDescription resultDescription = sourcePlan.resultDescription();
+        boolean sourceSorted = sourceOrder != null
+            && isSortedBy(resultDescription.orderBy(), sourceOrder, source.outputs());
+        List<Projection> projections = new ArrayList<>();
+        WindowAggProjection windowAggProjection = new WindowAggProjection(
+            windowDefinition.map(toInputCols),
+            boundWindowFunctions,
+            InputColumns.create(this.standalone, sourceSymbols),
+            sourceSorted
+        );
+        projections.add(windowAggProjection);
         boolean executesOnHandler = executesOnHandler(plannerContext.handlerNode(), resultDescription.nodeIds());
         boolean nonDistExecution = windowDefinition.partitions().isEmpty()
                                    || resultDescription.hasRemainingLimitOrOffset()
@@ -199,7 +209,8 @@ public class WindowAgg extends ForwardingLogicalPlan {
                 resultDescription.streamOutputs(),
                 projections,
                 DistributionInfo.DEFAULT_BROADCAST,
-                null
+                // Each upstream sends its rows sorted, a sorted merge keeps them sorted
+                sourceSorted ? resultDescription.orderBy() : null
             );
             return new Merge(
                 sourcePlan,
@@ -214,6 +225,28 @@ public class WindowAgg extends ForwardingLogicalPlan {
         return sourcePlan;
     }
 
+    /**
+     * @return true if the rows ordered by {@code orderBy} are also ordered by {@code requiredOrder}
+     */
+    @VisibleForTesting
+    static boolean isSortedBy(@Nullable PositionalOrderBy orderBy, OrderBy requiredOrder, List<Symbol> outputs) {
+        if (orderBy == null) {
+            return false;
+        }
+        int[] requiredPositions = OrderByPositionVisitor.orderByPositionsOrNull(requiredOrder.orderBySymbols(), outputs);
+        if (requiredPositions == null || requiredPositions.length > orderBy.indices().length) {
+            return false;
+        }
+        for (int i = 0; i < requiredPositions.length; i++) {
+            if (requiredPositions[i] != orderBy.indices()[i]
+                || requiredOrder.reverseFlags()[i] != orderBy.reverseFlags()[i]
+                || requiredOrder.nullsFirst()[i] != orderBy.nullsFirst()[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     @Nullable
     static OrderBy createOrderByInclPartitionBy(WindowDefinition windowDefinition) {
         var orderBy = windowDefinition.orderBy();
@@ -26,6 +26,7 @@ import java.util.Map;
 
 import org.jetbrains.annotations.Nullable;
 
+import io.crate.common.collections.Lists;
 import io.crate.common.collections.Maps;
 import io.crate.expression.symbol.Literal;
 import io.crate.expression.symbol.Symbol;
@@ -54,6 +55,7 @@ import io.crate.planner.optimizer.iterative.GroupReference;
 import io.crate.planner.optimizer.iterative.Memo;
 import io.crate.planner.selectivity.SelectivityFunctions;
 import io.crate.sql.tree.JoinType;
+import io.crate.statistics.ColumnGroupStats;
 import io.crate.statistics.ColumnStats;
 import io.crate.statistics.Stats;
 import io.crate.statistics.TableStats;
@@ -150,14 +152,20 @@ public class PlanStats {
 
         private Stats visitAbstractJoinPlan(AbstractJoinPlan join, Void context) {
             var lhsStats = join.lhs().accept(this, context);
+            if (join.isSemiOrAntiJoin()) {
+                // Emits at most the rows of the left side
+                return lhsStats;
+            }
             var rhsStats = join.rhs().accept(this, context);
             Map<ColumnIdent, ColumnStats<?>> statsByColumn = Maps.concat(lhsStats.statsByColumn(),
                                                                          rhsStats.statsByColumn());
+            List<ColumnGroupStats> columnGroupStats = Lists.concat(lhsStats.columnGroupStats(),
+                                                                   rhsStats.columnGroupStats());
             if (lhsStats.numDocs() == -1
                 || lhsStats.sizeInBytes() == -1
                 || rhsStats.numDocs() == -1
                 || rhsStats.sizeInBytes() == -1) {
-                return new Stats(-1, -1, statsByColumn);
+                return new Stats(-1, -1, statsByColumn, columnGroupStats);
             }
             long numRows = join.joinType() == JoinType.CROSS
                 ? lhsStats.numDocs() * rhsStats.numDocs()
@@ -166,7 +174,8 @@ public class PlanStats {
             Stats joinStats = new Stats(
                 numRows,
                 (lhsStats.averageSizePerRowInBytes() * numRows) + (rhsStats.averageSizePerRowInBytes() * numRows),
-                statsByColumn
+                statsByColumn,
+                columnGroupStats
             );
             Symbol joinCondition = join.joinCondition();
             if (joinCondition == null) {
@@ -185,20 +194,25 @@ public class PlanStats {
         @Override
         public Stats visitHashJoin(HashJoin join, Void context) {
             var lhsStats = join.lhs().accept(this, context);
+            if (join.isSemiOrAntiJoin()) {
+                // Emits at most the rows of the left side
+                return lhsStats;
+            }
             var rhsStats = join.rhs().accept(this, context);
             Map<ColumnIdent, ColumnStats<?>> statsByColumn = Maps.concat(lhsStats.statsByColumn(), rhsStats.statsByColumn());
+            List<ColumnGroupStats> columnGroupStats = Lists.concat(lhsStats.columnGroupStats(), rhsStats.columnGroupStats());
             if (lhsStats.numDocs() == -1
                 || lhsStats.sizeInBytes() == -1
                 || rhsStats.numDocs() == -1
                 || rhsStats.sizeInBytes() == -1) {
-                return new Stats(-1, -1, statsByColumn);
+                return new Stats(-1, -1, statsByColumn, columnGroupStats);
             }
             long numRows = Math.max(lhsStats.numDocs(), rhsStats.numDocs());
             long sizeInBytes =
                 (numRows * lhsStats.averageSizePerRowInBytes())
                 + (numRows * rhsStats.averageSizePerRowInBytes());
 
-            Stats joinStats = new Stats(numRows, sizeInBytes, statsByColumn);
+            Stats joinStats = new Stats(numRows, sizeInBytes, statsByColumn, columnGroupStats);
             long estimatedNumRows = SelectivityFunctions.estimateNumRows(
                 nodeContext,
                 txnCtx,
@@ -29,14 +29,17 @@ import java.util.Map;
 import java.util.Set;
 import java.util.function.UnaryOperator;
 
+import org.jetbrains.annotations.Nullable;
+
 import io.crate.analyze.relations.QuerySplitter;
 import io.crate.common.collections.Lists;
 import io.crate.common.collections.Maps;
 import io.crate.common.collections.Sets;
+import io.crate.expression.operator.AndOperator;
 import io.crate.expression.operator.EqOperator;
+import io.crate.expression.symbol.Function;
 import io.crate.expression.symbol.ScopedSymbol;
 import io.crate.expression.symbol.Symbol;
-import io.crate.expression.symbol.SymbolVisitor;
 import io.crate.metadata.Reference;
 import io.crate.planner.operators.Filter;
 import io.crate.planner.operators.JoinPlan;
@@ -48,7 +51,8 @@ import io.crate.sql.tree.JoinType;
 /**
  * JoinGraph is an undirected multi-graph representing a sequence of Joins.
  * The nodes are logical plans and edges are built based on equi-join
- * conditions between two nodes.
+ * conditions between two nodes. All other conditions of inner joins are
+ * kept as filters.
  *
  * <p>
  * The following join plan:
@@ -168,6 +172,10 @@ public record JoinGraph(List<LogicalPlan> nodes,
 
         @Override
         public JoinGraph visitJoinPlan(JoinPlan joinPlan, Map<Symbol, LogicalPlan> context) {
+            if (joinPlan.isSemiOrAntiJoin()) {
+                // The right side isn't visible above the join, it can't be re-ordered with other joins
+                return visitPlan(joinPlan, context);
+            }
 
             var left = joinPlan.lhs().accept(this, context);
             var right = joinPlan.rhs().accept(this, context);
@@ -181,77 +189,79 @@ public record JoinGraph(List<LogicalPlan> nodes,
             }
 
             var joinCondition = joinPlan.joinCondition();
-            var edgeCollector = new EdgeCollector();
+            var edges = new HashMap<LogicalPlan, Set<Edge>>();
             var filters = new ArrayList<Symbol>();
             if (joinCondition != null) {
                 var split = QuerySplitter.split(joinCondition);
                 for (var entry : split.entrySet()) {
                     // we are only interested in equi-join conditions between
                     // two tables e.g.: a.x = b.y will result in
-                    // (a,b) -> (a.x = b.y) and we can ignore any other
-                    // filters. Therefore, we only want entries where we have
-                    // two keys.
+                    // (a,b) -> (a.x = b.y). Any other condition is kept
+                    // as filter so that it isn't lost if the joins are
+                    // re-ordered.
                     if (entry.getKey().size() == 2) {
-                        entry.getValue().accept(edgeCollector, context);
+                        for (var condition : AndOperator.split(entry.getValue())) {
+                            if (!addEdges(condition, context, edges)) {
+                                filters.add(condition);
+                            }
+                        }
                     } else {
                         filters.add(entry.getValue());
                     }
                 }
             }
-            return left.joinWith(right).withEdges(edgeCollector.edges).withFilters(filters);
+            return left.joinWith(right).withEdges(edges).withFilters(filters);
         }
 
-        private static class EdgeCollector extends SymbolVisitor<Map<Symbol, LogicalPlan>, Void> {
-
-            private final Map<LogicalPlan, Set<Edge>> edges = new HashMap<>();
-            private final List<LogicalPlan> sources = new ArrayList<>();
-
-            @Override
-            public Void visitField(ScopedSymbol s, Map<Symbol, LogicalPlan> context) {
-                sources.add(context.get(s));
-                return null;
-            }
-
-            @Override
-            public Void visitReference(Reference ref, Map<Symbol, LogicalPlan> context) {
-                sources.add(context.get(ref));
-                return null;
+        private static boolean addEdges(Symbol condition,
+                                        Map<Symbol, LogicalPlan> context,
+                                        Map<LogicalPlan, Set<Edge>> edges) {
+            if (condition instanceof Function f && f.name().equals(EqOperator.NAME)) {
+                var fromSymbol = f.arguments().get(0);
+                var toSymbol = f.arguments().get(1);
+                var fromRelation = sourceOf(fromSymbol, context);
+                var toRelation = sourceOf(toSymbol, context);
+                if (fromRelation != null && toRelation != null && fromRelation != toRelation) {
+                    // Edges are created and indexed for each equi-join condition
+                    // from both directions e.g.:
+                    // a.x = b.y
+                    // becomes:
+                    // a -> Edge[b, a.x, b.y]
+                    // b -> Edge[a, a.x, b.y]
+                    addEdge(edges, fromRelation, new Edge(toRelation, fromSymbol, toSymbol));
+                    addEdge(edges, toRelation, new Edge(fromRelation, fromSymbol, toSymbol));
+                    return true;
+                }
             }
+            return false;
+        }
 
-            @Override
-            public Void visitFunction(io.crate.expression.symbol.Function f, Map<Symbol, LogicalPlan> context) {
-                var sizeSource = sources.size();
-                f.arguments().forEach(x -> x.accept(this, context));
-                if (f.name().equals(EqOperator.NAME)) {
-                    assert sources.size() == sizeSource + 2 : "Source must be collected for each argument";
-                    var fromSymbol = f.arguments().get(0);
-                    var toSymbol = f.arguments().get(1);
-                    var fromRelation = sources.get(sources.size() - 2);
-                    var toRelation = sources.get(sources.size() - 1);
-                    if (fromRelation != null && toRelation != null) {
-                        // Edges are created and indexed for each equi-join condition
-                        // from both directions e.g.:
-                        // a.x = b.y
-                        // becomes:
-                        // a -> Edge[b, a.x, b.y]
-                        // b -> Edge[a, a.x, b.y]
-                        addEdge(fromRelation, new Edge(toRelation, fromSymbol, toSymbol));
-                        addEdge(toRelation, new Edge(fromRelation, fromSymbol, toSymbol));
-                    }
-                }
-                return null;
+        /**
+         * @return the node providing all columns used by the symbol or null
+         *         if the columns are provided by more than one node.
+         */
+        @Nullable
+        private static LogicalPlan sourceOf(Symbol symbol, Map<Symbol, LogicalPlan> context) {
+            var sources = new HashSet<LogicalPlan>();
+            symbol.visit(
+                s -> s instanceof ScopedSymbol || s instanceof Reference,
+                s -> sources.add(context.get(s))
+            );
+            if (sources.size() == 1) {
+                return sources.iterator().next();
             }
+            return null;
+        }
 
-            private void addEdge(LogicalPlan from, Edge edge) {
-                var values = edges.get(from);
-                if (values == null) {
-                    values = Set.of(edge);
-                } else {
-                    values = new HashSet<>(values);
-                    values.add(edge);
-                }
-                edges.put(from, values);
+        private static void addEdge(Map<LogicalPlan, Set<Edge>> edges, LogicalPlan from, Edge edge) {
+            var values = edges.get(from);
+            if (values == null) {
+                values = Set.of(edge);
+            } else {
+                values = new HashSet<>(values);
+                values.add(edge);
             }
+            edges.put(from, values);
         }
     }
 }
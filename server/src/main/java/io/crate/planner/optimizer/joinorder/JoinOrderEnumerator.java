@@ -0,0 +1,518 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.planner.optimizer.joinorder;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.VisibleForTesting;
+
+import io.crate.expression.operator.AndOperator;
+import io.crate.expression.operator.EqOperator;
+import io.crate.expression.symbol.Symbol;
+import io.crate.metadata.ColumnIdent;
+import io.crate.metadata.NodeContext;
+import io.crate.metadata.TransactionContext;
+import io.crate.planner.operators.AbstractJoinPlan;
+import io.crate.planner.operators.Filter;
+import io.crate.planner.operators.JoinPlan;
+import io.crate.planner.operators.LogicalPlan;
+import io.crate.planner.optimizer.costs.PlanStats;
+import io.crate.planner.optimizer.iterative.GroupReference;
+import io.crate.planner.selectivity.SelectivityFunctions;
+import io.crate.sql.tree.JoinType;
+import io.crate.statistics.ColumnStats;
+import io.crate.statistics.Stats;
+
+/**
+ * Cost based search for the order of the inner joins of a {@link JoinGraph}.
+ *
+ * <p>
+ * Graphs with up to {@link #MAX_DP_RELATIONS} nodes are enumerated with
+ * dynamic programming over all pairs of connected sub-graphs and their
+ * connected complements (DPccp, see Moerkotte, Neumann: "Analysis of Two
+ * Existing and One New Dynamic Programming Algorithm for the Generation of
+ * Optimal Bushy Join Trees without Cross Products"). Bigger graphs fall back
+ * to a greedy search which repeatedly joins the two connected sub-trees with
+ * the smallest result.
+ * </p>
+ *
+ * <p>
+ * The number of rows of a set of joined nodes is the product of the rows of
+ * the nodes and the selectivity of all join conditions between them. It
+ * doesn't depend on the shape of the join tree, so the best tree of a set of
+ * nodes is part of the best tree of any superset. The cost of a join is the
+ * size of its result in bytes plus the size of its smaller input, which a
+ * hash join keeps in memory.
+ * </p>
+ */
+public final class JoinOrderEnumerator {
+
+    @VisibleForTesting
+    static final int MAX_DP_RELATIONS = 10;
+
+    /**
+     * Minimum relative cost reduction to replace the current join order,
+     * prevents flipping between orders with equal costs due to rounding.
+     */
+    private static final double MIN_IMPROVEMENT = 1e-6;
+
+    /**
+     * @param relations bitmask of the nodes used by the condition
+     */
+    private record Condition(Symbol symbol, long relations, double selectivity) {
+    }
+
+    /**
+     * @param relations bitmask of the joined nodes
+     * @param rows estimated number of rows of the result
+     * @param cost accumulated cost of all joins of the tree
+     */
+    @VisibleForTesting
+    record JoinTree(long relations, @Nullable JoinTree lhs, @Nullable JoinTree rhs, double rows, double cost) {
+
+        boolean isLeaf() {
+            return lhs == null;
+        }
+    }
+
+    private final JoinGraph graph;
+    private final int size;
+    private final double[] rows;
+    private final long[] rowSize;
+    private final long[] neighbours;
+    private final List<Condition> conditions;
+    private final Map<Long, Double> rowsByRelations = new HashMap<>();
+
+    private JoinOrderEnumerator(JoinGraph graph,
+                                double[] rows,
+                                long[] rowSize,
+                                long[] neighbours,
+                                List<Condition> conditions) {
+        this.graph = graph;
+        this.size = graph.size();
+        this.rows = rows;
+        this.rowSize = rowSize;
+        this.neighbours = neighbours;
+        this.conditions = conditions;
+    }
+
+    /**
+     * Re-orders a tree of inner joins if the estimated cost of the best
+     * order is lower than the cost of the current order.
+     *
+     * @return the re-ordered join tree, null if the tree contains other joins
+     *         than inner or cross joins, if statistics are missing, if the
+     *         join graph isn't connected or if the current order is already
+     *         the best one.
+     */
+    @Nullable
+    public static LogicalPlan reorder(JoinPlan join,
+                                      PlanStats planStats,
+                                      NodeContext nodeCtx,
+                                      TransactionContext txnCtx,
+                                      UnaryOperator<LogicalPlan> resolvePlan) {
+        JoinGraph graph = JoinGraph.create(join, resolvePlan);
+        if (graph.size() < 3 || graph.size() >= Long.SIZE) {
+            return null;
+        }
+        JoinOrderEnumerator enumerator = of(graph, planStats, nodeCtx, txnCtx);
+        if (enumerator == null) {
+            return null;
+        }
+        JoinTree current = enumerator.currentTree(join, resolvePlan);
+        if (current == null) {
+            return null;
+        }
+        JoinTree best = enumerator.bestTree();
+        if (best == null || best.cost() >= current.cost() * (1 - MIN_IMPROVEMENT)) {
+            return null;
+        }
+        return enumerator.build(best);
+    }
+
+    /**
+     * @return an enumerator for the graph or null if there are no statistics
+     *         for one of the nodes.
+     */
+    @Nullable
+    @VisibleForTesting
+    static JoinOrderEnumerator of(JoinGraph graph,
+                                  PlanStats planStats,
+                                  NodeContext nodeCtx,
+                                  TransactionContext txnCtx) {
+        int size = graph.size();
+        List<LogicalPlan> nodes = graph.nodes();
+        Stats[] stats = new Stats[size];
+        double[] rows = new double[size];
+        long[] rowSize = new long[size];
+        Map<Symbol, Integer> nodeBySymbol = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            LogicalPlan node = nodes.get(i);
+            stats[i] = planStats.get(node);
+            if (stats[i].numDocs() == -1) {
+                return null;
+            }
+            rows[i] = stats[i].numDocs();
+            rowSize[i] = Math.max(1L, stats[i].estimateSizeForColumns(node.outputs()));
+            for (Symbol output : node.outputs()) {
+                nodeBySymbol.put(output, i);
+            }
+        }
+
+        List<Symbol> symbols = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            List<JoinGraph.Edge> edges = new ArrayList<>();
+            for (var edge : graph.edges(nodes.get(i))) {
+                // Edges are indexed from both directions, only use them once
+                if (i < indexOf(nodes, edge.to())) {
+                    edges.add(edge);
+                }
+            }
+            // Edges are kept in a set, sort them to get a stable order of the join conditions
+            edges.sort(Comparator
+                .comparingInt((JoinGraph.Edge edge) -> indexOf(nodes, edge.to()))
+                .thenComparing(edge -> edge.left().toString())
+                .thenComparing(edge -> edge.right().toString()));
+            for (var edge : edges) {
+                symbols.add(EqOperator.of(edge.left(), edge.right()));
+            }
+        }
+        symbols.addAll(graph.filters());
+        long[] neighbours = new long[size];
+        List<Condition> conditions = new ArrayList<>(symbols.size());
+        for (Symbol symbol : symbols) {
+            long[] relations = new long[1];
+            symbol.visit(_ -> true, s -> {
+                Integer idx = nodeBySymbol.get(s);
+                if (idx != null) {
+                    relations[0] |= 1L << idx;
+                }
+            });
+            long mask = relations[0];
+            Stats conditionStats;
+            if (Long.bitCount(mask) == 1) {
+                conditionStats = stats[Long.numberOfTrailingZeros(mask)];
+            } else {
+                Map<ColumnIdent, ColumnStats<?>> statsByColumn = new HashMap<>();
+                for (int i = 0; i < size; i++) {
+                    if ((mask & (1L << i)) != 0) {
+                        statsByColumn.putAll(stats[i].statsByColumn());
+                    }
+                }
+                conditionStats = new Stats(-1, -1, statsByColumn);
+            }
+            double selectivity = Math.clamp(
+                SelectivityFunctions.estimateSelectivity(nodeCtx, txnCtx, conditionStats, symbol, null),
+                0.0,
+                1.0
+            );
+            if (Long.bitCount(mask) == 1) {
+                rows[Long.numberOfTrailingZeros(mask)] *= selectivity;
+            } else if (Long.bitCount(mask) == 2) {
+                int first = Long.numberOfTrailingZeros(mask);
+                int second = 63 - Long.numberOfLeadingZeros(mask);
+                neighbours[first] |= 1L << second;
+                neighbours[second] |= 1L << first;
+            }
+            conditions.add(new Condition(symbol, mask, selectivity));
+        }
+        return new JoinOrderEnumerator(graph, rows, rowSize, neighbours, conditions);
+    }
+
+    private static int indexOf(List<LogicalPlan> nodes, LogicalPlan node) {
+        for (int i = 0; i < nodes.size(); i++) {
+            if (nodes.get(i) == node) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the tree of the given join plan or null if it contains joins
+     *         which can't be re-ordered.
+     */
+    @Nullable
+    @VisibleForTesting
+    JoinTree currentTree(LogicalPlan plan, UnaryOperator<LogicalPlan> resolvePlan) {
+        if (plan instanceof GroupReference) {
+            plan = resolvePlan.apply(plan);
+        }
+        if (plan instanceof JoinPlan join) {
+            if ((join.joinType() != JoinType.INNER && join.joinType() != JoinType.CROSS)
+                || join.lookUpJoin() != AbstractJoinPlan.LookUpJoin.NONE) {
+                return null;
+            }
+            JoinTree lhs = currentTree(join.lhs(), resolvePlan);
+            JoinTree rhs = currentTree(join.rhs(), resolvePlan);
+            if (lhs == null || rhs == null) {
+                return null;
+            }
+            return join(lhs, rhs);
+        }
+        if (plan instanceof Filter filter) {
+            return currentTree(filter.source(), resolvePlan);
+        }
+        int idx = indexOf(graph.nodes(), plan);
+        return idx == -1 ? null : leaf(idx);
+    }
+
+    /**
+     * @return the join tree with the lowest cost or null if the graph isn't connected.
+     */
+    @Nullable
+    @VisibleForTesting
+    JoinTree bestTree() {
+        if (size <= MAX_DP_RELATIONS) {
+            return enumerateConnectedPairs();
+        }
+        return enumerateGreedy();
+    }
+
+    private JoinTree leaf(int idx) {
+        return new JoinTree(1L << idx, null, null, rows(1L << idx), 0.0);
+    }
+
+    private JoinTree join(JoinTree a, JoinTree b) {
+        long relations = a.relations | b.relations;
+        double numRows = rows(relations);
+        double cost = a.cost + b.cost
+            + numRows * rowSize(relations)
+            + Math.min(a.rows * rowSize(a.relations), b.rows * rowSize(b.relations));
+        // The smaller input goes to the right side, which is the build side of a hash join
+        if (b.rows > a.rows) {
+            return new JoinTree(relations, b, a, numRows, cost);
+        }
+        return new JoinTree(relations, a, b, numRows, cost);
+    }
+
+    private double rows(long relations) {
+        Double cached = rowsByRelations.get(relations);
+        if (cached != null) {
+            return cached;
+        }
+        double result = 1.0;
+        for (int i = 0; i < size; i++) {
+            if ((relations & (1L << i)) != 0) {
+                result *= rows[i];
+            }
+        }
+        for (Condition condition : conditions) {
+            if (Long.bitCount(condition.relations) > 1 && (condition.relations & ~relations) == 0) {
+                result *= condition.selectivity;
+            }
+        }
+        result = Math.max(1.0, result);
+        rowsByRelations.put(relations, result);
+        return result;
+    }
+
+    private long rowSize(long relations) {
+        long result = 0;
+        for (int i = 0; i < size; i++) {
+            if ((relations & (1L << i)) != 0) {
+                result += rowSize[i];
+            }
+        }
+        return result;
+    }
+
+    private long neighbours(long relations) {
+        long result = 0;
+        for (int i = 0; i < size; i++) {
+            if ((relations & (1L << i)) != 0) {
+                result |= neighbours[i];
+            }
+        }
+        return result & ~relations;
+    }
+
+    /**
+     * All nodes with an index lower or equal to {@code idx}
+     */
+    private static long lowerOrEqual(int idx) {
+        return (1L << (idx + 1)) - 1;
+    }
+
+    /**
+     * DPccp: Enumerates every pair of a connected sub-graph and a connected
+     * complement which is connected to it exactly once and keeps the cheapest
+     * tree for each set of nodes.
+     */
+    @Nullable
+    private JoinTree enumerateConnectedPairs() {
+        List<long[]> pairs = new ArrayList<>();
+        for (int i = size - 1; i >= 0; i--) {
+            long start = 1L << i;
+            emitConnectedSubgraph(start, pairs);
+            enumerateConnectedSubgraphs(start, lowerOrEqual(i), pairs);
+        }
+        // A subset is always numerically smaller than its supersets, so
+        // this processes the pairs of a set after the pairs of its subsets
+        pairs.sort(Comparator.comparingLong(pair -> pair[0] | pair[1]));
+
+        Map<Long, JoinTree> best = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            best.put(1L << i, leaf(i));
+        }
+        for (long[] pair : pairs) {
+            JoinTree candidate = join(best.get(pair[0]), best.get(pair[1]));
+            JoinTree current = best.get(candidate.relations);
+            if (current == null || candidate.cost < current.cost) {
+                best.put(candidate.relations, candidate);
+            }
+        }
+        return best.get(lowerOrEqual(size - 1));
+    }
+
+    private void enumerateConnectedSubgraphs(long subgraph, long excluded, List<long[]> pairs) {
+        long neighbours = neighbours(subgraph) & ~excluded;
+        for (long subset = neighbours; subset != 0; subset = (subset - 1) & neighbours) {
+            emitConnectedSubgraph(subgraph | subset, pairs);
+        }
+        for (long subset = neighbours; subset != 0; subset = (subset - 1) & neighbours) {
+            enumerateConnectedSubgraphs(subgraph | subset, excluded | neighbours, pairs);
+        }
+    }
+
+    private void emitConnectedSubgraph(long subgraph, List<long[]> pairs) {
+        long excluded = subgraph | lowerOrEqual(Long.numberOfTrailingZeros(subgraph));
+        long neighbours = neighbours(subgraph) & ~excluded;
+        long remaining = neighbours;
+        while (remaining != 0) {
+            int idx = 63 - Long.numberOfLeadingZeros(remaining);
+            remaining &= ~(1L << idx);
+            long complement = 1L << idx;
+            pairs.add(new long[] { subgraph, complement });
+            enumerateComplements(subgraph, complement, excluded | (lowerOrEqual(idx) & neighbours), pairs);
+        }
+    }
+
+    private void enumerateComplements(long subgraph, long complement, long excluded, List<long[]> pairs) {
+        long neighbours = neighbours(complement) & ~excluded;
+        for (long subset = neighbours; subset != 0; subset = (subset - 1) & neighbours) {
+            pairs.add(new long[] { subgraph, complement | subset });
+        }
+        for (long subset = neighbours; subset != 0; subset = (subset - 1) & neighbours) {
+            enumerateComplements(subgraph, complement | subset, excluded | neighbours, pairs);
+        }
+    }
+
+    /**
+     * Greedy operator ordering: Joins the two connected trees with the
+     * smallest result until a single tree is left.
+     */
+    @Nullable
+    private JoinTree enumerateGreedy() {
+        List<JoinTree> trees = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            trees.add(leaf(i));
+        }
+        while (trees.size() > 1) {
+            JoinTree best = null;
+            int bestLhs = -1;
+            int bestRhs = -1;
+            for (int i = 0; i < trees.size(); i++) {
+                JoinTree lhs = trees.get(i);
+                long neighbours = neighbours(lhs.relations);
+                for (int j = i + 1; j < trees.size(); j++) {
+                    JoinTree rhs = trees.get(j);
+                    if ((neighbours & rhs.relations) == 0) {
+                        continue;
+                    }
+                    JoinTree candidate = join(lhs, rhs);
+                    if (best == null
+                        || candidate.rows < best.rows
+                        || (candidate.rows == best.rows && candidate.cost < best.cost)) {
+                        best = candidate;
+                        bestLhs = i;
+                        bestRhs = j;
+                    }
+                }
+            }
+            if (best == null) {
+                return null;
+            }
+            trees.remove(bestRhs);
+            trees.remove(bestLhs);
+            trees.add(best);
+        }
+        return trees.get(0);
+    }
+
+    /**
+     * Builds the join plan of a tree. Join conditions are added to the lowest
+     * join containing all nodes used by the condition, conditions on a single
+     * node are added as filter on top of the node.
+     */
+    @VisibleForTesting
+    LogicalPlan build(JoinTree tree) {
+        LogicalPlan plan = buildTree(tree);
+        List<Symbol> remaining = new ArrayList<>();
+        for (Condition condition : conditions) {
+            if (condition.relations == 0) {
+                remaining.add(condition.symbol);
+            }
+        }
+        return Filter.create(plan, AndOperator.join(remaining, null));
+    }
+
+    private LogicalPlan buildTree(JoinTree tree) {
+        if (tree.isLeaf()) {
+            List<Symbol> filters = new ArrayList<>();
+            for (Condition condition : conditions) {
+                if (condition.relations == tree.relations) {
+                    filters.add(condition.symbol);
+                }
+            }
+            LogicalPlan node = graph.nodes().get(Long.numberOfTrailingZeros(tree.relations));
+            return Filter.create(node, AndOperator.join(filters, null));
+        }
+        assert tree.lhs != null && tree.rhs != null : "Join tree must have both sides";
+        List<Symbol> joinConditions = new ArrayList<>();
+        for (Condition condition : conditions) {
+            long relations = condition.relations;
+            if ((relations & ~tree.relations) == 0
+                && (relations & tree.lhs.relations) != 0
+                && (relations & tree.rhs.relations) != 0) {
+                joinConditions.add(condition.symbol);
+            }
+        }
+        return new JoinPlan(
+            buildTree(tree.lhs),
+            buildTree(tree.rhs),
+            joinConditions.isEmpty() ? JoinType.CROSS : JoinType.INNER,
+            AndOperator.join(joinConditions, null),
+            false,
+            false,
+            false,
+            AbstractJoinPlan.LookUpJoin.NONE
+        );
+    }
+}
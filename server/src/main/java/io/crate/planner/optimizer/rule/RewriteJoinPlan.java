@@ -54,7 +54,7 @@ public class RewriteJoinPlan implements Rule<JoinPlan> {
                              Captures captures,
                              Rule.Context context) {
         if (context.txnCtx().sessionSettings().hashJoinsEnabled() &&
-            join.joinType() == JoinType.INNER &&
+            (join.joinType() == JoinType.INNER || join.isSemiOrAntiJoin()) &&
             EquiJoinDetector.isEquiJoin(join.joinCondition())) {
             return new HashJoin(
                 join.lhs(),
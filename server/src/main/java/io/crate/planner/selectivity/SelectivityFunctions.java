@@ -21,7 +21,12 @@
 
 package io.crate.planner.selectivity;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 import org.jetbrains.annotations.Nullable;
@@ -29,6 +34,10 @@ import org.jetbrains.annotations.Nullable;
 import io.crate.data.Row;
 import io.crate.expression.operator.AndOperator;
 import io.crate.expression.operator.EqOperator;
+import io.crate.expression.operator.GtOperator;
+import io.crate.expression.operator.GteOperator;
+import io.crate.expression.operator.LtOperator;
+import io.crate.expression.operator.LteOperator;
 import io.crate.expression.operator.Operators;
 import io.crate.expression.operator.OrOperator;
 import io.crate.expression.predicate.IsNullPredicate;
@@ -44,9 +53,11 @@ import io.crate.metadata.NodeContext;
 import io.crate.metadata.Reference;
 import io.crate.metadata.Scalar;
 import io.crate.metadata.TransactionContext;
+import io.crate.statistics.ColumnGroupStats;
 import io.crate.statistics.ColumnStats;
 import io.crate.statistics.MostCommonValues;
 import io.crate.statistics.Stats;
+import io.crate.types.DataType;
 
 /**
  * Used to estimate the number of rows returned after applying a given query.
@@ -63,16 +74,33 @@ public class SelectivityFunctions {
      */
     private static final double MAGIC_SEL = 0.333;
 
+    /**
+     * Selectivity of a range like {@code x > 10 AND x < 20} if there are no statistics for {@code x}
+     */
+    private static final double DEFAULT_RANGE_INEQ_SEL = 0.005;
+
     public static long estimateNumRows(NodeContext nodeCtx,
                                        TransactionContext txnCtx,
                                        Stats stats,
                                        Symbol query,
                                        @Nullable Row params) {
-        var estimator = new SelectivityEstimator(nodeCtx, txnCtx, stats, params);
-        Double selectivity = query.accept(estimator, null);
+        double selectivity = estimateSelectivity(nodeCtx, txnCtx, stats, query, params);
         return (long) (stats.numDocs() * selectivity);
     }
 
+    /**
+     * @return the estimated fraction of rows matching the query. Only uses the
+     *         column statistics of {@code stats}, not the number of rows.
+     */
+    public static double estimateSelectivity(NodeContext nodeCtx,
+                                             TransactionContext txnCtx,
+                                             Stats stats,
+                                             Symbol query,
+                                             @Nullable Row params) {
+        var estimator = new SelectivityEstimator(nodeCtx, txnCtx, stats, params);
+        return query.accept(estimator, null);
+    }
+
     static class SelectivityEstimator extends SymbolVisitor<Void, Double> {
 
         private final Stats stats;
@@ -110,11 +138,7 @@ public class SelectivityFunctions {
         public Double visitFunction(Function function, Void context) {
             switch (function.name()) {
                 case AndOperator.NAME: {
-                    double selectivity = 1.0;
-                    for (Symbol argument : function.arguments()) {
-                        selectivity *= argument.accept(this, context);
-                    }
-                    return selectivity;
+                    return andSelectivity(function);
                 }
 
                 case OrOperator.NAME: {
@@ -148,6 +172,199 @@ public class SelectivityFunctions {
             }
         }
 
+        /**
+         * Unlike the product of the selectivity of all conjunctions this accounts for
+         * <ul>
+         * <li>Ranges: {@code x > 10 AND x < 20} is estimated as {@code sel(x > 10) + sel(x < 20) - 1}</li>
+         * <li>Correlated columns: Equality predicates on columns of a {@link ColumnGroupStats} group</li>
+         * </ul>
+         *
+         * See PostgreSQL src/backend/optimizer/path/clausesel.c `clauselist_selectivity`
+         */
+        private double andSelectivity(Function and) {
+            double selectivity = 1.0;
+            Map<ColumnIdent, RangeSelectivity> ranges = new LinkedHashMap<>();
+            Map<ColumnIdent, Double> eqSelectivities = new HashMap<>();
+            for (Symbol conjunction : AndOperator.split(and)) {
+                double sel = conjunction.accept(this, null);
+                if (conjunction instanceof Function fn) {
+                    RangeBound bound = RangeBound.of(fn);
+                    if (bound != null) {
+                        RangeSelectivity range = ranges.computeIfAbsent(bound.column(), _ -> new RangeSelectivity());
+                        range.add(bound.isLower(), sel);
+                        continue;
+                    }
+                    ColumnIdent eqColumn = eqConstantColumn(fn, params);
+                    if (eqColumn != null && !eqSelectivities.containsKey(eqColumn)) {
+                        eqSelectivities.put(eqColumn, sel);
+                        continue;
+                    }
+                }
+                selectivity *= sel;
+            }
+            for (var entry : ranges.entrySet()) {
+                selectivity *= entry.getValue().selectivity(stats.getColumnStats(entry.getKey()));
+            }
+            return selectivity * correlatedEqSelectivity(stats, eqSelectivities);
+        }
+    }
+
+    /**
+     * Selectivity of the lower ({@code x > ?}) and upper ({@code x < ?}) bounds on a column.
+     * If there are multiple bounds of the same kind, the most restrictive one is used.
+     */
+    private static class RangeSelectivity {
+
+        private double lower = -1.0;
+        private double upper = -1.0;
+
+        void add(boolean isLower, double selectivity) {
+            if (isLower) {
+                lower = lower < 0 ? selectivity : Math.min(lower, selectivity);
+            } else {
+                upper = upper < 0 ? selectivity : Math.min(upper, selectivity);
+            }
+        }
+
+        double selectivity(@Nullable ColumnStats<?> columnStats) {
+            if (lower < 0) {
+                return upper;
+            }
+            if (upper < 0) {
+                return lower;
+            }
+            if (lower == MAGIC_SEL || upper == MAGIC_SEL) {
+                return DEFAULT_RANGE_INEQ_SEL;
+            }
+            // Both bounds exclude NULL values, adjust for the double exclusion
+            double nullFraction = columnStats == null ? 0.0 : columnStats.nullFraction();
+            double selectivity = lower + upper - 1.0 + nullFraction;
+            if (selectivity <= 0.0) {
+                // Slightly negative values are likely rounding errors of an empty range,
+                // larger ones are a sign of bogus estimates
+                return selectivity < -0.01 ? DEFAULT_RANGE_INEQ_SEL : 1.0e-10;
+            }
+            return selectivity;
+        }
+    }
+
+    /**
+     * A {@code column <op> constant} or {@code constant <op> column} comparison with {@code <op>} being one of
+     * {@code <, <=, >, >=}
+     *
+     * @param isLower true if the constant is a lower bound of the column (e.g. {@code x > 10} or {@code 10 < x})
+     */
+    private record RangeBound(ColumnIdent column, boolean isLower) {
+
+        @Nullable
+        static RangeBound of(Function function) {
+            String name = function.name();
+            if (!isRangeOperator(name)) {
+                return null;
+            }
+            boolean isGreater = name.equals(GtOperator.NAME) || name.equals(GteOperator.NAME);
+            List<Symbol> arguments = function.arguments();
+            Symbol lhs = arguments.get(0);
+            Symbol rhs = arguments.get(1);
+            ColumnIdent column = getColumn(lhs);
+            if (column != null && isConstant(rhs)) {
+                return new RangeBound(column, isGreater);
+            }
+            column = getColumn(rhs);
+            if (column != null && isConstant(lhs)) {
+                return new RangeBound(column, !isGreater);
+            }
+            return null;
+        }
+    }
+
+    private static boolean isRangeOperator(String name) {
+        return switch (name) {
+            case GtOperator.NAME, GteOperator.NAME, LtOperator.NAME, LteOperator.NAME -> true;
+            default -> false;
+        };
+    }
+
+    private static boolean isConstant(Symbol symbol) {
+        return symbol instanceof Literal<?> || symbol instanceof ParameterSymbol;
+    }
+
+    @Nullable
+    private static ColumnIdent eqConstantColumn(Function function, @Nullable Row params) {
+        if (!function.name().equals(EqOperator.NAME)) {
+            return null;
+        }
+        List<Symbol> arguments = function.arguments();
+        Symbol rhs = arguments.get(1);
+        if (rhs instanceof Literal<?> || (rhs instanceof ParameterSymbol && params != null)) {
+            return getColumn(arguments.get(0));
+        }
+        return null;
+    }
+
+    /**
+     * Combines the selectivity of equality predicates on different columns.
+     *
+     * <p>
+     * Without {@link ColumnGroupStats} the columns are assumed to be independent. For a group of columns
+     * {@code c1..cn} with {@code n_distinct(c1..cn)} distinct value combinations the selectivity is estimated as:
+     * </p>
+     * <pre>
+     *  min(sel(ci)) * max(n_distinct(ci)) / n_distinct(c1..cn)
+     * </pre>
+     * <p>
+     * This results in {@code min(sel(ci))} if one column determines the others (e.g. zip code and city)
+     * and in {@code sel(c1) * .. * sel(cn)} for independent columns with uniform distribution.
+     * </p>
+     */
+    private static double correlatedEqSelectivity(Stats stats, Map<ColumnIdent, Double> eqSelectivities) {
+        double selectivity = 1.0;
+        if (eqSelectivities.isEmpty()) {
+            return selectivity;
+        }
+        Map<ColumnIdent, Double> remaining = new HashMap<>(eqSelectivities);
+        if (remaining.size() > 1 && !stats.columnGroupStats().isEmpty()) {
+            // Prefer the groups covering most columns
+            List<ColumnGroupStats> groups = new ArrayList<>(stats.columnGroupStats());
+            groups.sort(Comparator.comparingInt((ColumnGroupStats g) -> g.columns().size()).reversed());
+            for (ColumnGroupStats group : groups) {
+                double groupSelectivity = groupEqSelectivity(stats, group, remaining);
+                if (groupSelectivity >= 0) {
+                    selectivity *= groupSelectivity;
+                    for (ColumnIdent column : group.columns()) {
+                        remaining.remove(column);
+                    }
+                }
+            }
+        }
+        for (double sel : remaining.values()) {
+            selectivity *= sel;
+        }
+        return selectivity;
+    }
+
+    /**
+     * @return the selectivity of the group or -1 if the group can't be used
+     */
+    private static double groupEqSelectivity(Stats stats, ColumnGroupStats group, Map<ColumnIdent, Double> eqSelectivities) {
+        if (group.approxDistinct() < 1.0) {
+            return -1;
+        }
+        double product = 1.0;
+        double minSelectivity = 1.0;
+        double maxDistinct = 0.0;
+        for (ColumnIdent column : group.columns()) {
+            Double sel = eqSelectivities.get(column);
+            ColumnStats<?> columnStats = stats.getColumnStats(column);
+            if (sel == null || columnStats == null) {
+                return -1;
+            }
+            product *= sel;
+            minSelectivity = Math.min(minSelectivity, sel);
+            maxDistinct = Math.max(maxDistinct, columnStats.approxDistinct());
+        }
+        double selectivity = minSelectivity * maxDistinct / group.approxDistinct();
+        return Math.min(Math.max(selectivity, product), minSelectivity);
     }
 
     @SuppressWarnings("unchecked")
@@ -165,42 +382,123 @@ public class SelectivityFunctions {
         List<Symbol> arguments = function.arguments();
         assert arguments.size() == 2 : "Operator must have two arguments";
 
+        boolean isRange = isRangeOperator(function.name());
         Symbol lhs = arguments.get(0);
-        ColumnIdent lhsColumn = getColumn(lhs);
-        if (lhsColumn == null) {
+        Symbol rhs = arguments.get(1);
+        ColumnIdent column = getColumn(lhs);
+        boolean columnOnLeft = true;
+        if (column == null && isRange) {
+            column = getColumn(rhs);
+            columnOnLeft = false;
+            rhs = lhs;
+        }
+        if (column == null) {
             return defaultSel;
         }
 
-        Symbol rhs = arguments.get(1);
-        final Object rhsValue;
+        final Object constant;
         if (rhs instanceof ParameterSymbol param && params != null) {
-            rhsValue = params.get(param.index());
+            constant = params.get(param.index());
         } else if (rhs instanceof Literal<?> literal) {
-            rhsValue = literal.value();
+            constant = literal.value();
         } else {
             return defaultSel;
         }
 
-        if (rhsValue == null) {
+        if (constant == null) {
             return 0.0;
         }
 
-        ColumnStats<?> lhsStats = stats.getColumnStats(lhsColumn);
-        if (lhsStats == null || lhsStats.mostCommonValues().isEmpty()) {
+        ColumnStats<?> columnStats = stats.getColumnStats(column);
+        if (columnStats == null
+            || (columnStats.mostCommonValues().isEmpty() && (!isRange || columnStats.histogram().size() < 2))) {
             return defaultSel;
         }
 
         Scalar<Boolean, Object> operator = (Scalar<Boolean, Object>) nodeCtx.functions().getQualified(function);
-        MostCommonValues<?> mostCommonValues = lhsStats.mostCommonValues();
-        double selectivity = 0.0;
+        MostCommonValues<?> mostCommonValues = columnStats.mostCommonValues();
+        double mcvSelectivity = 0.0;
+        double sumCommon = 0.0;
         for (int i = 0; i < mostCommonValues.length(); i++) {
             Object value = mostCommonValues.value(i);
-            Boolean result = operator.evaluate(txnCtx, nodeCtx, () -> value, () -> rhsValue);
+            Boolean result = columnOnLeft
+                ? operator.evaluate(txnCtx, nodeCtx, () -> value, () -> constant)
+                : operator.evaluate(txnCtx, nodeCtx, () -> constant, () -> value);
+            double frequency = mostCommonValues.frequency(i);
             if (result != null && result) {
-                selectivity += mostCommonValues.frequency(i);
+                mcvSelectivity += frequency;
             }
+            sumCommon += frequency;
         }
-        return selectivity;
+        if (!isRange) {
+            return mcvSelectivity;
+        }
+
+        // The histogram covers the values which are neither NULL nor one of the most common values
+        double histogramSelectivity = histogramFractionBelow(columnStats, constant);
+        if (histogramSelectivity < 0) {
+            histogramSelectivity = 0.5;
+        } else {
+            String name = function.name();
+            boolean isGreater = name.equals(GtOperator.NAME) || name.equals(GteOperator.NAME);
+            boolean isLowerBound = columnOnLeft == isGreater;
+            if (isLowerBound) {
+                histogramSelectivity = 1.0 - histogramSelectivity;
+            }
+        }
+        double otherFraction = clamp(1.0 - columnStats.nullFraction() - sumCommon);
+        return clamp(mcvSelectivity + otherFraction * histogramSelectivity);
+    }
+
+    /**
+     * Estimates the fraction of the histogram values below {@code value}.
+     * The histogram consists of bounds of buckets with the same number of values (equi-depth).
+     * For numeric types the position within a bucket is interpolated linearly.
+     *
+     * See PostgreSQL src/backend/utils/adt/selfuncs.c `ineq_histogram_selectivity`
+     *
+     * @return the fraction or -1 if there is no histogram
+     */
+    static <T> double histogramFractionBelow(ColumnStats<T> columnStats, Object value) {
+        List<T> histogram = columnStats.histogram();
+        int numBounds = histogram.size();
+        if (numBounds < 2) {
+            return -1;
+        }
+        DataType<T> type = columnStats.type();
+        T typedValue;
+        try {
+            typedValue = type.sanitizeValue(value);
+        } catch (ClassCastException | IllegalArgumentException e) {
+            return -1;
+        }
+        if (type.compare(typedValue, histogram.getFirst()) < 0) {
+            return 0.0;
+        }
+        if (type.compare(typedValue, histogram.getLast()) >= 0) {
+            return 1.0;
+        }
+        // Find the bucket [histogram[lo], histogram[lo + 1]) containing the value
+        int lo = 0;
+        int hi = numBounds - 1;
+        while (hi - lo > 1) {
+            int mid = (lo + hi) >>> 1;
+            if (type.compare(typedValue, histogram.get(mid)) < 0) {
+                hi = mid;
+            } else {
+                lo = mid;
+            }
+        }
+        double bucketFraction = 0.5;
+        if (typedValue instanceof Number number
+                && histogram.get(lo) instanceof Number lower
+                && histogram.get(hi) instanceof Number upper) {
+            double width = upper.doubleValue() - lower.doubleValue();
+            if (width > 0) {
+                bucketFraction = clamp((number.doubleValue() - lower.doubleValue()) / width);
+            }
+        }
+        return (lo + bucketFraction) / (numBounds - 1);
     }
 
     private static double isNullSelectivity(Symbol arg, Stats stats) {
@@ -66,6 +66,7 @@ import io.crate.execution.dsl.projection.SourceIndexWriterReturnSummaryProjectio
 import io.crate.execution.dsl.projection.builder.InputColumns;
 import io.crate.execution.engine.JobLauncher;
 import io.crate.execution.engine.NodeOperationTreeGenerator;
+import io.crate.execution.engine.collect.files.StdStreams;
 import io.crate.execution.engine.pipeline.LimitAndOffset;
 import io.crate.expression.reference.file.SourceLineNumberExpression;
 import io.crate.expression.reference.file.SourceParsingFailureExpression;
@@ -159,7 +160,7 @@ public final class CopyFromPlan implements Plan {
         PartitionName partitionName = copyFrom.table().partitionProperties().isEmpty()
             ? null
             : PartitionName.ofAssignmentsUnsafe(copyFrom.tableInfo(), Lists.map(copyFrom.table().partitionProperties(), x -> x.map(eval)));
-        String partitionIdent = partitionName == null ? null : partitionName.ident();
+        final String partitionIdent = partitionName == null ? null : partitionName.ident();
         final var properties = copyFrom.properties().map(eval);
         final var nodeFiltersPredicate = discoveryNodePredicate(properties.get(NodeFilters.NAME, null));
         final var settings = Settings.builder().put(properties).build();
@@ -170,13 +171,25 @@ public final class CopyFromPlan implements Plan {
             throw new UnsupportedOperationException(
                 "Cannot use RETURN SUMMARY with wait_for_completion=false. Either set wait_for_completion=true, or remove RETURN SUMMARY");
         }
+        if (!waitForCompletion && copyFrom.isFromStdin()) {
+            throw new UnsupportedOperationException("Cannot use wait_for_completion=false with COPY FROM STDIN");
+        }
         var inputFormat = settingAsEnum(
             FileUriCollectPhase.InputFormat.class,
             settings.get(INPUT_FORMAT_SETTING.getKey(), INPUT_FORMAT_SETTING.getDefault(Settings.EMPTY)));
+        if (copyFrom.isFromStdin() && inputFormat == FileUriCollectPhase.InputFormat.PARQUET) {
+            throw new UnsupportedOperationException("COPY FROM STDIN does not support the PARQUET format");
+        }
         // TODO make FileUriCollectPhase ctor accept an uri of the List<String>
         // instead of the Symbol type, such as the uri can be evaluated and converted
         // to the required type already at this stage, but not later on in FileCollectSource.
-        var boundedURI = validateAndConvertToLiteral(eval.apply(copyFrom.uri()), properties);
+        Literal<?> boundedURI;
+        if (copyFrom.isFromStdin()) {
+            properties.ensureContainsOnly(CopyStatementSettings.COMMON_COPY_FROM_SETTINGS);
+            boundedURI = null;
+        } else {
+            boundedURI = validateAndConvertToLiteral(eval.apply(copyFrom.uri()), properties);
+        }
         var header = settings.getAsBoolean("header", true);
         var targetColumns = copyFrom.targetColumns();
         if (!header && copyFrom.targetColumns().isEmpty()) {
@@ -306,17 +319,24 @@ public final class CopyFromPlan implements Plan {
             rewriteToCollectToUsePartitionValues(table.partitionedByColumns(), partitionValues, toCollect);
         }
 
-        Integer numReaders = NUM_READERS_SETTING.getOrNull(boundedCopyFrom.settings());
-        numReaders = numReaders == null ? allNodes.getSize() : numReaders;
+        Collection<String> executionNodes;
+        Symbol uri;
+        if (boundedCopyFrom.uri() == null) {
+            // COPY FROM STDIN: The data is sent by the client to the handler node
+            executionNodes = List.of(context.handlerNode());
+            uri = Literal.of(StdStreams.stdinUri(context.jobId()));
+        } else {
+            Integer numReaders = NUM_READERS_SETTING.getOrNull(boundedCopyFrom.settings());
+            numReaders = numReaders == null ? allNodes.getSize() : numReaders;
+            executionNodes = getExecutionNodes(allNodes, numReaders, boundedCopyFrom.nodePredicate());
+            uri = boundedCopyFrom.uri();
+        }
         FileUriCollectPhase collectPhase = new FileUriCollectPhase(
             context.jobId(),
             context.nextExecutionPhaseId(),
             "copyFrom",
-            getExecutionNodes(
-                allNodes,
-                numReaders,
-                boundedCopyFrom.nodePredicate()),
-            boundedCopyFrom.uri(),
+            executionNodes,
+            uri,
             boundedCopyFrom.targetColumns(),
             toCollect,
             Collections.emptyList(),
@@ -430,6 +450,7 @@ public final class CopyFromPlan implements Plan {
     private static Literal<?> validateAndConvertToLiteral(Object uri, GenericProperties<Object> properties) {
         if (uri instanceof String) {
             String uriAsString = DataTypes.STRING.sanitizeValue(uri);
+            StdStreams.ensureNotReserved(uriAsString);
             if (uriAsString.startsWith("/") || uriAsString.startsWith("file:")) {
                 properties.ensureContainsOnly(CopyStatementSettings.COMMON_COPY_FROM_SETTINGS);
             }
@@ -439,6 +460,11 @@ public final class CopyFromPlan implements Plan {
             if (!(value instanceof String uriAsString)) {
                 throw AnalyzedCopyFrom.raiseInvalidType(DataTypes.guessType(uri));
             }
+            for (Object item : uris) {
+                if (item instanceof String str) {
+                    StdStreams.ensureNotReserved(str);
+                }
+            }
             if (uriAsString.startsWith("/") || uriAsString.startsWith("file:")) {
                 properties.ensureContainsOnly(CopyStatementSettings.COMMON_COPY_FROM_SETTINGS);
             }
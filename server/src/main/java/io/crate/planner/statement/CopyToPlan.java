@@ -54,6 +54,7 @@ import io.crate.execution.dsl.projection.WriterProjection;
 import io.crate.execution.dsl.projection.builder.ProjectionBuilder;
 import io.crate.execution.engine.JobLauncher;
 import io.crate.execution.engine.NodeOperationTreeGenerator;
+import io.crate.execution.engine.collect.files.StdStreams;
 import io.crate.expression.scalar.cast.CastMode;
 import io.crate.expression.symbol.Literal;
 import io.crate.expression.symbol.Symbol;
@@ -154,9 +155,11 @@ public final class CopyToPlan implements Plan {
                 WriterProjection.OutputFormat.JSON_ARRAY : WriterProjection.OutputFormat.JSON_OBJECT;
         }
 
+        // COPY TO STDOUT: The rows are merged on the handler which writes them to the client connection
+        boolean toStdout = boundedCopyTo.uri() == null;
         WriterProjection projection = ProjectionBuilder.writerProjection(
             boundedCopyTo.outputs(),
-            boundedCopyTo.uri(),
+            toStdout ? Literal.of(StdStreams.stdoutUri(context.jobId())) : boundedCopyTo.uri(),
             boundedCopyTo.compressionType(),
             boundedCopyTo.overwrites(),
             boundedCopyTo.outputNames(),
@@ -171,6 +174,9 @@ public final class CopyToPlan implements Plan {
         LogicalPlan source = optimizeCollect(context, planStats, collect);
         ExecutionPlan executionPlan = source.build(
             executor, context, Set.of(), projectionBuilder, 0, 0, null, null, params, SubQueryResults.EMPTY);
+        if (toStdout) {
+            return Merge.ensureOnHandler(executionPlan, context, List.of(projection));
+        }
         executionPlan.addProjection(projection);
 
         return Merge.ensureOnHandler(
@@ -246,19 +252,43 @@ public final class CopyToPlan implements Plan {
         if (!columnsDefined && outputFormat == WriterProjection.OutputFormat.JSON_ARRAY) {
             throw new UnsupportedFeatureException("Output format not supported without specifying columns.");
         }
+        if (outputFormat == WriterProjection.OutputFormat.PARQUET) {
+            if (copyTo.isToStdout()) {
+                throw new UnsupportedFeatureException("COPY TO STDOUT does not support the PARQUET format");
+            }
+            if (!columnsDefined) {
+                // Parquet is columnar, export the top-level columns instead of the JSON document
+                outputs = new ArrayList<>();
+                for (Reference column : table.columns()) {
+                    outputNames.add(column.column().sqlFqn());
+                    outputs.add(DocReferences.toDocLookup(column));
+                }
+                columnsDefined = true;
+            }
+        }
 
         WhereClause whereClause = new WhereClause(copyTo.whereClause(), partitions, Collections.emptySet());
-        String uri = DataTypes.STRING.sanitizeValue(eval.apply(copyTo.uri()));
-        if (uri.startsWith("/") || uri.startsWith("file:")) {
-            // Settings of other schemes are validated later in plugins
-            // as only plugins are aware of scheme specific properties.
+        Literal<String> uri;
+        if (copyTo.isToStdout()) {
             properties.ensureContainsOnly(CopyStatementSettings.COMMON_COPY_TO_SETTINGS);
+            if (!WAIT_FOR_COMPLETION_SETTING.get(settings)) {
+                throw new UnsupportedOperationException("Cannot use wait_for_completion=false with COPY TO STDOUT");
+            }
+            uri = null;
+        } else {
+            uri = Literal.of(DataTypes.STRING.sanitizeValue(eval.apply(copyTo.uri())));
+            StdStreams.ensureNotReserved(uri.value());
+            if (uri.value().startsWith("/") || uri.value().startsWith("file:")) {
+                // Settings of other schemes are validated later in plugins
+                // as only plugins are aware of scheme specific properties.
+                properties.ensureContainsOnly(CopyStatementSettings.COMMON_COPY_TO_SETTINGS);
+            }
         }
         return new BoundCopyTo(
             outputs,
             table,
             whereClause,
-            Literal.of(uri),
+            uri,
             compressionType,
             outputFormat,
             outputNames.isEmpty() ? null : outputNames,
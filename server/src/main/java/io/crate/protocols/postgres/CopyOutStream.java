@@ -0,0 +1,151 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.protocols.postgres;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.elasticsearch.transport.Transports;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import io.crate.common.concurrent.Killable;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+
+/**
+ * OutputStream sending the written bytes as CopyData messages to the client of a {@code COPY ... TO STDOUT}.
+ * Closing the stream sends CopyDone.
+ *
+ * <p>
+ * If the channel isn't writable, writers are blocked until the data has been sent, unless they run on a
+ * transport thread. Blocked writers are released if they are interrupted or the job is killed.
+ * </p>
+ */
+final class CopyOutStream extends OutputStream implements Killable {
+
+    private static final int CHUNK_SIZE = 32 * 1024;
+    private static final long KILL_CHECK_INTERVAL_MS = 100;
+
+    private final Channel channel;
+    @Nullable
+    private ByteBuf buffer;
+    private boolean closed = false;
+    @Nullable
+    private volatile Throwable killed;
+
+    CopyOutStream(Channel channel) {
+        this.channel = channel;
+    }
+
+    @Override
+    public synchronized void write(int b) throws IOException {
+        ensureOpen();
+        ByteBuf buf = buffer();
+        buf.writeByte(b);
+        if (buf.readableBytes() >= CHUNK_SIZE) {
+            sendBuffer();
+        }
+    }
+
+    @Override
+    public synchronized void write(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        ByteBuf buf = buffer();
+        buf.writeBytes(b, off, len);
+        if (buf.readableBytes() >= CHUNK_SIZE) {
+            sendBuffer();
+        }
+    }
+
+    @Override
+    public synchronized void flush() throws IOException {
+        ensureOpen();
+        if (buffer != null && buffer.isReadable()) {
+            sendBuffer();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        try {
+            flush();
+            Messages.sendCopyDone(channel);
+        } finally {
+            closed = true;
+            if (buffer != null) {
+                buffer.release();
+                buffer = null;
+            }
+        }
+    }
+
+    private ByteBuf buffer() {
+        if (buffer == null) {
+            buffer = channel.alloc().buffer(CHUNK_SIZE);
+        }
+        return buffer;
+    }
+
+    private void sendBuffer() throws IOException {
+        if (!channel.isActive()) {
+            throw new IOException("Client connection closed during COPY TO STDOUT");
+        }
+        ChannelFuture sent = Messages.sendCopyData(channel, buffer);
+        buffer = null;
+        if (!channel.isWritable() && !Transports.isTransportThread(Thread.currentThread())) {
+            try {
+                while (!sent.await(KILL_CHECK_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+                    ensureNotKilled();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for the client to receive COPY TO STDOUT data");
+            }
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream is closed");
+        }
+        ensureNotKilled();
+    }
+
+    private void ensureNotKilled() throws IOException {
+        Throwable t = killed;
+        if (t != null) {
+            throw new IOException("COPY TO STDOUT was killed", t);
+        }
+    }
+
+    @Override
+    public void kill(@NotNull Throwable throwable) {
+        killed = throwable;
+    }
+}
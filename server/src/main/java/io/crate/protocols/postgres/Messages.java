@@ -519,6 +519,60 @@ public class Messages {
         return channelFuture;
     }
 
+    /**
+     * CopyInResponse
+     * | 'G' | int32 len | int8 format | int16 numColumns | int16 columnFormat |
+     * <p>
+     * Text format with a single column, each line is one JSON object or CSV record.
+     */
+    static ChannelFuture sendCopyInResponse(Channel channel) {
+        return sendCopyResponse(channel, 'G', "sentCopyInResponse");
+    }
+
+    /**
+     * CopyOutResponse
+     * | 'H' | int32 len | int8 format | int16 numColumns | int16 columnFormat |
+     * <p>
+     * Text format with a single column, each line is one JSON object or array.
+     */
+    static ChannelFuture sendCopyOutResponse(Channel channel) {
+        return sendCopyResponse(channel, 'H', "sentCopyOutResponse");
+    }
+
+    private static ChannelFuture sendCopyResponse(Channel channel, char msgType, final String traceLogMsg) {
+        ByteBuf buffer = channel.alloc().buffer(10);
+        buffer.writeByte(msgType);
+        buffer.writeInt(9);
+        buffer.writeByte(0);
+        buffer.writeShort(1);
+        buffer.writeShort(FormatCodes.FormatCode.TEXT.ordinal());
+        ChannelFuture channelFuture = channel.writeAndFlush(buffer);
+        if (LOGGER.isTraceEnabled()) {
+            channelFuture.addListener((ChannelFutureListener) future -> LOGGER.trace(traceLogMsg));
+        }
+        return channelFuture;
+    }
+
+    /**
+     * CopyData
+     * | 'd' | int32 len | byte[] data |
+     */
+    static ChannelFuture sendCopyData(Channel channel, ByteBuf data) {
+        ByteBuf header = channel.alloc().buffer(5);
+        header.writeByte('d');
+        header.writeInt(4 + data.readableBytes());
+        channel.write(header);
+        return channel.writeAndFlush(data);
+    }
+
+    /**
+     * CopyDone
+     * | 'c' | int32 len |
+     */
+    static ChannelFuture sendCopyDone(Channel channel) {
+        return sendShortMsg(channel, 'c', "sentCopyDone");
+    }
+
     static ChannelFuture sendPortalSuspended(Channel channel) {
         return sendShortMsg(channel, 's', "sentPortalSuspended");
     }
@@ -21,6 +21,7 @@
 
 package io.crate.protocols.postgres;
 
+import java.io.OutputStream;
 import java.util.List;
 
 import org.jetbrains.annotations.Nullable;
@@ -28,6 +29,7 @@ import org.jetbrains.annotations.Nullable;
 import io.crate.session.PreparedStmt;
 import io.crate.session.RowConsumerToResultReceiver;
 import io.crate.analyze.AnalyzedStatement;
+import io.crate.execution.engine.collect.files.StdinIterator;
 
 public final class Portal {
 
@@ -40,6 +42,12 @@ public final class Portal {
 
     private RowConsumerToResultReceiver consumer;
 
+    @Nullable
+    private StdinIterator stdin;
+
+    @Nullable
+    private OutputStream stdout;
+
     public Portal(String portalName,
                   PreparedStmt preparedStmt,
                   List<Object> params,
@@ -86,6 +94,30 @@ public final class Portal {
         }
     }
 
+    /**
+     * Sets the client stream used by a {@code COPY ... FROM STDIN} statement
+     */
+    public void setStdin(StdinIterator stdin) {
+        this.stdin = stdin;
+    }
+
+    @Nullable
+    public StdinIterator stdin() {
+        return stdin;
+    }
+
+    /**
+     * Sets the client stream used by a {@code COPY ... TO STDOUT} statement
+     */
+    public void setStdout(OutputStream stdout) {
+        this.stdout = stdout;
+    }
+
+    @Nullable
+    public OutputStream stdout() {
+        return stdout;
+    }
+
     @Override
     public String toString() {
         return "Portal{" +
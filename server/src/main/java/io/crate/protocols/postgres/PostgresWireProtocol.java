@@ -56,6 +56,7 @@ import io.crate.auth.AuthenticationMethod;
 import io.crate.auth.Credentials;
 import io.crate.auth.Protocol;
 import io.crate.common.collections.Lists;
+import io.crate.execution.engine.collect.files.StdinIterator;
 import io.crate.expression.symbol.Literal;
 import io.crate.expression.symbol.Symbol;
 import io.crate.metadata.settings.CoordinatorSessionSettings;
@@ -71,6 +72,8 @@ import io.crate.session.ResultReceiver;
 import io.crate.session.Session;
 import io.crate.session.Sessions;
 import io.crate.sql.parser.SqlParser;
+import io.crate.sql.tree.CopyFrom;
+import io.crate.sql.tree.CopyTo;
 import io.crate.sql.tree.Statement;
 import io.crate.types.DataType;
 import io.netty.buffer.ByteBuf;
@@ -211,6 +214,18 @@ public class PostgresWireProtocol {
     private DelayableWriteChannel channel;
     Session session;
     private boolean ignoreTillSync = false;
+
+    /**
+     * Receives the CopyData messages of a running {@code COPY ... FROM STDIN}
+     */
+    @Nullable
+    private volatile StdinIterator copyIn;
+
+    /**
+     * Completed once the client ended the data of a {@code COPY ... FROM STDIN} with CopyDone or CopyFail
+     */
+    @Nullable
+    private volatile CompletableFuture<Void> copyInEnd;
     private AuthenticationContext authContext;
     private Properties properties;
 
@@ -364,6 +379,15 @@ public class PostgresWireProtocol {
                 case 'C':
                     handleClose(buffer, channel);
                     return;
+                case 'd':
+                    handleCopyData(buffer);
+                    return;
+                case 'c':
+                    handleCopyDone();
+                    return;
+                case 'f':
+                    handleCopyFail(buffer);
+                    return;
                 case 'X': // Terminate (called when jdbc connection is closed)
                     closeSession();
                     channel.close();
@@ -409,6 +433,8 @@ public class PostgresWireProtocol {
         public void channelUnregistered(ChannelHandlerContext ctx) throws Exception {
             LOGGER.trace("channelDisconnected");
             channel = null;
+            closeCopyIn();
+            endCopyIn();
             closeSession();
             super.channelUnregistered(ctx);
         }
@@ -818,6 +844,17 @@ public class PostgresWireProtocol {
             DescribeResult describeResult = session.describe('P', "");
             List<Symbol> fields = describeResult.getFields();
 
+            if (statement instanceof CopyFrom<?> copyFrom && copyFrom.isFromStdin()) {
+                Channel rawChannel = channel.bypassDelay();
+                StdinIterator stdin = new StdinIterator(autoRead -> rawChannel.config().setAutoRead(autoRead));
+                session.setCopyIn("", stdin);
+                copyIn = stdin;
+                copyInEnd = new CompletableFuture<>();
+                Messages.sendCopyInResponse(channel);
+            } else if (statement instanceof CopyTo<?> copyTo && copyTo.isToStdout()) {
+                session.setCopyOut("", new CopyOutStream(channel.bypassDelay()));
+                Messages.sendCopyOutResponse(channel);
+            }
             if (fields == null) {
                 DelayedWrites delayedWrites = channel.delayWrites();
                 RowCountReceiver rowCountReceiver = new RowCountReceiver(
@@ -841,15 +878,105 @@ public class PostgresWireProtocol {
                 );
                 session.execute("", 0, resultSetReceiver);
             }
-            return session.sync();
+            CompletableFuture<?> sync = session.sync();
+            if (copyIn != null) {
+                StdinIterator stdin = copyIn;
+                sync.whenComplete((ignored, err) -> {
+                    if (copyIn == stdin) {
+                        copyIn = null;
+                    }
+                    stdin.close();
+                    // If the statement failed early the client is still sending CopyData which is discarded.
+                    // ReadyForQuery must not be sent before the client ended the copy.
+                    afterCopyInEnd(() -> {
+                        if (err == null) {
+                            result.complete(null);
+                        } else {
+                            result.completeExceptionally(err);
+                        }
+                    });
+                });
+                return result;
+            }
+            return sync;
         } catch (Throwable t) {
+            closeCopyIn();
             channel.discardDelayedWrites();
             Messages.sendErrorResponse(channel, accessControl, t);
-            result.completeExceptionally(t);
+            afterCopyInEnd(() -> result.completeExceptionally(t));
             return result;
         }
     }
 
+    private void afterCopyInEnd(Runnable runnable) {
+        CompletableFuture<Void> end = copyInEnd;
+        if (end == null) {
+            runnable.run();
+        } else {
+            end.whenComplete((ignored, err) -> {
+                copyInEnd = null;
+                runnable.run();
+            });
+        }
+    }
+
+    private void endCopyIn() {
+        CompletableFuture<Void> end = copyInEnd;
+        if (end != null) {
+            end.complete(null);
+        }
+    }
+
+    /**
+     * CopyData
+     * | 'd' | int32 len | byte[] data |
+     * <p>
+     * Data is dropped if there is no running {@code COPY ... FROM STDIN}, e.g. because it already failed.
+     */
+    private void handleCopyData(ByteBuf buffer) {
+        StdinIterator stdin = copyIn;
+        if (stdin == null) {
+            buffer.skipBytes(decoder.payloadLength());
+            return;
+        }
+        byte[] data = new byte[decoder.payloadLength()];
+        buffer.readBytes(data);
+        stdin.onData(data);
+    }
+
+    /**
+     * CopyDone
+     * | 'c' | int32 len |
+     */
+    private void handleCopyDone() {
+        StdinIterator stdin = copyIn;
+        if (stdin != null) {
+            stdin.onDone();
+        }
+        endCopyIn();
+    }
+
+    /**
+     * CopyFail
+     * | 'f' | int32 len | str message |
+     */
+    private void handleCopyFail(ByteBuf buffer) {
+        String message = readCString(buffer);
+        StdinIterator stdin = copyIn;
+        if (stdin != null) {
+            stdin.onFail(message);
+        }
+        endCopyIn();
+    }
+
+    private void closeCopyIn() {
+        StdinIterator stdin = copyIn;
+        if (stdin != null) {
+            copyIn = null;
+            stdin.close();
+        }
+    }
+
     private void handleCancelRequestBody(ByteBuf buffer, Channel channel) {
         var keyData = KeyData.of(buffer);
 
@@ -21,8 +21,10 @@
 
 package io.crate.session;
 
+import java.io.OutputStream;
 import java.net.InetAddress;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
@@ -30,6 +32,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
@@ -39,6 +43,7 @@ import org.apache.logging.log4j.Logger;
 import org.elasticsearch.cluster.ClusterState;
 import org.elasticsearch.common.Randomness;
 import org.elasticsearch.common.UUIDs;
+import org.elasticsearch.common.lease.Releasable;
 import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.VisibleForTesting;
 
@@ -62,10 +67,14 @@ import io.crate.data.Row;
 import io.crate.data.Row1;
 import io.crate.data.RowConsumer;
 import io.crate.data.RowN;
+import io.crate.exceptions.JobKilledException;
 import io.crate.exceptions.ReadOnlyException;
 import io.crate.exceptions.SQLExceptions;
 import io.crate.execution.dml.BulkResponse;
+import io.crate.execution.engine.collect.files.StdinIterator;
 import io.crate.execution.engine.collect.stats.JobsLogs;
+import io.crate.execution.jobs.ResourceGroup;
+import io.crate.execution.jobs.ResourceGroups;
 import io.crate.execution.jobs.kill.KillJobsNodeAction;
 import io.crate.execution.jobs.kill.KillJobsNodeRequest;
 import io.crate.expression.symbol.Symbol;
@@ -160,6 +169,8 @@ public class Session implements AutoCloseable {
     private final boolean isReadOnly;
     private final Runnable onClose;
     private final int tempErrorRetryCount;
+    private final ResourceGroups resourceGroups;
+    private final ConcurrentMap<UUID, CompletableFuture<Releasable>> queuedStatements = new ConcurrentHashMap<>();
 
     private TransactionState currentTransactionState = TransactionState.IDLE;
     private volatile String lastStmt;
@@ -176,7 +187,8 @@ public class Session implements AutoCloseable {
                    DependencyCarrier executor,
                    CoordinatorSessionSettings sessionSettings,
                    Runnable onClose,
-                   int tempErrorRetryCount) {
+                   int tempErrorRetryCount,
+                   ResourceGroups resourceGroups) {
         this.id = sessionId;
         this.connectionProperties = connectionProperties;
         this.timeCreated = System.currentTimeMillis();
@@ -189,6 +201,7 @@ public class Session implements AutoCloseable {
         this.sessionSettings = sessionSettings;
         this.onClose = onClose;
         this.tempErrorRetryCount = tempErrorRetryCount;
+        this.resourceGroups = resourceGroups;
     }
 
     public int id() {
@@ -252,7 +265,7 @@ public class Session implements AutoCloseable {
         );
         Plan plan;
         try {
-            plan = planner.plan(analyzedStatement, plannerContext);
+            plan = planner.plan(parsedStmt, List.of(), analyzedStatement, plannerContext);
         } catch (Throwable t) {
             jobsLogs.logPreExecutionFailure(jobId, statement, SQLExceptions.messageOf(t), sessionSettings.sessionUser());
             throw t;
@@ -281,7 +294,58 @@ public class Session implements AutoCloseable {
             );
         }
         RowConsumerToResultReceiver consumer = new RowConsumerToResultReceiver(resultReceiver, 0, jobsLogsUpdateListener);
-        plan.execute(executor, plannerContext, consumer, params, SubQueryResults.EMPTY);
+        execute(plan, plannerContext, consumer, params, resultReceiver.completionFuture());
+    }
+
+    /**
+     * Executes the plan once it is admitted by the resource group of the session user.
+     * Only SELECT statements of user sessions are subject to admission control.
+     *
+     * @param result completes once the statement finished and releases its slot in the resource group
+     */
+    private void execute(Plan plan,
+                         PlannerContext plannerContext,
+                         RowConsumer consumer,
+                         Row params,
+                         CompletableFuture<?> result) {
+        if (isSystemSession() || plan.type() != Plan.StatementType.SELECT) {
+            plan.execute(executor, plannerContext, consumer, params, SubQueryResults.EMPTY);
+            return;
+        }
+        ResourceGroup group = resourceGroups.resolve(sessionSettings.sessionUser());
+        UUID jobId = plannerContext.jobId();
+        CompletableFuture<Releasable> admission = resourceGroups.admit(group);
+        if (!admission.isDone()) {
+            queuedStatements.put(jobId, admission);
+        }
+        admission.whenComplete((permit, err) -> {
+            queuedStatements.remove(jobId, admission);
+            if (err == null) {
+                if (result.isDone()) {
+                    // Client went away while the statement was queued
+                    permit.close();
+                    return;
+                }
+                result.whenComplete((ignored, ignoredErr) -> permit.close());
+                plan.execute(executor, plannerContext, consumer, params, SubQueryResults.EMPTY);
+            } else {
+                consumer.accept(null, err);
+            }
+        });
+    }
+
+    /**
+     * Cancels statements waiting for admission by their resource group. They
+     * have no job yet, which could be killed.
+     *
+     * @param jobId the job of the statement to cancel, null to cancel all queued statements.
+     */
+    private void cancelQueuedStatements(@Nullable UUID jobId, String reason) {
+        for (var entry : queuedStatements.entrySet()) {
+            if (jobId == null || jobId.equals(entry.getKey())) {
+                resourceGroups.cancel(entry.getValue(), JobKilledException.of(reason));
+            }
+        }
     }
 
     private void retryQuery(UUID jobId,
@@ -604,11 +668,13 @@ public class Session implements AutoCloseable {
             if (result.isDone()) {
                 return;
             }
+            String reason = "statement_timeout (" + TimeValue.timeValueMillis(timeoutMillis).toString() + ")";
+            cancelQueuedStatements(jobId, reason);
             KillJobsNodeRequest request = new KillJobsNodeRequest(
                 List.of(),
                 List.of(jobId),
                 sessionSettings.userName(),
-                "statement_timeout (" + TimeValue.timeValueMillis(timeoutMillis).toString() + ")"
+                reason
             );
             executor.client().execute(KillJobsNodeAction.INSTANCE, request);
         };
@@ -677,7 +743,12 @@ public class Session implements AutoCloseable {
 
         Plan plan;
         try {
-            plan = planner.plan(analyzedStatement, plannerContext);
+            plan = planner.plan(
+                firstPreparedStatement.parsedStatement(),
+                Arrays.asList(firstPreparedStatement.parameterTypes()),
+                analyzedStatement,
+                plannerContext
+            );
         } catch (Throwable t) {
             jobsLogs.logPreExecutionFailure(
                 jobId,
@@ -763,7 +834,12 @@ public class Session implements AutoCloseable {
         }
         Plan plan;
         try {
-            plan = planner.plan(analyzedStmt, plannerContext);
+            plan = planner.plan(
+                portal.preparedStmt().parsedStatement(),
+                Arrays.asList(portal.preparedStmt().parameterTypes()),
+                analyzedStmt,
+                plannerContext
+            );
         } catch (Throwable t) {
             jobsLogs.logPreExecutionFailure(jobId, rawStatement, SQLExceptions.messageOf(t), sessionSettings.sessionUser());
             throw t;
@@ -793,8 +869,19 @@ public class Session implements AutoCloseable {
         RowConsumerToResultReceiver consumer = new RowConsumerToResultReceiver(
             resultReceiver, maxRows, new JobsLogsUpdateListener(jobId, jobsLogs));
         portal.setActiveConsumer(consumer);
-        plan.execute(executor, plannerContext, consumer, params, SubQueryResults.EMPTY);
+        StdinIterator stdin = portal.stdin();
+        OutputStream stdout = portal.stdout();
+        if (stdin != null) {
+            executor.stdStreams().registerStdin(jobId, stdin);
+        }
+        if (stdout != null) {
+            executor.stdStreams().registerStdout(jobId, stdout);
+        }
         CompletableFuture<?> result = resultReceiver.completionFuture();
+        if (stdin != null || stdout != null) {
+            result.whenComplete((ignored, err) -> executor.stdStreams().remove(jobId));
+        }
+        execute(plan, plannerContext, consumer, params, result);
         addStatementTimeout(result);
         return result;
     }
@@ -810,6 +897,20 @@ public class Session implements AutoCloseable {
         return null;
     }
 
+    /**
+     * Provides the data sent by the client for a {@code COPY ... FROM STDIN} statement bound to the portal.
+     */
+    public void setCopyIn(String portalName, StdinIterator stdin) {
+        getSafePortal(portalName).setStdin(stdin);
+    }
+
+    /**
+     * Provides the stream to the client for a {@code COPY ... TO STDOUT} statement bound to the portal.
+     */
+    public void setCopyOut(String portalName, OutputStream stdout) {
+        getSafePortal(portalName).setStdout(stdout);
+    }
+
     public String getQuery(String portalName) {
         return getSafePortal(portalName).preparedStmt().rawStatement();
     }
@@ -893,6 +994,7 @@ public class Session implements AutoCloseable {
         portals.clear();
         preparedStatements.clear();
         cursors.close(c -> true);
+        cancelQueuedStatements(null, "Session closed");
         onClose.run();
     }
 
@@ -920,6 +1022,8 @@ public class Session implements AutoCloseable {
     }
 
     public void cancelCurrentJob() {
+        String reason = "Cancellation request by: " + sessionSettings.userName();
+        cancelQueuedStatements(null, reason);
         if (mostRecentJobID == null) {
             return;
         }
@@ -927,7 +1031,7 @@ public class Session implements AutoCloseable {
             List.of(),
             List.of(mostRecentJobID),
             sessionSettings.userName(),
-            "Cancellation request by: " + sessionSettings.userName()
+            reason
         );
         executor.client().execute(KillJobsNodeAction.INSTANCE, request);
         resetDeferredExecutions();
@@ -36,12 +36,14 @@ import org.elasticsearch.common.settings.ClusterSettings;
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Setting.Property;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.NodeDisconnectedException;
 import org.jetbrains.annotations.Nullable;
 
 import io.crate.analyze.Analyzer;
 import io.crate.common.unit.TimeValue;
 import io.crate.execution.engine.collect.stats.JobsLogs;
+import io.crate.execution.jobs.ResourceGroups;
 import io.crate.execution.jobs.transport.CancelRequest;
 import io.crate.execution.jobs.transport.TransportCancelAction;
 import io.crate.metadata.NodeContext;
@@ -105,6 +107,7 @@ public class Sessions {
     private final AtomicInteger nextSessionId = new AtomicInteger();
     private final ConcurrentMap<Integer, Session> sessions = new ConcurrentHashMap<>();
     private final int tempErrorRetryCount;
+    private final ResourceGroups resourceGroups;
 
     private volatile boolean disabled;
     private volatile TimeValue defaultStatementTimeout;
@@ -130,6 +133,12 @@ public class Sessions {
         this.memoryLimit = MEMORY_LIMIT.get(settings);
         this.tempErrorRetryCount = TEMP_ERROR_RETRY_COUNT.get(settings);
         ClusterSettings clusterSettings = clusterService.getClusterSettings();
+        this.resourceGroups = new ResourceGroups(
+            settings,
+            clusterSettings,
+            nodeCtx.roles(),
+            command -> executorProvider.get().threadPool().executor(ThreadPool.Names.SEARCH).execute(command)
+        );
         clusterSettings.addSettingsUpdateConsumer(STATEMENT_TIMEOUT, statementTimeout -> {
             this.defaultStatementTimeout = statementTimeout;
         });
@@ -155,7 +164,8 @@ public class Sessions {
             executorProvider.get(),
             sessionSettings,
             () -> sessions.remove(sessionId),
-            tempErrorRetryCount
+            tempErrorRetryCount,
+            resourceGroups
         );
         sessions.put(sessionId, session);
         return session;
@@ -181,6 +191,9 @@ public class Sessions {
         }
         sessionSettings.statementTimeout(defaultStatementTimeout);
         sessionSettings.memoryLimit(memoryLimit);
+        // Resolved on each use to follow changes of the groups and of the session user
+        CoordinatorSessionSettings settings = sessionSettings;
+        settings.groupMemoryLimit(() -> resourceGroups.resolve(settings.sessionUser()).operationMemoryLimit());
 
         for (Map.Entry<String, Object> entry : authenticatedUser.sessionSettings().entrySet()) {
             SessionSetting<?> setting = sessionSettingRegistry.settings().get(entry.getKey());
@@ -245,6 +258,10 @@ public class Sessions {
         return sessions.values();
     }
 
+    public ResourceGroups resourceGroups() {
+        return resourceGroups;
+    }
+
     public Iterable<Cursor> getCursors(Role user) {
         return () -> sessions.values().stream()
             .filter(session ->
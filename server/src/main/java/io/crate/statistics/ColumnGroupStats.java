@@ -0,0 +1,142 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.statistics;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
+
+import io.crate.metadata.ColumnIdent;
+
+/**
+ * Statistics about the combined values of a group of columns, used to estimate
+ * the selectivity of predicates on correlated columns.
+ *
+ * <p>
+ * Column groups are opt-in via the {@link #COLUMN_GROUPS_SETTING} table
+ * setting and collected by {@code ANALYZE}.
+ * </p>
+ */
+public final class ColumnGroupStats implements Writeable {
+
+    /**
+     * Groups of columns separated by {@code ;}, columns of a group separated by {@code ,}
+     * E.g. {@code 'city, zip; country, city'}
+     */
+    public static final Setting<String> COLUMN_GROUPS_SETTING = Setting.simpleString(
+        "index.statistics.column_groups",
+        ColumnGroupStats::parse,
+        Property.IndexScope,
+        Property.Dynamic
+    );
+
+    private final List<ColumnIdent> columns;
+    private final double approxDistinct;
+
+    public ColumnGroupStats(List<ColumnIdent> columns, double approxDistinct) {
+        this.columns = columns;
+        this.approxDistinct = approxDistinct;
+    }
+
+    public ColumnGroupStats(StreamInput in) throws IOException {
+        this.columns = in.readList(ColumnIdent::of);
+        this.approxDistinct = in.readDouble();
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeList(columns);
+        out.writeDouble(approxDistinct);
+    }
+
+    public List<ColumnIdent> columns() {
+        return columns;
+    }
+
+    /**
+     * Approximate number of distinct value combinations of the columns.
+     * NULL values are counted as a value.
+     */
+    public double approxDistinct() {
+        return approxDistinct;
+    }
+
+    public static List<List<ColumnIdent>> parse(String value) {
+        List<List<ColumnIdent>> groups = new ArrayList<>();
+        if (value == null || value.isBlank()) {
+            return groups;
+        }
+        for (String group : value.split(";")) {
+            if (group.isBlank()) {
+                continue;
+            }
+            List<ColumnIdent> columns = new ArrayList<>();
+            for (String column : group.split(",")) {
+                String path = column.strip();
+                if (path.isEmpty()) {
+                    throw new IllegalArgumentException(
+                        "Invalid column group `" + group.strip() + "` in `" + COLUMN_GROUPS_SETTING.getKey() + "`");
+                }
+                ColumnIdent ident = ColumnIdent.fromPath(path);
+                if (!columns.contains(ident)) {
+                    columns.add(ident);
+                }
+            }
+            if (columns.size() < 2) {
+                throw new IllegalArgumentException(
+                    "Column group `" + group.strip() + "` in `" + COLUMN_GROUPS_SETTING.getKey() +
+                    "` must contain at least two columns");
+            }
+            groups.add(columns);
+        }
+        return groups;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        ColumnGroupStats that = (ColumnGroupStats) o;
+        return Double.compare(that.approxDistinct, approxDistinct) == 0 && columns.equals(that.columns);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * columns.hashCode() + Double.hashCode(approxDistinct);
+    }
+
+    @Override
+    public String toString() {
+        return "ColumnGroupStats{columns=" + columns + ", approxDistinct=" + approxDistinct + '}';
+    }
+}
@@ -38,10 +38,22 @@ public final class FetchSampleRequest extends TransportRequest {
 
     private final RelationName relationName;
     private final List<Reference> columns;
+    private final List<List<Integer>> columnGroups;
 
     public FetchSampleRequest(RelationName relationName, List<Reference> columns, Version nodeVersion) {
+        this(relationName, columns, List.of(), nodeVersion);
+    }
+
+    /**
+     * @param columnGroups groups of columns to sample combined, as positions in {@code columns}
+     */
+    public FetchSampleRequest(RelationName relationName,
+                              List<Reference> columns,
+                              List<List<Integer>> columnGroups,
+                              Version nodeVersion) {
         this.relationName = relationName;
         this.columns = columns;
+        this.columnGroups = columnGroups;
         if (nodeVersion.before(Version.V_5_7_0)) {
             throw new UnsupportedOperationException("Cannot run ANALYZE request in a mixed cluster with nodes older than 5.7.0");
         }
@@ -60,6 +72,20 @@ public final class FetchSampleRequest extends TransportRequest {
         for (int i = 0; i < numColumns; i++) {
             columns.add(Reference.fromStream(in));
         }
+        if (in.getVersion().onOrAfter(Version.V_5_10_0)) {
+            int numGroups = in.readVInt();
+            this.columnGroups = new ArrayList<>(numGroups);
+            for (int i = 0; i < numGroups; i++) {
+                int numGroupColumns = in.readVInt();
+                List<Integer> group = new ArrayList<>(numGroupColumns);
+                for (int j = 0; j < numGroupColumns; j++) {
+                    group.add(in.readVInt());
+                }
+                columnGroups.add(group);
+            }
+        } else {
+            this.columnGroups = List.of();
+        }
     }
 
     @Override
@@ -72,6 +98,15 @@ public final class FetchSampleRequest extends TransportRequest {
         for (Reference column : columns) {
             Reference.toStream(out, column);
         }
+        if (out.getVersion().onOrAfter(Version.V_5_10_0)) {
+            out.writeVInt(columnGroups.size());
+            for (List<Integer> group : columnGroups) {
+                out.writeVInt(group.size());
+                for (int pos : group) {
+                    out.writeVInt(pos);
+                }
+            }
+        }
     }
 
     public RelationName relation() {
@@ -82,9 +117,13 @@ public final class FetchSampleRequest extends TransportRequest {
         return columns;
     }
 
+    public List<List<Integer>> columnGroups() {
+        return columnGroups;
+    }
+
     @Override
     public int hashCode() {
-        return Objects.hash(relationName, columns);
+        return Objects.hash(relationName, columns, columnGroups);
     }
 
     @Override
@@ -98,6 +137,8 @@ public final class FetchSampleRequest extends TransportRequest {
         if (!(obj instanceof FetchSampleRequest other)) {
             return false;
         }
-        return relationName.equals(other.relation()) && columns.equals(other.columns());
+        return relationName.equals(other.relation())
+            && columns.equals(other.columns())
+            && columnGroups.equals(other.columnGroups());
     }
 }
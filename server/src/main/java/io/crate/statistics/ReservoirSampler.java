@@ -29,6 +29,7 @@ import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.TimeUnit;
 import java.util.function.IntFunction;
 import java.util.stream.Collectors;
 
@@ -58,6 +59,7 @@ import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.index.engine.Engine;
 import org.elasticsearch.index.shard.IllegalIndexShardStateException;
 import org.elasticsearch.index.shard.IndexShard;
+import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.indices.IndicesService;
 import org.elasticsearch.indices.breaker.CircuitBreakerService;
 import org.elasticsearch.indices.breaker.HierarchyCircuitBreakerService;
@@ -93,6 +95,7 @@ public final class ReservoirSampler {
     private final CircuitBreakerService circuitBreakerService;
     private final Schemas schemas;
     private final IndicesService indicesService;
+    private final ShardSampleCache shardSampleCache;
 
     private final RateLimiter rateLimiter;
 
@@ -101,11 +104,13 @@ public final class ReservoirSampler {
                             CircuitBreakerService circuitBreakerService,
                             NodeContext nodeContext,
                             IndicesService indicesService,
+                            ShardSampleCache shardSampleCache,
                             Settings settings) {
         this(clusterService,
              circuitBreakerService,
              nodeContext,
              indicesService,
+             shardSampleCache,
              new RateLimiter.SimpleRateLimiter(STATS_SERVICE_THROTTLING_SETTING.get(settings).getMbFrac())
         );
     }
@@ -115,11 +120,13 @@ public final class ReservoirSampler {
                      CircuitBreakerService circuitBreakerService,
                      NodeContext nodeContext,
                      IndicesService indicesService,
+                     ShardSampleCache shardSampleCache,
                      RateLimiter rateLimiter) {
         this.clusterService = clusterService;
         this.circuitBreakerService = circuitBreakerService;
         this.schemas = nodeContext.schemas();
         this.indicesService = indicesService;
+        this.shardSampleCache = shardSampleCache;
         this.rateLimiter = rateLimiter;
 
         clusterService.getClusterSettings().addSettingsUpdateConsumer(
@@ -130,7 +137,7 @@ public final class ReservoirSampler {
         rateLimiter.setMBPerSec(newReadLimit.getMbFrac()); // mbPerSec is volatile in SimpleRateLimiter, one volatile write
     }
 
-    Samples getSamples(RelationName relationName, List<Reference> columns) {
+    Samples getSamples(RelationName relationName, List<Reference> columns, List<List<Integer>> columnGroups) {
         TableInfo table;
         try {
             table = schemas.getTableInfo(relationName);
@@ -150,6 +157,7 @@ public final class ReservoirSampler {
         try (SketchRamAccounting rla = new SketchRamAccounting(ramAccounting, rateLimiter)) {
             return getSamples(
                 columns,
+                columnGroups,
                 docTable,
                 rla,
                 random,
@@ -161,6 +169,7 @@ public final class ReservoirSampler {
     }
 
     private Samples getSamples(List<Reference> columns,
+                               List<List<Integer>> columnGroups,
                                DocTableInfo docTable,
                                SketchRamAccounting ramAccounting,
                                Random random,
@@ -172,19 +181,18 @@ public final class ReservoirSampler {
                 columns.stream().map(r -> r.column().fqn()).collect(Collectors.joining(", ")));
         }
 
-        Reservoir fetchIdSamples = new Reservoir(random);
-        long totalNumDocs = 0;
-        long totalSizeInBytes = 0;
-
-        List<ColumnCollector<?>> columnCollectors = new ArrayList<>();
-        for (int i = 0; i < columns.size(); i++) {
-            columnCollectors.add(new ColumnCollector<>(ramAccounting, columns.get(i).valueType()));
+        List<ColumnSketchBuilder<?>> emptySketches = new ArrayList<>(columns.size());
+        for (Reference column : columns) {
+            emptySketches.add(column.valueType().columnStatsSupport().sketchBuilder());
         }
-
-        List<ShardExpressions> searchersToRelease = new ArrayList<>();
-
+        Samples result = new Samples(
+            emptySketches,
+            Lists.map(columnGroups, ignored -> DistinctValuesSketch.newSketch()),
+            0L,
+            0L
+        );
+        List<ShardExpressions> shardsToSample = new ArrayList<>();
         try {
-
             for (String index : docTable.concreteOpenIndices(metadata)) {
                 var indexMetadata = metadata.index(index);
                 if (indexMetadata == null) {
@@ -196,8 +204,7 @@ public final class ReservoirSampler {
                 }
 
                 String indexName = indexService.index().getName();
-                List<? extends LuceneCollectorExpression<?>> expressions
-                    = getCollectorExpressions(indexName, docTable, columns);
+                List<? extends LuceneCollectorExpression<?>> expressions = null;
 
                 for (IndexShard indexShard : indexService) {
                     ShardRouting routingEntry = indexShard.routingEntry();
@@ -205,33 +212,105 @@ public final class ReservoirSampler {
                         continue;
                     }
                     try {
+                        // Read before acquiring the searcher, modifications in between count towards the next sample
+                        long maxSeqNo = indexShard.seqNoStats().getMaxSeqNo();
+                        Samples cached = shardSampleCache.getIfCurrent(
+                            indexShard.shardId(), maxSeqNo, columns, columnGroups);
+                        if (cached != null) {
+                            result = Samples.merge(result, cached);
+                            continue;
+                        }
+                        if (expressions == null) {
+                            expressions = getCollectorExpressions(indexName, docTable, columns);
+                        }
+                        long sizeInBytes = indexShard.storeStats().getSizeInBytes();
                         Engine.Searcher searcher = indexShard.acquireSearcher("update-table-statistics");
-                        searchersToRelease.add(new ShardExpressions(indexShard, indexName, searcher, docTable, expressions));
-                        totalNumDocs += searcher.getIndexReader().numDocs();
-                        totalSizeInBytes += indexShard.storeStats().getSizeInBytes();
-                        // We do the sampling in 2 phases. First we get the docIds;
-                        // then we retrieve the column values for the sampled docIds.
-                        // we do this in 2 phases because the reservoir sampling might override previously seen
-                        // items and we want to avoid unnecessary disk-lookup
-                        sampleDocIds(fetchIdSamples, searchersToRelease.size() - 1, searcher);
+                        shardsToSample.add(new ShardExpressions(
+                            indexShard, indexName, searcher, docTable, expressions, maxSeqNo, sizeInBytes));
                     } catch (IllegalIndexShardStateException | AlreadyClosedException ignored) {
                     }
                 }
             }
 
-            var sampler = new ColumnSampler(columnCollectors, searchersToRelease::get);
+            long totalNumDocs = result.numTotalDocs();
+            for (var shard : shardsToSample) {
+                totalNumDocs += shard.searcher.getIndexReader().numDocs();
+            }
+            for (var shard : shardsToSample) {
+                Samples shardSamples = sampleShard(shard, columns, columnGroups, ramAccounting, random, totalNumDocs);
+                result = Samples.merge(result, shardSamples);
+            }
+            return result;
+        } finally {
+            for (var shard : shardsToSample) {
+                shard.searcher.close();
+            }
+        }
+    }
+
+    /**
+     * Samples a single shard and adds the samples to the {@link ShardSampleCache}.
+     *
+     * <p>
+     * Shards get a share of {@link Reservoir#NUM_SAMPLES} proportional to
+     * their share of documents, so that the merged samples of all shards of
+     * the table are equally weighted.
+     * </p>
+     */
+    private Samples sampleShard(ShardExpressions shard,
+                                List<Reference> columns,
+                                List<List<Integer>> columnGroups,
+                                SketchRamAccounting ramAccounting,
+                                Random random,
+                                long totalNumDocs) throws IOException {
+        ShardId shardId = shard.indexShard.shardId();
+        long startTime = System.nanoTime();
+        shardSampleCache.onSamplingStarted(shardId);
+        try {
+            int numDocs = shard.searcher.getIndexReader().numDocs();
+            int maxSamples = totalNumDocs == 0
+                ? 1
+                : (int) Math.max(1L, Math.ceil((double) Reservoir.NUM_SAMPLES * numDocs / totalNumDocs));
+            Reservoir fetchIdSamples = new Reservoir(maxSamples, random);
+            // We do the sampling in 2 phases. First we get the docIds;
+            // then we retrieve the column values for the sampled docIds.
+            // we do this in 2 phases because the reservoir sampling might override previously seen
+            // items and we want to avoid unnecessary disk-lookup
+            sampleDocIds(fetchIdSamples, 0, shard.searcher);
+
+            List<ColumnCollector<?>> columnCollectors = new ArrayList<>(columns.size());
+            for (Reference column : columns) {
+                columnCollectors.add(new ColumnCollector<>(ramAccounting, column.valueType()));
+            }
+            List<ColumnGroupCollector> groupCollectors = Lists.map(columnGroups, ColumnGroupCollector::new);
+            var sampler = new ColumnSampler(columnCollectors, groupCollectors, ignored -> shard);
             sampler.iterate(fetchIdSamples.samples());
 
-            List<ColumnSketchBuilder<?>> statsBuilders = new ArrayList<>();
+            List<ColumnSketchBuilder<?>> statsBuilders = new ArrayList<>(columnCollectors.size());
             for (var collector : columnCollectors) {
                 statsBuilders.add(collector.statsBuilder);
             }
-
-            return new Samples(statsBuilders, totalNumDocs, totalSizeInBytes);
-        } finally {
-            for (var shard : searchersToRelease) {
-                shard.searcher.close();
+            Samples samples = new Samples(
+                statsBuilders,
+                Lists.map(groupCollectors, x -> x.distinctSketch),
+                numDocs,
+                shard.sizeInBytes
+            );
+            if (sampler.isComplete()) {
+                shardSampleCache.put(
+                    shardId,
+                    columns,
+                    columnGroups,
+                    samples,
+                    shard.maxSeqNo,
+                    numDocs,
+                    sampler.rowsCollected,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime)
+                );
             }
+            return samples;
+        } finally {
+            shardSampleCache.onSamplingFinished(shardId);
         }
     }
 
@@ -279,11 +358,37 @@ public final class ReservoirSampler {
             this.expression = collector;
         }
 
-        void collect(int docId) {
+        T collect(int docId) {
             expression.setNextDocId(docId);
             T value = dataType.sanitizeValue(expression.value());
             ramAccounting.addBytes(dataType.valueBytes(value));
             statsBuilder.add(value);
+            return value;
+        }
+    }
+
+    /**
+     * Counts the distinct value combinations of a group of columns
+     */
+    private static class ColumnGroupCollector {
+
+        final List<Integer> columns;
+        final DistinctValuesSketch distinctSketch = DistinctValuesSketch.newSketch();
+        final StringBuilder key = new StringBuilder();
+
+        private ColumnGroupCollector(List<Integer> columns) {
+            this.columns = columns;
+        }
+
+        void collect(Object[] row) {
+            key.setLength(0);
+            for (int column : columns) {
+                Object value = row[column];
+                // Control characters as null marker and separator,
+                // so that ("a b", "c") and ("a", "b c") result in different keys
+                key.append(value == null ? "\u0000" : value.toString()).append('\u001f');
+            }
+            distinctSketch.update(key.toString());
         }
     }
 
@@ -291,7 +396,9 @@ public final class ReservoirSampler {
                                     String indexName,
                                     Engine.Searcher searcher,
                                     DocTableInfo tableInfo,
-                                    List<? extends LuceneCollectorExpression<?>> expressions) {
+                                    List<? extends LuceneCollectorExpression<?>> expressions,
+                                    long maxSeqNo,
+                                    long sizeInBytes) {
 
         void updateColumnCollectors(List<ColumnCollector<?>> collectors) {
             assert collectors.size() == expressions.size();
@@ -310,7 +417,9 @@ public final class ReservoirSampler {
     private static class ColumnSampler {
 
         final List<ColumnCollector<?>> collectors;
+        final List<ColumnGroupCollector> groupCollectors;
         final IntFunction<ShardExpressions> shardSupplier;
+        final Object[] row;
 
         ShardExpressions currentShard;
         ReaderContext currentLeafContext;
@@ -319,10 +428,13 @@ public final class ReservoirSampler {
 
         private ColumnSampler(
             List<ColumnCollector<?>> collectors,
+            List<ColumnGroupCollector> groupCollectors,
             IntFunction<ShardExpressions> shardSupplier
         ) {
             this.collectors = collectors;
+            this.groupCollectors = groupCollectors;
             this.shardSupplier = shardSupplier;
+            this.row = new Object[collectors.size()];
         }
 
         public final void iterate(LongArrayList ids) throws IOException {
@@ -356,6 +468,13 @@ public final class ReservoirSampler {
             }
         }
 
+        /**
+         * @return false if the circuit breaker stopped the sampling early
+         */
+        boolean isComplete() {
+            return rowsCollected == idCount;
+        }
+
         protected IndexReaderContext nextShard(int shardId) {
             currentShard = shardSupplier.apply(shardId);
             currentShard.updateColumnCollectors(collectors);
@@ -373,8 +492,11 @@ public final class ReservoirSampler {
 
         protected boolean collect(int doc) {
             try {
-                for (var collector : collectors) {
-                    collector.collect(doc);
+                for (int i = 0; i < collectors.size(); i++) {
+                    row[i] = collectors.get(i).collect(doc);
+                }
+                for (var groupCollector : groupCollectors) {
+                    groupCollector.collect(row);
                 }
                 rowsCollected++;
                 return true;
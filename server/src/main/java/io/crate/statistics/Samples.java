@@ -37,14 +37,23 @@ import io.crate.metadata.Reference;
 
 class Samples implements Writeable {
 
-    static final Samples EMPTY = new Samples(List.of(), 0L, 0L);
+    static final Samples EMPTY = new Samples(List.of(), List.of(), 0L, 0L);
 
     private final List<ColumnSketchBuilder<?>> columnSketches;
+    private final List<DistinctValuesSketch> columnGroupSketches;
     private final long numTotalDocs;
     private final long numTotalSizeInBytes;
 
     Samples(List<ColumnSketchBuilder<?>> columnSketches, long numTotalDocs, long numTotalSizeInBytes) {
+        this(columnSketches, List.of(), numTotalDocs, numTotalSizeInBytes);
+    }
+
+    Samples(List<ColumnSketchBuilder<?>> columnSketches,
+            List<DistinctValuesSketch> columnGroupSketches,
+            long numTotalDocs,
+            long numTotalSizeInBytes) {
         this.columnSketches = columnSketches;
+        this.columnGroupSketches = columnGroupSketches;
         this.numTotalDocs = numTotalDocs;
         this.numTotalSizeInBytes = numTotalSizeInBytes;
     }
@@ -65,6 +74,19 @@ class Samples implements Writeable {
             Reference ref = references.get(i);
             this.columnSketches.add(ref.valueType().columnStatsSupport().readSketchFrom(in));
         }
+        if (in.getVersion().onOrAfter(Version.V_5_10_0)) {
+            int numGroups = in.readVInt();
+            this.columnGroupSketches = new ArrayList<>(numGroups);
+            for (int i = 0; i < numGroups; i++) {
+                this.columnGroupSketches.add(DistinctValuesSketch.fromStream(in));
+            }
+        } else {
+            this.columnGroupSketches = List.of();
+        }
+    }
+
+    long numTotalDocs() {
+        return numTotalDocs;
     }
 
     @Override
@@ -77,6 +99,12 @@ class Samples implements Writeable {
         for (ColumnSketchBuilder<?> stats : columnSketches) {
             stats.writeTo(out);
         }
+        if (out.getVersion().onOrAfter(Version.V_5_10_0)) {
+            out.writeVInt(columnGroupSketches.size());
+            for (DistinctValuesSketch sketch : columnGroupSketches) {
+                out.writeByteArray(sketch.getSketch().toByteArray());
+            }
+        }
     }
 
     public static Samples merge(Samples s1, Samples s2) {
@@ -94,19 +122,45 @@ class Samples implements Writeable {
             var merged = s1.columnSketches.get(i).merge(s2.columnSketches.get(i));
             mergedColumns.add(merged);
         }
+        // Nodes before 5.10 don't sample column groups, the group stats would be incomplete
+        List<DistinctValuesSketch> mergedGroups = new ArrayList<>();
+        if (s1.columnGroupSketches.size() == s2.columnGroupSketches.size()) {
+            for (int i = 0; i < s1.columnGroupSketches.size(); i++) {
+                mergedGroups.add(s1.columnGroupSketches.get(i).merge(s2.columnGroupSketches.get(i)));
+            }
+        }
         return new Samples(
             mergedColumns,
+            mergedGroups,
             s1.numTotalDocs + s2.numTotalDocs,
             s1.numTotalSizeInBytes + s2.numTotalSizeInBytes
         );
     }
 
     public Stats createTableStats(List<Reference> primitiveColumns) {
+        return createTableStats(primitiveColumns, List.of());
+    }
+
+    /**
+     * @param columnGroups groups of the column stats, as positions in {@code primitiveColumns}.
+     */
+    public Stats createTableStats(List<Reference> primitiveColumns, List<List<Integer>> columnGroups) {
         Map<ColumnIdent, ColumnStats<?>> statsByColumn = HashMap.newHashMap(primitiveColumns.size());
         for (int i = 0; i < primitiveColumns.size(); i++) {
             Reference primitiveColumn = primitiveColumns.get(i);
             statsByColumn.put(primitiveColumn.column(), columnSketches.get(i).toStats());
         }
-        return new Stats(numTotalDocs, numTotalSizeInBytes, statsByColumn);
+        List<ColumnGroupStats> columnGroupStats = new ArrayList<>(columnGroupSketches.size());
+        if (columnGroupSketches.size() == columnGroups.size()) {
+            for (int i = 0; i < columnGroups.size(); i++) {
+                List<ColumnIdent> columns = new ArrayList<>();
+                for (int pos : columnGroups.get(i)) {
+                    columns.add(primitiveColumns.get(pos).column());
+                }
+                double approxDistinct = columnGroupSketches.get(i).getSketch().getEstimate();
+                columnGroupStats.add(new ColumnGroupStats(columns, approxDistinct));
+            }
+        }
+        return new Stats(numTotalDocs, numTotalSizeInBytes, statsByColumn, columnGroupStats);
     }
 }
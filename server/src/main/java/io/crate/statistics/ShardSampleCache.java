@@ -0,0 +1,288 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.statistics;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.lucene.store.AlreadyClosedException;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.index.IndexService;
+import org.elasticsearch.index.shard.IllegalIndexShardStateException;
+import org.elasticsearch.index.shard.IndexShard;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.indices.IndicesService;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.VisibleForTesting;
+
+import io.crate.metadata.Reference;
+
+/**
+ * Keeps the samples {@link ReservoirSampler} took from the primary shards of
+ * this node, so that {@code ANALYZE} only samples shards which have been
+ * modified considerably since their last sample.
+ *
+ * <p>
+ * Modifications are counted using the sequence numbers of a shard: Every
+ * insert, update and delete advances the max sequence number. A shard is
+ * sampled again once it has seen more than {@link #MIN_MODIFICATIONS} plus
+ * {@link #MODIFICATION_THRESHOLD_SETTING} times the number of documents it had
+ * at the time of the last sample. Changing the columns of a table invalidates
+ * the samples of its shards.
+ * </p>
+ *
+ * <p>
+ * Samples are kept in serialized form, as merging sketches mutates them. The
+ * cache is bounded by {@link #CACHE_SIZE_SETTING} and evicts the least recently
+ * used samples first.
+ * </p>
+ */
+@Singleton
+public class ShardSampleCache {
+
+    public static final Setting<Float> MODIFICATION_THRESHOLD_SETTING = Setting.floatSetting(
+        "stats.service.modification_threshold", 0.1f, 0.0f, Property.NodeScope, Property.Dynamic, Property.Exposed);
+
+    public static final Setting<ByteSizeValue> CACHE_SIZE_SETTING = Setting.memorySizeSetting(
+        "stats.service.cache_size", "1%", Property.NodeScope);
+
+    /**
+     * Avoids re-sampling small shards on every few writes, same as the
+     * base threshold of auto-analyze in PostgreSQL.
+     */
+    static final long MIN_MODIFICATIONS = 50;
+
+    public enum State {
+        SAMPLING,
+        CURRENT,
+        STALE
+    }
+
+    private record Entry(List<Reference> columns,
+                         List<List<Integer>> columnGroups,
+                         BytesReference samples,
+                         long maxSeqNo,
+                         long numDocs,
+                         int numSamples,
+                         long sampledAt,
+                         long durationMs,
+                         long numReused) {
+
+        Entry reused() {
+            return new Entry(
+                columns, columnGroups, samples, maxSeqNo, numDocs, numSamples, sampledAt, durationMs, numReused + 1);
+        }
+    }
+
+    /**
+     * Sampling state of a shard as exposed in {@code sys.shard_samples}.
+     * All values but {@code state} are null while a shard is sampled for the first time.
+     *
+     * @param modifications number of modifications since the sample was taken,
+     *                      null if the shard is no longer available on the node.
+     */
+    public record ShardSampleStats(ShardId shardId,
+                                   State state,
+                                   @Nullable Long numDocs,
+                                   @Nullable Integer numSamples,
+                                   @Nullable Long modifications,
+                                   @Nullable Long sizeInBytes,
+                                   @Nullable Long sampledAt,
+                                   @Nullable Long durationMs,
+                                   @Nullable Long numReused) {
+    }
+
+    private final IndicesService indicesService;
+    private final long maxSizeInBytes;
+
+    private volatile float modificationThreshold;
+
+    // All fields below are guarded by `this`
+    private final LinkedHashMap<ShardId, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<ShardId, Long> sampling = new HashMap<>();
+    private long sizeInBytes = 0;
+
+    @Inject
+    public ShardSampleCache(Settings settings, ClusterSettings clusterSettings, IndicesService indicesService) {
+        this.indicesService = indicesService;
+        this.maxSizeInBytes = CACHE_SIZE_SETTING.get(settings).getBytes();
+        this.modificationThreshold = MODIFICATION_THRESHOLD_SETTING.get(settings);
+        clusterSettings.addSettingsUpdateConsumer(MODIFICATION_THRESHOLD_SETTING, this::setModificationThreshold);
+    }
+
+    private void setModificationThreshold(float modificationThreshold) {
+        this.modificationThreshold = modificationThreshold;
+    }
+
+    @VisibleForTesting
+    boolean exceedsThreshold(long numDocs, long modifications) {
+        return modifications > MIN_MODIFICATIONS + modificationThreshold * numDocs;
+    }
+
+    /**
+     * @param maxSeqNo the max sequence number of the shard before acquiring
+     *                 the searcher used to sample it.
+     * @return the cached samples of the shard, or null if the shard must be
+     *         sampled because it has no samples of the columns or too many
+     *         modifications.
+     */
+    @Nullable
+    Samples getIfCurrent(ShardId shardId,
+                         long maxSeqNo,
+                         List<Reference> columns,
+                         List<List<Integer>> columnGroups) {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(shardId);
+            if (entry == null
+                || !entry.columns.equals(columns)
+                || !entry.columnGroups.equals(columnGroups)
+                || exceedsThreshold(entry.numDocs, maxSeqNo - entry.maxSeqNo)) {
+                return null;
+            }
+            entries.put(shardId, entry.reused());
+        }
+        try (StreamInput in = entry.samples.streamInput()) {
+            return new Samples(columns, in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    synchronized void onSamplingStarted(ShardId shardId) {
+        sampling.put(shardId, System.currentTimeMillis());
+    }
+
+    synchronized void onSamplingFinished(ShardId shardId) {
+        sampling.remove(shardId);
+    }
+
+    void put(ShardId shardId,
+             List<Reference> columns,
+             List<List<Integer>> columnGroups,
+             Samples samples,
+             long maxSeqNo,
+             long numDocs,
+             int numSamples,
+             long durationMs) {
+        BytesReference bytes;
+        try (BytesStreamOutput out = new BytesStreamOutput()) {
+            samples.writeTo(out);
+            bytes = out.bytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (bytes.length() > maxSizeInBytes) {
+            return;
+        }
+        Entry entry = new Entry(
+            columns, columnGroups, bytes, maxSeqNo, numDocs, numSamples, System.currentTimeMillis(), durationMs, 0L);
+        synchronized (this) {
+            Entry previous = entries.put(shardId, entry);
+            if (previous != null) {
+                sizeInBytes -= previous.samples.length();
+            }
+            sizeInBytes += bytes.length();
+            Iterator<Entry> it = entries.values().iterator();
+            while (sizeInBytes > maxSizeInBytes && it.hasNext()) {
+                sizeInBytes -= it.next().samples.length();
+                it.remove();
+            }
+        }
+    }
+
+    @VisibleForTesting
+    synchronized long sizeInBytes() {
+        return sizeInBytes;
+    }
+
+    public List<ShardSampleStats> stats() {
+        Map<ShardId, Entry> entriesCopy;
+        Map<ShardId, Long> samplingCopy;
+        synchronized (this) {
+            entriesCopy = new HashMap<>(entries);
+            samplingCopy = new HashMap<>(sampling);
+        }
+        List<ShardSampleStats> result = new ArrayList<>(entriesCopy.size() + samplingCopy.size());
+        for (var e : entriesCopy.entrySet()) {
+            ShardId shardId = e.getKey();
+            Entry entry = e.getValue();
+            Long maxSeqNo = maxSeqNo(shardId);
+            Long modifications = maxSeqNo == null ? null : maxSeqNo - entry.maxSeqNo;
+            State state;
+            if (samplingCopy.remove(shardId) != null) {
+                state = State.SAMPLING;
+            } else if (modifications == null || exceedsThreshold(entry.numDocs, modifications)) {
+                state = State.STALE;
+            } else {
+                state = State.CURRENT;
+            }
+            result.add(new ShardSampleStats(
+                shardId,
+                state,
+                entry.numDocs,
+                entry.numSamples,
+                modifications,
+                (long) entry.samples.length(),
+                entry.sampledAt,
+                entry.durationMs,
+                entry.numReused
+            ));
+        }
+        for (ShardId shardId : samplingCopy.keySet()) {
+            result.add(new ShardSampleStats(shardId, State.SAMPLING, null, null, null, null, null, null, null));
+        }
+        return result;
+    }
+
+    @Nullable
+    private Long maxSeqNo(ShardId shardId) {
+        IndexService indexService = indicesService.indexService(shardId.getIndex());
+        if (indexService == null) {
+            return null;
+        }
+        IndexShard indexShard = indexService.getShardOrNull(shardId.id());
+        if (indexShard == null) {
+            return null;
+        }
+        try {
+            return indexShard.seqNoStats().getMaxSeqNo();
+        } catch (IllegalIndexShardStateException | AlreadyClosedException e) {
+            return null;
+        }
+    }
+}
@@ -27,12 +27,14 @@ import java.util.List;
 import java.util.Map;
 
 import org.apache.lucene.util.RamUsageEstimator;
+import org.elasticsearch.Version;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
 import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.VisibleForTesting;
 
+import io.crate.common.collections.Lists;
 import io.crate.common.collections.Maps;
 import io.crate.expression.symbol.AliasSymbol;
 import io.crate.expression.symbol.ScopedSymbol;
@@ -52,17 +54,27 @@ public class Stats implements Writeable {
     final long sizeInBytes;
 
     private final Map<ColumnIdent, ColumnStats<?>> statsByColumn;
+    private final List<ColumnGroupStats> columnGroupStats;
 
     private Stats() {
         numDocs = -1;
         sizeInBytes = -1;
         statsByColumn = Map.of();
+        columnGroupStats = List.of();
     }
 
     public Stats(long numDocs, long sizeInBytes, Map<ColumnIdent, ColumnStats<?>> statsByColumn) {
+        this(numDocs, sizeInBytes, statsByColumn, List.of());
+    }
+
+    public Stats(long numDocs,
+                 long sizeInBytes,
+                 Map<ColumnIdent, ColumnStats<?>> statsByColumn,
+                 List<ColumnGroupStats> columnGroupStats) {
         this.numDocs = numDocs;
         this.sizeInBytes = sizeInBytes;
         this.statsByColumn = statsByColumn;
+        this.columnGroupStats = columnGroupStats;
     }
 
     public Stats(StreamInput in) throws IOException {
@@ -73,6 +85,11 @@ public class Stats implements Writeable {
         for (int i = 0; i < numColumnStats; i++) {
             statsByColumn.put(ColumnIdent.of(in), new ColumnStats<>(in));
         }
+        if (in.getVersion().onOrAfter(Version.V_5_10_0)) {
+            this.columnGroupStats = in.readList(ColumnGroupStats::new);
+        } else {
+            this.columnGroupStats = List.of();
+        }
     }
 
     @Override
@@ -84,6 +101,9 @@ public class Stats implements Writeable {
             entry.getKey().writeTo(out);
             entry.getValue().writeTo(out);
         }
+        if (out.getVersion().onOrAfter(Version.V_5_10_0)) {
+            out.writeList(columnGroupStats);
+        }
     }
 
     public boolean isEmpty() {
@@ -93,9 +113,9 @@ public class Stats implements Writeable {
     public Stats withNumDocs(long numDocs) {
         long sizePerRow = averageSizePerRowInBytes();
         if (sizePerRow < 1) {
-            return new Stats(numDocs, -1, statsByColumn);
+            return new Stats(numDocs, -1, statsByColumn, columnGroupStats);
         } else {
-            return new Stats(numDocs, sizePerRow * numDocs, statsByColumn);
+            return new Stats(numDocs, sizePerRow * numDocs, statsByColumn, columnGroupStats);
         }
     }
 
@@ -107,7 +127,8 @@ public class Stats implements Writeable {
             sizeInBytes == -1 || other.sizeInBytes == -1
                 ? -1
                 : sizeInBytes + other.sizeInBytes,
-            Maps.concat(statsByColumn, other.statsByColumn)
+            Maps.concat(statsByColumn, other.statsByColumn),
+            Lists.concat(columnGroupStats, other.columnGroupStats)
         );
     }
 
@@ -138,6 +159,10 @@ public class Stats implements Writeable {
         return statsByColumn.get(column);
     }
 
+    public List<ColumnGroupStats> columnGroupStats() {
+        return columnGroupStats;
+    }
+
     public long estimateSizeForColumns(List<Symbol> toCollect) {
         long sum = 0L;
         for (int i = 0; i < toCollect.size(); i++) {
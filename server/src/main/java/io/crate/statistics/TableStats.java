@@ -33,9 +33,18 @@ import java.util.Set;
 public class TableStats {
 
     private volatile Map<RelationName, Stats> tableStats = new HashMap<>();
+    private volatile long version = 0;
 
     public void updateTableStats(Map<RelationName, Stats> tableStats) {
         this.tableStats = tableStats;
+        version++;
+    }
+
+    /**
+     * Returns a number which changes whenever the statistics are updated
+     */
+    public long version() {
+        return version;
     }
 
     /**
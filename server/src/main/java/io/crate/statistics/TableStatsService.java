@@ -46,6 +46,11 @@ import io.crate.data.Row;
 
 /**
  * Periodically refresh {@link TableStats} based on {@link #refreshInterval}.
+ *
+ * <p>
+ * The refresh is incremental: Nodes re-use the samples of shards which haven't
+ * been modified considerably since the last run, see {@link ShardSampleCache}.
+ * </p>
  */
 @Singleton
 public class TableStatsService implements Runnable {
@@ -53,7 +58,7 @@ public class TableStatsService implements Runnable {
     private static final Logger LOGGER = LogManager.getLogger(TableStatsService.class);
 
     public static final Setting<TimeValue> STATS_SERVICE_REFRESH_INTERVAL_SETTING = Setting.timeSetting(
-        "stats.service.interval", TimeValue.timeValueHours(24), Property.NodeScope, Property.Dynamic, Property.Exposed);
+        "stats.service.interval", TimeValue.timeValueHours(1), Property.NodeScope, Property.Dynamic, Property.Exposed);
 
     public static final Setting<ByteSizeValue> STATS_SERVICE_THROTTLING_SETTING = Setting.byteSizeSetting(
         "stats.service.max_bytes_per_sec", new ByteSizeValue(40, ByteSizeUnit.MB), Property.NodeScope, Property.Dynamic, Property.Exposed);
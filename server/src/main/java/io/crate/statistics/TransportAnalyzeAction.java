@@ -41,11 +41,14 @@ import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.inject.Singleton;
 import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.TransportService;
+import org.jetbrains.annotations.VisibleForTesting;
 
 import io.crate.action.FutureActionListener;
+import io.crate.common.collections.Lists;
 import io.crate.common.concurrent.CompletableFutures;
 import io.crate.execution.support.MultiActionListener;
 import io.crate.execution.support.NodeActionRequestHandler;
+import io.crate.metadata.ColumnIdent;
 import io.crate.metadata.NodeContext;
 import io.crate.metadata.Reference;
 import io.crate.metadata.RelationName;
@@ -95,7 +98,7 @@ public final class TransportAnalyzeAction {
 
                     if (previous == null) {
                         newSamples.completeAsync(
-                            () -> reservoirSampler.getSamples(req.relation(), req.columns()),
+                            () -> reservoirSampler.getSamples(req.relation(), req.columns(), req.columnGroups()),
                             executor
                         );
                         return newSamples
@@ -135,17 +138,40 @@ public final class TransportAnalyzeAction {
                     .filter(x -> DataTypes.isPrimitive(x.valueType()))
                     .map(x -> table.getReadReference(x.column()))
                     .toList();
+                List<List<Integer>> columnGroups = columnGroups(table, primitiveColumns);
 
                 futures.add(fetchSamples(
                     table.ident(),
-                    primitiveColumns
-                ).thenApply(samples -> Map.entry(table.ident(), samples.createTableStats(primitiveColumns))));
+                    primitiveColumns,
+                    columnGroups
+                ).thenApply(samples -> Map.entry(
+                    table.ident(),
+                    samples.createTableStats(primitiveColumns, columnGroups))
+                ));
             }
         }
         return CompletableFutures.allAsList(futures)
             .thenCompose(entries -> publishTableStats(Map.ofEntries(entries.toArray(new Map.Entry[0]))));
     }
 
+    /**
+     * Resolves the {@link ColumnGroupStats#COLUMN_GROUPS_SETTING} of the table to positions in {@code columns}.
+     * Groups with columns which don't exist (anymore) or which aren't sampled are skipped.
+     */
+    @VisibleForTesting
+    static List<List<Integer>> columnGroups(TableInfo table, List<Reference> columns) {
+        String setting = ColumnGroupStats.COLUMN_GROUPS_SETTING.get(table.parameters());
+        List<ColumnIdent> sampledColumns = Lists.map(columns, Reference::column);
+        List<List<Integer>> result = new ArrayList<>();
+        for (List<ColumnIdent> group : ColumnGroupStats.parse(setting)) {
+            List<Integer> positions = Lists.map(group, sampledColumns::indexOf);
+            if (!positions.contains(-1)) {
+                result.add(positions);
+            }
+        }
+        return result;
+    }
+
     private CompletableFuture<AcknowledgedResponse> publishTableStats(Map<RelationName, Stats> newTableStats) {
         DiscoveryNodes discoveryNodes = clusterService.state().nodes();
         var listener = new FutureActionListener<AcknowledgedResponse>();
@@ -169,7 +195,9 @@ public final class TransportAnalyzeAction {
         return listener;
     }
 
-    private CompletableFuture<Samples> fetchSamples(RelationName relationName, List<Reference> columns) {
+    private CompletableFuture<Samples> fetchSamples(RelationName relationName,
+                                                    List<Reference> columns,
+                                                    List<List<Integer>> columnGroups) {
         FutureActionListener<FetchSampleResponse> listener = new FutureActionListener<>();
         DiscoveryNodes discoveryNodes = clusterService.state().nodes();
         MultiActionListener<FetchSampleResponse, ?, FetchSampleResponse> multiListener = new MultiActionListener<>(
@@ -188,7 +216,7 @@ public final class TransportAnalyzeAction {
             transportService.sendRequest(
                 node,
                 FETCH_SAMPLES,
-                new FetchSampleRequest(relationName, columns, node.getVersion()),
+                new FetchSampleRequest(relationName, columns, columnGroups, node.getVersion()),
                 responseHandler
             );
         }
@@ -44,6 +44,11 @@
  *
  *       ReservoirSampler
  *          - Contains logic to get sample rows of a table
+ *          - samples each primary shard separately
+ *
+ *       ShardSampleCache
+ *          - Keeps the samples of shards, ReservoirSampler only samples shards
+ *            with more modifications than stats.service.modification_threshold
  *
  *
  *       TableStats
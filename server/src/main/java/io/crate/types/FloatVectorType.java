@@ -25,6 +25,7 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -53,9 +54,13 @@ public class FloatVectorType extends DataType<float[]> implements Streamer<float
 
     public static final int ID = 28;
     public static final String NAME = "float_vector";
-    public static final FloatVectorType INSTANCE_ONE = new FloatVectorType(1);
     public static final VectorSimilarityFunction SIMILARITY_FUNC = VectorSimilarityFunction.EUCLIDEAN;
+    public static final FloatVectorType INSTANCE_ONE = new FloatVectorType(1);
     public static final int MAX_DIMENSIONS = 2048;
+    public static final String INDEX_METHOD = "hnsw";
+    public static final String SIMILARITY = "similarity";
+    public static final String QUANTIZATION = "quantization";
+    public static final String QUANTIZATION_INT8 = "int8";
 
     private static final EqQuery<float[]> EQ_QUERY = new EqQuery<>() {
 
@@ -102,18 +107,85 @@ public class FloatVectorType extends DataType<float[]> implements Streamer<float
     };
 
     private final int dimensions;
+    private final VectorSimilarityFunction similarity;
+    private final boolean quantized;
 
     public FloatVectorType(int dimensions) {
+        this(dimensions, SIMILARITY_FUNC, false);
+    }
+
+    /**
+     * @param similarity similarity function used by the HNSW index and knn_match
+     * @param quantized if true the HNSW index stores int8 scalar-quantized vectors
+     *                  which need roughly a quarter of the memory of raw float vectors
+     */
+    public FloatVectorType(int dimensions, VectorSimilarityFunction similarity, boolean quantized) {
         this.dimensions = dimensions;
+        this.similarity = similarity;
+        this.quantized = quantized;
     }
 
     public FloatVectorType(StreamInput in) throws IOException {
         this.dimensions = in.readVInt();
+        if (in.getVersion().onOrAfter(Version.V_5_10_0)) {
+            this.similarity = VectorSimilarityFunction.valueOf(in.readString());
+            this.quantized = in.readBoolean();
+        } else {
+            this.similarity = SIMILARITY_FUNC;
+            this.quantized = false;
+        }
     }
 
     @Override
     public void writeTo(StreamOutput out) throws IOException {
         out.writeVInt(dimensions);
+        if (out.getVersion().onOrAfter(Version.V_5_10_0)) {
+            out.writeString(similarity.name());
+            out.writeBoolean(quantized);
+        }
+    }
+
+    /**
+     * Create a type with the given HNSW index options; null options use the defaults.
+     *
+     * @param similarity one of euclidean, cosine, dot_product or maximum_inner_product
+     * @param quantization int8 to use scalar quantization
+     * @throws IllegalArgumentException if an option has an invalid value
+     */
+    public static FloatVectorType of(int dimensions, @Nullable String similarity, @Nullable String quantization) {
+        VectorSimilarityFunction similarityFunc = SIMILARITY_FUNC;
+        if (similarity != null) {
+            try {
+                similarityFunc = VectorSimilarityFunction.valueOf(similarity.toUpperCase(Locale.ENGLISH));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(
+                    "Invalid similarity `" + similarity + "` for " + NAME + ", valid values are: " +
+                    Arrays.stream(VectorSimilarityFunction.values())
+                        .map(x -> x.name().toLowerCase(Locale.ENGLISH))
+                        .toList()
+                );
+            }
+        }
+        if (quantization != null && !QUANTIZATION_INT8.equalsIgnoreCase(quantization)) {
+            throw new IllegalArgumentException(
+                "Invalid quantization `" + quantization + "` for " + NAME + ", only `" + QUANTIZATION_INT8 + "` is supported");
+        }
+        return new FloatVectorType(dimensions, similarityFunc, quantization != null);
+    }
+
+    public VectorSimilarityFunction similarity() {
+        return similarity;
+    }
+
+    public boolean quantized() {
+        return quantized;
+    }
+
+    /**
+     * @return true if the HNSW index options differ from the defaults
+     */
+    public boolean hasIndexOptions() {
+        return similarity != SIMILARITY_FUNC || quantized;
     }
 
     @Override
@@ -199,6 +271,12 @@ public class FloatVectorType extends DataType<float[]> implements Streamer<float
     @Override
     public void addMappingOptions(Map<String, Object> mapping) {
         mapping.put("dimensions", dimensions);
+        if (similarity != SIMILARITY_FUNC) {
+            mapping.put(SIMILARITY, similarity.name().toLowerCase(Locale.ENGLISH));
+        }
+        if (quantized) {
+            mapping.put(QUANTIZATION, QUANTIZATION_INT8);
+        }
     }
 
     @Override
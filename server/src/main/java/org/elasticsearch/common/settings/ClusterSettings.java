@@ -104,18 +104,25 @@ import org.elasticsearch.transport.netty4.Netty4Transport;
 import io.crate.auth.AuthSettings;
 import io.crate.blob.v2.BlobIndicesService;
 import io.crate.cluster.gracefulstop.DecommissioningService;
+import io.crate.execution.engine.collect.ShardAggregationCache;
+import io.crate.execution.engine.collect.sources.FileCollectSource;
 import io.crate.execution.engine.collect.stats.JobsLogService;
+import io.crate.execution.engine.distribution.DistributingConsumerFactory;
 import io.crate.execution.engine.indexing.ShardingUpsertExecutor;
+import io.crate.execution.engine.spill.SpillService;
 import io.crate.execution.jobs.NodeLimits;
+import io.crate.execution.jobs.ResourceGroups;
 import io.crate.fdw.ForeignDataWrappers;
 import io.crate.legacy.LegacySettings;
 import io.crate.lucene.LuceneQueryBuilder;
 import io.crate.memory.MemoryManagerFactory;
 import io.crate.metadata.settings.AnalyzerSettings;
+import io.crate.planner.PlanCache;
 import io.crate.protocols.postgres.PostgresNetty;
 import io.crate.protocols.ssl.SslSettings;
 import io.crate.replication.logical.LogicalReplicationSettings;
 import io.crate.session.Sessions;
+import io.crate.statistics.ShardSampleCache;
 import io.crate.statistics.TableStatsService;
 import io.crate.udc.service.UDCService;
 
@@ -433,8 +440,13 @@ public final class ClusterSettings extends AbstractScopedSettings {
         JobsLogService.STATS_JOBS_LOG_PERSIST_FILTER,
         JobsLogService.STATS_OPERATIONS_LOG_SIZE_SETTING,
         JobsLogService.STATS_OPERATIONS_LOG_EXPIRATION_SETTING,
+        JobsLogService.STATS_LOG_RING_BUFFER_SETTING,
+        JobsLogService.STATS_LOG_SAMPLING_RATE_SETTING,
+        JobsLogService.STATS_LOG_SAMPLING_THRESHOLD_SETTING,
         TableStatsService.STATS_SERVICE_REFRESH_INTERVAL_SETTING,
         TableStatsService.STATS_SERVICE_THROTTLING_SETTING,
+        ShardSampleCache.MODIFICATION_THRESHOLD_SETTING,
+        ShardSampleCache.CACHE_SIZE_SETTING,
         ShardingUpsertExecutor.BULK_REQUEST_TIMEOUT_SETTING,
         DecommissioningService.DECOMMISSION_INTERNAL_SETTING_GROUP,
         DecommissioningService.GRACEFUL_STOP_MIN_AVAILABILITY_SETTING,
@@ -445,6 +457,13 @@ public final class ClusterSettings extends AbstractScopedSettings {
         UDCService.UDC_INITIAL_DELAY_SETTING,
         UDCService.UDC_INTERVAL_SETTING,
         MemoryManagerFactory.MEMORY_ALLOCATION_TYPE,
+        SpillService.SPILL_TO_DISK_SETTING,
+        PlanCache.PLAN_CACHE_SIZE_SETTING,
+        ShardAggregationCache.CACHE_SIZE_SETTING,
+        DistributingConsumerFactory.COLUMNAR_BUCKETS_SETTING,
+        FileCollectSource.CONCURRENT_READERS_SETTING,
+        ResourceGroups.RESOURCE_GROUPS_SETTING,
+        ResourceGroups.MAX_CONCURRENCY,
         AnalyzerSettings.CUSTOM_ANALYSIS_SETTING_GROUP,
         Sessions.NODE_READ_ONLY_SETTING,
         Sessions.STATEMENT_TIMEOUT,
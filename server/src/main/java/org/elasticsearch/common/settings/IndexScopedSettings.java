@@ -43,6 +43,7 @@ import org.elasticsearch.index.store.Store;
 import io.crate.blob.v2.BlobIndicesService;
 import io.crate.metadata.doc.DocTableInfo;
 import io.crate.replication.logical.LogicalReplicationSettings;
+import io.crate.statistics.ColumnGroupStats;
 
 /**
  * Encapsulates all valid index level settings.
@@ -107,6 +108,7 @@ public final class IndexScopedSettings extends AbstractScopedSettings {
         Store.INDEX_STORE_STATS_REFRESH_INTERVAL_SETTING,
         DocTableInfo.TOTAL_COLUMNS_LIMIT,
         DocTableInfo.DEPTH_LIMIT_SETTING,
+        ColumnGroupStats.COLUMN_GROUPS_SETTING,
         IndexModule.INDEX_STORE_TYPE_SETTING,
         IndexModule.INDEX_QUERY_CACHE_ENABLED_SETTING,
         FsDirectoryFactory.INDEX_LOCK_FACTOR_SETTING,
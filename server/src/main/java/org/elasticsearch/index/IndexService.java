@@ -66,6 +66,7 @@ import org.elasticsearch.gateway.WriteStateException;
 import org.elasticsearch.index.analysis.AnalysisRegistry;
 import org.elasticsearch.index.analysis.IndexAnalyzers;
 import org.elasticsearch.index.analysis.NamedAnalyzer;
+import org.elasticsearch.index.codec.CodecService;
 import org.elasticsearch.index.engine.EngineFactory;
 import org.elasticsearch.index.seqno.RetentionLeaseSyncer;
 import org.elasticsearch.index.shard.IndexEventListener;
@@ -85,6 +86,8 @@ import org.jetbrains.annotations.Nullable;
 
 import io.crate.common.io.IOUtils;
 import io.crate.common.unit.TimeValue;
+import io.crate.exceptions.RelationUnknown;
+import io.crate.exceptions.SchemaUnknownException;
 import io.crate.execution.dml.TranslogIndexer;
 import io.crate.metadata.IndexName;
 import io.crate.metadata.IndexReference;
@@ -94,6 +97,7 @@ import io.crate.metadata.RelationName;
 import io.crate.metadata.doc.DocTableInfo;
 import io.crate.metadata.doc.DocTableInfoFactory;
 import io.crate.metadata.table.TableInfo;
+import io.crate.types.FloatVectorType;
 
 public class IndexService extends AbstractIndexComponent implements IndicesClusterStateService.AllocatedIndex<IndexShard> {
 
@@ -125,6 +129,7 @@ public class IndexService extends AbstractIndexComponent implements IndicesClust
     private final CircuitBreakerService circuitBreakerService;
     private final IndexAnalyzers indexAnalyzers;
     private final Analyzer indexAnalyzer;
+    private final CodecService codecService;
     private final NodeContext nodeContext;
     private final DocTableInfoFactory tableFactory;
 
@@ -174,6 +179,7 @@ public class IndexService extends AbstractIndexComponent implements IndicesClust
                 }
             };
         }
+        this.codecService = new CodecService(storageIdent -> isQuantizedVectorField(getTableInfo, storageIdent));
         this.shardStoreDeleter = shardStoreDeleter;
         this.bigArrays = bigArrays;
         this.threadPool = threadPool;
@@ -195,6 +201,20 @@ public class IndexService extends AbstractIndexComponent implements IndicesClust
         METADATA_VERIFICATION
     }
 
+    private static boolean isQuantizedVectorField(Supplier<TableInfo> getTableInfo, String storageIdent) {
+        TableInfo tableInfo;
+        try {
+            tableInfo = getTableInfo.get();
+        } catch (RelationUnknown | SchemaUnknownException e) {
+            // Merges can still run while a table is being dropped
+            return false;
+        }
+        return tableInfo instanceof DocTableInfo docTable
+            && docTable.getReference(storageIdent) instanceof Reference ref
+            && ref.valueType() instanceof FloatVectorType vectorType
+            && vectorType.quantized();
+    }
+
     public IndexEventListener getIndexEventListener() {
         return this.eventListener;
     }
@@ -389,6 +409,7 @@ public class IndexService extends AbstractIndexComponent implements IndicesClust
                 store,
                 queryCache,
                 indexAnalyzer,
+                codecService,
                 this::getTranslogIndexer,
                 engineFactoryProviders,
                 eventListener,
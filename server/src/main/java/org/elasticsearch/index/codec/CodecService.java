@@ -21,6 +21,7 @@ package org.elasticsearch.index.codec;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Predicate;
 
 import org.apache.lucene.codecs.Codec;
 import org.apache.lucene.codecs.lucene912.Lucene912Codec;
@@ -43,11 +44,19 @@ public class CodecService {
     public static final String LUCENE_DEFAULT_CODEC = "lucene_default";
 
     public CodecService() {
+        this(field -> false);
+    }
+
+    /**
+     * @param isQuantizedVectorField returns true for vector fields which should
+     *                               use a scalar-quantized HNSW index
+     */
+    public CodecService(Predicate<String> isQuantizedVectorField) {
         final var codecs = new HashMap<String, Codec>();
         codecs.put(DEFAULT_CODEC,
-            new CrateCodec(Lucene912Codec.Mode.BEST_SPEED));
+            new CrateCodec(Lucene912Codec.Mode.BEST_SPEED, isQuantizedVectorField));
         codecs.put(BEST_COMPRESSION_CODEC,
-            new CrateCodec(Lucene912Codec.Mode.BEST_COMPRESSION));
+            new CrateCodec(Lucene912Codec.Mode.BEST_COMPRESSION, isQuantizedVectorField));
         codecs.put(LUCENE_DEFAULT_CODEC, Codec.getDefault());
         for (String codec : Codec.availableCodecs()) {
             codecs.put(codec, Codec.forName(codec));
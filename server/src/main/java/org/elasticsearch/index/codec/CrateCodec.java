@@ -20,6 +20,7 @@
 package org.elasticsearch.index.codec;
 
 import java.io.IOException;
+import java.util.function.Predicate;
 
 import org.apache.lucene.codecs.Codec;
 import org.apache.lucene.codecs.DocValuesFormat;
@@ -27,6 +28,7 @@ import org.apache.lucene.codecs.KnnVectorsFormat;
 import org.apache.lucene.codecs.KnnVectorsReader;
 import org.apache.lucene.codecs.KnnVectorsWriter;
 import org.apache.lucene.codecs.lucene912.Lucene912Codec;
+import org.apache.lucene.codecs.lucene99.Lucene99HnswScalarQuantizedVectorsFormat;
 import org.apache.lucene.index.SegmentReadState;
 import org.apache.lucene.index.SegmentWriteState;
 import org.elasticsearch.common.lucene.Lucene;
@@ -38,7 +40,9 @@ import io.crate.types.FloatVectorType;
 /**
  * {@link CrateCodec This codec} is the default {@link Codec} for Crate.
  * It disables compression on docvalues terms dictionaries, and increases
- * the max supported vector dimension to {@link FloatVectorType#MAX_DIMENSIONS}
+ * the max supported vector dimension to {@link FloatVectorType#MAX_DIMENSIONS}.
+ * Vector fields of columns using int8 quantization are indexed with
+ * {@link Lucene99HnswScalarQuantizedVectorsFormat}.
  */
 // LUCENE UPGRADE: make sure to move to a new codec depending on the lucene version
 public class CrateCodec extends Lucene912Codec {
@@ -47,8 +51,15 @@ public class CrateCodec extends Lucene912Codec {
         assert Codec.forName(Lucene.LATEST_CODEC).getClass().isAssignableFrom(CrateCodec.class) : "CrateCodec must subclass the latest lucene codec: " + Lucene.LATEST_CODEC;
     }
 
+    private final Predicate<String> isQuantizedVectorField;
+
     public CrateCodec(Mode compressionMode) {
+        this(compressionMode, field -> false);
+    }
+
+    public CrateCodec(Mode compressionMode, Predicate<String> isQuantizedVectorField) {
         super(compressionMode);
+        this.isQuantizedVectorField = isQuantizedVectorField;
     }
 
     @Override
@@ -58,7 +69,9 @@ public class CrateCodec extends Lucene912Codec {
 
     @Override
     public KnnVectorsFormat getKnnVectorsFormatForField(String field) {
-        var format = super.getKnnVectorsFormatForField(field);
+        var format = isQuantizedVectorField.test(field)
+            ? new Lucene99HnswScalarQuantizedVectorsFormat()
+            : super.getKnnVectorsFormatForField(field);
         return new KnnVectorsFormat(format.getName()) {
 
             @Override
@@ -248,6 +248,7 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
             Store store,
             QueryCache queryCache,
             Analyzer indexAnalyzer,
+            CodecService codecService,
             Supplier<TranslogIndexer> getTranslogIndexer,
             Collection<Function<IndexSettings, Optional<EngineFactory>>> engineFactoryProviders,
             IndexEventListener indexEventListener,
@@ -260,7 +261,7 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         assert shardRouting.initializing();
         this.shardRouting = shardRouting;
         final Settings settings = indexSettings.getSettings();
-        this.codecService = new CodecService();
+        this.codecService = codecService;
         Objects.requireNonNull(store, "Store must be provided to the index shard");
         this.engineFactoryProviders = engineFactoryProviders;
         this.engineFactory = getEngineFactory();
@@ -98,6 +98,7 @@ import org.jetbrains.annotations.Nullable;
 import io.crate.blob.v2.BlobIndicesService;
 import io.crate.common.exceptions.Exceptions;
 import io.crate.common.unit.TimeValue;
+import io.crate.execution.engine.collect.ShardAggregationCache;
 import io.crate.execution.engine.collect.sources.ShardCollectSource;
 import io.crate.replication.logical.ShardReplicationService;
 
@@ -142,6 +143,7 @@ public class IndicesClusterStateService extends AbstractLifecycleComponent imple
                                       NodeClient client,
                                       BlobIndicesService blobIndicesService,
                                       ShardCollectSource shardCollectSource,
+                                      ShardAggregationCache aggregationCache,
                                       ShardReplicationService shardReplicationService) {
         this(settings,
             (AllocatedIndices<? extends Shard, ? extends AllocatedIndex<? extends Shard>>) indicesService,
@@ -158,6 +160,7 @@ public class IndicesClusterStateService extends AbstractLifecycleComponent imple
             client,
             blobIndicesService,
             shardCollectSource,
+            aggregationCache,
             shardReplicationService
         );
     }
@@ -178,6 +181,7 @@ public class IndicesClusterStateService extends AbstractLifecycleComponent imple
                                NodeClient client,
                                BlobIndicesService blobIndicesService,
                                ShardCollectSource shardCollectSource,
+                               ShardAggregationCache aggregationCache,
                                ShardReplicationService shardReplicationService) {
         this.buildInIndexListener = List.of(
             peerRecoverySourceService,
@@ -186,6 +190,7 @@ public class IndicesClusterStateService extends AbstractLifecycleComponent imple
             snapshotShardsService,
             blobIndicesService,
             shardCollectSource,
+            aggregationCache,
             shardReplicationService
         );
         this.settings = settings;
@@ -33,6 +33,7 @@ import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.UUID;
 
 import org.elasticsearch.common.settings.Settings;
 import org.junit.Before;
@@ -226,6 +227,49 @@ public class CopyAnalyzerTest extends CrateDummyClusterServiceUnitTest {
         assertThat(analysis.uri()).isLiteral("/foo");
     }
 
+    @Test
+    public void test_copy_from_stdin_has_no_uri() throws Exception {
+        BoundCopyFrom analysis = analyze("COPY users FROM STDIN WITH (format='csv')");
+        assertThat(analysis.tableInfo().ident()).isEqualTo(USER_TABLE_IDENT);
+        assertThat(analysis.uri()).isNull();
+        assertThat(analysis.inputFormat()).isEqualTo(FileUriCollectPhase.InputFormat.CSV);
+    }
+
+    @Test
+    public void test_copy_from_stdin_with_return_summary_is_not_supported() throws Exception {
+        assertThatThrownBy(() -> analyze("COPY users FROM STDIN RETURN SUMMARY"))
+            .isExactlyInstanceOf(UnsupportedOperationException.class)
+            .hasMessage("RETURN SUMMARY is not supported for COPY FROM STDIN");
+    }
+
+    @Test
+    public void test_copy_from_stdin_rejects_file_settings() throws Exception {
+        assertThatThrownBy(() -> analyze("COPY users FROM STDIN WITH (protocol='https')"))
+            .isExactlyInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Setting 'protocol' is not supported");
+    }
+
+    @Test
+    public void test_copy_to_stdout_does_not_require_a_directory() throws Exception {
+        BoundCopyTo analysis = analyze("COPY users TO STDOUT");
+        assertThat(analysis.table().ident()).isEqualTo(USER_TABLE_IDENT);
+        assertThat(analysis.uri()).isNull();
+    }
+
+    @Test
+    public void test_copy_rejects_uris_with_reserved_client_stream_schemes() throws Exception {
+        String jobId = UUID.randomUUID().toString();
+        assertThatThrownBy(() -> analyze("COPY users TO DIRECTORY 'stdout:///" + jobId + "'"))
+            .isExactlyInstanceOf(IllegalArgumentException.class)
+            .hasMessageStartingWith("Invalid uri 'stdout:///" + jobId + "'. The stdin and stdout schemes are reserved");
+        assertThatThrownBy(() -> analyze("COPY users FROM ['/tmp/a.json', 'STDIN:///" + jobId + "']"))
+            .isExactlyInstanceOf(IllegalArgumentException.class)
+            .hasMessageStartingWith("Invalid uri 'STDIN:///" + jobId + "'");
+        assertThatThrownBy(() -> analyze("COPY users FROM ?", "stdin:///" + jobId))
+            .isExactlyInstanceOf(IllegalArgumentException.class)
+            .hasMessageStartingWith("Invalid uri 'stdin:///" + jobId + "'");
+    }
+
     @Test
     public void testCopySysTableTo() throws Exception {
         assertThatThrownBy(() -> analyze("COPY sys.nodes TO DIRECTORY '/foo'"))
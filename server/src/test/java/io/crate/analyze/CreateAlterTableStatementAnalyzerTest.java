@@ -37,6 +37,7 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 
+import org.apache.lucene.index.VectorSimilarityFunction;
 import org.assertj.core.api.InstanceOfAssertFactories;
 import org.elasticsearch.cluster.ClusterName;
 import org.elasticsearch.cluster.ClusterState;
@@ -69,6 +70,7 @@ import io.crate.metadata.CoordinatorTxnCtx;
 import io.crate.metadata.FulltextAnalyzerResolver;
 import io.crate.metadata.GeneratedReference;
 import io.crate.metadata.IndexReference;
+import io.crate.metadata.IndexType;
 import io.crate.metadata.Reference;
 import io.crate.metadata.RelationName;
 import io.crate.metadata.Schemas;
@@ -1893,6 +1895,33 @@ public class CreateAlterTableStatementAnalyzerTest extends CrateDummyClusterServ
         );
     }
 
+    @Test
+    public void test_float_vector_hnsw_index_options() throws Exception {
+        BoundCreateTable stmt = analyze(
+            "create table tbl (x float_vector(3) index using hnsw with (similarity = 'cosine', quantization = 'int8'))");
+        Reference x = stmt.columns().get(ColumnIdent.of("x"));
+        assertThat(x.valueType()).isExactlyInstanceOf(FloatVectorType.class);
+        FloatVectorType vectorType = (FloatVectorType) x.valueType();
+        assertThat(vectorType.characterMaximumLength()).isEqualTo(3);
+        assertThat(vectorType.similarity()).isEqualTo(VectorSimilarityFunction.COSINE);
+        assertThat(vectorType.quantized()).isTrue();
+        assertThat(x.indexType()).isEqualTo(IndexType.PLAIN);
+
+        assertThatThrownBy(() -> analyze("create table tbl (x float_vector(3) index using hnsw with (similarity = 'foo'))"))
+            .isExactlyInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Invalid similarity `foo` for float_vector, valid values are: " +
+                        "[euclidean, dot_product, cosine, maximum_inner_product]");
+        assertThatThrownBy(() -> analyze("create table tbl (x float_vector(3) index using hnsw with (quantization = 'int4'))"))
+            .isExactlyInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Invalid quantization `int4` for float_vector, only `int8` is supported");
+        assertThatThrownBy(() -> analyze("create table tbl (x float_vector(3) index using hnsw with (m = 16))"))
+            .isExactlyInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Invalid index option `m` for column `x` using hnsw");
+        assertThatThrownBy(() -> analyze("create table tbl (x int index using hnsw)"))
+            .isExactlyInstanceOf(IllegalArgumentException.class)
+            .hasMessage("INDEX USING hnsw can only be used on columns of type \"float_vector\": `x`");
+    }
+
     @Test
     public void test_cannot_use_arrays_of_float_vector() throws Exception {
         assertThatThrownBy(() -> analyze("create table tbl (xs array(float_vector))"))
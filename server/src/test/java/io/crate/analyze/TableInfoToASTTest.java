@@ -108,6 +108,29 @@ public class TableInfoToASTTest extends CrateDummyClusterServiceUnitTest {
             )""");
     }
 
+    @Test
+    public void test_build_create_table_with_float_vector_index_options() throws Exception {
+        SQLExecutor e = SQLExecutor.of(clusterService)
+            .addTable("""
+                create table doc.test (
+                  v1 float_vector(2),
+                  v2 float_vector(3) index using hnsw with (similarity = 'dot_product', quantization = 'int8')
+                )
+                clustered into 1 shards
+                with (number_of_replicas = 0)""");
+        DocTableInfo tableInfo = e.resolveTableInfo("doc.test");
+
+        var node = new TableInfoToAST(tableInfo).toStatement();
+        assertThat(SqlFormatter.formatSql(node)).startsWith("""
+            CREATE TABLE IF NOT EXISTS "doc"."test" (
+               "v1" FLOAT_VECTOR(2),
+               "v2" FLOAT_VECTOR(3) INDEX USING HNSW WITH (
+                  quantization = 'int8',
+                  similarity = 'dot_product'
+               )
+            )""");
+    }
+
     @Test
     public void testBuildCreateTablePrimaryKey() throws Exception {
         SQLExecutor e = SQLExecutor.of(clusterService)
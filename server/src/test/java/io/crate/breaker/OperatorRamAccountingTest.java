@@ -0,0 +1,47 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.breaker;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+public class OperatorRamAccountingTest {
+
+    @Test
+    void test_release_only_releases_bytes_of_the_operator() {
+        AtomicLong usedBytes = new AtomicLong();
+        var shared = new ConcurrentRamAccounting(usedBytes::addAndGet, bytes -> usedBytes.addAndGet(-bytes), "dummy", 0);
+        shared.addBytes(100);
+        var operator = new OperatorRamAccounting(shared);
+        operator.addBytes(40);
+        assertThat(operator.totalBytes()).isEqualTo(40);
+        assertThat(shared.totalBytes()).isEqualTo(140);
+
+        operator.release();
+        assertThat(operator.totalBytes()).isEqualTo(0);
+        assertThat(shared.totalBytes()).isEqualTo(100);
+        assertThat(usedBytes).hasValue(100);
+    }
+}
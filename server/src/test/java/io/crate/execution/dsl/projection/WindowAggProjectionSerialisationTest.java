@@ -142,4 +142,36 @@ public class WindowAggProjectionSerialisationTest {
                 DataTypes.LONG
         );
     }
+
+    @Test
+    public void test_window_agg_projection_serialization_of_sorted_source() throws IOException {
+        FunctionImplementation sumFunctionImpl = getSumFunction();
+        WindowDefinition windowDefinition = new WindowDefinition(singletonList(Literal.of(1L)), null, null);
+        WindowFunction windowFunction = new WindowFunction(
+            sumFunctionImpl.signature(),
+            singletonList(Literal.of(2L)),
+            sumFunctionImpl.boundSignature().returnType(),
+            null,
+            windowDefinition,
+            null);
+        var windowAggProjection = new WindowAggProjection(
+            windowDefinition,
+            List.of(windowFunction),
+            List.of(Literal.of(42L)),
+            true);
+
+        var output = new BytesStreamOutput();
+        windowAggProjection.writeTo(output);
+        var actual = new WindowAggProjection(output.bytes().streamInput());
+        assertThat(actual.sourceSorted()).isTrue();
+        assertThat(actual).isEqualTo(windowAggProjection);
+
+        output = new BytesStreamOutput();
+        output.setVersion(Version.V_5_9_0);
+        windowAggProjection.writeTo(output);
+        var input = output.bytes().streamInput();
+        input.setVersion(Version.V_5_9_0);
+        actual = new WindowAggProjection(input);
+        assertThat(actual.sourceSorted()).isFalse();
+    }
 }
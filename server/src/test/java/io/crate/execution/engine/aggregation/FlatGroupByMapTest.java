@@ -0,0 +1,158 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.engine.aggregation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.elasticsearch.common.breaker.CircuitBreakingException;
+import org.elasticsearch.test.ESTestCase;
+import org.junit.Test;
+
+import io.crate.breaker.ConcurrentRamAccounting;
+import io.crate.data.breaker.RamAccounting;
+import io.crate.types.BooleanType;
+import io.crate.types.ByteType;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import io.crate.types.DoubleType;
+import io.crate.types.FloatType;
+import io.crate.types.IntegerType;
+import io.crate.types.ShortType;
+
+public class FlatGroupByMapTest extends ESTestCase {
+
+    @Test
+    public void test_supports_only_multiple_fixed_width_key_types() {
+        assertThat(FlatGroupByMap.supports(List.of(DataTypes.INTEGER, DataTypes.LONG))).isTrue();
+        assertThat(FlatGroupByMap.supports(List.of(DataTypes.TIMESTAMPZ, DataTypes.DOUBLE, DataTypes.BOOLEAN))).isTrue();
+        assertThat(FlatGroupByMap.supports(List.of(DataTypes.LONG))).isFalse();
+        assertThat(FlatGroupByMap.supports(List.of(DataTypes.LONG, DataTypes.STRING))).isFalse();
+    }
+
+    @Test
+    public void test_map_behaves_like_hash_map_for_random_keys_including_nulls() {
+        List<DataType<?>> keyTypes = List.of(
+            DataTypes.BOOLEAN, DataTypes.BYTE, DataTypes.SHORT, DataTypes.INTEGER,
+            DataTypes.FLOAT, DataTypes.DOUBLE, DataTypes.LONG, DataTypes.TIMESTAMP);
+        FlatGroupByMap map = new FlatGroupByMap(keyTypes, RamAccounting.NO_ACCOUNTING);
+        Map<List<Object>, Object[]> expected = new HashMap<>();
+        for (int round = 0; round < 2; round++) {
+            for (int i = 0; i < 5000; i++) {
+                List<Object> key = randomKey(keyTypes);
+                Object[] states = new Object[] { i };
+                assertThat(map.put(key, states)).isEqualTo(expected.put(key, states));
+            }
+            assertThat(map).hasSameSizeAs(expected);
+            for (var entry : expected.entrySet()) {
+                assertThat(map.get(entry.getKey())).isSameAs(entry.getValue());
+            }
+            Map<List<Object>, Object[]> actual = new HashMap<>();
+            for (var entry : map.entrySet()) {
+                actual.put(entry.getKey(), entry.getValue());
+            }
+            assertThat(actual).isEqualTo(expected);
+
+            // the map must be usable after clear, re-using the allocated pages
+            map.clear();
+            expected.clear();
+            assertThat(map).isEmpty();
+            assertThat(map.get(randomKey(keyTypes))).isNull();
+        }
+    }
+
+    @Test
+    public void test_ensure_capacity_breaks_without_modifying_the_map() {
+        List<DataType<?>> keyTypes = List.of(DataTypes.INTEGER, DataTypes.INTEGER);
+        var ramAccounting = new ConcurrentRamAccounting(bytes -> {}, bytes -> {}, "test", 1024);
+        FlatGroupByMap map = new FlatGroupByMap(keyTypes, ramAccounting);
+        int i = 0;
+        try {
+            while (true) {
+                map.ensureCapacityForNewEntry();
+                map.put(new ArrayList<>(Arrays.asList(i, i)), new Object[] { i });
+                i++;
+            }
+        } catch (CircuitBreakingException e) {
+            assertThat(map).hasSize(i);
+        }
+        assertThat(i).isGreaterThan(0);
+        for (int j = 0; j < i; j++) {
+            assertThat(map.get(List.of(j, j))).containsExactly(j);
+        }
+        assertThatThrownBy(() -> map.put(List.of(-1, -1), new Object[0]))
+            .isExactlyInstanceOf(CircuitBreakingException.class);
+        assertThat(map).hasSize(i);
+    }
+
+    @Test
+    public void test_pages_and_hash_table_are_accounted_and_kept_on_clear() {
+        List<DataType<?>> keyTypes = List.of(DataTypes.INTEGER, DataTypes.LONG);
+        var ramAccounting = new ConcurrentRamAccounting(bytes -> {}, bytes -> {}, "test", 0);
+        FlatGroupByMap map = new FlatGroupByMap(keyTypes, ramAccounting);
+        assertThat(map.retainedBytes()).isEqualTo(0L);
+        for (int i = 0; i < 1000; i++) {
+            map.put(new ArrayList<>(Arrays.asList(i, (long) i)), new Object[] { i });
+        }
+        long retainedBytes = map.retainedBytes();
+        assertThat(retainedBytes).isGreaterThan(0L);
+        assertThat(ramAccounting.totalBytes()).isEqualTo(retainedBytes);
+
+        map.clear();
+        assertThat(map.retainedBytes()).isEqualTo(retainedBytes);
+        for (int i = 0; i < 1000; i++) {
+            map.put(new ArrayList<>(Arrays.asList(i, (long) i)), new Object[] { i });
+        }
+        assertThat(ramAccounting.totalBytes())
+            .as("re-used capacity is not accounted again")
+            .isEqualTo(retainedBytes);
+    }
+
+    private static List<Object> randomKey(List<DataType<?>> keyTypes) {
+        List<Object> key = new ArrayList<>(keyTypes.size());
+        for (DataType<?> keyType : keyTypes) {
+            // small value ranges to produce duplicate keys
+            if (randomInt(9) == 0) {
+                key.add(null);
+                continue;
+            }
+            int value = randomIntBetween(-1, 1);
+            key.add(switch (keyType.id()) {
+                case BooleanType.ID -> value == 1;
+                case ByteType.ID -> (byte) value;
+                case ShortType.ID -> (short) value;
+                case IntegerType.ID -> value;
+                case FloatType.ID -> value * 0.5f;
+                case DoubleType.ID -> value * 0.5d;
+                default -> (long) value;
+            });
+        }
+        return key;
+    }
+}
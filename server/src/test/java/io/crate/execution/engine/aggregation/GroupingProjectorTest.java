@@ -0,0 +1,251 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.engine.aggregation;
+
+import static io.crate.testing.TestingHelpers.createNodeContext;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.elasticsearch.Version;
+import org.elasticsearch.test.ESTestCase;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.crate.breaker.ConcurrentRamAccounting;
+import io.crate.data.BatchIterator;
+import io.crate.data.InMemoryBatchIterator;
+import io.crate.data.Input;
+import io.crate.data.Row;
+import io.crate.data.RowN;
+import io.crate.data.SentinelRow;
+import io.crate.data.breaker.RamAccounting;
+import io.crate.data.testing.TestingRowConsumer;
+import io.crate.execution.engine.collect.CollectExpression;
+import io.crate.execution.engine.collect.RowCollectExpression;
+import io.crate.execution.engine.spill.SpillService;
+import io.crate.expression.symbol.AggregateMode;
+import io.crate.expression.symbol.Literal;
+import io.crate.memory.OnHeapMemoryManager;
+import io.crate.metadata.FunctionType;
+import io.crate.metadata.Scalar;
+import io.crate.metadata.functions.Signature;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+
+public class GroupingProjectorTest extends ESTestCase {
+
+    private Path spillPath;
+    private SpillService spillService;
+
+    @Before
+    public void setupSpillService() throws Exception {
+        spillPath = createTempDir();
+        spillService = new SpillService(spillPath, true);
+    }
+
+    private static AggregationFunction<?, ?> aggregation(String name, DataType<?> argType, DataType<?> returnType) {
+        Signature signature = Signature.builder(name, FunctionType.AGGREGATE)
+            .argumentTypes(argType.getTypeSignature())
+            .returnType(returnType.getTypeSignature())
+            .features(Scalar.Feature.DETERMINISTIC)
+            .build();
+        return (AggregationFunction<?, ?>) createNodeContext().functions().getQualified(
+            signature,
+            List.of(argType),
+            returnType
+        );
+    }
+
+    private static RamAccounting ramAccounting() {
+        return new ConcurrentRamAccounting(bytes -> {}, bytes -> {}, "test", 0);
+    }
+
+    private long numSpillFiles() throws Exception {
+        try (Stream<Path> files = Files.list(spillPath)) {
+            return files.filter(p -> p.toString().endsWith(".spill")).count();
+        }
+    }
+
+    private List<Object[]> consume(GroupingProjector projector, List<Row> rows) throws Exception {
+        TestingRowConsumer consumer = new TestingRowConsumer(false);
+        BatchIterator<Row> batchIterator = projector.apply(InMemoryBatchIterator.of(rows, SentinelRow.SENTINEL, true));
+        consumer.accept(batchIterator, null);
+        List<Object[]> result = new ArrayList<>(consumer.getResult());
+        assertThat(numSpillFiles()).isGreaterThan(0);
+        batchIterator.close();
+        assertThat(numSpillFiles()).isEqualTo(0);
+        return result;
+    }
+
+    @Test
+    public void test_groups_of_single_key_exceeding_memory_budget_are_spilled_and_reduced() throws Exception {
+        RowCollectExpression key = new RowCollectExpression(0);
+        RowCollectExpression value = new RowCollectExpression(1);
+        GroupingProjector projector = new GroupingProjector(
+            List.of(Literal.of(0L)),
+            List.of(key),
+            new CollectExpression[] { key, value },
+            AggregateMode.ITER_FINAL,
+            new AggregationContext[] {
+                new AggregationContext(aggregation("sum", DataTypes.INTEGER, DataTypes.LONG), Literal.BOOLEAN_TRUE, List.of(value))
+            },
+            ramAccounting(),
+            new OnHeapMemoryManager(bytes -> {}),
+            Version.CURRENT,
+            Version.CURRENT,
+            spillService,
+            1024
+        );
+        List<Row> rows = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            rows.add(new RowN((long) (i % 500), 2));
+        }
+        Collections.shuffle(rows, random());
+
+        List<Object[]> result = consume(projector, rows);
+
+        result.sort(Comparator.comparingLong(cells -> (long) cells[0]));
+        assertThat(result).hasSize(500);
+        for (int i = 0; i < 500; i++) {
+            assertThat(result.get(i)).containsExactly((long) i, 20L);
+        }
+    }
+
+    @Test
+    public void test_groups_of_many_keys_exceeding_memory_budget_are_spilled_and_reduced() throws Exception {
+        RowCollectExpression key1 = new RowCollectExpression(0);
+        RowCollectExpression key2 = new RowCollectExpression(1);
+        RowCollectExpression value = new RowCollectExpression(2);
+        List<Input<?>> keyInputs = List.of(key1, key2);
+        GroupingProjector projector = new GroupingProjector(
+            List.of(Literal.of("a"), Literal.of(0)),
+            keyInputs,
+            new CollectExpression[] { key1, key2, value },
+            AggregateMode.ITER_FINAL,
+            new AggregationContext[] {
+                new AggregationContext(aggregation("avg", DataTypes.INTEGER, DataTypes.DOUBLE), Literal.BOOLEAN_TRUE, List.of(value))
+            },
+            ramAccounting(),
+            new OnHeapMemoryManager(bytes -> {}),
+            Version.CURRENT,
+            Version.CURRENT,
+            spillService,
+            1024
+        );
+        List<Row> rows = new ArrayList<>();
+        for (int i = 0; i < 4000; i++) {
+            int group = i % 400;
+            rows.add(new RowN(group % 2 == 0 ? "even" : null, group, i < 2000 ? 1 : 3));
+        }
+        Collections.shuffle(rows, random());
+
+        List<Object[]> result = consume(projector, rows);
+
+        result.sort(Comparator.comparingInt(cells -> (int) cells[1]));
+        assertThat(result).hasSize(400);
+        for (int i = 0; i < 400; i++) {
+            assertThat(result.get(i)).containsExactly(i % 2 == 0 ? "even" : null, i, 2.0);
+        }
+    }
+
+    @Test
+    public void test_spilled_partitions_exceeding_memory_budget_are_partitioned_again() throws Exception {
+        RowCollectExpression key = new RowCollectExpression(0);
+        RowCollectExpression value = new RowCollectExpression(1);
+        GroupingProjector projector = new GroupingProjector(
+            List.of(Literal.of(0L)),
+            List.of(key),
+            new CollectExpression[] { key, value },
+            AggregateMode.ITER_FINAL,
+            new AggregationContext[] {
+                new AggregationContext(aggregation("sum", DataTypes.INTEGER, DataTypes.LONG), Literal.BOOLEAN_TRUE, List.of(value))
+            },
+            ramAccounting(),
+            new OnHeapMemoryManager(bytes -> {}),
+            Version.CURRENT,
+            Version.CURRENT,
+            spillService,
+            1024
+        );
+        List<Row> rows = new ArrayList<>();
+        for (int i = 0; i < 8000; i++) {
+            rows.add(new RowN((long) (i % 4000), 1));
+        }
+        Collections.shuffle(rows, random());
+
+        TestingRowConsumer consumer = new TestingRowConsumer(false);
+        BatchIterator<Row> batchIterator = projector.apply(InMemoryBatchIterator.of(rows, SentinelRow.SENTINEL, true));
+        consumer.accept(batchIterator, null);
+        List<Object[]> result = new ArrayList<>(consumer.getResult());
+        // Partitions which were split are replaced by their sub-partitions
+        assertThat(numSpillFiles()).isGreaterThan(SpilledGroups.NUM_PARTITIONS);
+        batchIterator.close();
+        assertThat(numSpillFiles()).isEqualTo(0);
+
+        result.sort(Comparator.comparingLong(cells -> (long) cells[0]));
+        assertThat(result).hasSize(4000);
+        for (int i = 0; i < 4000; i++) {
+            assertThat(result.get(i)).containsExactly((long) i, 2L);
+        }
+    }
+
+    @Test
+    public void test_spilling_only_releases_memory_accounted_by_the_projector() throws Exception {
+        RamAccounting ramAccounting = ramAccounting();
+        // Accounted by another operation using the same RamAccounting
+        ramAccounting.addBytes(4096);
+        RowCollectExpression key = new RowCollectExpression(0);
+        RowCollectExpression value = new RowCollectExpression(1);
+        GroupingProjector projector = new GroupingProjector(
+            List.of(Literal.of(0L)),
+            List.of(key),
+            new CollectExpression[] { key, value },
+            AggregateMode.ITER_FINAL,
+            new AggregationContext[] {
+                new AggregationContext(aggregation("sum", DataTypes.INTEGER, DataTypes.LONG), Literal.BOOLEAN_TRUE, List.of(value))
+            },
+            ramAccounting,
+            new OnHeapMemoryManager(bytes -> {}),
+            Version.CURRENT,
+            Version.CURRENT,
+            spillService,
+            1024
+        );
+        List<Row> rows = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            rows.add(new RowN((long) (i % 500), 2));
+        }
+
+        List<Object[]> result = consume(projector, rows);
+
+        assertThat(result).hasSize(500);
+        assertThat(ramAccounting.totalBytes()).isGreaterThanOrEqualTo(4096L);
+    }
+}
@@ -39,13 +39,16 @@ import java.util.function.Consumer;
 
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.SortedNumericDocValuesField;
 import org.apache.lucene.document.SortedSetDocValuesField;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.NoMergePolicy;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.MatchAllDocsQuery;
 import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.util.NumericUtils;
 import org.elasticsearch.Version;
 import org.elasticsearch.common.lucene.BytesRefs;
 import org.elasticsearch.index.shard.IndexShard;
@@ -58,9 +61,11 @@ import io.crate.data.breaker.RamAccounting;
 import io.crate.data.testing.TestingRowConsumer;
 import io.crate.exceptions.JobKilledException;
 import io.crate.execution.dsl.projection.GroupProjection;
+import io.crate.execution.engine.aggregation.DocValueAggregator;
 import io.crate.execution.engine.aggregation.impl.SumAggregation;
 import io.crate.execution.engine.fetch.ReaderContext;
 import io.crate.expression.reference.doc.lucene.CollectorContext;
+import io.crate.expression.reference.doc.lucene.DoubleColumnReference;
 import io.crate.expression.reference.doc.lucene.LongColumnReference;
 import io.crate.expression.reference.doc.lucene.LuceneCollectorExpression;
 import io.crate.expression.reference.doc.lucene.LuceneReferenceResolver;
@@ -81,6 +86,7 @@ import io.crate.metadata.functions.Signature;
 import io.crate.sql.tree.ColumnPolicy;
 import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
 import io.crate.testing.TestingHelpers;
+import io.crate.types.DataType;
 import io.crate.types.DataTypes;
 
 public class DocValuesGroupByOptimizedIteratorTest extends CrateDummyClusterServiceUnitTest {
@@ -315,6 +321,121 @@ public class DocValuesGroupByOptimizedIteratorTest extends CrateDummyClusterServ
         assertThat(expectedException).isExactlyInstanceOf(IllegalStateException.class);
     }
 
+    @Test
+    public void test_group_by_many_keys_with_nulls_across_segments() throws Exception {
+        var indexWriter = new IndexWriter(
+            new ByteBuffersDirectory(),
+            new IndexWriterConfig().setMergePolicy(NoMergePolicy.INSTANCE));
+        List<Object[]> docs = List.of(
+            new Object[]{"a", 1L, 1.5, 1L},
+            new Object[]{"b", 1L, 1.5, 2L},
+            new Object[]{"a", 1L, 1.5, 3L},
+            new Object[]{null, 1L, null, 4L},
+            new Object[]{"a", null, 1.5, 5L},
+            new Object[]{null, 1L, null, 6L},
+            new Object[]{"b", 1L, -0.0, 7L},
+            new Object[]{"a", 1L, 1.5, 8L}
+        );
+        for (int i = 0; i < docs.size(); i++) {
+            Object[] row = docs.get(i);
+            Document doc = new Document();
+            if (row[0] != null) {
+                doc.add(new SortedSetDocValuesField("x", BytesRefs.toBytesRef(row[0])));
+            }
+            if (row[1] != null) {
+                doc.add(new SortedNumericDocValuesField("y", (Long) row[1]));
+            }
+            if (row[2] != null) {
+                doc.add(new SortedNumericDocValuesField("d", NumericUtils.doubleToSortableLong((Double) row[2])));
+            }
+            doc.add(new NumericDocValuesField("z", (Long) row[3]));
+            indexWriter.addDocument(doc);
+            if (i % 3 == 2) {
+                indexWriter.commit();
+            }
+        }
+        indexWriter.commit();
+        IndexSearcher searcher = new IndexSearcher(DirectoryReader.open(indexWriter));
+        assertThat(searcher.getIndexReader().leaves()).hasSizeGreaterThan(1);
+
+        var it = DocValuesGroupByOptimizedIterator.GroupByIterator.forManyKeys(
+            List.of(sumOfZ()),
+            searcher,
+            List.of(ref("x", DataTypes.STRING), ref("y", DataTypes.LONG), ref("d", DataTypes.DOUBLE)),
+            List.of(new StringColumnReference("x"), new LongColumnReference("y"), new DoubleColumnReference("d")),
+            RamAccounting.NO_ACCOUNTING,
+            null,
+            null,
+            new MatchAllDocsQuery(),
+            new CollectorContext(() -> null)
+        );
+
+        var rowConsumer = new TestingRowConsumer();
+        rowConsumer.accept(it, null);
+        assertThat(rowConsumer.getResult()).containsExactlyInAnyOrder(
+            new Object[]{"a", 1L, 1.5, 12L},
+            new Object[]{"b", 1L, 1.5, 2L},
+            new Object[]{"b", 1L, -0.0, 7L},
+            new Object[]{null, 1L, null, 10L},
+            new Object[]{"a", null, 1.5, 5L}
+        );
+    }
+
+    @Test
+    public void test_segment_keys_find_inserted_keys_after_growing() throws Exception {
+        var segmentKeys = new DocValuesGroupByOptimizedIterator.SegmentKeys(2, RamAccounting.NO_ACCOUNTING);
+        for (long i = 0; i < 1000; i++) {
+            long[] key = new long[] { i, i << 40, i % 2 };
+            int slot = segmentKeys.find(key);
+            assertThat(segmentKeys.states(slot)).isNull();
+            segmentKeys.insert(slot, key, new Object[] { i });
+        }
+        assertThat(segmentKeys.size()).isEqualTo(1000);
+        for (long i = 0; i < 1000; i++) {
+            long[] key = new long[] { i, i << 40, i % 2 };
+            assertThat(segmentKeys.states(segmentKeys.find(key))).containsExactly(i);
+        }
+        assertThat(segmentKeys.states(segmentKeys.find(new long[] { 1, 1L << 40, 0 }))).isNull();
+
+        segmentKeys.clear();
+        assertThat(segmentKeys.size()).isEqualTo(0);
+        assertThat(segmentKeys.states(segmentKeys.find(new long[] { 1, 1L << 40, 1 }))).isNull();
+    }
+
+    private DocValueAggregator<?> sumOfZ() {
+        SumAggregation<?> sumAggregation = (SumAggregation<?>) functions.getQualified(
+            Signature.builder(SumAggregation.NAME, FunctionType.AGGREGATE)
+                .argumentTypes(DataTypes.LONG.getTypeSignature())
+                .returnType(DataTypes.LONG.getTypeSignature())
+                .build(),
+            List.of(DataTypes.LONG),
+            DataTypes.LONG
+        );
+        return sumAggregation.getDocValueAggregator(
+            mock(LuceneReferenceResolver.class),
+            List.of(ref("z", DataTypes.LONG)),
+            mock(DocTableInfo.class),
+            Version.CURRENT,
+            List.of()
+        );
+    }
+
+    private static Reference ref(String name, DataType<?> type) {
+        return new SimpleReference(
+            new ReferenceIdent(RelationName.fromIndexName("test"), name),
+            RowGranularity.DOC,
+            type,
+            ColumnPolicy.DYNAMIC,
+            IndexType.PLAIN,
+            true,
+            true,
+            0,
+            COLUMN_OID_UNASSIGNED,
+            false,
+            null
+        );
+    }
+
     private Throwable stopOnInterrupting(Consumer<BatchIterator<Row>> interrupt) throws Exception {
         CountDownLatch waitForLoadNextBatch = new CountDownLatch(1);
         CountDownLatch pauseOnDocumentCollecting = new CountDownLatch(1);
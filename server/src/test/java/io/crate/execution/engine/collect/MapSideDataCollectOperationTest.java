@@ -25,6 +25,7 @@ import static io.crate.testing.TestingHelpers.createNodeContext;
 import static io.crate.testing.TestingHelpers.createReference;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 import java.io.File;
 import java.io.FileOutputStream;
@@ -45,8 +46,10 @@ import org.junit.rules.TemporaryFolder;
 import io.crate.analyze.CopyFromParserProperties;
 import io.crate.data.BatchIterator;
 import io.crate.data.Row;
+import io.crate.data.breaker.RamAccounting;
 import io.crate.data.testing.TestingRowConsumer;
 import io.crate.execution.dsl.phases.FileUriCollectPhase;
+import io.crate.execution.engine.collect.files.StdStreams;
 import io.crate.execution.engine.collect.sources.FileCollectSource;
 import io.crate.expression.symbol.Literal;
 import io.crate.metadata.ColumnIdent;
@@ -68,7 +71,8 @@ public class MapSideDataCollectOperationTest extends CrateDummyClusterServiceUni
             clusterService,
             Collections.emptyMap(),
             THREAD_POOL,
-            () -> List.of(Role.CRATE_USER)
+            () -> List.of(Role.CRATE_USER),
+            new StdStreams()
             );
 
         File tmpFile = temporaryFolder.newFile("fileUriCollectOperation.json");
@@ -97,6 +101,7 @@ public class MapSideDataCollectOperationTest extends CrateDummyClusterServiceUni
         );
         TestingRowConsumer consumer = new TestingRowConsumer();
         CollectTask collectTask = mock(CollectTask.class);
+        when(collectTask.getRamAccounting()).thenReturn(RamAccounting.NO_ACCOUNTING);
         BatchIterator<Row> iterator = fileCollectSource.getIterator(
             CoordinatorTxnCtx.systemTransactionContext(), collectNode, collectTask, false).get(5, TimeUnit.SECONDS);
         consumer.accept(iterator, null);
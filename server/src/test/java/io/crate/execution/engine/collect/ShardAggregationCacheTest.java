@@ -0,0 +1,355 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.collect;
+
+import static io.crate.testing.TestingHelpers.createNodeContext;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.indices.breaker.HierarchyCircuitBreakerService;
+import org.elasticsearch.test.ESTestCase;
+import org.junit.Test;
+
+import io.crate.data.BatchIterator;
+import io.crate.data.InMemoryBatchIterator;
+import io.crate.data.Row;
+import io.crate.data.RowN;
+import io.crate.data.breaker.RamAccounting;
+import io.crate.data.testing.TestingRowConsumer;
+import io.crate.execution.dsl.phases.RoutedCollectPhase;
+import io.crate.execution.dsl.projection.EvalProjection;
+import io.crate.execution.dsl.projection.GroupProjection;
+import io.crate.execution.dsl.projection.Projection;
+import io.crate.expression.scalar.arithmetic.RandomFunction;
+import io.crate.expression.symbol.AggregateMode;
+import io.crate.expression.symbol.Function;
+import io.crate.expression.symbol.InputColumn;
+import io.crate.expression.symbol.Literal;
+import io.crate.expression.symbol.Symbol;
+import io.crate.metadata.FunctionType;
+import io.crate.metadata.Functions;
+import io.crate.metadata.Reference;
+import io.crate.metadata.ReferenceIdent;
+import io.crate.metadata.RelationName;
+import io.crate.metadata.Routing;
+import io.crate.metadata.RowGranularity;
+import io.crate.metadata.Scalar;
+import io.crate.metadata.Schemas;
+import io.crate.metadata.SimpleReference;
+import io.crate.metadata.functions.Signature;
+import io.crate.planner.distribution.DistributionInfo;
+import io.crate.types.DataTypes;
+
+public class ShardAggregationCacheTest extends ESTestCase {
+
+    private final ShardId shardId = new ShardId("dummy", "uuid", 0);
+    private final Functions functions = createNodeContext().functions();
+    private final Reference x = new SimpleReference(
+        new ReferenceIdent(new RelationName(Schemas.DOC_SCHEMA_NAME, "dummy"), "x"),
+        RowGranularity.DOC,
+        DataTypes.LONG,
+        1,
+        null
+    );
+    private final GroupProjection groupByX = new GroupProjection(
+        List.of(new InputColumn(0, DataTypes.LONG)),
+        List.of(),
+        AggregateMode.ITER_PARTIAL,
+        RowGranularity.SHARD
+    );
+
+    private ClusterSettings clusterSettings;
+    private HierarchyCircuitBreakerService breakerService;
+
+    private ShardAggregationCache newCache(Settings settings) {
+        clusterSettings = new ClusterSettings(settings, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS);
+        breakerService = new HierarchyCircuitBreakerService(settings, clusterSettings);
+        return new ShardAggregationCache(settings, clusterSettings, breakerService);
+    }
+
+    private CircuitBreaker breaker() {
+        return breakerService.getBreaker(ShardAggregationCache.BREAKER_NAME);
+    }
+
+    private RoutedCollectPhase phase(Symbol where, Projection... projections) {
+        return new RoutedCollectPhase(
+            UUID.randomUUID(),
+            1,
+            "collect",
+            new Routing(Map.of()),
+            RowGranularity.DOC,
+            List.of(x),
+            List.of(projections),
+            where,
+            DistributionInfo.DEFAULT_BROADCAST
+        );
+    }
+
+    private static List<Object[]> consume(BatchIterator<Row> it) throws Exception {
+        TestingRowConsumer consumer = new TestingRowConsumer();
+        consumer.accept(it, null);
+        return consumer.getResult();
+    }
+
+    private static BatchIterator<Row> rows(AtomicInteger numComputed, Long... values) {
+        numComputed.incrementAndGet();
+        return InMemoryBatchIterator.of(
+            List.of(values).stream().map(v -> (Row) new RowN(v)).toList(),
+            null,
+            false
+        );
+    }
+
+    private static DirectoryReader addDocAndReopen(IndexWriter writer, DirectoryReader reader) throws Exception {
+        writer.addDocument(new Document());
+        writer.commit();
+        DirectoryReader newReader = DirectoryReader.openIfChanged(reader);
+        assertThat(newReader).isNotNull();
+        reader.close();
+        return newReader;
+    }
+
+    @Test
+    public void test_results_are_reused_until_reader_changes() throws Exception {
+        ShardAggregationCache cache = newCache(Settings.EMPTY);
+        RoutedCollectPhase phase = phase(Literal.BOOLEAN_TRUE, groupByX);
+        assertThat(cache.isCacheable(phase, functions)).isTrue();
+
+        AtomicInteger numComputed = new AtomicInteger(0);
+        try (var dir = new ByteBuffersDirectory();
+             var writer = new IndexWriter(dir, new IndexWriterConfig())) {
+            writer.addDocument(new Document());
+            writer.commit();
+            DirectoryReader reader = DirectoryReader.open(dir);
+
+            var it = cache.getOrCompute(
+                shardId, phase, reader, RamAccounting.NO_ACCOUNTING, () -> rows(numComputed, 1L, 2L));
+            assertThat(consume(it)).containsExactly(new Object[] { 1L }, new Object[] { 2L });
+            assertThat(cache.sizeInBytes()).isGreaterThan(0L);
+
+            // Same query on the same reader, e.g. by another statement
+            RoutedCollectPhase samePhase = phase(Literal.BOOLEAN_TRUE, groupByX);
+            it = cache.getOrCompute(
+                shardId, samePhase, reader, RamAccounting.NO_ACCOUNTING, () -> rows(numComputed, 3L));
+            assertThat(consume(it)).containsExactly(new Object[] { 1L }, new Object[] { 2L });
+            assertThat(numComputed.get()).isEqualTo(1);
+            assertThat(cache.hits()).isEqualTo(1L);
+
+            reader = addDocAndReopen(writer, reader);
+            it = cache.getOrCompute(
+                shardId, phase, reader, RamAccounting.NO_ACCOUNTING, () -> rows(numComputed, 3L));
+            assertThat(consume(it)).containsExactly(new Object[] { 3L });
+            assertThat(numComputed.get()).isEqualTo(2);
+            assertThat(cache.misses()).isEqualTo(2L);
+            reader.close();
+        }
+    }
+
+    @Test
+    public void test_partially_consumed_results_are_not_cached() throws Exception {
+        ShardAggregationCache cache = newCache(Settings.EMPTY);
+        RoutedCollectPhase phase = phase(Literal.BOOLEAN_TRUE, groupByX);
+        AtomicInteger numComputed = new AtomicInteger(0);
+        try (var dir = new ByteBuffersDirectory();
+             var writer = new IndexWriter(dir, new IndexWriterConfig())) {
+            writer.addDocument(new Document());
+            writer.commit();
+            try (DirectoryReader reader = DirectoryReader.open(dir)) {
+                var it = cache.getOrCompute(
+                    shardId, phase, reader, RamAccounting.NO_ACCOUNTING, () -> rows(numComputed, 1L, 2L));
+                assertThat(it.moveNext()).isTrue();
+                it.close();
+                assertThat(cache.sizeInBytes()).isEqualTo(0L);
+
+                it = cache.getOrCompute(
+                    shardId, phase, reader, RamAccounting.NO_ACCOUNTING, () -> rows(numComputed, 1L, 2L));
+                assertThat(consume(it)).hasSize(2);
+                assertThat(numComputed.get()).isEqualTo(2);
+            }
+        }
+    }
+
+    @Test
+    public void test_results_exceeding_cache_size_are_not_cached() throws Exception {
+        ShardAggregationCache cache = newCache(Settings.builder()
+            .put(ShardAggregationCache.CACHE_SIZE_SETTING.getKey(), "16b")
+            .build());
+        RoutedCollectPhase phase = phase(Literal.BOOLEAN_TRUE, groupByX);
+        AtomicInteger numComputed = new AtomicInteger(0);
+        try (var dir = new ByteBuffersDirectory();
+             var writer = new IndexWriter(dir, new IndexWriterConfig())) {
+            writer.addDocument(new Document());
+            writer.commit();
+            try (DirectoryReader reader = DirectoryReader.open(dir)) {
+                var it = cache.getOrCompute(
+                    shardId, phase, reader, RamAccounting.NO_ACCOUNTING, () -> rows(numComputed, 1L, 2L, 3L, 4L));
+                assertThat(consume(it)).hasSize(4);
+                assertThat(cache.sizeInBytes()).isEqualTo(0L);
+            }
+        }
+    }
+
+    @Test
+    public void test_only_deterministic_aggregations_are_cacheable() throws Exception {
+        ShardAggregationCache cache = newCache(Settings.EMPTY);
+        Signature randomSignature = Signature.builder(RandomFunction.NAME, FunctionType.SCALAR)
+            .argumentTypes()
+            .returnType(DataTypes.DOUBLE.getTypeSignature())
+            .features(EnumSet.of(Scalar.Feature.NOTNULL))
+            .build();
+        Function random = new Function(randomSignature, List.of(), DataTypes.DOUBLE);
+
+        assertThat(cache.isCacheable(phase(Literal.BOOLEAN_TRUE), functions)).isFalse();
+        var eval = new EvalProjection(List.of(new InputColumn(0, DataTypes.LONG)), RowGranularity.SHARD);
+        assertThat(cache.isCacheable(phase(Literal.BOOLEAN_TRUE, eval), functions)).isFalse();
+        assertThat(cache.isCacheable(phase(random, groupByX), functions)).isFalse();
+
+        ShardAggregationCache disabled = newCache(Settings.builder()
+            .put(ShardAggregationCache.CACHE_SIZE_SETTING.getKey(), "0b")
+            .build());
+        assertThat(disabled.isCacheable(phase(Literal.BOOLEAN_TRUE, groupByX), functions)).isFalse();
+    }
+
+    @Test
+    public void test_entries_are_accounted_in_aggregation_cache_breaker() throws Exception {
+        ShardAggregationCache cache = newCache(Settings.EMPTY);
+        RoutedCollectPhase phase = phase(Literal.BOOLEAN_TRUE, groupByX);
+        AtomicInteger numComputed = new AtomicInteger(0);
+        try (var dir = new ByteBuffersDirectory();
+             var writer = new IndexWriter(dir, new IndexWriterConfig())) {
+            writer.addDocument(new Document());
+            writer.commit();
+            DirectoryReader reader = DirectoryReader.open(dir);
+
+            var it = cache.getOrCompute(
+                shardId, phase, reader, RamAccounting.NO_ACCOUNTING, () -> rows(numComputed, 1L, 2L));
+            consume(it);
+            assertThat(cache.sizeInBytes()).isGreaterThan(0L);
+            assertThat(breaker().getUsed()).isEqualTo(cache.sizeInBytes());
+            assertThat(breaker().getLimit()).isEqualTo(cache.maxSizeInBytes());
+            assertThat(breakerService.getBreaker(HierarchyCircuitBreakerService.QUERY).getUsed()).isEqualTo(0L);
+
+            // The stale entry is released once its reader is closed
+            reader = addDocAndReopen(writer, reader);
+            it = cache.getOrCompute(
+                shardId, phase, reader, RamAccounting.NO_ACCOUNTING, () -> rows(numComputed, 3L));
+            assertThat(cache.sizeInBytes()).isEqualTo(0L);
+            assertThat(breaker().getUsed()).isEqualTo(0L);
+            it.close();
+            reader.close();
+        }
+    }
+
+    @Test
+    public void test_entries_are_removed_once_their_reader_is_closed() throws Exception {
+        ShardAggregationCache cache = newCache(Settings.EMPTY);
+        RoutedCollectPhase phase = phase(Literal.BOOLEAN_TRUE, groupByX);
+        AtomicInteger numComputed = new AtomicInteger(0);
+        try (var dir = new ByteBuffersDirectory();
+             var writer = new IndexWriter(dir, new IndexWriterConfig())) {
+            writer.addDocument(new Document());
+            writer.commit();
+            DirectoryReader reader = DirectoryReader.open(dir);
+            var it = cache.getOrCompute(
+                shardId, phase, reader, RamAccounting.NO_ACCOUNTING, () -> rows(numComputed, 1L, 2L));
+            consume(it);
+            assertThat(cache.size()).isEqualTo(1L);
+
+            reader.close();
+            cache.cleanUp();
+            assertThat(cache.size()).isEqualTo(0L);
+            assertThat(cache.sizeInBytes()).isEqualTo(0L);
+            assertThat(breaker().getUsed()).isEqualTo(0L);
+        }
+    }
+
+    @Test
+    public void test_entries_are_removed_once_their_shard_is_closed() throws Exception {
+        ShardAggregationCache cache = newCache(Settings.EMPTY);
+        RoutedCollectPhase phase = phase(Literal.BOOLEAN_TRUE, groupByX);
+        ShardId otherShardId = new ShardId("dummy", "uuid", 1);
+        AtomicInteger numComputed = new AtomicInteger(0);
+        try (var dir = new ByteBuffersDirectory();
+             var writer = new IndexWriter(dir, new IndexWriterConfig())) {
+            writer.addDocument(new Document());
+            writer.commit();
+            try (DirectoryReader reader = DirectoryReader.open(dir)) {
+                consume(cache.getOrCompute(
+                    shardId, phase, reader, RamAccounting.NO_ACCOUNTING, () -> rows(numComputed, 1L)));
+                consume(cache.getOrCompute(
+                    otherShardId, phase, reader, RamAccounting.NO_ACCOUNTING, () -> rows(numComputed, 2L)));
+                assertThat(cache.size()).isEqualTo(2L);
+
+                cache.beforeIndexShardClosed(shardId, null, Settings.EMPTY);
+                cache.cleanUp();
+                assertThat(cache.size()).isEqualTo(1L);
+                assertThat(breaker().getUsed()).isEqualTo(cache.sizeInBytes());
+
+                var it = cache.getOrCompute(
+                    otherShardId, phase, reader, RamAccounting.NO_ACCOUNTING, () -> rows(numComputed, 3L));
+                assertThat(consume(it)).containsExactly(new Object[] { 2L });
+            }
+        }
+    }
+
+    @Test
+    public void test_cache_size_can_be_changed_at_runtime() throws Exception {
+        ShardAggregationCache cache = newCache(Settings.EMPTY);
+        RoutedCollectPhase phase = phase(Literal.BOOLEAN_TRUE, groupByX);
+        AtomicInteger numComputed = new AtomicInteger(0);
+        try (var dir = new ByteBuffersDirectory();
+             var writer = new IndexWriter(dir, new IndexWriterConfig())) {
+            writer.addDocument(new Document());
+            writer.commit();
+            try (DirectoryReader reader = DirectoryReader.open(dir)) {
+                var it = cache.getOrCompute(
+                    shardId, phase, reader, RamAccounting.NO_ACCOUNTING, () -> rows(numComputed, 1L, 2L));
+                consume(it);
+                assertThat(cache.size()).isEqualTo(1L);
+
+                clusterSettings.applySettings(Settings.builder()
+                    .put(ShardAggregationCache.CACHE_SIZE_SETTING.getKey(), "0b")
+                    .build());
+                cache.cleanUp();
+                assertThat(cache.maxSizeInBytes()).isEqualTo(0L);
+                assertThat(cache.size()).isEqualTo(0L);
+                assertThat(cache.sizeInBytes()).isEqualTo(0L);
+                assertThat(breaker().getUsed()).isEqualTo(0L);
+                assertThat(cache.isCacheable(phase, functions)).isFalse();
+            }
+        }
+    }
+}
@@ -38,12 +38,16 @@ import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.elasticsearch.common.settings.Settings;
@@ -58,7 +62,12 @@ import org.mockito.ArgumentCaptor;
 import io.crate.data.BatchIterator;
 import io.crate.data.testing.BatchIteratorTester;
 import io.crate.data.testing.BatchIteratorTester.ResultOrder;
+import io.crate.execution.dsl.phases.FileUriCollectPhase.InputFormat;
 import io.crate.execution.engine.collect.files.FileReadingIterator.LineCursor;
+import io.crate.execution.engine.parquet.ParquetFormat;
+import io.crate.execution.engine.parquet.ParquetWriter;
+import io.crate.expression.symbol.Literal;
+import io.crate.types.DataTypes;
 
 public class FileReadingIteratorTest extends ESTestCase {
 
@@ -273,4 +282,207 @@ public class FileReadingIteratorTest extends ESTestCase {
                 assertThat(fi.currentElement().line()).isEqualTo("4");
             });
     }
+
+    private static List<String> readLines(FileReadingIterator it) throws Exception {
+        return it.map(LineCursor::line).collect(Collectors.toList()).get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void test_split_file_parts_are_distributed_across_local_readers() throws Exception {
+        Path tempFile = createTempFile("tempfile", ".json");
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            lines.add("{\"id\": " + i + ", \"name\": \"" + "x".repeat(i % 7) + "\"}");
+        }
+        Files.write(tempFile, lines);
+        List<URI> fileUris = List.of(FileReadingIterator.toURI(tempFile.toUri().toString()));
+
+        int numLocalReaders = 3;
+        List<String> result = new ArrayList<>();
+        for (int i = 0; i < numLocalReaders; i++) {
+            FileReadingIterator it = new FileReadingIterator(
+                fileUris,
+                null,
+                Map.of(LocalFsFileInputFactory.NAME, new LocalFsFileInputFactory()),
+                false,
+                1,
+                0,
+                numLocalReaders,
+                i,
+                100L,
+                false,
+                InputFormat.JSON,
+                List.of(),
+                Settings.EMPTY,
+                THREAD_POOL.scheduler()
+            );
+            List<String> readerLines = readLines(it);
+            assertThat(readerLines).isNotEmpty();
+            result.addAll(readerLines);
+        }
+        assertThat(result).containsExactlyInAnyOrderElementsOf(lines);
+    }
+
+    @Test
+    public void test_split_csv_file_parts_start_with_header() throws Exception {
+        Path tempFile = createTempFile("tempfile", ".csv");
+        List<String> lines = new ArrayList<>();
+        lines.add("id,name");
+        for (int i = 0; i < 100; i++) {
+            lines.add(i + ",name" + i);
+        }
+        Files.write(tempFile, lines);
+        List<URI> fileUris = List.of(FileReadingIterator.toURI(tempFile.toUri().toString()));
+
+        int numLocalReaders = 2;
+        List<String> result = new ArrayList<>();
+        for (int i = 0; i < numLocalReaders; i++) {
+            FileReadingIterator it = new FileReadingIterator(
+                fileUris,
+                null,
+                Map.of(LocalFsFileInputFactory.NAME, new LocalFsFileInputFactory()),
+                false,
+                1,
+                0,
+                numLocalReaders,
+                i,
+                64L,
+                true,
+                InputFormat.CSV,
+                List.of(),
+                Settings.EMPTY,
+                THREAD_POOL.scheduler()
+            );
+            List<String> readerLines = readLines(it);
+            assertThat(readerLines.get(0)).isEqualTo("id,name");
+            result.addAll(readerLines.subList(1, readerLines.size()));
+        }
+        assertThat(result).containsExactlyInAnyOrderElementsOf(lines.subList(1, lines.size()));
+    }
+
+    @Test
+    public void test_shared_files_are_read_once_if_nodes_have_different_number_of_local_readers() throws Exception {
+        Path dir = createTempDir();
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            String line = "{\"id\": " + i + "}";
+            lines.add(line);
+            Files.write(dir.resolve("file" + i + ".json"), List.of(line));
+        }
+        List<URI> fileUris = List.of(FileReadingIterator.toURI(dir.toUri().toString() + "*.json"));
+
+        int[] numLocalReadersPerNode = new int[] {1, 3};
+        List<String> result = new ArrayList<>();
+        for (int node = 0; node < numLocalReadersPerNode.length; node++) {
+            int numLocalReaders = numLocalReadersPerNode[node];
+            for (int i = 0; i < numLocalReaders; i++) {
+                FileReadingIterator it = new FileReadingIterator(
+                    fileUris,
+                    null,
+                    Map.of(LocalFsFileInputFactory.NAME, new LocalFsFileInputFactory()),
+                    true,
+                    numLocalReadersPerNode.length,
+                    node,
+                    numLocalReaders,
+                    i,
+                    0L,
+                    false,
+                    InputFormat.JSON,
+                    List.of(),
+                    Settings.EMPTY,
+                    THREAD_POOL.scheduler()
+                );
+                result.addAll(readLines(it));
+            }
+        }
+        assertThat(result).containsExactlyInAnyOrderElementsOf(lines);
+    }
+
+    private static Path writeParquetFile() throws IOException {
+        Path tempFile = createTempFile("tempfile", ".parquet");
+        try (var out = Files.newOutputStream(tempFile);
+             var writer = new ParquetWriter(
+                 out, List.of("id", "name"), List.of(DataTypes.INTEGER, DataTypes.STRING), ParquetFormat.UNCOMPRESSED)) {
+            writer.write(List.of(Literal.of(1), Literal.of("Arthur")));
+            writer.write(List.of(Literal.of(2), Literal.of(DataTypes.STRING, null)));
+        }
+        return tempFile;
+    }
+
+    private FileReadingIterator parquetIterator(Path file, FileInputFactory fileInputFactory) {
+        return new FileReadingIterator(
+            List.of(FileReadingIterator.toURI(file.toUri().toString())),
+            null,
+            Map.of(LocalFsFileInputFactory.NAME, fileInputFactory),
+            false,
+            1,
+            0,
+            1,
+            0,
+            0L,
+            false,
+            InputFormat.PARQUET,
+            List.of(),
+            Settings.EMPTY,
+            THREAD_POOL.scheduler()
+        );
+    }
+
+    @Test
+    public void test_parquet_rows_are_exposed_as_decoded_values() throws Exception {
+        Path file = writeParquetFile();
+
+        List<LineCursor> cursors = parquetIterator(file, new LocalFsFileInputFactory())
+            .map(LineCursor::copy)
+            .collect(Collectors.toList())
+            .get(5, TimeUnit.SECONDS);
+        assertThat(cursors).hasSize(2);
+        assertThat(cursors).allSatisfy(cursor -> assertThat(cursor.line()).isNull());
+        assertThat(cursors.get(0).lineNumber()).isEqualTo(1L);
+        assertThat(cursors.get(0).row()).containsExactly(Map.entry("id", 1), Map.entry("name", "Arthur"));
+        LinkedHashMap<String, Object> secondRow = cursors.get(1).row();
+        assertThat(secondRow).containsOnlyKeys("id", "name").containsEntry("id", 2).containsEntry("name", null);
+    }
+
+    @Test
+    public void test_parquet_file_without_random_access_is_rejected() throws Exception {
+        Path file = writeParquetFile();
+        FileInputFactory unknownSize = (uri, withClauseOptions) -> new FileInput() {
+
+            @Override
+            public List<URI> expandUri() {
+                return List.of(uri);
+            }
+
+            @Override
+            public InputStream getStream(URI uri) throws IOException {
+                return Files.newInputStream(Paths.get(uri));
+            }
+
+            @Override
+            public boolean isGlobbed() {
+                return false;
+            }
+
+            @Override
+            public URI uri() {
+                return uri;
+            }
+
+            @Override
+            public boolean sharedStorageDefault() {
+                return false;
+            }
+        };
+
+        List<LineCursor> cursors = parquetIterator(file, unknownSize)
+            .map(LineCursor::copy)
+            .collect(Collectors.toList())
+            .get(5, TimeUnit.SECONDS);
+        assertThat(cursors).hasSize(1);
+        assertThat(cursors.get(0).row()).isNull();
+        assertThat(cursors.get(0).failure())
+            .isExactlyInstanceOf(IOException.class)
+            .hasMessageEndingWith("the file size is unknown and random access is not supported");
+    }
 }
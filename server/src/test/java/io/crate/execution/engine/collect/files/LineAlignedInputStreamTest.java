@@ -0,0 +1,93 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.collect.files;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class LineAlignedInputStreamTest {
+
+    private static String read(byte[] data, long start, long end) throws IOException {
+        var in = new ByteArrayInputStream(data);
+        in.skipNBytes(start == 0 ? 0 : start - 1);
+        try (var stream = new LineAlignedInputStream(in, start, end)) {
+            return new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    public void test_adjacent_ranges_return_every_line_exactly_once() throws Exception {
+        String content = "a\nbb\n\nccc\ndddd\ne\nffffff\ng";
+        byte[] data = content.getBytes(StandardCharsets.UTF_8);
+        for (int splitSize = 1; splitSize <= data.length + 1; splitSize++) {
+            StringBuilder sb = new StringBuilder();
+            for (long start = 0; start < data.length; start += splitSize) {
+                sb.append(read(data, start, Math.min(data.length, start + splitSize)));
+            }
+            assertThat(sb.toString()).as("splitSize=" + splitSize).isEqualTo(content);
+        }
+    }
+
+    @Test
+    public void test_range_contains_lines_starting_within_the_range() throws Exception {
+        byte[] data = "line1\nline2\nline3\n".getBytes(StandardCharsets.UTF_8);
+        assertThat(read(data, 0, 1)).isEqualTo("line1\n");
+        assertThat(read(data, 1, 6)).isEmpty();
+        assertThat(read(data, 1, 7)).isEqualTo("line2\n");
+        assertThat(read(data, 6, 7)).isEqualTo("line2\n");
+        assertThat(read(data, 7, 18)).isEqualTo("line3\n");
+    }
+
+    @Test
+    public void test_single_byte_reads() throws Exception {
+        byte[] data = "ab\ncd\nef\n".getBytes(StandardCharsets.UTF_8);
+        var in = new ByteArrayInputStream(data);
+        in.skipNBytes(2);
+        List<Character> chars = new ArrayList<>();
+        try (var stream = new LineAlignedInputStream(in, 3, 4)) {
+            int b;
+            while ((b = stream.read()) != -1) {
+                chars.add((char) b);
+            }
+        }
+        assertThat(chars).containsExactly('c', 'd', '\n');
+    }
+
+    @Test
+    public void test_skip_discards_bytes_within_the_range() throws Exception {
+        byte[] data = "ab\ncd\nef\ngh\n".getBytes(StandardCharsets.UTF_8);
+        var in = new ByteArrayInputStream(data);
+        in.skipNBytes(2);
+        try (var stream = new LineAlignedInputStream(in, 3, 7)) {
+            assertThat(stream.skip(2)).isEqualTo(2);
+            assertThat(new String(stream.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("\nef\n");
+            assertThat(stream.skip(10)).isEqualTo(0);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.collect.files;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.util.UUID;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.Test;
+
+import io.crate.common.concurrent.Killable;
+import io.crate.exceptions.JobKilledException;
+
+public class StdStreamsTest {
+
+    private static class KillableOutputStream extends ByteArrayOutputStream implements Killable {
+
+        private Throwable killed;
+
+        @Override
+        public void kill(@NotNull Throwable throwable) {
+            killed = throwable;
+        }
+    }
+
+    private final StdStreams stdStreams = new StdStreams();
+
+    @Test
+    public void test_stdout_can_only_be_used_by_the_job_it_was_registered_for() throws Exception {
+        UUID jobId = UUID.randomUUID();
+        UUID otherJobId = UUID.randomUUID();
+        stdStreams.registerStdout(jobId, new ByteArrayOutputStream());
+        URI uri = URI.create(StdStreams.stdoutUri(jobId));
+
+        assertThat(stdStreams.stdout(jobId, uri)).isNotNull();
+        assertThatThrownBy(() -> stdStreams.stdout(otherJobId, uri))
+            .isExactlyInstanceOf(IllegalStateException.class)
+            .hasMessage("No client connection available to write data to for " + uri);
+    }
+
+    @Test
+    public void test_killing_a_job_kills_its_stdout() throws Exception {
+        UUID jobId = UUID.randomUUID();
+        UUID otherJobId = UUID.randomUUID();
+        var stdout = new KillableOutputStream();
+        var otherStdout = new KillableOutputStream();
+        stdStreams.registerStdout(jobId, stdout);
+        stdStreams.registerStdout(otherJobId, otherStdout);
+
+        stdStreams.killJob(jobId);
+
+        assertThat(stdout.killed).isExactlyInstanceOf(JobKilledException.class);
+        assertThat(otherStdout.killed).isNull();
+    }
+
+    @Test
+    public void test_reserved_schemes_are_rejected() throws Exception {
+        assertThatThrownBy(() -> StdStreams.ensureNotReserved("stdout:///" + UUID.randomUUID()))
+            .isExactlyInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> StdStreams.ensureNotReserved("StdIn:///" + UUID.randomUUID()))
+            .isExactlyInstanceOf(IllegalArgumentException.class);
+        StdStreams.ensureNotReserved("s3://bucket/stdout/");
+        StdStreams.ensureNotReserved("file:///tmp/stdin.json");
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.collect.files;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.Test;
+
+public class StdinIteratorTest {
+
+    private final List<Boolean> autoReadChanges = new ArrayList<>();
+    private final StdinIterator it = new StdinIterator(autoReadChanges::add);
+
+    private static byte[] bytes(String str) {
+        return str.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private List<String> consumeAvailableLines() {
+        List<String> lines = new ArrayList<>();
+        while (it.moveNext()) {
+            lines.add(it.currentElement().line());
+        }
+        return lines;
+    }
+
+    @Test
+    public void test_lines_can_span_multiple_chunks() throws Exception {
+        it.onData(bytes("{\"x\": 1}\n{\"x\""));
+        it.onData(bytes(": 2}\r\n\n{\"x\": 3}"));
+        it.onData(bytes("\n\\.\n"));
+        assertThat(consumeAvailableLines()).containsExactly("{\"x\": 1}", "{\"x\": 2}", "{\"x\": 3}");
+        assertThat(it.allLoaded()).isFalse();
+
+        it.onDone();
+        assertThat(it.moveNext()).isFalse();
+        assertThat(it.allLoaded()).isTrue();
+    }
+
+    @Test
+    public void test_last_line_without_newline_is_emitted_once_done() throws Exception {
+        it.onData(bytes("a\nb"));
+        assertThat(consumeAvailableLines()).containsExactly("a");
+
+        it.onDone();
+        assertThat(it.moveNext()).isTrue();
+        assertThat(it.currentElement().line()).isEqualTo("b");
+        assertThat(it.currentElement().lineNumber()).isEqualTo(2L);
+        assertThat(it.moveNext()).isFalse();
+        assertThat(it.allLoaded()).isTrue();
+    }
+
+    @Test
+    public void test_load_next_batch_completes_once_data_arrives() throws Exception {
+        CompletableFuture<?> batch = it.loadNextBatch();
+        assertThat(batch).isNotDone();
+
+        it.onData(bytes("a\n"));
+        assertThat(batch).isCompleted();
+        assertThat(consumeAvailableLines()).containsExactly("a");
+
+        batch = it.loadNextBatch();
+        assertThat(batch).isNotDone();
+        it.onDone();
+        assertThat(batch).isCompleted();
+    }
+
+    @Test
+    public void test_reading_is_paused_and_resumed_based_on_buffered_bytes() throws Exception {
+        byte[] line = new byte[1024];
+        line[line.length - 1] = '\n';
+        int numLines = StdinIterator.PAUSE_READING_BYTES / line.length + 1;
+        for (int i = 0; i < numLines; i++) {
+            it.onData(line);
+        }
+        assertThat(autoReadChanges).containsExactly(false);
+
+        int consumed = 0;
+        while (autoReadChanges.size() == 1 && it.moveNext()) {
+            consumed++;
+        }
+        assertThat(autoReadChanges).containsExactly(false, true);
+        assertThat(consumed).isLessThan(numLines);
+    }
+
+    @Test
+    public void test_copy_fail_fails_pending_load_and_iteration() throws Exception {
+        CompletableFuture<?> batch = it.loadNextBatch();
+        it.onFail("aborted by user");
+
+        assertThat(batch).isCompletedExceptionally();
+        assertThatThrownBy(it::moveNext)
+            .isExactlyInstanceOf(IllegalStateException.class)
+            .hasMessage("COPY from stdin failed: aborted by user");
+    }
+}
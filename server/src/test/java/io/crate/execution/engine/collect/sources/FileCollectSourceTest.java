@@ -24,6 +24,7 @@ package io.crate.execution.engine.collect.sources;
 import static io.crate.testing.TestingHelpers.createNodeContext;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -39,10 +40,12 @@ import org.junit.Test;
 import io.crate.analyze.CopyFromParserProperties;
 import io.crate.data.BatchIterator;
 import io.crate.data.Row;
+import io.crate.data.breaker.RamAccounting;
 import io.crate.execution.dsl.phases.FileUriCollectPhase;
 import io.crate.execution.dsl.phases.FileUriCollectPhase.InputFormat;
 import io.crate.execution.dsl.projection.Projection;
 import io.crate.execution.engine.collect.CollectTask;
+import io.crate.execution.engine.collect.files.StdStreams;
 import io.crate.expression.symbol.Literal;
 import io.crate.expression.symbol.Symbol;
 import io.crate.metadata.CoordinatorTxnCtx;
@@ -90,13 +93,16 @@ public class FileCollectSourceTest extends CrateDummyClusterServiceUnitTest {
             clusterService,
             Map.of(),
             THREAD_POOL,
-            () -> List.of(Role.CRATE_USER)
+            () -> List.of(Role.CRATE_USER),
+            new StdStreams()
         );
 
+        CollectTask collectTask = mock(CollectTask.class);
+        when(collectTask.getRamAccounting()).thenReturn(RamAccounting.NO_ACCOUNTING);
         CompletableFuture<BatchIterator<Row>> iterator = fileCollectSource.getIterator(
             CoordinatorTxnCtx.systemTransactionContext(),
             fileUriCollectPhase,
-            mock(CollectTask.class),
+            collectTask,
             false
         );
         assertThat(iterator).succeedsWithin(5, TimeUnit.SECONDS);
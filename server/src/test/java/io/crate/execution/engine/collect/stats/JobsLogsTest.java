@@ -221,6 +221,72 @@ public class JobsLogsTest extends CrateDummyClusterServiceUnitTest {
         }
     }
 
+    @Test
+    public void test_ring_buffer_and_sampling_settings_change_sinks() throws Exception {
+        Settings settings = Settings.builder()
+            .put(JobsLogService.STATS_JOBS_LOG_SIZE_SETTING.getKey(), 100)
+            .put(JobsLogService.STATS_OPERATIONS_LOG_SIZE_SETTING.getKey(), 100)
+            .build();
+        try (var stats = new JobsLogService(settings, clusterService, nodeCtx, breakerService)) {
+            Supplier<LogSink<JobContextLog>> jobsLogSink = () -> (LogSink<JobContextLog>) stats.get().jobsLog();
+            Supplier<LogSink<OperationContextLog>> operationsLogSink = () -> (LogSink<OperationContextLog>) stats.get().operationsLog();
+
+            clusterSettings.applySettings(Settings.builder()
+                .put(JobsLogService.STATS_LOG_RING_BUFFER_SETTING.getKey(), true)
+                .build());
+
+            assertThat(((FilteredLogSink<JobContextLog>) jobsLogSink.get()).delegate)
+                .isExactlyInstanceOf(RingBufferLogSink.class);
+            assertThat(operationsLogSink.get()).isExactlyInstanceOf(RingBufferLogSink.class);
+
+            jobsLogSink.get().add(new JobContextLog(
+                new JobContext(UUID.randomUUID(), "select 1", 1L, Role.CRATE_USER, null), null, 2L));
+
+            clusterSettings.applySettings(Settings.builder()
+                .put(JobsLogService.STATS_LOG_RING_BUFFER_SETTING.getKey(), true)
+                .put(JobsLogService.STATS_LOG_SAMPLING_RATE_SETTING.getKey(), 1_000_000)
+                .build());
+
+            SamplingLogSink<JobContextLog> samplingSink =
+                (SamplingLogSink<JobContextLog>) ((FilteredLogSink<JobContextLog>) jobsLogSink.get()).delegate;
+            assertThat(samplingSink.delegate).isExactlyInstanceOf(RingBufferLogSink.class);
+            assertThat(operationsLogSink.get()).isExactlyInstanceOf(SamplingLogSink.class);
+            assertThat(jobsLogSink.get()).as("existing entries are kept").hasSize(1);
+
+            // failed and slow jobs are always recorded
+            jobsLogSink.get().add(new JobContextLog(
+                new JobContext(UUID.randomUUID(), "select 2", 1L, Role.CRATE_USER, null), "failure", 2L));
+            jobsLogSink.get().add(new JobContextLog(
+                new JobContext(UUID.randomUUID(), "select 3", 1L, Role.CRATE_USER, null), null, 5_000L));
+            assertThat(jobsLogSink.get()).hasSize(3);
+
+            clusterSettings.applySettings(Settings.builder()
+                .put(JobsLogService.STATS_LOG_RING_BUFFER_SETTING.getKey(), false)
+                .put(JobsLogService.STATS_LOG_SAMPLING_RATE_SETTING.getKey(), 1)
+                .build());
+            assertThat(((FilteredLogSink<JobContextLog>) jobsLogSink.get()).delegate)
+                .isExactlyInstanceOf(QueueSink.class);
+            assertThat(operationsLogSink.get()).isExactlyInstanceOf(QueueSink.class);
+            assertThat(jobsLogSink.get()).hasSize(3);
+        }
+    }
+
+    @Test
+    public void test_sampling_keeps_one_in_rate_jobs_and_all_failed_or_slow_jobs() {
+        TimeValue threshold = TimeValue.timeValueSeconds(1);
+        int sampled = 0;
+        for (int i = 0; i < 10_000; i++) {
+            UUID jobId = UUID.randomUUID();
+            if (JobsLogService.isSampled(jobId, 10L, null, 10, threshold)) {
+                sampled++;
+            }
+            assertThat(JobsLogService.isSampled(jobId, 10L, "failure", 10, threshold)).isTrue();
+            assertThat(JobsLogService.isSampled(jobId, 1_000L, null, 10, threshold)).isTrue();
+            assertThat(JobsLogService.isSampled(jobId, 10L, null, 1, threshold)).isTrue();
+        }
+        assertThat(sampled).isBetween(700, 1300);
+    }
+
     private static Queue<?> inspectRamAccountingQueue(QueueSink<?> sink) throws Exception {
         Field field = sink.getClass().getDeclaredField("queue");
         field.setAccessible(true);
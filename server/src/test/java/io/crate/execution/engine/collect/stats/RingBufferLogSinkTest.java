@@ -0,0 +1,113 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.collect.stats;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.elasticsearch.common.breaker.ChildMemoryCircuitBreaker;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.indices.breaker.BreakerSettings;
+import org.elasticsearch.test.ESTestCase;
+import org.junit.Test;
+
+public class RingBufferLogSinkTest extends ESTestCase {
+
+    private CircuitBreaker breaker(long limit) {
+        return new ChildMemoryCircuitBreaker(new BreakerSettings("test", limit, CircuitBreaker.Type.MEMORY), logger, null);
+    }
+
+    @Test
+    public void test_concurrent_adds_keep_at_most_size_entries() throws Exception {
+        var sink = new RingBufferLogSink<Integer>(15_000, 8, RamAccountingQueueSinkTest.breaker(), x -> 0);
+
+        int numThreads = 50;
+        CountDownLatch latch = new CountDownLatch(numThreads);
+        List<Thread> threads = new ArrayList<>(numThreads);
+        for (int i = 0; i < numThreads; i++) {
+            Thread t = new Thread(() -> {
+                for (int j = 0; j < 1000; j++) {
+                    sink.add(j);
+                }
+                latch.countDown();
+            });
+            t.start();
+            threads.add(t);
+        }
+        latch.await();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertThat(sink).hasSizeLessThanOrEqualTo(15_000);
+        assertThat(sink).hasSizeGreaterThanOrEqualTo(1000);
+    }
+
+    @Test
+    public void test_single_thread_evicts_oldest_entries_of_its_stripe() {
+        var sink = new RingBufferLogSink<Integer>(3, 1, RamAccountingQueueSinkTest.breaker(), x -> 0);
+        for (int i = 0; i < 5; i++) {
+            sink.add(i);
+        }
+        assertThat(sink).containsExactly(2, 3, 4);
+    }
+
+    @Test
+    public void test_add_all_distributes_entries_across_stripes() {
+        var sink = new RingBufferLogSink<Integer>(10, 4, RamAccountingQueueSinkTest.breaker(), x -> 0);
+        sink.addAll(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9));
+        assertThat(sink).containsExactlyInAnyOrder(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+    }
+
+    @Test
+    public void test_memory_is_accounted_and_released_on_close() {
+        CircuitBreaker breaker = breaker(10 * 1024 * 1024);
+        var sink = new RingBufferLogSink<Integer>(1000, 1, breaker, x -> 1024);
+        for (int i = 0; i < 1000; i++) {
+            sink.add(i);
+        }
+        assertThat(breaker.getUsed()).isGreaterThan(900 * 1024L).isLessThanOrEqualTo(1000 * 1024L);
+        for (int i = 0; i < 1000; i++) {
+            sink.add(i);
+        }
+        assertThat(breaker.getUsed()).as("evicted entries are released").isLessThanOrEqualTo(1000 * 1024L);
+
+        sink.close();
+        assertThat(breaker.getUsed()).isEqualTo(0L);
+        assertThat(sink).isEmpty();
+    }
+
+    @Test
+    public void test_entries_are_cleared_if_breaker_limit_is_exceeded() {
+        CircuitBreaker breaker = breaker(100 * 1024);
+        var sink = new RingBufferLogSink<Integer>(1000, 1, breaker, x -> 1024);
+        for (int i = 0; i < 200; i++) {
+            sink.add(i);
+        }
+        assertThat(sink).hasSizeLessThan(200);
+        assertThat(breaker.getUsed()).isLessThanOrEqualTo((100 + 32) * 1024L);
+        sink.close();
+        assertThat(breaker.getUsed()).isEqualTo(0L);
+    }
+}
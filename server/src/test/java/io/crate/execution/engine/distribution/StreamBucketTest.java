@@ -0,0 +1,188 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.engine.distribution;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.elasticsearch.Version;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.test.ESTestCase;
+import org.junit.Test;
+
+import io.crate.Streamer;
+import io.crate.breaker.ConcurrentRamAccounting;
+import io.crate.data.Row;
+import io.crate.data.RowN;
+import io.crate.data.breaker.RamAccounting;
+import io.crate.testing.DataTypeTesting;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+
+public class StreamBucketTest extends ESTestCase {
+
+    private static final List<DataType<?>> TYPES = List.of(
+        DataTypes.INTEGER,
+        DataTypes.LONG,
+        DataTypes.TIMESTAMPZ,
+        DataTypes.STRING,
+        DataTypes.DOUBLE
+    );
+
+    private static Streamer<?>[] streamers() {
+        Streamer<?>[] streamers = new Streamer[TYPES.size()];
+        for (int i = 0; i < TYPES.size(); i++) {
+            streamers[i] = TYPES.get(i).streamer();
+        }
+        return streamers;
+    }
+
+    private static List<Object[]> randomRows(int numRows) {
+        List<Supplier<?>> generators = new ArrayList<>();
+        for (DataType<?> type : TYPES) {
+            generators.add(DataTypeTesting.getDataGenerator(type));
+        }
+        List<Object[]> rows = new ArrayList<>(numRows);
+        for (int i = 0; i < numRows; i++) {
+            Object[] cells = new Object[TYPES.size()];
+            for (int c = 0; c < cells.length; c++) {
+                cells[c] = rarely() ? null : generators.get(c).get();
+            }
+            rows.add(cells);
+        }
+        return rows;
+    }
+
+    private static StreamBucket build(List<Object[]> rows, boolean columnar) {
+        StreamBucket.Builder builder = new StreamBucket.Builder(streamers(), RamAccounting.NO_ACCOUNTING, columnar);
+        for (Object[] cells : rows) {
+            builder.add(new RowN(cells));
+        }
+        return builder.build();
+    }
+
+    private static StreamBucket streamed(StreamBucket bucket, Version version) throws Exception {
+        BytesStreamOutput out = new BytesStreamOutput();
+        out.setVersion(version);
+        bucket.writeTo(out);
+        StreamInput in = out.bytes().streamInput();
+        in.setVersion(version);
+        return new StreamBucket(in, streamers());
+    }
+
+    private static List<Object[]> materialize(StreamBucket bucket) {
+        List<Object[]> rows = new ArrayList<>();
+        for (Row row : bucket) {
+            rows.add(row.materialize());
+        }
+        return rows;
+    }
+
+    @Test
+    public void test_columnar_bucket_contains_same_rows_as_row_bucket() throws Exception {
+        List<Object[]> rows = randomRows(randomIntBetween(1, 2000));
+        StreamBucket rowBucket = build(rows, false);
+        StreamBucket columnarBucket = build(rows, true);
+
+        assertThat(materialize(columnarBucket)).containsExactlyElementsOf(rows);
+        // iterating twice must be possible
+        assertThat(materialize(columnarBucket)).containsExactlyElementsOf(rows);
+        assertThat(materialize(streamed(columnarBucket, Version.CURRENT))).containsExactlyElementsOf(rows);
+        assertThat(materialize(streamed(rowBucket, Version.CURRENT))).containsExactlyElementsOf(rows);
+    }
+
+    @Test
+    public void test_columnar_bucket_is_converted_to_row_format_for_older_nodes() throws Exception {
+        List<Object[]> rows = randomRows(randomIntBetween(1, 500));
+        StreamBucket columnarBucket = build(rows, true);
+
+        assertThat(materialize(streamed(columnarBucket, Version.V_5_9_0))).containsExactlyElementsOf(rows);
+    }
+
+    @Test
+    public void test_columnar_bucket_with_repeated_keys_is_smaller() throws Exception {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            rows.add(new Object[] { i % 10, 1_700_000_000_000L + i, 1_700_000_000_000L, "group-" + (i % 10), 1.5 });
+        }
+        BytesStreamOutput rowOut = new BytesStreamOutput();
+        build(rows, false).writeTo(rowOut);
+        BytesStreamOutput columnarOut = new BytesStreamOutput();
+        StreamBucket columnarBucket = build(rows, true);
+        columnarBucket.writeTo(columnarOut);
+
+        assertThat(columnarOut.size()).isLessThan(rowOut.size() / 4);
+        assertThat(materialize(columnarBucket)).containsExactlyElementsOf(rows);
+    }
+
+    @Test
+    public void test_builder_can_be_reused_after_build() throws Exception {
+        StreamBucket.Builder builder = new StreamBucket.Builder(streamers(), RamAccounting.NO_ACCOUNTING, true);
+        List<Object[]> first = randomRows(100);
+        List<Object[]> second = randomRows(50);
+        for (Object[] cells : first) {
+            builder.add(new RowN(cells));
+        }
+        StreamBucket firstBucket = builder.build();
+        builder.reset();
+        for (Object[] cells : second) {
+            builder.add(new RowN(cells));
+        }
+        StreamBucket secondBucket = builder.build();
+
+        assertThat(materialize(firstBucket)).containsExactlyElementsOf(first);
+        assertThat(materialize(secondBucket)).containsExactlyElementsOf(second);
+    }
+
+    @Test
+    public void test_small_buckets_use_row_format() throws Exception {
+        List<Object[]> rows = randomRows(StreamBucket.Builder.COLUMNAR_MIN_ROWS - 1);
+        StreamBucket bucket = build(rows, true);
+
+        assertThat(bucket.isColumnar()).isFalse();
+        assertThat(materialize(streamed(bucket, Version.CURRENT))).containsExactlyElementsOf(rows);
+        assertThat(build(randomRows(StreamBucket.Builder.COLUMNAR_MIN_ROWS), true).isColumnar()).isTrue();
+    }
+
+    @Test
+    public void test_compression_hash_table_is_accounted_once() throws Exception {
+        var ramAccounting = new ConcurrentRamAccounting(bytes -> {}, bytes -> {}, "test", 0);
+        StreamBucket.Builder builder = new StreamBucket.Builder(streamers(), ramAccounting, true);
+        List<Object[]> rows = randomRows(StreamBucket.Builder.COLUMNAR_MIN_ROWS);
+        for (Object[] cells : rows) {
+            builder.add(new RowN(cells));
+        }
+        long bytesOfFirstBucket = ramAccounting.totalBytes();
+        assertThat(bytesOfFirstBucket).isGreaterThan(1 << 14);
+        builder.build();
+        builder.reset();
+        for (Object[] cells : rows) {
+            builder.add(new RowN(cells));
+        }
+        assertThat(ramAccounting.totalBytes()).isEqualTo(bytesOfFirstBucket);
+    }
+}
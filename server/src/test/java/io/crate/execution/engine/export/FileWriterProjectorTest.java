@@ -45,6 +45,7 @@ import org.junit.rules.TemporaryFolder;
 import io.crate.data.BatchIterator;
 import io.crate.data.InMemoryBatchIterator;
 import io.crate.data.Row;
+import io.crate.data.breaker.RamAccounting;
 import io.crate.data.testing.RowGenerator;
 import io.crate.data.testing.TestingRowConsumer;
 import io.crate.exceptions.UnhandledServerException;
@@ -68,9 +69,9 @@ public class FileWriterProjectorTest extends ESTestCase {
         Path file = createTempFile("out", "json");
 
         FileWriterProjector fileWriterProjector = new FileWriterProjector(executorService, file.toUri().toString(),
-            null, null, Set.of(),
+            null, null, null, Set.of(),
             null, WriterProjection.OutputFormat.JSON_OBJECT,
-            Map.of(LocalFsFileOutputFactory.NAME, new LocalFsFileOutputFactory()), Settings.EMPTY);
+            Map.of(LocalFsFileOutputFactory.NAME, new LocalFsFileOutputFactory()), Settings.EMPTY, RamAccounting.NO_ACCOUNTING);
 
         new TestingRowConsumer().accept(fileWriterProjector.apply(sourceSupplier.get()), null);
 
@@ -88,9 +89,9 @@ public class FileWriterProjectorTest extends ESTestCase {
 
         FileWriterProjector fileWriterProjector = new FileWriterProjector(
                 executorService, directory.toUri().toString(),
-                null, null, Set.of(),
+                null, null, null, Set.of(),
                 null, WriterProjection.OutputFormat.JSON_OBJECT,
-                Map.of(LocalFsFileOutputFactory.NAME, new LocalFsFileOutputFactory()), Settings.EMPTY);
+                Map.of(LocalFsFileOutputFactory.NAME, new LocalFsFileOutputFactory()), Settings.EMPTY, RamAccounting.NO_ACCOUNTING);
         assertThatThrownBy(() -> new TestingRowConsumer().accept(fileWriterProjector.apply(sourceSupplier.get()), null))
             .isExactlyInstanceOf(UnhandledServerException.class)
             .hasMessageStartingWith("Failed to open output: 'Output path is a directory: ");
@@ -101,9 +102,9 @@ public class FileWriterProjectorTest extends ESTestCase {
         String uri = Paths.get(folder.newFile().toURI()).resolve("out.json").toUri().toString();
 
         FileWriterProjector fileWriterProjector = new FileWriterProjector(executorService, uri,
-                null, null, Set.of(),
+                null, null, null, Set.of(),
                 null, WriterProjection.OutputFormat.JSON_OBJECT,
-                Map.of(LocalFsFileOutputFactory.NAME, new LocalFsFileOutputFactory()), Settings.EMPTY);
+                Map.of(LocalFsFileOutputFactory.NAME, new LocalFsFileOutputFactory()), Settings.EMPTY, RamAccounting.NO_ACCOUNTING);
 
         assertThatThrownBy(() -> new TestingRowConsumer().accept(fileWriterProjector.apply(sourceSupplier.get()), null))
             .isExactlyInstanceOf(UnhandledServerException.class)
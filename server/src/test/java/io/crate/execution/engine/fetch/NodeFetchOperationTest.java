@@ -23,6 +23,7 @@ package io.crate.execution.engine.fetch;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -34,7 +35,12 @@ import org.junit.Test;
 
 import io.crate.execution.engine.collect.stats.JobsLogs;
 import io.crate.execution.jobs.TasksService;
+import io.crate.metadata.ColumnIdent;
+import io.crate.metadata.DocReferences;
+import io.crate.metadata.Reference;
+import io.crate.metadata.doc.DocTableInfo;
 import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
+import io.crate.testing.SQLExecutor;
 
 public class NodeFetchOperationTest extends CrateDummyClusterServiceUnitTest {
 
@@ -59,4 +65,30 @@ public class NodeFetchOperationTest extends CrateDummyClusterServiceUnitTest {
             threadPoolExecutor.awaitTermination(2, TimeUnit.SECONDS);
         }
     }
+
+    @Test
+    public void test_fetch_reads_columns_with_lossless_doc_values_from_doc_values() throws Exception {
+        SQLExecutor e = SQLExecutor.of(clusterService)
+            .addTable("""
+                create table tbl (
+                    i int,
+                    s text,
+                    ft text index using fulltext,
+                    no_store text storage with (columnstore = false),
+                    p geo_point,
+                    a array(int)
+                )
+                """);
+        DocTableInfo table = e.resolveTableInfo("tbl");
+
+        Reference i = table.getReference(ColumnIdent.of("i"));
+        assertThat(NodeFetchOperation.preferDocValues(DocReferences.toDocLookup(i))).isEqualTo(i);
+        Reference s = table.getReference(ColumnIdent.of("s"));
+        assertThat(NodeFetchOperation.preferDocValues(DocReferences.toDocLookup(s))).isEqualTo(s);
+
+        for (String column : List.of("ft", "no_store", "p", "a")) {
+            Reference sourceLookup = DocReferences.toDocLookup(table.getReference(ColumnIdent.of(column)));
+            assertThat(NodeFetchOperation.preferDocValues(sourceLookup)).isEqualTo(sourceLookup);
+        }
+    }
 }
@@ -24,6 +24,7 @@ package io.crate.execution.engine.join;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
@@ -35,11 +36,14 @@ import org.junit.Test;
 import io.crate.data.BatchIterator;
 import io.crate.data.Paging;
 import io.crate.data.Row;
+import io.crate.data.Row1;
 import io.crate.data.breaker.RowAccounting;
 import io.crate.data.join.CombinedRow;
 import io.crate.data.testing.BatchSimulatingIterator;
 import io.crate.data.testing.TestingBatchIterators;
 import io.crate.data.testing.TestingRowConsumer;
+import io.crate.execution.engine.collect.RowCollectExpression;
+import io.crate.sql.tree.JoinType;
 
 public class HashJoinBatchIteratorBehaviouralTest {
 
@@ -166,4 +170,125 @@ public class HashJoinBatchIteratorBehaviouralTest {
         List<Object[]> result = consumer.getResult();
         assertThat(result).containsExactly(new Object[]{2, 2}, new Object[]{4, 4}, new Object[]{1, null}, new Object[]{3, null});
     }
+
+    @Test
+    public void test_runtime_filter_is_published_if_left_fits_into_one_block() throws Exception {
+        BatchSimulatingIterator<Row> leftIterator = new BatchSimulatingIterator<>(
+            TestingBatchIterators.ofValues(List.of(1, 2, 3, 4)), 2, 1, null);
+        BatchSimulatingIterator<Row> rightIterator = new BatchSimulatingIterator<>(
+            TestingBatchIterators.ofValues(List.of(2, 0, 4, 5)), 2, 1, null);
+        List<RuntimeFilter> filters = new ArrayList<>();
+        RowCollectExpression key = new RowCollectExpression(0);
+        RuntimeFilter.Builder runtimeFilter = new RuntimeFilter.Builder(
+            List.of(key), List.of(key), new int[] { 0 }, 1, filters::add);
+
+        BatchIterator<Row> batchIterator = new HashJoinBatchIterator(
+            leftIterator,
+            rightIterator,
+            mock(RowAccounting.class),
+            new CombinedRow(1, 1),
+            row -> Objects.equals(row.get(0), row.get(1)),
+            row -> Objects.hash(row.get(0)),
+            row -> Objects.hash(row.get(0)),
+            ignored -> 500000,
+            JoinType.INNER,
+            null,
+            runtimeFilter
+        );
+
+        TestingRowConsumer consumer = new TestingRowConsumer();
+        consumer.accept(batchIterator, null);
+        assertThat(consumer.getResult()).containsExactly(new Object[]{2, 2}, new Object[]{4, 4});
+        assertThat(filters).hasSize(1);
+        RuntimeFilter filter = filters.getFirst();
+        assertThat(filter.test(new Row1(2))).isTrue();
+        assertThat(filter.test(new Row1(4))).isTrue();
+        assertThat(filter.test(new Row1(0))).isFalse();
+        assertThat(filter.test(new Row1(5))).isFalse();
+    }
+
+    @Test
+    public void test_runtime_filter_is_discarded_if_left_does_not_fit_into_one_block() throws Exception {
+        BatchSimulatingIterator<Row> leftIterator = new BatchSimulatingIterator<>(
+            TestingBatchIterators.ofValues(List.of(1, 2, 4)), 1, 2, null);
+        BatchSimulatingIterator<Row> rightIterator = new BatchSimulatingIterator<>(
+            TestingBatchIterators.ofValues(List.of(2, 0, 4, 5)), 2, 1, null);
+        List<RuntimeFilter> filters = new ArrayList<>();
+        RowCollectExpression key = new RowCollectExpression(0);
+        RuntimeFilter.Builder runtimeFilter = new RuntimeFilter.Builder(
+            List.of(key), List.of(key), new int[] { 0 }, 1, filters::add);
+
+        BatchIterator<Row> batchIterator = new HashJoinBatchIterator(
+            leftIterator,
+            rightIterator,
+            mock(RowAccounting.class),
+            new CombinedRow(1, 1),
+            row -> Objects.equals(row.get(0), row.get(1)),
+            row -> Objects.hash(row.get(0)),
+            row -> Objects.hash(row.get(0)),
+            ignored -> 2,
+            JoinType.INNER,
+            null,
+            runtimeFilter
+        );
+
+        TestingRowConsumer consumer = new TestingRowConsumer();
+        consumer.accept(batchIterator, null);
+        assertThat(consumer.getResult()).containsExactly(new Object[]{2, 2}, new Object[]{4, 4});
+        assertThat(runtimeFilter.isDone()).isTrue();
+        assertThat(filters).isEmpty();
+    }
+
+    @Test
+    public void test_semi_join_emits_each_matching_left_row_once() throws Exception {
+        BatchSimulatingIterator<Row> leftIterator = new BatchSimulatingIterator<>(
+            TestingBatchIterators.ofValues(List.of(1, 2, 2, 3, 4)), 2, 2, null);
+        BatchSimulatingIterator<Row> rightIterator = new BatchSimulatingIterator<>(
+            TestingBatchIterators.ofValues(List.of(2, 2, 4, 4, 5)), 2, 2, null);
+
+        BatchIterator<Row> batchIterator = new HashJoinBatchIterator(
+            leftIterator,
+            rightIterator,
+            mock(RowAccounting.class),
+            new CombinedRow(1, 1),
+            row -> Objects.equals(row.get(0), row.get(1)),
+            row -> Objects.hash(row.get(0)),
+            row -> Objects.hash(row.get(0)),
+            ignored -> 500000,
+            JoinType.SEMI,
+            null,
+            null
+        );
+
+        TestingRowConsumer consumer = new TestingRowConsumer();
+        consumer.accept(batchIterator, null);
+        assertThat(consumer.getResult()).containsExactlyInAnyOrder(
+            new Object[]{2, 2}, new Object[]{2, 2}, new Object[]{4, 4});
+    }
+
+    @Test
+    public void test_anti_join_emits_left_rows_without_match_with_multiple_blocks() throws Exception {
+        BatchSimulatingIterator<Row> leftIterator = new BatchSimulatingIterator<>(
+            TestingBatchIterators.ofValues(List.of(1, 2, 2, 3, 4)), 2, 2, null);
+        BatchSimulatingIterator<Row> rightIterator = new BatchSimulatingIterator<>(
+            TestingBatchIterators.ofValues(List.of(2, 2, 4, 4, 5)), 2, 2, null);
+
+        BatchIterator<Row> batchIterator = new HashJoinBatchIterator(
+            leftIterator,
+            rightIterator,
+            mock(RowAccounting.class),
+            new CombinedRow(1, 1),
+            row -> Objects.equals(row.get(0), row.get(1)),
+            row -> Objects.hash(row.get(0)),
+            row -> Objects.hash(row.get(0)),
+            ignored -> 2,
+            JoinType.ANTI,
+            null,
+            null
+        );
+
+        TestingRowConsumer consumer = new TestingRowConsumer();
+        consumer.accept(batchIterator, null);
+        assertThat(consumer.getResult()).containsExactlyInAnyOrder(new Object[]{1, null}, new Object[]{3, null});
+    }
 }
@@ -33,7 +33,9 @@ import java.util.function.Supplier;
 import java.util.function.ToIntFunction;
 
 import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 
 import com.carrotsearch.randomizedtesting.RandomizedRunner;
@@ -41,6 +43,7 @@ import com.carrotsearch.randomizedtesting.annotations.Name;
 import com.carrotsearch.randomizedtesting.annotations.ParametersFactory;
 import com.carrotsearch.randomizedtesting.annotations.ThreadLeakScope;
 
+import io.crate.Streamer;
 import io.crate.data.BatchIterator;
 import io.crate.data.Row;
 import io.crate.data.breaker.RowAccounting;
@@ -49,11 +52,16 @@ import io.crate.data.testing.BatchIteratorTester;
 import io.crate.data.testing.BatchIteratorTester.ResultOrder;
 import io.crate.data.testing.BatchSimulatingIterator;
 import io.crate.data.testing.TestingBatchIterators;
+import io.crate.execution.engine.spill.SpillService;
+import io.crate.types.DataTypes;
 
 @RunWith(RandomizedRunner.class)
 @ThreadLeakScope(ThreadLeakScope.Scope.NONE)
 public class LeftOuterHashJoinBatchIteratorTest {
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     private final CircuitBreaker circuitBreaker = mock(CircuitBreaker.class);
     private final List<Object[]> expectedResult;
     private final Supplier<BatchIterator<Row>> leftIterator;
@@ -179,4 +187,24 @@ public class LeftOuterHashJoinBatchIteratorTest {
         var tester = BatchIteratorTester.forRows(batchIteratorSupplier, ResultOrder.ANY);
         tester.verifyResultAndEdgeCaseBehaviour(expectedResult);
     }
+
+    @Test
+    public void test_left_outer_join_with_spilling_to_disk() throws Exception {
+        SpillService spillService = new SpillService(temporaryFolder.newFolder().toPath(), true);
+        Streamer<?>[] streamers = new Streamer[] { DataTypes.INTEGER };
+        Supplier<BatchIterator<Row>> batchIteratorSupplier = () -> new HashJoinBatchIterator(
+            leftIterator.get(),
+            rightIterator.get(),
+            mock(RowAccounting.class),
+            new CombinedRow(1, 1),
+            getCol0EqCol1JoinCondition(),
+            getHashForLeft(),
+            getHashForRight(),
+            ignored -> 2,
+            true,
+            () -> HashJoinPartitions.create(spillService, streamers, streamers)
+        );
+        var tester = BatchIteratorTester.forRows(batchIteratorSupplier, ResultOrder.ANY);
+        tester.verifyResultAndEdgeCaseBehaviour(expectedResult);
+    }
 }
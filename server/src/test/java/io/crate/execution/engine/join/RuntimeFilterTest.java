@@ -0,0 +1,168 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.engine.join;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.test.ESTestCase;
+import org.junit.Test;
+
+import io.crate.data.Row;
+import io.crate.data.Row1;
+import io.crate.data.RowN;
+import io.crate.execution.engine.collect.RowCollectExpression;
+
+public class RuntimeFilterTest extends ESTestCase {
+
+    private static RuntimeFilter build(int numPartials, Iterable<?> values) {
+        List<RuntimeFilter> filters = new ArrayList<>();
+        RowCollectExpression key = new RowCollectExpression(0);
+        RuntimeFilter.Builder builder = new RuntimeFilter.Builder(
+            List.of(key),
+            List.of(key),
+            new int[] { 1 },
+            numPartials,
+            filters::add
+        );
+        for (Object value : values) {
+            builder.add(new Row1(value));
+        }
+        builder.finish();
+        assertThat(filters).hasSize(1);
+        return filters.getFirst();
+    }
+
+    private static Row probeRow(Object key) {
+        return new RowN("other", key);
+    }
+
+    private static List<Integer> range(int from, int to, int step) {
+        List<Integer> result = new ArrayList<>();
+        for (int i = from; i < to; i += step) {
+            result.add(i);
+        }
+        return result;
+    }
+
+    @Test
+    public void test_filter_accepts_all_keys_of_build_side_and_rejects_most_others() throws Exception {
+        RuntimeFilter filter = build(1, range(0, 2000, 2));
+
+        for (int i = 0; i < 2000; i += 2) {
+            assertThat(filter.test(probeRow(i))).isTrue();
+            // The probe side may read the values of an integer column as long
+            assertThat(filter.test(probeRow((long) i))).isTrue();
+        }
+        int falsePositives = 0;
+        for (int i = 1; i < 2000; i += 2) {
+            if (filter.test(probeRow(i))) {
+                falsePositives++;
+            }
+        }
+        assertThat(falsePositives).isLessThan(50);
+    }
+
+    @Test
+    public void test_filter_rejects_keys_outside_of_min_max_and_nulls() throws Exception {
+        RuntimeFilter filter = build(1, List.of(10, 20, 30));
+
+        assertThat(filter.test(probeRow(9))).isFalse();
+        assertThat(filter.test(probeRow(31))).isFalse();
+        assertThat(filter.test(probeRow(null))).isFalse();
+        assertThat(filter.test(probeRow(20))).isTrue();
+    }
+
+    @Test
+    public void test_build_side_null_keys_are_skipped() throws Exception {
+        RuntimeFilter filter = build(1, Arrays.asList(null, "foo"));
+
+        assertThat(filter.test(probeRow("foo"))).isTrue();
+        assertThat(filter.test(probeRow(null))).isFalse();
+    }
+
+    @Test
+    public void test_empty_build_side_rejects_all_rows() throws Exception {
+        RuntimeFilter filter = build(1, List.of());
+
+        assertThat(filter.test(probeRow(1))).isFalse();
+        assertThat(filter.test(probeRow("foo"))).isFalse();
+    }
+
+    @Test
+    public void test_union_of_filters_with_different_sizes_accepts_keys_of_both() throws Exception {
+        RuntimeFilter small = build(2, range(0, 100, 1));
+        RuntimeFilter large = build(2, range(1000, 5000, 1));
+        assertThat(small.numBits()).isLessThan(large.numBits());
+
+        RuntimeFilter union = small.union(large);
+        assertThat(union.numBits()).isEqualTo(small.numBits());
+        for (int i = 0; i < 100; i++) {
+            assertThat(union.test(probeRow(i))).isTrue();
+        }
+        for (int i = 1000; i < 5000; i++) {
+            assertThat(union.test(probeRow(i))).isTrue();
+        }
+        assertThat(union.test(probeRow(-1))).isFalse();
+        assertThat(union.test(probeRow(5000))).isFalse();
+    }
+
+    @Test
+    public void test_builder_discards_filter_if_build_side_has_too_many_keys() throws Exception {
+        List<RuntimeFilter> filters = new ArrayList<>();
+        RowCollectExpression key = new RowCollectExpression(0);
+        RuntimeFilter.Builder builder = new RuntimeFilter.Builder(
+            List.of(key),
+            List.of(key),
+            new int[] { 0 },
+            RuntimeFilter.MAX_NUM_BITS / 10,
+            filters::add
+        );
+        builder.add(new Row1(1));
+        builder.add(new Row1(2));
+        assertThat(builder.isDone()).isTrue();
+
+        builder.finish();
+        assertThat(filters).isEmpty();
+    }
+
+    @Test
+    public void test_streaming() throws Exception {
+        RuntimeFilter filter = build(1, List.of("foo", "bar"));
+
+        BytesStreamOutput out = new BytesStreamOutput();
+        filter.writeTo(out);
+        StreamInput in = out.bytes().streamInput();
+        RuntimeFilter streamed = new RuntimeFilter(in);
+
+        assertThat(streamed.numBits()).isEqualTo(filter.numBits());
+        assertThat(streamed.test(probeRow("foo"))).isTrue();
+        assertThat(streamed.test(probeRow("bar"))).isTrue();
+        assertThat(streamed.test(probeRow(null))).isFalse();
+    }
+}
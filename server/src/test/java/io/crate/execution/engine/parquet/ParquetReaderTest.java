@@ -0,0 +1,396 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.parquet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.jetbrains.annotations.Nullable;
+import org.junit.Test;
+
+/**
+ * Reads files which are assembled page by page the way pyarrow and parquet-mr lay them out:
+ * optional columns with definition levels, a dictionary page followed by dictionary encoded
+ * data pages, v1 and v2 data pages and SNAPPY compression. The files are built independently
+ * of {@link ParquetWriter}, which only writes PLAIN encoded v1 data pages.
+ */
+public class ParquetReaderTest {
+
+    // Values as defined in parquet.thrift
+    private static final int INT64 = 2;
+    private static final int DOUBLE = 5;
+    private static final int BYTE_ARRAY = 6;
+    private static final int OPTIONAL = 1;
+    private static final int CONVERTED_UTF8 = 0;
+    private static final int PLAIN = 0;
+    private static final int PLAIN_DICTIONARY = 2;
+    private static final int RLE = 3;
+    private static final int RLE_DICTIONARY = 8;
+    private static final int DATA_PAGE = 0;
+    private static final int DICTIONARY_PAGE = 2;
+    private static final int DATA_PAGE_V2 = 3;
+    private static final int UNCOMPRESSED = 0;
+    private static final int SNAPPY = 1;
+
+    private record Chunk(String name,
+                         int physicalType,
+                         int convertedType,
+                         int codec,
+                         @Nullable byte[] dictionaryPage,
+                         byte[] dataPages) {
+    }
+
+    private static byte[] file(int numRows, Chunk... chunks) throws IOException {
+        var out = new ByteArrayOutputStream();
+        out.write(new byte[] {'P', 'A', 'R', '1'});
+        long[] offsets = new long[chunks.length];
+        for (int i = 0; i < chunks.length; i++) {
+            offsets[i] = out.size();
+            if (chunks[i].dictionaryPage != null) {
+                out.write(chunks[i].dictionaryPage);
+            }
+            out.write(chunks[i].dataPages);
+        }
+
+        var footer = new ThriftCompact.Writer();
+        footer.structBegin();
+        footer.fieldI32(1, 1);
+        footer.fieldListBegin(2, ThriftCompact.TYPE_STRUCT, chunks.length + 1);
+        footer.structBegin();
+        footer.fieldString(4, "schema");
+        footer.fieldI32(5, chunks.length);
+        footer.structEnd();
+        for (Chunk chunk : chunks) {
+            footer.structBegin();
+            footer.fieldI32(1, chunk.physicalType);
+            footer.fieldI32(3, OPTIONAL);
+            footer.fieldString(4, chunk.name);
+            if (chunk.convertedType >= 0) {
+                footer.fieldI32(6, chunk.convertedType);
+            }
+            footer.structEnd();
+        }
+        footer.fieldI64(3, numRows);
+        footer.fieldListBegin(4, ThriftCompact.TYPE_STRUCT, 1);
+        footer.structBegin();
+        footer.fieldListBegin(1, ThriftCompact.TYPE_STRUCT, chunks.length);
+        long totalSize = 0;
+        for (int i = 0; i < chunks.length; i++) {
+            Chunk chunk = chunks[i];
+            int dictionarySize = chunk.dictionaryPage == null ? 0 : chunk.dictionaryPage.length;
+            int size = dictionarySize + chunk.dataPages.length;
+            totalSize += size;
+            footer.structBegin();
+            footer.fieldI64(2, offsets[i]);
+            footer.fieldStructBegin(3);
+            footer.fieldI32(1, chunk.physicalType);
+            footer.fieldListBegin(2, ThriftCompact.TYPE_I32, 1);
+            footer.listI32(chunk.dictionaryPage == null ? PLAIN : RLE_DICTIONARY);
+            footer.fieldListBegin(3, ThriftCompact.TYPE_BINARY, 1);
+            footer.listString(chunk.name);
+            footer.fieldI32(4, chunk.codec);
+            footer.fieldI64(5, numRows);
+            footer.fieldI64(6, size);
+            footer.fieldI64(7, size);
+            footer.fieldI64(9, offsets[i] + dictionarySize);
+            if (chunk.dictionaryPage != null) {
+                footer.fieldI64(11, offsets[i]);
+            }
+            footer.structEnd();
+            footer.structEnd();
+        }
+        footer.fieldI64(2, totalSize);
+        footer.fieldI64(3, numRows);
+        footer.structEnd();
+        footer.structEnd();
+        byte[] footerBytes = footer.toByteArray();
+
+        out.write(footerBytes);
+        out.write(ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(footerBytes.length).array());
+        out.write(new byte[] {'P', 'A', 'R', '1'});
+        return out.toByteArray();
+    }
+
+    private static byte[] dictionaryPage(int codec, int numValues, byte[] values) {
+        byte[] compressed = compress(codec, values);
+        var header = new ThriftCompact.Writer();
+        header.structBegin();
+        header.fieldI32(1, DICTIONARY_PAGE);
+        header.fieldI32(2, values.length);
+        header.fieldI32(3, compressed.length);
+        header.fieldStructBegin(7);
+        header.fieldI32(1, numValues);
+        header.fieldI32(2, PLAIN_DICTIONARY);
+        header.structEnd();
+        header.structEnd();
+        return concat(header.toByteArray(), compressed);
+    }
+
+    /**
+     * A v1 data page compresses the length prefixed definition levels together with the values.
+     */
+    private static byte[] dataPageV1(int codec, int numValues, int encoding, byte[] definitionLevels, byte[] values) {
+        byte[] page = concat(intLE(definitionLevels.length), definitionLevels, values);
+        byte[] compressed = compress(codec, page);
+        var header = new ThriftCompact.Writer();
+        header.structBegin();
+        header.fieldI32(1, DATA_PAGE);
+        header.fieldI32(2, page.length);
+        header.fieldI32(3, compressed.length);
+        header.fieldStructBegin(5);
+        header.fieldI32(1, numValues);
+        header.fieldI32(2, encoding);
+        header.fieldI32(3, RLE);
+        header.fieldI32(4, RLE);
+        header.structEnd();
+        header.structEnd();
+        return concat(header.toByteArray(), compressed);
+    }
+
+    /**
+     * A v2 data page stores the definition levels uncompressed and without length prefix in front of the values.
+     */
+    private static byte[] dataPageV2(int codec,
+                                     int numValues,
+                                     int numNulls,
+                                     int encoding,
+                                     byte[] definitionLevels,
+                                     byte[] values,
+                                     boolean compressValues) {
+        byte[] compressed = compressValues ? compress(codec, values) : values;
+        var header = new ThriftCompact.Writer();
+        header.structBegin();
+        header.fieldI32(1, DATA_PAGE_V2);
+        header.fieldI32(2, definitionLevels.length + values.length);
+        header.fieldI32(3, definitionLevels.length + compressed.length);
+        header.fieldStructBegin(8);
+        header.fieldI32(1, numValues);
+        header.fieldI32(2, numNulls);
+        header.fieldI32(3, numValues);
+        header.fieldI32(4, encoding);
+        header.fieldI32(5, definitionLevels.length);
+        header.fieldI32(6, 0);
+        header.fieldBoolean(7, compressValues);
+        header.structEnd();
+        header.structEnd();
+        return concat(header.toByteArray(), definitionLevels, compressed);
+    }
+
+    private static byte[] compress(int codec, byte[] data) {
+        if (codec == UNCOMPRESSED) {
+            return data;
+        }
+        assert codec == SNAPPY : "Only SNAPPY is supported";
+        // Snappy allows to store the data as literal, the copies are covered by the decompression tests
+        var out = new ByteArrayOutputStream();
+        writeVarInt(out, data.length);
+        if (data.length > 0) {
+            int length = data.length - 1;
+            if (length < 60) {
+                out.write(length << 2);
+            } else {
+                assert length < 1 << 16 : "Literal must not exceed 2 length bytes";
+                out.write(61 << 2);
+                out.write(length & 0xFF);
+                out.write(length >>> 8);
+            }
+            out.write(data, 0, data.length);
+        }
+        return out.toByteArray();
+    }
+
+    private static void writeVarInt(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static byte[] longsLE(long... values) {
+        ByteBuffer buffer = ByteBuffer.allocate(values.length * 8).order(ByteOrder.LITTLE_ENDIAN);
+        for (long value : values) {
+            buffer.putLong(value);
+        }
+        return buffer.array();
+    }
+
+    private static byte[] doublesLE(double... values) {
+        ByteBuffer buffer = ByteBuffer.allocate(values.length * 8).order(ByteOrder.LITTLE_ENDIAN);
+        for (double value : values) {
+            buffer.putDouble(value);
+        }
+        return buffer.array();
+    }
+
+    private static byte[] strings(String... values) {
+        var out = new ByteArrayOutputStream();
+        for (String value : values) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeBytes(intLE(bytes.length));
+            out.writeBytes(bytes);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] intLE(int value) {
+        return ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(value).array();
+    }
+
+    private static byte[] bytes(int... values) {
+        byte[] bytes = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            bytes[i] = (byte) values[i];
+        }
+        return bytes;
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        var out = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            out.writeBytes(part);
+        }
+        return out.toByteArray();
+    }
+
+    private static List<List<Object>> read(byte[] file) throws IOException {
+        var reader = new ParquetReader(new ParquetReader.Source() {
+
+            @Override
+            public long size() {
+                return file.length;
+            }
+
+            @Override
+            public byte[] read(long position, int length) {
+                return Arrays.copyOfRange(file, (int) position, (int) position + length);
+            }
+        }, null);
+        int numColumns = reader.columnNames().size();
+        List<List<Object>> rows = new ArrayList<>();
+        while (reader.next()) {
+            List<Object> row = new ArrayList<>(numColumns);
+            for (int i = 0; i < numColumns; i++) {
+                row.add(reader.get(i));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    @Test
+    public void test_read_snappy_compressed_dictionary_encoded_v1_pages_with_nulls() throws Exception {
+        // id: [20, null, 10, 30, null], dictionary [10, 20, 30]
+        Chunk id = new Chunk(
+            "id",
+            INT64,
+            -1,
+            SNAPPY,
+            dictionaryPage(SNAPPY, 3, longsLE(10L, 20L, 30L)),
+            dataPageV1(
+                SNAPPY,
+                5,
+                PLAIN_DICTIONARY,
+                // bit-packed definition levels 1, 0, 1, 1, 0
+                bytes(0x03, 0b0000_1101),
+                // bit width 2, bit-packed indices 1, 0, 2
+                bytes(0x02, 0x03, 0b0010_0001, 0x00)
+            )
+        );
+        // name: ["b", null, "a", "b", null], dictionary ["a", "b"]
+        Chunk name = new Chunk(
+            "name",
+            BYTE_ARRAY,
+            CONVERTED_UTF8,
+            SNAPPY,
+            dictionaryPage(SNAPPY, 2, strings("a", "b")),
+            dataPageV1(
+                SNAPPY,
+                5,
+                PLAIN_DICTIONARY,
+                // RLE runs of the definition levels 1, 0, 1 1, 0
+                bytes(0x02, 0x01, 0x02, 0x00, 0x04, 0x01, 0x02, 0x00),
+                // bit width 1, RLE runs of the indices 1, 0, 1
+                bytes(0x01, 0x02, 0x01, 0x02, 0x00, 0x02, 0x01)
+            )
+        );
+
+        assertThat(read(file(5, id, name))).containsExactly(
+            List.of(20L, "b"),
+            Arrays.asList(null, null),
+            List.of(10L, "a"),
+            List.of(30L, "b"),
+            Arrays.asList(null, null)
+        );
+    }
+
+    @Test
+    public void test_read_v2_data_pages_with_nulls() throws Exception {
+        // v: [1.5, null, 2.5 | null, 4.0] in two PLAIN encoded pages, the second one stored uncompressed
+        Chunk v = new Chunk(
+            "v",
+            DOUBLE,
+            -1,
+            SNAPPY,
+            null,
+            concat(
+                dataPageV2(SNAPPY, 3, 1, PLAIN, bytes(0x03, 0b0000_0101), doublesLE(1.5, 2.5), true),
+                dataPageV2(SNAPPY, 2, 1, PLAIN, bytes(0x02, 0x00, 0x02, 0x01), doublesLE(4.0), false)
+            )
+        );
+        // s: ["x", "y", null, "x", "x"], dictionary ["x", "y"]
+        Chunk s = new Chunk(
+            "s",
+            BYTE_ARRAY,
+            CONVERTED_UTF8,
+            SNAPPY,
+            dictionaryPage(SNAPPY, 2, strings("x", "y")),
+            dataPageV2(
+                SNAPPY,
+                5,
+                1,
+                RLE_DICTIONARY,
+                // RLE runs of the definition levels 1 1, 0, 1 1
+                bytes(0x04, 0x01, 0x02, 0x00, 0x04, 0x01),
+                // bit width 1, bit-packed indices 0, 1, 0, 0
+                bytes(0x01, 0x03, 0b0000_0010),
+                true
+            )
+        );
+
+        assertThat(read(file(5, v, s))).containsExactly(
+            List.of(1.5, "x"),
+            Arrays.asList(null, "y"),
+            Arrays.asList(2.5, null),
+            Arrays.asList(null, "x"),
+            List.of(4.0, "x")
+        );
+    }
+}
@@ -0,0 +1,261 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.parquet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.jetbrains.annotations.Nullable;
+import org.junit.Test;
+
+import io.crate.breaker.ConcurrentRamAccounting;
+import io.crate.data.Input;
+import io.crate.expression.symbol.Literal;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+
+public class ParquetWriterReaderTest {
+
+    private static final List<String> NAMES = List.of("b", "i", "l", "d", "s", "ts", "dt", "o");
+    private static final List<DataType<?>> TYPES = List.of(
+        DataTypes.BOOLEAN,
+        DataTypes.INTEGER,
+        DataTypes.LONG,
+        DataTypes.DOUBLE,
+        DataTypes.STRING,
+        DataTypes.TIMESTAMPZ,
+        DataTypes.DATE,
+        DataTypes.UNTYPED_OBJECT
+    );
+
+    private static ParquetReader.Source source(byte[] bytes) {
+        return new ParquetReader.Source() {
+
+            @Override
+            public long size() {
+                return bytes.length;
+            }
+
+            @Override
+            public byte[] read(long position, int length) {
+                return Arrays.copyOfRange(bytes, (int) position, (int) position + length);
+            }
+        };
+    }
+
+    private static byte[] write(List<Object[]> rows, int codec, long rowGroupSizeBytes) throws IOException {
+        var out = new ByteArrayOutputStream();
+        try (var writer = new ParquetWriter(out, NAMES, TYPES, codec, rowGroupSizeBytes)) {
+            for (Object[] row : rows) {
+                List<Input<?>> inputs = new ArrayList<>(row.length);
+                for (int i = 0; i < row.length; i++) {
+                    inputs.add(Literal.ofUnchecked(TYPES.get(i), row[i]));
+                }
+                writer.write(inputs);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private static List<List<Object>> read(byte[] bytes, @Nullable List<String> columns) throws IOException {
+        var reader = new ParquetReader(source(bytes), columns);
+        int numColumns = reader.columnNames().size();
+        List<List<Object>> rows = new ArrayList<>();
+        while (reader.next()) {
+            List<Object> row = new ArrayList<>(numColumns);
+            for (int i = 0; i < numColumns; i++) {
+                Object value = reader.get(i);
+                row.add(value instanceof byte[] json ? new String(json, StandardCharsets.UTF_8) : value);
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private static List<Object[]> rows(int numRows) {
+        List<Object[]> rows = new ArrayList<>(numRows);
+        for (int i = 0; i < numRows; i++) {
+            if (i % 3 == 2) {
+                rows.add(new Object[NAMES.size()]);
+            } else {
+                rows.add(new Object[] {
+                    i % 2 == 0,
+                    i,
+                    i * 10_000_000_000L,
+                    i + 0.5,
+                    "row-" + i,
+                    1_700_000_000_000L + i,
+                    86_400_000L * i,
+                    Map.of("x", i)
+                });
+            }
+        }
+        return rows;
+    }
+
+    private static void assertRows(List<List<Object>> actual, List<Object[]> expected) {
+        assertThat(actual).hasSize(expected.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Object[] row = expected.get(i);
+            List<Object> expectedRow = new ArrayList<>(row.length);
+            for (Object value : row) {
+                expectedRow.add(value instanceof Map<?, ?> map ? "{\"x\":" + map.get("x") + "}" : value);
+            }
+            assertThat(actual.get(i)).as("row " + i).isEqualTo(expectedRow);
+        }
+    }
+
+    @Test
+    public void test_write_and_read_all_columns_including_nulls() throws Exception {
+        List<Object[]> rows = rows(10);
+        byte[] bytes = write(rows, ParquetFormat.UNCOMPRESSED, ParquetWriter.ROW_GROUP_SIZE_BYTES);
+
+        assertThat(new ParquetReader(source(bytes), null).columnNames()).isEqualTo(NAMES);
+        assertRows(read(bytes, null), rows);
+    }
+
+    @Test
+    public void test_write_and_read_multiple_gzip_compressed_row_groups() throws Exception {
+        List<Object[]> rows = rows(500);
+        byte[] bytes = write(rows, ParquetFormat.GZIP, 256);
+
+        assertRows(read(bytes, null), rows);
+    }
+
+    @Test
+    public void test_read_only_requested_columns() throws Exception {
+        byte[] bytes = write(rows(3), ParquetFormat.UNCOMPRESSED, ParquetWriter.ROW_GROUP_SIZE_BYTES);
+
+        var reader = new ParquetReader(source(bytes), List.of("s", "i", "unknown"));
+        assertThat(reader.columnNames()).containsExactly("i", "s");
+        assertThat(read(bytes, List.of("s", "i"))).containsExactly(
+            List.of(0, "row-0"),
+            List.of(1, "row-1"),
+            Arrays.asList(null, null)
+        );
+    }
+
+    @Test
+    public void test_write_empty_file() throws Exception {
+        byte[] bytes = write(List.of(), ParquetFormat.UNCOMPRESSED, ParquetWriter.ROW_GROUP_SIZE_BYTES);
+
+        assertThat(read(bytes, null)).isEmpty();
+    }
+
+    @Test
+    public void test_read_invalid_file_fails() throws Exception {
+        byte[] bytes = "this is not a parquet file".getBytes(StandardCharsets.UTF_8);
+
+        assertThatThrownBy(() -> new ParquetReader(source(bytes), null))
+            .isExactlyInstanceOf(IOException.class)
+            .hasMessage("Invalid parquet file: magic number is missing");
+    }
+
+    @Test
+    public void test_snappy_decompression_with_overlapping_copy() throws Exception {
+        // length 12, literal "abc", copy of length 9 at offset 3
+        byte[] compressed = new byte[] {0x0C, 0x08, 'a', 'b', 'c', 0x15, 0x03};
+
+        byte[] uncompressed = ParquetFormat.decompress(ParquetFormat.SNAPPY, compressed, 0, compressed.length, 12);
+        assertThat(new String(uncompressed, StandardCharsets.UTF_8)).isEqualTo("abcabcabcabc");
+    }
+
+    @Test
+    public void test_snappy_decompression_rejects_invalid_uncompressed_length() throws Exception {
+        // length 2^31 - 1, literal "abc"
+        byte[] compressed = new byte[] {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07, 0x08, 'a', 'b', 'c'};
+        assertThatThrownBy(() -> ParquetFormat.decompress(ParquetFormat.SNAPPY, compressed, 0, compressed.length, Integer.MAX_VALUE))
+            .isExactlyInstanceOf(IOException.class)
+            .hasMessageStartingWith("Invalid snappy data: uncompressed length 2147483647");
+
+        // length 3 doesn't match the size of the page header
+        byte[] literal = new byte[] {0x03, 0x08, 'a', 'b', 'c'};
+        assertThatThrownBy(() -> ParquetFormat.decompress(ParquetFormat.SNAPPY, literal, 0, literal.length, 1024))
+            .isExactlyInstanceOf(IOException.class)
+            .hasMessageStartingWith("Invalid snappy data: uncompressed length 3 doesn't match the expected length 1024");
+    }
+
+    @Test
+    public void test_thrift_lengths_exceeding_the_input_are_rejected() throws Exception {
+        // field 1 of type binary with a length of 2^28 - 1
+        byte[] binary = new byte[] {0x18, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x7F, 'a'};
+        assertThatThrownBy(() -> new ThriftCompact.Reader(binary, 0).readStruct())
+            .isExactlyInstanceOf(IOException.class)
+            .hasMessage("Invalid parquet metadata: binary length 268435455 exceeds the remaining 1 bytes");
+
+        // field 1 of type list with 2^28 - 1 i32 elements
+        byte[] list = new byte[] {0x19, (byte) 0xF5, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x7F, 0x02};
+        assertThatThrownBy(() -> new ThriftCompact.Reader(list, 0).readStruct())
+            .isExactlyInstanceOf(IOException.class)
+            .hasMessage("Invalid parquet metadata: list size 268435455 exceeds the remaining 1 bytes");
+    }
+
+    @Test
+    public void test_buffered_row_groups_are_accounted_and_released() throws Exception {
+        List<Object[]> rows = rows(10);
+        var writerAccounting = new ConcurrentRamAccounting(bytes -> {}, bytes -> {}, "test", 0);
+        var out = new ByteArrayOutputStream();
+        try (var writer = new ParquetWriter(out, NAMES, TYPES, ParquetFormat.UNCOMPRESSED, writerAccounting)) {
+            for (Object[] row : rows) {
+                List<Input<?>> inputs = new ArrayList<>(row.length);
+                for (int i = 0; i < row.length; i++) {
+                    inputs.add(Literal.ofUnchecked(TYPES.get(i), row[i]));
+                }
+                writer.write(inputs);
+            }
+            assertThat(writerAccounting.totalBytes()).isGreaterThan(0L);
+        }
+        assertThat(writerAccounting.totalBytes()).isEqualTo(0L);
+
+        var readerAccounting = new ConcurrentRamAccounting(bytes -> {}, bytes -> {}, "test", 0);
+        var reader = new ParquetReader(source(out.toByteArray()), null, readerAccounting);
+        assertThat(reader.next()).isTrue();
+        assertThat(readerAccounting.totalBytes()).isGreaterThan(10L * NAMES.size());
+        int numRows = 1;
+        while (reader.next()) {
+            numRows++;
+        }
+        assertThat(numRows).isEqualTo(rows.size());
+        assertThat(readerAccounting.totalBytes()).isEqualTo(0L);
+    }
+
+    @Test
+    public void test_rle_bit_packed_hybrid_decoding() throws Exception {
+        // bit-packed group of the values 0 to 7 with a bit width of 3, followed by a run of five 4s
+        byte[] data = new byte[] {0x03, (byte) 0x88, (byte) 0xC6, (byte) 0xFA, 0x0A, 0x04};
+
+        var decoder = new RleBitPackedHybrid.Decoder(data, 0, data.length, 3);
+        List<Integer> values = new ArrayList<>();
+        for (int i = 0; i < 13; i++) {
+            values.add(decoder.next());
+        }
+        assertThat(values).containsExactly(0, 1, 2, 3, 4, 5, 6, 7, 4, 4, 4, 4, 4);
+    }
+}
@@ -35,6 +35,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.IntStream;
 import java.util.stream.StreamSupport;
 
 import org.elasticsearch.client.ElasticsearchClient;
@@ -52,9 +53,13 @@ import io.crate.data.Projector;
 import io.crate.data.Row;
 import io.crate.data.RowN;
 import io.crate.data.breaker.RamAccounting;
+import io.crate.data.testing.BatchIteratorTester;
+import io.crate.data.testing.BatchIteratorTester.ResultOrder;
+import io.crate.data.testing.BatchSimulatingIterator;
 import io.crate.data.testing.TestingBatchIterators;
 import io.crate.data.testing.TestingRowConsumer;
 import io.crate.execution.dsl.projection.AggregationProjection;
+import io.crate.execution.dsl.projection.EvalProjection;
 import io.crate.execution.dsl.projection.FilterProjection;
 import io.crate.execution.dsl.projection.GroupProjection;
 import io.crate.execution.dsl.projection.LimitAndOffsetProjection;
@@ -68,6 +73,8 @@ import io.crate.execution.jobs.NodeLimits;
 import io.crate.expression.InputFactory;
 import io.crate.expression.eval.EvaluatingNormalizer;
 import io.crate.expression.operator.EqOperator;
+import io.crate.expression.operator.GtOperator;
+import io.crate.expression.scalar.arithmetic.ArithmeticFunctions;
 import io.crate.expression.symbol.AggregateMode;
 import io.crate.expression.symbol.Aggregation;
 import io.crate.expression.symbol.Function;
@@ -301,4 +308,81 @@ public class ProjectionToProjectorVisitorTest extends CrateDummyClusterServiceUn
         Bucket bucket = consumer.getBucket();
         assertThat(bucket).hasSize(1);
     }
+
+    private Function function(String name, List<Symbol> arguments) {
+        var impl = nodeCtx.functions().get(null, name, arguments, SearchPath.pathWithPGCatalogAndDoc());
+        return new Function(impl.signature(), arguments, impl.boundSignature().returnType());
+    }
+
+    @Test
+    public void test_filter_projection_with_typed_inputs_is_vectorized() throws Exception {
+        Function modulus = function(
+            ArithmeticFunctions.Names.MODULUS,
+            List.of(new InputColumn(0, DataTypes.INTEGER), Literal.of(3)));
+        Function query = function(EqOperator.NAME, List.of(modulus, Literal.of(0)));
+        FilterProjection projection = new FilterProjection(query, List.of(new InputColumn(0, DataTypes.INTEGER)));
+
+        Projector projector = visitor.create(
+            projection, txnCtx, RamAccounting.NO_ACCOUNTING, memoryManager, UUID.randomUUID());
+        assertThat(projector).isExactlyInstanceOf(VectorizedFilterProjector.class);
+
+        List<Object[]> expectedResult = IntStream.range(0, 2500)
+            .filter(i -> i % 3 == 0)
+            .mapToObj(i -> new Object[] { i })
+            .toList();
+        var tester = BatchIteratorTester.forRows(
+            () -> projector.apply(new BatchSimulatingIterator<>(TestingBatchIterators.range(0, 2500), 700, 4, null)),
+            ResultOrder.EXACT
+        );
+        tester.verifyResultAndEdgeCaseBehaviour(expectedResult);
+    }
+
+    @Test
+    public void test_eval_projection_with_typed_inputs_is_vectorized() throws Exception {
+        InputColumn input = new InputColumn(0, DataTypes.INTEGER);
+        Function multiply = function(ArithmeticFunctions.Names.MULTIPLY, List.of(input, Literal.of(2)));
+        EvalProjection projection = new EvalProjection(List.of(input, multiply));
+
+        Projector projector = visitor.create(
+            projection, txnCtx, RamAccounting.NO_ACCOUNTING, memoryManager, UUID.randomUUID());
+        assertThat(projector).isExactlyInstanceOf(VectorizedEvalProjector.class);
+
+        List<Object[]> expectedResult = IntStream.range(0, 2500)
+            .mapToObj(i -> new Object[] { i, i * 2 })
+            .toList();
+        var tester = BatchIteratorTester.forRows(
+            () -> projector.apply(new BatchSimulatingIterator<>(TestingBatchIterators.range(0, 2500), 700, 4, null)),
+            ResultOrder.EXACT
+        );
+        tester.verifyResultAndEdgeCaseBehaviour(expectedResult);
+    }
+
+    @Test
+    public void test_vectorized_projections_fail_only_once_the_failing_row_is_read() throws Exception {
+        InputColumn input = new InputColumn(0, DataTypes.INTEGER);
+        Function subtract = function(ArithmeticFunctions.Names.SUBTRACT, List.of(Literal.of(5), input));
+        Function divide = function(ArithmeticFunctions.Names.DIVIDE, List.of(Literal.of(10), subtract));
+
+        Projector eval = visitor.create(
+            new EvalProjection(List.of(divide)), txnCtx, RamAccounting.NO_ACCOUNTING, memoryManager, UUID.randomUUID());
+        assertThat(eval).isExactlyInstanceOf(VectorizedEvalProjector.class);
+        BatchIterator<Row> evalIt = eval.apply(TestingBatchIterators.range(0, 10));
+        for (int i = 0; i < 5; i++) {
+            assertThat(evalIt.moveNext()).isTrue();
+            assertThat(evalIt.currentElement().get(0)).isEqualTo(10 / (5 - i));
+        }
+        assertThat(evalIt.moveNext()).isTrue();
+        assertThatThrownBy(() -> evalIt.currentElement().get(0)).isInstanceOf(ArithmeticException.class);
+
+        Function query = function(GtOperator.NAME, List.of(divide, Literal.of(0)));
+        Projector filter = visitor.create(
+            new FilterProjection(query, List.of(input)), txnCtx, RamAccounting.NO_ACCOUNTING, memoryManager, UUID.randomUUID());
+        assertThat(filter).isExactlyInstanceOf(VectorizedFilterProjector.class);
+        BatchIterator<Row> filterIt = filter.apply(TestingBatchIterators.range(0, 10));
+        for (int i = 0; i < 5; i++) {
+            assertThat(filterIt.moveNext()).isTrue();
+            assertThat(filterIt.currentElement().get(0)).isEqualTo(i);
+        }
+        assertThatThrownBy(filterIt::moveNext).isInstanceOf(ArithmeticException.class);
+    }
 }
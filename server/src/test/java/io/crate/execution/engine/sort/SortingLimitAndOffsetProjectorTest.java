@@ -24,8 +24,13 @@ package io.crate.execution.engine.sort;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.stream.Stream;
 
 import org.apache.logging.log4j.LogManager;
 import org.elasticsearch.common.breaker.CircuitBreakingException;
@@ -39,17 +44,20 @@ import io.crate.breaker.ConcurrentRamAccounting;
 import io.crate.breaker.TypedCellsAccounting;
 import io.crate.data.BatchIterator;
 import io.crate.data.Bucket;
+import io.crate.data.InMemoryBatchIterator;
 import io.crate.data.Input;
 import io.crate.data.Projector;
 import io.crate.data.Row;
 import io.crate.data.Row1;
 import io.crate.data.RowN;
+import io.crate.data.SentinelRow;
 import io.crate.data.breaker.RowAccounting;
 import io.crate.data.testing.TestingBatchIterators;
 import io.crate.data.testing.TestingRowConsumer;
 import io.crate.execution.engine.collect.CollectExpression;
 import io.crate.execution.engine.collect.RowCollectExpression;
 import io.crate.execution.engine.pipeline.LimitAndOffset;
+import io.crate.execution.engine.spill.SpillService;
 import io.crate.expression.symbol.Literal;
 import io.crate.types.DataTypes;
 
@@ -145,6 +153,46 @@ public class SortingLimitAndOffsetProjectorTest extends ESTestCase {
             .isExactlyInstanceOf(CircuitBreakingException.class);
     }
 
+    @Test
+    public void test_unbounded_collector_spills_sorted_runs_exceeding_memory_budget() throws Exception {
+        Path spillPath = createTempDir();
+        SpillService spillService = new SpillService(spillPath, true);
+        List<SortedRuns> sortedRuns = new ArrayList<>();
+        RowAccounting<Object[]> rowAccounting = new IgnoreRowCellsAccounting();
+        Projector projector = new SortingLimitAndOffsetProjector(
+            rowAccounting,
+            () -> {
+                SortedRuns runs = new SortedRuns(rowAccounting, spillService, List.of(DataTypes.INTEGER, DataTypes.BOOLEAN), 100);
+                sortedRuns.add(runs);
+                return runs;
+            },
+            INPUT_LITERAL_LIST,
+            COLLECT_EXPRESSIONS,
+            1,
+            FIRST_CELL_ORDERING,
+            50,
+            10,
+            1
+        );
+        List<Row> rows = new ArrayList<>();
+        for (int i = 1; i <= 100; i++) {
+            rows.add(new Row1(i));
+        }
+        Collections.shuffle(rows, random());
+
+        consumer.accept(projector.apply(InMemoryBatchIterator.of(rows, SentinelRow.SENTINEL, true)), null);
+        List<Object[]> result = consumer.getResult();
+
+        assertThat(sortedRuns).satisfiesExactly(runs -> assertThat(runs.hasSpilled()).isTrue());
+        assertThat(result).hasSize(50);
+        for (int i = 0; i < result.size(); i++) {
+            assertThat(result.get(i)).containsExactly(i + 11);
+        }
+        try (Stream<Path> files = Files.list(spillPath)) {
+            assertThat(files.filter(p -> p.toString().endsWith(".spill"))).isEmpty();
+        }
+    }
+
     @Test
     public void testWithHighOffset() throws Exception {
         Projector projector = getProjector(2, 2, 30);
@@ -24,7 +24,12 @@ package io.crate.execution.engine.sort;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.stream.Stream;
 
 import org.apache.logging.log4j.LogManager;
 import org.elasticsearch.common.breaker.CircuitBreakingException;
@@ -35,18 +40,25 @@ import org.elasticsearch.test.ESTestCase;
 import org.junit.Test;
 
 import io.crate.breaker.ConcurrentRamAccounting;
+import io.crate.breaker.OperatorRamAccounting;
 import io.crate.breaker.TypedCellsAccounting;
 import io.crate.data.BatchIterator;
 import io.crate.data.Bucket;
+import io.crate.data.InMemoryBatchIterator;
 import io.crate.data.Projector;
 import io.crate.data.Row;
+import io.crate.data.Row1;
 import io.crate.data.RowN;
+import io.crate.data.SentinelRow;
+import io.crate.data.breaker.RamAccounting;
 import io.crate.data.breaker.RowAccounting;
 import io.crate.data.testing.TestingBatchIterators;
 import io.crate.data.testing.TestingRowConsumer;
 import io.crate.execution.engine.collect.CollectExpression;
 import io.crate.execution.engine.collect.RowCollectExpression;
+import io.crate.execution.engine.spill.SpillService;
 import io.crate.expression.symbol.Literal;
+import io.crate.types.DataType;
 import io.crate.types.DataTypes;
 
 public class SortingProjectorTest extends ESTestCase {
@@ -100,7 +112,7 @@ public class SortingProjectorTest extends ESTestCase {
 
     @Test
     public void testInvalidOffset() throws Exception {
-        assertThatThrownBy(() -> new SortingProjector(null, null, null, 2, null, -1))
+        assertThatThrownBy(() -> new SortingProjector((RowAccounting<Object[]>) null, null, null, 2, null, -1))
             .isExactlyInstanceOf(IllegalArgumentException.class)
             .hasMessage("invalid offset -1");
     }
@@ -121,4 +133,83 @@ public class SortingProjectorTest extends ESTestCase {
         assertThatThrownBy(() -> consumer.getResult())
             .isExactlyInstanceOf(CircuitBreakingException.class);
     }
+
+    @Test
+    public void test_sorted_runs_are_spilled_to_disk_if_rows_exceed_memory() throws Exception {
+        MemoryCircuitBreaker circuitBreaker = new MemoryCircuitBreaker(new ByteSizeValue(200, ByteSizeUnit.BYTES),
+                1,
+                LogManager.getLogger(SortingProjectorTest.class));
+        List<DataType<?>> rowTypes = List.of(DataTypes.INTEGER, DataTypes.BOOLEAN);
+        TypedCellsAccounting rowAccounting = new TypedCellsAccounting(
+                rowTypes,
+                ConcurrentRamAccounting.forCircuitBreaker("testContext", circuitBreaker, 0),
+                0);
+        Path spillPath = createTempDir();
+        SpillService spillService = new SpillService(spillPath, true);
+        List<SortedRuns> sortedRuns = new ArrayList<>();
+        RowCollectExpression input = new RowCollectExpression(0);
+        SortingProjector projector = new SortingProjector(
+            () -> {
+                SortedRuns runs = new SortedRuns(rowAccounting, spillService, rowTypes, Long.MAX_VALUE);
+                sortedRuns.add(runs);
+                return runs;
+            },
+            List.of(input, Literal.of(true)),
+            List.<CollectExpression<Row, ?>>of(input),
+            1,
+            OrderingByPosition.arrayOrdering(DataTypes.INTEGER, 0, false, false),
+            5
+        );
+        List<Row> rows = new ArrayList<>();
+        for (int i = 1; i <= 100; i++) {
+            rows.add(new Row1(i));
+        }
+        Collections.shuffle(rows, random());
+
+        consumer.accept(projector.apply(InMemoryBatchIterator.of(rows, SentinelRow.SENTINEL, true)), null);
+        List<Object[]> result = consumer.getResult();
+
+        assertThat(sortedRuns).satisfiesExactly(runs -> assertThat(runs.hasSpilled()).isTrue());
+        assertThat(result).hasSize(95);
+        for (int i = 0; i < result.size(); i++) {
+            assertThat(result.get(i)).containsExactly(i + 6);
+        }
+        try (Stream<Path> files = Files.list(spillPath)) {
+            assertThat(files.filter(p -> p.toString().endsWith(".spill"))).isEmpty();
+        }
+    }
+
+    @Test
+    public void test_spilling_a_run_only_releases_the_memory_of_the_sort() throws Exception {
+        MemoryCircuitBreaker circuitBreaker = new MemoryCircuitBreaker(new ByteSizeValue(300, ByteSizeUnit.BYTES),
+                1,
+                LogManager.getLogger(SortingProjectorTest.class));
+        RamAccounting phaseRamAccounting = ConcurrentRamAccounting.forCircuitBreaker("testContext", circuitBreaker, 0);
+        // Accounted by another projector of the phase
+        phaseRamAccounting.addBytes(100);
+        List<DataType<?>> rowTypes = List.of(DataTypes.INTEGER, DataTypes.BOOLEAN);
+        TypedCellsAccounting rowAccounting = new TypedCellsAccounting(
+                rowTypes,
+                new OperatorRamAccounting(phaseRamAccounting),
+                0);
+        SpillService spillService = new SpillService(createTempDir(), true);
+        RowCollectExpression input = new RowCollectExpression(0);
+        SortingProjector projector = new SortingProjector(
+            () -> new SortedRuns(rowAccounting, spillService, rowTypes, Long.MAX_VALUE),
+            List.of(input, Literal.of(true)),
+            List.<CollectExpression<Row, ?>>of(input),
+            1,
+            OrderingByPosition.arrayOrdering(DataTypes.INTEGER, 0, false, false),
+            0
+        );
+        List<Row> rows = new ArrayList<>();
+        for (int i = 1; i <= 100; i++) {
+            rows.add(new Row1(i));
+        }
+
+        consumer.accept(projector.apply(InMemoryBatchIterator.of(rows, SentinelRow.SENTINEL, true)), null);
+
+        assertThat(consumer.getResult()).hasSize(100);
+        assertThat(phaseRamAccounting.totalBytes()).isGreaterThanOrEqualTo(100L);
+    }
 }
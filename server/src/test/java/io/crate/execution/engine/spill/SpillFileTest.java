@@ -0,0 +1,96 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.engine.spill;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.elasticsearch.test.ESTestCase;
+import org.junit.Test;
+
+import io.crate.Streamer;
+import io.crate.types.DataTypes;
+
+public class SpillFileTest extends ESTestCase {
+
+    @Test
+    public void test_rows_can_be_read_repeatedly_and_file_is_deleted_on_close() throws Exception {
+        Path spillPath = createTempDir().resolve(SpillService.SPILL_FOLDER);
+        SpillService spillService = new SpillService(spillPath, true);
+        Streamer<?>[] streamers = new Streamer[] { DataTypes.INTEGER, DataTypes.STRING };
+
+        List<Object[]> expected = new ArrayList<>();
+        try (SpillFile spillFile = spillService.newSpillFile("test", streamers)) {
+            for (int i = 0; i < 1000; i++) {
+                Object[] row = new Object[] { i, i % 7 == 0 ? null : "foo-" + i };
+                expected.add(row);
+                spillFile.write(row);
+            }
+            spillFile.finishWriting();
+            assertThat(spillFile.numRows()).isEqualTo(1000L);
+            assertThat(spillFile.rows()).containsExactlyElementsOf(expected);
+
+            // A partially consumed reader doesn't affect others
+            Iterator<Object[]> it = spillFile.rows().iterator();
+            assertThat(it.next()).isEqualTo(expected.get(0));
+            assertThat(spillFile.rows()).containsExactlyElementsOf(expected);
+        }
+        try (Stream<Path> files = Files.list(spillPath)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    public void test_empty_spill_file_has_no_rows() throws Exception {
+        SpillService spillService = new SpillService(createTempDir(), true);
+        try (SpillFile spillFile = spillService.newSpillFile("test", new Streamer[] { DataTypes.LONG })) {
+            spillFile.finishWriting();
+            assertThat(spillFile.rows()).isEmpty();
+        }
+    }
+
+    @Test
+    public void test_null_values_of_types_without_null_safe_streamer_can_be_spilled() throws Exception {
+        SpillService spillService = new SpillService(createTempDir(), true);
+        try (SpillFile spillFile = spillService.newSpillFile("test", new Streamer[] { DataTypes.REGPROC })) {
+            spillFile.write(new Object[] { null });
+            spillFile.finishWriting();
+            assertThat(spillFile.rows()).containsExactly(new Object[] { null });
+        }
+    }
+
+    @Test
+    public void test_leftovers_are_removed_on_service_creation() throws Exception {
+        Path spillPath = createTempDir();
+        Path leftOver = Files.createFile(spillPath.resolve("hash-join-left-0-123.spill"));
+        new SpillService(spillPath, true);
+        assertThat(Files.exists(leftOver)).isFalse();
+        assertThat(Files.isDirectory(spillPath)).isTrue();
+    }
+}
@@ -41,6 +41,17 @@ public class AggregationWindowFunctionsTest extends AbstractWindowFunctionTest {
         new Object[]{null, null}
     };
 
+    private static final Object[][] SLIDING_ROWS = {
+        new Object[]{1, 5},
+        new Object[]{2, 3},
+        new Object[]{3, 8},
+        new Object[]{4, 1},
+        new Object[]{5, 7},
+        new Object[]{6, 2},
+        new Object[]{7, null},
+        new Object[]{8, 4}
+    };
+
     @Test
     public void testSumOverUnboundedPrecedingToUnboundedFollowingFrames() throws Throwable {
         Object[] expected = new Object[]{5L, 5L, 5L, 12L, 12L, 12L, null};
@@ -332,4 +343,26 @@ public class AggregationWindowFunctionsTest extends AbstractWindowFunctionTest {
             rows
         );
     }
+
+    @Test
+    public void test_max_over_rows_sliding_frame() throws Throwable {
+        Object[] expected = new Object[]{5L, 8L, 8L, 8L, 7L, 7L, 4L, 4L};
+        assertEvaluate("max(y) OVER(" +
+                            "ORDER BY x ROWS BETWEEN 1 PRECEDING and 1 FOLLOWING" +
+                       ")",
+                       expected,
+                       List.of(ColumnIdent.of("x"), ColumnIdent.of("y")),
+                       SLIDING_ROWS);
+    }
+
+    @Test
+    public void test_min_over_rows_sliding_frame_including_partitions() throws Throwable {
+        Object[] expected = new Object[]{3L, 3L, 1L, 1L, 2L, 2L, 2L, 2L};
+        assertEvaluate("min(y) OVER(" +
+                            "PARTITION BY x > 4 ORDER BY x ROWS BETWEEN 2 PRECEDING and 1 FOLLOWING" +
+                       ")",
+                       expected,
+                       List.of(ColumnIdent.of("x"), ColumnIdent.of("y")),
+                       SLIDING_ROWS);
+    }
 }
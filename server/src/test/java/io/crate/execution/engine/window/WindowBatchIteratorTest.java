@@ -118,6 +118,60 @@ public class WindowBatchIteratorTest {
         tester.verifyResultAndEdgeCaseBehaviour(expectedRowNumberResult);
     }
 
+    @Test
+    public void test_window_batch_iterator_on_sorted_source_computes_partitions_one_by_one() throws Exception {
+        List<Object[]> expectedResult = IntStream.range(0, 10)
+            .mapToObj(i -> new Object[]{i, i % 3 + 1}).toList();
+        Comparator<Object[]> cmpPartitionBy = Comparator.comparing(row -> (int) row[0] / 3);
+        var tester = BatchIteratorTester.forRows(
+            () -> WindowFunctionBatchIterator.ofSorted(
+                new BatchSimulatingIterator<>(TestingBatchIterators.range(0, 10), 4, 2, null),
+                ignored -> {},
+                new IgnoreRowAccounting(),
+                getComputeFrameStart(null, FrameBound.Type.UNBOUNDED_PRECEDING),
+                getComputeFrameEnd(null, FrameBound.Type.CURRENT_ROW),
+                cmpPartitionBy,
+                1,
+                Collections.singletonList(rowNumberWindowFunction()),
+                Collections.emptyList(),
+                new Boolean[]{null},
+                new Input[0]),
+            ResultOrder.EXACT
+        );
+        tester.verifyResultAndEdgeCaseBehaviour(expectedResult);
+    }
+
+    @Test
+    public void test_window_batch_iterator_on_sorted_source_releases_memory_of_emitted_partitions() throws Exception {
+        RamAccounting ramAccounting = ConcurrentRamAccounting.forCircuitBreaker("test", new NoopCircuitBreaker("dummy"), 0);
+        BatchIterator<Row> iterator = WindowFunctionBatchIterator.ofSorted(
+            TestingBatchIterators.range(0, 10),
+            ramAccounting::addBytes,
+            new TypedRowAccounting(List.of(DataTypes.INTEGER), ramAccounting, 32),
+            (_, _, _, _) -> 0,
+            (_, _, currentIndex, _) -> currentIndex,
+            Comparator.comparing(row -> (int) row[0] / 5),
+            1,
+            List.of(rowNumberWindowFunction()),
+            List.of(),
+            new Boolean[]{null},
+            new Input[][]{new Input[0]}
+        );
+        assertThat(iterator.moveNext()).isTrue();
+        // The first partition with 5 rows is buffered, the first row of the second partition has been read
+        long bytesOfFirstPartition = ramAccounting.totalBytes();
+        for (int i = 1; i < 5; i++) {
+            assertThat(iterator.moveNext()).isTrue();
+        }
+        assertThat(iterator.moveNext()).isTrue();
+        assertThat(ramAccounting.totalBytes()).isLessThan(bytesOfFirstPartition);
+
+        TestingRowConsumer consumer = new TestingRowConsumer();
+        consumer.accept(iterator, null);
+        assertThat(consumer.getResult()).hasSize(4);
+        assertThat(ramAccounting.totalBytes()).isLessThan(bytesOfFirstPartition);
+    }
+
     @Test
     public void testFrameBoundsEmptyWindow() throws Exception {
         var rows = IntStream.range(0, 10).mapToObj(i -> new Object[]{i, null}).toList();
@@ -0,0 +1,267 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.jobs;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import org.elasticsearch.common.lease.Releasable;
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.elasticsearch.test.ESTestCase;
+import org.junit.Test;
+
+import io.crate.exceptions.JobKilledException;
+import io.crate.role.GrantedRole;
+import io.crate.role.Role;
+import io.crate.role.metadata.RolesHelper;
+
+public class ResourceGroupsTest extends ESTestCase {
+
+    private final Role alice = RolesHelper.userOf("alice");
+    private final Role bob = RolesHelper.userOf("bob");
+    private final Role analysts = RolesHelper.roleOf("analysts");
+    private final Role carol = RolesHelper.userOf(
+        "carol", Set.of(), Set.of(new GrantedRole("analysts", "crate")), null);
+
+    private final ClusterSettings clusterSettings = new ClusterSettings(Settings.EMPTY, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS);
+    private final ResourceGroups resourceGroups = new ResourceGroups(
+        Settings.EMPTY,
+        clusterSettings,
+        () -> List.of(alice, bob, analysts, carol),
+        Runnable::run
+    );
+
+    @Test
+    public void test_users_without_group_use_unlimited_default_group() throws Exception {
+        ResourceGroup group = resourceGroups.resolve(alice);
+        assertThat(group.name()).isEqualTo(ResourceGroups.DEFAULT_GROUP);
+        assertThat(group.maxConcurrency()).isEqualTo(0);
+
+        CompletableFuture<Releasable> first = resourceGroups.admit(group);
+        CompletableFuture<Releasable> second = resourceGroups.admit(group);
+        assertThat(first).isDone();
+        assertThat(second).isDone();
+        assertThat(group.running()).isEqualTo(2);
+
+        first.get().close();
+        first.get().close();
+        assertThat(group.running()).isEqualTo(1);
+        assertThat(group.numAdmitted()).isEqualTo(2);
+    }
+
+    @Test
+    public void test_resolve_group_by_user_or_granted_role() throws Exception {
+        clusterSettings.applySettings(Settings.builder()
+            .put("workload.resource_groups.analytics.users", "analysts")
+            .put("workload.resource_groups.oltp.users", "bob,carol")
+            .build());
+
+        assertThat(resourceGroups.resolve(alice).name()).isEqualTo("default");
+        assertThat(resourceGroups.resolve(bob).name()).isEqualTo("oltp");
+        // user name takes precedence over role
+        assertThat(resourceGroups.resolve(carol).name()).isEqualTo("oltp");
+
+        clusterSettings.applySettings(Settings.builder()
+            .put("workload.resource_groups.analytics.users", "analysts")
+            .put("workload.resource_groups.oltp.users", "bob")
+            .build());
+        assertThat(resourceGroups.resolve(carol).name()).isEqualTo("analytics");
+        assertThat(resourceGroups.groups()).extracting(ResourceGroup::name)
+            .containsExactly("analytics", "default", "oltp");
+    }
+
+    @Test
+    public void test_queued_statements_of_group_with_higher_priority_run_first() throws Exception {
+        clusterSettings.applySettings(Settings.builder()
+            .put("workload.max_concurrency", 1)
+            .put("workload.resource_groups.analytics.users", "alice")
+            .put("workload.resource_groups.oltp.users", "bob")
+            .put("workload.resource_groups.oltp.priority", 10)
+            .build());
+        ResourceGroup analytics = resourceGroups.resolve(alice);
+        ResourceGroup oltp = resourceGroups.resolve(bob);
+
+        CompletableFuture<Releasable> analytics1 = resourceGroups.admit(analytics);
+        CompletableFuture<Releasable> analytics2 = resourceGroups.admit(analytics);
+        CompletableFuture<Releasable> oltp1 = resourceGroups.admit(oltp);
+        assertThat(analytics1).isDone();
+        assertThat(analytics2).isNotDone();
+        assertThat(oltp1).isNotDone();
+        assertThat(analytics.queued()).isEqualTo(1);
+        assertThat(oltp.queued()).isEqualTo(1);
+
+        analytics1.get().close();
+        assertThat(oltp1).isDone();
+        assertThat(analytics2).isNotDone();
+
+        oltp1.get().close();
+        assertThat(analytics2).isDone();
+        assertThat(analytics.queued()).isEqualTo(0);
+        assertThat(analytics.numQueued()).isEqualTo(1);
+        assertThat(oltp.numQueued()).isEqualTo(1);
+    }
+
+    @Test
+    public void test_statements_are_rejected_if_queue_of_group_is_full() throws Exception {
+        clusterSettings.applySettings(Settings.builder()
+            .put("workload.resource_groups.analytics.users", "alice")
+            .put("workload.resource_groups.analytics.max_concurrency", 1)
+            .put("workload.resource_groups.analytics.queue_size", 1)
+            .build());
+        ResourceGroup analytics = resourceGroups.resolve(alice);
+        ResourceGroup defaultGroup = resourceGroups.resolve(bob);
+
+        CompletableFuture<Releasable> first = resourceGroups.admit(analytics);
+        CompletableFuture<Releasable> second = resourceGroups.admit(analytics);
+        CompletableFuture<Releasable> third = resourceGroups.admit(analytics);
+        assertThat(first).isDone();
+        assertThat(second).isNotDone();
+        assertThat(third).isCompletedExceptionally();
+        assertThatThrownBy(third::join)
+            .cause()
+            .isExactlyInstanceOf(EsRejectedExecutionException.class)
+            .hasMessage("Too many statements queued in resource group `analytics`");
+        assertThat(analytics.numRejected()).isEqualTo(1);
+
+        // Other groups are not affected by the limit
+        assertThat(resourceGroups.admit(defaultGroup)).isDone();
+    }
+
+    @Test
+    public void test_queued_statements_of_removed_group_are_admitted() throws Exception {
+        clusterSettings.applySettings(Settings.builder()
+            .put("workload.resource_groups.analytics.users", "alice")
+            .put("workload.resource_groups.analytics.max_concurrency", 1)
+            .build());
+        ResourceGroup analytics = resourceGroups.resolve(alice);
+        CompletableFuture<Releasable> first = resourceGroups.admit(analytics);
+        CompletableFuture<Releasable> second = resourceGroups.admit(analytics);
+        assertThat(second).isNotDone();
+
+        clusterSettings.applySettings(Settings.EMPTY);
+        assertThat(second).isDone();
+        assertThat(resourceGroups.resolve(alice).name()).isEqualTo("default");
+        assertThat(resourceGroups.groups()).hasSize(2);
+
+        first.get().close();
+        second.get().close();
+        assertThat(resourceGroups.groups()).extracting(ResourceGroup::name).containsExactly("default");
+    }
+
+    @Test
+    public void test_cancelled_statements_are_removed_from_the_queue() throws Exception {
+        clusterSettings.applySettings(Settings.builder()
+            .put("workload.resource_groups.analytics.users", "alice")
+            .put("workload.resource_groups.analytics.max_concurrency", 1)
+            .build());
+        ResourceGroup analytics = resourceGroups.resolve(alice);
+        CompletableFuture<Releasable> first = resourceGroups.admit(analytics);
+        CompletableFuture<Releasable> second = resourceGroups.admit(analytics);
+        CompletableFuture<Releasable> third = resourceGroups.admit(analytics);
+        assertThat(analytics.queued()).isEqualTo(2);
+
+        assertThat(resourceGroups.cancel(second, JobKilledException.of("statement_timeout (10ms)"))).isTrue();
+        assertThat(analytics.queued()).isEqualTo(1);
+        assertThatThrownBy(second::join)
+            .cause()
+            .isExactlyInstanceOf(JobKilledException.class)
+            .hasMessageContaining("statement_timeout");
+
+        first.get().close();
+        assertThat(third).isDone();
+        assertThat(analytics.running()).isEqualTo(1);
+
+        // Admitted statements can't be cancelled, they release their slot once finished
+        assertThat(resourceGroups.cancel(third, JobKilledException.of("cancelled"))).isFalse();
+        third.get().close();
+        assertThat(analytics.running()).isEqualTo(0);
+    }
+
+    @Test
+    public void test_admitted_statements_are_started_by_the_executor() throws Exception {
+        List<Runnable> pending = new ArrayList<>();
+        ResourceGroups groups = new ResourceGroups(
+            Settings.EMPTY,
+            clusterSettings,
+            () -> List.of(alice),
+            pending::add
+        );
+        clusterSettings.applySettings(Settings.builder()
+            .put("workload.resource_groups.analytics.users", "alice")
+            .put("workload.resource_groups.analytics.max_concurrency", 1)
+            .build());
+        ResourceGroup analytics = groups.resolve(alice);
+        CompletableFuture<Releasable> first = groups.admit(analytics);
+        CompletableFuture<Releasable> second = groups.admit(analytics);
+        CompletableFuture<Releasable> third = groups.admit(analytics);
+
+        first.get().close();
+        assertThat(second).isNotDone();
+        assertThat(pending).hasSize(1);
+        pending.remove(0).run();
+        assertThat(second).isDone();
+
+        // A statement cancelled before the executor started it releases its slot
+        second.get().close();
+        assertThat(pending).hasSize(1);
+        assertThat(groups.cancel(third, JobKilledException.of("cancelled"))).isTrue();
+        pending.remove(0).run();
+        assertThat(analytics.running()).isEqualTo(0);
+        assertThat(groups.admit(analytics)).isDone();
+    }
+
+    @Test
+    public void test_memory_share_is_split_between_concurrent_statements() throws Exception {
+        clusterSettings.applySettings(Settings.builder()
+            .put("workload.resource_groups.analytics.users", "alice")
+            .put("workload.resource_groups.analytics.max_concurrency", 4)
+            .put("workload.resource_groups.analytics.memory_share", "100mb")
+            .build());
+        ResourceGroup analytics = resourceGroups.resolve(alice);
+        assertThat(analytics.memoryShare()).isEqualTo(100 * 1024 * 1024L);
+        assertThat(analytics.operationMemoryLimit()).isEqualTo(25 * 1024 * 1024);
+        assertThat(resourceGroups.resolve(bob).operationMemoryLimit()).isEqualTo(0);
+    }
+
+    @Test
+    public void test_invalid_group_properties_are_rejected() throws Exception {
+        assertThatThrownBy(() -> clusterSettings.applySettings(Settings.builder()
+                .put("workload.resource_groups.analytics.max_threads", 4)
+                .build()))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasStackTraceContaining(
+                "Invalid property `max_threads` for resource group `analytics`, valid properties are: " +
+                "[max_concurrency, memory_share, priority, queue_size, users]");
+        assertThatThrownBy(() -> clusterSettings.applySettings(Settings.builder()
+                .put("workload.resource_groups.analytics.max_concurrency", -1)
+                .build()))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasStackTraceContaining("`max_concurrency` and `queue_size` of resource group `analytics` must be >= 0");
+    }
+}
@@ -27,6 +27,7 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import java.util.List;
 
+import org.apache.lucene.search.KnnFloatVectorQuery;
 import org.apache.lucene.search.Query;
 import org.elasticsearch.Version;
 import org.junit.Test;
@@ -66,5 +67,50 @@ public class KnnMatchTest extends ScalarTestCase {
             );
         }
     }
-}
 
+    @Test
+    public void test_knn_match_uses_sibling_predicates_as_pre_filter() throws Exception {
+        String createTable = "create table tbl (x float_vector(2), y int)";
+        QueryTester.Builder builder = new QueryTester.Builder(
+            THREAD_POOL,
+            clusterService,
+            Version.CURRENT,
+            createTable
+        );
+        builder.indexValues(List.of("x", "y"), new float[] { 1.0f, 1.0f }, 1);
+        builder.indexValues(List.of("x", "y"), new float[] { 2.0f, 2.0f }, 1);
+        builder.indexValues(List.of("x", "y"), new float[] { 5.0f, 5.0f }, 2);
+        builder.indexValues(List.of("x", "y"), new float[] { 9.0f, 9.0f }, 2);
+        try (QueryTester tester = builder.build()) {
+            Query query = tester.toQuery("knn_match(x, [1.0, 1.0], 1) and y = 2");
+            assertThat(query).isExactlyInstanceOf(KnnFloatVectorQuery.class);
+            assertThat(((KnnFloatVectorQuery) query).getFilter()).hasToString("#y:[2 TO 2]");
+
+            // Without pre-filtering the nearest neighbour (y = 1) would be filtered out afterwards
+            List<Object> result = tester.runQuery("y", "knn_match(x, [1.0, 1.0], 1) and y = 2");
+            assertThat(result).containsExactly(2);
+
+            result = tester.runQuery("y", "knn_match(x, [1.0, 1.0], 2) and y > 1 and x is not null");
+            assertThat(result).containsExactlyInAnyOrder(2, 2);
+        }
+    }
+
+    @Test
+    public void test_knn_match_uses_similarity_of_column() throws Exception {
+        String createTable =
+            "create table tbl (x float_vector(2) index using hnsw with (similarity = 'cosine', quantization = 'int8'))";
+        QueryTester.Builder builder = new QueryTester.Builder(
+            THREAD_POOL,
+            clusterService,
+            Version.CURRENT,
+            createTable
+        );
+        float[] sameDirection = new float[] { 10.0f, 10.0f };
+        float[] closer = new float[] { 1.0f, 0.2f };
+        builder.indexValues("x", sameDirection, closer);
+        try (QueryTester tester = builder.build()) {
+            List<Object> result = tester.runQuery("x", "knn_match(x, [1.0, 1.0], 1)");
+            assertThat(result).containsExactly(sameDirection);
+        }
+    }
+}
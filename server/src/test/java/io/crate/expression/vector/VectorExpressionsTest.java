@@ -0,0 +1,179 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.expression.vector;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import io.crate.data.Input;
+import io.crate.data.Row;
+import io.crate.data.RowN;
+import io.crate.execution.engine.collect.CollectExpression;
+import io.crate.expression.InputFactory;
+import io.crate.expression.scalar.ScalarTestCase;
+import io.crate.expression.symbol.InputColumn;
+import io.crate.expression.symbol.RefReplacer;
+import io.crate.expression.symbol.Symbol;
+
+public class VectorExpressionsTest extends ScalarTestCase {
+
+    private static final List<String> COLUMNS = List.of("id", "x", "name", "double_val", "float_val", "is_awesome");
+
+    private static final List<Object[]> ROWS = List.of(
+        new Object[] { 1, 10L, "Arthur", 1.5, 2.5f, true },
+        new Object[] { 2, null, "trillian", -0.0, 0.0f, false },
+        new Object[] { null, -3L, null, null, null, null },
+        new Object[] { 4, 4L, "", Double.NaN, Float.NaN, true },
+        new Object[] { -5, 1L << 40, "Ford", 0.0, -1.25f, false }
+    );
+
+    private Symbol asInputColumns(String expression) {
+        Symbol symbol = sqlExpressions.asSymbol(expression);
+        return RefReplacer.replaceRefs(
+            symbol,
+            ref -> new InputColumn(COLUMNS.indexOf(ref.column().name()), ref.valueType())
+        );
+    }
+
+    private static ColumnBatch batchOf(List<Object[]> rows) {
+        ColumnBatch batch = new ColumnBatch();
+        for (Object[] row : rows) {
+            batch.add(new RowN(row));
+        }
+        return batch;
+    }
+
+    private List<Object> evaluateRowWise(Symbol symbol, List<Object[]> rows) {
+        InputFactory.Context<CollectExpression<Row, ?>> ctx = new InputFactory(sqlExpressions.nodeCtx)
+            .ctxForInputColumns(txnCtx);
+        Input<?> input = ctx.add(symbol);
+        List<Object> result = new ArrayList<>(rows.size());
+        for (Object[] cells : rows) {
+            Row row = new RowN(cells);
+            for (CollectExpression<Row, ?> expression : ctx.expressions()) {
+                expression.setNextRow(row);
+            }
+            result.add(input.value());
+        }
+        return result;
+    }
+
+    private List<Object> evaluateVectorized(Symbol symbol, List<Object[]> rows) {
+        VectorExpression expression = VectorExpressions.compile(symbol, txnCtx);
+        assertThat(expression).as("%s must be vectorized", symbol).isNotNull();
+        ColumnBatch batch = batchOf(rows);
+        ColumnVector vector = expression.evaluate(batch);
+        assertThat(vector.size()).isEqualTo(rows.size());
+        List<Object> result = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            result.add(vector.get(i));
+        }
+        return result;
+    }
+
+    private void assertSameAsRowWise(String expression) {
+        Symbol symbol = asInputColumns(expression);
+        assertThat(evaluateVectorized(symbol, ROWS))
+            .as(expression)
+            .isEqualTo(evaluateRowWise(symbol, ROWS));
+    }
+
+    @Test
+    public void test_arithmetic_matches_row_wise_evaluation() throws Exception {
+        assertSameAsRowWise("id + 1");
+        assertSameAsRowWise("x * 2 - id");
+        assertSameAsRowWise("id % 3");
+        assertSameAsRowWise("id / 2");
+        assertSameAsRowWise("double_val / float_val");
+        assertSameAsRowWise("float_val * float_val");
+    }
+
+    @Test
+    public void test_comparisons_and_logical_operators_match_row_wise_evaluation() throws Exception {
+        assertSameAsRowWise("id > 2");
+        assertSameAsRowWise("name = 'Arthur'");
+        assertSameAsRowWise("name >= 'Ford'");
+        assertSameAsRowWise("double_val = 0.0");
+        assertSameAsRowWise("double_val < float_val");
+        assertSameAsRowWise("id > 2 and name = 'Ford'");
+        assertSameAsRowWise("not (x <= 3) or is_awesome");
+        assertSameAsRowWise("is_awesome and (id < 3 or x > 0)");
+        assertSameAsRowWise("not is_awesome");
+    }
+
+    @Test
+    public void test_casts_and_string_functions_match_row_wise_evaluation() throws Exception {
+        assertSameAsRowWise("id::text");
+        assertSameAsRowWise("x::double");
+        assertSameAsRowWise("try_cast(name as integer)");
+        assertSameAsRowWise("lower(name) || upper(name)");
+        assertSameAsRowWise("concat(name, id)");
+        assertSameAsRowWise("char_length(name)");
+    }
+
+    @Test
+    public void test_integer_overflow_fails_like_row_wise_evaluation() throws Exception {
+        Symbol symbol = asInputColumns("id + 2147483647");
+        assertThatThrownBy(() -> evaluateRowWise(symbol, ROWS))
+            .isExactlyInstanceOf(ArithmeticException.class)
+            .hasMessage("integer overflow");
+        assertThatThrownBy(() -> evaluateVectorized(symbol, ROWS))
+            .isExactlyInstanceOf(ArithmeticException.class)
+            .hasMessage("integer overflow");
+    }
+
+    @Test
+    public void test_division_by_zero_of_null_rows_is_skipped() throws Exception {
+        List<Object[]> rows = List.of(
+            new Object[] { 4, 2L },
+            new Object[] { null, 0L },
+            new Object[] { 6, null }
+        );
+        Symbol symbol = asInputColumns("x / id");
+        assertThat(evaluateVectorized(symbol, rows)).isEqualTo(Arrays.asList(0L, null, null));
+    }
+
+    @Test
+    public void test_unsupported_functions_are_not_vectorized() throws Exception {
+        assertThat(VectorExpressions.compile(asInputColumns("abs(id)"), txnCtx)).isNull();
+        assertThat(VectorExpressions.compile(asInputColumns("id + abs(id)"), txnCtx)).isNull();
+    }
+
+    @Test
+    public void test_batch_can_be_reused_after_clear() throws Exception {
+        VectorExpression expression = VectorExpressions.compile(asInputColumns("id * 2"), txnCtx);
+        ColumnBatch batch = batchOf(ROWS);
+        assertThat(expression.evaluate(batch).get(0)).isEqualTo(2);
+
+        batch.clear();
+        batch.add(new RowN(21, null, null, null, null, null));
+        ColumnVector result = expression.evaluate(batch);
+        assertThat(result.size()).isEqualTo(1);
+        assertThat(result.get(0)).isEqualTo(42);
+    }
+}
@@ -468,6 +468,30 @@ public class CopyIntegrationTest extends SQLHttpIntegrationTest {
         assertThat(size).isEqualTo(35L);
     }
 
+    @Test
+    public void test_copy_to_and_from_parquet() throws Exception {
+        execute("create table src (id int, name text, ts timestamp with time zone, obj object as (x int))" +
+                " clustered into 2 shards with (number_of_replicas = 0)");
+        execute("insert into src (id, name, ts, obj) values (1, 'foo', 1700000000000, {x=10}), (2, null, null, null)");
+        execute("refresh table src");
+
+        String uriTemplate = Paths.get(folder.getRoot().toURI()).toUri().toString();
+        execute("copy src to DIRECTORY ? with (format='parquet')", new Object[]{uriTemplate});
+        assertThat(response).hasRowCount(2L);
+        String[] files = folder.getRoot().list();
+        assertThat(files).isNotEmpty().allMatch(f -> f.startsWith("src_") && f.endsWith(".parquet"));
+
+        execute("create table dst (id int, name text, ts timestamp with time zone, obj object as (x int))" +
+                " with (number_of_replicas = 0)");
+        execute("copy dst from ? with (format='parquet', shared=true)", new Object[]{uriTemplate + "*.parquet"});
+        assertThat(response).hasRowCount(2L);
+        execute("refresh table dst");
+        execute("select id, name, ts, obj from dst order by id");
+        assertThat(response).hasRows(
+            "1| foo| 1700000000000| {x=10}",
+            "2| NULL| NULL| NULL");
+    }
+
     @Test
     public void testCopyColumnsToDirectory() throws Exception {
         this.setup.groupBySetup();
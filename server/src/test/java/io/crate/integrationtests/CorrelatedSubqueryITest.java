@@ -404,13 +404,10 @@ public class CorrelatedSubqueryITest extends IntegTestCase {
             + "WHERE EXISTS (SELECT 1 FROM b where a.f1 = b.f1 and a.f2 = b.f2 and b.f3 ='c') and a.f3 IN ('a','b','c')";
         assertThat(execute("explain (costs false)" + stmt)).hasLines(
             "HashAggregate[count(*)]",
-            "  └ Filter[EXISTS (SELECT 1 FROM (doc.b))]",
-            "    └ CorrelatedJoin[f1, f2, (SELECT 1 FROM (doc.b))]",
-            "      └ Collect[doc.a | [f1, f2] | (f3 = ANY(['a', 'b', 'c']))]",
-            "      └ SubPlan",
-            "        └ Eval[1]",
-            "          └ Limit[1;0]",
-            "            └ Collect[doc.b | [1] | (((f1 = f1) AND (f2 = f2)) AND (f3 = 'c'))]"
+            "  └ HashJoin[SEMI | ((f1 = f1) AND (f2 = f2))]",
+            "    ├ Collect[doc.a | [f1, f2] | (f3 = ANY(['a', 'b', 'c']))]",
+            "    └ Rename[f1, f2] AS _subquery_0",
+            "      └ Collect[doc.b | [f1, f2] | (f3 = 'c')]"
         );
         assertThat(execute(stmt)).hasRows(
             "1"
@@ -0,0 +1,59 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.integrationtests;
+
+import static io.crate.testing.Asserts.assertThat;
+
+import org.elasticsearch.test.IntegTestCase;
+import org.junit.Test;
+
+public class FloatVectorIntegrationTest extends IntegTestCase {
+
+    @Test
+    public void test_knn_match_on_quantized_column_with_pre_filter() throws Exception {
+        execute("""
+            create table tbl (
+                id int,
+                v float_vector(2) index using hnsw with (similarity = 'cosine', quantization = 'int8')
+            ) clustered into 1 shards with (number_of_replicas = 0)
+            """);
+        execute("insert into tbl (id, v) values (1, [1.0, 1.0]), (2, [1.0, 0.9]), (3, [1.0, 0.0])");
+        execute("refresh table tbl");
+        execute("insert into tbl (id, v) values (4, [2.0, 2.1]), (5, [0.0, 1.0]), (6, [1.0, 0.8])");
+        execute("refresh table tbl");
+        execute("optimize table tbl with (max_num_segments = 1)");
+
+        execute("select id from tbl where knn_match(v, [1.0, 1.0], 2) and id > 3 order by _score desc");
+        assertThat(response).hasRows(
+            "4",
+            "6"
+        );
+
+        execute("show create table tbl");
+        assertThat((String) response.rows()[0][0]).contains(
+            "\"v\" FLOAT_VECTOR(2) INDEX USING HNSW WITH (\n" +
+            "      quantization = 'int8',\n" +
+            "      similarity = 'cosine'\n" +
+            "   )"
+        );
+    }
+}
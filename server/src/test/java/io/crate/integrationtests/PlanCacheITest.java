@@ -0,0 +1,72 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.integrationtests;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.function.ToLongFunction;
+
+import org.elasticsearch.test.IntegTestCase;
+import org.junit.Test;
+
+import io.crate.planner.PlanCache;
+import io.crate.planner.Planner;
+
+public class PlanCacheITest extends IntegTestCase {
+
+    private long sum(ToLongFunction<PlanCache> stat) {
+        long sum = 0;
+        for (Planner planner : cluster().getInstances(Planner.class)) {
+            sum += stat.applyAsLong(planner.planCache());
+        }
+        return sum;
+    }
+
+    @Test
+    public void test_repeated_statement_reuses_plan_until_metadata_changes() throws Exception {
+        execute("create table tbl (id int primary key, name text)");
+        execute("insert into tbl (id, name) values (?, ?)", new Object[][] {
+            new Object[] { 1, "Arthur" },
+            new Object[] { 2, "Trillian" }
+        });
+        execute("refresh table tbl");
+
+        try (var session = sqlExecutor.newSession()) {
+            long hitsBefore = sum(PlanCache::hits);
+            for (int i = 1; i <= 2; i++) {
+                execute("select name from tbl where id = ?", new Object[] { i }, session);
+                assertThat(response.rows()[0][0]).isEqualTo(i == 1 ? "Arthur" : "Trillian");
+            }
+            assertThat(sum(PlanCache::hits)).isEqualTo(hitsBefore + 1);
+
+            execute("alter table tbl add column age int");
+            long invalidationsBefore = sum(PlanCache::invalidations);
+            execute("select name from tbl where id = ?", new Object[] { 1 }, session);
+            assertThat(response.rows()[0][0]).isEqualTo("Arthur");
+            assertThat(sum(PlanCache::invalidations)).isEqualTo(invalidationsBefore + 1);
+        }
+
+        execute("select count(*), sum(size) > 0, sum(hits) > 0 from sys.plan_cache");
+        assertThat(response.rows()[0]).containsExactly((long) cluster().size(), true, true);
+    }
+}
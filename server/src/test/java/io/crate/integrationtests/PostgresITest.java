@@ -27,6 +27,9 @@ import static io.crate.protocols.postgres.PostgresNetty.PSQL_PORT_SETTING;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.sql.Array;
 import java.sql.BatchUpdateException;
 import java.sql.Connection;
@@ -53,7 +56,9 @@ import org.elasticsearch.test.IntegTestCase;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
+import org.postgresql.PGConnection;
 import org.postgresql.PGProperty;
+import org.postgresql.copy.CopyManager;
 import org.postgresql.geometric.PGpoint;
 import org.postgresql.jdbc.PreferQueryMode;
 import org.postgresql.util.PGobject;
@@ -1263,6 +1268,35 @@ public class PostgresITest extends IntegTestCase {
         }
     }
 
+    @Test
+    public void test_copy_from_stdin_and_copy_to_stdout() throws Exception {
+        try (Connection conn = DriverManager.getConnection(url(RW), properties)) {
+            conn.createStatement().execute("create table tbl (id int primary key, name text)");
+            CopyManager copyManager = conn.unwrap(PGConnection.class).getCopyAPI();
+
+            StringBuilder data = new StringBuilder();
+            for (int i = 0; i < 200; i++) {
+                data.append("{\"id\": ").append(i).append(", \"name\": \"n").append(i).append("\"}\n");
+            }
+            long inserted = copyManager.copyIn(
+                "copy tbl from stdin",
+                new ByteArrayInputStream(data.toString().getBytes(StandardCharsets.UTF_8)));
+            assertThat(inserted).isEqualTo(200L);
+            conn.createStatement().execute("refresh table tbl");
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            long exported = copyManager.copyOut("copy tbl (id, name) where id < 2 to stdout", out);
+            assertThat(exported).isEqualTo(2L);
+            assertThat(out.toString(StandardCharsets.UTF_8).lines().sorted()).containsExactly(
+                "[0,\"n0\"]",
+                "[1,\"n1\"]"
+            );
+
+            // The connection remains usable
+            assertSelectNameFromSysClusterWorks(conn);
+        }
+    }
+
     private long getNumQueriesFromJobsLogs() {
         long result = 0;
         Iterable<JobsLogs> jobLogs = cluster().getInstances(JobsLogs.class);
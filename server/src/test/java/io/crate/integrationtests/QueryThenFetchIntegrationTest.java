@@ -22,9 +22,12 @@
 package io.crate.integrationtests;
 
 import static io.crate.protocols.postgres.PGErrorStatus.INTERNAL_ERROR;
+import static io.crate.testing.Asserts.assertThat;
 import static io.crate.testing.TestingHelpers.printedTable;
 import static io.netty.handler.codec.http.HttpResponseStatus.BAD_REQUEST;
-import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
 
 import org.elasticsearch.test.IntegTestCase;
 import org.junit.Test;
@@ -120,4 +123,37 @@ public class QueryThenFetchIntegrationTest extends IntegTestCase {
         assertThat(printedTable(response.rows())).isEqualTo("0\n1\n2\n3\n4\n5\n6\n7\n8\n9\n10\n11\n12\n13\n14\n15\n16\n17\n18\n19\n20\n21\n");
         assertThat(response.rowCount()).isEqualTo((long) docCount);
     }
+
+    @Test
+    public void test_fetch_columns_from_doc_values_and_source_over_multiple_segments() throws Exception {
+        execute("""
+            create table t (
+                id int,
+                l bigint,
+                d double,
+                ts timestamp with time zone,
+                s text,
+                ft text index using fulltext,
+                o object as (x int),
+                a array(int)
+            ) clustered into 1 shards with (number_of_replicas = 0)
+            """);
+        for (int i = 0; i < 3; i++) {
+            execute(
+                "insert into t (id, l, d, ts, s, ft, o, a) values (?, ?, ?, ?, ?, ?, ?, ?), (?, null, null, null, null, null, null, null)",
+                new Object[]{i, i * 10L, i + 0.5, i * 1000L, "s" + i, "ft " + i, Map.of("x", i), List.of(i, i), i + 10});
+            // creates a new segment per insert
+            execute("refresh table t");
+        }
+
+        execute("select l, d, ts, s, ft, o['x'], a from t order by id limit 10");
+        assertThat(response).hasRows(
+            "0| 0.5| 0| s0| ft 0| 0| [0, 0]",
+            "10| 1.5| 1000| s1| ft 1| 1| [1, 1]",
+            "20| 2.5| 2000| s2| ft 2| 2| [2, 2]",
+            "NULL| NULL| NULL| NULL| NULL| NULL| NULL",
+            "NULL| NULL| NULL| NULL| NULL| NULL| NULL",
+            "NULL| NULL| NULL| NULL| NULL| NULL| NULL"
+        );
+    }
 }
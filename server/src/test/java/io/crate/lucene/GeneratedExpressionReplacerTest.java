@@ -0,0 +1,92 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.lucene;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.elasticsearch.Version;
+import org.junit.Test;
+
+import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
+import io.crate.testing.QueryTester;
+
+public class GeneratedExpressionReplacerTest extends CrateDummyClusterServiceUnitTest {
+
+    private static final String CREATE_TABLE = """
+        create table t (
+            email text,
+            email_lower text as lower(email),
+            email_upper text as upper(email) index off storage with (columnstore = false),
+            x int,
+            x_plus_one int as x + 1
+        )
+        """;
+
+    @Test
+    public void test_expression_of_generated_column_uses_index_of_generated_column() throws Exception {
+        QueryTester.Builder builder = new QueryTester.Builder(
+            THREAD_POOL,
+            clusterService,
+            Version.CURRENT,
+            CREATE_TABLE
+        );
+        builder.indexValues("email", "Arthur@example.com", "ARTHUR@example.com", "ford@example.com");
+        try (QueryTester tester = builder.build()) {
+            assertThat(tester.toQuery("lower(email) = 'arthur@example.com'"))
+                .hasToString("email_lower:arthur@example.com");
+            assertThat(tester.runQuery("email", "lower(email) = 'arthur@example.com'"))
+                .containsExactlyInAnyOrder("Arthur@example.com", "ARTHUR@example.com");
+        }
+    }
+
+    @Test
+    public void test_range_on_expression_of_generated_column_uses_index_of_generated_column() throws Exception {
+        QueryTester.Builder builder = new QueryTester.Builder(
+            THREAD_POOL,
+            clusterService,
+            Version.CURRENT,
+            CREATE_TABLE
+        );
+        builder.indexValues("x", 1, 10, 20);
+        try (QueryTester tester = builder.build()) {
+            assertThat(tester.toQuery("x + 1 > 10")).hasToString("x_plus_one:[11 TO 2147483647]");
+            assertThat(tester.runQuery("x", "x + 1 > 10")).containsExactlyInAnyOrder(10, 20);
+        }
+    }
+
+    @Test
+    public void test_expression_of_generated_column_without_index_and_doc_values_is_not_replaced() throws Exception {
+        QueryTester.Builder builder = new QueryTester.Builder(
+            THREAD_POOL,
+            clusterService,
+            Version.CURRENT,
+            CREATE_TABLE
+        );
+        builder.indexValues("email", "Arthur@example.com", "ford@example.com");
+        try (QueryTester tester = builder.build()) {
+            assertThat(tester.toQuery("upper(email) = 'FORD@EXAMPLE.COM'"))
+                .isExactlyInstanceOf(GenericFunctionQuery.class);
+            assertThat(tester.runQuery("email", "upper(email) = 'FORD@EXAMPLE.COM'"))
+                .containsExactly("ford@example.com");
+        }
+    }
+}
@@ -31,6 +31,7 @@ import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.junit.Test;
 
 import io.crate.metadata.SearchPath;
+import io.crate.role.Role;
 
 public class SessionSettingsTest {
 
@@ -56,4 +57,25 @@ public class SessionSettingsTest {
         SessionSettings expected = new SessionSettings("user", SearchPath.createSearchPathFrom("crate"), true, true, 0);
         assertThat(actual).isEqualTo(expected);
     }
+
+    @Test
+    public void test_group_memory_limit_caps_the_operation_limit_and_is_streamed() throws IOException {
+        CoordinatorSessionSettings settings = new CoordinatorSessionSettings(Role.CRATE_USER);
+        settings.groupMemoryLimit(() -> 1024L);
+
+        settings.memoryLimit(0);
+        assertThat(settings.memoryLimitInBytes()).isEqualTo(1024);
+        settings.memoryLimit(2048);
+        assertThat(settings.memoryLimitInBytes()).isEqualTo(1024);
+        settings.memoryLimit(512);
+        assertThat(settings.memoryLimitInBytes()).isEqualTo(512);
+
+        settings.memoryLimit(0);
+        BytesStreamOutput out = new BytesStreamOutput();
+        settings.writeTo(out);
+        assertThat(new SessionSettings(out.bytes().streamInput()).memoryLimitInBytes()).isEqualTo(1024);
+
+        settings.groupMemoryLimit(() -> Long.MAX_VALUE);
+        assertThat(settings.memoryLimitInBytes()).isEqualTo(Integer.MAX_VALUE);
+    }
 }
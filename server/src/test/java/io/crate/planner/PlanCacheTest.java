@@ -0,0 +1,125 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.planner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.elasticsearch.common.settings.Settings;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.crate.analyze.AnalyzedStatement;
+import io.crate.metadata.settings.CoordinatorSessionSettings;
+import io.crate.planner.operators.LogicalPlan;
+import io.crate.sql.parser.SqlParser;
+import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
+import io.crate.testing.SQLExecutor;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+
+public class PlanCacheTest extends CrateDummyClusterServiceUnitTest {
+
+    private SQLExecutor e;
+    private PlanCache planCache;
+    private int numPlanned;
+
+    @Before
+    public void prepare() throws Exception {
+        e = SQLExecutor.of(clusterService)
+            .addTable("create table t (x int, y text)");
+        planCache = new PlanCache(clusterService.getClusterSettings());
+        numPlanned = 0;
+    }
+
+    private Plan getOrPlan(String stmt, List<DataType<?>> paramTypes, long metadataVersion, long statsVersion) {
+        AnalyzedStatement analyzedStatement = e.analyze(stmt);
+        CoordinatorSessionSettings sessionSettings = e.getSessionSettings();
+        Supplier<Plan> planner = () -> {
+            numPlanned++;
+            return e.<LogicalPlan>logicalPlan(stmt);
+        };
+        return planCache.getOrPlan(
+            SqlParser.createStatement(stmt), paramTypes, analyzedStatement, sessionSettings, metadataVersion, statsVersion, planner);
+    }
+
+    @Test
+    public void test_plan_of_repeated_statement_is_reused() throws Exception {
+        String stmt = "select x, y from t where x = ?";
+        Plan plan = getOrPlan(stmt, List.of(DataTypes.INTEGER), 1L, 1L);
+        assertThat(getOrPlan(stmt, List.of(DataTypes.INTEGER), 1L, 1L)).isSameAs(plan);
+        assertThat(getOrPlan("insert into t (x) values (?)", List.of(DataTypes.INTEGER), 1L, 1L)).isNotSameAs(plan);
+
+        assertThat(numPlanned).isEqualTo(2);
+        assertThat(planCache.hits()).isEqualTo(1L);
+        assertThat(planCache.misses()).isEqualTo(2L);
+        assertThat(planCache.size()).isEqualTo(2L);
+    }
+
+    @Test
+    public void test_statements_are_compared_by_their_syntax_tree() throws Exception {
+        Plan plan = getOrPlan("select x from t where x = ?::int", List.of(DataTypes.INTEGER), 1L, 1L);
+        assertThat(getOrPlan("SELECT x FROM t WHERE x = ?::int", List.of(DataTypes.INTEGER), 1L, 1L)).isSameAs(plan);
+        assertThat(getOrPlan("select x from t where x = ?::bigint", List.of(DataTypes.INTEGER), 1L, 1L)).isNotSameAs(plan);
+        assertThat(numPlanned).isEqualTo(2);
+    }
+
+    @Test
+    public void test_plan_is_recreated_if_metadata_or_stats_change() throws Exception {
+        String stmt = "select x from t";
+        Plan plan = getOrPlan(stmt, List.of(), 1L, 1L);
+        Plan planAfterMetadataChange = getOrPlan(stmt, List.of(), 2L, 1L);
+        assertThat(planAfterMetadataChange).isNotSameAs(plan);
+        Plan planAfterStatsChange = getOrPlan(stmt, List.of(), 2L, 2L);
+        assertThat(planAfterStatsChange).isNotSameAs(planAfterMetadataChange);
+        assertThat(getOrPlan(stmt, List.of(), 2L, 2L)).isSameAs(planAfterStatsChange);
+
+        assertThat(numPlanned).isEqualTo(3);
+        assertThat(planCache.invalidations()).isEqualTo(2L);
+        assertThat(planCache.size()).isEqualTo(1L);
+    }
+
+    @Test
+    public void test_statements_with_non_deterministic_functions_or_subqueries_are_not_cached() throws Exception {
+        assertThat(PlanCache.isCacheable(e.analyze("select x from t where x > ?"))).isTrue();
+        assertThat(PlanCache.isCacheable(e.analyze("insert into t (x, y) values (?, ?)"))).isTrue();
+        assertThat(PlanCache.isCacheable(e.analyze("select x, random() from t"))).isFalse();
+        assertThat(PlanCache.isCacheable(e.analyze("select x from t where x > (select 1)"))).isFalse();
+        assertThat(PlanCache.isCacheable(e.analyze("insert into t (x) values (extract(year from current_timestamp))")))
+            .isFalse();
+        assertThat(PlanCache.isCacheable(e.analyze("delete from t where x = 1"))).isFalse();
+    }
+
+    @Test
+    public void test_plans_are_not_cached_if_cache_size_is_zero() throws Exception {
+        clusterService.getClusterSettings().applySettings(
+            Settings.builder().put(PlanCache.PLAN_CACHE_SIZE_SETTING.getKey(), 0).build());
+        String stmt = "select x from t";
+        Plan plan = getOrPlan(stmt, List.of(), 1L, 1L);
+        assertThat(getOrPlan(stmt, List.of(), 1L, 1L)).isNotSameAs(plan);
+        assertThat(numPlanned).isEqualTo(2);
+        assertThat(planCache.size()).isZero();
+    }
+}
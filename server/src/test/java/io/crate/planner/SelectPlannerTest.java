@@ -1029,6 +1029,38 @@ public class SelectPlannerTest extends CrateDummyClusterServiceUnitTest {
         assertThat(collect.nodeIds()).hasSize(2);
     }
 
+    @Test
+    public void test_window_functions_over_sorted_collect_are_computed_on_sorted_source() throws Exception {
+        SQLExecutor e = SQLExecutor.builder(clusterService)
+            .setNumNodes(2)
+            .build()
+            .addTable(TableDefinitions.USER_TABLE_DEFINITION);
+
+        Merge localMerge = e.plan("select sum(ints) OVER (partition by awesome order by ints) from users");
+        Merge distMerge = (Merge) localMerge.subPlan();
+        assertThat(distMerge.mergePhase().orderByPositions()).isNotNull();
+        assertThat(distMerge.mergePhase().projections()).satisfiesExactly(
+            p -> assertThat(((WindowAggProjection) p).sourceSorted()).isTrue(),
+            p -> assertThat(p).isExactlyInstanceOf(EvalProjection.class));
+        Collect collect = (Collect) distMerge.subPlan();
+        assertThat(((RoutedCollectPhase) collect.collectPhase()).orderBy()).isNotNull();
+    }
+
+    @Test
+    public void test_window_functions_over_source_without_lucene_sort_sort_all_rows() throws Exception {
+        SQLExecutor e = SQLExecutor.builder(clusterService)
+            .setNumNodes(2)
+            .build()
+            .addTable(TableDefinitions.USER_TABLE_DEFINITION);
+
+        Merge localMerge = e.plan("select sum(ints) OVER (partition by awesome order by text) from users");
+        Merge distMerge = (Merge) localMerge.subPlan();
+        assertThat(distMerge.mergePhase().orderByPositions()).isNull();
+        assertThat(distMerge.mergePhase().projections()).satisfiesExactly(
+            p -> assertThat(((WindowAggProjection) p).sourceSorted()).isFalse(),
+            p -> assertThat(p).isExactlyInstanceOf(EvalProjection.class));
+    }
+
     @Test
     public void testSeqNoAndPrimaryTermFilteringRequirePrimaryKey() throws Exception {
         SQLExecutor e = SQLExecutor.builder(clusterService)
@@ -69,14 +69,37 @@ public class ResetSettingsPlanTest extends ESTestCase {
             .put("stats.jobs_log_persistent_filter", (String) null)
             .put("stats.operations_log_size", (String) null)
             .put("stats.operations_log_expiration", (String) null)
+            .put("stats.log_ring_buffer", (String) null)
+            .put("stats.log_sampling_rate", (String) null)
+            .put("stats.log_sampling_threshold", (String) null)
             .put("stats.service.interval", (String) null)
             .put("stats.service.max_bytes_per_sec", (String) null)
+            .put("stats.service.modification_threshold", (String) null)
             .build();
 
         assertThat(buildSettingsFrom(settings, symbolEvaluator(Row.EMPTY))).isEqualTo(expected);
 
     }
 
+    @Test
+    public void test_reset_resource_group_resets_all_settings_of_the_group() throws Exception {
+        Set<Symbol> settings = Set.of(Literal.of("workload.resource_groups.analytics"));
+
+        Settings expected = Settings.builder()
+            .put("workload.resource_groups.analytics", (String) null)
+            .put("workload.resource_groups.analytics.*", (String) null)
+            .build();
+
+        assertThat(buildSettingsFrom(settings, symbolEvaluator(Row.EMPTY))).isEqualTo(expected);
+
+        settings = Set.of(Literal.of("workload"));
+        expected = Settings.builder()
+            .put("workload.max_concurrency", (String) null)
+            .put("workload.resource_groups.*", (String) null)
+            .build();
+        assertThat(buildSettingsFrom(settings, symbolEvaluator(Row.EMPTY))).isEqualTo(expected);
+    }
+
     @Test
     public void testResetNonRuntimeSetting() {
         Set<Symbol> settings = Set.of(Literal.of("gateway"));
@@ -37,6 +37,7 @@ import org.junit.Test;
 import io.crate.execution.dsl.phases.HashJoinPhase;
 import io.crate.execution.dsl.phases.MergePhase;
 import io.crate.execution.dsl.phases.NestedLoopPhase;
+import io.crate.execution.dsl.phases.RuntimeFilterTarget;
 import io.crate.execution.dsl.projection.LimitAndOffsetProjection;
 import io.crate.expression.operator.EqOperator;
 import io.crate.expression.symbol.Function;
@@ -148,8 +149,10 @@ public class JoinPhaseTest extends ESTestCase {
             List.of(Literal.of("testLeft"), Literal.of(10)),
             List.of(Literal.of("testRight"), Literal.of(20)),
             List.of(DataTypes.STRING, DataTypes.INTEGER),
+            List.of(DataTypes.LONG, DataTypes.STRING, DataTypes.INTEGER),
             111,
-            JoinType.INNER
+            JoinType.INNER,
+            new RuntimeFilterTarget(4, List.of("node1", "node2"), List.of(1, 0))
         );
 
         BytesStreamOutput output = new BytesStreamOutput();
@@ -173,6 +176,8 @@ public class JoinPhaseTest extends ESTestCase {
         assertThat(node.numLeftOutputs()).isEqualTo(node2.numLeftOutputs());
         assertThat(node.numRightOutputs()).isEqualTo(node2.numRightOutputs());
         assertThat(node.leftOutputTypes()).isEqualTo(node2.leftOutputTypes());
+        assertThat(node.rightOutputTypes()).isEqualTo(node2.rightOutputTypes());
         assertThat(node.estimatedRowSizeForLeft()).isEqualTo(node2.estimatedRowSizeForLeft());
+        assertThat(node.runtimeFilterTarget()).isEqualTo(node2.runtimeFilterTarget());
     }
 }
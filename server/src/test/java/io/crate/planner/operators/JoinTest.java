@@ -44,6 +44,8 @@ import io.crate.analyze.QueriedSelectRelation;
 import io.crate.data.Row;
 import io.crate.execution.dsl.phases.HashJoinPhase;
 import io.crate.execution.dsl.phases.NestedLoopPhase;
+import io.crate.execution.dsl.phases.RoutedCollectPhase;
+import io.crate.execution.dsl.phases.RuntimeFilterTarget;
 import io.crate.execution.dsl.projection.builder.ProjectionBuilder;
 import io.crate.fdw.ForeignDataWrappers;
 import io.crate.metadata.Reference;
@@ -365,6 +367,29 @@ public class JoinTest extends CrateDummyClusterServiceUnitTest {
         assertThat(((Join)join.left()).joinPhase()).isExactlyInstanceOf(HashJoinPhase.class);
     }
 
+    @Test
+    public void test_hash_join_has_runtime_filter_target_for_collect_on_right_side() {
+        QueriedSelectRelation mss = e.analyze("select * from t1 inner join t2 on t1.i = t2.i");
+
+        Join join = plan(mss);
+        HashJoinPhase joinPhase = (HashJoinPhase) join.joinPhase();
+        RoutedCollectPhase rightCollect = (RoutedCollectPhase) ((Collect) join.right()).collectPhase();
+        RuntimeFilterTarget target = joinPhase.runtimeFilterTarget();
+        assertThat(target).isNotNull();
+        assertThat(target.collectPhaseId()).isEqualTo(rightCollect.phaseId());
+        assertThat(target.nodeIds()).containsExactlyInAnyOrderElementsOf(rightCollect.nodeIds());
+        assertThat(target.keyPositions()).hasSize(1);
+        assertThat(rightCollect.toCollect().get(target.keyPositions().getFirst())).isReference().hasName("i");
+    }
+
+    @Test
+    public void test_hash_join_has_no_runtime_filter_target_if_right_join_key_is_computed() {
+        QueriedSelectRelation mss = e.analyze("select * from t1 inner join t2 on t1.i + 1 = t2.i + 1");
+
+        Join join = plan(mss);
+        assertThat(((HashJoinPhase) join.joinPhase()).runtimeFilterTarget()).isNull();
+    }
+
     @Test
     public void testMixedHashJoinNestedLoop() {
         QueriedSelectRelation mss = e.analyze("select * " +
@@ -755,6 +780,63 @@ public class JoinTest extends CrateDummyClusterServiceUnitTest {
         assertThat(((Merge) plan).subPlan()).isExactlyInstanceOf(Join.class);
     }
 
+    @Test
+    public void test_large_in_subquery_is_planned_as_semi_join() {
+        e.updateTableStats(Map.of(T3.T2, new Stats(SemiJoins.MIN_ROWS_FOR_IN_SUBQUERY, 0, Map.of())));
+        String statement = "SELECT a FROM t1 WHERE x IN (SELECT y FROM t2)";
+        LogicalPlan logicalPlan = e.logicalPlan(statement);
+        assertThat(logicalPlan).isEqualTo(
+            """
+            Eval[a]
+              └ HashJoin[SEMI | (x = y)]
+                ├ Collect[doc.t1 | [a, x] | true]
+                └ Rename[y] AS _subquery_0
+                  └ Collect[doc.t2 | [y] | true]
+            """);
+
+        Join join = plan(e.analyze(statement));
+        assertThat(join.joinPhase()).isExactlyInstanceOf(HashJoinPhase.class);
+        assertThat(join.joinPhase().joinType()).isEqualTo(JoinType.SEMI);
+    }
+
+    @Test
+    public void test_small_in_subquery_is_not_planned_as_semi_join() {
+        e.updateTableStats(Map.of(T3.T2, new Stats(10, 0, Map.of())));
+        LogicalPlan logicalPlan = e.logicalPlan("SELECT a FROM t1 WHERE x IN (SELECT y FROM t2)");
+        assertThat(logicalPlan).isExactlyInstanceOf(MultiPhase.class);
+    }
+
+    @Test
+    public void test_correlated_exists_and_not_exists_are_planned_as_semi_and_anti_join() {
+        LogicalPlan logicalPlan = e.logicalPlan(
+            "SELECT a FROM t1 WHERE EXISTS (SELECT 1 FROM t2 WHERE t2.y = t1.x AND t2.b = 'foo')");
+        assertThat(logicalPlan).isEqualTo(
+            """
+            Eval[a]
+              └ HashJoin[SEMI | (x = y)]
+                ├ Collect[doc.t1 | [a, x] | true]
+                └ Rename[y] AS _subquery_0
+                  └ Collect[doc.t2 | [y] | (b = 'foo')]
+            """);
+
+        logicalPlan = e.logicalPlan("SELECT a FROM t1 WHERE NOT EXISTS (SELECT 1 FROM t2 WHERE t2.y = t1.x)");
+        assertThat(logicalPlan).isEqualTo(
+            """
+            Eval[a]
+              └ HashJoin[ANTI | (x = y)]
+                ├ Collect[doc.t1 | [a, x] | true]
+                └ Rename[y] AS _subquery_0
+                  └ Collect[doc.t2 | [y] | true]
+            """);
+    }
+
+    @Test
+    public void test_correlated_exists_with_non_equality_correlation_uses_correlated_join() {
+        LogicalPlan logicalPlan = e.logicalPlan("SELECT a FROM t1 WHERE EXISTS (SELECT 1 FROM t2 WHERE t2.y > t1.x)");
+        assertThat(logicalPlan.sources().getFirst()).isExactlyInstanceOf(Filter.class);
+        assertThat(logicalPlan.sources().getFirst().sources().getFirst()).isExactlyInstanceOf(CorrelatedJoin.class);
+    }
+
     /**
      * <a href=https://github.com/crate/crate/issues/13592/>
      */
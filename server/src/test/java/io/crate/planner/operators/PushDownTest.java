@@ -473,7 +473,7 @@ public class PushDownTest extends CrateDummyClusterServiceUnitTest {
     }
 
     @Test
-    public void test_filter_on_relation_is_pushed_beneath_correlated_join() {
+    public void test_filter_on_relation_is_pushed_beneath_semi_join() {
         var plan = sqlExecutor.logicalPlan(
             """
             SELECT a.mountain
@@ -489,6 +489,36 @@ public class PushDownTest extends CrateDummyClusterServiceUnitTest {
                 AND
                 a.country = 'DE'
             """);
+        var expectedPlan =
+            """
+            Eval[mountain]
+              └ HashJoin[SEMI | (height = height)]
+                ├ Rename[mountain, height] AS a
+                │  └ Collect[sys.summits | [mountain, height] | (country = 'DE')]
+                └ Rename[height] AS _subquery_0
+                  └ Rename[height] AS b
+                    └ Collect[sys.summits | [height] | true]
+            """;
+        assertThat(plan).isEqualTo(expectedPlan);
+    }
+
+    @Test
+    public void test_filter_on_relation_is_pushed_beneath_correlated_join() {
+        var plan = sqlExecutor.logicalPlan(
+            """
+            SELECT a.mountain
+            FROM sys.summits a
+            WHERE
+                EXISTS
+                (
+                    SELECT 1
+                    FROM sys.summits b
+                    WHERE
+                        b.height > a.height
+                )
+                AND
+                a.country = 'DE'
+            """);
         var expectedPlan =
             """
             Eval[mountain]
@@ -500,7 +530,7 @@ public class PushDownTest extends CrateDummyClusterServiceUnitTest {
                     └ Eval[1]
                       └ Rename[1] AS b
                         └ Limit[1;0]
-                          └ Collect[sys.summits | [1] | (height = height)]
+                          └ Collect[sys.summits | [1] | (height > height)]
             """;
         assertThat(plan).isEqualTo(expectedPlan);
     }
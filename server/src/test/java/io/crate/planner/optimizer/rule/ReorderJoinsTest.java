@@ -0,0 +1,129 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.planner.optimizer.rule;
+
+import static io.crate.testing.Asserts.assertThat;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import io.crate.analyze.WhereClause;
+import io.crate.analyze.relations.DocTableRelation;
+import io.crate.metadata.RelationName;
+import io.crate.planner.operators.Collect;
+import io.crate.planner.operators.JoinPlan;
+import io.crate.planner.operators.LogicalPlan;
+import io.crate.planner.optimizer.matcher.Captures;
+import io.crate.planner.optimizer.matcher.Match;
+import io.crate.sql.tree.JoinType;
+import io.crate.statistics.Stats;
+import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
+import io.crate.testing.SQLExecutor;
+
+public class ReorderJoinsTest extends CrateDummyClusterServiceUnitTest {
+
+    private SQLExecutor e;
+    private Collect a;
+    private Collect b;
+    private Collect c;
+    private Collect d;
+
+    @Before
+    public void prepare() throws Exception {
+        e = SQLExecutor.of(clusterService)
+            .addTable("create table a (x int)")
+            .addTable("create table b (y int)")
+            .addTable("create table c (z int)")
+            .addTable("create table d (w int)");
+
+        a = new Collect(new DocTableRelation(e.resolveTableInfo("a")), List.of(e.asSymbol("x")), WhereClause.MATCH_ALL);
+        b = new Collect(new DocTableRelation(e.resolveTableInfo("b")), List.of(e.asSymbol("y")), WhereClause.MATCH_ALL);
+        c = new Collect(new DocTableRelation(e.resolveTableInfo("c")), List.of(e.asSymbol("z")), WhereClause.MATCH_ALL);
+        d = new Collect(new DocTableRelation(e.resolveTableInfo("d")), List.of(e.asSymbol("w")), WhereClause.MATCH_ALL);
+
+        e.updateTableStats(Map.of(
+            new RelationName("doc", "a"), new Stats(1_000_000, 16_000_000, Map.of()),
+            new RelationName("doc", "b"), new Stats(1_000_000, 16_000_000, Map.of()),
+            new RelationName("doc", "c"), new Stats(10, 160, Map.of())
+        ));
+    }
+
+    private LogicalPlan apply(JoinPlan join) {
+        var rule = new ReorderJoins();
+        Match<JoinPlan> match = rule.pattern().accept(join, Captures.empty());
+        assertThat(match.isPresent()).isTrue();
+        return rule.apply(match.value(), match.captures(), e.ruleContext());
+    }
+
+    @Test
+    public void test_join_small_tables_first() throws Exception {
+        var firstJoin = new JoinPlan(a, b, JoinType.INNER, e.asSymbol("a.x = b.y"));
+        var join = new JoinPlan(firstJoin, c, JoinType.INNER, e.asSymbol("b.y = c.z"));
+
+        LogicalPlan result = apply(join);
+        assertThat(result).hasOperators(
+            "Join[INNER | (x = y)]",
+            "  ├ Collect[doc.a | [x] | true]",
+            "  └ Join[INNER | (y = z)]",
+            "    ├ Collect[doc.b | [y] | true]",
+            "    └ Collect[doc.c | [z] | true]"
+        );
+
+        // The new order is already the best one
+        assertThat(apply((JoinPlan) result)).isNull();
+    }
+
+    @Test
+    public void test_keeps_non_equi_join_conditions() throws Exception {
+        var firstJoin = new JoinPlan(a, b, JoinType.INNER, e.asSymbol("a.x = b.y"));
+        var join = new JoinPlan(firstJoin, c, JoinType.INNER, e.asSymbol("b.y = c.z AND b.y > c.z"));
+
+        assertThat(apply(join)).hasOperators(
+            "Join[INNER | (x = y)]",
+            "  ├ Collect[doc.a | [x] | true]",
+            "  └ Join[INNER | ((y = z) AND (y > z))]",
+            "    ├ Collect[doc.b | [y] | true]",
+            "    └ Collect[doc.c | [z] | true]"
+        );
+    }
+
+    @Test
+    public void test_does_not_reorder_without_stats() throws Exception {
+        var firstJoin = new JoinPlan(a, b, JoinType.INNER, e.asSymbol("a.x = b.y"));
+        var secondJoin = new JoinPlan(firstJoin, d, JoinType.INNER, e.asSymbol("b.y = d.w"));
+        var join = new JoinPlan(secondJoin, c, JoinType.INNER, e.asSymbol("b.y = c.z"));
+
+        assertThat(apply(join)).isNull();
+    }
+
+    @Test
+    public void test_does_not_reorder_outer_joins() throws Exception {
+        var firstJoin = new JoinPlan(a, b, JoinType.LEFT, e.asSymbol("a.x = b.y"));
+        var join = new JoinPlan(firstJoin, c, JoinType.INNER, e.asSymbol("b.y = c.z"));
+
+        assertThat(apply(join)).isNull();
+    }
+}
@@ -43,6 +43,7 @@ import io.crate.metadata.CoordinatorTxnCtx;
 import io.crate.metadata.NodeContext;
 import io.crate.metadata.TransactionContext;
 import io.crate.role.Role;
+import io.crate.statistics.ColumnGroupStats;
 import io.crate.statistics.ColumnStats;
 import io.crate.statistics.Stats;
 import io.crate.statistics.StatsUtils;
@@ -214,4 +215,74 @@ public class SelectivityFunctionsTest extends CrateDummyClusterServiceUnitTest {
         assertThat(estimate(stats, expressions.asSymbol("x >= 5"))).isEqualTo(10);
         assertThat(estimate(stats, expressions.asSymbol("x > null"))).isEqualTo(0);
     }
+
+    @Test
+    public void test_range_operators_use_histogram_for_values_not_in_mcv() throws Exception {
+        int numTotalRows = 1000;
+        List<Integer> xValues = IntStream.range(0, numTotalRows).boxed().toList();
+        SqlExpressions expressions = new SqlExpressions(T3.sources(clusterService));
+        ColumnStats<Integer> xStats = StatsUtils.statsFromValues(DataTypes.INTEGER, xValues);
+        assertThat(xStats.histogram()).hasSizeGreaterThan(2);
+        Stats stats = new Stats(numTotalRows, DataTypes.INTEGER.fixedSize(), Map.of(ColumnIdent.of("x"), xStats));
+
+        assertThat(estimate(stats, expressions.asSymbol("x < 250"))).isBetween(200L, 300L);
+        assertThat(estimate(stats, expressions.asSymbol("250 > x"))).isBetween(200L, 300L);
+        assertThat(estimate(stats, expressions.asSymbol("x >= 900"))).isBetween(50L, 150L);
+        assertThat(estimate(stats, expressions.asSymbol("x < 0"))).isLessThanOrEqualTo(1L);
+        assertThat(estimate(stats, expressions.asSymbol("x > 2000"))).isEqualTo(0L);
+    }
+
+    @Test
+    public void test_upper_and_lower_bound_on_same_column_are_estimated_as_range() throws Exception {
+        int numTotalRows = 1000;
+        List<Integer> xValues = IntStream.range(0, numTotalRows).boxed().toList();
+        SqlExpressions expressions = new SqlExpressions(T3.sources(clusterService));
+        ColumnStats<Integer> xStats = StatsUtils.statsFromValues(DataTypes.INTEGER, xValues);
+        Stats stats = new Stats(numTotalRows, DataTypes.INTEGER.fixedSize(), Map.of(ColumnIdent.of("x"), xStats));
+
+        // Independence assumption would result in ~ 0.6 * 0.5 * 1000 = 300
+        assertThat(estimate(stats, expressions.asSymbol("x > 400 AND x < 500"))).isBetween(50L, 150L);
+        assertThat(estimate(stats, expressions.asSymbol("x > 400 AND x < 500 AND x < 600"))).isBetween(50L, 150L);
+        // Contradicting bounds
+        assertThat(estimate(stats, expressions.asSymbol("x > 500 AND x < 400"))).isEqualTo(5L);
+
+        // Without stats for the column
+        Stats statsWithoutX = new Stats(numTotalRows, DataTypes.INTEGER.fixedSize(), Map.of());
+        assertThat(estimate(statsWithoutX, expressions.asSymbol("x > 400 AND x < 500"))).isEqualTo(5L);
+    }
+
+    @Test
+    public void test_eq_on_correlated_columns_uses_column_group_stats() throws Exception {
+        int numTotalRows = 10_000;
+        List<Integer> values = IntStream.range(0, numTotalRows).map(i -> i % 100).boxed().toList();
+        SqlExpressions expressions = new SqlExpressions(T3.sources(clusterService));
+        ColumnStats<Integer> xStats = StatsUtils.statsFromValues(DataTypes.INTEGER, values);
+        ColumnStats<Integer> yStats = StatsUtils.statsFromValues(DataTypes.INTEGER, values);
+        Map<ColumnIdent, ColumnStats<?>> statsByColumn = Map.of(
+            ColumnIdent.of("x"), xStats,
+            ColumnIdent.of("y"), yStats
+        );
+        Symbol query = expressions.asSymbol("x = 10 AND y = 10");
+
+        Stats independentStats = new Stats(numTotalRows, 16, statsByColumn);
+        assertThat(estimate(independentStats, query)).isLessThanOrEqualTo(1L);
+
+        // x determines y, there are as many distinct (x, y) pairs as distinct x values
+        Stats correlatedStats = new Stats(
+            numTotalRows,
+            16,
+            statsByColumn,
+            List.of(new ColumnGroupStats(List.of(ColumnIdent.of("x"), ColumnIdent.of("y")), 100.0))
+        );
+        assertThat(estimate(correlatedStats, query)).isBetween(90L, 110L);
+
+        // Independent columns: (x, y) pairs are spread over all 100 * 100 combinations
+        Stats uncorrelatedStats = new Stats(
+            numTotalRows,
+            16,
+            statsByColumn,
+            List.of(new ColumnGroupStats(List.of(ColumnIdent.of("x"), ColumnIdent.of("y")), 10_000.0))
+        );
+        assertThat(estimate(uncorrelatedStats, query)).isLessThanOrEqualTo(1L);
+    }
 }
@@ -26,12 +26,17 @@ import static java.util.concurrent.CompletableFuture.completedFuture;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
@@ -40,6 +45,8 @@ import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
 import org.elasticsearch.client.ElasticsearchClient;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.EsExecutors;
 import org.elasticsearch.threadpool.ThreadPool;
 import org.junit.Test;
 import org.mockito.Answers;
@@ -49,8 +56,11 @@ import org.mockito.stubbing.Answer;
 
 import io.crate.analyze.AnalyzedStatement;
 import io.crate.common.unit.TimeValue;
+import io.crate.data.InMemoryBatchIterator;
 import io.crate.data.Row;
 import io.crate.data.RowConsumer;
+import io.crate.data.SentinelRow;
+import io.crate.exceptions.JobKilledException;
 import io.crate.execution.dml.BulkResponse;
 import io.crate.execution.jobs.kill.KillJobsNodeAction;
 import io.crate.execution.jobs.kill.KillJobsNodeRequest;
@@ -270,6 +280,9 @@ public class SessionTest extends CrateDummyClusterServiceUnitTest {
     @Test
     public void test_bulk_operations_result_in_jobslog_entries() throws Exception {
         Planner planner = mock(Planner.class, Answers.RETURNS_MOCKS);
+        // Bypass the plan cache
+        doAnswer(invocation -> planner.plan(invocation.<AnalyzedStatement>getArgument(2), invocation.getArgument(3)))
+            .when(planner).plan(any(), anyList(), any(AnalyzedStatement.class), any(PlannerContext.class));
         SQLExecutor sqlExecutor = SQLExecutor.builder(clusterService)
             .setPlanner(planner)
             .build()
@@ -324,6 +337,9 @@ public class SessionTest extends CrateDummyClusterServiceUnitTest {
     @Test
     public void test_kills_query_if_not_completed_within_statement_timeout() throws Exception {
         Planner planner = mock(Planner.class, Answers.RETURNS_MOCKS);
+        // Bypass the plan cache
+        doAnswer(invocation -> planner.plan(invocation.<AnalyzedStatement>getArgument(2), invocation.getArgument(3)))
+            .when(planner).plan(any(), anyList(), any(AnalyzedStatement.class), any(PlannerContext.class));
         SQLExecutor sqlExecutor = SQLExecutor.builder(clusterService)
             .setPlanner(planner)
             .build();
@@ -382,4 +398,99 @@ public class SessionTest extends CrateDummyClusterServiceUnitTest {
         verify(client, times(1))
             .execute(Mockito.eq(KillJobsNodeAction.INSTANCE), any(KillJobsNodeRequest.class));
     }
+
+    private static void select(Session session, ResultReceiver<?> resultReceiver) {
+        session.parse("S_1", "SELECT 1", List.of());
+        session.bind("P_1", "S_1", List.of(), null);
+        session.execute("P_1", 0, resultReceiver);
+        session.sync();
+    }
+
+    @Test
+    public void test_queued_statement_is_cancelled_on_timeout_and_session_close() throws Exception {
+        Planner planner = mock(Planner.class, Answers.RETURNS_MOCKS);
+        // Bypass the plan cache
+        doAnswer(invocation -> planner.plan(invocation.<AnalyzedStatement>getArgument(2), invocation.getArgument(3)))
+            .when(planner).plan(any(), anyList(), any(AnalyzedStatement.class), any(PlannerContext.class));
+        SQLExecutor sqlExecutor = SQLExecutor.builder(clusterService)
+            .setPlanner(planner)
+            .build();
+        List<RowConsumer> started = new ArrayList<>();
+        when(planner.plan(any(AnalyzedStatement.class), any(PlannerContext.class)))
+            .thenReturn(
+                new Plan() {
+                    @Override
+                    public StatementType type() {
+                        return StatementType.SELECT;
+                    }
+
+                    @Override
+                    public void executeOrFail(DependencyCarrier dependencies,
+                                              PlannerContext plannerContext,
+                                              RowConsumer consumer,
+                                              Row params,
+                                              SubQueryResults subQueryResults) throws Exception {
+                        started.add(consumer);
+                    }
+                }
+            );
+
+        DependencyCarrier dependencies = sqlExecutor.dependencyMock;
+        ThreadPool threadPool = mock(ThreadPool.class);
+        when(threadPool.executor(anyString())).thenReturn(EsExecutors.directExecutor());
+        when(dependencies.threadPool()).thenReturn(threadPool);
+        List<Runnable> timeouts = new ArrayList<>();
+        ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+        when(dependencies.scheduler()).thenReturn(scheduler);
+        when(scheduler.schedule(any(Runnable.class), anyLong(), any(TimeUnit.class)))
+            .thenAnswer(invocation -> {
+                timeouts.add(invocation.getArgument(0));
+                return null;
+            });
+        when(dependencies.client()).thenReturn(mock(ElasticsearchClient.class));
+        clusterService.getClusterSettings().applySettings(Settings.builder()
+            .put("workload.max_concurrency", 1)
+            .build());
+
+        BaseResultReceiver runningReceiver = new BaseResultReceiver();
+        select(sqlExecutor.createSession(), runningReceiver);
+        assertThat(started).hasSize(1);
+
+        Session timingOut = sqlExecutor.createSession();
+        timingOut.sessionSettings().statementTimeout(TimeValue.timeValueMillis(10));
+        BaseResultReceiver timedOutReceiver = new BaseResultReceiver();
+        select(timingOut, timedOutReceiver);
+
+        Session closing = sqlExecutor.createSession();
+        BaseResultReceiver closedReceiver = new BaseResultReceiver();
+        select(closing, closedReceiver);
+
+        Session cancelling = sqlExecutor.createSession();
+        BaseResultReceiver cancelledReceiver = new BaseResultReceiver();
+        select(cancelling, cancelledReceiver);
+        assertThat(started).hasSize(1);
+
+        assertThat(timeouts).hasSize(1);
+        timeouts.get(0).run();
+        assertThatThrownBy(() -> timedOutReceiver.completionFuture().join())
+            .cause()
+            .isExactlyInstanceOf(JobKilledException.class)
+            .hasMessageContaining("statement_timeout");
+
+        closing.close();
+        assertThat(closedReceiver.completionFuture()).isDone();
+
+        cancelling.cancelCurrentJob();
+        assertThatThrownBy(() -> cancelledReceiver.completionFuture().join())
+            .cause()
+            .isExactlyInstanceOf(JobKilledException.class);
+
+        // None of the cancelled statements runs once the slot is free
+        started.get(0).accept(InMemoryBatchIterator.empty(SentinelRow.SENTINEL), null);
+        assertThat(runningReceiver.completionFuture()).isDone();
+        assertThat(started).hasSize(1);
+
+        select(sqlExecutor.createSession(), new BaseResultReceiver());
+        assertThat(started).hasSize(2);
+    }
 }
@@ -0,0 +1,155 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.statistics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.util.List;
+
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.indices.IndicesService;
+import org.elasticsearch.test.ESTestCase;
+import org.junit.Test;
+
+import io.crate.metadata.Reference;
+import io.crate.metadata.ReferenceIdent;
+import io.crate.metadata.RelationName;
+import io.crate.metadata.RowGranularity;
+import io.crate.metadata.Schemas;
+import io.crate.metadata.SimpleReference;
+import io.crate.statistics.ShardSampleCache.ShardSampleStats;
+import io.crate.statistics.ShardSampleCache.State;
+import io.crate.types.DataTypes;
+
+public class ShardSampleCacheTest extends ESTestCase {
+
+    private final RelationName relation = new RelationName(Schemas.DOC_SCHEMA_NAME, "dummy");
+    private final List<Reference> columns = List.of(
+        new SimpleReference(new ReferenceIdent(relation, "a"), RowGranularity.DOC, DataTypes.INTEGER, 1, null)
+    );
+    private final ShardId shard0 = new ShardId("dummy", "uuid", 0);
+    private final ShardId shard1 = new ShardId("dummy", "uuid", 1);
+
+    private ShardSampleCache newCache(Settings settings, ClusterSettings clusterSettings) {
+        return new ShardSampleCache(settings, clusterSettings, mock(IndicesService.class));
+    }
+
+    private ShardSampleCache newCache(Settings settings) {
+        return newCache(settings, new ClusterSettings(settings, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS));
+    }
+
+    private static Samples samples(int numDocs) {
+        var sketch = DataTypes.INTEGER.columnStatsSupport().sketchBuilder();
+        for (int i = 0; i < numDocs; i++) {
+            sketch.add(i % 10);
+        }
+        return new Samples(List.of(sketch), numDocs, numDocs * 4L);
+    }
+
+    @Test
+    public void test_samples_are_reused_until_modifications_exceed_threshold() throws Exception {
+        ShardSampleCache cache = newCache(Settings.EMPTY);
+        assertThat(cache.getIfCurrent(shard0, 1000, columns, List.of())).isNull();
+
+        cache.put(shard0, columns, List.of(), samples(1000), 1000, 1000, 1000, 5);
+        // 50 + 0.1 * 1000 modifications are tolerated
+        Samples cached = cache.getIfCurrent(shard0, 1150, columns, List.of());
+        assertThat(cached).isNotNull();
+        assertThat(cached.numTotalDocs()).isEqualTo(1000L);
+        Stats stats = cached.createTableStats(columns);
+        assertThat(stats.numDocs).isEqualTo(1000L);
+
+        assertThat(cache.getIfCurrent(shard0, 1151, columns, List.of())).isNull();
+        assertThat(cache.getIfCurrent(shard1, 1000, columns, List.of())).isNull();
+    }
+
+    @Test
+    public void test_modification_threshold_can_be_changed_at_runtime() throws Exception {
+        ClusterSettings clusterSettings = new ClusterSettings(Settings.EMPTY, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS);
+        ShardSampleCache cache = newCache(Settings.EMPTY, clusterSettings);
+        cache.put(shard0, columns, List.of(), samples(1000), 0, 1000, 1000, 5);
+        assertThat(cache.getIfCurrent(shard0, 500, columns, List.of())).isNull();
+
+        clusterSettings.applySettings(Settings.builder()
+            .put(ShardSampleCache.MODIFICATION_THRESHOLD_SETTING.getKey(), 0.5f)
+            .build());
+        assertThat(cache.getIfCurrent(shard0, 500, columns, List.of())).isNotNull();
+    }
+
+    @Test
+    public void test_changed_columns_invalidate_samples() throws Exception {
+        ShardSampleCache cache = newCache(Settings.EMPTY);
+        cache.put(shard0, columns, List.of(), samples(100), 100, 100, 100, 1);
+
+        List<Reference> newColumns = List.of(
+            new SimpleReference(new ReferenceIdent(relation, "b"), RowGranularity.DOC, DataTypes.INTEGER, 2, null)
+        );
+        assertThat(cache.getIfCurrent(shard0, 100, newColumns, List.of())).isNull();
+        assertThat(cache.getIfCurrent(shard0, 100, columns, List.of(List.of(0)))).isNull();
+        assertThat(cache.getIfCurrent(shard0, 100, columns, List.of())).isNotNull();
+    }
+
+    @Test
+    public void test_least_recently_used_samples_are_evicted() throws Exception {
+        ShardSampleCache unbounded = newCache(Settings.EMPTY);
+        unbounded.put(shard0, columns, List.of(), samples(100), 100, 100, 100, 1);
+        long entrySize = unbounded.sizeInBytes();
+
+        ShardSampleCache cache = newCache(Settings.builder()
+            .put(ShardSampleCache.CACHE_SIZE_SETTING.getKey(), (entrySize * 3 / 2) + "b")
+            .build());
+        cache.put(shard0, columns, List.of(), samples(100), 100, 100, 100, 1);
+        cache.put(shard1, columns, List.of(), samples(100), 100, 100, 100, 1);
+        assertThat(cache.sizeInBytes()).isEqualTo(entrySize);
+        assertThat(cache.getIfCurrent(shard0, 100, columns, List.of())).isNull();
+        assertThat(cache.getIfCurrent(shard1, 100, columns, List.of())).isNotNull();
+    }
+
+    @Test
+    public void test_stats_show_reuse_and_sampling_progress() throws Exception {
+        ShardSampleCache cache = newCache(Settings.EMPTY);
+        cache.put(shard0, columns, List.of(), samples(100), 100, 100, 100, 7);
+        cache.getIfCurrent(shard0, 100, columns, List.of());
+        cache.onSamplingStarted(shard1);
+
+        List<ShardSampleStats> stats = cache.stats();
+        assertThat(stats).hasSize(2);
+        ShardSampleStats cached = stats.stream().filter(s -> s.shardId().equals(shard0)).findFirst().orElseThrow();
+        assertThat(cached.numDocs()).isEqualTo(100L);
+        assertThat(cached.numSamples()).isEqualTo(100);
+        assertThat(cached.durationMs()).isEqualTo(7L);
+        assertThat(cached.numReused()).isEqualTo(1L);
+        // The shard is not available on the node, its samples will be dropped eventually
+        assertThat(cached.modifications()).isNull();
+        assertThat(cached.state()).isEqualTo(State.STALE);
+
+        ShardSampleStats sampling = stats.stream().filter(s -> s.shardId().equals(shard1)).findFirst().orElseThrow();
+        assertThat(sampling.state()).isEqualTo(State.SAMPLING);
+        assertThat(sampling.numDocs()).isNull();
+
+        cache.onSamplingFinished(shard1);
+        assertThat(cache.stats()).hasSize(1);
+    }
+}
@@ -23,12 +23,19 @@
 package io.crate.statistics;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import java.util.List;
 import java.util.Map;
 
+import org.elasticsearch.Version;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.test.ESTestCase;
 import org.junit.Test;
 
+import io.crate.metadata.ColumnIdent;
+
 public class StatsTest extends ESTestCase {
 
     @Test
@@ -36,4 +43,42 @@ public class StatsTest extends ESTestCase {
         Stats stats = new Stats(0L, 200L, Map.of());
         assertThat(stats.averageSizePerRowInBytes()).isZero();
     }
+
+    @Test
+    public void test_column_group_stats_are_streamed_from_5_10() throws Exception {
+        ColumnGroupStats groupStats = new ColumnGroupStats(List.of(ColumnIdent.of("a"), ColumnIdent.of("b")), 42.0);
+        Stats stats = new Stats(100L, 200L, Map.of(), List.of(groupStats));
+
+        BytesStreamOutput out = new BytesStreamOutput();
+        stats.writeTo(out);
+        StreamInput in = out.bytes().streamInput();
+        assertThat(new Stats(in).columnGroupStats()).containsExactly(groupStats);
+
+        out = new BytesStreamOutput();
+        out.setVersion(Version.V_5_9_0);
+        stats.writeTo(out);
+        in = out.bytes().streamInput();
+        in.setVersion(Version.V_5_9_0);
+        Stats received = new Stats(in);
+        assertThat(received.numDocs()).isEqualTo(100L);
+        assertThat(received.columnGroupStats()).isEmpty();
+    }
+
+    @Test
+    public void test_parse_column_groups_setting() throws Exception {
+        assertThat(ColumnGroupStats.parse("")).isEmpty();
+        assertThat(ColumnGroupStats.parse("city, zip; country,city;")).containsExactly(
+            List.of(ColumnIdent.of("city"), ColumnIdent.of("zip")),
+            List.of(ColumnIdent.of("country"), ColumnIdent.of("city"))
+        );
+        assertThat(ColumnGroupStats.parse("o.a, o.b")).containsExactly(
+            List.of(ColumnIdent.of("o", "a"), ColumnIdent.of("o", "b"))
+        );
+        assertThatThrownBy(() -> ColumnGroupStats.parse("city, city"))
+            .isExactlyInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Column group `city, city` in `index.statistics.column_groups` must contain at least two columns");
+        assertThatThrownBy(() -> ColumnGroupStats.parse("city,,zip"))
+            .isExactlyInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Invalid column group `city,,zip` in `index.statistics.column_groups`");
+    }
 }
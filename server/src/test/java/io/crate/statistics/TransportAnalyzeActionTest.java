@@ -28,6 +28,7 @@ import java.util.List;
 import org.elasticsearch.test.ESTestCase;
 import org.junit.Test;
 
+import io.crate.metadata.ColumnIdent;
 import io.crate.metadata.Reference;
 import io.crate.metadata.ReferenceIdent;
 import io.crate.metadata.RelationName;
@@ -64,4 +65,26 @@ public class TransportAnalyzeActionTest extends ESTestCase {
         var stats = samples.createTableStats(references);
         assertThat(stats.numDocs).isEqualTo(2L);
     }
+
+    @Test
+    public void test_create_stats_for_column_groups() {
+        var col1 = DataTypes.INTEGER.columnStatsSupport().sketchBuilder();
+        var col2 = DataTypes.INTEGER.columnStatsSupport().sketchBuilder();
+        var group = DistinctValuesSketch.newSketch();
+        for (int i = 0; i < 100; i++) {
+            col1.add(i % 10);
+            col2.add(i % 10);
+            group.update(i % 10 + "," + i % 10);
+        }
+        var samples = new Samples(List.of(col1, col2), List.of(group), 100, 400);
+        RelationName relation = new RelationName(Schemas.DOC_SCHEMA_NAME, "dummy");
+        var references = List.<Reference>of(
+            new SimpleReference(new ReferenceIdent(relation, "a"), RowGranularity.DOC, DataTypes.INTEGER, 1, null),
+            new SimpleReference(new ReferenceIdent(relation, "b"), RowGranularity.DOC, DataTypes.INTEGER, 2, null)
+        );
+        var stats = samples.createTableStats(references, List.of(List.of(0, 1)));
+        assertThat(stats.columnGroupStats()).containsExactly(
+            new ColumnGroupStats(List.of(ColumnIdent.of("a"), ColumnIdent.of("b")), 10.0)
+        );
+    }
 }
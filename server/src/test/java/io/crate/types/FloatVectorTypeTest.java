@@ -21,10 +21,15 @@
 
 package io.crate.types;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import java.util.ArrayList;
 
+import org.apache.lucene.index.VectorSimilarityFunction;
+import org.elasticsearch.Version;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
 import org.junit.Test;
 
 public class FloatVectorTypeTest extends DataTypeTestCase<float[]> {
@@ -50,4 +55,27 @@ public class FloatVectorTypeTest extends DataTypeTestCase<float[]> {
             .isExactlyInstanceOf(UnsupportedOperationException.class)
             .hasMessage("null values are not allowed for float_vector");
     }
+
+    @Test
+    public void test_streaming_index_options() throws Exception {
+        var type = new FloatVectorType(3, VectorSimilarityFunction.COSINE, true);
+        BytesStreamOutput out = new BytesStreamOutput();
+        DataTypes.toStream(type, out);
+
+        StreamInput in = out.bytes().streamInput();
+        FloatVectorType streamedType = (FloatVectorType) DataTypes.fromStream(in);
+        assertThat(streamedType.characterMaximumLength()).isEqualTo(3);
+        assertThat(streamedType.similarity()).isEqualTo(VectorSimilarityFunction.COSINE);
+        assertThat(streamedType.quantized()).isTrue();
+
+        out = new BytesStreamOutput();
+        out.setVersion(Version.V_5_9_0);
+        DataTypes.toStream(type, out);
+        in = out.bytes().streamInput();
+        in.setVersion(Version.V_5_9_0);
+        streamedType = (FloatVectorType) DataTypes.fromStream(in);
+        assertThat(streamedType.characterMaximumLength()).isEqualTo(3);
+        assertThat(streamedType.similarity()).isEqualTo(FloatVectorType.SIMILARITY_FUNC);
+        assertThat(streamedType.quantized()).isFalse();
+    }
 }
@@ -65,6 +65,7 @@ import org.elasticsearch.index.IndexService;
 import org.elasticsearch.index.IndexSettings;
 import org.elasticsearch.index.VersionType;
 import org.elasticsearch.index.cache.query.DisabledQueryCache;
+import org.elasticsearch.index.codec.CodecService;
 import org.elasticsearch.index.engine.Engine;
 import org.elasticsearch.index.engine.Engine.IndexResult;
 import org.elasticsearch.index.mapper.ParsedDocument;
@@ -557,6 +558,7 @@ public abstract class AggregationTestCase extends ESTestCase {
                 store,
                 queryCache,
                 testAnalysis.indexAnalyzers.getDefaultIndexAnalyzer(),
+                new CodecService(),
                 () -> null,
                 List.of(),
                 EMPTY_EVENT_LISTENER,
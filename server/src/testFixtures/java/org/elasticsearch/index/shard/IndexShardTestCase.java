@@ -71,6 +71,7 @@ import org.elasticsearch.index.Index;
 import org.elasticsearch.index.IndexSettings;
 import org.elasticsearch.index.VersionType;
 import org.elasticsearch.index.cache.query.DisabledQueryCache;
+import org.elasticsearch.index.codec.CodecService;
 import org.elasticsearch.index.engine.DocIdAndSeqNo;
 import org.elasticsearch.index.engine.Engine;
 import org.elasticsearch.index.engine.EngineFactory;
@@ -525,6 +526,7 @@ public abstract class IndexShardTestCase extends ESTestCase {
                 store,
                 queryCache,
                 testAnalysis.indexAnalyzers.getDefaultIndexAnalyzer(),
+                new CodecService(),
                 () -> new TranslogIndexer(getDocTable(indexSettings::getIndexMetadata)),
                 engineFactoryProviders,
                 indexEventListener,